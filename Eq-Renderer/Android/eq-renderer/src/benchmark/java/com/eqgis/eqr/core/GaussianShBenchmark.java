@@ -0,0 +1,145 @@
+package com.eqgis.eqr.core;
+
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 高斯点云球谐颜色计算基准测试（JVM）
+ * <p>
+ *     相机绕点云旋转，对比每帧完整计算3阶球谐(full)与{@link GaussianShEvaluator}按块缓存视线方向
+ *     (阈值2°)时的平均耗时(ms/帧)，fullxN为线程池并行的完整计算。
+ * </p>
+ * <p>updated列为缓存时每帧平均重新计算的块比例，maxErr为缓存结果与完整计算的最大通道误差(0~255)</p>
+ * <p>运行：直接执行 main，可通过参数指定点数，如 {@code 100000 1000000}</p>
+ */
+public class GaussianShBenchmark {
+
+    private static final int[] DEFAULT_COUNTS = {100_000, 1_000_000};
+    private static final int WARMUP = 5;
+    private static final int FRAMES = 60;
+    //每帧相机绕Y轴旋转的角度
+    private static final float STEP_DEGREES = 0.5f;
+
+    public static void main(String[] args) {
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool workers = new ForkJoinPool(workerCount);
+        System.out.println("workers: " + workerCount);
+        System.out.println(String.format(Locale.ROOT, "%-10s %12s %12s %12s %10s %8s",
+                "splats", "full(ms)", "fullxN(ms)", "cached(ms)", "updated", "maxErr"));
+        for (int count : counts) {
+            run(count, workers);
+        }
+        workers.shutdown();
+    }
+
+    private static void run(int count, ForkJoinPool workers) {
+        JPlyGS3dAsset asset = randomAsset(count, 42);
+        GaussianChunks chunks = GaussianChunks.build(asset.vertices, null, GaussianChunks.DEFAULT_CHUNK_SIZE);
+        float[] modelMat = identity();
+
+        GaussianShEvaluator full = new GaussianShEvaluator(asset, chunks, null);
+        full.setAngleThreshold(0f);
+        GaussianShEvaluator fullParallel = new GaussianShEvaluator(asset, chunks, workers);
+        fullParallel.setAngleThreshold(0f);
+        GaussianShEvaluator cached = new GaussianShEvaluator(asset, chunks, null);
+
+        double fullMs = measure(full, modelMat, null);
+        double fullParallelMs = measure(fullParallel, modelMat, null);
+        long[] updated = new long[1];
+        double cachedMs = measure(cached, modelMat, updated);
+
+        int maxError = 0;
+        int[] expected = full.getColors();
+        int[] actual = cached.getColors();
+        for (int i = 0; i < count; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                int e = (expected[i] >>> shift) & 0xFF;
+                int a = (actual[i] >>> shift) & 0xFF;
+                maxError = Math.max(maxError, Math.abs(e - a));
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-10d %12.2f %12.2f %12.2f %9.1f%% %8d",
+                count, fullMs, fullParallelMs, cachedMs,
+                100.0 * updated[0] / FRAMES / chunks.getChunkCount(), maxError));
+    }
+
+    /**
+     * 两个评估器在同一相机序列下结束，便于比较结果
+     * @param updated 不为null时累计重新计算的块数量
+     */
+    private static double measure(GaussianShEvaluator evaluator, float[] modelMat, long[] updated) {
+        int frame = 0;
+        for (int i = 0; i < WARMUP; i++, frame++) {
+            evaluator.update(modelMat, cameraAt(frame * STEP_DEGREES));
+        }
+        long total = 0;
+        for (int i = 0; i < FRAMES; i++, frame++) {
+            float[] camera = cameraAt(frame * STEP_DEGREES);
+            long t0 = System.nanoTime();
+            int count = evaluator.update(modelMat, camera);
+            total += System.nanoTime() - t0;
+            if (updated != null) {
+                updated[0] += count;
+            }
+        }
+        return total / 1_000_000.0 / FRAMES;
+    }
+
+    private static JPlyGS3dAsset randomAsset(int count, long seed) {
+        Random random = new Random(seed);
+        JPlyGS3dAsset asset = new JPlyGS3dAsset();
+        asset.pointCount = count;
+        asset.shDegree = 3;
+        asset.dimension = 45;
+        asset.vertices = new float[count * 3];
+        asset.f_dc = new float[count * 3];
+        asset.f_rest = new float[count * 45];
+        asset.opacity = new float[count];
+        for (int i = 0; i < count * 3; i++) {
+            asset.vertices[i] = (random.nextFloat() - 0.5f) * 20f;
+            asset.f_dc[i] = (random.nextFloat() - 0.5f) * 2f;
+        }
+        for (int i = 0; i < asset.f_rest.length; i++) {
+            asset.f_rest[i] = (random.nextFloat() - 0.5f) * 0.4f;
+        }
+        for (int i = 0; i < count; i++) {
+            asset.opacity[i] = random.nextFloat();
+        }
+        return asset;
+    }
+
+    /**
+     * 相机位于半径15的圆上，绕Y轴旋转并看向原点（column-major）
+     */
+    private static float[] cameraAt(float degrees) {
+        double rad = Math.toRadians(degrees);
+        float c = (float) Math.cos(rad);
+        float s = (float) Math.sin(rad);
+        float[] m = identity();
+        m[0] = c;
+        m[2] = -s;
+        m[8] = s;
+        m[10] = c;
+        m[12] = 15f * s;
+        m[14] = 15f * c;
+        return m;
+    }
+
+    private static float[] identity() {
+        float[] m = new float[16];
+        m[0] = m[5] = m[10] = m[15] = 1f;
+        return m;
+    }
+}
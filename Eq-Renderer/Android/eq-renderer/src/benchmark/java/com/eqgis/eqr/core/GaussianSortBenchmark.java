@@ -0,0 +1,187 @@
+package com.eqgis.eqr.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 高斯点云排序基准测试（JVM）
+ * <p>
+ *     对比{@link GaussianSorter}快速排序、{@link GaussianRadixSorter}完整基数排序，
+ *     以及相机小幅旋转(FIXUP，插入排序修正，超限时回退为完整排序)、仅平移(REUSED)时的增量排序，输出每次排序的耗时(ms)。
+ * </p>
+ * <p>并行列使用与CPU核数相同的线程池，分别对应并行基数排序与fork/join快速排序</p>
+ * <p>culled列为相机位于点云内部时，{@link GaussianChunks}视锥剔除加子集基数排序的总耗时</p>
+ * <p>运行：直接执行 main，可通过参数指定点数，如 {@code 100000 1000000 3000000}</p>
+ */
+public class GaussianSortBenchmark {
+
+    private static final int[] DEFAULT_COUNTS = {100_000, 1_000_000, 3_000_000};
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+    //完整排序时，每帧相机绕Y轴旋转的角度，超出增量阈值
+    private static final float LARGE_STEP_DEGREES = 37f;
+    //增量排序时，每帧相机绕Y轴旋转的角度
+    private static final float SMALL_STEP_DEGREES = 0.001f;
+    //剔除时的垂直视场角
+    private static final float FOV_DEGREES = 60f;
+
+    public static void main(String[] args) {
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool workers = new ForkJoinPool(workerCount);
+        System.out.println("workers: " + workerCount);
+        System.out.println(String.format(Locale.ROOT, "%-10s %12s %12s %12s %12s %12s %14s %14s %12s %10s",
+                "splats", "quick(ms)", "radix32(ms)", "radix16(ms)", "fixup(ms)", "reuse(ms)",
+                "quickFJ(ms)", "radix32xN(ms)", "culled(ms)", "visible"));
+        for (int count : counts) {
+            run(count, workers);
+        }
+        workers.shutdown();
+    }
+
+    private static void run(int count, ForkJoinPool workers) {
+        float[] centers = randomCenters(count, 42);
+        float[] modelMat = identity();
+        int[] indices = new int[count * 6];
+
+        GaussianSorter quick = new GaussianSorter(count);
+        double quickMs = measure(quick, centers, modelMat, indices, LARGE_STEP_DEGREES, false);
+
+        GaussianRadixSorter radix32 = new GaussianRadixSorter(count);
+        double radix32Ms = measure(radix32, centers, modelMat, indices, LARGE_STEP_DEGREES, false);
+
+        GaussianRadixSorter radix16 = new GaussianRadixSorter(count);
+        radix16.setKeyBits(GaussianRadixSorter.KEY_BITS_16);
+        double radix16Ms = measure(radix16, centers, modelMat, indices, LARGE_STEP_DEGREES, false);
+
+        GaussianRadixSorter fixup = new GaussianRadixSorter(count);
+        double fixupMs = measure(fixup, centers, modelMat, indices, SMALL_STEP_DEGREES, false);
+
+        GaussianRadixSorter reuse = new GaussianRadixSorter(count);
+        double reuseMs = measure(reuse, centers, modelMat, indices, 0, true);
+
+        GaussianSorter quickParallel = new GaussianSorter(count, workers);
+        double quickParallelMs = measure(quickParallel, centers, modelMat, indices, LARGE_STEP_DEGREES, false);
+
+        GaussianRadixSorter radixParallel = new GaussianRadixSorter(count, workers);
+        double radixParallelMs = measure(radixParallel, centers, modelMat, indices, LARGE_STEP_DEGREES, false);
+
+        GaussianChunks chunks = GaussianChunks.build(centers, null, GaussianChunks.DEFAULT_CHUNK_SIZE);
+        int[] visible = new int[count];
+        GaussianRadixSorter culled = new GaussianRadixSorter(count);
+        double culledMs = measureCulled(culled, chunks, centers, modelMat, visible);
+        int visibleCount = chunks.cull(modelMat, cameraInside(0), perspective(), visible);
+
+        System.out.println(String.format(Locale.ROOT, "%-10d %12.2f %12.2f %12.2f %12.2f %12.2f %14.2f %14.2f %12.2f %10d",
+                count, quickMs, radix32Ms, radix16Ms, fixupMs, reuseMs, quickParallelMs, radixParallelMs,
+                culledMs, visibleCount));
+    }
+
+    /**
+     * 相机位于点云中心，每帧绕Y轴旋转，测量剔除与排序的总耗时
+     */
+    private static double measureCulled(IGaussianSorter sorter, GaussianChunks chunks, float[] centers,
+                                        float[] modelMat, int[] visible) {
+        IntBuffer out = ByteBuffer.allocateDirect(visible.length * 6 * 4)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        float[] projection = perspective();
+        long total = 0;
+        for (int frame = 0; frame < WARMUP + ITERATIONS; frame++) {
+            float[] camera = cameraInside(frame * LARGE_STEP_DEGREES);
+            long t0 = System.nanoTime();
+            int visibleCount = chunks.cull(modelMat, camera, projection, visible);
+            if (chunks.isVisibleChanged()) {
+                sorter.reset();
+            }
+            sorter.sort(centers, visible, visibleCount, modelMat, camera, out);
+            if (frame >= WARMUP) {
+                total += System.nanoTime() - t0;
+            }
+        }
+        return total / 1_000_000.0 / ITERATIONS;
+    }
+
+    /**
+     * @param stepDegrees 每次排序前相机绕Y轴旋转的角度
+     * @param translate 每次排序前相机是否沿视线平移
+     */
+    private static double measure(IGaussianSorter sorter, float[] centers, float[] modelMat,
+                                  int[] indices, float stepDegrees, boolean translate) {
+        int frame = 0;
+        for (int i = 0; i < WARMUP; i++, frame++) {
+            sorter.sort(centers, modelMat,
+                    cameraAt(frame * stepDegrees, translate ? frame * 0.01f : 0), indices);
+        }
+
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++, frame++) {
+            float[] camera = cameraAt(frame * stepDegrees, translate ? frame * 0.01f : 0);
+            long t0 = System.nanoTime();
+            sorter.sort(centers, modelMat, camera, indices);
+            total += System.nanoTime() - t0;
+        }
+        return total / 1_000_000.0 / ITERATIONS;
+    }
+
+    private static float[] randomCenters(int count, long seed) {
+        Random random = new Random(seed);
+        float[] centers = new float[count * 3];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = (random.nextFloat() - 0.5f) * 20f;
+        }
+        return centers;
+    }
+
+    /**
+     * 相机位于半径(15 - forward)的圆上，绕Y轴旋转并看向原点（column-major）
+     */
+    private static float[] cameraAt(float degrees, float forward) {
+        double rad = Math.toRadians(degrees);
+        float c = (float) Math.cos(rad);
+        float s = (float) Math.sin(rad);
+        float[] m = identity();
+        m[0] = c;
+        m[2] = -s;
+        m[8] = s;
+        m[10] = c;
+        m[12] = (15f - forward) * s;
+        m[14] = (15f - forward) * c;
+        return m;
+    }
+
+    private static float[] cameraInside(float degrees) {
+        float[] m = cameraAt(degrees, 0);
+        m[12] = m[13] = m[14] = 0f;
+        return m;
+    }
+
+    private static float[] perspective() {
+        float f = (float) (1.0 / Math.tan(Math.toRadians(FOV_DEGREES) / 2));
+        float near = 0.1f, far = 100f;
+        float[] m = new float[16];
+        m[0] = f;
+        m[5] = f;
+        m[10] = -(far + near) / (far - near);
+        m[11] = -1f;
+        m[14] = -2f * far * near / (far - near);
+        return m;
+    }
+
+    private static float[] identity() {
+        float[] m = new float[16];
+        m[0] = m[5] = m[10] = m[15] = 1f;
+        return m;
+    }
+}
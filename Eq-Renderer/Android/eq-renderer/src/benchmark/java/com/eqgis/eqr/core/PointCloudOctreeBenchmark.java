@@ -0,0 +1,197 @@
+package com.eqgis.eqr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 点云八叉树LOD基准测试（JVM）
+ * <p>
+ *     生成地形状的二进制Ply点云，输出{@link PointCloudOctree}的构建耗时(ms)与节点文件大小，
+ *     以及俯瞰、近景两种视角下每次节点选择的耗时(us/op)、内存分配量(bytes/op)、
+ *     选中的点数，和读取选中节点的耗时(ms)。分配量通过HotSpot的线程分配计数读取，不支持时显示-1。
+ * </p>
+ * <p>点数预算为2M，整体上传时每帧绘制全部点</p>
+ * <p>运行：直接执行 main，可通过参数指定点数，如 {@code 1000000 10000000}</p>
+ */
+public class PointCloudOctreeBenchmark {
+
+    private static final int[] DEFAULT_COUNTS = {1_000_000, 5_000_000};
+    private static final int POINT_BUDGET = 2_000_000;
+    private static final float SCREEN_ERROR = 0.002f;
+    private static final int MAX_NODES = 256;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+    //地形边长
+    private static final float SIZE = 1000f;
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = threadBean();
+
+    public static void main(String[] args) throws IOException {
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "%-10s %10s %8s %10s %-8s %10s %10s %10s %10s",
+                "points", "build(ms)", "nodes", "file(MB)", "view", "select(us)", "bytes/op", "selected", "read(ms)"));
+        for (int count : counts) {
+            run(count);
+        }
+    }
+
+    private static void run(int count) throws IOException {
+        File ply = File.createTempFile("eqr_octree_bench", ".ply");
+        File octree = new File(ply.getPath() + ".octree");
+        try {
+            writeTerrain(ply, count);
+            long fingerprint;
+            long buildStart;
+            long buildEnd;
+            try (FileChannel channel = FileChannel.open(ply.toPath(), StandardOpenOption.READ)) {
+                fingerprint = PlyCacheFile.fingerprint(channel);
+                PlyMappedPointCloud cloud = PlyMappedPointCloud.map(channel);
+                buildStart = System.nanoTime();
+                PointCloudOctree.build(cloud, PointCloudOctree.DEFAULT_NODE_CAPACITY, octree, fingerprint);
+                buildEnd = System.nanoTime();
+            }
+
+            try (PointCloudOctree tree = PointCloudOctree.open(octree, fingerprint)) {
+                float[] model = identity();
+                float[] projection = perspective(60f, 16f / 9f, 0.1f, 5000f);
+                //俯瞰全部地形
+                float[] overview = lookDown(SIZE / 2, SIZE, SIZE * 1.8f, 30f);
+                //贴近地面
+                float[] close = lookDown(SIZE / 2, 20f, SIZE / 2, 10f);
+                String prefix = String.format(Locale.ROOT, "%-10d %10.1f %8d %10.1f",
+                        count, (buildEnd - buildStart) / 1e6, tree.getNodeCount(), octree.length() / 1048576.0);
+                measure(prefix, "overview", tree, model, overview, projection);
+                measure(String.format(Locale.ROOT, "%-41s", ""), "close", tree, model, close, projection);
+            }
+        } finally {
+            ply.delete();
+            octree.delete();
+        }
+    }
+
+    private static void measure(String prefix, String view, PointCloudOctree tree,
+                                float[] model, float[] camera, float[] projection) throws IOException {
+        int[] nodes = new int[MAX_NODES];
+        int count = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            count = tree.select(model, camera, projection, SCREEN_ERROR, POINT_BUDGET, nodes);
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            count = tree.select(model, camera, projection, SCREEN_ERROR, POINT_BUDGET, nodes);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        double bytes = allocatedBefore >= 0 && allocatedAfter >= 0
+                ? (double) (allocatedAfter - allocatedBefore) / ITERATIONS : -1;
+
+        long points = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(tree.getNodeCapacity() * PointCloudOctree.POINT_STRIDE);
+        long readStart = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            buffer.clear();
+            points += tree.readPoints(nodes[i], buffer);
+        }
+        long readEnd = System.nanoTime();
+        System.out.println(String.format(Locale.ROOT, "%s %-8s %10.2f %10.1f %10d %10.1f",
+                prefix, view, elapsed / 1e3 / ITERATIONS, bytes, points, (readEnd - readStart) / 1e6));
+    }
+
+    /**
+     * 起伏地形上的均匀随机点，布局为 float x,y,z + uchar r,g,b,a
+     */
+    private static void writeTerrain(File file, int count) throws IOException {
+        String header = "ply\nformat binary_little_endian 1.0\nelement vertex " + count
+                + "\nproperty float x\nproperty float y\nproperty float z"
+                + "\nproperty uchar red\nproperty uchar green\nproperty uchar blue\nproperty uchar alpha"
+                + "\nend_header\n";
+        Random random = new Random(42);
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(header.getBytes(StandardCharsets.US_ASCII)));
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < 16) {
+                    buffer.flip();
+                    channel.write(buffer);
+                    buffer.clear();
+                }
+                float x = random.nextFloat() * SIZE;
+                float z = random.nextFloat() * SIZE;
+                float y = (float) (Math.sin(x * 0.01) * 30 + Math.cos(z * 0.013) * 20);
+                buffer.putFloat(x).putFloat(y).putFloat(z)
+                        .put((byte) x).put((byte) (y * 4)).put((byte) z).put((byte) 0xff);
+            }
+            buffer.flip();
+            channel.write(buffer);
+        }
+    }
+
+    private static float[] identity() {
+        float[] m = new float[16];
+        m[0] = m[5] = m[10] = m[15] = 1f;
+        return m;
+    }
+
+    /**
+     * 位于(x, y, z)、沿-Z方向并向下俯视pitch度的相机模型矩阵
+     */
+    private static float[] lookDown(float x, float y, float z, float pitchDegrees) {
+        double pitch = Math.toRadians(pitchDegrees);
+        float c = (float) Math.cos(pitch);
+        float s = (float) Math.sin(pitch);
+        float[] m = identity();
+        //绕X轴旋转-pitch
+        m[5] = c;
+        m[6] = -s;
+        m[9] = s;
+        m[10] = c;
+        m[12] = x;
+        m[13] = y;
+        m[14] = z;
+        return m;
+    }
+
+    private static float[] perspective(float fovDegrees, float aspect, float near, float far) {
+        float f = (float) (1.0 / Math.tan(Math.toRadians(fovDegrees) / 2));
+        float[] m = new float[16];
+        m[0] = f / aspect;
+        m[5] = f;
+        m[10] = (far + near) / (near - far);
+        m[11] = -1f;
+        m[14] = 2f * far * near / (near - far);
+        return m;
+    }
+
+    private static long allocatedBytes() {
+        if (THREAD_BEAN == null) {
+            return -1;
+        }
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            ((com.sun.management.ThreadMXBean) bean).setThreadAllocatedMemoryEnabled(true);
+            return (com.sun.management.ThreadMXBean) bean;
+        }
+        return null;
+    }
+}
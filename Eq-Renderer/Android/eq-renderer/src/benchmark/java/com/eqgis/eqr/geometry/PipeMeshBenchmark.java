@@ -0,0 +1,152 @@
+package com.eqgis.eqr.geometry;
+
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.rendering.RenderableDefinitionDynamic;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 管线网格生成基准测试（JVM）
+ * <p>
+ *     对比{@link Line3dNative}生成顶点列表与{@link PipeMeshBuilder}直接写入缓冲区的耗时(ms/op)
+ *     与每次构建的内存分配量(KB/op)，覆盖三种纹理模式，以及在折线末尾逐点追加的耗时。
+ *     分配量通过HotSpot的线程分配计数读取，不支持时显示-1。
+ * </p>
+ * <p>注意：PipeMeshBuilder的耗时包含切线计算，Line3dNative的切线在应用渲染定义时(UI线程)才计算</p>
+ * <p>运行：直接执行 main，可通过参数指定折线点数，如 {@code 10000}</p>
+ */
+public class PipeMeshBenchmark {
+
+    private static final int DEFAULT_POINTS = 10_000;
+    private static final int EDGE_NUM = 16;
+    private static final float RADIUS = 0.02f;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    //追加模式每轮追加的点数
+    private static final int APPEND_POINTS = 1000;
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = threadBean();
+
+    //防止JIT消除计算
+    private static int sink;
+
+    private interface Op {
+        void run();
+    }
+
+    public static void main(String[] args) {
+        int pointCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_POINTS;
+
+        //随机游走的折线，步长与半径同量级
+        Random random = new Random(7);
+        final Vector3[] points = new Vector3[pointCount];
+        Vector3 current = new Vector3();
+        for (int i = 0; i < pointCount; i++) {
+            current = Vector3.add(current, new Vector3(
+                    random.nextFloat() * 0.2f - 0.1f, random.nextFloat() * 0.2f - 0.1f, random.nextFloat() * 0.2f - 0.1f));
+            points[i] = current;
+        }
+        final float refLength = (float) (Math.PI * 2 * RADIUS);
+        final PipeMeshBuilder.RingTable ringTable = new PipeMeshBuilder.RingTable(EDGE_NUM);
+        final RenderableDefinitionDynamic definition = new RenderableDefinitionDynamic(0, 0);
+
+        System.out.println("points=" + pointCount + " edgeNum=" + EDGE_NUM);
+        System.out.println(String.format(Locale.ROOT, "%-26s %12s %12s", "op", "ms/op", "KB/op"));
+
+        for (int mode = 0; mode < 3; mode++) {
+            final int textureMode = mode;
+            final Line3dNative line3dNative = new Line3dNative();
+            bench("mode" + mode + " Line3dNative", 1, () -> {
+                ArrayList<PipePoint> pipePoints = line3dNative.genPipePoint_0(points, RADIUS);
+                switch (textureMode) {
+                    case 0:
+                        line3dNative.refreshVertex(pipePoints, EDGE_NUM, true);
+                        break;
+                    case 1:
+                        line3dNative.refreshVertex(pipePoints, EDGE_NUM, refLength, true);
+                        break;
+                    default:
+                        line3dNative.refreshVertex2(pipePoints, EDGE_NUM, refLength, true);
+                        break;
+                }
+                sink += pipePoints.size();
+            });
+
+            final PipeMeshBuilder builder = new PipeMeshBuilder(definition, ringTable, RADIUS, textureMode);
+            bench("mode" + mode + " PipeMeshBuilder", 1, () -> {
+                builder.build(points, Line3DPipePointMode.ORIGINAL);
+                sink += definition.getVertexCount();
+            });
+        }
+
+        //追加模式：在已有折线末尾逐点追加，按点计
+        final PipeMeshBuilder builder = new PipeMeshBuilder(definition, ringTable, RADIUS, 1);
+        final int baseCount = Math.max(2, pointCount - APPEND_POINTS);
+        final Vector3[] base = new Vector3[baseCount];
+        System.arraycopy(points, 0, base, 0, baseCount);
+        bench("mode1 append/point", pointCount - baseCount,
+                () -> builder.build(base, Line3DPipePointMode.ORIGINAL), () -> {
+            for (int i = baseCount; i < pointCount; i++) {
+                builder.append(points[i]);
+            }
+            sink += definition.getVertexCount();
+        });
+
+        System.out.println("sink=" + sink);
+    }
+
+    private static void bench(String name, int ops, Op op) {
+        bench(name, ops, null, op);
+    }
+
+    /**
+     * @param ops 每次执行包含的操作数
+     * @param setup 每次执行前的准备，不计入耗时
+     */
+    private static void bench(String name, int ops, Op setup, Op op) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            if (setup != null) {
+                setup.run();
+            }
+            op.run();
+        }
+        double bestMillis = Double.MAX_VALUE;
+        double kilobytes = -1;
+        for (int i = 0; i < ROUNDS; i++) {
+            if (setup != null) {
+                setup.run();
+            }
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            op.run();
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = allocatedBytes();
+            bestMillis = Math.min(bestMillis, elapsed / 1e6 / ops);
+            if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                double perOp = (allocatedAfter - allocatedBefore) / 1024.0 / ops;
+                kilobytes = kilobytes < 0 ? perOp : Math.min(kilobytes, perOp);
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "%-26s %12.3f %12.1f", name, bestMillis, kilobytes));
+    }
+
+    private static long allocatedBytes() {
+        if (THREAD_BEAN == null) {
+            return -1;
+        }
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            ((com.sun.management.ThreadMXBean) bean).setThreadAllocatedMemoryEnabled(true);
+            return (com.sun.management.ThreadMXBean) bean;
+        }
+        return null;
+    }
+}
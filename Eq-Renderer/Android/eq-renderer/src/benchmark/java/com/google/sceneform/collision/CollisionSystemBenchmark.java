@@ -0,0 +1,167 @@
+package com.google.sceneform.collision;
+
+import com.google.sceneform.common.TransformProvider;
+import com.google.sceneform.math.Matrix;
+import com.google.sceneform.math.Vector3;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 碰撞系统射线检测基准测试（JVM）
+ * <p>
+ *     对比逐个遍历碰撞体（原实现）与{@link CollisionSystem}包围盒层次结构的射线检测耗时(us/次)。
+ *     moving列为每次检测前移动1%的碰撞体，包含叶节点更新的开销。
+ * </p>
+ * <p>mismatch列为两种方式最近命中结果不一致的次数，应为0</p>
+ * <p>运行：直接执行 main，可通过参数指定碰撞体数量，如 {@code 100 1000 10000}</p>
+ */
+public class CollisionSystemBenchmark {
+
+    private static final int[] DEFAULT_COUNTS = {100, 1_000, 10_000};
+    private static final int RAYS = 2_000;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 5;
+    //碰撞体分布范围(m)
+    private static final float WORLD_SIZE = 100f;
+    private static final float MOVE_RATIO = 0.01f;
+
+    public static void main(String[] args) {
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-10s %12s %12s %12s %12s %10s",
+                "colliders", "linear(us)", "bvh(us)", "moving(us)", "speedup", "mismatch"));
+        for (int count : counts) {
+            run(count);
+        }
+    }
+
+    private static void run(int count) {
+        Random random = new Random(42);
+        ArrayList<Collider> colliders = new ArrayList<>(count);
+        ArrayList<SimpleTransform> transforms = new ArrayList<>(count);
+        CollisionSystem collisionSystem = new CollisionSystem();
+        for (int i = 0; i < count; i++) {
+            SimpleTransform transform = new SimpleTransform();
+            transform.moveTo(randomPosition(random));
+            CollisionShape shape = i % 2 == 0
+                    ? new Box(new Vector3(1f, 1f, 1f))
+                    : new Sphere(0.5f);
+            Collider collider = new Collider(transform, shape);
+            collider.setAttachedCollisionSystem(collisionSystem);
+            colliders.add(collider);
+            transforms.add(transform);
+        }
+
+        Ray[] rays = new Ray[RAYS];
+        for (int i = 0; i < RAYS; i++) {
+            Vector3 origin = randomPosition(random);
+            Vector3 target = randomPosition(random);
+            rays[i] = new Ray(origin, Vector3.subtract(target, origin));
+        }
+
+        RayHit hit = new RayHit();
+        RayHit linearHit = new RayHit();
+        int mismatch = 0;
+        for (Ray ray : rays) {
+            Collider expected = linearRaycast(colliders, ray, linearHit);
+            Collider actual = collisionSystem.raycast(ray, hit);
+            if (expected != actual) {
+                mismatch++;
+            }
+        }
+
+        double linearUs = Double.MAX_VALUE;
+        double bvhUs = Double.MAX_VALUE;
+        double movingUs = Double.MAX_VALUE;
+        for (int iteration = 0; iteration < WARMUP + ITERATIONS; iteration++) {
+            long start = System.nanoTime();
+            for (Ray ray : rays) {
+                linearRaycast(colliders, ray, linearHit);
+            }
+            double linear = (System.nanoTime() - start) / 1000.0 / RAYS;
+
+            start = System.nanoTime();
+            for (Ray ray : rays) {
+                collisionSystem.raycast(ray, hit);
+            }
+            double bvh = (System.nanoTime() - start) / 1000.0 / RAYS;
+
+            //每次检测前移动一部分碰撞体
+            int moveCount = Math.max(1, (int) (count * MOVE_RATIO));
+            start = System.nanoTime();
+            for (int r = 0; r < RAYS; r++) {
+                for (int m = 0; m < moveCount; m++) {
+                    int index = random.nextInt(count);
+                    transforms.get(index).moveBy(random.nextFloat() - 0.5f, 0f, random.nextFloat() - 0.5f);
+                    colliders.get(index).markWorldShapeDirty();
+                }
+                collisionSystem.raycast(rays[r], hit);
+            }
+            double moving = (System.nanoTime() - start) / 1000.0 / RAYS;
+
+            if (iteration >= WARMUP) {
+                linearUs = Math.min(linearUs, linear);
+                bvhUs = Math.min(bvhUs, bvh);
+                movingUs = Math.min(movingUs, moving);
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-10d %12.2f %12.2f %12.2f %11.1fx %10d",
+                count, linearUs, bvhUs, movingUs, linearUs / bvhUs, mismatch));
+    }
+
+    /**
+     * 原实现：逐个碰撞体检测
+     */
+    private static Collider linearRaycast(ArrayList<Collider> colliders, Ray ray, RayHit resultHit) {
+        resultHit.reset();
+        Collider result = null;
+        RayHit tempResult = new RayHit();
+        for (Collider collider : colliders) {
+            CollisionShape collisionShape = collider.getTransformedShape();
+            if (collisionShape == null) {
+                continue;
+            }
+            if (collisionShape.rayIntersection(ray, tempResult)
+                    && tempResult.getDistance() < resultHit.getDistance()) {
+                resultHit.set(tempResult);
+                result = collider;
+            }
+        }
+        return result;
+    }
+
+    private static Vector3 randomPosition(Random random) {
+        return new Vector3(
+                (random.nextFloat() - 0.5f) * WORLD_SIZE,
+                (random.nextFloat() - 0.5f) * WORLD_SIZE,
+                (random.nextFloat() - 0.5f) * WORLD_SIZE);
+    }
+
+    private static final class SimpleTransform implements TransformProvider {
+        private final Matrix matrix = new Matrix();
+
+        void moveTo(Vector3 position) {
+            matrix.makeTranslation(position);
+        }
+
+        void moveBy(float x, float y, float z) {
+            matrix.data[12] += x;
+            matrix.data[13] += y;
+            matrix.data[14] += z;
+        }
+
+        @Override
+        public Matrix getWorldModelMatrix() {
+            return matrix;
+        }
+    }
+}
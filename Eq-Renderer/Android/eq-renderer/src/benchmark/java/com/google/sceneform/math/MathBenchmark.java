@@ -0,0 +1,179 @@
+package com.google.sceneform.math;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 数学运算基准测试（JVM）
+ * <p>
+ *     对比返回新对象的接口与写入dest参数的接口，以及{@link MathKernel}批量处理的耗时(ns/op)
+ *     与每次操作的内存分配量(bytes/op)。分配量通过HotSpot的线程分配计数读取，不支持时显示-1。
+ * </p>
+ * <p>注意：HotSpot的逃逸分析会消除部分临时对象，ART上返回新对象的接口每次都会产生分配</p>
+ * <p>运行：直接执行 main，可通过参数指定每轮的操作次数，如 {@code 1000000}</p>
+ */
+public class MathBenchmark {
+
+    private static final int DEFAULT_OPS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 5;
+    private static final int POINT_COUNT = 1024;
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = threadBean();
+
+    //防止JIT消除计算
+    private static float sink;
+
+    private interface Op {
+        void run(int ops);
+    }
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPS;
+
+        Random random = new Random(11);
+        final Vector3[] positions = new Vector3[POINT_COUNT];
+        final Quaternion[] rotations = new Quaternion[POINT_COUNT];
+        final float[] packed = new float[POINT_COUNT * MathKernel.VEC3_SIZE];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            positions[i] = new Vector3(
+                    random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10);
+            rotations[i] = new Quaternion(
+                    random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+                    random.nextFloat() - 0.5f, random.nextFloat() - 0.5f);
+            packed[i * 3] = positions[i].x;
+            packed[i * 3 + 1] = positions[i].y;
+            packed[i * 3 + 2] = positions[i].z;
+        }
+        final Vector3 camera = new Vector3(0.5f, 1.6f, 3.0f);
+        final Vector3 up = Vector3.up();
+        final Matrix matrix = new Matrix();
+        matrix.makeTrs(new Vector3(1, 2, 3), new Quaternion(Vector3.up(), 30), new Vector3(2, 2, 2));
+        final float[] out = new float[packed.length];
+
+        System.out.println(String.format(Locale.ROOT, "%-26s %12s %12s", "op", "ns/op", "bytes/op"));
+
+        //节点朝向相机：subtract + lookRotation
+        bench("billboard alloc", ops, n -> {
+            float acc = 0;
+            for (int i = 0; i < n; i++) {
+                Vector3 direction = Vector3.subtract(camera, positions[i & (POINT_COUNT - 1)]);
+                acc += Quaternion.lookRotation(direction, Vector3.up()).w;
+            }
+            sink += acc;
+        });
+        final Vector3 direction = new Vector3();
+        final Quaternion look = new Quaternion();
+        bench("billboard dest", ops, n -> {
+            float acc = 0;
+            for (int i = 0; i < n; i++) {
+                Vector3.subtract(camera, positions[i & (POINT_COUNT - 1)], direction);
+                acc += Quaternion.lookRotation(direction, up, look).w;
+            }
+            sink += acc;
+        });
+
+        bench("rotateVector alloc", ops, n -> {
+            float acc = 0;
+            for (int i = 0; i < n; i++) {
+                int k = i & (POINT_COUNT - 1);
+                acc += Quaternion.rotateVector(rotations[k], positions[k]).x;
+            }
+            sink += acc;
+        });
+        final Vector3 rotated = new Vector3();
+        bench("rotateVector dest", ops, n -> {
+            float acc = 0;
+            for (int i = 0; i < n; i++) {
+                int k = i & (POINT_COUNT - 1);
+                acc += Quaternion.rotateVector(rotations[k], positions[k], rotated).x;
+            }
+            sink += acc;
+        });
+
+        bench("multiply alloc", ops, n -> {
+            float acc = 0;
+            for (int i = 0; i < n; i++) {
+                int k = i & (POINT_COUNT - 1);
+                acc += Quaternion.multiply(rotations[k], rotations[(k + 1) & (POINT_COUNT - 1)]).w;
+            }
+            sink += acc;
+        });
+        final Quaternion product = new Quaternion();
+        bench("multiply dest", ops, n -> {
+            float acc = 0;
+            for (int i = 0; i < n; i++) {
+                int k = i & (POINT_COUNT - 1);
+                acc += Quaternion.multiply(rotations[k], rotations[(k + 1) & (POINT_COUNT - 1)], product).w;
+            }
+            sink += acc;
+        });
+
+        //单个点变换与float[]批量变换，均按点计
+        bench("transformPoint alloc", ops, n -> {
+            float acc = 0;
+            for (int i = 0; i < n; i++) {
+                acc += matrix.transformPoint(positions[i & (POINT_COUNT - 1)]).x;
+            }
+            sink += acc;
+        });
+        final Vector3 transformed = new Vector3();
+        bench("transformPoint dest", ops, n -> {
+            float acc = 0;
+            for (int i = 0; i < n; i++) {
+                acc += matrix.transformPoint(positions[i & (POINT_COUNT - 1)], transformed).x;
+            }
+            sink += acc;
+        });
+        bench("transformPoints kernel", ops, n -> {
+            float acc = 0;
+            for (int done = 0; done < n; done += POINT_COUNT) {
+                int count = Math.min(POINT_COUNT, n - done);
+                MathKernel.transformPoints(matrix.data, 0, packed, 0, out, 0, count);
+                acc += out[0];
+            }
+            sink += acc;
+        });
+
+        System.out.println("sink=" + sink);
+    }
+
+    private static void bench(String name, int ops, Op op) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            op.run(ops);
+        }
+        double bestNanos = Double.MAX_VALUE;
+        double bytes = -1;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            op.run(ops);
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = allocatedBytes();
+            bestNanos = Math.min(bestNanos, (double) elapsed / ops);
+            if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                double perOp = (double) (allocatedAfter - allocatedBefore) / ops;
+                bytes = bytes < 0 ? perOp : Math.min(bytes, perOp);
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "%-26s %12.2f %12.2f", name, bestNanos, bytes));
+    }
+
+    private static long allocatedBytes() {
+        if (THREAD_BEAN == null) {
+            return -1;
+        }
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            ((com.sun.management.ThreadMXBean) bean).setThreadAllocatedMemoryEnabled(true);
+            return (com.sun.management.ThreadMXBean) bean;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,221 @@
+package com.google.sceneform.rendering;
+
+import com.google.sceneform.math.MathKernel;
+import com.google.sceneform.math.Vector3;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 几何数据准备阶段基准测试（JVM）
+ * <p>
+ *     对比原实现（{@link Vertex}列表、装箱索引列表，再逐个写入direct缓冲区并计算切线、包围盒）
+ *     与{@link PreparedGeometry}由连续数组准备的耗时(ms)与堆内存分配量(MB)。
+ * </p>
+ * <p>
+ *     serial列为关闭分段并行时的耗时，caller列为通过buildAsync在后台准备时调用线程的耗时。
+ *     上传阶段需要Filament，运行时由{@link RenderableDefinitionPacked#getUploadNanos()}获取。
+ * </p>
+ * <p>运行：直接执行 main，可通过参数指定顶点数，如 {@code 100000 1000000}；原实现需要较大的堆，建议 -Xmx4g</p>
+ */
+public class PreparedGeometryBenchmark {
+
+    private static final int[] DEFAULT_COUNTS = {10_000, 100_000, 1_000_000};
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 5;
+
+    public static void main(String[] args) {
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        System.out.println(String.format(Locale.ROOT, "%-10s %12s %12s %12s %12s %12s %12s %10s",
+                "vertices", "legacy(ms)", "prepare(ms)", "serial(ms)", "caller(ms)",
+                "legacy(MB)", "prepare(MB)", "speedup"));
+        try {
+            for (int count : counts) {
+                run(count, executor);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void run(int count, ExecutorService executor) {
+        float[] positions = new float[count * 3];
+        float[] normals = new float[count * 3];
+        float[] uvs = new float[count * 2];
+        int[] indices = new int[count * 3];
+        fill(positions, normals, uvs, indices, 42);
+        verify(positions, normals, uvs, indices);
+
+        int threshold = PreparedGeometry.PARALLEL_VERTEX_COUNT;
+        double legacyMs = Double.MAX_VALUE;
+        double prepareMs = Double.MAX_VALUE;
+        double serialMs = Double.MAX_VALUE;
+        double callerMs = Double.MAX_VALUE;
+        long legacyBytes = 0;
+        long prepareBytes = 0;
+        for (int iteration = 0; iteration < WARMUP + ITERATIONS; iteration++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            buildLegacy(positions, normals, uvs, indices);
+            double legacy = (System.nanoTime() - start) / 1_000_000.0;
+            long legacyAllocated = allocatedBytes() - allocated;
+
+            allocated = allocatedBytes();
+            double prepare = prepare(positions, normals, uvs, indices).build().getPrepareNanos() / 1_000_000.0;
+            long prepareAllocated = allocatedBytes() - allocated;
+
+            PreparedGeometry.PARALLEL_VERTEX_COUNT = Integer.MAX_VALUE;
+            double serial = prepare(positions, normals, uvs, indices).build().getPrepareNanos() / 1_000_000.0;
+            PreparedGeometry.PARALLEL_VERTEX_COUNT = threshold;
+
+            start = System.nanoTime();
+            CompletableFuture<PreparedGeometry> future = prepare(positions, normals, uvs, indices).buildAsync(executor);
+            double caller = (System.nanoTime() - start) / 1_000_000.0;
+            future.join();
+
+            if (iteration >= WARMUP) {
+                legacyMs = Math.min(legacyMs, legacy);
+                prepareMs = Math.min(prepareMs, prepare);
+                serialMs = Math.min(serialMs, serial);
+                callerMs = Math.min(callerMs, caller);
+                legacyBytes = legacyAllocated;
+                prepareBytes = prepareAllocated;
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-10d %12.1f %12.1f %12.1f %12.3f %12.1f %12.1f %9.1fx",
+                count, legacyMs, prepareMs, serialMs, callerMs,
+                legacyBytes / 1048576.0, prepareBytes / 1048576.0, legacyMs / prepareMs));
+    }
+
+    private static PreparedGeometry.Builder prepare(float[] positions, float[] normals, float[] uvs, int[] indices) {
+        return PreparedGeometry.builder()
+                .setPositions(positions)
+                .setNormals(normals)
+                .setUvs(uvs)
+                .setIndices(indices);
+    }
+
+    /**
+     * 原实现：构造顶点与索引列表，再逐个写入缓冲区，返回包围盒
+     */
+    private static float[] buildLegacy(float[] positions, float[] normals, float[] uvs, int[] indices) {
+        int count = positions.length / 3;
+        ArrayList<Vertex> vertices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vertices.add(Vertex.builder()
+                    .setPosition(new Vector3(positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2]))
+                    .setNormal(new Vector3(normals[i * 3], normals[i * 3 + 1], normals[i * 3 + 2]))
+                    .setUvCoordinate(new Vertex.UvCoordinate(uvs[i * 2], uvs[i * 2 + 1]))
+                    .build());
+        }
+        ArrayList<Integer> triangleIndices = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            triangleIndices.add(index);
+        }
+
+        IntBuffer indexBuffer = allocate(triangleIndices.size() * 4).asIntBuffer();
+        for (int j = 0; j < triangleIndices.size(); j++) {
+            indexBuffer.put(triangleIndices.get(j));
+        }
+        FloatBuffer positionBuffer = allocate(count * 3 * 4).asFloatBuffer();
+        FloatBuffer tangentBuffer = allocate(count * 4 * 4).asFloatBuffer();
+        FloatBuffer uvBuffer = allocate(count * 2 * 4).asFloatBuffer();
+        float[] scratchNormal = new float[3];
+        float[] scratchTangent = new float[4];
+        Vector3 minAabb = new Vector3(vertices.get(0).getPosition());
+        Vector3 maxAabb = new Vector3(vertices.get(0).getPosition());
+        for (Vertex vertex : vertices) {
+            Vector3 position = vertex.getPosition();
+            minAabb = Vector3.min(minAabb, position);
+            maxAabb = Vector3.max(maxAabb, position);
+            positionBuffer.put(position.x).put(position.y).put(position.z);
+
+            Vector3 normal = vertex.getNormal();
+            scratchNormal[0] = normal.x;
+            scratchNormal[1] = normal.y;
+            scratchNormal[2] = normal.z;
+            MathKernel.normalToTangent(scratchNormal, 0, scratchTangent, 0);
+            tangentBuffer.put(scratchTangent);
+
+            uvBuffer.put(vertex.getUvCoordinate().x).put(vertex.getUvCoordinate().y);
+        }
+        return new float[]{minAabb.x, minAabb.y, minAabb.z, maxAabb.x, maxAabb.y, maxAabb.z};
+    }
+
+    /**
+     * 校验与原实现的包围盒一致，串行与并行结果一致
+     */
+    private static void verify(float[] positions, float[] normals, float[] uvs, int[] indices) {
+        float[] legacy = buildLegacy(positions, normals, uvs, indices);
+        PreparedGeometry geometry = prepare(positions, normals, uvs, indices).build();
+        int threshold = PreparedGeometry.PARALLEL_VERTEX_COUNT;
+        PreparedGeometry.PARALLEL_VERTEX_COUNT = Integer.MAX_VALUE;
+        PreparedGeometry serial = prepare(positions, normals, uvs, indices).build();
+        PreparedGeometry.PARALLEL_VERTEX_COUNT = threshold;
+
+        float[] aabb = geometry.getAabb();
+        float[] serialAabb = serial.getAabb();
+        for (int i = 0; i < 6; i++) {
+            check(legacy[i] == aabb[i], "aabb " + i);
+            check(serialAabb[i] == aabb[i], "serial aabb " + i);
+        }
+        check(geometry.getVertexCount() == positions.length / 3, "vertex count");
+        check(geometry.getIndexCount() == indices.length, "index count");
+        check(geometry.getPrepareNanos() > 0, "prepare time");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("mismatch: " + message);
+        }
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void fill(float[] positions, float[] normals, float[] uvs, int[] indices, long seed) {
+        Random random = new Random(seed);
+        int count = positions.length / 3;
+        for (int i = 0; i < count; i++) {
+            float x = (random.nextFloat() - 0.5f) * 20f;
+            float y = (random.nextFloat() - 0.5f) * 20f;
+            float z = (random.nextFloat() - 0.5f) * 20f;
+            positions[i * 3] = x;
+            positions[i * 3 + 1] = y;
+            positions[i * 3 + 2] = z;
+            float length = (float) Math.sqrt(x * x + y * y + z * z);
+            normals[i * 3] = x / length;
+            normals[i * 3 + 1] = y / length;
+            normals[i * 3 + 2] = z / length;
+            uvs[i * 2] = random.nextFloat();
+            uvs[i * 2 + 1] = random.nextFloat();
+        }
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = random.nextInt(count);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.google.sceneform.rendering;
+
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+import com.google.sceneform.math.Vector3;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 高斯点云几何构建基准测试（JVM）
+ * <p>
+ *     对比原实现（{@link Vertex}列表、装箱索引列表，再逐个拷贝到堆FloatBuffer）
+ *     与{@link SplatGeometry}直接写入direct缓冲区的耗时(ms)与堆内存分配量(MB)。
+ * </p>
+ * <p>half列为属性以半精度写入时的耗时，compact列为紧凑布局的耗时，B/vtx为各布局每个顶点的字节数</p>
+ * <p>运行：直接执行 main，可通过参数指定点数，如 {@code 100000 1000000}；原实现需要较大的堆，建议 -Xmx4g</p>
+ */
+public class SplatGeometryBenchmark {
+
+    private static final int[] DEFAULT_COUNTS = {100_000, 500_000, 1_000_000};
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 5;
+    private static final float[][] QUAD_UV = {{0f, 0f}, {1f, 0f}, {1f, 1f}, {0f, 1f}};
+
+    public static void main(String[] args) {
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-10s %12s %12s %12s %12s %12s %12s %10s %16s",
+                "splats", "legacy(ms)", "direct(ms)", "half(ms)", "compact(ms)", "legacy(MB)", "direct(MB)",
+                "speedup", "B/vtx f/h/c"));
+        for (int count : counts) {
+            run(count);
+        }
+    }
+
+    private static void run(int count) {
+        JPlyGS3dAsset asset = randomAsset(count, 42);
+        verify(asset);
+        verifyCompact(asset);
+
+        double legacyMs = Double.MAX_VALUE;
+        double directMs = Double.MAX_VALUE;
+        double halfMs = Double.MAX_VALUE;
+        double compactMs = Double.MAX_VALUE;
+        long legacyBytes = 0;
+        long directBytes = 0;
+        for (int iteration = 0; iteration < WARMUP + ITERATIONS; iteration++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            buildLegacy(asset);
+            double legacy = (System.nanoTime() - start) / 1_000_000.0;
+            long legacyAllocated = allocatedBytes() - allocated;
+
+            allocated = allocatedBytes();
+            start = System.nanoTime();
+            SplatGeometry.build(asset, false);
+            double direct = (System.nanoTime() - start) / 1_000_000.0;
+            long directAllocated = allocatedBytes() - allocated;
+
+            start = System.nanoTime();
+            SplatGeometry.build(asset, true);
+            double half = (System.nanoTime() - start) / 1_000_000.0;
+
+            start = System.nanoTime();
+            SplatGeometry.build(asset, false, true);
+            double compact = (System.nanoTime() - start) / 1_000_000.0;
+
+            if (iteration >= WARMUP) {
+                legacyMs = Math.min(legacyMs, legacy);
+                directMs = Math.min(directMs, direct);
+                halfMs = Math.min(halfMs, half);
+                compactMs = Math.min(compactMs, compact);
+                legacyBytes = legacyAllocated;
+                directBytes = directAllocated;
+            }
+        }
+
+        String vertexBytes = SplatGeometry.build(asset, false).bytesPerVertex()
+                + "/" + SplatGeometry.build(asset, true).bytesPerVertex()
+                + "/" + SplatGeometry.build(asset, false, true).bytesPerVertex();
+        System.out.println(String.format(Locale.ROOT, "%-10d %12.1f %12.1f %12.1f %12.1f %12.1f %12.1f %9.1fx %16s",
+                count, legacyMs, directMs, halfMs, compactMs,
+                legacyBytes / 1048576.0, directBytes / 1048576.0, legacyMs / directMs, vertexBytes));
+    }
+
+    /**
+     * 原实现：构造顶点与索引列表，再拷贝到堆缓冲区
+     */
+    private static Object[] buildLegacy(JPlyGS3dAsset asset) {
+        int gaussianCount = asset.vertices.length / 3;
+        ArrayList<Vertex> vertices = new ArrayList<>(gaussianCount * 4);
+        for (int i = 0; i < gaussianCount; i++) {
+            Vector3 center = new Vector3(
+                    asset.vertices[3 * i], asset.vertices[3 * i + 1], asset.vertices[3 * i + 2]);
+            for (int v = 0; v < 4; v++) {
+                vertices.add(Vertex.builder()
+                        .setPosition(center)
+                        .setUvCoordinate(new Vertex.UvCoordinate(QUAD_UV[v][0], QUAD_UV[v][1]))
+                        .build());
+            }
+        }
+        ArrayList<Integer> triangleIndices = new ArrayList<>(gaussianCount * 6);
+        for (int i = 0; i < gaussianCount; i++) {
+            int base = i * 4;
+            triangleIndices.add(base);
+            triangleIndices.add(base + 1);
+            triangleIndices.add(base + 2);
+            triangleIndices.add(base);
+            triangleIndices.add(base + 2);
+            triangleIndices.add(base + 3);
+        }
+
+        int numVertices = vertices.size();
+        IntBuffer indexBuffer = IntBuffer.allocate(triangleIndices.size());
+        for (int j = 0; j < triangleIndices.size(); j++) {
+            indexBuffer.put(triangleIndices.get(j));
+        }
+        FloatBuffer positionBuffer = FloatBuffer.allocate(numVertices * 3);
+        FloatBuffer uvBuffer = FloatBuffer.allocate(numVertices * 2);
+        FloatBuffer custom0 = FloatBuffer.allocate(numVertices * 4);
+        FloatBuffer custom1 = FloatBuffer.allocate(numVertices * 4);
+        FloatBuffer custom2 = FloatBuffer.allocate(numVertices * 4);
+        for (int v = 0; v < numVertices; v++) {
+            Vertex vertex = vertices.get(v);
+            Vector3 position = vertex.getPosition();
+            positionBuffer.put(position.x).put(position.y).put(position.z);
+            uvBuffer.put(vertex.getUvCoordinate().x).put(vertex.getUvCoordinate().y);
+            int i = v / 4;
+            float opacity = asset.opacity != null ? asset.opacity[i] : 1.0f;
+            custom0.put(clamp01(asset.f_dc[3 * i])).put(clamp01(asset.f_dc[3 * i + 1]))
+                    .put(clamp01(asset.f_dc[3 * i + 2])).put(clamp01(opacity));
+            custom1.put(asset.scale[3 * i]).put(asset.scale[3 * i + 1]).put(asset.scale[3 * i + 2]).put(0.05f);
+            custom2.put(asset.rot[4 * i + 1]).put(asset.rot[4 * i + 2]).put(asset.rot[4 * i + 3]).put(asset.rot[4 * i]);
+        }
+        return new Object[]{indexBuffer, positionBuffer, uvBuffer, custom0, custom1, custom2};
+    }
+
+    /**
+     * 校验两种方式写入的数据一致
+     */
+    private static void verify(JPlyGS3dAsset asset) {
+        Object[] legacy = buildLegacy(asset);
+        SplatGeometry geometry = SplatGeometry.build(asset, false);
+        IntBuffer legacyIndices = (IntBuffer) legacy[0];
+        FloatBuffer position = (FloatBuffer) legacy[1];
+        FloatBuffer uv = (FloatBuffer) legacy[2];
+        FloatBuffer geometryFloats = geometry.geometry.asFloatBuffer();
+        FloatBuffer attributeFloats = geometry.attributes.asFloatBuffer();
+        for (int i = 0; i < geometry.indexCount; i++) {
+            check(legacyIndices.get(i) == geometry.indices.get(i), "index " + i);
+        }
+        for (int v = 0; v < geometry.vertexCount; v++) {
+            for (int c = 0; c < 3; c++) {
+                check(position.get(v * 3 + c) == geometryFloats.get(v * 5 + c), "position " + v);
+            }
+            for (int c = 0; c < 2; c++) {
+                check(uv.get(v * 2 + c) == geometryFloats.get(v * 5 + 3 + c), "uv " + v);
+            }
+            for (int a = 0; a < 3; a++) {
+                FloatBuffer custom = (FloatBuffer) legacy[3 + a];
+                for (int c = 0; c < 4; c++) {
+                    check(custom.get(v * 4 + c) == attributeFloats.get(v * 12 + a * 4 + c), "custom" + a + " " + v);
+                }
+            }
+        }
+    }
+
+    /**
+     * 校验紧凑布局解码后与float布局的误差在量化精度内
+     */
+    private static void verifyCompact(JPlyGS3dAsset asset) {
+        SplatGeometry full = SplatGeometry.build(asset, false);
+        SplatGeometry compact = SplatGeometry.build(asset, false, true);
+        FloatBuffer fullAttributes = full.attributes.asFloatBuffer();
+        ByteBuffer geometry = compact.geometry;
+        ByteBuffer attributes = compact.attributes;
+        for (int v = 0; v < compact.vertexCount; v++) {
+            int g = v * compact.geometryStride;
+            check(geometry.getFloat(g) == full.geometry.getFloat(v * full.geometryStride), "compact position " + v);
+            int a = v * compact.attributeStride;
+            for (int c = 0; c < 4; c++) {
+                float color = (attributes.get(a + compact.colorOffset + c) & 0xFF) / 255f;
+                check(Math.abs(color - fullAttributes.get(v * 12 + c)) <= 0.5f / 255f + 1e-6f, "compact color " + v);
+                float rotation = attributes.getShort(a + compact.rotationOffset + c * 2) / 32767f;
+                check(Math.abs(rotation) <= 1f, "compact rotation " + v);
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("mismatch: " + message);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static float clamp01(float src) {
+        float v = src > 1 ? 1 : src;
+        return v < 0 ? 0 : v;
+    }
+
+    private static JPlyGS3dAsset randomAsset(int count, long seed) {
+        Random random = new Random(seed);
+        JPlyGS3dAsset asset = new JPlyGS3dAsset();
+        asset.pointCount = count;
+        asset.vertices = new float[count * 3];
+        asset.f_dc = new float[count * 3];
+        asset.scale = new float[count * 3];
+        asset.opacity = new float[count];
+        asset.rot = new float[count * 4];
+        for (int i = 0; i < count * 3; i++) {
+            asset.vertices[i] = (random.nextFloat() - 0.5f) * 20f;
+            asset.f_dc[i] = random.nextFloat() * 1.2f - 0.1f;
+            asset.scale[i] = random.nextFloat() * 0.05f;
+        }
+        for (int i = 0; i < count; i++) {
+            asset.opacity[i] = random.nextFloat();
+        }
+        for (int i = 0; i < count * 4; i++) {
+            asset.rot[i] = random.nextFloat() * 2f - 1f;
+        }
+        return asset;
+    }
+}
@@ -1,11 +1,29 @@
 #include <jni.h>
 #include <vector>
 #include <algorithm>
+#include <cstdint>
+#include <limits>
 
-struct Node {
-    float depth;
-    int index;
-};
+// 稳定的计数排序，按 keys 的一个16位分量；src 为空表示 0..N-1
+static void radixPass16(const uint32_t* keys, const int* src, int* dst, int count, int shift) {
+    std::vector<int> histogram(1 << 16, 0);
+
+    for (int i = 0; i < count; ++i) {
+        histogram[(keys[i] >> shift) & 0xFFFF]++;
+    }
+
+    int sum = 0;
+    for (int& h : histogram) {
+        int c = h;
+        h = sum;
+        sum += c;
+    }
+
+    for (int k = 0; k < count; ++k) {
+        int i = src ? src[k] : k;
+        dst[histogram[(keys[i] >> shift) & 0xFFFF]++] = i;
+    }
+}
 
 extern "C"
 JNIEXPORT void JNICALL
@@ -59,9 +77,11 @@ Java_com_eqgis_eqr_core_SorterNative_nSortByModelAndCameraMatrix(
     }
     mv[15] = 1.0f;
 
-    // ===== 3. 计算 depth（camera space -Z）=====
-    std::vector<Node> nodes;
-    nodes.resize(gaussianCount);
+    // ===== 3. 计算 depth（camera space -Z）并量化为32位键 =====
+    // 远处深度大，键值小，升序即为 远 → 近
+    std::vector<float> depth(gaussianCount);
+    float minDepth = std::numeric_limits<float>::max();
+    float maxDepth = -std::numeric_limits<float>::max();
 
     for (int i = 0; i < gaussianCount; ++i) {
         int b = i * 3;
@@ -72,20 +92,29 @@ Java_com_eqgis_eqr_core_SorterNative_nSortByModelAndCameraMatrix(
                 mv[10] * centers[b + 2] +
                 mv[14];
 
-        nodes[i].depth = -cz;
-        nodes[i].index = i;
+        depth[i] = -cz;
+        minDepth = std::min(minDepth, depth[i]);
+        maxDepth = std::max(maxDepth, depth[i]);
+    }
+
+    std::vector<uint32_t> keys(gaussianCount);
+    const float range = maxDepth - minDepth;
+    const double scale = range > 0.0f ? static_cast<double>(UINT32_MAX) / range : 0.0;
+    for (int i = 0; i < gaussianCount; ++i) {
+        double key = (maxDepth - depth[i]) * scale;
+        keys[i] = key >= static_cast<double>(UINT32_MAX) ? UINT32_MAX : static_cast<uint32_t>(key);
     }
 
-    // ===== 4. 排序（远 → 近）=====
-    std::sort(nodes.begin(), nodes.end(),
-              [](const Node& a, const Node& b) {
-                  return a.depth > b.depth;
-              });
+    // ===== 4. 排序（远 → 近），LSD 基数排序，16位一趟 =====
+    std::vector<int> order(gaussianCount);
+    std::vector<int> orderTmp(gaussianCount);
+    radixPass16(keys.data(), nullptr, orderTmp.data(), gaussianCount, 0);
+    radixPass16(keys.data(), orderTmp.data(), order.data(), gaussianCount, 16);
 
     // ===== 5. 填充 indicesCache（6 indices / quad）=====
     int out = 0;
     for (int i = 0; i < gaussianCount; ++i) {
-        int base = nodes[i].index * 4;
+        int base = order[i] * 4;
 
         indices[out++] = base;
         indices[out++] = base + 1;
@@ -160,6 +160,22 @@ Java_com_google_android_filament_TransformManager_nSetTransformFp64(JNIEnv* env,
     env->ReleaseDoubleArrayElements(localTransform_, localTransform, JNI_ABORT);
 }
 
+extern "C" JNIEXPORT void JNICALL
+Java_com_google_android_filament_TransformManager_nSetTransforms(JNIEnv* env,
+        jclass, jlong nativeTransformManager, jintArray instances_,
+        jfloatArray localTransforms_, jint count) {
+    TransformManager* tm = (TransformManager*) nativeTransformManager;
+    jint* instances = env->GetIntArrayElements(instances_, NULL);
+    jfloat* localTransforms = env->GetFloatArrayElements(localTransforms_, NULL);
+    const filament::math::mat4f* transforms =
+            reinterpret_cast<const filament::math::mat4f*>(localTransforms);
+    for (jint i = 0; i < count; i++) {
+        tm->setTransform((TransformManager::Instance) instances[i], transforms[i]);
+    }
+    env->ReleaseFloatArrayElements(localTransforms_, localTransforms, JNI_ABORT);
+    env->ReleaseIntArrayElements(instances_, instances, JNI_ABORT);
+}
+
 extern "C" JNIEXPORT void JNICALL
 Java_com_google_android_filament_TransformManager_nGetTransform(JNIEnv* env,
         jclass, jlong nativeTransformManager, jint i,
@@ -0,0 +1,438 @@
+package com.eqgis.eqr.core;
+
+import java.util.Random;
+
+/**
+ * (高斯点云)空间分块
+ * <p>
+ *     加载时按包围盒最长轴的中点递归二分，直到每块不超过指定数量，
+ *     每块记录包围盒（已按高斯点3σ尺寸外扩）。块内高斯点随机打乱，使其任意前缀都是均匀采样。
+ * </p>
+ * <p>
+ *     每帧逐块做视锥剔除与屏幕尺寸LOD：视锥外的块整体跳过；
+ *     屏幕尺寸小于LOD阈值的块按面积比例只保留前缀部分，存活的高斯点再交给排序器。
+ * </p>
+ */
+public final class GaussianChunks {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    //递归深度上限，避免大量重合点无法划分
+    private static final int MAX_DEPTH = 48;
+    //3σ外扩
+    private static final float SIGMA_EXTENT = 3f;
+
+    private final int splatCount;
+    private final int chunkCount;
+    //按块分组的高斯点索引，第c块为ids[chunkStart[c], chunkStart[c + 1])
+    private final int[] ids;
+    private final int[] chunkStart;
+    //局部坐标包围盒，中心与半边长，cx,cy,cz,ex,ey,ez * chunkCount
+    private final float[] boxes;
+
+    //上一次剔除时各块保留的数量，用于判断可见集是否变化
+    private final int[] keepCounts;
+    private boolean visibleChanged = true;
+    //是否执行过剔除
+    private boolean culled;
+
+    //可在主线程修改，排序线程读取
+    private volatile boolean frustumCulling = true;
+    private volatile float lodScreenSize = 0f;
+
+    private final float[] viewMat = new float[16];
+    private final float[] modelViewMat = new float[16];
+    private final float[] mvpMat = new float[16];
+    //视锥6个平面(局部坐标)，a,b,c,d * 6
+    private final float[] planes = new float[24];
+
+    private GaussianChunks(int splatCount, int[] ids, int[] chunkStart, float[] boxes, int chunkCount) {
+        this.splatCount = splatCount;
+        this.ids = ids;
+        this.chunkStart = chunkStart;
+        this.boxes = boxes;
+        this.chunkCount = chunkCount;
+        this.keepCounts = new int[chunkCount];
+    }
+
+    /**
+     * 构建分块
+     * @param centers 高斯点中心（局部坐标），x,y,z * N
+     * @param logScales 高斯点尺寸(对数)，x,y,z * N，可为null
+     * @param chunkSize 每块最多包含的高斯点数量
+     */
+    public static GaussianChunks build(float[] centers, float[] logScales, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be >= 1");
+        }
+        int n = centers.length / 3;
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+        }
+
+        int[] leafStart = new int[2 * (n / chunkSize) + 1];
+        Builder builder = new Builder(centers, ids, chunkSize, leafStart);
+        if (n > 0) {
+            builder.split(0, n, 0);
+        }
+        int chunkCount = builder.leafCount;
+        int[] chunkStart = new int[chunkCount + 1];
+        System.arraycopy(builder.leafStart, 0, chunkStart, 0, chunkCount);
+        chunkStart[chunkCount] = n;
+
+        float[] boxes = new float[chunkCount * 6];
+        Random random = new Random(0x5eed);
+        for (int c = 0; c < chunkCount; c++) {
+            int start = chunkStart[c];
+            int end = chunkStart[c + 1];
+
+            //Fisher-Yates，使块内任意前缀均匀分布
+            for (int k = end - 1; k > start; k--) {
+                int r = start + random.nextInt(k - start + 1);
+                int tmp = ids[k];
+                ids[k] = ids[r];
+                ids[r] = tmp;
+            }
+
+            float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+            for (int k = start; k < end; k++) {
+                int b = ids[k] * 3;
+                float x = centers[b], y = centers[b + 1], z = centers[b + 2];
+                if (x < minX) minX = x;
+                if (y < minY) minY = y;
+                if (z < minZ) minZ = z;
+                if (x > maxX) maxX = x;
+                if (y > maxY) maxY = y;
+                if (z > maxZ) maxZ = z;
+            }
+            float pad = 0f;
+            if (logScales != null) {
+                float maxLogScale = Float.NEGATIVE_INFINITY;
+                for (int k = start; k < end; k++) {
+                    int b = ids[k] * 3;
+                    maxLogScale = Math.max(maxLogScale,
+                            Math.max(logScales[b], Math.max(logScales[b + 1], logScales[b + 2])));
+                }
+                pad = SIGMA_EXTENT * (float) Math.exp(maxLogScale);
+            }
+
+            int o = c * 6;
+            boxes[o] = (minX + maxX) * 0.5f;
+            boxes[o + 1] = (minY + maxY) * 0.5f;
+            boxes[o + 2] = (minZ + maxZ) * 0.5f;
+            boxes[o + 3] = (maxX - minX) * 0.5f + pad;
+            boxes[o + 4] = (maxY - minY) * 0.5f + pad;
+            boxes[o + 5] = (maxZ - minZ) * 0.5f + pad;
+        }
+        return new GaussianChunks(n, ids, chunkStart, boxes, chunkCount);
+    }
+
+    /**
+     * 剔除并输出存活的高斯点索引
+     * @param modelMat 模型矩阵，4x4 column-major
+     * @param cameraModelMat 相机模型矩阵，4x4 column-major
+     * @param projectionMat 投影矩阵，4x4 column-major
+     * @param outVisible 输出索引，长度至少为高斯点数量
+     * @return 存活的高斯点数量
+     */
+    public int cull(float[] modelMat, float[] cameraModelMat, float[] projectionMat, int[] outVisible) {
+        invertRigidTransform(cameraModelMat, viewMat);
+        mulMat4(viewMat, modelMat, modelViewMat);
+        mulMat4(projectionMat, modelViewMat, mvpMat);
+        extractPlanes(mvpMat, planes);
+
+        //局部半径 → 世界半径
+        float modelScale = maxColumnScale(modelMat);
+        //投影直径占屏幕高度的比例 = r * P[1][1] / depth
+        float lodFactor = lodScreenSize > 0 ? projectionMat[5] * modelScale / lodScreenSize : 0f;
+
+        boolean changed = false;
+        int count = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            int o = c * 6;
+            float cx = boxes[o], cy = boxes[o + 1], cz = boxes[o + 2];
+            float ex = boxes[o + 3], ey = boxes[o + 4], ez = boxes[o + 5];
+            int start = chunkStart[c];
+            int size = chunkStart[c + 1] - start;
+            int keep = size;
+
+            if (frustumCulling && outsideFrustum(cx, cy, cz, ex, ey, ez)) {
+                keep = 0;
+            } else if (lodFactor > 0) {
+                //w = 相机空间深度
+                float w = mvpMat[3] * cx + mvpMat[7] * cy + mvpMat[11] * cz + mvpMat[15];
+                if (w > 0) {
+                    float r = (float) Math.sqrt(ex * ex + ey * ey + ez * ez);
+                    float ratio = r * lodFactor / w;
+                    if (ratio < 1f) {
+                        keep = Math.max(1, (int) (size * ratio * ratio));
+                    }
+                }
+            }
+
+            if (keep != keepCounts[c]) {
+                keepCounts[c] = keep;
+                changed = true;
+            }
+            if (keep > 0) {
+                System.arraycopy(ids, start, outVisible, count, keep);
+                count += keep;
+            }
+        }
+        visibleChanged = changed;
+        culled = true;
+        return count;
+    }
+
+    /**
+     * 上一次剔除的可见集与再上一次相比是否变化
+     * <p>未变化时，排序器可复用上一次的顺序做增量排序</p>
+     */
+    public boolean isVisibleChanged() {
+        return visibleChanged;
+    }
+
+    /**
+     * 设置是否启用视锥剔除，默认启用
+     */
+    public void setFrustumCulling(boolean frustumCulling) {
+        this.frustumCulling = frustumCulling;
+    }
+
+    public boolean isFrustumCulling() {
+        return frustumCulling;
+    }
+
+    /**
+     * 设置LOD阈值
+     * <p>块的投影直径小于该比例的屏幕高度时，按面积比例减少高斯点；0表示禁用LOD（默认）</p>
+     * @param lodScreenSize 屏幕高度的比例，如0.05
+     */
+    public void setLodScreenSize(float lodScreenSize) {
+        if (lodScreenSize < 0) {
+            throw new IllegalArgumentException("lodScreenSize must be >= 0");
+        }
+        this.lodScreenSize = lodScreenSize;
+    }
+
+    public float getLodScreenSize() {
+        return lodScreenSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public int getSplatCount() {
+        return splatCount;
+    }
+
+    /**
+     * 第chunk块在分组顺序中的起始位置，结束位置为{@code getChunkStart(chunk + 1)}
+     */
+    public int getChunkStart(int chunk) {
+        return chunkStart[chunk];
+    }
+
+    /**
+     * 分组顺序中第position个高斯点的原始索引
+     */
+    public int getSplatId(int position) {
+        return ids[position];
+    }
+
+    /**
+     * 数据已按分组顺序重排后的分块
+     * <p>第k个高斯点即原来的{@code getSplatId(k)}，块划分与包围盒不变，索引变为连续</p>
+     */
+    public GaussianChunks reordered() {
+        int[] identity = new int[splatCount];
+        for (int i = 0; i < splatCount; i++) {
+            identity[i] = i;
+        }
+        GaussianChunks chunks = new GaussianChunks(splatCount, identity, chunkStart, boxes, chunkCount);
+        chunks.frustumCulling = frustumCulling;
+        chunks.lodScreenSize = lodScreenSize;
+        return chunks;
+    }
+
+    /**
+     * 从缓存数据恢复分块，见{@link PlyCacheFile}
+     */
+    static GaussianChunks restore(int[] ids, int[] chunkStart, float[] boxes) {
+        int chunkCount = chunkStart.length - 1;
+        if (chunkCount < 0 || boxes.length != chunkCount * 6 || chunkStart[chunkCount] != ids.length) {
+            throw new IllegalArgumentException("Inconsistent chunk data");
+        }
+        return new GaussianChunks(ids.length, ids, chunkStart, boxes, chunkCount);
+    }
+
+    /**
+     * 上一次剔除时第chunk块保留的数量，未剔除过时为块的大小
+     */
+    int getKeepCount(int chunk) {
+        return culled ? keepCounts[chunk] : chunkStart[chunk + 1] - chunkStart[chunk];
+    }
+
+    int[] rawIds() {
+        return ids;
+    }
+
+    int[] rawChunkStart() {
+        return chunkStart;
+    }
+
+    float[] rawBoxes() {
+        return boxes;
+    }
+
+    /**
+     * 包围盒完全位于某一平面外侧
+     */
+    private boolean outsideFrustum(float x, float y, float z, float ex, float ey, float ez) {
+        for (int p = 0; p < 24; p += 4) {
+            float a = planes[p], b = planes[p + 1], c = planes[p + 2];
+            float r = Math.abs(a) * ex + Math.abs(b) * ey + Math.abs(c) * ez;
+            if (a * x + b * y + c * z + planes[p + 3] < -r) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 递归划分，叶子按索引顺序依次记录
+     */
+    private static final class Builder {
+        private final float[] centers;
+        private final int[] ids;
+        private final int chunkSize;
+        private int[] leafStart;
+        private int leafCount;
+
+        Builder(float[] centers, int[] ids, int chunkSize, int[] leafStart) {
+            this.centers = centers;
+            this.ids = ids;
+            this.chunkSize = chunkSize;
+            this.leafStart = leafStart;
+        }
+
+        void split(int start, int end, int depth) {
+            if (end - start <= chunkSize || depth >= MAX_DEPTH) {
+                addLeaf(start);
+                return;
+            }
+
+            float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+            for (int k = start; k < end; k++) {
+                int b = ids[k] * 3;
+                float x = centers[b], y = centers[b + 1], z = centers[b + 2];
+                if (x < minX) minX = x;
+                if (y < minY) minY = y;
+                if (z < minZ) minZ = z;
+                if (x > maxX) maxX = x;
+                if (y > maxY) maxY = y;
+                if (z > maxZ) maxZ = z;
+            }
+            float ex = maxX - minX, ey = maxY - minY, ez = maxZ - minZ;
+            int axis = ex >= ey && ex >= ez ? 0 : (ey >= ez ? 1 : 2);
+            float mid = axis == 0 ? (minX + maxX) * 0.5f : axis == 1 ? (minY + maxY) * 0.5f : (minZ + maxZ) * 0.5f;
+
+            //原地划分：小于mid的在左侧
+            int i = start, j = end - 1;
+            while (i <= j) {
+                if (centers[ids[i] * 3 + axis] < mid) {
+                    i++;
+                } else {
+                    int tmp = ids[i];
+                    ids[i] = ids[j];
+                    ids[j] = tmp;
+                    j--;
+                }
+            }
+
+            if (i == start || i == end) {
+                //所有点重合，无法再划分
+                addLeaf(start);
+                return;
+            }
+            split(start, i, depth + 1);
+            split(i, end, depth + 1);
+        }
+
+        private void addLeaf(int start) {
+            if (leafCount == leafStart.length) {
+                int[] grown = new int[leafStart.length * 2];
+                System.arraycopy(leafStart, 0, grown, 0, leafCount);
+                leafStart = grown;
+            }
+            leafStart[leafCount++] = start;
+        }
+    }
+
+    /* ---------------- math helpers ---------------- */
+
+    /**
+     * Gribb-Hartmann，从MVP提取局部坐标下的视锥平面并归一化
+     */
+    static void extractPlanes(float[] m, float[] out) {
+        for (int p = 0; p < 6; p++) {
+            int row = p >> 1;
+            float sign = (p & 1) == 0 ? 1f : -1f;
+            float a = m[3] + sign * m[row];
+            float b = m[7] + sign * m[4 + row];
+            float c = m[11] + sign * m[8 + row];
+            float d = m[15] + sign * m[12 + row];
+            float len = (float) Math.sqrt(a * a + b * b + c * c);
+            if (len > 0) {
+                a /= len;
+                b /= len;
+                c /= len;
+                d /= len;
+            }
+            out[p * 4] = a;
+            out[p * 4 + 1] = b;
+            out[p * 4 + 2] = c;
+            out[p * 4 + 3] = d;
+        }
+    }
+
+    static float maxColumnScale(float[] m) {
+        float sx = m[0] * m[0] + m[1] * m[1] + m[2] * m[2];
+        float sy = m[4] * m[4] + m[5] * m[5] + m[6] * m[6];
+        float sz = m[8] * m[8] + m[9] * m[9] + m[10] * m[10];
+        return (float) Math.sqrt(Math.max(sx, Math.max(sy, sz)));
+    }
+
+    static void invertRigidTransform(float[] m, float[] out) {
+        out[0] = m[0];  out[1] = m[4];  out[2]  = m[8];
+        out[4] = m[1];  out[5] = m[5];  out[6]  = m[9];
+        out[8] = m[2];  out[9] = m[6];  out[10] = m[10];
+
+        float tx = m[12];
+        float ty = m[13];
+        float tz = m[14];
+
+        out[12] = -(out[0] * tx + out[4] * ty + out[8]  * tz);
+        out[13] = -(out[1] * tx + out[5] * ty + out[9]  * tz);
+        out[14] = -(out[2] * tx + out[6] * ty + out[10] * tz);
+
+        out[3] = out[7] = out[11] = 0f;
+        out[15] = 1f;
+    }
+
+    /**
+     * 通用4x4矩阵乘法（含投影），out = a * b
+     */
+    static void mulMat4(float[] a, float[] b, float[] out) {
+        for (int c = 0; c < 4; c++) {
+            int ci = c * 4;
+            for (int r = 0; r < 4; r++) {
+                out[ci + r] = a[r] * b[ci] + a[4 + r] * b[ci + 1] + a[8 + r] * b[ci + 2] + a[12 + r] * b[ci + 3];
+            }
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package com.eqgis.eqr.core;
+
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+/**
+ * (高斯点云)量化存储
+ * <p>
+ *     按{@link GaussianChunks}的分组顺序存储，每块记录中心点的紧包围盒：
+ *     <ul>
+ *         <li>位置：相对所在块包围盒的16位定点，6字节</li>
+ *         <li>旋转：smallest-three编码，4字节</li>
+ *         <li>尺寸：对数尺寸在全局范围内的8位量化，3字节</li>
+ *         <li>不透明度：sigmoid后的8位量化，1字节</li>
+ *         <li>球谐DC分量：半精度，6字节</li>
+ *         <li>球谐剩余分量：按全局最大绝对值的8位量化，每系数1字节</li>
+ *     </ul>
+ *     3阶球谐约69字节/点（含原始索引），fp32的{@link JPlyGS3dAsset}约248字节/点。
+ * </p>
+ */
+public final class GaussianQuantizedData {
+
+    private static final float SQRT2 = (float) Math.sqrt(2);
+    //smallest-three每分量10位
+    private static final int ROT_BITS = 10;
+    private static final int ROT_MAX = (1 << ROT_BITS) - 1;
+    //sigmoid量化的上下限，避免logit溢出
+    private static final float OPACITY_EPSILON = 0.5f / 255f;
+
+    private final int count;
+    private final int shDegree;
+    private final int restDimension;
+    private final float[] aabb;
+
+    private final int[] chunkStart;
+    //每块 minX,minY,minZ,stepX,stepY,stepZ
+    private final float[] chunkBounds;
+    //存储顺序 → 原始索引
+    private final int[] originalIndex;
+
+    private final short[] positions;
+    private final int[] rotations;
+    private final byte[] scales;
+    private final float scaleMin;
+    private final float scaleStep;
+    private final byte[] opacities;
+    private final short[] colors;
+    private final byte[] rest;
+    private final float restStep;
+
+    private GaussianQuantizedData(Encoder encoder) {
+        this.count = encoder.count;
+        this.shDegree = encoder.shDegree;
+        this.restDimension = encoder.restDimension;
+        this.aabb = encoder.aabb;
+        this.chunkStart = encoder.chunkStart;
+        this.chunkBounds = encoder.chunkBounds;
+        this.originalIndex = encoder.originalIndex;
+        this.positions = encoder.positions;
+        this.rotations = encoder.rotations;
+        this.scales = encoder.scales;
+        this.scaleMin = encoder.scaleMin;
+        this.scaleStep = encoder.scaleStep;
+        this.opacities = encoder.opacities;
+        this.colors = encoder.colors;
+        this.rest = encoder.rest;
+        this.restStep = encoder.restStep;
+    }
+
+    /**
+     * 量化
+     * @param asset 全精度数据
+     * @param chunks 基于asset构建的分块，决定存储顺序
+     */
+    public static GaussianQuantizedData encode(JPlyGS3dAsset asset, GaussianChunks chunks) {
+        if (asset.vertices == null) {
+            throw new IllegalArgumentException("asset.vertices must not be null");
+        }
+        if (chunks.getSplatCount() != asset.vertices.length / 3) {
+            throw new IllegalArgumentException("chunks do not match asset");
+        }
+        return new GaussianQuantizedData(new Encoder(asset, chunks));
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getShDegree() {
+        return shDegree;
+    }
+
+    /**
+     * 每个高斯点的球谐剩余分量数量，0表示无
+     */
+    public int getRestDimension() {
+        return restDimension;
+    }
+
+    /**
+     * 存储顺序中第i个高斯点的原始索引
+     */
+    public int getOriginalIndex(int i) {
+        return originalIndex[i];
+    }
+
+    /**
+     * @return 堆内存占用（字节，近似值）
+     */
+    public long getByteSize() {
+        long size = (long) positions.length * 2 + (long) originalIndex.length * 4
+                + chunkBounds.length * 4L + chunkStart.length * 4L;
+        if (rotations != null) size += rotations.length * 4L;
+        if (scales != null) size += scales.length;
+        if (opacities != null) size += opacities.length;
+        if (colors != null) size += colors.length * 2L;
+        if (rest != null) size += rest.length;
+        return size;
+    }
+
+    public void decodePosition(int i, float[] out, int offset) {
+        int chunk = chunkOf(i);
+        int b = chunk * 6;
+        int p = i * 3;
+        out[offset] = chunkBounds[b] + (positions[p] & 0xFFFF) * chunkBounds[b + 3];
+        out[offset + 1] = chunkBounds[b + 1] + (positions[p + 1] & 0xFFFF) * chunkBounds[b + 4];
+        out[offset + 2] = chunkBounds[b + 2] + (positions[p + 2] & 0xFFFF) * chunkBounds[b + 5];
+    }
+
+    /**
+     * 解码全部位置，x,y,z * N（存储顺序）
+     */
+    public float[] decodePositions() {
+        float[] out = new float[count * 3];
+        for (int c = 0; c + 1 < chunkStart.length; c++) {
+            int b = c * 6;
+            float minX = chunkBounds[b], minY = chunkBounds[b + 1], minZ = chunkBounds[b + 2];
+            float sx = chunkBounds[b + 3], sy = chunkBounds[b + 4], sz = chunkBounds[b + 5];
+            for (int p = chunkStart[c] * 3, end = chunkStart[c + 1] * 3; p < end; p += 3) {
+                out[p] = minX + (positions[p] & 0xFFFF) * sx;
+                out[p + 1] = minY + (positions[p + 1] & 0xFFFF) * sy;
+                out[p + 2] = minZ + (positions[p + 2] & 0xFFFF) * sz;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 解码旋转（单位四元数），w,x,y,z
+     * @return 无旋转数据时返回false
+     */
+    public boolean decodeRotation(int i, float[] out, int offset) {
+        if (rotations == null) {
+            return false;
+        }
+        int packed = rotations[i];
+        int largest = packed >>> 30;
+        float sum = 0;
+        int shift = 2 * ROT_BITS;
+        for (int k = 0; k < 4; k++) {
+            if (k == largest) {
+                continue;
+            }
+            float v = (((packed >>> shift) & ROT_MAX) / (float) ROT_MAX - 0.5f) * SQRT2;
+            out[offset + k] = v;
+            sum += v * v;
+            shift -= ROT_BITS;
+        }
+        out[offset + largest] = (float) Math.sqrt(Math.max(0f, 1f - sum));
+        return true;
+    }
+
+    /**
+     * 解码对数尺寸，x,y,z
+     * @return 无尺寸数据时返回false
+     */
+    public boolean decodeScale(int i, float[] out, int offset) {
+        if (scales == null) {
+            return false;
+        }
+        int s = i * 3;
+        out[offset] = scaleMin + (scales[s] & 0xFF) * scaleStep;
+        out[offset + 1] = scaleMin + (scales[s + 1] & 0xFF) * scaleStep;
+        out[offset + 2] = scaleMin + (scales[s + 2] & 0xFF) * scaleStep;
+        return true;
+    }
+
+    /**
+     * 解码不透明度（logit，与Ply文件一致）
+     * @return 无不透明度数据时返回{@link Float#NaN}
+     */
+    public float decodeOpacity(int i) {
+        if (opacities == null) {
+            return Float.NaN;
+        }
+        float p = Math.min(1f - OPACITY_EPSILON, Math.max(OPACITY_EPSILON, (opacities[i] & 0xFF) / 255f));
+        return (float) Math.log(p / (1f - p));
+    }
+
+    /**
+     * 解码球谐DC分量，r,g,b
+     * @return 无DC分量时返回false
+     */
+    public boolean decodeColor(int i, float[] out, int offset) {
+        if (colors == null) {
+            return false;
+        }
+        int c = i * 3;
+        out[offset] = fromHalf(colors[c]);
+        out[offset + 1] = fromHalf(colors[c + 1]);
+        out[offset + 2] = fromHalf(colors[c + 2]);
+        return true;
+    }
+
+    /**
+     * 解码球谐剩余分量，共{@link #getRestDimension()}个
+     * @return 无剩余分量时返回false
+     */
+    public boolean decodeRest(int i, float[] out, int offset) {
+        if (rest == null) {
+            return false;
+        }
+        int base = i * restDimension;
+        for (int k = 0; k < restDimension; k++) {
+            out[offset + k] = rest[base + k] * restStep;
+        }
+        return true;
+    }
+
+    /**
+     * 解码为全精度数据（存储顺序）
+     */
+    public JPlyGS3dAsset decode() {
+        JPlyGS3dAsset asset = new JPlyGS3dAsset();
+        asset.vertices = decodePositions();
+        asset.aabb = aabb.clone();
+        asset.is3DGS = true;
+        asset.pointCount = count;
+        asset.shDegree = shDegree;
+        asset.dimension = restDimension;
+        if (rotations != null) {
+            asset.rot = new float[count * 4];
+            for (int i = 0; i < count; i++) {
+                decodeRotation(i, asset.rot, i * 4);
+            }
+        }
+        if (scales != null) {
+            asset.scale = new float[count * 3];
+            for (int i = 0; i < count; i++) {
+                decodeScale(i, asset.scale, i * 3);
+            }
+        }
+        if (opacities != null) {
+            asset.opacity = new float[count];
+            for (int i = 0; i < count; i++) {
+                asset.opacity[i] = decodeOpacity(i);
+            }
+        }
+        if (colors != null) {
+            asset.f_dc = new float[count * 3];
+            for (int i = 0; i < count; i++) {
+                decodeColor(i, asset.f_dc, i * 3);
+            }
+        }
+        if (rest != null) {
+            asset.f_rest = new float[count * restDimension];
+            for (int i = 0; i < count; i++) {
+                decodeRest(i, asset.f_rest, i * restDimension);
+            }
+        }
+        return asset;
+    }
+
+    /**
+     * 仅含位置与元数据的数据（存储顺序），供排序与剔除使用
+     */
+    public JPlyGS3dAsset decodePositionsOnly() {
+        JPlyGS3dAsset asset = new JPlyGS3dAsset();
+        asset.vertices = decodePositions();
+        asset.aabb = aabb.clone();
+        asset.is3DGS = true;
+        asset.pointCount = count;
+        asset.shDegree = shDegree;
+        asset.dimension = restDimension;
+        return asset;
+    }
+
+    /**
+     * float转半精度（就近舍入）
+     */
+    public static short toHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = (bits >>> 23) & 0xFF;
+        int mantissa = bits & 0x7FFFFF;
+        if (exponent == 0xFF) {
+            //Inf / NaN
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        int e = exponent - 127 + 15;
+        if (e >= 0x1F) {
+            return (short) (sign | 0x7C00);
+        }
+        if (e <= 0) {
+            if (e < -10) {
+                return (short) sign;
+            }
+            //非规格化数
+            mantissa |= 0x800000;
+            int shift = 14 - e;
+            int half = mantissa >> shift;
+            int round = (mantissa >> (shift - 1)) & 1;
+            return (short) (sign | (half + round));
+        }
+        int half = sign | (e << 10) | (mantissa >> 13);
+        //舍入，进位可自然溢出到指数
+        if ((mantissa & 0x1000) != 0) {
+            half++;
+        }
+        return (short) half;
+    }
+
+    /**
+     * 半精度转float
+     */
+    public static float fromHalf(short half) {
+        int h = half & 0xFFFF;
+        int sign = (h & 0x8000) << 16;
+        int exponent = (h >>> 10) & 0x1F;
+        int mantissa = h & 0x3FF;
+        if (exponent == 0) {
+            float v = mantissa * (1f / (1 << 24));
+            return sign != 0 ? -v : v;
+        }
+        if (exponent == 0x1F) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+    }
+
+    private int chunkOf(int i) {
+        int lo = 0;
+        int hi = chunkStart.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (chunkStart[mid] <= i) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private static final class Encoder {
+        int count;
+        int shDegree;
+        int restDimension;
+        float[] aabb;
+        int[] chunkStart;
+        float[] chunkBounds;
+        int[] originalIndex;
+        short[] positions;
+        int[] rotations;
+        byte[] scales;
+        float scaleMin;
+        float scaleStep;
+        byte[] opacities;
+        short[] colors;
+        byte[] rest;
+        float restStep;
+
+        Encoder(JPlyGS3dAsset asset, GaussianChunks chunks) {
+            count = asset.vertices.length / 3;
+            shDegree = asset.shDegree;
+            restDimension = asset.f_rest == null || count == 0 ? 0 : asset.f_rest.length / count;
+            aabb = asset.aabb != null ? asset.aabb.clone() : new float[6];
+
+            int chunkCount = chunks.getChunkCount();
+            chunkStart = new int[chunkCount + 1];
+            for (int c = 0; c <= chunkCount; c++) {
+                chunkStart[c] = c < chunkCount ? chunks.getChunkStart(c) : count;
+            }
+            originalIndex = new int[count];
+            for (int i = 0; i < count; i++) {
+                originalIndex[i] = chunks.getSplatId(i);
+            }
+
+            encodePositions(asset.vertices, chunkCount);
+            if (asset.rot != null) {
+                encodeRotations(asset.rot);
+            }
+            if (asset.scale != null) {
+                encodeScales(asset.scale);
+            }
+            if (asset.opacity != null) {
+                opacities = new byte[count];
+                for (int i = 0; i < count; i++) {
+                    float p = (float) (1.0 / (1.0 + Math.exp(-asset.opacity[originalIndex[i]])));
+                    opacities[i] = (byte) Math.round(p * 255f);
+                }
+            }
+            if (asset.f_dc != null) {
+                colors = new short[count * 3];
+                for (int i = 0; i < count; i++) {
+                    int src = originalIndex[i] * 3;
+                    colors[i * 3] = toHalf(asset.f_dc[src]);
+                    colors[i * 3 + 1] = toHalf(asset.f_dc[src + 1]);
+                    colors[i * 3 + 2] = toHalf(asset.f_dc[src + 2]);
+                }
+            }
+            if (restDimension > 0) {
+                encodeRest(asset.f_rest);
+            }
+        }
+
+        private void encodePositions(float[] vertices, int chunkCount) {
+            positions = new short[count * 3];
+            chunkBounds = new float[chunkCount * 6];
+            for (int c = 0; c < chunkCount; c++) {
+                int start = chunkStart[c];
+                int end = chunkStart[c + 1];
+                float[] min = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+                float[] max = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+                for (int k = start; k < end; k++) {
+                    int src = originalIndex[k] * 3;
+                    for (int a = 0; a < 3; a++) {
+                        min[a] = Math.min(min[a], vertices[src + a]);
+                        max[a] = Math.max(max[a], vertices[src + a]);
+                    }
+                }
+                int b = c * 6;
+                float[] inverse = new float[3];
+                for (int a = 0; a < 3; a++) {
+                    float range = end > start ? max[a] - min[a] : 0f;
+                    chunkBounds[b + a] = end > start ? min[a] : 0f;
+                    //存储步长，解码时直接相乘
+                    chunkBounds[b + 3 + a] = range / 65535f;
+                    inverse[a] = range > 0 ? 65535f / range : 0f;
+                }
+                for (int k = start; k < end; k++) {
+                    int src = originalIndex[k] * 3;
+                    for (int a = 0; a < 3; a++) {
+                        positions[k * 3 + a] = (short) Math.round((vertices[src + a] - chunkBounds[b + a]) * inverse[a]);
+                    }
+                }
+            }
+        }
+
+        private void encodeRotations(float[] rot) {
+            rotations = new int[count];
+            float[] q = new float[4];
+            for (int i = 0; i < count; i++) {
+                int src = originalIndex[i] * 4;
+                float length = 0;
+                int largest = 0;
+                for (int k = 0; k < 4; k++) {
+                    q[k] = rot[src + k];
+                    length += q[k] * q[k];
+                    if (Math.abs(q[k]) > Math.abs(q[largest])) {
+                        largest = k;
+                    }
+                }
+                //q与-q表示同一旋转，使最大分量为正
+                float inv = length > 0 ? (float) (1.0 / Math.sqrt(length)) : 0f;
+                if (q[largest] < 0) {
+                    inv = -inv;
+                }
+                int packed = largest << 30;
+                int shift = 2 * ROT_BITS;
+                for (int k = 0; k < 4; k++) {
+                    if (k == largest) {
+                        continue;
+                    }
+                    float v = q[k] * inv / SQRT2 + 0.5f;
+                    int bits = Math.max(0, Math.min(ROT_MAX, Math.round(v * ROT_MAX)));
+                    packed |= bits << shift;
+                    shift -= ROT_BITS;
+                }
+                rotations[i] = packed;
+            }
+        }
+
+        private void encodeScales(float[] scale) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (float s : scale) {
+                min = Math.min(min, s);
+                max = Math.max(max, s);
+            }
+            scaleMin = count > 0 ? min : 0f;
+            scaleStep = count > 0 ? (max - min) / 255f : 0f;
+            float inverse = scaleStep > 0 ? 1f / scaleStep : 0f;
+            scales = new byte[count * 3];
+            for (int i = 0; i < count; i++) {
+                int src = originalIndex[i] * 3;
+                for (int a = 0; a < 3; a++) {
+                    scales[i * 3 + a] = (byte) Math.round((scale[src + a] - scaleMin) * inverse);
+                }
+            }
+        }
+
+        private void encodeRest(float[] fRest) {
+            float maxAbs = 0;
+            for (float v : fRest) {
+                maxAbs = Math.max(maxAbs, Math.abs(v));
+            }
+            restStep = maxAbs / 127f;
+            float inverse = restStep > 0 ? 1f / restStep : 0f;
+            rest = new byte[count * restDimension];
+            for (int i = 0; i < count; i++) {
+                int src = originalIndex[i] * restDimension;
+                int dst = i * restDimension;
+                for (int k = 0; k < restDimension; k++) {
+                    rest[dst + k] = (byte) Math.round(fRest[src + k] * inverse);
+                }
+            }
+        }
+    }
+}
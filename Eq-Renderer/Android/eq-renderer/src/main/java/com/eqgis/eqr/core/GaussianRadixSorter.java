@@ -0,0 +1,635 @@
+package com.eqgis.eqr.core;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * (高斯点云)顶点排序——基数排序
+ * <p>
+ *     将深度量化为16/32位无符号整数键，按16位一趟做LSD基数排序，
+ *     复杂度O(N)，百万级高斯点下明显快于{@link GaussianSorter}的快速排序。
+ * </p>
+ * <p>
+ *     增量模式：深度只取决于modelView矩阵的第三行，相机平移仅使所有深度加上同一常量，不改变顺序。
+ *     视线方向（含模型变换）未变化时直接复用上一次的顺序；变化较小时，上一次的顺序基本有序，
+ *     以精确深度对其做插入排序修正，只移动换位的点。移动次数超过上限（约每点{@link #FIXUP_MOVES_PER_POINT}次）
+ *     说明顺序变化较大，放弃修正并改做完整基数排序，之后不小于该变化量的旋转不再尝试修正。
+ * </p>
+ * <p>
+ *     并行模式：传入线程池时，按线程数将高斯点均分为若干分区，深度计算、量化、
+ *     直方图统计与分散写入均在各分区并行执行；各分区的直方图合并为全局偏移后再并行分散，排序仍是稳定的。
+ * </p>
+ * <p>
+ *     子集模式：只对剔除后的可见高斯点排序，order中保存的是在可见数组中的位置。
+ *     可见数量变化时自动丢弃上一次的顺序。
+ * </p>
+ */
+public final class GaussianRadixSorter implements IGaussianSorter {
+
+    /**
+     * 排序方式
+     */
+    public enum Pass {
+        /** 视线方向未变化，直接复用上一次的顺序 */
+        REUSED,
+        /** 视线方向小幅变化，对上一次的顺序做插入排序修正 */
+        FIXUP,
+        /** 完整基数排序 */
+        RADIX
+    }
+
+    public static final int KEY_BITS_16 = 16;
+    public static final int KEY_BITS_32 = 32;
+
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX_SIZE = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX_SIZE - 1;
+
+    //插入排序修正的移动次数上限(每点)，超过后改做完整基数排序
+    static final int FIXUP_MOVES_PER_POINT = 8;
+
+    //各分区的执行阶段
+    private static final int PHASE_DEPTH = 0;
+    private static final int PHASE_KEYS = 1;
+    private static final int PHASE_HISTOGRAM = 2;
+    private static final int PHASE_SCATTER = 3;
+    private static final int PHASE_FILL = 4;
+
+    private final int gaussianCount;
+    private final int[] order;
+    private final int[] orderTmp;
+    private final float[] depth;
+    private final int[] keys;
+
+    //为null时在调用线程上串行执行
+    private final ForkJoinPool workers;
+    private final Partition[] partitions;
+    private final List<Partition> partitionTasks;
+    //当前参与排序的数量及分区
+    private int activeCount;
+    private int activePartitions;
+    private List<Partition> activeTasks;
+
+    //当前阶段的参数，由invokeAll保证对各分区可见
+    private int phase;
+    private float[] phaseCenters;
+    private int[] phaseVisible;
+    private boolean phaseSingle;
+    private float phaseR0, phaseR1, phaseR2;
+    private float phaseMaxDepth;
+    private double phaseScale;
+    private long phaseMaxKey;
+    private int[] phaseSrc, phaseDst;
+    private int phaseShift;
+    private int[] phaseOutIndices;
+    private IntBuffer phaseOutBuffer;
+
+    private final float[] viewMat = new float[16];
+    private final float[] modelViewMat = new float[16];
+
+    //上一次排序时modelView矩阵的第三行(深度方向)
+    private final float[] lastDepthRow = new float[3];
+    private boolean hasLastOrder = false;
+    private Pass lastPass = Pass.RADIX;
+
+    private int keyBits = KEY_BITS_32;
+    //视线方向相对变化阈值，约0.3°；稠密点云中更大的旋转会使大量点换位，插入修正通常超限
+    private float incrementalThreshold = 0.005f;
+    //上一次修正超限时的相对变化量(平方)，不小于该值时直接完整排序；修正成功后逐步放宽
+    private float fixupLimit2 = Float.POSITIVE_INFINITY;
+
+    public GaussianRadixSorter(int gaussianCount) {
+        this(gaussianCount, null);
+    }
+
+    /**
+     * 构造函数
+     * @param gaussianCount 高斯点数量
+     * @param workers 排序线程池，null表示串行排序；分区数等于线程池的并行度
+     */
+    public GaussianRadixSorter(int gaussianCount, ForkJoinPool workers) {
+        this.gaussianCount = gaussianCount;
+        this.order = new int[gaussianCount];
+        this.orderTmp = new int[gaussianCount];
+        this.depth = new float[gaussianCount];
+        this.keys = new int[gaussianCount];
+
+        int partitionCount = workers == null ? 1 : Math.max(1, workers.getParallelism());
+        //每个分区至少包含一个直方图大小的点，否则合并直方图的开销大于并行收益
+        partitionCount = Math.max(1, Math.min(partitionCount, gaussianCount / RADIX_SIZE));
+        this.workers = partitionCount > 1 ? workers : null;
+        this.partitions = new Partition[partitionCount];
+        this.partitionTasks = new ArrayList<>(partitionCount);
+        for (int p = 0; p < partitionCount; p++) {
+            partitions[p] = new Partition();
+            partitionTasks.add(partitions[p]);
+        }
+        setActiveCount(gaussianCount);
+    }
+
+    @Override
+    public void sort(float[] localCenters, float[] modelMat, float[] cameraModelMat, int[] outIndices) {
+        sortOrder(localCenters, null, gaussianCount, modelMat, cameraModelMat);
+
+        // fill indices immediately
+        phaseOutIndices = outIndices;
+        runPhase(PHASE_FILL);
+        phaseOutIndices = null;
+    }
+
+    @Override
+    public void sortSingle(float[] localCenters, float[] modelMat, float[] cameraModelMat, int[] outIndices) {
+        sortOrder(localCenters, null, gaussianCount, modelMat, cameraModelMat);
+        System.arraycopy(order, 0, outIndices, 0, gaussianCount);
+    }
+
+    @Override
+    public void sort(float[] localCenters, float[] modelMat, float[] cameraModelMat, IntBuffer outIndices) {
+        sortOrder(localCenters, null, gaussianCount, modelMat, cameraModelMat);
+
+        phaseOutBuffer = outIndices;
+        runPhase(PHASE_FILL);
+        phaseOutBuffer = null;
+    }
+
+    @Override
+    public void sortSingle(float[] localCenters, float[] modelMat, float[] cameraModelMat, IntBuffer outIndices) {
+        sortOrder(localCenters, null, gaussianCount, modelMat, cameraModelMat);
+
+        int position = outIndices.position();
+        outIndices.position(0);
+        outIndices.put(order, 0, gaussianCount);
+        outIndices.position(position);
+    }
+
+    @Override
+    public void sort(float[] localCenters, int[] visible, int visibleCount,
+                     float[] modelMat, float[] cameraModelMat, IntBuffer outIndices) {
+        sortOrder(localCenters, visible, visibleCount, modelMat, cameraModelMat);
+
+        phaseVisible = visible;
+        phaseOutBuffer = outIndices;
+        runPhase(PHASE_FILL);
+        phaseOutBuffer = null;
+        phaseVisible = null;
+    }
+
+    @Override
+    public void sortSingle(float[] localCenters, int[] visible, int visibleCount,
+                           float[] modelMat, float[] cameraModelMat, IntBuffer outIndices) {
+        sortOrder(localCenters, visible, visibleCount, modelMat, cameraModelMat);
+
+        phaseVisible = visible;
+        phaseSingle = true;
+        phaseOutBuffer = outIndices;
+        runPhase(PHASE_FILL);
+        phaseOutBuffer = null;
+        phaseSingle = false;
+        phaseVisible = null;
+    }
+
+    /**
+     * 设置深度量化位数
+     * <p>16位仅需一趟，适合深度范围较小的场景；32位两趟，精度更高</p>
+     * @param keyBits {@link #KEY_BITS_16}或{@link #KEY_BITS_32}
+     */
+    public void setKeyBits(int keyBits) {
+        if (keyBits != KEY_BITS_16 && keyBits != KEY_BITS_32) {
+            throw new IllegalArgumentException("keyBits must be 16 or 32");
+        }
+        this.keyBits = keyBits;
+    }
+
+    public int getKeyBits() {
+        return keyBits;
+    }
+
+    /**
+     * 设置增量排序阈值
+     * @param incrementalThreshold 视线方向的相对变化量，小于该值时以上一次的顺序为种子修正；0表示禁用增量排序
+     */
+    public void setIncrementalThreshold(float incrementalThreshold) {
+        this.incrementalThreshold = incrementalThreshold;
+        this.fixupLimit2 = Float.POSITIVE_INFINITY;
+    }
+
+    public float getIncrementalThreshold() {
+        return incrementalThreshold;
+    }
+
+    /**
+     * 获取上一次排序采用的方式
+     * @return 排序方式
+     */
+    public Pass getLastPass() {
+        return lastPass;
+    }
+
+    /**
+     * 获取分区数，即并行排序的线程数
+     * @return 分区数，1表示串行
+     */
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    @Override
+    public void reset() {
+        hasLastOrder = false;
+    }
+
+    /**
+     * 按参与排序的数量重新划分分区
+     */
+    private void setActiveCount(int count) {
+        if (count < 0 || count > gaussianCount) {
+            throw new IllegalArgumentException("visibleCount out of range: " + count);
+        }
+        //每个分区至少包含一个直方图大小的点
+        int partitionCount = Math.max(1, Math.min(partitions.length, count / RADIX_SIZE));
+        for (int p = 0; p < partitionCount; p++) {
+            partitions[p].start = (int) ((long) count * p / partitionCount);
+            partitions[p].end = (int) ((long) count * (p + 1) / partitionCount);
+        }
+        activeCount = count;
+        activePartitions = partitionCount;
+        activeTasks = partitionTasks.subList(0, partitionCount);
+        hasLastOrder = false;
+    }
+
+    /**
+     * 计算顺序(远 → 近)，结果保存在order中
+     * @param visible 参与排序的高斯点索引，null表示全部
+     */
+    private void sortOrder(float[] localCenters, int[] visible, int count,
+                           float[] modelMat, float[] cameraModelMat) {
+        if (count != activeCount) {
+            setActiveCount(count);
+        }
+        if (count == 0) return;
+
+        //view = inverse(cameraModel)
+        invertRigidTransform(cameraModelMat, viewMat);
+
+        // modelView = view * model
+        mulMat4(viewMat, modelMat, modelViewMat);
+
+        float r0 = modelViewMat[2];
+        float r1 = modelViewMat[6];
+        float r2 = modelViewMat[10];
+
+        if (hasLastOrder && incrementalThreshold > 0) {
+            float dx = r0 - lastDepthRow[0];
+            float dy = r1 - lastDepthRow[1];
+            float dz = r2 - lastDepthRow[2];
+            float delta2 = dx * dx + dy * dy + dz * dz;
+            float len2 = lastDepthRow[0] * lastDepthRow[0]
+                    + lastDepthRow[1] * lastDepthRow[1]
+                    + lastDepthRow[2] * lastDepthRow[2];
+
+            if (delta2 == 0f) {
+                lastPass = Pass.REUSED;
+                return;
+            }
+            float ratio2 = delta2 / len2;
+            if (ratio2 < incrementalThreshold * incrementalThreshold && ratio2 < fixupLimit2) {
+                computeDepth(localCenters, visible, r0, r1, r2);
+                if (insertionFixup(count, (long) count * FIXUP_MOVES_PER_POINT)) {
+                    fixupLimit2 *= 2f;
+                    saveDepthRow(r0, r1, r2);
+                    lastPass = Pass.FIXUP;
+                    return;
+                }
+                //顺序变化过大，depth已计算，直接完整排序
+                fixupLimit2 = ratio2;
+                radixSort(r0, r1, r2);
+                return;
+            }
+        }
+
+        computeDepth(localCenters, visible, r0, r1, r2);
+        radixSort(r0, r1, r2);
+    }
+
+    /**
+     * 在depth已计算的前提下做完整基数排序
+     */
+    private void radixSort(float r0, float r1, float r2) {
+        computeKeys(keyBits);
+        if (keyBits == KEY_BITS_16) {
+            countingPass(null, order, 0);
+        } else {
+            countingPass(null, orderTmp, 0);
+            countingPass(orderTmp, order, RADIX_BITS);
+        }
+        saveDepthRow(r0, r1, r2);
+        hasLastOrder = true;
+        lastPass = Pass.RADIX;
+    }
+
+    /**
+     * depth = -Z_camera，平移分量对所有点相同，不参与排序
+     */
+    private void computeDepth(float[] localCenters, int[] visible, float r0, float r1, float r2) {
+        phaseCenters = localCenters;
+        phaseVisible = visible;
+        phaseR0 = r0;
+        phaseR1 = r1;
+        phaseR2 = r2;
+        runPhase(PHASE_DEPTH);
+        phaseCenters = null;
+        phaseVisible = null;
+    }
+
+    private void saveDepthRow(float r0, float r1, float r2) {
+        lastDepthRow[0] = r0;
+        lastDepthRow[1] = r1;
+        lastDepthRow[2] = r2;
+    }
+
+    /**
+     * 以上一次的顺序为初值做插入排序(深度降序)
+     * <p>
+     *     先将深度按排序位置收集到keys中(转为可直接比较的整数)，插入排序只顺序访问keys与order。
+     *     近似有序时移动次数很少；移动次数超过上限时中止，此时order仍是一个排列，可直接重新排序
+     * </p>
+     * @param maxMoves 移动次数上限
+     * @return 是否完成修正
+     */
+    private boolean insertionFixup(int count, long maxMoves) {
+        final int[] order = this.order;
+        final int[] keys = this.keys;
+        for (int k = 0; k < count; k++) {
+            keys[k] = sortableBits(depth[order[k]]);
+        }
+        long moves = 0;
+        for (int k = 1; k < count; k++) {
+            int key = keys[k];
+            int j = k - 1;
+            if (keys[j] >= key) continue;
+            int v = order[k];
+            do {
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            } while (j >= 0 && keys[j] < key);
+            keys[j + 1] = key;
+            order[j + 1] = v;
+            moves += k - 1 - j;
+            if (moves > maxMoves) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * float转为保持大小关系的int
+     */
+    private static int sortableBits(float value) {
+        int bits = Float.floatToRawIntBits(value + 0f);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    /**
+     * 深度量化为无符号整数键，远处(深度大)的键值小
+     */
+    private void computeKeys(int bits) {
+        float minDepth = Float.POSITIVE_INFINITY;
+        float maxDepth = Float.NEGATIVE_INFINITY;
+        for (int p = 0; p < activePartitions; p++) {
+            Partition partition = partitions[p];
+            if (partition.minDepth < minDepth) minDepth = partition.minDepth;
+            if (partition.maxDepth > maxDepth) maxDepth = partition.maxDepth;
+        }
+
+        float range = maxDepth - minDepth;
+        phaseMaxKey = bits == KEY_BITS_16 ? RADIX_MASK : 0xFFFFFFFFL;
+        phaseScale = range > 0 ? (double) phaseMaxKey / range : 0;
+        phaseMaxDepth = maxDepth;
+        runPhase(PHASE_KEYS);
+    }
+
+    /**
+     * 稳定的计数排序，按keys的一个16位分量
+     * <p>各分区先统计局部直方图，合并为全局偏移后各自分散写入</p>
+     * @param src 输入顺序，null表示0..N-1
+     */
+    private void countingPass(int[] src, int[] dst, int shift) {
+        phaseSrc = src;
+        phaseDst = dst;
+        phaseShift = shift;
+        runPhase(PHASE_HISTOGRAM);
+
+        //桶优先、分区其次累加，保证稳定
+        int sum = 0;
+        for (int b = 0; b < RADIX_SIZE; b++) {
+            for (int p = 0; p < activePartitions; p++) {
+                Partition partition = partitions[p];
+                int c = partition.histogram[b];
+                partition.histogram[b] = sum;
+                sum += c;
+            }
+        }
+
+        runPhase(PHASE_SCATTER);
+        phaseSrc = null;
+        phaseDst = null;
+    }
+
+    private void runPhase(int phase) {
+        this.phase = phase;
+        if (workers == null || activePartitions == 1) {
+            for (int p = 0; p < activePartitions; p++) {
+                partitions[p].call();
+            }
+            return;
+        }
+
+        List<Future<Void>> futures = workers.invokeAll(activeTasks);
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Gaussian sort interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Gaussian sort failed", e.getCause());
+        }
+    }
+
+    /**
+     * 分区，[start, end)区间内的高斯点（或排序位置）
+     */
+    private final class Partition implements Callable<Void> {
+        private int start;
+        private int end;
+        private final int[] histogram = new int[RADIX_SIZE];
+        private float minDepth;
+        private float maxDepth;
+
+        @Override
+        public Void call() {
+            switch (phase) {
+                case PHASE_DEPTH:
+                    depth();
+                    break;
+                case PHASE_KEYS:
+                    keys();
+                    break;
+                case PHASE_HISTOGRAM:
+                    histogram();
+                    break;
+                case PHASE_SCATTER:
+                    scatter();
+                    break;
+                case PHASE_FILL:
+                    fill();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown phase " + phase);
+            }
+            return null;
+        }
+
+        private void depth() {
+            final float[] localCenters = phaseCenters;
+            final int[] visible = phaseVisible;
+            final float r0 = phaseR0, r1 = phaseR1, r2 = phaseR2;
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = start; i < end; i++) {
+                int b = (visible == null ? i : visible[i]) * 3;
+                float d = -(r0 * localCenters[b] + r1 * localCenters[b + 1] + r2 * localCenters[b + 2]);
+                depth[i] = d;
+                if (d < min) min = d;
+                if (d > max) max = d;
+            }
+            minDepth = min;
+            maxDepth = max;
+        }
+
+        private void keys() {
+            final float maxDepth = phaseMaxDepth;
+            final double scale = phaseScale;
+            final long maxKey = phaseMaxKey;
+            for (int i = start; i < end; i++) {
+                long key = (long) ((maxDepth - depth[i]) * scale);
+                keys[i] = (int) Math.min(key, maxKey);
+            }
+        }
+
+        private void histogram() {
+            final int[] src = phaseSrc;
+            final int shift = phaseShift;
+            Arrays.fill(histogram, 0);
+            if (src == null) {
+                for (int i = start; i < end; i++) {
+                    histogram[(keys[i] >>> shift) & RADIX_MASK]++;
+                }
+            } else {
+                for (int k = start; k < end; k++) {
+                    histogram[(keys[src[k]] >>> shift) & RADIX_MASK]++;
+                }
+            }
+        }
+
+        private void scatter() {
+            final int[] src = phaseSrc;
+            final int[] dst = phaseDst;
+            final int shift = phaseShift;
+            if (src == null) {
+                for (int i = start; i < end; i++) {
+                    dst[histogram[(keys[i] >>> shift) & RADIX_MASK]++] = i;
+                }
+            } else {
+                for (int k = start; k < end; k++) {
+                    int i = src[k];
+                    dst[histogram[(keys[i] >>> shift) & RADIX_MASK]++] = i;
+                }
+            }
+        }
+
+        private void fill() {
+            if (phaseOutBuffer != null) {
+                fillBuffer();
+                return;
+            }
+            final int[] outIndices = phaseOutIndices;
+            int idx = start * 6;
+            for (int k = start; k < end; k++) {
+                int base = order[k] * 4;
+
+                outIndices[idx++] = base;
+                outIndices[idx++] = base + 1;
+                outIndices[idx++] = base + 2;
+
+                outIndices[idx++] = base;
+                outIndices[idx++] = base + 2;
+                outIndices[idx++] = base + 3;
+            }
+        }
+
+        private void fillBuffer() {
+            final IntBuffer outIndices = phaseOutBuffer;
+            final int[] visible = phaseVisible;
+            if (phaseSingle) {
+                for (int k = start; k < end; k++) {
+                    outIndices.put(k, visible[order[k]]);
+                }
+                return;
+            }
+            int idx = start * 6;
+            for (int k = start; k < end; k++) {
+                int base = (visible == null ? order[k] : visible[order[k]]) * 4;
+
+                outIndices.put(idx++, base);
+                outIndices.put(idx++, base + 1);
+                outIndices.put(idx++, base + 2);
+
+                outIndices.put(idx++, base);
+                outIndices.put(idx++, base + 2);
+                outIndices.put(idx++, base + 3);
+            }
+        }
+    }
+
+    /* ---------------- math helpers ---------------- */
+
+    private static void invertRigidTransform(float[] m, float[] out) {
+        // rotation transpose
+        out[0] = m[0];  out[1] = m[4];  out[2]  = m[8];
+        out[4] = m[1];  out[5] = m[5];  out[6]  = m[9];
+        out[8] = m[2];  out[9] = m[6];  out[10] = m[10];
+
+        // translation
+        float tx = m[12];
+        float ty = m[13];
+        float tz = m[14];
+
+        out[12] = -(out[0] * tx + out[4] * ty + out[8]  * tz);
+        out[13] = -(out[1] * tx + out[5] * ty + out[9]  * tz);
+        out[14] = -(out[2] * tx + out[6] * ty + out[10] * tz);
+
+        out[3] = out[7] = out[11] = 0f;
+        out[15] = 1f;
+    }
+
+    private static void mulMat4(float[] a, float[] b, float[] out) {
+        for (int c = 0; c < 4; c++) {
+            int ci = c * 4;
+            out[ci]     = a[0] * b[ci]     + a[4] * b[ci + 1] + a[8]  * b[ci + 2] + a[12] * b[ci + 3];
+            out[ci + 1] = a[1] * b[ci]     + a[5] * b[ci + 1] + a[9]  * b[ci + 2] + a[13] * b[ci + 3];
+            out[ci + 2] = a[2] * b[ci]     + a[6] * b[ci + 1] + a[10] * b[ci + 2] + a[14] * b[ci + 3];
+            out[ci + 3] = 0f;
+        }
+        out[15] = 1f;
+    }
+}
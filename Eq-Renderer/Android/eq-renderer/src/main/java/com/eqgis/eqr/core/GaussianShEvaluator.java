@@ -0,0 +1,388 @@
+package com.eqgis.eqr.core;
+
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 高斯点云球谐(SH)颜色计算
+ * <p>
+ *     按块缓存视线方向，只有相机到块中心的方向变化超过阈值角度时，才重新计算该块内各高斯点的颜色，
+ *     视角变化不大时每帧几乎无开销。被剔除的块暂不计算，重新可见后再按方向判断。
+ * </p>
+ * <p>
+ *     颜色为 0.5 + SH(方向) 并截断到[0, 1]，与标准3DGS一致，不透明度为logit经sigmoid后的值；
+ *     以RGBA8打包(内存中依次为r,g,b,a)，可直接作为归一化ubyte4顶点属性上传。
+ *     不计算球谐时的颜色同样按{@link #dcToColor}与{@link #opacityToAlpha}换算，两者写入的CUSTOM0含义一致。
+ * </p>
+ * <p>{@link #update}与{@link #writeVertexColors}应在同一线程(排序线程)中调用</p>
+ */
+public final class GaussianShEvaluator {
+
+    public static final float DEFAULT_ANGLE_DEGREES = 2f;
+
+    static final float SH_C0 = 0.28209479177387814f;
+    private static final float SH_C1 = 0.4886025119029199f;
+    private static final float[] SH_C2 = {
+            1.0925484305920792f, -1.0925484305920792f, 0.31539156525252005f,
+            -1.0925484305920792f, 0.5462742152960396f};
+    private static final float[] SH_C3 = {
+            -0.5900435899266435f, 2.890611442640554f, -0.4570457994644658f, 0.3731763325901154f,
+            -0.4570457994644658f, 1.445305721320277f, -0.5900435899266435f};
+    //每批展开的高斯点数量
+    private static final int BATCH = 1024;
+
+    private final float[] centers;
+    private final float[] fDc;
+    private final float[] fRest;
+    private final float[] opacity;
+    //f_rest中每个高斯点的系数数量，按通道分组：r * k, g * k, b * k
+    private final int restStride;
+    private final int degree;
+    private final GaussianChunks chunks;
+    //块包围盒，cx,cy,cz,ex,ey,ez * chunkCount
+    private final float[] boxes;
+
+    //每个高斯点的RGBA8颜色
+    private final int[] colors;
+    //各块上一次计算时的视线方向(局部坐标)，未计算过时为NaN
+    private final float[] chunkDirs;
+    private final int[] dirtyChunks;
+    private int dirtyCount;
+    private volatile float cosThreshold;
+
+    private final ForkJoinPool workers;
+    private final List<Partition> partitions = new ArrayList<>();
+    //相机位置(局部坐标)，由invokeAll保证对各分区可见
+    private float camX, camY, camZ;
+    private final float[] inverseModel = new float[12];
+
+    /**
+     * 构造函数
+     * @param asset 高斯点数据，需包含vertices、f_dc，f_rest为空时只计算DC分量
+     * @param chunks 空间分块
+     * @param workers 线程池，null表示串行计算；分区数等于线程池的并行度
+     */
+    public GaussianShEvaluator(JPlyGS3dAsset asset, GaussianChunks chunks, ForkJoinPool workers) {
+        if (asset.vertices == null || asset.f_dc == null) {
+            throw new IllegalArgumentException("asset.vertices and f_dc must not be null");
+        }
+        int count = asset.vertices.length / 3;
+        this.centers = asset.vertices;
+        this.fDc = asset.f_dc;
+        this.opacity = asset.opacity;
+        this.chunks = chunks;
+        this.boxes = chunks.rawBoxes();
+        if (asset.f_rest != null && count > 0 && asset.shDegree > 0) {
+            this.fRest = asset.f_rest;
+            this.restStride = asset.f_rest.length / count;
+            int degree = Math.min(asset.shDegree, 3);
+            //系数不足时按实际数量降阶
+            while (degree > 0 && (degree + 1) * (degree + 1) - 1 > restStride / 3) {
+                degree--;
+            }
+            this.degree = degree;
+        } else {
+            this.fRest = null;
+            this.restStride = 0;
+            this.degree = 0;
+        }
+
+        this.colors = new int[count];
+        this.chunkDirs = new float[chunks.getChunkCount() * 3];
+        Arrays.fill(chunkDirs, Float.NaN);
+        this.dirtyChunks = new int[chunks.getChunkCount()];
+        setAngleThreshold(DEFAULT_ANGLE_DEGREES);
+
+        int partitionCount = workers == null ? 1 : Math.max(1, workers.getParallelism());
+        this.workers = partitionCount > 1 ? workers : null;
+        for (int p = 0; p < partitionCount; p++) {
+            partitions.add(new Partition());
+        }
+
+        //初始只有DC分量，首次update后按视角更新
+        for (int i = 0; i < count; i++) {
+            colors[i] = evaluate(i, 0f, 0f, 0f, 0);
+        }
+    }
+
+    /**
+     * 设置重新计算的阈值角度
+     * @param degrees 相机到块中心的方向变化超过该角度时重新计算，默认{@link #DEFAULT_ANGLE_DEGREES}
+     */
+    public void setAngleThreshold(float degrees) {
+        if (degrees < 0f) {
+            throw new IllegalArgumentException("degrees must be >= 0");
+        }
+        cosThreshold = (float) Math.cos(Math.toRadians(degrees));
+    }
+
+    /**
+     * 球谐阶数，0表示只有DC分量，此时颜色与视角无关
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * 按当前视角更新颜色
+     * <p>应在{@link GaussianChunks#cull}之后调用，被剔除的块跳过计算</p>
+     * @param modelMat 模型矩阵，4x4 column-major
+     * @param cameraModelMat 相机模型矩阵，4x4 column-major
+     * @return 重新计算的块数量，0表示颜色未变化
+     */
+    public int update(float[] modelMat, float[] cameraModelMat) {
+        if (degree == 0) {
+            return 0;
+        }
+        //相机位置变换到局部坐标，球谐系数定义在局部坐标系中
+        invertAffine(modelMat, inverseModel);
+        float[] m = inverseModel;
+        float wx = cameraModelMat[12], wy = cameraModelMat[13], wz = cameraModelMat[14];
+        camX = m[0] * wx + m[3] * wy + m[6] * wz + m[9];
+        camY = m[1] * wx + m[4] * wy + m[7] * wz + m[10];
+        camZ = m[2] * wx + m[5] * wy + m[8] * wz + m[11];
+
+        float threshold = cosThreshold;
+        dirtyCount = 0;
+        int chunkCount = chunks.getChunkCount();
+        for (int c = 0; c < chunkCount; c++) {
+            if (chunks.getKeepCount(c) == 0) {
+                continue;
+            }
+            int b = c * 6;
+            float dx = boxes[b] - camX;
+            float dy = boxes[b + 1] - camY;
+            float dz = boxes[b + 2] - camZ;
+            float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (length > 0f) {
+                dx /= length;
+                dy /= length;
+                dz /= length;
+            }
+            int o = c * 3;
+            float lx = chunkDirs[o];
+            //未计算过的块为NaN，比较结果为false
+            if (dx * lx + dy * chunkDirs[o + 1] + dz * chunkDirs[o + 2] >= threshold) {
+                continue;
+            }
+            chunkDirs[o] = dx;
+            chunkDirs[o + 1] = dy;
+            chunkDirs[o + 2] = dz;
+            dirtyChunks[dirtyCount++] = c;
+        }
+        if (dirtyCount == 0) {
+            return 0;
+        }
+
+        int partitionCount = Math.min(partitions.size(), dirtyCount);
+        for (int p = 0; p < partitionCount; p++) {
+            Partition partition = partitions.get(p);
+            partition.start = dirtyCount * p / partitionCount;
+            partition.end = dirtyCount * (p + 1) / partitionCount;
+        }
+        if (workers == null || partitionCount == 1) {
+            for (int p = 0; p < partitionCount; p++) {
+                partitions.get(p).call();
+            }
+        } else {
+            List<Future<Void>> futures = workers.invokeAll(partitions.subList(0, partitionCount));
+            try {
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("SH evaluation interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("SH evaluation failed", e.getCause());
+            }
+        }
+        return dirtyCount;
+    }
+
+    /**
+     * 将颜色按顶点展开写入缓冲区，每个高斯点对应quad的4个顶点
+     * <p>按绝对位置写入，不修改缓冲区的position，容量至少为 4 * N</p>
+     */
+    public void writeVertexColors(IntBuffer out) {
+        int count = colors.length;
+        int[] batch = new int[Math.min(count, BATCH) * 4];
+        for (int start = 0; start < count; start += BATCH) {
+            int n = Math.min(BATCH, count - start);
+            int k = 0;
+            for (int i = start; i < start + n; i++) {
+                int color = colors[i];
+                batch[k++] = color;
+                batch[k++] = color;
+                batch[k++] = color;
+                batch[k++] = color;
+            }
+            IntBuffer dst = out.duplicate();
+            dst.position(start * 4);
+            dst.put(batch, 0, k);
+        }
+    }
+
+    /**
+     * 将颜色按高斯点写入缓冲区，每个高斯点一个RGBA8，用于颜色纹理
+     * <p>按绝对位置写入，不修改缓冲区的position，容量至少为 N</p>
+     */
+    public void writeColors(IntBuffer out) {
+        IntBuffer dst = out.duplicate();
+        dst.position(0);
+        dst.put(colors);
+    }
+
+    /**
+     * 每个高斯点的RGBA8颜色，内存中依次为r,g,b,a（小端）
+     */
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * 计算单个高斯点的颜色
+     * @param degree 参与计算的阶数
+     */
+    private int evaluate(int i, float x, float y, float z, int degree) {
+        float a = opacity != null ? opacityToAlpha(opacity[i]) : 1f;
+        float r = dcToColor(fDc[3 * i]);
+        float g = dcToColor(fDc[3 * i + 1]);
+        float b = dcToColor(fDc[3 * i + 2]);
+        if (degree > 0) {
+            int base = i * restStride;
+            int channel = restStride / 3;
+            r += evaluateRest(base, x, y, z, degree);
+            g += evaluateRest(base + channel, x, y, z, degree);
+            b += evaluateRest(base + 2 * channel, x, y, z, degree);
+        }
+        return packColor(r, g, b, a);
+    }
+
+    /**
+     * 打包为RGBA8，各分量截断到[0, 1]
+     * @return 内存中依次为r,g,b,a（小端）
+     */
+    public static int packColor(float r, float g, float b, float a) {
+        return toByte(r) | toByte(g) << 8 | toByte(b) << 16 | toByte(a) << 24;
+    }
+
+    /**
+     * 计算单个通道的1~3阶分量
+     */
+    private float evaluateRest(int o, float x, float y, float z, int degree) {
+        float[] sh = fRest;
+        float result = SH_C1 * (-y * sh[o] + z * sh[o + 1] - x * sh[o + 2]);
+        if (degree > 1) {
+            float xx = x * x, yy = y * y, zz = z * z;
+            float xy = x * y, yz = y * z, xz = x * z;
+            result += SH_C2[0] * xy * sh[o + 3]
+                    + SH_C2[1] * yz * sh[o + 4]
+                    + SH_C2[2] * (2f * zz - xx - yy) * sh[o + 5]
+                    + SH_C2[3] * xz * sh[o + 6]
+                    + SH_C2[4] * (xx - yy) * sh[o + 7];
+            if (degree > 2) {
+                result += SH_C3[0] * y * (3f * xx - yy) * sh[o + 8]
+                        + SH_C3[1] * xy * z * sh[o + 9]
+                        + SH_C3[2] * y * (4f * zz - xx - yy) * sh[o + 10]
+                        + SH_C3[3] * z * (2f * zz - 3f * xx - 3f * yy) * sh[o + 11]
+                        + SH_C3[4] * x * (4f * zz - xx - yy) * sh[o + 12]
+                        + SH_C3[5] * z * (xx - yy) * sh[o + 13]
+                        + SH_C3[6] * x * (xx - 3f * yy) * sh[o + 14];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 球谐DC分量换算为显示颜色，未截断
+     * @param dc f_dc的单个通道
+     * @return 0.5 + SH_C0 * dc
+     */
+    public static float dcToColor(float dc) {
+        return 0.5f + SH_C0 * dc;
+    }
+
+    /**
+     * 不透明度换算为alpha
+     * @param logit Ply文件中的不透明度(logit)
+     * @return sigmoid(logit)，位于[0, 1]
+     */
+    public static float opacityToAlpha(float logit) {
+        return (float) (1.0 / (1.0 + Math.exp(-logit)));
+    }
+
+    private static int toByte(float value) {
+        float v = value > 1f ? 1f : (value < 0f ? 0f : value);
+        return (int) (v * 255f + 0.5f);
+    }
+
+    /**
+     * 仿射矩阵求逆，输出3x3(column-major)与平移，共12个元素
+     */
+    private static void invertAffine(float[] m, float[] out) {
+        float a = m[0], b = m[4], c = m[8];
+        float d = m[1], e = m[5], f = m[9];
+        float g = m[2], h = m[6], k = m[10];
+        float c00 = e * k - f * h;
+        float c01 = f * g - d * k;
+        float c02 = d * h - e * g;
+        float det = a * c00 + b * c01 + c * c02;
+        float inv = det != 0f ? 1f / det : 0f;
+        //逆矩阵的行r、列c存于out[c * 3 + r]
+        out[0] = c00 * inv;
+        out[1] = c01 * inv;
+        out[2] = c02 * inv;
+        out[3] = (c * h - b * k) * inv;
+        out[4] = (a * k - c * g) * inv;
+        out[5] = (b * g - a * h) * inv;
+        out[6] = (b * f - c * e) * inv;
+        out[7] = (c * d - a * f) * inv;
+        out[8] = (a * e - b * d) * inv;
+        float tx = m[12], ty = m[13], tz = m[14];
+        out[9] = -(out[0] * tx + out[3] * ty + out[6] * tz);
+        out[10] = -(out[1] * tx + out[4] * ty + out[7] * tz);
+        out[11] = -(out[2] * tx + out[5] * ty + out[8] * tz);
+    }
+
+    /**
+     * 分区，处理dirtyChunks[start, end)中的块
+     */
+    private final class Partition implements Callable<Void> {
+        private int start;
+        private int end;
+
+        @Override
+        public Void call() {
+            float cx = camX, cy = camY, cz = camZ;
+            for (int d = start; d < end; d++) {
+                int c = dirtyChunks[d];
+                int chunkEnd = chunks.getChunkStart(c + 1);
+                for (int k = chunks.getChunkStart(c); k < chunkEnd; k++) {
+                    int i = chunks.getSplatId(k);
+                    //以各高斯点自身的视线方向计算
+                    float x = centers[3 * i] - cx;
+                    float y = centers[3 * i + 1] - cy;
+                    float z = centers[3 * i + 2] - cz;
+                    float length = (float) Math.sqrt(x * x + y * y + z * z);
+                    if (length > 0f) {
+                        float inv = 1f / length;
+                        x *= inv;
+                        y *= inv;
+                        z *= inv;
+                    }
+                    colors[i] = evaluate(i, x, y, z, degree);
+                }
+            }
+            return null;
+        }
+    }
+}
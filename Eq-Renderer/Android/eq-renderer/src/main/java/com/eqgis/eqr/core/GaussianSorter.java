@@ -1,4 +1,9 @@
 package com.eqgis.eqr.core;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * (高斯点云)顶点排序
  * <p>
@@ -7,29 +12,46 @@ package com.eqgis.eqr.core;
  *     故采用cpu实现排序。
  *     性能开销大，谨慎使用
  * </p>
+ * <p>传入线程池时，快速排序的左右子区间以fork/join方式并行排序</p>
  */
-public final class GaussianSorter {
+public final class GaussianSorter implements IGaussianSorter {
 
     private final int gaussianCount;
     private final int[] order;
     private final float[] depth;
+    //order中有效的数量，可见子集变化时重置
+    private int activeCount;
+
+    //小于该长度的子区间不再拆分任务
+    private static final int PARALLEL_THRESHOLD = 16 * 1024;
 
     private final float[] viewMat = new float[16];
     private final float[] modelViewMat = new float[16];
 
+    //为null时串行排序
+    private final ForkJoinPool workers;
+
     public GaussianSorter(int gaussianCount) {
+        this(gaussianCount, null);
+    }
+
+    /**
+     * 构造函数
+     * @param gaussianCount 高斯点数量
+     * @param workers 排序线程池，null表示串行排序
+     */
+    public GaussianSorter(int gaussianCount, ForkJoinPool workers) {
         this.gaussianCount = gaussianCount;
+        this.workers = workers;
         this.order = new int[gaussianCount];
         this.depth = new float[gaussianCount];
-
-        for (int i = 0; i < gaussianCount; i++) {
-            order[i] = i;
-        }
+        resetOrder(gaussianCount);
     }
 
     /**
      * 每次调用：必然重新排序
      */
+    @Override
     public void sort(
             float[] localCenters,   // x,y,z * N
             float[] modelMat,       // 4x4 column-major
@@ -37,28 +59,8 @@ public final class GaussianSorter {
             int[] outIndices
 
     ) {
-        //view = inverse(cameraModel)
-        invertRigidTransform(cameraModelMat, viewMat);
-
-        // modelView = view * model
-        mulMat4(viewMat, modelMat, modelViewMat);
-
-        //depth = -Z_camera
-        for (int i = 0, b = 0; i < gaussianCount; i++, b += 3) {
-            float x = localCenters[b];
-            float y = localCenters[b + 1];
-            float z = localCenters[b + 2];
-
-            float cz =
-                    modelViewMat[2]  * x +
-                            modelViewMat[6]  * y +
-                            modelViewMat[10] * z +
-                            modelViewMat[14];
-
-            depth[i] = -cz;
-        }
-
-        quickSort(order, depth, 0, gaussianCount - 1);
+        computeDepth(localCenters, null, gaussianCount, modelMat, cameraModelMat);
+        sortOrder(gaussianCount);
 
         // fill indices immediately
         int idx = 0;
@@ -75,6 +77,7 @@ public final class GaussianSorter {
         }
     }
 
+    @Override
     public void sortSingle(
             float[] localCenters,   // x,y,z * N
             float[] modelMat,       // 4x4 column-major
@@ -82,6 +85,87 @@ public final class GaussianSorter {
             int[] outIndices
 
     ) {
+        computeDepth(localCenters, null, gaussianCount, modelMat, cameraModelMat);
+        sortOrder(gaussianCount);
+
+        // fill indices immediately
+        for (int k = 0; k < gaussianCount; k++) {
+            outIndices[k] = order[k];
+        }
+    }
+
+    @Override
+    public void sort(float[] localCenters, float[] modelMat, float[] cameraModelMat, IntBuffer outIndices) {
+        computeDepth(localCenters, null, gaussianCount, modelMat, cameraModelMat);
+        sortOrder(gaussianCount);
+
+        int idx = 0;
+        for (int k = 0; k < gaussianCount; k++) {
+            int base = order[k] * 4;
+
+            outIndices.put(idx++, base);
+            outIndices.put(idx++, base + 1);
+            outIndices.put(idx++, base + 2);
+
+            outIndices.put(idx++, base);
+            outIndices.put(idx++, base + 2);
+            outIndices.put(idx++, base + 3);
+        }
+    }
+
+    @Override
+    public void sortSingle(float[] localCenters, float[] modelMat, float[] cameraModelMat, IntBuffer outIndices) {
+        computeDepth(localCenters, null, gaussianCount, modelMat, cameraModelMat);
+        sortOrder(gaussianCount);
+
+        for (int k = 0; k < gaussianCount; k++) {
+            outIndices.put(k, order[k]);
+        }
+    }
+
+    @Override
+    public void sort(float[] localCenters, int[] visible, int visibleCount,
+                     float[] modelMat, float[] cameraModelMat, IntBuffer outIndices) {
+        computeDepth(localCenters, visible, visibleCount, modelMat, cameraModelMat);
+        sortOrder(visibleCount);
+
+        int idx = 0;
+        for (int k = 0; k < visibleCount; k++) {
+            int base = visible[order[k]] * 4;
+
+            outIndices.put(idx++, base);
+            outIndices.put(idx++, base + 1);
+            outIndices.put(idx++, base + 2);
+
+            outIndices.put(idx++, base);
+            outIndices.put(idx++, base + 2);
+            outIndices.put(idx++, base + 3);
+        }
+    }
+
+    @Override
+    public void sortSingle(float[] localCenters, int[] visible, int visibleCount,
+                           float[] modelMat, float[] cameraModelMat, IntBuffer outIndices) {
+        computeDepth(localCenters, visible, visibleCount, modelMat, cameraModelMat);
+        sortOrder(visibleCount);
+
+        for (int k = 0; k < visibleCount; k++) {
+            outIndices.put(k, visible[order[k]]);
+        }
+    }
+
+    /**
+     * 快速排序每次都完整排序，无需丢弃状态
+     */
+    @Override
+    public void reset() {
+    }
+
+    /**
+     * @param visible 参与排序的高斯点索引，null表示全部；depth按排序位置存放
+     */
+    private void computeDepth(float[] localCenters, int[] visible, int count,
+                              float[] modelMat, float[] cameraModelMat) {
         //view = inverse(cameraModel)
         invertRigidTransform(cameraModelMat, viewMat);
 
@@ -89,7 +173,8 @@ public final class GaussianSorter {
         mulMat4(viewMat, modelMat, modelViewMat);
 
         //depth = -Z_camera
-        for (int i = 0, b = 0; i < gaussianCount; i++, b += 3) {
+        for (int i = 0; i < count; i++) {
+            int b = (visible == null ? i : visible[i]) * 3;
             float x = localCenters[b];
             float y = localCenters[b + 1];
             float z = localCenters[b + 2];
@@ -102,12 +187,76 @@ public final class GaussianSorter {
 
             depth[i] = -cz;
         }
+    }
 
-        quickSort(order, depth, 0, gaussianCount - 1);
+    private void sortOrder(int count) {
+        if (count != activeCount) {
+            resetOrder(count);
+        }
+        if (count < 2) return;
+        if (workers != null && count > PARALLEL_THRESHOLD) {
+            workers.invoke(new QuickSortTask(order, depth, 0, count - 1));
+        } else {
+            quickSort(order, depth, 0, count - 1);
+        }
+    }
 
-        // fill indices immediately
-        for (int k = 0; k < order.length; k++) {
-            outIndices[k] = order[k];
+    private void resetOrder(int count) {
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        activeCount = count;
+    }
+
+    /**
+     * fork/join快速排序，划分后左右子区间并行
+     */
+    private static final class QuickSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] order;
+        private final float[] depth;
+        private final int left;
+        private final int right;
+
+        QuickSortTask(int[] order, float[] depth, int left, int right) {
+            this.order = order;
+            this.depth = depth;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        protected void compute() {
+            if (right - left < PARALLEL_THRESHOLD) {
+                quickSort(order, depth, left, right);
+                return;
+            }
+
+            int i = left, j = right;
+            float pivot = depth[order[(left + right) >>> 1]];
+
+            while (i <= j) {
+                while (depth[order[i]] > pivot) i++;
+                while (depth[order[j]] < pivot) j--;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+
+            QuickSortTask leftTask = left < j ? new QuickSortTask(order, depth, left, j) : null;
+            QuickSortTask rightTask = i < right ? new QuickSortTask(order, depth, i, right) : null;
+            if (leftTask != null && rightTask != null) {
+                invokeAll(leftTask, rightTask);
+            } else if (leftTask != null) {
+                leftTask.compute();
+            } else if (rightTask != null) {
+                rightTask.compute();
+            }
         }
     }
 
@@ -0,0 +1,84 @@
+package com.eqgis.eqr.core;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * (高斯点云)顶点排序引擎
+ * <p>
+ *     由{@link com.google.sceneform.rendering.IVertexSort}的实现类持有，
+ *     每次视角变化时按"远 → 近"的顺序输出索引。
+ * </p>
+ * @see GaussianSorter
+ * @see GaussianRadixSorter
+ **/
+public interface IGaussianSorter {
+
+    /**
+     * 排序并输出四边形索引（每个高斯点6个索引，对应4个顶点）
+     * @param localCenters 高斯点中心（局部坐标），x,y,z * N
+     * @param modelMat 模型矩阵，4x4 column-major
+     * @param cameraModelMat 相机模型矩阵，4x4 column-major
+     * @param outIndices 输出索引，长度为 6 * N
+     */
+    void sort(float[] localCenters, float[] modelMat, float[] cameraModelMat, int[] outIndices);
+
+    /**
+     * 排序并输出点索引（每个高斯点1个索引）
+     * @param localCenters 高斯点中心（局部坐标），x,y,z * N
+     * @param modelMat 模型矩阵，4x4 column-major
+     * @param cameraModelMat 相机模型矩阵，4x4 column-major
+     * @param outIndices 输出索引，长度为 N
+     */
+    void sortSingle(float[] localCenters, float[] modelMat, float[] cameraModelMat, int[] outIndices);
+
+    /**
+     * 排序并将四边形索引写入缓冲区（每个高斯点6个索引）
+     * <p>按绝对位置写入，不修改缓冲区的position，可直接使用direct缓冲区以避免JNI层拷贝</p>
+     * @param outIndices 输出索引，容量至少为 6 * N
+     */
+    void sort(float[] localCenters, float[] modelMat, float[] cameraModelMat, IntBuffer outIndices);
+
+    /**
+     * 排序并将点索引写入缓冲区（每个高斯点1个索引）
+     * <p>按绝对位置写入，不修改缓冲区的position，可直接使用direct缓冲区以避免JNI层拷贝</p>
+     * @param outIndices 输出索引，容量至少为 N
+     */
+    void sortSingle(float[] localCenters, float[] modelMat, float[] cameraModelMat, IntBuffer outIndices);
+
+    /**
+     * 只对可见子集排序，并将四边形索引写入缓冲区
+     * <p>
+     *     用于剔除之后的排序，输出前 6 * visibleCount 个索引。
+     *     子集内容变化而数量不变时，需先调用{@link #reset()}
+     * </p>
+     * @param visible 参与排序的高斯点索引
+     * @param visibleCount 参与排序的数量
+     */
+    void sort(float[] localCenters, int[] visible, int visibleCount,
+              float[] modelMat, float[] cameraModelMat, IntBuffer outIndices);
+
+    /**
+     * 只对可见子集排序，并将点索引写入缓冲区，输出前 visibleCount 个索引
+     * @see #sort(float[], int[], int, float[], float[], IntBuffer)
+     */
+    void sortSingle(float[] localCenters, int[] visible, int visibleCount,
+                    float[] modelMat, float[] cameraModelMat, IntBuffer outIndices);
+
+    /**
+     * 丢弃上一次排序的状态，下一次必然完整排序
+     */
+    void reset();
+
+    /**
+     * 排序引擎工厂
+     * <p>排序器需要按高斯点数量预分配缓存，故在数据加载完成后再创建</p>
+     */
+    interface Factory {
+        /**
+         * @param gaussianCount 高斯点数量
+         * @param workers 排序线程池，null表示串行排序
+         */
+        IGaussianSorter create(int gaussianCount, ForkJoinPool workers);
+    }
+}
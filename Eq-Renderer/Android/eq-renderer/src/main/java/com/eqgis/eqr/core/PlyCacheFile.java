@@ -0,0 +1,427 @@
+package com.eqgis.eqr.core;
+
+import androidx.annotation.Nullable;
+
+import com.eqgis.eqr.data.JPlyAsset;
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Ply预处理缓存文件
+ * <p>
+ *     首次加载后将解析结果（属性数组、包围盒、高斯点分块）写入缓存，
+ *     之后直接映射缓存文件并批量读取到数组，跳过文件头解析、逐属性解码、包围盒计算与分块构建。
+ * </p>
+ * <p>
+ *     格式（小端）：32字节文件头 + 段表(每段24字节) + 16字节对齐的数据段。
+ *     文件头含魔数、版本、类型与源文件指纹，任一不匹配即视为失效。
+ * </p>
+ */
+public final class PlyCacheFile {
+
+    public static final int VERSION = 1;
+    /**
+     * 计算指纹时读取的源数据字节数
+     */
+    public static final int FINGERPRINT_BYTES = 64 * 1024;
+
+    //"EQRC"
+    private static final int MAGIC = 0x43525145;
+    private static final int KIND_PLY = 1;
+    private static final int KIND_GS3D = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int ENTRY_SIZE = 24;
+    private static final int ALIGNMENT = 16;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+    private static final int TYPE_FLOAT = 0;
+    private static final int TYPE_INT = 1;
+
+    //段
+    private static final int VERTICES = 1;
+    private static final int NORMALS = 2;
+    private static final int TEXCOORDS = 3;
+    private static final int COLORS = 4;
+    private static final int FACES = 5;
+    private static final int TRISTRIP = 6;
+    private static final int AABB = 7;
+    private static final int F_DC = 8;
+    private static final int F_REST = 9;
+    private static final int OPACITY = 10;
+    private static final int SCALE = 11;
+    private static final int ROT = 12;
+    //pointCount, shDegree, dimension
+    private static final int META = 13;
+    private static final int CHUNK_IDS = 14;
+    private static final int CHUNK_START = 15;
+    private static final int CHUNK_BOXES = 16;
+
+    private PlyCacheFile() {
+    }
+
+    /**
+     * 计算源数据指纹：前{@link #FINGERPRINT_BYTES}字节的CRC32与源数据标识
+     * <p>读取后恢复到调用前的位置</p>
+     * @param inputStream 支持mark的输入流
+     * @param sourceId 源数据标识，见{@link #sourceId(InputStream, String)}
+     */
+    public static long fingerprint(InputStream inputStream, long sourceId) throws IOException {
+        if (!inputStream.markSupported()) {
+            throw new IllegalArgumentException("inputStream must support mark");
+        }
+        inputStream.mark(FINGERPRINT_BYTES);
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[8192];
+        int total = 0;
+        try {
+            while (total < FINGERPRINT_BYTES) {
+                int read = inputStream.read(bytes, 0, Math.min(bytes.length, FINGERPRINT_BYTES - total));
+                if (read < 0) {
+                    break;
+                }
+                crc.update(bytes, 0, read);
+                total += read;
+            }
+        } finally {
+            inputStream.reset();
+        }
+        return (sourceId << 32) ^ crc.getValue();
+    }
+
+    /**
+     * 计算本地文件的指纹，与{@link #fingerprint(InputStream, long)}结果一致
+     * <p>按位置读取，不改变通道位置</p>
+     * @param channel 文件通道，从当前位置开始计算
+     */
+    public static long fingerprint(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(FINGERPRINT_BYTES);
+        long position = channel.position();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        return (channel.size() << 32) ^ crc.getValue();
+    }
+
+    /**
+     * 源数据标识
+     * <p>assets、content URI等来源无法得知长度，以来源地址区分前缀相同的不同数据</p>
+     * @param source 来源地址，如Uri.toString()
+     * @return 本地文件返回文件长度，其余返回来源地址的CRC32，来源未知时返回-1
+     */
+    public static long sourceId(InputStream inputStream, @Nullable String source) throws IOException {
+        if (inputStream instanceof FileInputStream) {
+            return ((FileInputStream) inputStream).getChannel().size();
+        }
+        if (source == null) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(source.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * 缓存文件路径
+     * @param directory 缓存目录，如Context.getCacheDir()
+     * @param fingerprint 源数据指纹
+     */
+    public static File getCacheFile(File directory, long fingerprint) {
+        return new File(directory, "eqr_ply_" + Long.toHexString(fingerprint) + ".cache");
+    }
+
+    /**
+     * 写入Ply缓存，先写临时文件再重命名，失败时不留下残缺文件
+     */
+    public static void writePly(File file, long fingerprint, JPlyAsset asset) throws IOException {
+        List<Section> sections = new ArrayList<>();
+        addFloat(sections, VERTICES, asset.vertices);
+        addFloat(sections, NORMALS, asset.normals);
+        addFloat(sections, TEXCOORDS, asset.texcoords);
+        addFloat(sections, COLORS, asset.colors);
+        addInt(sections, FACES, asset.faces);
+        addInt(sections, TRISTRIP, asset.tripstrip);
+        addFloat(sections, AABB, asset.aabb);
+        write(file, KIND_PLY, fingerprint, sections);
+    }
+
+    /**
+     * 读取Ply缓存
+     * @return 缓存不存在或失效时返回null
+     */
+    @Nullable
+    public static JPlyAsset readPly(File file, long fingerprint) throws IOException {
+        Reader reader = Reader.open(file, KIND_PLY, fingerprint);
+        if (reader == null) {
+            return null;
+        }
+        JPlyAsset asset = new JPlyAsset();
+        asset.vertices = reader.floats(VERTICES);
+        asset.normals = reader.floats(NORMALS);
+        asset.texcoords = reader.floats(TEXCOORDS);
+        asset.colors = reader.floats(COLORS);
+        asset.faces = reader.ints(FACES);
+        asset.tripstrip = reader.ints(TRISTRIP);
+        asset.aabb = reader.floats(AABB);
+        return asset.vertices == null || asset.aabb == null ? null : asset;
+    }
+
+    /**
+     * 写入3DGS缓存
+     * @param chunks 分块，可为null
+     */
+    public static void writeGS3d(File file, long fingerprint, JPlyGS3dAsset asset,
+                                 @Nullable GaussianChunks chunks) throws IOException {
+        List<Section> sections = new ArrayList<>();
+        addFloat(sections, VERTICES, asset.vertices);
+        addFloat(sections, NORMALS, asset.normals);
+        addFloat(sections, AABB, asset.aabb);
+        addFloat(sections, F_DC, asset.f_dc);
+        addFloat(sections, F_REST, asset.f_rest);
+        addFloat(sections, OPACITY, asset.opacity);
+        addFloat(sections, SCALE, asset.scale);
+        addFloat(sections, ROT, asset.rot);
+        addInt(sections, META, new int[]{asset.pointCount, asset.shDegree, asset.dimension});
+        if (chunks != null) {
+            addInt(sections, CHUNK_IDS, chunks.rawIds());
+            addInt(sections, CHUNK_START, chunks.rawChunkStart());
+            addFloat(sections, CHUNK_BOXES, chunks.rawBoxes());
+        }
+        write(file, KIND_GS3D, fingerprint, sections);
+    }
+
+    /**
+     * 读取3DGS缓存
+     * @param outChunks 长度为1，用于输出分块（缓存中无分块时为null）
+     * @return 缓存不存在或失效时返回null
+     */
+    @Nullable
+    public static JPlyGS3dAsset readGS3d(File file, long fingerprint, GaussianChunks[] outChunks) throws IOException {
+        Reader reader = Reader.open(file, KIND_GS3D, fingerprint);
+        if (reader == null) {
+            return null;
+        }
+        JPlyGS3dAsset asset = new JPlyGS3dAsset();
+        asset.vertices = reader.floats(VERTICES);
+        asset.normals = reader.floats(NORMALS);
+        asset.aabb = reader.floats(AABB);
+        asset.f_dc = reader.floats(F_DC);
+        asset.f_rest = reader.floats(F_REST);
+        asset.opacity = reader.floats(OPACITY);
+        asset.scale = reader.floats(SCALE);
+        asset.rot = reader.floats(ROT);
+        int[] meta = reader.ints(META);
+        if (asset.vertices == null || asset.aabb == null || meta == null || meta.length < 3) {
+            return null;
+        }
+        asset.is3DGS = true;
+        asset.pointCount = meta[0];
+        asset.shDegree = meta[1];
+        asset.dimension = meta[2];
+
+        int[] ids = reader.ints(CHUNK_IDS);
+        int[] chunkStart = reader.ints(CHUNK_START);
+        float[] boxes = reader.floats(CHUNK_BOXES);
+        outChunks[0] = ids != null && chunkStart != null && boxes != null
+                ? GaussianChunks.restore(ids, chunkStart, boxes)
+                : null;
+        return asset;
+    }
+
+    private static final class Section {
+        final int id;
+        final int type;
+        final float[] floats;
+        final int[] ints;
+        long offset;
+
+        Section(int id, float[] floats, int[] ints) {
+            this.id = id;
+            this.type = floats != null ? TYPE_FLOAT : TYPE_INT;
+            this.floats = floats;
+            this.ints = ints;
+        }
+
+        int count() {
+            return floats != null ? floats.length : ints.length;
+        }
+    }
+
+    private static void addFloat(List<Section> sections, int id, float[] array) {
+        if (array != null) {
+            sections.add(new Section(id, array, null));
+        }
+    }
+
+    private static void addInt(List<Section> sections, int id, int[] array) {
+        if (array != null) {
+            sections.add(new Section(id, null, array));
+        }
+    }
+
+    private static long align(long value) {
+        return (value + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static void write(File file, int kind, long fingerprint, List<Section> sections) throws IOException {
+        long offset = align(HEADER_SIZE + (long) ENTRY_SIZE * sections.size());
+        for (Section section : sections) {
+            section.offset = offset;
+            offset = align(offset + section.count() * 4L);
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        boolean done = false;
+        try (FileChannel channel = openWrite(tmp)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(sections.size())
+                    .putLong(fingerprint).putLong(0);
+            for (Section section : sections) {
+                buffer.putInt(section.id).putInt(section.type)
+                        .putLong(section.count()).putLong(section.offset);
+            }
+            buffer.flip();
+            writeFully(channel, buffer, 0);
+
+            for (Section section : sections) {
+                long position = section.offset;
+                int count = section.count();
+                int perBatch = WRITE_BUFFER_SIZE / 4;
+                for (int start = 0; start < count; start += perBatch) {
+                    int n = Math.min(perBatch, count - start);
+                    buffer.clear();
+                    if (section.type == TYPE_FLOAT) {
+                        buffer.asFloatBuffer().put(section.floats, start, n);
+                    } else {
+                        buffer.asIntBuffer().put(section.ints, start, n);
+                    }
+                    buffer.limit(n * 4);
+                    writeFully(channel, buffer, position);
+                    position += n * 4L;
+                }
+            }
+            channel.force(false);
+            done = true;
+        } finally {
+            if (!done) {
+                tmp.delete();
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Unable to rename cache file " + tmp);
+        }
+    }
+
+    /**
+     * 以写入方式打开并清空文件（java.nio.file需API 26，minSdk为24）
+     */
+    static FileChannel openWrite(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(0);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+        return randomAccessFile.getChannel();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * 映射缓存文件并按段读取
+     */
+    private static final class Reader {
+        private final MappedByteBuffer mapped;
+        private final int sectionCount;
+
+        private Reader(MappedByteBuffer mapped, int sectionCount) {
+            this.mapped = mapped;
+            this.sectionCount = sectionCount;
+        }
+
+        @Nullable
+        static Reader open(File file, int kind, long fingerprint) throws IOException {
+            if (!file.isFile() || file.length() < HEADER_SIZE) {
+                return null;
+            }
+            try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION
+                        || mapped.getInt(8) != kind || mapped.getLong(16) != fingerprint) {
+                    return null;
+                }
+                int sectionCount = mapped.getInt(12);
+                if (sectionCount < 0 || HEADER_SIZE + (long) ENTRY_SIZE * sectionCount > mapped.capacity()) {
+                    return null;
+                }
+                return new Reader(mapped, sectionCount);
+            }
+        }
+
+        @Nullable
+        float[] floats(int id) throws IOException {
+            ByteBuffer data = find(id, TYPE_FLOAT);
+            if (data == null) {
+                return null;
+            }
+            float[] array = new float[data.remaining() / 4];
+            data.asFloatBuffer().get(array);
+            return array;
+        }
+
+        @Nullable
+        int[] ints(int id) throws IOException {
+            ByteBuffer data = find(id, TYPE_INT);
+            if (data == null) {
+                return null;
+            }
+            int[] array = new int[data.remaining() / 4];
+            data.asIntBuffer().get(array);
+            return array;
+        }
+
+        @Nullable
+        private ByteBuffer find(int id, int type) throws IOException {
+            for (int s = 0; s < sectionCount; s++) {
+                int entry = HEADER_SIZE + s * ENTRY_SIZE;
+                if (mapped.getInt(entry) != id) {
+                    continue;
+                }
+                long count = mapped.getLong(entry + 8);
+                long offset = mapped.getLong(entry + 16);
+                if (mapped.getInt(entry + 4) != type || count < 0 || count > Integer.MAX_VALUE / 4
+                        || offset < 0 || offset + count * 4 > mapped.capacity()) {
+                    throw new IOException("Corrupted cache section " + id);
+                }
+                ByteBuffer data = mapped.duplicate();
+                data.limit((int) (offset + count * 4)).position((int) offset);
+                return data.slice().order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return null;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.eqgis.eqr.core;
 
+import android.util.Log;
+
 import com.eqgis.eqr.data.JPlyGS3dAsset;
 import com.google.android.filament.Box;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * 3DGS文件加载器
  * @author tanyx 2026年1月7日21:38:48
@@ -11,6 +16,12 @@ import com.google.android.filament.Box;
 public class PlyGS3dLoader {
     private long mPlyLoaderNativeObject;
     private Box boundingBox;
+    private GaussianChunks chunks;
+    private int chunkSize = GaussianChunks.DEFAULT_CHUNK_SIZE;
+    private boolean quantize;
+    private GaussianQuantizedData quantizedData;
+    private File cacheFile;
+    private long cacheFingerprint;
 
     public PlyGS3dLoader() {
     }
@@ -30,14 +41,149 @@ public class PlyGS3dLoader {
         //用完即销毁
         destroyPlyAsset();
 
-        boundingBox = new Box((jPlyAsset.aabb[0] + jPlyAsset.aabb[3]) / 2,
-                (jPlyAsset.aabb[1] + jPlyAsset.aabb[4]) / 2,
-                (jPlyAsset.aabb[2] + jPlyAsset.aabb[5]) / 2,
-                (jPlyAsset.aabb[3] - jPlyAsset.aabb[0]) / 2,
-                (jPlyAsset.aabb[4] - jPlyAsset.aabb[1]) / 2,
-                (jPlyAsset.aabb[5] - jPlyAsset.aabb[2]) / 2);
+        boundingBox = PlyLoader.toBox(jPlyAsset.aabb);
+
+        buildChunks(jPlyAsset);
+        return quantizeIfEnabled(jPlyAsset);
+    }
+
+    /**
+     * 流式加载
+     * <p>从reader分批解码到最终数组，不经过native，无需完整的byte[]</p>
+     * @param reader 已解析文件头的读取器，调用方负责关闭
+     * @param listener 每批回调，可为null
+     * @return 资产；格式不支持流式读取时返回null，应改用{@link #createAssets(byte[])}
+     */
+    public JPlyGS3dAsset createAssets(PlyStreamReader reader, PlyStreamReader.Listener listener) throws IOException {
+        if (!reader.isSupported()) {
+            return null;
+        }
+        JPlyGS3dAsset jPlyAsset = reader.createGS3dAsset();
+        reader.readAll(listener);
+        boundingBox = PlyLoader.toBox(jPlyAsset.aabb);
+        buildChunks(jPlyAsset);
+        saveCache(jPlyAsset);
+        return quantizeIfEnabled(jPlyAsset);
+    }
+
+    /**
+     * 设置缓存文件，流式加载完成后写入，之后可通过{@link #loadCache()}直接读取
+     * @param cacheFile 缓存文件，为null时不使用缓存
+     * @param fingerprint 源数据指纹，见{@link PlyCacheFile#fingerprint}
+     */
+    public void setCacheFile(File cacheFile, long fingerprint) {
+        this.cacheFile = cacheFile;
+        this.cacheFingerprint = fingerprint;
+    }
+
+    /**
+     * 从缓存文件加载，跳过解码与分块构建
+     * @return 资产；未设置缓存文件或缓存不存在、失效时返回null
+     */
+    public JPlyGS3dAsset loadCache() {
+        if (cacheFile == null) {
+            return null;
+        }
+        JPlyGS3dAsset jPlyAsset;
+        GaussianChunks[] cachedChunks = new GaussianChunks[1];
+        try {
+            jPlyAsset = PlyCacheFile.readGS3d(cacheFile, cacheFingerprint, cachedChunks);
+        } catch (IOException | RuntimeException e) {
+            Log.w(PlyGS3dLoader.class.getSimpleName(), "Invalid cache file: " + cacheFile, e);
+            cacheFile.delete();
+            return null;
+        }
+        if (jPlyAsset == null) {
+            return null;
+        }
+        boundingBox = PlyLoader.toBox(jPlyAsset.aabb);
+        chunks = cachedChunks[0];
+        if (chunks == null || chunks.getSplatCount() != jPlyAsset.pointCount) {
+            buildChunks(jPlyAsset);
+        }
+        return quantizeIfEnabled(jPlyAsset);
+    }
+
+    //写入失败不影响本次加载
+    private void saveCache(JPlyGS3dAsset jPlyAsset) {
+        if (cacheFile == null) {
+            return;
+        }
+        try {
+            PlyCacheFile.writeGS3d(cacheFile, cacheFingerprint, jPlyAsset, chunks);
+        } catch (IOException e) {
+            Log.w(PlyGS3dLoader.class.getSimpleName(), "Unable to write cache file: " + cacheFile, e);
+        }
+    }
+
+    //空间分块只需计算一次，供每帧剔除使用
+    private void buildChunks(JPlyGS3dAsset jPlyAsset) {
+        if (jPlyAsset.vertices != null) {
+            chunks = GaussianChunks.build(jPlyAsset.vertices, jPlyAsset.scale, chunkSize);
+        }
+    }
+
+    /**
+     * 量化：属性以{@link GaussianQuantizedData}存储，并按分块顺序重排
+     * <p>
+     *     此时createAssets只返回位置与元数据，其余属性通过{@link #decode()}按需解码，
+     *     分块也随之重排为连续索引
+     * </p>
+     */
+    private JPlyGS3dAsset quantizeIfEnabled(JPlyGS3dAsset jPlyAsset) {
+        if (!quantize || chunks == null) {
+            return jPlyAsset;
+        }
+        quantizedData = GaussianQuantizedData.encode(jPlyAsset, chunks);
+        chunks = chunks.reordered();
+        return quantizedData.decodePositionsOnly();
+    }
+
+    /**
+     * 设置是否量化存储，需在createAssets之前调用，默认关闭
+     * <p>开启后常驻内存约为原来的1/3.5，位置、颜色等有轻微精度损失</p>
+     */
+    public void setQuantize(boolean quantize) {
+        this.quantize = quantize;
+    }
 
-        return jPlyAsset;
+    public boolean isQuantize() {
+        return quantize;
+    }
+
+    /**
+     * 获取量化数据
+     * @return 未开启量化时为null
+     */
+    public GaussianQuantizedData getQuantizedData() {
+        return quantizedData;
+    }
+
+    /**
+     * 解码为全精度数据（分块顺序），用于上传GPU等一次性用途，用完即可丢弃
+     * @return 未开启量化时为null
+     */
+    public JPlyGS3dAsset decode() {
+        return quantizedData == null ? null : quantizedData.decode();
+    }
+
+    /**
+     * 设置分块大小，需在{@link #createAssets(byte[])}之前调用
+     * @param chunkSize 每块最多包含的高斯点数量
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be >= 1");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 获取空间分块
+     * @return 分块，未加载时为null
+     */
+    public GaussianChunks getChunks() {
+        return chunks;
     }
 
 
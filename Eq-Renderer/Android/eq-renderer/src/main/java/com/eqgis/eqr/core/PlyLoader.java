@@ -1,8 +1,13 @@
 package com.eqgis.eqr.core;
 
+import android.util.Log;
+
 import com.eqgis.eqr.data.JPlyAsset;
 import com.google.android.filament.Box;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * Ply文件加载器
  * @author tanyx 2026/1/4
@@ -11,6 +16,8 @@ import com.google.android.filament.Box;
 public class PlyLoader {
     private long mPlyLoaderNativeObject;
     private Box boundingBox;
+    private File cacheFile;
+    private long cacheFingerprint;
 
     public PlyLoader() {
     }
@@ -23,21 +30,93 @@ public class PlyLoader {
         //用完即销毁
         destroyPlyAsset();
 
-        boundingBox = new Box((jPlyAsset.aabb[0] + jPlyAsset.aabb[3]) / 2,
-                (jPlyAsset.aabb[1] + jPlyAsset.aabb[4]) / 2,
-                (jPlyAsset.aabb[2] + jPlyAsset.aabb[5]) / 2,
-                (jPlyAsset.aabb[3] - jPlyAsset.aabb[0]) / 2,
-                (jPlyAsset.aabb[4] - jPlyAsset.aabb[1]) / 2,
-                (jPlyAsset.aabb[5] - jPlyAsset.aabb[2]) / 2);
+        boundingBox = toBox(jPlyAsset.aabb);
+
+        return jPlyAsset;
+    }
+
+    /**
+     * 流式加载
+     * <p>从reader分批解码到最终数组，不经过native，无需完整的byte[]</p>
+     * @param reader 已解析文件头的读取器，调用方负责关闭
+     * @param listener 每批回调，可为null
+     * @return 资产；格式不支持流式读取时返回null，应改用{@link #createAssets(byte[])}
+     */
+    public JPlyAsset createAssets(PlyStreamReader reader, PlyStreamReader.Listener listener) throws IOException {
+        if (!reader.isSupported()) {
+            return null;
+        }
+        JPlyAsset jPlyAsset = reader.createPlyAsset();
+        reader.readAll(listener);
+        boundingBox = toBox(jPlyAsset.aabb);
+        saveCache(jPlyAsset);
+        return jPlyAsset;
+    }
+
+    /**
+     * 设置缓存文件，流式加载完成后写入，之后可通过{@link #loadCache()}直接读取
+     * @param cacheFile 缓存文件，为null时不使用缓存
+     * @param fingerprint 源数据指纹，见{@link PlyCacheFile#fingerprint}
+     */
+    public void setCacheFile(File cacheFile, long fingerprint) {
+        this.cacheFile = cacheFile;
+        this.cacheFingerprint = fingerprint;
+    }
 
+    /**
+     * 从缓存文件加载，跳过解码
+     * @return 资产；未设置缓存文件或缓存不存在、失效时返回null
+     */
+    public JPlyAsset loadCache() {
+        if (cacheFile == null) {
+            return null;
+        }
+        JPlyAsset jPlyAsset;
+        try {
+            jPlyAsset = PlyCacheFile.readPly(cacheFile, cacheFingerprint);
+        } catch (IOException | RuntimeException e) {
+            Log.w(PlyLoader.class.getSimpleName(), "Invalid cache file: " + cacheFile, e);
+            cacheFile.delete();
+            return null;
+        }
+        if (jPlyAsset != null) {
+            boundingBox = toBox(jPlyAsset.aabb);
+        }
         return jPlyAsset;
     }
 
+    /**
+     * 写入缓存文件，未设置缓存文件时忽略；写入失败不影响本次加载
+     * <p>分批读取（预览）时由调用方在全部读取完成后调用</p>
+     */
+    public void saveCache(JPlyAsset jPlyAsset) {
+        if (cacheFile == null) {
+            return;
+        }
+        try {
+            PlyCacheFile.writePly(cacheFile, cacheFingerprint, jPlyAsset);
+        } catch (IOException e) {
+            Log.w(PlyLoader.class.getSimpleName(), "Unable to write cache file: " + cacheFile, e);
+        }
+    }
+
 
     public Box getBoundingBox() {
         return boundingBox;
     }
 
+    /**
+     * 包围盒 minX,minY,minZ,maxX,maxY,maxZ 转为中心+半边长
+     */
+    static Box toBox(float[] aabb) {
+        return new Box((aabb[0] + aabb[3]) / 2,
+                (aabb[1] + aabb[4]) / 2,
+                (aabb[2] + aabb[5]) / 2,
+                (aabb[3] - aabb[0]) / 2,
+                (aabb[4] - aabb[1]) / 2,
+                (aabb[5] - aabb[2]) / 2);
+    }
+
 
     /**
      * 销毁native成资产
@@ -0,0 +1,254 @@
+package com.eqgis.eqr.core;
+
+import androidx.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * 内存映射的Ply点云
+ * <p>
+ *     将二进制Ply文件的顶点数据映射到内存。若顶点已是4字节对齐的小端交错布局
+ *     （float x,y,z + 可选uchar颜色），直接以映射区作为Filament顶点缓冲区的数据源，
+ *     不经过tinyply，也不创建{@link com.eqgis.eqr.data.JPlyAsset}的Java数组，
+ *     映射页由文件支撑，可被系统回收，峰值内存接近文件大小。
+ * </p>
+ * <p>
+ *     布局不满足时，从映射区一次打包为 float3 + ubyte4 的direct缓冲区（{@link #PACKED_STRIDE}字节/顶点）。
+ *     仅适用于不含面、法线、纹理坐标，且映射区与打包缓冲区均不超过2GB的点云，其余情况{@link #map(FileChannel)}返回null。
+ * </p>
+ */
+public final class PlyMappedPointCloud {
+
+    /**
+     * 打包布局每个顶点的字节数：float x,y,z + ubyte r,g,b,a
+     */
+    public static final int PACKED_STRIDE = 16;
+
+    private final ByteBuffer vertexData;
+    private final int vertexCount;
+    private final int stride;
+    private final int positionOffset;
+    private final int colorOffset;
+    private final boolean colorHasAlpha;
+    private final boolean zeroCopy;
+    private final float[] aabb;
+
+    private PlyMappedPointCloud(ByteBuffer vertexData, int vertexCount, int stride,
+                                int positionOffset, int colorOffset, boolean colorHasAlpha,
+                                boolean zeroCopy, float[] aabb) {
+        this.vertexData = vertexData;
+        this.vertexCount = vertexCount;
+        this.stride = stride;
+        this.positionOffset = positionOffset;
+        this.colorOffset = colorOffset;
+        this.colorHasAlpha = colorHasAlpha;
+        this.zeroCopy = zeroCopy;
+        this.aabb = aabb;
+    }
+
+    /**
+     * 映射文件
+     * <p>映射建立后不依赖通道，调用方可随即关闭通道</p>
+     * @param channel 文件通道，从当前位置开始解析文件头
+     * @return 点云，格式不适用时返回null（通道位置已被移动，回退前需重置）
+     */
+    @Nullable
+    public static PlyMappedPointCloud map(FileChannel channel) throws IOException {
+        long start = channel.position();
+        PlyStreamReader reader = new PlyStreamReader(channel);
+        if (!reader.isSupported() || reader.hasFaces() || reader.getVertexCount() == 0
+                || reader.hasProperty("nx") || reader.hasProperty("u")) {
+            return null;
+        }
+
+        int vertexCount = reader.getVertexCount();
+        int stride = reader.getVertexStride();
+        long dataStart = start + reader.getHeaderLength();
+        long dataSize = (long) vertexCount * stride;
+        String[] colorNames = reader.hasProperty("red")
+                ? new String[]{"red", "green", "blue", "alpha"}
+                : new String[]{"r", "g", "b", "a"};
+        boolean direct = canUseDirectly(reader, colorNames);
+        //映射区与打包的direct缓冲区均以int寻址，超出时由调用方回退到流式读取
+        if (dataSize > Integer.MAX_VALUE
+                || (!direct && (long) vertexCount * PACKED_STRIDE > Integer.MAX_VALUE)) {
+            return null;
+        }
+        if (dataStart + dataSize > channel.size()) {
+            throw new EOFException("Unexpected end of PLY data");
+        }
+        ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, dataSize)
+                .order(reader.getOrder());
+
+        if (direct) {
+            int colorOffset = reader.getPropertyOffset(colorNames[0]);
+            return new PlyMappedPointCloud(mapped, vertexCount, stride,
+                    reader.getPropertyOffset("x"), colorOffset,
+                    colorOffset >= 0 && reader.hasProperty(colorNames[3]),
+                    true, computeAabb(mapped, vertexCount, stride, reader.getPropertyOffset("x")));
+        }
+        return pack(reader, mapped, colorNames);
+    }
+
+    /**
+     * 顶点缓冲区，零拷贝时为映射区本身
+     */
+    public ByteBuffer getVertexData() {
+        return vertexData;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * 每个顶点的字节数
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    public int getPositionOffset() {
+        return positionOffset;
+    }
+
+    /**
+     * @return 颜色在单个顶点内的字节偏移，无颜色时返回-1
+     */
+    public int getColorOffset() {
+        return colorOffset;
+    }
+
+    public boolean hasColors() {
+        return colorOffset >= 0;
+    }
+
+    /**
+     * @return 颜色是否为4分量，否则为3分量(alpha为1)
+     */
+    public boolean hasColorAlpha() {
+        return colorHasAlpha;
+    }
+
+    /**
+     * 是否直接使用映射区（未打包）
+     */
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
+    /**
+     * @return minX,minY,minZ,maxX,maxY,maxZ
+     */
+    public float[] getAabb() {
+        return aabb.clone();
+    }
+
+    /**
+     * 映射区能否直接作为顶点缓冲区：小端（与GPU一致）、float坐标连续、uchar颜色连续，且偏移与步长4字节对齐
+     */
+    private static boolean canUseDirectly(PlyStreamReader reader, String[] colorNames) {
+        if (reader.getOrder() != ByteOrder.LITTLE_ENDIAN
+                || ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN
+                || reader.getVertexStride() % 4 != 0) {
+            return false;
+        }
+        int x = reader.getPropertyOffset("x");
+        if (x % 4 != 0
+                || reader.getPropertyType("x") != PlyStreamReader.FLOAT32
+                || reader.getPropertyType("y") != PlyStreamReader.FLOAT32
+                || reader.getPropertyType("z") != PlyStreamReader.FLOAT32
+                || reader.getPropertyOffset("y") != x + 4
+                || reader.getPropertyOffset("z") != x + 8) {
+            return false;
+        }
+        int color = reader.getPropertyOffset(colorNames[0]);
+        if (color < 0) {
+            return true;
+        }
+        if (color % 4 != 0) {
+            return false;
+        }
+        int components = reader.hasProperty(colorNames[3]) ? 4 : 3;
+        for (int c = 0; c < components; c++) {
+            if (reader.getPropertyType(colorNames[c]) != PlyStreamReader.UINT8
+                    || reader.getPropertyOffset(colorNames[c]) != color + c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static float[] computeAabb(ByteBuffer data, int vertexCount, int stride, int positionOffset) {
+        float[] box = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (int v = 0, base = positionOffset; v < vertexCount; v++, base += stride) {
+            expand(box, data.getFloat(base), data.getFloat(base + 4), data.getFloat(base + 8));
+        }
+        return box;
+    }
+
+    /**
+     * 从映射区打包为 float3 + ubyte4
+     */
+    private static PlyMappedPointCloud pack(PlyStreamReader reader, ByteBuffer mapped, String[] colorNames) {
+        int vertexCount = reader.getVertexCount();
+        int stride = reader.getVertexStride();
+        int[] positionOffsets = new int[3];
+        int[] positionTypes = new int[3];
+        String[] positionNames = {"x", "y", "z"};
+        for (int c = 0; c < 3; c++) {
+            positionOffsets[c] = reader.getPropertyOffset(positionNames[c]);
+            positionTypes[c] = reader.getPropertyType(positionNames[c]);
+        }
+        boolean hasColors = reader.hasProperty(colorNames[0]);
+        int[] colorOffsets = new int[4];
+        int[] colorTypes = new int[4];
+        float[] colorScales = new float[4];
+        for (int c = 0; c < 4; c++) {
+            colorOffsets[c] = reader.getPropertyOffset(colorNames[c]);
+            colorTypes[c] = reader.getPropertyType(colorNames[c]);
+            colorScales[c] = colorTypes[c] < 0 ? 0 : PlyStreamReader.normalizeScale(colorTypes[c]) * 255f;
+        }
+
+        ByteBuffer packed = ByteBuffer.allocateDirect(vertexCount * PACKED_STRIDE)
+                .order(ByteOrder.nativeOrder());
+        float[] box = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (int v = 0; v < vertexCount; v++) {
+            int src = v * stride;
+            int dst = v * PACKED_STRIDE;
+            float x = PlyStreamReader.readScalar(mapped, src + positionOffsets[0], positionTypes[0]);
+            float y = PlyStreamReader.readScalar(mapped, src + positionOffsets[1], positionTypes[1]);
+            float z = PlyStreamReader.readScalar(mapped, src + positionOffsets[2], positionTypes[2]);
+            packed.putFloat(dst, x);
+            packed.putFloat(dst + 4, y);
+            packed.putFloat(dst + 8, z);
+            expand(box, x, y, z);
+            if (hasColors) {
+                for (int c = 0; c < 4; c++) {
+                    int value = colorTypes[c] < 0 ? 255 : Math.round(
+                            PlyStreamReader.readScalar(mapped, src + colorOffsets[c], colorTypes[c]) * colorScales[c]);
+                    packed.put(dst + 12 + c, (byte) Math.max(0, Math.min(255, value)));
+                }
+            }
+        }
+        return new PlyMappedPointCloud(packed, vertexCount, PACKED_STRIDE, 0,
+                hasColors ? 12 : -1, true, false, box);
+    }
+
+    private static void expand(float[] box, float x, float y, float z) {
+        if (x < box[0]) box[0] = x;
+        if (y < box[1]) box[1] = y;
+        if (z < box[2]) box[2] = z;
+        if (x > box[3]) box[3] = x;
+        if (y > box[4]) box[4] = y;
+        if (z > box[5]) box[5] = z;
+    }
+}
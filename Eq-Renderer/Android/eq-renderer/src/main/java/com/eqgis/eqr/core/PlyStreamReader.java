@@ -0,0 +1,734 @@
+package com.eqgis.eqr.core;
+
+import com.eqgis.eqr.data.JPlyAsset;
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ply文件流式读取
+ * <p>
+ *     从文件通道或输入流分批解析二进制Ply，每批的顶点直接解码到最终的资产数组中。
+ *     与{@link PlyLoader#createAssets(byte[])}相比，无需先将整个文件读入byte[]，
+ *     也没有native层的中间拷贝，峰值内存约为最终数组加一个批次缓冲区。
+ * </p>
+ * <p>
+ *     仅支持二进制(大小端)格式，vertex须为第一个元素，face元素支持任意多边形（扇形三角化）。
+ *     ascii及tristrips等格式可通过{@link #isSupported()}判断后改用native加载。
+ * </p>
+ * <p>用法：</p>
+ * <pre>
+ *     PlyStreamReader reader = new PlyStreamReader(channel);
+ *     JPlyAsset asset = reader.createPlyAsset();
+ *     while (reader.readBatch() > 0) { ... }
+ *     reader.finish();
+ * </pre>
+ */
+public final class PlyStreamReader implements Closeable {
+
+    /**
+     * 分批读取回调
+     */
+    public interface Listener {
+        /**
+         * 一批顶点解码完成，资产数组中[0, start + count)已可用
+         * @param start 本批起始顶点
+         * @param count 本批顶点数量
+         */
+        void onBatch(int start, int count);
+    }
+
+    public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+
+    private static final int HEADER_LIMIT = 64 * 1024;
+    //单批最大字节数，属性较多的3DGS会相应减少每批顶点数
+    private static final int MAX_BATCH_BYTES = 4 * 1024 * 1024;
+    private static final byte[] END_HEADER = "end_header".getBytes(StandardCharsets.US_ASCII);
+
+    //数据类型
+    static final int INT8 = 0;
+    static final int UINT8 = 1;
+    static final int INT16 = 2;
+    static final int UINT16 = 3;
+    static final int INT32 = 4;
+    static final int UINT32 = 5;
+    static final int FLOAT32 = 6;
+    static final int FLOAT64 = 7;
+    private static final int[] TYPE_SIZE = {1, 1, 2, 2, 4, 4, 4, 8};
+
+    private static final class Property {
+        final String name;
+        final int type;
+        //列表属性的计数类型，-1表示非列表
+        final int countType;
+
+        Property(String name, int type, int countType) {
+            this.name = name;
+            this.type = type;
+            this.countType = countType;
+        }
+    }
+
+    private static final class Element {
+        final String name;
+        final int count;
+        final List<Property> properties = new ArrayList<>();
+
+        Element(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    private final ReadableByteChannel channel;
+    private final List<Element> elements = new ArrayList<>();
+    private boolean binary;
+    private ByteOrder order = ByteOrder.LITTLE_ENDIAN;
+    private ByteBuffer buffer;
+    private int headerLength;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private Element vertexElement;
+    private Element faceElement;
+    private int vertexStride;
+    private int[] propertyOffsets;
+
+    //已绑定的顶点属性 → 目标数组
+    private int boundCount;
+    private int[] boundOffset;
+    private int[] boundType;
+    private float[][] boundArray;
+    private int[] boundStride;
+    private int[] boundComponent;
+    private float[] boundScale;
+
+    private JPlyAsset plyAsset;
+    private JPlyGS3dAsset gs3dAsset;
+    private float[] positions;
+    private float[] colors;
+    private boolean colorHasAlpha;
+    private int verticesRead;
+    private final float[] aabb = {
+            Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+
+    /**
+     * 构造函数，读取并解析文件头
+     * @param channel 数据通道，可由{@link java.nio.channels.Channels#newChannel(java.io.InputStream)}创建
+     */
+    public PlyStreamReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(HEADER_LIMIT);
+        buffer.flip();
+        parseHeader();
+    }
+
+    /**
+     * 打开文件
+     * @param file Ply文件
+     */
+    public static PlyStreamReader open(File file) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            return new PlyStreamReader(inputStream.getChannel());
+        } catch (IOException | RuntimeException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 是否支持流式读取
+     * @return false时应改用native加载
+     */
+    public boolean isSupported() {
+        if (!binary || vertexElement == null || elements.get(0) != vertexElement) {
+            return false;
+        }
+        for (Property property : vertexElement.properties) {
+            if (property.countType >= 0) {
+                return false;
+            }
+        }
+        //face须紧随vertex
+        if (hasFaces() && elements.get(1) != faceElement) {
+            return false;
+        }
+        for (Element element : elements) {
+            if ("tristrips".equals(element.name) && element.count > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 设置每批读取的顶点数量，需在读取前调用
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be >= 1");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getVertexCount() {
+        return vertexElement == null ? 0 : vertexElement.count;
+    }
+
+    public int getVerticesRead() {
+        return verticesRead;
+    }
+
+    public boolean hasFaces() {
+        return faceElement != null && faceElement.count > 0;
+    }
+
+    /**
+     * 是否含有指定的顶点属性
+     */
+    public boolean hasProperty(String name) {
+        return vertexElement != null && findProperty(name) >= 0;
+    }
+
+    /**
+     * 是否为3DGS文件（含f_dc属性）
+     */
+    public boolean is3DGS() {
+        return vertexElement != null && findProperty("f_dc_0") >= 0;
+    }
+
+    /**
+     * 创建Ply资产并分配数组，随后通过{@link #readBatch()}分批填充
+     */
+    public JPlyAsset createPlyAsset() {
+        checkNotStarted();
+        int n = getVertexCount();
+        JPlyAsset asset = new JPlyAsset();
+        asset.vertices = positions = new float[n * 3];
+        bindAll(asset.vertices, 3, "x", "y", "z");
+        if (findProperty("nx") >= 0) {
+            asset.normals = new float[n * 3];
+            bindAll(asset.normals, 3, "nx", "ny", "nz");
+        }
+        String[] colorNames = findProperty("red") >= 0
+                ? new String[]{"red", "green", "blue", "alpha"}
+                : new String[]{"r", "g", "b", "a"};
+        if (findProperty(colorNames[0]) >= 0) {
+            asset.colors = colors = new float[n * 4];
+            colorHasAlpha = findProperty(colorNames[3]) >= 0;
+            for (int c = 0; c < 4; c++) {
+                int p = findProperty(colorNames[c]);
+                if (p >= 0) {
+                    bind(p, colors, 4, c, normalizeScale(vertexElement.properties.get(p).type));
+                }
+            }
+        }
+        if (findProperty("u") >= 0 && findProperty("v") >= 0) {
+            asset.texcoords = new float[n * 2];
+            bindAll(asset.texcoords, 2, "u", "v");
+        }
+        plyAsset = asset;
+        return asset;
+    }
+
+    /**
+     * 创建3DGS资产并分配数组，随后通过{@link #readBatch()}分批填充
+     */
+    public JPlyGS3dAsset createGS3dAsset() {
+        checkNotStarted();
+        int n = getVertexCount();
+        JPlyGS3dAsset asset = new JPlyGS3dAsset();
+        asset.is3DGS = is3DGS();
+        asset.pointCount = n;
+        asset.vertices = positions = new float[n * 3];
+        bindAll(asset.vertices, 3, "x", "y", "z");
+        if (asset.is3DGS) {
+            asset.f_dc = bindOptional(n, "f_dc_0", "f_dc_1", "f_dc_2");
+            asset.scale = bindOptional(n, "scale_0", "scale_1", "scale_2");
+            asset.rot = bindOptional(n, "rot_0", "rot_1", "rot_2", "rot_3");
+            asset.opacity = bindOptional(n, "opacity");
+
+            int restCount = 0;
+            while (restCount < 45 && findProperty("f_rest_" + restCount) >= 0) {
+                restCount++;
+            }
+            if (restCount > 0) {
+                asset.f_rest = new float[n * restCount];
+                for (int k = 0; k < restCount; k++) {
+                    bind(findProperty("f_rest_" + k), asset.f_rest, restCount, k, 1f);
+                }
+                asset.shDegree = (int) Math.sqrt(restCount / 3 + 1) - 1;
+            }
+            asset.dimension = asset.shDegree == 0 ? 0 : restCount;
+        }
+        gs3dAsset = asset;
+        return asset;
+    }
+
+    /**
+     * 读取下一批顶点
+     * @return 本批顶点数量，0表示顶点已读完
+     */
+    public int readBatch() throws IOException {
+        if (positions == null) {
+            throw new IllegalStateException("createPlyAsset or createGS3dAsset must be called first");
+        }
+        int remaining = getVertexCount() - verticesRead;
+        if (remaining == 0) {
+            return 0;
+        }
+        int count = Math.min(Math.min(batchSize, Math.max(1, MAX_BATCH_BYTES / vertexStride)), remaining);
+        ensure(count * vertexStride);
+
+        int start = verticesRead;
+        int base = buffer.position();
+        for (int i = 0; i < count; i++) {
+            int vertexBase = base + i * vertexStride;
+            int v = start + i;
+            for (int b = 0; b < boundCount; b++) {
+                boundArray[b][v * boundStride[b] + boundComponent[b]] =
+                        readScalar(vertexBase + boundOffset[b], boundType[b]) * boundScale[b];
+            }
+        }
+        buffer.position(base + count * vertexStride);
+
+        if (colors != null && !colorHasAlpha) {
+            for (int v = start; v < start + count; v++) {
+                colors[v * 4 + 3] = 1f;
+            }
+        }
+        for (int v = start; v < start + count; v++) {
+            int b = v * 3;
+            float x = positions[b], y = positions[b + 1], z = positions[b + 2];
+            if (x < aabb[0]) aabb[0] = x;
+            if (y < aabb[1]) aabb[1] = y;
+            if (z < aabb[2]) aabb[2] = z;
+            if (x > aabb[3]) aabb[3] = x;
+            if (y > aabb[4]) aabb[4] = y;
+            if (z > aabb[5]) aabb[5] = z;
+        }
+        verticesRead += count;
+        return count;
+    }
+
+    /**
+     * 读取剩余顶点与面，并写入包围盒
+     * @param listener 每批回调，可为null
+     */
+    public void readAll(Listener listener) throws IOException {
+        int start = verticesRead;
+        int count;
+        while ((count = readBatch()) > 0) {
+            if (listener != null) {
+                listener.onBatch(start, count);
+            }
+            start += count;
+        }
+        finish();
+    }
+
+    /**
+     * 顶点读完后调用：读取面索引并写入包围盒
+     */
+    public void finish() throws IOException {
+        if (verticesRead < getVertexCount()) {
+            throw new IllegalStateException("vertices not fully read");
+        }
+        float[] box = verticesRead == 0 ? new float[6] : aabb.clone();
+        if (plyAsset != null) {
+            plyAsset.aabb = box;
+            if (hasFaces()) {
+                plyAsset.faces = readFaces();
+            }
+        } else if (gs3dAsset != null) {
+            gs3dAsset.aabb = box;
+        }
+    }
+
+    /**
+     * 获取当前已读顶点的包围盒
+     * @return minX,minY,minZ,maxX,maxY,maxZ
+     */
+    public float[] getAabb() {
+        return aabb.clone();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 读取面并扇形三角化
+     */
+    private int[] readFaces() throws IOException {
+        int indexProperty = -1;
+        for (int p = 0; p < faceElement.properties.size(); p++) {
+            Property property = faceElement.properties.get(p);
+            if (property.countType >= 0
+                    && ("vertex_indices".equals(property.name) || "vertex_index".equals(property.name))) {
+                indexProperty = p;
+                break;
+            }
+        }
+        if (indexProperty < 0) {
+            return null;
+        }
+
+        int[] faces = new int[faceElement.count * 3];
+        int size = 0;
+        for (int f = 0; f < faceElement.count; f++) {
+            for (int p = 0; p < faceElement.properties.size(); p++) {
+                Property property = faceElement.properties.get(p);
+                if (property.countType < 0) {
+                    ensure(TYPE_SIZE[property.type]);
+                    buffer.position(buffer.position() + TYPE_SIZE[property.type]);
+                    continue;
+                }
+                ensure(TYPE_SIZE[property.countType]);
+                int count = toIndex(readInteger(buffer, buffer.position(), property.countType));
+                buffer.position(buffer.position() + TYPE_SIZE[property.countType]);
+
+                int typeSize = TYPE_SIZE[property.type];
+                ensure(count * typeSize);
+                int base = buffer.position();
+                if (p == indexProperty && count >= 3) {
+                    int triangles = count - 2;
+                    if (size + triangles * 3 > faces.length) {
+                        faces = Arrays.copyOf(faces, Math.max(faces.length * 2, size + triangles * 3));
+                    }
+                    int first = toIndex(readInteger(buffer, base, property.type));
+                    int previous = toIndex(readInteger(buffer, base + typeSize, property.type));
+                    for (int k = 2; k < count; k++) {
+                        int current = toIndex(readInteger(buffer, base + k * typeSize, property.type));
+                        faces[size++] = first;
+                        faces[size++] = previous;
+                        faces[size++] = current;
+                        previous = current;
+                    }
+                }
+                buffer.position(base + count * typeSize);
+            }
+        }
+        return size == faces.length ? faces : Arrays.copyOf(faces, size);
+    }
+
+    /**
+     * 文件头字节数（含end_header行），顶点数据紧随其后
+     */
+    int getHeaderLength() {
+        return headerLength;
+    }
+
+    ByteOrder getOrder() {
+        return order;
+    }
+
+    int getVertexStride() {
+        return vertexStride;
+    }
+
+    /**
+     * @return 顶点属性在单个顶点内的字节偏移，不存在时返回-1
+     */
+    int getPropertyOffset(String name) {
+        int p = findProperty(name);
+        return p < 0 ? -1 : propertyOffsets[p];
+    }
+
+    /**
+     * @return 顶点属性的数据类型，不存在时返回-1
+     */
+    int getPropertyType(String name) {
+        int p = findProperty(name);
+        return p < 0 ? -1 : vertexElement.properties.get(p).type;
+    }
+
+    private void checkNotStarted() {
+        if (positions != null) {
+            throw new IllegalStateException("asset already created");
+        }
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("PLY format not supported by stream reader");
+        }
+    }
+
+    private float[] bindOptional(int n, String... names) {
+        if (findProperty(names[0]) < 0) {
+            return null;
+        }
+        float[] array = new float[n * names.length];
+        bindAll(array, names.length, names);
+        return array;
+    }
+
+    private void bindAll(float[] array, int stride, String... names) {
+        for (int c = 0; c < names.length; c++) {
+            int p = findProperty(names[c]);
+            if (p >= 0) {
+                bind(p, array, stride, c, 1f);
+            }
+        }
+    }
+
+    private void bind(int property, float[] array, int stride, int component, float scale) {
+        if (boundArray == null) {
+            int capacity = vertexElement.properties.size();
+            boundOffset = new int[capacity];
+            boundType = new int[capacity];
+            boundArray = new float[capacity][];
+            boundStride = new int[capacity];
+            boundComponent = new int[capacity];
+            boundScale = new float[capacity];
+        }
+        int b = boundCount++;
+        boundOffset[b] = propertyOffsets[property];
+        boundType[b] = vertexElement.properties.get(property).type;
+        boundArray[b] = array;
+        boundStride[b] = stride;
+        boundComponent[b] = component;
+        boundScale[b] = scale;
+    }
+
+    private int findProperty(String name) {
+        List<Property> properties = vertexElement.properties;
+        for (int p = 0; p < properties.size(); p++) {
+            if (properties.get(p).name.equals(name)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 整型颜色归一化到[0, 1]
+     */
+    static float normalizeScale(int type) {
+        switch (type) {
+            case UINT8:
+                return 1f / 255f;
+            case UINT16:
+                return 1f / 65535f;
+            default:
+                return 1f;
+        }
+    }
+
+    private float readScalar(int index, int type) {
+        return readScalar(buffer, index, type);
+    }
+
+    /**
+     * 按整数读取，用于索引与列表长度；经float读取时超过2^24的值会丢失精度
+     */
+    static long readInteger(ByteBuffer buffer, int index, int type) {
+        switch (type) {
+            case INT8:
+                return buffer.get(index);
+            case UINT8:
+                return buffer.get(index) & 0xFF;
+            case INT16:
+                return buffer.getShort(index);
+            case UINT16:
+                return buffer.getShort(index) & 0xFFFF;
+            case INT32:
+                return buffer.getInt(index);
+            case UINT32:
+                return buffer.getInt(index) & 0xFFFFFFFFL;
+            case FLOAT32:
+                return (long) buffer.getFloat(index);
+            case FLOAT64:
+                return (long) buffer.getDouble(index);
+            default:
+                throw new IllegalStateException("Unknown type " + type);
+        }
+    }
+
+    private static int toIndex(long value) throws IOException {
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("PLY index out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    static float readScalar(ByteBuffer buffer, int index, int type) {
+        switch (type) {
+            case INT8:
+                return buffer.get(index);
+            case UINT8:
+                return buffer.get(index) & 0xFF;
+            case INT16:
+                return buffer.getShort(index);
+            case UINT16:
+                return buffer.getShort(index) & 0xFFFF;
+            case INT32:
+                return buffer.getInt(index);
+            case UINT32:
+                return buffer.getInt(index) & 0xFFFFFFFFL;
+            case FLOAT32:
+                return buffer.getFloat(index);
+            case FLOAT64:
+                return (float) buffer.getDouble(index);
+            default:
+                throw new IllegalStateException("Unknown type " + type);
+        }
+    }
+
+    /**
+     * 确保缓冲区中至少有bytes个未读字节，必要时扩容
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (buffer.capacity() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(bytes).order(order);
+            grown.put(buffer);
+            buffer = grown;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of PLY data");
+            }
+        }
+        buffer.flip();
+    }
+
+    private void parseHeader() throws IOException {
+        //读取直到end_header行
+        int headerEnd = -1;
+        buffer.clear();
+        while (headerEnd < 0) {
+            if (!buffer.hasRemaining()) {
+                throw new IOException("PLY header too large");
+            }
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of PLY header");
+            }
+            headerEnd = findHeaderEnd(buffer.position());
+        }
+        buffer.flip();
+
+        headerLength = headerEnd;
+        byte[] headerBytes = new byte[headerEnd];
+        buffer.get(headerBytes);
+        String header = new String(headerBytes, StandardCharsets.US_ASCII);
+        String[] lines = header.split("\r?\n");
+        if (lines.length == 0 || !"ply".equals(lines[0].trim())) {
+            throw new IOException("Not a PLY file");
+        }
+
+        Element current = null;
+        for (String rawLine : lines) {
+            String[] tokens = rawLine.trim().split("\\s+");
+            if (tokens.length == 0) continue;
+            switch (tokens[0]) {
+                case "format":
+                    binary = !"ascii".equals(tokens[1]);
+                    order = "binary_big_endian".equals(tokens[1]) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+                    break;
+                case "element":
+                    current = new Element(tokens[1], Integer.parseInt(tokens[2]));
+                    elements.add(current);
+                    break;
+                case "property":
+                    if (current == null) {
+                        throw new IOException("PLY property before element");
+                    }
+                    if ("list".equals(tokens[1])) {
+                        current.properties.add(new Property(tokens[4], parseType(tokens[3]), parseType(tokens[2])));
+                    } else {
+                        current.properties.add(new Property(tokens[2], parseType(tokens[1]), -1));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        buffer.order(order);
+
+        for (Element element : elements) {
+            if ("vertex".equals(element.name) && vertexElement == null) {
+                vertexElement = element;
+            } else if ("face".equals(element.name) && faceElement == null) {
+                faceElement = element;
+            }
+        }
+        if (vertexElement != null) {
+            propertyOffsets = new int[vertexElement.properties.size()];
+            int offset = 0;
+            for (int p = 0; p < propertyOffsets.length; p++) {
+                Property property = vertexElement.properties.get(p);
+                propertyOffsets[p] = offset;
+                offset += TYPE_SIZE[property.type];
+            }
+            vertexStride = offset;
+        }
+    }
+
+    /**
+     * @return end_header行结束后的字节偏移，未找到时返回-1
+     */
+    private int findHeaderEnd(int limit) {
+        outer:
+        for (int i = 0; i + END_HEADER.length <= limit; i++) {
+            for (int k = 0; k < END_HEADER.length; k++) {
+                if (buffer.get(i + k) != END_HEADER[k]) {
+                    continue outer;
+                }
+            }
+            for (int j = i + END_HEADER.length; j < limit; j++) {
+                if (buffer.get(j) == '\n') {
+                    return j + 1;
+                }
+            }
+            return -1;
+        }
+        return -1;
+    }
+
+    private static int parseType(String name) throws IOException {
+        switch (name) {
+            case "char":
+            case "int8":
+                return INT8;
+            case "uchar":
+            case "uint8":
+                return UINT8;
+            case "short":
+            case "int16":
+                return INT16;
+            case "ushort":
+            case "uint16":
+                return UINT16;
+            case "int":
+            case "int32":
+                return INT32;
+            case "uint":
+            case "uint32":
+                return UINT32;
+            case "float":
+            case "float32":
+                return FLOAT32;
+            case "double":
+            case "float64":
+                return FLOAT64;
+            default:
+                throw new IOException("Unknown PLY type " + name);
+        }
+    }
+}
@@ -0,0 +1,736 @@
+package com.eqgis.eqr.core;
+
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 点云八叉树LOD（Potree风格）
+ * <p>
+ *     首次加载时将点云按伪随机顺序排列后按八叉树逐层划分：每个节点保留最多{@link #getNodeCapacity()}个点作为本层采样，
+ *     其余分给8个子节点，点间距逐层减半。划分在临时文件中进行，堆内存只与节点数相关。
+ *     节点表与按节点分组的点写入节点文件，点统一打包为
+ *     float3 + ubyte4（{@link #POINT_STRIDE}字节/点），运行时按需读取单个节点，整份点云无需常驻内存。
+ * </p>
+ * <p>
+ *     每帧按屏幕空间误差（点间距投影到屏幕的比例）从根节点向下选择可见节点，
+ *     优先细化误差最大的节点，直到达到点数预算或误差低于阈值。父节点总在子节点之前被选中。
+ * </p>
+ * <p>
+ *     文件格式（小端）：64字节文件头 + 节点表(每节点32字节) + 16字节对齐的点数据。
+ *     文件头含魔数、版本与源文件指纹，任一不匹配即视为失效。
+ * </p>
+ */
+public final class PointCloudOctree implements Closeable {
+
+    public static final int VERSION = 1;
+    public static final int DEFAULT_NODE_CAPACITY = 16384;
+    /**
+     * 每个点的字节数：float x,y,z + ubyte r,g,b,a
+     */
+    public static final int POINT_STRIDE = 16;
+
+    //"EQRO"
+    private static final int MAGIC = 0x4f525145;
+    private static final int HEADER_SIZE = 64;
+    private static final int NODE_SIZE = 32;
+    private static final int ALIGNMENT = 16;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+    //划分时每个象限的写缓冲区大小
+    private static final int OCTANT_BUFFER_SIZE = 64 * 1024;
+    private static final int FLAG_COLORS = 1;
+    //层级上限，超出后(重合点)不再按象限划分，剩余点均分给与父节点立方体相同的子节点
+    static final int MAX_LEVEL = 20;
+
+    private final FileChannel channel;
+    private final int nodeCount;
+    private final int nodeCapacity;
+    private final long pointCount;
+    private final boolean hasColors;
+    private final float[] aabb;
+    //节点立方体，中心与半边长，cx,cy,cz,half * nodeCount
+    private final float[] cubes;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] nodePoints;
+    private final long[] pointOffsets;
+
+    //选择用的临时数据，仅在调用select的线程中使用
+    private final float[] viewMat = new float[16];
+    private final float[] modelViewMat = new float[16];
+    private final float[] mvpMat = new float[16];
+    private final float[] planes = new float[24];
+    //点间距、外接球半径到屏幕误差与相机空间的换算系数
+    private float errorFactor;
+    private float radiusScale;
+    private final int[] heapNodes;
+    private final float[] heapKeys;
+
+    private PointCloudOctree(FileChannel channel, int nodeCount, int nodeCapacity, long pointCount,
+                             boolean hasColors, float[] aabb) {
+        this.channel = channel;
+        this.nodeCount = nodeCount;
+        this.nodeCapacity = nodeCapacity;
+        this.pointCount = pointCount;
+        this.hasColors = hasColors;
+        this.aabb = aabb;
+        this.cubes = new float[nodeCount * 4];
+        this.firstChild = new int[nodeCount];
+        this.childCount = new int[nodeCount];
+        this.nodePoints = new int[nodeCount];
+        this.pointOffsets = new long[nodeCount];
+        this.heapNodes = new int[nodeCount];
+        this.heapKeys = new float[nodeCount];
+    }
+
+    /**
+     * 节点文件路径
+     * @param directory 缓存目录，如Context.getCacheDir()
+     * @param fingerprint 源数据指纹，见{@link PlyCacheFile#fingerprint(FileChannel)}
+     */
+    public static File getFile(File directory, long fingerprint) {
+        return new File(directory, "eqr_octree_" + Long.toHexString(fingerprint) + ".cache");
+    }
+
+    /**
+     * 构建八叉树并写入节点文件，先写临时文件再重命名，失败时不留下残缺文件
+     * <p>
+     *     点以打包记录在节点文件旁的临时文件中划分，共需约3倍打包点数据的磁盘空间，构建结束后删除；
+     *     所有点都会写入节点文件，{@link #getPointCount()}等于点云的点数
+     * </p>
+     * @param cloud 点云
+     * @param nodeCapacity 每个节点最多包含的点数量
+     */
+    public static void build(PlyMappedPointCloud cloud, int nodeCapacity, File file, long fingerprint)
+            throws IOException {
+        if (nodeCapacity < 1) {
+            throw new IllegalArgumentException("nodeCapacity must be >= 1");
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        File pointsFile = new File(file.getPath() + ".points.tmp");
+        File[] workFiles = {new File(file.getPath() + ".work0.tmp"), new File(file.getPath() + ".work1.tmp")};
+        boolean done = false;
+        try (FileChannel points = openTemp(pointsFile);
+             FileChannel work0 = openTemp(workFiles[0]);
+             FileChannel work1 = openTemp(workFiles[1])) {
+            Builder builder = new Builder(cloud, nodeCapacity);
+            builder.split(new FileChannel[]{work0, work1}, points);
+            try (FileChannel out = PlyCacheFile.openWrite(tmp)) {
+                builder.write(out, points, fingerprint);
+                out.force(false);
+            }
+            done = true;
+        } finally {
+            pointsFile.delete();
+            workFiles[0].delete();
+            workFiles[1].delete();
+            if (!done) {
+                tmp.delete();
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Unable to rename octree file " + tmp);
+        }
+    }
+
+    /**
+     * 打开节点文件，读取节点表，点数据在{@link #readPoints}时按需读取
+     * @return 文件不存在或失效时返回null
+     */
+    @Nullable
+    public static PointCloudOctree open(File file, long fingerprint) throws IOException {
+        if (!file.isFile() || file.length() < HEADER_SIZE) {
+            return null;
+        }
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        boolean opened = false;
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            int nodeCount = header.getInt(16);
+            int nodeCapacity = header.getInt(20);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getLong(8) != fingerprint
+                    || nodeCount < 1 || nodeCapacity < 1
+                    || HEADER_SIZE + (long) NODE_SIZE * nodeCount > channel.size()) {
+                return null;
+            }
+            float[] aabb = new float[6];
+            for (int i = 0; i < 6; i++) {
+                aabb[i] = header.getFloat(36 + i * 4);
+            }
+            PointCloudOctree tree = new PointCloudOctree(channel, nodeCount, nodeCapacity, header.getLong(24),
+                    (header.getInt(32) & FLAG_COLORS) != 0, aabb);
+
+            ByteBuffer table = ByteBuffer.allocate(NODE_SIZE * nodeCount).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, table, HEADER_SIZE);
+            long fileSize = channel.size();
+            for (int n = 0; n < nodeCount; n++) {
+                int o = n * NODE_SIZE;
+                for (int c = 0; c < 4; c++) {
+                    tree.cubes[n * 4 + c] = table.getFloat(o + c * 4);
+                }
+                tree.firstChild[n] = table.getInt(o + 16);
+                tree.childCount[n] = table.getInt(o + 20) & 0xff;
+                tree.nodePoints[n] = table.getInt(o + 24);
+                tree.pointOffsets[n] = (table.getInt(o + 28) & 0xffffffffL) * ALIGNMENT;
+                if (tree.nodePoints[n] < 0 || tree.nodePoints[n] > nodeCapacity
+                        || tree.pointOffsets[n] + (long) tree.nodePoints[n] * POINT_STRIDE > fileSize
+                        || tree.firstChild[n] < 0 || tree.firstChild[n] + tree.childCount[n] > nodeCount) {
+                    throw new IOException("Corrupted octree node " + n);
+                }
+            }
+            opened = true;
+            return tree;
+        } finally {
+            if (!opened) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * 读取节点的点数据（float3 + ubyte4），可在任意线程调用
+     * @param dst 写入位置，剩余空间至少为节点点数 * {@link #POINT_STRIDE}，读取后position后移
+     * @return 点数量
+     */
+    public int readPoints(int node, ByteBuffer dst) throws IOException {
+        int count = nodePoints[node];
+        int limit = dst.limit();
+        dst.limit(dst.position() + count * POINT_STRIDE);
+        try {
+            readFully(channel, dst, pointOffsets[node]);
+        } finally {
+            dst.limit(limit);
+        }
+        return count;
+    }
+
+    /**
+     * 按屏幕空间误差选择需要绘制的节点（非线程安全）
+     * <p>
+     *     从根节点开始，视锥内的节点按误差从大到小依次选中，
+     *     节点误差大于阈值时继续考察其子节点，直到达到点数预算或节点数上限。
+     * </p>
+     * @param modelMat 模型矩阵，4x4 column-major
+     * @param cameraModelMat 相机模型矩阵，4x4 column-major
+     * @param projectionMat 投影矩阵，4x4 column-major
+     * @param screenError 误差阈值，点间距投影后占屏幕高度的比例
+     * @param pointBudget 点数预算
+     * @param outNodes 输出节点，父节点在子节点之前，最多写入其长度个节点
+     * @return 选中的节点数量
+     */
+    public int select(float[] modelMat, float[] cameraModelMat, float[] projectionMat,
+                      float screenError, int pointBudget, int[] outNodes) {
+        GaussianChunks.invertRigidTransform(cameraModelMat, viewMat);
+        GaussianChunks.mulMat4(viewMat, modelMat, modelViewMat);
+        GaussianChunks.mulMat4(projectionMat, modelViewMat, mvpMat);
+        GaussianChunks.extractPlanes(mvpMat, planes);
+        //点间距 = 立方体边长 / sqrt(节点容量)，占屏幕高度的比例 = spacing * P[1][1] / (2 * depth)
+        float modelScale = GaussianChunks.maxColumnScale(modelMat);
+        errorFactor = projectionMat[5] * modelScale / (float) Math.sqrt(nodeCapacity);
+        radiusScale = 1.7320508f * modelScale;
+
+        int heapSize = 0;
+        if (!outsideFrustum(0)) {
+            heapSize = push(0, error(0), heapSize);
+        }
+        int count = 0;
+        long points = 0;
+        while (heapSize > 0 && count < outNodes.length) {
+            int node = heapNodes[0];
+            float nodeError = heapKeys[0];
+            heapSize = pop(heapSize);
+            if (points + nodePoints[node] > pointBudget) {
+                break;
+            }
+            outNodes[count++] = node;
+            points += nodePoints[node];
+            if (nodeError <= screenError) {
+                continue;
+            }
+            for (int c = firstChild[node], end = c + childCount[node]; c < end; c++) {
+                if (!outsideFrustum(c)) {
+                    heapSize = push(c, error(c), heapSize);
+                }
+            }
+        }
+        return count;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 每个节点最多包含的点数量
+     */
+    public int getNodeCapacity() {
+        return nodeCapacity;
+    }
+
+    public int getNodePointCount(int node) {
+        return nodePoints[node];
+    }
+
+    /**
+     * 所有节点的点数量之和
+     */
+    public long getPointCount() {
+        return pointCount;
+    }
+
+    public boolean hasColors() {
+        return hasColors;
+    }
+
+    /**
+     * @return minX,minY,minZ,maxX,maxY,maxZ
+     */
+    public float[] getAabb() {
+        return aabb.clone();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 节点的屏幕空间误差，相机位于节点内时为无穷大
+     */
+    private float error(int node) {
+        int o = node * 4;
+        float cx = cubes[o], cy = cubes[o + 1], cz = cubes[o + 2], half = cubes[o + 3];
+        //w = 相机空间深度，减去外接球半径得到最近距离
+        float w = mvpMat[3] * cx + mvpMat[7] * cy + mvpMat[11] * cz + mvpMat[15];
+        float distance = w - half * radiusScale;
+        if (distance <= 0) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return half * errorFactor / distance;
+    }
+
+    /**
+     * 立方体完全位于某一平面外侧
+     */
+    private boolean outsideFrustum(int node) {
+        int o = node * 4;
+        float x = cubes[o], y = cubes[o + 1], z = cubes[o + 2], half = cubes[o + 3];
+        for (int p = 0; p < 24; p += 4) {
+            float a = planes[p], b = planes[p + 1], c = planes[p + 2];
+            float r = (Math.abs(a) + Math.abs(b) + Math.abs(c)) * half;
+            if (a * x + b * y + c * z + planes[p + 3] < -r) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 大顶堆入堆
+     */
+    private int push(int node, float key, int size) {
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (heapKeys[parent] >= key) {
+                break;
+            }
+            heapNodes[i] = heapNodes[parent];
+            heapKeys[i] = heapKeys[parent];
+            i = parent;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = key;
+        return size + 1;
+    }
+
+    /**
+     * 移除堆顶
+     */
+    private int pop(int size) {
+        size--;
+        int node = heapNodes[size];
+        float key = heapKeys[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heapKeys[child + 1] > heapKeys[child]) {
+                child++;
+            }
+            if (heapKeys[child] <= key) {
+                break;
+            }
+            heapNodes[i] = heapNodes[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = key;
+        return size;
+    }
+
+    private static FileChannel openTemp(File file) throws IOException {
+        return PlyCacheFile.openWrite(file);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of octree file");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * 逐层划分：节点按层序编号，同一父节点的子节点连续存放
+     * <p>
+     *     点先按伪随机顺序打包写入第0层工作文件，之后按节点顺序（即逐层）处理：
+     *     从本层工作文件读取节点的剩余点，前nodeCapacity个追加到点文件作为本节点的采样，
+     *     其余按象限分发到下一层工作文件。两个工作文件按层交替使用，点文件即按节点排列的点数据。
+     * </p>
+     */
+    private static final class Builder {
+        private final PlyMappedPointCloud cloud;
+        private final int nodeCapacity;
+        private final float[] aabb;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final ByteBuffer[] octantBuffers = new ByteBuffer[8];
+        private final long[] octantPositions = new long[8];
+
+        private int nodeCount;
+        private float[] cubes = new float[4 * 64];
+        private int[] level = new int[64];
+        private int[] firstChild = new int[64];
+        private int[] childCount = new int[64];
+        //第n个节点的点(含本节点采样)为其所在层工作文件中的记录[rangeStart[n], rangeEnd[n])
+        private long[] rangeStart = new long[64];
+        private long[] rangeEnd = new long[64];
+        private int[] points = new int[64];
+
+        Builder(PlyMappedPointCloud cloud, int nodeCapacity) {
+            this.cloud = cloud;
+            this.nodeCapacity = nodeCapacity;
+            this.aabb = cloud.getAabb();
+            for (int o = 0; o < 8; o++) {
+                octantBuffers[o] = ByteBuffer.allocateDirect(OCTANT_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        void split(FileChannel[] work, FileChannel pointsOut) throws IOException {
+            float half = Math.max(aabb[3] - aabb[0], Math.max(aabb[4] - aabb[1], aabb[5] - aabb[2])) * 0.5f;
+            //略微外扩，使位于最大边界上的点落在立方体内
+            half = Math.max(half * 1.0001f, 1e-6f);
+            int n = cloud.getVertexCount();
+            addNode((aabb[0] + aabb[3]) * 0.5f, (aabb[1] + aabb[4]) * 0.5f, (aabb[2] + aabb[5]) * 0.5f,
+                    half, 0, 0, n);
+            writeShuffled(work[0]);
+
+            int[] octantCount = new int[8];
+            long pointsPosition = 0;
+            long nextPosition = 0;
+            int currentLevel = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                //同层节点全部处理完后，上一层的工作文件才被下一层覆盖
+                if (level[node] != currentLevel) {
+                    currentLevel = level[node];
+                    nextPosition = 0;
+                }
+                FileChannel in = work[currentLevel & 1];
+                FileChannel out = work[(currentLevel + 1) & 1];
+                long start = rangeStart[node];
+                long end = rangeEnd[node];
+                int own = (int) Math.min(nodeCapacity, end - start);
+                points[node] = own;
+                firstChild[node] = nodeCount;
+                copy(in, start, own, pointsOut, pointsPosition);
+                pointsPosition += own;
+                long rest = end - start - own;
+                if (rest == 0) {
+                    continue;
+                }
+
+                float cx = cubes[node * 4], cy = cubes[node * 4 + 1], cz = cubes[node * 4 + 2];
+                float nodeHalf = cubes[node * 4 + 3];
+                if (level[node] >= MAX_LEVEL) {
+                    //重合点无法按象限分开：剩余点按顺序均分给至多8个立方体相同的子节点，每份仍是均匀采样
+                    copy(in, start + own, rest, out, nextPosition);
+                    long slices = Math.min(8, (rest + nodeCapacity - 1) / nodeCapacity);
+                    for (int c = 0; c < slices; c++) {
+                        long sliceStart = nextPosition + rest * c / slices;
+                        long sliceEnd = nextPosition + rest * (c + 1) / slices;
+                        addNode(cx, cy, cz, nodeHalf, level[node] + 1, sliceStart, sliceEnd);
+                        childCount[node]++;
+                    }
+                    nextPosition += rest;
+                    continue;
+                }
+
+                //计数后分发到8个象限，保持原有顺序，子节点的任意前缀仍是均匀采样
+                Arrays.fill(octantCount, 0);
+                long position = (start + own) * POINT_STRIDE;
+                for (long remaining = rest * POINT_STRIDE; remaining > 0; ) {
+                    int read = fill(in, position, remaining);
+                    for (int k = 0; k < read; k += POINT_STRIDE) {
+                        octantCount[octant(readBuffer, k, cx, cy, cz)]++;
+                    }
+                    position += read;
+                    remaining -= read;
+                }
+                long octantStart = nextPosition;
+                for (int o = 0; o < 8; o++) {
+                    octantPositions[o] = octantStart * POINT_STRIDE;
+                    octantBuffers[o].clear();
+                    octantStart += octantCount[o];
+                }
+                position = (start + own) * POINT_STRIDE;
+                for (long remaining = rest * POINT_STRIDE; remaining > 0; ) {
+                    int read = fill(in, position, remaining);
+                    for (int k = 0; k < read; k += POINT_STRIDE) {
+                        int o = octant(readBuffer, k, cx, cy, cz);
+                        ByteBuffer buffer = octantBuffers[o];
+                        if (buffer.remaining() < POINT_STRIDE) {
+                            flushOctant(out, o);
+                        }
+                        buffer.putLong(readBuffer.getLong(k)).putLong(readBuffer.getLong(k + 8));
+                    }
+                    position += read;
+                    remaining -= read;
+                }
+                for (int o = 0; o < 8; o++) {
+                    flushOctant(out, o);
+                }
+
+                float childHalf = nodeHalf * 0.5f;
+                for (int o = 0; o < 8; o++) {
+                    if (octantCount[o] == 0) {
+                        continue;
+                    }
+                    addNode(cx + ((o & 1) != 0 ? childHalf : -childHalf),
+                            cy + ((o & 2) != 0 ? childHalf : -childHalf),
+                            cz + ((o & 4) != 0 ? childHalf : -childHalf),
+                            childHalf, level[node] + 1, nextPosition, nextPosition + octantCount[o]);
+                    nextPosition += octantCount[o];
+                    childCount[node]++;
+                }
+            }
+        }
+
+        /**
+         * 按伪随机顺序将所有点打包为 float3 + ubyte4 写入工作文件
+         */
+        private void writeShuffled(FileChannel out) throws IOException {
+            ByteBuffer data = cloud.getVertexData();
+            int stride = cloud.getStride();
+            int positionOffset = cloud.getPositionOffset();
+            int colorOffset = cloud.getColorOffset();
+            boolean alpha = cloud.hasColorAlpha();
+            int n = cloud.getVertexCount();
+            //固定种子，同一源文件得到相同的节点文件
+            Permutation permutation = new Permutation(n, n);
+            ByteBuffer buffer = readBuffer;
+            buffer.clear();
+            long position = 0;
+            for (int i = 0; i < n; i++) {
+                if (buffer.remaining() < POINT_STRIDE) {
+                    buffer.flip();
+                    writeFully(out, buffer, position);
+                    position += buffer.limit();
+                    buffer.clear();
+                }
+                //映射区不超过2GB，偏移以long计算后必在int范围内
+                long base = (long) permutation.apply(i) * stride;
+                int p = (int) (base + positionOffset);
+                buffer.putFloat(data.getFloat(p))
+                        .putFloat(data.getFloat(p + 4))
+                        .putFloat(data.getFloat(p + 8));
+                if (colorOffset >= 0) {
+                    int c = (int) (base + colorOffset);
+                    buffer.put(data.get(c))
+                            .put(data.get(c + 1))
+                            .put(data.get(c + 2))
+                            .put(alpha ? data.get(c + 3) : (byte) 0xff);
+                } else {
+                    buffer.putInt(-1);
+                }
+            }
+            buffer.flip();
+            writeFully(out, buffer, position);
+        }
+
+        /**
+         * 从position读取至多remaining字节到readBuffer
+         * @return 读取的字节数，为{@link #POINT_STRIDE}的整数倍
+         */
+        private int fill(FileChannel in, long position, long remaining) throws IOException {
+            readBuffer.clear();
+            readBuffer.limit((int) Math.min(readBuffer.capacity(), remaining));
+            readFully(in, readBuffer, position);
+            readBuffer.flip();
+            return readBuffer.limit();
+        }
+
+        /**
+         * 复制点记录[start, start + count)到out中outStart处
+         */
+        private void copy(FileChannel in, long start, long count, FileChannel out, long outStart)
+                throws IOException {
+            long position = start * POINT_STRIDE;
+            long outPosition = outStart * POINT_STRIDE;
+            for (long remaining = count * POINT_STRIDE; remaining > 0; ) {
+                int read = fill(in, position, remaining);
+                writeFully(out, readBuffer, outPosition);
+                position += read;
+                outPosition += read;
+                remaining -= read;
+            }
+        }
+
+        private void flushOctant(FileChannel out, int o) throws IOException {
+            ByteBuffer buffer = octantBuffers[o];
+            buffer.flip();
+            int size = buffer.limit();
+            writeFully(out, buffer, octantPositions[o]);
+            octantPositions[o] += size;
+            buffer.clear();
+        }
+
+        private static int octant(ByteBuffer record, int base, float cx, float cy, float cz) {
+            return (record.getFloat(base) >= cx ? 1 : 0)
+                    | (record.getFloat(base + 4) >= cy ? 2 : 0)
+                    | (record.getFloat(base + 8) >= cz ? 4 : 0);
+        }
+
+        private void addNode(float cx, float cy, float cz, float half, int nodeLevel, long start, long end) {
+            if (nodeCount == level.length) {
+                int capacity = nodeCount * 2;
+                cubes = Arrays.copyOf(cubes, capacity * 4);
+                level = Arrays.copyOf(level, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                rangeStart = Arrays.copyOf(rangeStart, capacity);
+                rangeEnd = Arrays.copyOf(rangeEnd, capacity);
+                points = Arrays.copyOf(points, capacity);
+            }
+            int n = nodeCount++;
+            cubes[n * 4] = cx;
+            cubes[n * 4 + 1] = cy;
+            cubes[n * 4 + 2] = cz;
+            cubes[n * 4 + 3] = half;
+            level[n] = nodeLevel;
+            rangeStart[n] = start;
+            rangeEnd[n] = end;
+        }
+
+        /**
+         * 写入文件头、节点表，再复制按节点排列的点数据
+         */
+        void write(FileChannel out, FileChannel pointsIn, long fingerprint) throws IOException {
+            long pointTotal = 0;
+            long offset = align(HEADER_SIZE + (long) NODE_SIZE * nodeCount);
+            long dataStart = offset;
+            for (int n = 0; n < nodeCount; n++) {
+                pointTotal += points[n];
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(fingerprint)
+                    .putInt(nodeCount).putInt(nodeCapacity).putLong(pointTotal)
+                    .putInt(cloud.hasColors() ? FLAG_COLORS : 0);
+            for (float v : aabb) {
+                buffer.putFloat(v);
+            }
+            buffer.putInt(0);
+            long position = 0;
+            for (int n = 0; n < nodeCount; n++) {
+                if (buffer.remaining() < NODE_SIZE) {
+                    buffer.flip();
+                    writeFully(out, buffer, position);
+                    position += buffer.limit();
+                    buffer.clear();
+                }
+                buffer.putFloat(cubes[n * 4]).putFloat(cubes[n * 4 + 1])
+                        .putFloat(cubes[n * 4 + 2]).putFloat(cubes[n * 4 + 3])
+                        .putInt(firstChild[n]).putInt(childCount[n] | level[n] << 8)
+                        .putInt(points[n]).putInt((int) (offset / ALIGNMENT));
+                //点的字节数与对齐一致，节点数据无需补齐，点数据起始位置也是整数个点
+                offset += (long) points[n] * POINT_STRIDE;
+            }
+            buffer.flip();
+            writeFully(out, buffer, position);
+
+            copy(pointsIn, 0, pointTotal, out, dataStart / POINT_STRIDE);
+        }
+
+        private static long align(long value) {
+            return (value + ALIGNMENT - 1) & -ALIGNMENT;
+        }
+    }
+
+    /**
+     * [0, n)上的伪随机排列，无需索引数组
+     * <p>在覆盖n的2^bits空间上做4轮Feistel置换，落在n之外的值继续置换直到落入范围（cycle walking）</p>
+     */
+    static final class Permutation {
+        private static final int ROUNDS = 4;
+        private final long n;
+        private final int halfBits;
+        private final long halfMask;
+        private final int[] keys = new int[ROUNDS];
+
+        Permutation(int n, long seed) {
+            this.n = n;
+            int bits = 64 - Long.numberOfLeadingZeros(Math.max(n - 1, 1));
+            halfBits = (bits + 1) / 2;
+            halfMask = (1L << halfBits) - 1;
+            Random random = new Random(seed);
+            for (int i = 0; i < ROUNDS; i++) {
+                keys[i] = random.nextInt();
+            }
+        }
+
+        int apply(int i) {
+            long x = i;
+            do {
+                long left = x >>> halfBits;
+                long right = x & halfMask;
+                for (int r = 0; r < ROUNDS; r++) {
+                    long next = left ^ (round(right, keys[r]) & halfMask);
+                    left = right;
+                    right = next;
+                }
+                x = left << halfBits | right;
+            } while (x >= n);
+            return (int) x;
+        }
+
+        private static long round(long value, int key) {
+            int h = (int) value * 0x9e3779b1 ^ key;
+            h ^= h >>> 15;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            return h & 0xffffffffL;
+        }
+    }
+}
@@ -29,4 +29,17 @@ public class JPlyAsset {
 
     @Keep
     public float[] aabb;
+
+    /**
+     * 获取属性数组占用的字节数(估算)
+     */
+    public long getSizeInBytes() {
+        long count = length(vertices) + length(normals) + length(texcoords) + length(colors) + length(aabb);
+        count += (faces != null ? faces.length : 0) + (tripstrip != null ? tripstrip.length : 0);
+        return 4L * count;
+    }
+
+    private static int length(float[] array) {
+        return array != null ? array.length : 0;
+    }
 }
@@ -35,4 +35,15 @@ public class JPlyGS3dAsset {
     //维度
     public int dimension;
 
+    /**
+     * 获取属性数组占用的字节数(估算)
+     */
+    public long getSizeInBytes() {
+        return 4L * (length(vertices) + length(normals) + length(aabb) + length(f_dc)
+                + length(f_rest) + length(opacity) + length(scale) + length(rot));
+    }
+
+    private static int length(float[] array) {
+        return array != null ? array.length : 0;
+    }
 }
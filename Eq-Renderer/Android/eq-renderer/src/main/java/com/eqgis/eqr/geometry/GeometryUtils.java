@@ -6,17 +6,16 @@ import android.os.Build;
 import androidx.annotation.RequiresApi;
 
 import com.google.android.filament.RenderableManager;
+import com.google.sceneform.math.MathKernel;
 import com.google.sceneform.math.Vector3;
 import com.google.sceneform.rendering.Color;
 import com.google.sceneform.rendering.Material;
 import com.google.sceneform.rendering.ModelRenderable;
-import com.google.sceneform.rendering.RenderableDefinition;
-import com.google.sceneform.rendering.Vertex;
+import com.google.sceneform.rendering.RenderableDefinitionPacked;
 import com.google.sceneform.utilities.AndroidPreconditions;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -44,149 +43,7 @@ public class GeometryUtils {
     public static ModelRenderable makeCylinder(
             float radius, float height, Vector3 center, Material material) {
         AndroidPreconditions.checkMinAndroidApiLevel();
-
-        final int numberOfSides = 16;
-        final float halfHeight = height / 2;
-        final float thetaIncrement = (float) (2 * Math.PI) / numberOfSides;
-
-        float theta = 0;
-        float uStep = (float) 1.0 / numberOfSides;
-
-        ArrayList<Vertex> vertices = new ArrayList<Vertex>((numberOfSides + 1) * 4);
-        ArrayList<Vertex> lowerCapVertices = new ArrayList<Vertex>(numberOfSides + 1);
-        ArrayList<Vertex> upperCapVertices = new ArrayList<Vertex>(numberOfSides + 1);
-        ArrayList<Vertex> upperEdgeVertices = new ArrayList<Vertex>(numberOfSides + 1);
-
-        // Generate vertices along the sides of the cylinder.
-        for (int side = 0; side <= numberOfSides; side++) {
-            float cosTheta = (float) Math.cos(theta);
-            float sinTheta = (float) Math.sin(theta);
-
-            // Calculate edge vertices along bottom of cylinder
-            Vector3 lowerPosition = new Vector3(radius * cosTheta, -halfHeight, radius * sinTheta);
-            Vector3 normal = new Vector3(lowerPosition.x, 0, lowerPosition.z).normalized();
-            lowerPosition = Vector3.add(lowerPosition, center);
-            Vertex.UvCoordinate uvCoordinate = new Vertex.UvCoordinate(uStep * side, 0);
-
-            Vertex vertex =
-                    Vertex.builder()
-                            .setPosition(lowerPosition)
-                            .setNormal(normal)
-                            .setUvCoordinate(uvCoordinate)
-                            .build();
-            vertices.add(vertex);
-
-            // Create a copy of lower vertex with bottom-facing normals for cap.
-            vertex =
-                    Vertex.builder()
-                            .setPosition(lowerPosition)
-                            .setNormal(Vector3.down())
-                            .setUvCoordinate(new Vertex.UvCoordinate((cosTheta + 1f) / 2, (sinTheta + 1f) / 2))
-                            .build();
-            lowerCapVertices.add(vertex);
-
-            // Calculate edge vertices along top of cylinder
-            Vector3 upperPosition = new Vector3(radius * cosTheta, halfHeight, radius * sinTheta);
-            normal = new Vector3(upperPosition.x, 0, upperPosition.z).normalized();
-            upperPosition = Vector3.add(upperPosition, center);
-            uvCoordinate = new Vertex.UvCoordinate(uStep * side, 1);
-
-            vertex =
-                    Vertex.builder()
-                            .setPosition(upperPosition)
-                            .setNormal(normal)
-                            .setUvCoordinate(uvCoordinate)
-                            .build();
-            upperEdgeVertices.add(vertex);
-
-            // Create a copy of upper vertex with up-facing normals for cap.
-            vertex =
-                    Vertex.builder()
-                            .setPosition(upperPosition)
-                            .setNormal(Vector3.up())
-                            .setUvCoordinate(new Vertex.UvCoordinate((cosTheta + 1f) / 2, (sinTheta + 1f) / 2))
-                            .build();
-            upperCapVertices.add(vertex);
-
-            theta += thetaIncrement;
-        }
-        vertices.addAll(upperEdgeVertices);
-
-        // Generate vertices for the centers of the caps of the cylinder.
-        final int lowerCenterIndex = vertices.size();
-        vertices.add(
-                Vertex.builder()
-                        .setPosition(Vector3.add(center, new Vector3(0, -halfHeight, 0)))
-                        .setNormal(Vector3.down())
-                        .setUvCoordinate(new Vertex.UvCoordinate(.5f, .5f))
-                        .build());
-        vertices.addAll(lowerCapVertices);
-
-        final int upperCenterIndex = vertices.size();
-        vertices.add(
-                Vertex.builder()
-                        .setPosition(Vector3.add(center, new Vector3(0, halfHeight, 0)))
-                        .setNormal(Vector3.up())
-                        .setUvCoordinate(new Vertex.UvCoordinate(.5f, .5f))
-                        .build());
-        vertices.addAll(upperCapVertices);
-
-        ArrayList<Integer> triangleIndices = new ArrayList<Integer>();
-
-        // Create triangles for each side
-        for (int side = 0; side < numberOfSides; side++) {
-            int bottomLeft = side;
-            int bottomRight = side + 1;
-            int topLeft = side + numberOfSides + 1;
-            int topRight = side + numberOfSides + 2;
-
-            // First triangle of side.
-            triangleIndices.add(bottomLeft);
-            triangleIndices.add(topRight);
-            triangleIndices.add(bottomRight);
-
-            // Second triangle of side.
-            triangleIndices.add(bottomLeft);
-            triangleIndices.add(topLeft);
-            triangleIndices.add(topRight);
-
-            // Add bottom cap triangle.
-            triangleIndices.add(lowerCenterIndex);
-            triangleIndices.add(lowerCenterIndex + side + 1);
-            triangleIndices.add(lowerCenterIndex + side + 2);
-
-            // Add top cap triangle.
-            triangleIndices.add(upperCenterIndex);
-            triangleIndices.add(upperCenterIndex + side + 2);
-            triangleIndices.add(upperCenterIndex + side + 1);
-        }
-
-        RenderableDefinition.SubGeometry subGeometry =
-                RenderableDefinition.SubGeometry.builder().setTriangleIndices(triangleIndices).setMaterial(material).build();
-
-        RenderableDefinition renderableDefinition =
-                RenderableDefinition.builder()
-                        .setVertices(vertices)
-                        .setSubGeometries(Arrays.asList(subGeometry))
-                        .build();
-
-        CompletableFuture<ModelRenderable> future =
-                ModelRenderable.builder().setSource(renderableDefinition).build();
-
-        ModelRenderable result;
-        try {
-            result = future.get();
-        } catch (ExecutionException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        } catch (InterruptedException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        }
-
-        if (result == null) {
-            throw new AssertionError("Error creating renderable.");
-        }
-
-        return result;
+        return buildRenderable(ShapeMeshes.cylinder(radius, height, center, 16).addSubGeometry(material));
     }
     /**
      * 创建立方体
@@ -198,113 +55,7 @@ public class GeometryUtils {
     @SuppressWarnings("AndroidApiChecker")
     public static ModelRenderable makeCube(Vector3 size, Vector3 center, Material material) {
         AndroidPreconditions.checkMinAndroidApiLevel();
-
-        Vector3 extents = size.scaled(0.5f);
-
-        Vector3 p0 = Vector3.add(center, new Vector3(-extents.x, -extents.y, extents.z));
-        Vector3 p1 = Vector3.add(center, new Vector3(extents.x, -extents.y, extents.z));
-        Vector3 p2 = Vector3.add(center, new Vector3(extents.x, -extents.y, -extents.z));
-        Vector3 p3 = Vector3.add(center, new Vector3(-extents.x, -extents.y, -extents.z));
-        Vector3 p4 = Vector3.add(center, new Vector3(-extents.x, extents.y, extents.z));
-        Vector3 p5 = Vector3.add(center, new Vector3(extents.x, extents.y, extents.z));
-        Vector3 p6 = Vector3.add(center, new Vector3(extents.x, extents.y, -extents.z));
-        Vector3 p7 = Vector3.add(center, new Vector3(-extents.x, extents.y, -extents.z));
-
-        Vector3 up = Vector3.up();
-        Vector3 down = Vector3.down();
-        Vector3 front = Vector3.forward();
-        Vector3 back = Vector3.back();
-        Vector3 left = Vector3.left();
-        Vector3 right = Vector3.right();
-
-        Vertex.UvCoordinate uv00 = new Vertex.UvCoordinate(0.0f, 0.0f);
-        Vertex.UvCoordinate uv10 = new Vertex.UvCoordinate(1.0f, 0.0f);
-        Vertex.UvCoordinate uv01 = new Vertex.UvCoordinate(0.0f, 1.0f);
-        Vertex.UvCoordinate uv11 = new Vertex.UvCoordinate(1.0f, 1.0f);
-
-        ArrayList<Vertex> vertices =
-                new ArrayList<Vertex>(
-                        Arrays.asList(
-                                // Bottom
-                                Vertex.builder().setPosition(p0).setNormal(down).setUvCoordinate(uv01).build(),
-                                Vertex.builder().setPosition(p1).setNormal(down).setUvCoordinate(uv11).build(),
-                                Vertex.builder().setPosition(p2).setNormal(down).setUvCoordinate(uv10).build(),
-                                Vertex.builder().setPosition(p3).setNormal(down).setUvCoordinate(uv00).build(),
-                                // Left
-                                Vertex.builder().setPosition(p7).setNormal(left).setUvCoordinate(uv01).build(),
-                                Vertex.builder().setPosition(p4).setNormal(left).setUvCoordinate(uv11).build(),
-                                Vertex.builder().setPosition(p0).setNormal(left).setUvCoordinate(uv10).build(),
-                                Vertex.builder().setPosition(p3).setNormal(left).setUvCoordinate(uv00).build(),
-                                // Front
-                                Vertex.builder().setPosition(p4).setNormal(front).setUvCoordinate(uv01).build(),
-                                Vertex.builder().setPosition(p5).setNormal(front).setUvCoordinate(uv11).build(),
-                                Vertex.builder().setPosition(p1).setNormal(front).setUvCoordinate(uv10).build(),
-                                Vertex.builder().setPosition(p0).setNormal(front).setUvCoordinate(uv00).build(),
-                                // Back
-                                Vertex.builder().setPosition(p6).setNormal(back).setUvCoordinate(uv01).build(),
-                                Vertex.builder().setPosition(p7).setNormal(back).setUvCoordinate(uv11).build(),
-                                Vertex.builder().setPosition(p3).setNormal(back).setUvCoordinate(uv10).build(),
-                                Vertex.builder().setPosition(p2).setNormal(back).setUvCoordinate(uv00).build(),
-                                // Right
-                                Vertex.builder().setPosition(p5).setNormal(right).setUvCoordinate(uv01).build(),
-                                Vertex.builder().setPosition(p6).setNormal(right).setUvCoordinate(uv11).build(),
-                                Vertex.builder().setPosition(p2).setNormal(right).setUvCoordinate(uv10).build(),
-                                Vertex.builder().setPosition(p1).setNormal(right).setUvCoordinate(uv00).build(),
-                                // Top
-                                Vertex.builder().setPosition(p7).setNormal(up).setUvCoordinate(uv01).build(),
-                                Vertex.builder().setPosition(p6).setNormal(up).setUvCoordinate(uv11).build(),
-                                Vertex.builder().setPosition(p5).setNormal(up).setUvCoordinate(uv10).build(),
-                                Vertex.builder().setPosition(p4).setNormal(up).setUvCoordinate(uv00).build()));
-
-        final int numSides = 6;
-        final int verticesPerSide = 4;
-        final int trianglesPerSide = 2;
-
-        ArrayList<Integer> triangleIndices =
-                new ArrayList<Integer>(numSides * trianglesPerSide * 6);
-        for (int i = 0; i < numSides; i++) {
-            // First triangle for this side.
-            triangleIndices.add(3 + verticesPerSide * i);
-            triangleIndices.add(1 + verticesPerSide * i);
-            triangleIndices.add(0 + verticesPerSide * i);
-
-            // Second triangle for this side.
-            triangleIndices.add(3 + verticesPerSide * i);
-            triangleIndices.add(2 + verticesPerSide * i);
-            triangleIndices.add(1 + verticesPerSide * i);
-        }
-
-        //backPolygon
-        for (int i = numSides * trianglesPerSide * 3 - 1; i > -1 ; i--) {
-            triangleIndices.add(triangleIndices.get(i));
-        }
-
-        RenderableDefinition.SubGeometry subGeometry =
-                RenderableDefinition.SubGeometry.builder().setTriangleIndices(triangleIndices).setMaterial(material).build();
-
-        RenderableDefinition renderableDefinition =
-                RenderableDefinition.builder()
-                        .setVertices(vertices)
-                        .setSubGeometries(Arrays.asList(subGeometry))
-                        .build();
-
-        CompletableFuture<ModelRenderable> future =
-                ModelRenderable.builder().setSource(renderableDefinition).build();
-
-        ModelRenderable result;
-        try {
-            result = future.get();
-        } catch (ExecutionException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        } catch (InterruptedException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        }
-
-        if (result == null) {
-            throw new AssertionError("Error creating renderable.");
-        }
-
-        return result;
+        return buildRenderable(ShapeMeshes.cube(size, center, true).addSubGeometry(material));
     }
 
 
@@ -318,98 +69,7 @@ public class GeometryUtils {
     @SuppressWarnings("AndroidApiChecker")
     public static ModelRenderable makeSphere(float radius, Vector3 center, Material material) {
         AndroidPreconditions.checkMinAndroidApiLevel();
-
-        final int stacks = 24;
-        final int slices = 24;
-
-        // 创建顶点组
-        ArrayList<Vertex> vertices = new ArrayList<Vertex>((slices + 1) * stacks + 2);
-        float pi = (float) Math.PI;
-        float doublePi = pi * 2.0f;
-
-        for (int stack = 0; stack <= stacks; stack++) {
-            float phi = pi * (float) stack / stacks;
-            float sinPhi = (float) Math.sin(phi);
-            float cosPhi = (float) Math.cos(phi);
-
-            for (int slice = 0; slice <= slices; slice++) {
-                float theta = doublePi * (float) (slice == slices ? 0 : slice) / slices;
-                float sinTheta = (float) Math.sin(theta);
-                float cosTheta = (float) Math.cos(theta);
-
-                Vector3 position = new Vector3(sinPhi * cosTheta, cosPhi, sinPhi * sinTheta).scaled(radius);
-                Vector3 normal = position.normalized();
-                position = Vector3.add(position, center);
-                Vertex.UvCoordinate uvCoordinate =
-                        new Vertex.UvCoordinate(
-                                1.0f - ((float) slice / slices), 1.0f - ((float) stack / stacks));
-
-                Vertex vertex =
-                        Vertex.builder()
-                                .setPosition(position)
-                                .setNormal(normal)
-                                .setUvCoordinate(uvCoordinate)
-                                .build();
-
-                vertices.add(vertex);
-            }
-        }
-
-        // 创建三角
-        int numFaces = vertices.size();
-        int numTriangles = numFaces * 2;
-        int numIndices = numTriangles * 3;
-        ArrayList<Integer> triangleIndices = new ArrayList<Integer>(numIndices);
-
-        int v = 0;
-        for (int stack = 0; stack < stacks; stack++) {
-            for (int slice = 0; slice < slices; slice++) {
-                // Skip triangles at the caps that would have an area of zero.
-                boolean topCap = stack == 0;
-                boolean bottomCap = stack == stacks - 1;
-
-                int next = slice + 1;
-
-                if (!topCap) {
-                    triangleIndices.add(v + slice);
-                    triangleIndices.add(v + next);
-                    triangleIndices.add(v + slice + slices + 1);
-                }
-
-                if (!bottomCap) {
-                    triangleIndices.add(v + next);
-                    triangleIndices.add(v + next + slices + 1);
-                    triangleIndices.add(v + slice + slices + 1);
-                }
-            }
-            v += slices + 1;
-        }
-
-        RenderableDefinition.SubGeometry subGeometry =
-                RenderableDefinition.SubGeometry.builder().setTriangleIndices(triangleIndices).setMaterial(material).build();
-        RenderableDefinition renderableDefinition =
-                RenderableDefinition.builder()
-                        .setVertices(vertices)
-                        .setSubGeometries(Arrays.asList(subGeometry))
-                        .build();
-
-        CompletableFuture<ModelRenderable> future =
-                ModelRenderable.builder().setSource(renderableDefinition).build();
-
-        ModelRenderable result;
-        try {
-            result = future.get();
-        } catch (ExecutionException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        }catch (InterruptedException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        }
-
-        if (result == null) {
-            throw new AssertionError("Error creating renderable.");
-        }
-
-        return result;
+        return buildRenderable(ShapeMeshes.sphere(radius, center, false).addSubGeometry(material));
     }
 
     /**
@@ -423,106 +83,7 @@ public class GeometryUtils {
     @SuppressWarnings("AndroidApiChecker")
     public static ModelRenderable makeInnerSphere(float radius, Vector3 center, Material material) {
         AndroidPreconditions.checkMinAndroidApiLevel();
-
-        final int stacks = 24;
-        final int slices = 24;
-
-        // 创建顶点组
-        ArrayList<Vertex> vertices = new ArrayList<Vertex>((slices + 1) * stacks + 2);
-        float pi = (float) Math.PI;
-        float doublePi = pi * 2.0f;
-
-        for (int stack = 0; stack <= stacks; stack++) {
-            float phi = pi * (float) stack / stacks;
-            float sinPhi = (float) Math.sin(phi);
-            float cosPhi = (float) Math.cos(phi);
-
-            for (int slice = 0; slice <= slices; slice++) {
-                float theta = doublePi * (float) (slice == slices ? 0 : slice) / slices;
-                float sinTheta = (float) Math.sin(theta);
-                float cosTheta = (float) Math.cos(theta);
-
-                Vector3 position = new Vector3(sinPhi * cosTheta, cosPhi, sinPhi * sinTheta).scaled(radius);
-                Vector3 normal = position.normalized();
-                position = Vector3.add(position, center);
-                Vertex.UvCoordinate uvCoordinate =
-                        new Vertex.UvCoordinate(
-                                1.0f - ((float) slice / slices), 1.0f - ((float) stack / stacks));
-
-                Vertex vertex =
-                        Vertex.builder()
-                                .setPosition(position)
-                                .setNormal(normal)
-                                .setUvCoordinate(uvCoordinate)
-                                .build();
-
-                vertices.add(vertex);
-            }
-        }
-
-        // 创建三角
-        int numFaces = vertices.size();
-        int numTriangles = numFaces * 2;
-        int numIndices = numTriangles * 3;
-        ArrayList<Integer> triangleIndices = new ArrayList<Integer>(numIndices);
-
-        int v = 0;
-        for (int stack = 0; stack < stacks; stack++) {
-            for (int slice = 0; slice < slices; slice++) {
-                // Skip triangles at the caps that would have an area of zero.
-                boolean topCap = stack == 0;
-                boolean bottomCap = stack == stacks - 1;
-
-                int next = slice + 1;
-
-                if (!topCap) {
-                    triangleIndices.add(v + slice);
-                    triangleIndices.add(v + next);
-                    triangleIndices.add(v + slice + slices + 1);
-                }
-
-                if (!bottomCap) {
-                    triangleIndices.add(v + next);
-                    triangleIndices.add(v + next + slices + 1);
-                    triangleIndices.add(v + slice + slices + 1);
-                }
-            }
-            v += slices + 1;
-        }
-
-        //desc-updated by tanyx 2021年11月16日18:12:03
-        ArrayList<Integer> innerTriangleIndices = new ArrayList<Integer>(numIndices);
-        for (int i = triangleIndices.size() - 1; i > 0 ; i--) {
-            innerTriangleIndices.add(triangleIndices.get(i));
-        }
-        RenderableDefinition.SubGeometry subGeometry =
-                RenderableDefinition.SubGeometry.builder()
-                        .setTriangleIndices(/*triangleIndices*/innerTriangleIndices)
-                        .setMaterial(material)
-                        .build();
-        RenderableDefinition renderableDefinition =
-                RenderableDefinition.builder()
-                        .setVertices(vertices)
-                        .setSubGeometries(Arrays.asList(subGeometry))
-                        .build();
-
-        CompletableFuture<ModelRenderable> future =
-                ModelRenderable.builder().setSource(renderableDefinition).build();
-
-        ModelRenderable result;
-        try {
-            result = future.get();
-        } catch (ExecutionException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        }catch (InterruptedException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        }
-
-        if (result == null) {
-            throw new AssertionError("Error creating renderable.");
-        }
-
-        return result;
+        return buildRenderable(ShapeMeshes.sphere(radius, center, true).addSubGeometry(material));
     }
 
     /**
@@ -539,50 +100,7 @@ public class GeometryUtils {
      */
     public static ModelRenderable makeQuad(Vector3 size, Vector3 center, Material material) {
         AndroidPreconditions.checkMinAndroidApiLevel();
-        Vector3 extents = size.scaled(0.5f);
-
-        Vector3 p0 = Vector3.add(center, new Vector3(-extents.x, -extents.y, 0));
-        Vector3 p1 = Vector3.add(center, new Vector3(extents.x, -extents.y, 0));
-        Vector3 p2 = Vector3.add(center, new Vector3(extents.x, extents.y, 0));
-        Vector3 p3 = Vector3.add(center, new Vector3(-extents.x, extents.y, 0));
-
-        Vector3 back = Vector3.back();
-        Vertex.UvCoordinate uv00 = new Vertex.UvCoordinate(0.0f, 0.0f);
-        Vertex.UvCoordinate uv10 = new Vertex.UvCoordinate(1.0f, 0.0f);
-        Vertex.UvCoordinate uv11 = new Vertex.UvCoordinate(1.0f, 1.0f);
-        Vertex.UvCoordinate uv01 = new Vertex.UvCoordinate(0.0f, 1.0f);
-
-        ArrayList<Vertex> vertices = new ArrayList<>(Arrays.asList(
-                Vertex.builder().setPosition(p0).setNormal(back).setUvCoordinate(uv00).build(),
-                Vertex.builder().setPosition(p1).setNormal(back).setUvCoordinate(uv10).build(),
-                Vertex.builder().setPosition(p2).setNormal(back).setUvCoordinate(uv11).build(),
-                Vertex.builder().setPosition(p3).setNormal(back).setUvCoordinate(uv01).build()));
-
-        //desc- 逆时针绕序使几何正面与顶点法向一致，均朝向 Z 轴正方向。
-        List<Integer> triangleIndices = Arrays.asList(0, 1, 2, 2, 3, 0);
-        RenderableDefinition.SubGeometry subGeometry = RenderableDefinition.SubGeometry.builder()
-                .setTriangleIndices(triangleIndices)
-                .setMaterial(material)
-                .build();
-        RenderableDefinition renderableDefinition = RenderableDefinition.builder()
-                .setVertices(vertices)
-                .setSubGeometries(Arrays.asList(subGeometry))
-                .build();
-
-        CompletableFuture<ModelRenderable> future = ModelRenderable.builder()
-                .setSource(renderableDefinition)
-                .build();
-        ModelRenderable result;
-        try {
-            result = future.get();
-        } catch (ExecutionException | InterruptedException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        }
-
-        if (result == null) {
-            throw new AssertionError("Error creating renderable.");
-        }
-        return result;
+        return buildRenderable(ShapeMeshes.quad(size, center).addSubGeometry(material));
     }
 
     /**
@@ -595,50 +113,7 @@ public class GeometryUtils {
      */
     public static ModelRenderable makePlane(Vector3 size, Vector3 center, Material material) {
         AndroidPreconditions.checkMinAndroidApiLevel();
-        Vector3 extents = size.scaled(0.5f);
-        Vector3 p0 = Vector3.add(center, new Vector3(-extents.x, 0, -extents.z));
-        Vector3 p1 = Vector3.add(center, new Vector3(-extents.x, 0, extents.z));
-        Vector3 p2 = Vector3.add(center, new Vector3(extents.x, 0, extents.z));
-        Vector3 p3 = Vector3.add(center, new Vector3(extents.x, 0, -extents.z));
-
-        //法向量
-        Vector3 up = Vector3.up();
-        Vertex.UvCoordinate uv00 = new Vertex.UvCoordinate(0.0f, 0.0f);
-        Vertex.UvCoordinate uv10 = new Vertex.UvCoordinate(1.0f, 0.0f);
-        Vertex.UvCoordinate uv01 = new Vertex.UvCoordinate(0.0f, 1.0f);
-        Vertex.UvCoordinate uv11 = new Vertex.UvCoordinate(1.0f, 1.0f);
-
-        ArrayList<Vertex> vertices =
-                new ArrayList<Vertex>(
-                        Arrays.asList(Vertex.builder().setPosition(p0).setNormal(up).setUvCoordinate(uv01).build(),
-                                Vertex.builder().setPosition(p1).setNormal(up).setUvCoordinate(uv11).build(),
-                                Vertex.builder().setPosition(p2).setNormal(up).setUvCoordinate(uv10).build(),
-                                Vertex.builder().setPosition(p3).setNormal(up).setUvCoordinate(uv00).build()));
-
-        List<Integer> triangleIndices = Arrays.asList(0, 1, 2, 2, 3, 0);
-        RenderableDefinition.SubGeometry subGeometry =
-                RenderableDefinition.SubGeometry.builder().setTriangleIndices(triangleIndices).setMaterial(material).build();
-
-        RenderableDefinition renderableDefinition =
-                RenderableDefinition.builder()
-                        .setVertices(vertices)
-                        .setSubGeometries(Arrays.asList(subGeometry))
-                        .build();
-        CompletableFuture<ModelRenderable> future =
-                ModelRenderable.builder().setSource(renderableDefinition).build();
-
-        ModelRenderable result;
-        try {
-            result = future.get();
-        } catch (ExecutionException | InterruptedException ex) {
-            throw new AssertionError("Error creating renderable.", ex);
-        }
-
-        if (result == null) {
-            throw new AssertionError("Error creating renderable.");
-        }
-
-        return result;
+        return buildRenderable(ShapeMeshes.plane(size, center).addSubGeometry(material));
     }
 
 
@@ -662,9 +137,9 @@ public class GeometryUtils {
     public static ModelRenderable makePoints(List<Vector3> vertexPositions, Material material) {
         validateVertexPositions(vertexPositions, 1, "POINTS");
         return buildPrimitiveRenderable(
-                createPositionVertices(vertexPositions),
-                createSequentialIndices(vertexPositions.size()),
-                RenderableManager.PrimitiveType.POINTS,
+                RenderableDefinitionPacked.builder()
+                        .setPositions(toPositionArray(vertexPositions))
+                        .setPrimitiveType(RenderableManager.PrimitiveType.POINTS),
                 material);
     }
 
@@ -692,16 +167,12 @@ public class GeometryUtils {
         if ((vertexPositions.size() & 1) != 0) {
             throw new IllegalArgumentException("LINES requires an even number of vertex positions.");
         }
-        PrimitiveGeometryData geometry = new PrimitiveGeometryData();
+        PrimitiveGeometryData geometry = new PrimitiveGeometryData(vertexPositions.size() / 2);
         for (int index = 0; index < vertexPositions.size(); index += 2) {
             addWideLineSegment(
                     geometry, vertexPositions.get(index), vertexPositions.get(index + 1));
         }
-        return buildPrimitiveRenderable(
-                geometry.vertices,
-                geometry.indices,
-                RenderableManager.PrimitiveType.TRIANGLES,
-                material);
+        return buildPrimitiveRenderable(geometry.toBuilder(), material);
     }
 
     /**
@@ -726,16 +197,12 @@ public class GeometryUtils {
     public static ModelRenderable makeLineStrip(
             List<Vector3> vertexPositions, Material material) {
         validateVertexPositions(vertexPositions, 2, "LINE_STRIP");
-        PrimitiveGeometryData geometry = new PrimitiveGeometryData();
+        PrimitiveGeometryData geometry = new PrimitiveGeometryData(vertexPositions.size() - 1);
         for (int index = 0; index + 1 < vertexPositions.size(); index++) {
             addWideLineSegment(
                     geometry, vertexPositions.get(index), vertexPositions.get(index + 1));
         }
-        return buildPrimitiveRenderable(
-                geometry.vertices,
-                geometry.indices,
-                RenderableManager.PrimitiveType.TRIANGLES,
-                material);
+        return buildPrimitiveRenderable(geometry.toBuilder(), material);
     }
 
     /**
@@ -762,11 +229,13 @@ public class GeometryUtils {
             throw new IllegalArgumentException(
                     "TRIANGLES requires a multiple of three vertex positions.");
         }
-        List<Vector3> normals = createTriangleNormals(vertexPositions, false);
+        float[] positions = toPositionArray(vertexPositions);
         return buildPrimitiveRenderable(
-                createSurfaceVertices(vertexPositions, normals),
-                createSequentialIndices(vertexPositions.size()),
-                RenderableManager.PrimitiveType.TRIANGLES,
+                RenderableDefinitionPacked.builder()
+                        .setPositions(positions)
+                        .setNormals(createTriangleNormals(positions, false))
+                        .setUvs(createPlanarUvCoordinates(positions))
+                        .setPrimitiveType(RenderableManager.PrimitiveType.TRIANGLES),
                 material);
     }
 
@@ -793,11 +262,13 @@ public class GeometryUtils {
     public static ModelRenderable makeTriangleStrip(
             List<Vector3> vertexPositions, Material material) {
         validateVertexPositions(vertexPositions, 3, "TRIANGLE_STRIP");
-        List<Vector3> normals = createTriangleNormals(vertexPositions, true);
+        float[] positions = toPositionArray(vertexPositions);
         return buildPrimitiveRenderable(
-                createSurfaceVertices(vertexPositions, normals),
-                createSequentialIndices(vertexPositions.size()),
-                RenderableManager.PrimitiveType.TRIANGLE_STRIP,
+                RenderableDefinitionPacked.builder()
+                        .setPositions(positions)
+                        .setNormals(createTriangleNormals(positions, true))
+                        .setUvs(createPlanarUvCoordinates(positions))
+                        .setPrimitiveType(RenderableManager.PrimitiveType.TRIANGLE_STRIP),
                 material);
     }
 
@@ -816,22 +287,16 @@ public class GeometryUtils {
         }
     }
 
-    /** 将空间坐标转换为仅包含位置属性的顶点。 */
-    private static List<Vertex> createPositionVertices(List<Vector3> vertexPositions) {
-        List<Vertex> vertices = new ArrayList<>(vertexPositions.size());
-        for (Vector3 position : vertexPositions) {
-            vertices.add(Vertex.builder().setPosition(position).build());
-        }
-        return vertices;
-    }
-
-    /** 为顶点创建从 0 开始的一一对应索引。 */
-    private static List<Integer> createSequentialIndices(int vertexCount) {
-        List<Integer> indices = new ArrayList<>(vertexCount);
-        for (int index = 0; index < vertexCount; index++) {
-            indices.add(index);
+    /** 将空间坐标写入连续数组。 */
+    private static float[] toPositionArray(List<Vector3> vertexPositions) {
+        float[] positions = new float[vertexPositions.size() * 3];
+        for (int index = 0; index < vertexPositions.size(); index++) {
+            Vector3 position = vertexPositions.get(index);
+            positions[index * 3] = position.x;
+            positions[index * 3 + 1] = position.y;
+            positions[index * 3 + 2] = position.z;
         }
-        return indices;
+        return positions;
     }
 
     /** 添加一条由两个三角形组成的屏幕空间宽线段。 */
@@ -841,18 +306,21 @@ public class GeometryUtils {
             //"Line segment endpoints must not overlap."
             return;
         }
-        int baseIndex = geometry.vertices.size();
+        int baseIndex = geometry.vertexCount;
         addWideLineVertex(geometry, start, end, 1.0f);
         addWideLineVertex(geometry, start, end, -1.0f);
         addWideLineVertex(geometry, end, start, -1.0f);
         addWideLineVertex(geometry, end, start, 1.0f);
 
-        geometry.indices.add(baseIndex);
-        geometry.indices.add(baseIndex + 1);
-        geometry.indices.add(baseIndex + 2);
-        geometry.indices.add(baseIndex + 2);
-        geometry.indices.add(baseIndex + 1);
-        geometry.indices.add(baseIndex + 3);
+        int[] indices = geometry.indices;
+        int index = geometry.indexCount;
+        indices[index] = baseIndex;
+        indices[index + 1] = baseIndex + 1;
+        indices[index + 2] = baseIndex + 2;
+        indices[index + 3] = baseIndex + 2;
+        indices[index + 4] = baseIndex + 1;
+        indices[index + 5] = baseIndex + 3;
+        geometry.indexCount += 6;
     }
 
     /** 添加宽线材质要求的位置、颜色和 CUSTOM0 顶点属性。 */
@@ -861,23 +329,27 @@ public class GeometryUtils {
             Vector3 position,
             Vector3 otherEndpoint,
             float side) {
-        geometry.vertices.add(Vertex.builder()
-                .setPosition(position)
-                .setColor(WHITE_VERTEX_COLOR)
-                .setCustom0(new Vertex.Float4(
-                        otherEndpoint.x, otherEndpoint.y, otherEndpoint.z, side))
-                .build());
+        int vertex = geometry.vertexCount++;
+        geometry.positions[vertex * 3] = position.x;
+        geometry.positions[vertex * 3 + 1] = position.y;
+        geometry.positions[vertex * 3 + 2] = position.z;
+        geometry.colors[vertex * 4] = WHITE_VERTEX_COLOR.r;
+        geometry.colors[vertex * 4 + 1] = WHITE_VERTEX_COLOR.g;
+        geometry.colors[vertex * 4 + 2] = WHITE_VERTEX_COLOR.b;
+        geometry.colors[vertex * 4 + 3] = WHITE_VERTEX_COLOR.a;
+        geometry.custom0[vertex * 4] = otherEndpoint.x;
+        geometry.custom0[vertex * 4 + 1] = otherEndpoint.y;
+        geometry.custom0[vertex * 4 + 2] = otherEndpoint.z;
+        geometry.custom0[vertex * 4 + 3] = side;
     }
 
     /** 计算独立三角形或三角带的逐顶点法线。 */
-    private static List<Vector3> createTriangleNormals(
-            List<Vector3> positions, boolean triangleStrip) {
-        List<Vector3> normals = new ArrayList<>(positions.size());
-        for (int index = 0; index < positions.size(); index++) {
-            normals.add(Vector3.zero());
-        }
+    private static float[] createTriangleNormals(float[] positions, boolean triangleStrip) {
+        int vertexCount = positions.length / 3;
+        float[] normals = new float[positions.length];
+        float[] edges = new float[9];
 
-        int triangleCount = triangleStrip ? positions.size() - 2 : positions.size() / 3;
+        int triangleCount = triangleStrip ? vertexCount - 2 : vertexCount / 3;
         for (int triangle = 0; triangle < triangleCount; triangle++) {
             int first = triangleStrip ? triangle : triangle * 3;
             int second = first + 1;
@@ -888,53 +360,34 @@ public class GeometryUtils {
                 first = second;
                 second = swap;
             }
-            Vector3 edge1 = Vector3.subtract(positions.get(second), positions.get(first));
-            Vector3 edge2 = Vector3.subtract(positions.get(third), positions.get(first));
-            Vector3 faceNormal = Vector3.cross(edge1, edge2);
-            if (faceNormal.lengthSquared() <= DEGENERATE_EPSILON) {
+            MathKernel.vec3Subtract(positions, second * 3, positions, first * 3, edges, 0);
+            MathKernel.vec3Subtract(positions, third * 3, positions, first * 3, edges, 3);
+            MathKernel.vec3Cross(edges, 0, edges, 3, edges, 6);
+            if (MathKernel.vec3Dot(edges, 6, edges, 6) <= DEGENERATE_EPSILON) {
                 continue;
             }
-            normals.set(first, Vector3.add(normals.get(first), faceNormal));
-            normals.set(second, Vector3.add(normals.get(second), faceNormal));
-            normals.set(third, Vector3.add(normals.get(third), faceNormal));
+            MathKernel.vec3Add(normals, first * 3, edges, 6, normals, first * 3);
+            MathKernel.vec3Add(normals, second * 3, edges, 6, normals, second * 3);
+            MathKernel.vec3Add(normals, third * 3, edges, 6, normals, third * 3);
         }
 
-        for (int index = 0; index < normals.size(); index++) {
-            normals.set(index, normals.get(index).normalized());
+        for (int index = 0; index < vertexCount; index++) {
+            MathKernel.vec3Normalize(normals, index * 3, normals, index * 3);
         }
         return normals;
     }
 
-    /** 创建带自动法线和平面 UV 的表面顶点。 */
-    private static List<Vertex> createSurfaceVertices(
-            List<Vector3> positions, List<Vector3> normals) {
-        List<Vertex.UvCoordinate> uvCoordinates = createPlanarUvCoordinates(positions);
-        List<Vertex> vertices = new ArrayList<>(positions.size());
-        for (int index = 0; index < positions.size(); index++) {
-            vertices.add(Vertex.builder()
-                    .setPosition(positions.get(index))
-                    .setNormal(normals.get(index))
-                    .setUvCoordinate(uvCoordinates.get(index))
-                    .build());
-        }
-        return vertices;
-    }
-
     /** 根据坐标跨度最大的两个轴生成平面 UV。 */
-    private static List<Vertex.UvCoordinate> createPlanarUvCoordinates(List<Vector3> positions) {
-        float[] minimum = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
-        float[] maximum = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
-        for (Vector3 position : positions) {
-            float[] values = {position.x, position.y, position.z};
-            for (int axis = 0; axis < 3; axis++) {
-                minimum[axis] = Math.min(minimum[axis], values[axis]);
-                maximum[axis] = Math.max(maximum[axis], values[axis]);
-            }
-        }
+    private static float[] createPlanarUvCoordinates(float[] positions) {
+        int vertexCount = positions.length / 3;
+        float[] bounds = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        MathKernel.vec3Bounds(positions, 0, vertexCount, bounds, 0);
         float[] ranges = {
-                maximum[0] - minimum[0],
-                maximum[1] - minimum[1],
-                maximum[2] - minimum[2]
+                bounds[3] - bounds[0],
+                bounds[4] - bounds[1],
+                bounds[5] - bounds[2]
         };
         int uAxis = 0;
         for (int axis = 1; axis < 3; axis++) {
@@ -949,60 +402,73 @@ public class GeometryUtils {
             }
         }
 
-        List<Vertex.UvCoordinate> result = new ArrayList<>(positions.size());
-        for (Vector3 position : positions) {
-            float[] values = {position.x, position.y, position.z};
-            float u = ranges[uAxis] > 0.0f
-                    ? (values[uAxis] - minimum[uAxis]) / ranges[uAxis]
+        float[] result = new float[vertexCount * 2];
+        for (int index = 0; index < vertexCount; index++) {
+            result[index * 2] = ranges[uAxis] > 0.0f
+                    ? (positions[index * 3 + uAxis] - bounds[uAxis]) / ranges[uAxis]
                     : 0.5f;
-            float v = ranges[vAxis] > 0.0f
-                    ? (values[vAxis] - minimum[vAxis]) / ranges[vAxis]
+            result[index * 2 + 1] = ranges[vAxis] > 0.0f
+                    ? (positions[index * 3 + vAxis] - bounds[vAxis]) / ranges[vAxis]
                     : 0.5f;
-            result.add(new Vertex.UvCoordinate(u, v));
         }
         return result;
     }
 
     /** 构建指定拓扑的动态 ModelRenderable。 */
     private static ModelRenderable buildPrimitiveRenderable(
-            List<Vertex> vertices,
-            List<Integer> indices,
-            RenderableManager.PrimitiveType primitiveType,
+            RenderableDefinitionPacked.Builder builder,
             Material material) {
         AndroidPreconditions.checkMinAndroidApiLevel();
         if (material == null) {
             throw new IllegalArgumentException("Primitive material must not be null.");
         }
-        RenderableDefinition.SubGeometry subGeometry = RenderableDefinition.SubGeometry.builder()
-                .setTriangleIndices(indices)
-                .setMaterial(material)
-                .build();
-        RenderableDefinition definition = RenderableDefinition.builder()
-                .setVertices(vertices)
-                .setSubGeometries(Collections.singletonList(subGeometry))
-                .setPrimitiveType(primitiveType)
-                .build();
+        return buildRenderable(builder.addSubGeometry(material));
+    }
+
+    /** 打包顶点数据并同步创建 ModelRenderable。 */
+    private static ModelRenderable buildRenderable(RenderableDefinitionPacked.Builder builder) {
         CompletableFuture<ModelRenderable> future = ModelRenderable.builder()
-                .setSource(definition)
+                .setSource(builder.build())
                 .build();
         try {
             ModelRenderable renderable = future.get();
             if (renderable == null) {
-                throw new AssertionError("Error creating primitive renderable.");
+                throw new AssertionError("Error creating renderable.");
             }
             return renderable;
         } catch (ExecutionException exception) {
-            throw new AssertionError("Error creating primitive renderable.", exception);
+            throw new AssertionError("Error creating renderable.", exception);
         } catch (InterruptedException exception) {
             Thread.currentThread().interrupt();
-            throw new AssertionError("Interrupted while creating primitive renderable.", exception);
+            throw new AssertionError("Interrupted while creating renderable.", exception);
         }
     }
 
-    /** 基本图元构建过程使用的顶点与索引容器。 */
+    /** 宽线构建过程使用的顶点属性与索引数组，按线段数量分配。 */
     private static final class PrimitiveGeometryData {
-        final List<Vertex> vertices = new ArrayList<>();
-        final List<Integer> indices = new ArrayList<>();
+        final float[] positions;
+        final float[] colors;
+        final float[] custom0;
+        final int[] indices;
+        int vertexCount;
+        int indexCount;
+
+        PrimitiveGeometryData(int segmentCount) {
+            positions = new float[segmentCount * 4 * 3];
+            colors = new float[segmentCount * 4 * 4];
+            custom0 = new float[segmentCount * 4 * 4];
+            indices = new int[segmentCount * 6];
+        }
+
+        /** 零长度线段被跳过时截取已写入的部分。 */
+        RenderableDefinitionPacked.Builder toBuilder() {
+            return RenderableDefinitionPacked.builder()
+                    .setPositions(FloatBuffer.wrap(positions, 0, vertexCount * 3))
+                    .setColors(FloatBuffer.wrap(colors, 0, vertexCount * 4))
+                    .setCustom0(FloatBuffer.wrap(custom0, 0, vertexCount * 4))
+                    .setIndices(IntBuffer.wrap(indices, 0, indexCount))
+                    .setPrimitiveType(RenderableManager.PrimitiveType.TRIANGLES);
+        }
     }
 
 }
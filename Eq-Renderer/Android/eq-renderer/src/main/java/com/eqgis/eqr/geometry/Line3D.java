@@ -5,9 +5,12 @@ import com.google.sceneform.Node;
 import com.google.sceneform.math.Vector3;
 import com.google.sceneform.rendering.Material;
 import com.google.sceneform.rendering.ModelRenderable;
+import com.google.sceneform.rendering.RenderableDefinition;
+import com.google.sceneform.rendering.RenderableDefinitionDynamic;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
@@ -23,6 +26,17 @@ import java.util.function.Consumer;
  * </code>
  **/
 public class Line3D extends Node{
+    /**
+     * 网格直接写入direct缓冲区，不创建{@link com.google.sceneform.rendering.Vertex}对象
+     * <p>关闭后使用{@link Line3dNative}生成顶点列表</p>
+     */
+    public static boolean DIRECT_BUFFER_MESH = true;
+
+    /**
+     * 追加模式：点集只追加时，刷新只生成新增的管段并上传修改的区间
+     * <p>需开启{@link #DIRECT_BUFFER_MESH}，仅支持{@link Line3DPipePointMode#ORIGINAL}与纹理模式1、2，其他情况全量刷新</p>
+     */
+    public static boolean INCREMENTAL_REFRESH = true;
 
     private Line3dNative line3dNative;
     //点集
@@ -44,6 +58,14 @@ public class Line3D extends Node{
     private int textureMode = 1;
 
     private Line3DPipePointMode pipePointMode = Line3DPipePointMode.ORIGINAL;
+
+    //直接写入缓冲区的网格
+    private RenderableDefinitionDynamic pipeDefinition;
+    private PipeMeshBuilder pipeMeshBuilder;
+    private PipeMeshBuilder.RingTable ringTable;
+    //已构建的点集及其最后一个点，用于判断点集是否只是追加
+    private List<Vector3> builtPointList;
+    private final Vector3 lastBuiltPoint = new Vector3();
     //debug
 //    public Vector3[] meshPoint;
 
@@ -123,6 +145,13 @@ public class Line3D extends Node{
         if (disposed) {
             return;
         }
+        if (DIRECT_BUFFER_MESH) {
+            refreshDirect();
+            return;
+        }
+        //顶点列表刷新后，缓冲区网格需全量构建
+        pipeMeshBuilder = null;
+
         Vector3[] ps;
         synchronized (this){
             ps = new Vector3[points.size()];
@@ -191,12 +220,131 @@ public class Line3D extends Node{
                 init = true;
             }
         }else {
-            line3dNative.refreshMesh(lastRenderable);
+            line3dNative.refreshMesh(lastRenderable, material);
         }
 
 //        Log.d("IKKYU", "build: " +lastRenderable.toString() + " getSubGeometryCount: " + lastRenderable.getSubGeometryCount());
     }
 
+    /**
+     * 直接写入缓冲区刷新
+     * <p>开启追加模式且点集只是追加时，只生成新增的点；点集被替换、变短或最后一个已构建的点被修改时，全量构建</p>
+     */
+    private void refreshDirect(){
+        boolean append;
+        Vector3[] ps;
+        synchronized (this){
+            int size = points.size();
+            if (size < 2){
+                //点个数不够
+                return;
+            }
+            int builtCount = pipeMeshBuilder == null ? 0 : pipeMeshBuilder.getPointCount();
+            append = INCREMENTAL_REFRESH
+                    && pipeMeshBuilder != null
+                    && pipeMeshBuilder.isAppendable()
+                    && builtPointList == points
+                    && builtCount > 0
+                    && size >= builtCount
+                    && isSamePoint(points.get(builtCount - 1), lastBuiltPoint);
+            ps = copyPoints(append ? builtCount : 0);
+            builtPointList = points;
+        }
+        if (ps.length == 0){
+            return;
+        }
+
+        if (pipeMeshBuilder == null){
+            if (ringTable == null || ringTable.edgeNum != edgeNum){
+                ringTable = new PipeMeshBuilder.RingTable(edgeNum);
+            }
+            if (pipeDefinition == null){
+                pipeDefinition = new RenderableDefinitionDynamic(0, 0);
+            }
+            pipeMeshBuilder = new PipeMeshBuilder(pipeDefinition, ringTable, radius, textureMode);
+        }
+
+        if (append){
+            for (Vector3 p : ps) {
+                if (!pipeMeshBuilder.append(p)){
+                    //重复点等情况需全量构建过滤
+                    append = false;
+                    break;
+                }
+            }
+            if (!append){
+                synchronized (this){
+                    ps = copyPoints(0);
+                }
+            }
+        }
+        if (!append && !pipeMeshBuilder.build(ps, pipePointMode)){
+            return;
+        }
+        lastBuiltPoint.set(ps[ps.length - 1]);
+
+        if (lastRenderable == null){
+            if (!init){//避免多次创建renderable对象，在创建renderer对象期间，跳过渲染
+                setPipeMaterial();
+                CompletableFuture<ModelRenderable> renderableCompletableFuture =
+                        ModelRenderable.builder().setSource(pipeDefinition).build();
+                renderableCompletableFuture.thenAccept(new Consumer<ModelRenderable>() {
+                    @Override
+                    public void accept(ModelRenderable e) {
+                        if (disposed) {
+                            return;
+                        }
+                        e.setShadowCaster(false);
+                        e.setShadowReceiver(false);
+                        Line3D.this.setRenderable(e);
+                        lastRenderable = e;
+                    }
+                });
+                init = true;
+            }
+        }else {
+            if (pipeDefinition.getSubGeometries().isEmpty()){
+                //渲染对象由顶点列表创建
+                setPipeMaterial();
+            }
+            lastRenderable.updateFromDefinition(pipeDefinition);
+        }
+    }
+
+    /**
+     * 设置缓冲区网格的材质，索引由{@link PipeMeshBuilder}写入，子几何只提供材质
+     */
+    private void setPipeMaterial(){
+        pipeDefinition.setSubGeometries(Collections.singletonList(
+                RenderableDefinition.SubGeometry.builder()
+                        .setTriangleIndices(Collections.<Integer>emptyList())
+                        .setMaterial(material)
+                        .build()));
+    }
+
+    /**
+     * 复制点集，需在同步块中调用
+     * @param from 起始序号
+     */
+    private Vector3[] copyPoints(int from){
+        Vector3[] ps = new Vector3[points.size() - from];
+        for (int i = 0; i < ps.length; i++) {
+            ps[i] = points.get(from + i);
+        }
+        return ps;
+    }
+
+    private static boolean isSamePoint(Vector3 a, Vector3 b){
+        return a.x == b.x && a.y == b.y && a.z == b.z;
+    }
+
+    /**
+     * 参数修改后，缓冲区网格需全量构建
+     */
+    private void invalidateMesh(){
+        pipeMeshBuilder = null;
+    }
+
     //<editor-fold> set and get方法
 
     /**
@@ -224,6 +372,7 @@ public class Line3D extends Node{
      */
     public Line3D setRadius(float radius) {
         this.radius = radius;
+        invalidateMesh();
         return this;
     }
 
@@ -235,6 +384,7 @@ public class Line3D extends Node{
      */
     public Line3D setEdgeNum(int edgeNum) {
         this.edgeNum = edgeNum;
+        invalidateMesh();
         return this;
     }
 
@@ -245,6 +395,7 @@ public class Line3D extends Node{
      */
     public Line3D setTextureMode(int model){
         this.textureMode = model;
+        invalidateMesh();
         return this;
     }
 
@@ -259,6 +410,7 @@ public class Line3D extends Node{
      */
     public Line3D setPipePointMode(Line3DPipePointMode pipePointMode) {
         this.pipePointMode = Objects.requireNonNull(pipePointMode, "pipePointMode");
+        invalidateMesh();
         return this;
     }
 
@@ -284,6 +436,9 @@ public class Line3D extends Node{
         lastRenderable = null;
         material = null;
         line3dNative = null;
+        pipeMeshBuilder = null;
+        pipeDefinition = null;
+        ringTable = null;
     }
 
     //</editor-fold>
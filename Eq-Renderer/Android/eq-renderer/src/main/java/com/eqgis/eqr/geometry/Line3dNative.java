@@ -550,6 +550,14 @@ class Line3dNative {
         }
     }
 
+    /**
+     * 获取最近一次生成的顶点
+     * @return 顶点列表，未生成时为null
+     */
+    List<Vertex> getVertices() {
+        return m_Vertices;
+    }
+
     /**
      * 生成渲染对象
      * @param material 材质
@@ -573,9 +581,20 @@ class Line3dNative {
     /**
      * 更新Mesh
      * @param modelRenderable 渲染对象
+     * @param material 材质，渲染对象不是由{@link #makeRenderable(Material)}创建时使用
      */
-    void refreshMesh(ModelRenderable modelRenderable){
+    void refreshMesh(ModelRenderable modelRenderable, Material material){
         if (modelRenderable == null)return;
+        if (renderableDefinition == null){
+            //渲染对象由追加模式创建
+            subGeometry =
+                    RenderableDefinition.SubGeometry.builder().setTriangleIndices(m_Triangles).setMaterial(material).build();
+            renderableDefinition =
+                    RenderableDefinition.builder()
+                            .setVertices(m_Vertices)
+                            .setSubGeometries(Arrays.asList(subGeometry))
+                            .build();
+        }
         subGeometry.setTriangleIndices(m_Triangles);
 
         renderableDefinition.setVertices(m_Vertices);
@@ -0,0 +1,522 @@
+package com.eqgis.eqr.geometry;
+
+import com.google.sceneform.math.Quaternion;
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.rendering.RenderableDefinitionDynamic;
+
+/**
+ * 管线网格构建
+ * <p>
+ *     顶点直接写入{@link RenderableDefinitionDynamic}的direct缓冲区，截面圆的sin/cos由{@link RingTable}预先计算，
+ *     构建过程中不创建临时对象。截面圆与{@link Line3dNative}计算的结果一致，仅顶点与索引的排列顺序不同。
+ * </p>
+ * <p>
+ *     {@link #build}全量构建，支持全部纹理模式与管线点计算模式；
+ *     {@link #append}逐点追加，只生成新增管段的截面圆，并按拐点方向重写上一个截面圆与终点截面，
+ *     上传时只上传修改的区间。追加仅支持{@link Line3DPipePointMode#ORIGINAL}与纹理模式1、2，
+ *     模式0、SIN_RESAMPLE的纹理或半径依赖管线总长度，需全量构建。
+ * </p>
+ * <pre>
+ *     顶点：[起点截面][终点截面][截面圆...]
+ *     索引：[起点截面][终点截面][管壁...]
+ * </pre>
+ * @author tanyx
+ */
+class PipeMeshBuilder {
+    //与Line3dNative#addPipePoints相同的方向向量过滤阈值
+    private static final float MIN_DIRECTION_LENGTH = 0.000001f;
+    private static final Vector3 FORWARD = Vector3.forward();
+
+    /**
+     * 截面圆的sin/cos表，弧段数不变时可复用
+     */
+    static final class RingTable {
+        final int edgeNum;
+        //弧上顶点数，首尾顶点重合
+        final int circularCount;
+        final float uStep;
+        final float[] cos;
+        final float[] sin;
+
+        RingTable(int edgeNum) {
+            this.edgeNum = edgeNum;
+            circularCount = edgeNum + 1;
+            uStep = (float) 1.0 / (circularCount - 1);
+            cos = new float[circularCount];
+            sin = new float[circularCount];
+            //与Line3dNative相同，角度按float累加
+            float thetaIncrement = (float) (2 * Math.PI) / edgeNum;
+            float theta = 0;
+            for (int j = 0; j < circularCount; j++) {
+                cos[j] = (float) Math.cos(theta);
+                sin[j] = (float) Math.sin(theta);
+                theta += thetaIncrement;
+            }
+        }
+    }
+
+    private final RenderableDefinitionDynamic definition;
+    private final RingTable ringTable;
+    private final int textureMode;
+    private final float radius;
+    //纹理模式1、2的参考长度
+    private final float refLength;
+
+    private final int circularCount;
+    private final int capVertexCount;
+    private final int capIndexCount;
+    private final int quadIndexCount;
+
+    //追加模式：已追加的源点数量，全量构建后不可追加
+    private boolean appendable;
+    private int pointCount;
+    private final Vector3 prevPoint = new Vector3();
+    private final Vector3 lastPoint = new Vector3();
+
+    private int ringCount;
+    //最后一个截面圆的纵向纹理坐标，拐点方向变化时重写该截面圆
+    private float lastRingV;
+
+    //纹理模式1：跨管段累计的距离与当前纵向纹理坐标
+    private float dis;
+    private float currentUvY;
+    //纹理模式2：当前纹理段内的距离与方向
+    private float currentDistance;
+    private boolean forward;
+
+    //全量构建的管线点(位置、方向、半径)
+    private float[] pipePositions = new float[0];
+    private float[] pipeDirections = new float[0];
+    private float[] pipeRadii = new float[0];
+    private int pipePointCount;
+
+    //复用的临时对象
+    private final Quaternion ringRotation = new Quaternion();
+    private final Vector3 arc = new Vector3();
+    private final Vector3 src = new Vector3();
+    private final Vector3 direction = new Vector3();
+    private final Vector3 normalizedDirection = new Vector3();
+    private final Vector3 segment = new Vector3();
+    private final Vector3 position = new Vector3();
+    private final Vector3 offset = new Vector3();
+    private final Vector3 ab = new Vector3();
+    private final Vector3 bc = new Vector3();
+    private final Vector3 pipePosition = new Vector3();
+    private final Vector3 pipeDirection = new Vector3();
+    private final Vector3 nextPipePosition = new Vector3();
+    private final Vector3 nextPipeDirection = new Vector3();
+
+    /**
+     * 构造函数
+     * @param definition 写入的渲染对象定义
+     * @param ringTable 截面圆的sin/cos表
+     * @param radius 截面圆半径
+     * @param textureMode 纹理模式，0、1或2
+     */
+    PipeMeshBuilder(RenderableDefinitionDynamic definition, RingTable ringTable, float radius, int textureMode) {
+        if (textureMode < 0 || textureMode > 2) {
+            throw new IllegalArgumentException("Unsupported texture mode: " + textureMode);
+        }
+        this.definition = definition;
+        this.ringTable = ringTable;
+        this.textureMode = textureMode;
+        this.radius = radius;
+        this.refLength = (float) (Math.PI * 2 * radius);
+
+        circularCount = ringTable.circularCount;
+        capVertexCount = circularCount + 1;
+        capIndexCount = 3 * (circularCount - 1);
+        quadIndexCount = 6 * (circularCount - 1);
+    }
+
+    RenderableDefinitionDynamic getDefinition() {
+        return definition;
+    }
+
+    RingTable getRingTable() {
+        return ringTable;
+    }
+
+    /** @return 是否可继续追加 */
+    boolean isAppendable() {
+        return appendable;
+    }
+
+    /** @return 已追加的源点数量 */
+    int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * 清空网格，重新开始追加
+     * @param expectedPointCount 预计的点数，用于预留容量
+     */
+    void reset(int expectedPointCount) {
+        //纹理模式1每个管段至少两个截面圆
+        int ringsPerPoint = textureMode == 1 ? 2 : 1;
+        int expectedRings = Math.max(2, expectedPointCount) * ringsPerPoint;
+        definition.clear();
+        definition.setVertexCount(2 * capVertexCount + expectedRings * circularCount);
+        definition.setIndexCount(2 * capIndexCount + expectedRings * quadIndexCount);
+        definition.setVertexCount(2 * capVertexCount);
+        definition.setIndexCount(2 * capIndexCount);
+
+        appendable = textureMode != 0;
+        pointCount = 0;
+        ringCount = 0;
+        lastRingV = 0;
+        dis = 0;
+        currentUvY = 0;
+        currentDistance = 0;
+        forward = true;
+    }
+
+    /**
+     * 全量构建
+     * @param points 源点
+     * @param pipePointMode 管线点计算模式
+     * @return 有效的管线点少于两个时返回false，此时网格内容无效
+     */
+    boolean build(Vector3[] points, Line3DPipePointMode pipePointMode) {
+        if (points.length < 2) {
+            return false;
+        }
+        genPipePoints(points, pipePointMode);
+        if (pipePointCount < 2) {
+            appendable = false;
+            return false;
+        }
+        reset(pipePointCount);
+        //没有被过滤的点时，结果与逐点追加相同，构建后可继续追加
+        appendable = textureMode != 0
+                && pipePointMode == Line3DPipePointMode.ORIGINAL
+                && pipePointCount == points.length;
+        if (appendable) {
+            pointCount = points.length;
+            prevPoint.set(points[points.length - 2]);
+            lastPoint.set(points[points.length - 1]);
+        }
+
+        loadPipePoint(0, pipePosition, pipeDirection);
+        writeStartCap(pipePosition, pipeDirection, pipeRadii[0]);
+        loadPipePoint(pipePointCount - 1, pipePosition, pipeDirection);
+        writeEndCap(pipePosition, pipeDirection, pipeRadii[pipePointCount - 1]);
+
+        switch (textureMode) {
+            case 0:
+                buildStretched();
+                break;
+            case 1:
+                for (int i = 0; i < pipePointCount - 1; i++) {
+                    loadPipePoint(i, pipePosition, pipeDirection);
+                    loadPipePoint(i + 1, nextPipePosition, nextPipeDirection);
+                    appendSegment(pipePosition, pipeDirection, pipeRadii[i],
+                            nextPipePosition, nextPipeDirection, pipeRadii[i + 1]);
+                }
+                break;
+            case 2:
+                loadPipePoint(0, pipePosition, pipeDirection);
+                appendRing(pipePosition, pipeDirection, pipeRadii[0], false, 0.0f);
+                for (int i = 1; i < pipePointCount; i++) {
+                    loadPipePoint(i, nextPipePosition, nextPipeDirection);
+                    appendMirrorRing(pipePosition, nextPipePosition, nextPipeDirection, pipeRadii[i]);
+                    pipePosition.set(nextPipePosition);
+                }
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * 纹理模式0：按路程比例拉伸纹理，与{@link Line3dNative}中的计算相同
+     */
+    private void buildStretched() {
+        float totalDistance = 0f;
+        for (int i = 0; i < pipePointCount - 1; i++) {
+            loadPipePoint(i, pipePosition, pipeDirection);
+            loadPipePoint(i + 1, nextPipePosition, nextPipeDirection);
+            totalDistance += Vector3.subtract(nextPipePosition, pipePosition, segment).length();
+        }
+
+        float distance = 0f;
+        for (int i = 0; i < pipePointCount; i++) {
+            loadPipePoint(i, pipePosition, pipeDirection);
+            if (i > 0) {
+                //position为上一个管线点
+                distance += Vector3.subtract(pipePosition, position, segment).length();
+            }
+            if (i == 0) {
+                appendRing(pipePosition, pipeDirection, pipeRadii[i], false, 0);
+            } else if (i == pipePointCount - 1) {
+                appendRing(pipePosition, pipeDirection, pipeRadii[i], false, 1);
+            } else {
+                appendRing(pipePosition, pipeDirection, pipeRadii[i], true,
+                        Math.min(distance / totalDistance, 1.0f));
+            }
+            if (i > 0) {
+                appendQuads(ringCount - 2, ringCount - 1);
+            }
+            position.set(pipePosition);
+        }
+    }
+
+    /**
+     * 追加一个点
+     * @return 若该点会产生被过滤的管线点(重复点、原路折返)则返回false，此时需全量构建
+     */
+    boolean append(Vector3 point) {
+        if (!appendable) {
+            throw new IllegalStateException("Pipe mesh is not appendable.");
+        }
+        if (pointCount == 0) {
+            lastPoint.set(point);
+            pointCount = 1;
+            return true;
+        }
+
+        //新的终点方向
+        Vector3.subtract(point, lastPoint, direction);
+        if (direction.length() < MIN_DIRECTION_LENGTH) {
+            return false;
+        }
+
+        if (pointCount == 1) {
+            //起点方向不再变化
+            writeStartCap(lastPoint, direction, radius);
+            if (textureMode == 1) {
+                appendSegment(lastPoint, direction, radius, point, direction, radius);
+            } else {
+                appendRing(lastPoint, direction, radius, false, 0.0f);
+                appendMirrorRing(lastPoint, point, direction, radius);
+            }
+        } else {
+            //上一个终点变为拐点，方向为前后单位向量之和
+            Vector3.subtract(lastPoint, prevPoint, ab).normalized(ab);
+            Vector3.subtract(point, lastPoint, bc).normalized(bc);
+            Vector3 elbow = Vector3.add(ab, bc, ab);
+            if (elbow.length() < MIN_DIRECTION_LENGTH) {
+                return false;
+            }
+            writeRing(ringCount - 1, lastPoint, elbow, radius, false, lastRingV);
+            if (textureMode == 1) {
+                appendSegment(lastPoint, elbow, radius, point, direction, radius);
+            } else {
+                appendMirrorRing(lastPoint, point, direction, radius);
+            }
+        }
+        writeEndCap(point, direction, radius);
+
+        prevPoint.set(lastPoint);
+        lastPoint.set(point);
+        pointCount++;
+        return true;
+    }
+
+    /**
+     * 纹理模式1：按参考长度重复排列纹理，与{@link Line3dNative}中的循环相同
+     */
+    private void appendSegment(Vector3 current, Vector3 currentDirection, float currentRadius,
+                               Vector3 next, Vector3 nextDirection, float nextRadius) {
+        dis += Vector3.subtract(next, current, segment).length();
+        currentDirection.normalized(normalizedDirection);
+        position.set(current);
+
+        while (dis > refLength) {
+            //前截面圆不变，后截面圆采用新增点
+            appendRing(position, normalizedDirection, currentRadius, false, currentUvY);
+            normalizedDirection.scaled(refLength * (1.0f - currentUvY), offset);
+            Vector3.add(position, offset, position);
+            appendRing(position, normalizedDirection, currentRadius, false, 1.0f);
+            appendQuads(ringCount - 2, ringCount - 1);
+            dis -= refLength;
+            currentUvY = 0;
+        }
+
+        float nextUvY = dis / refLength;
+        appendRing(position, normalizedDirection, currentRadius, false, currentUvY);
+        appendRing(next, nextDirection, nextRadius, false, nextUvY);
+        appendQuads(ringCount - 2, ringCount - 1);
+        currentUvY = nextUvY;
+    }
+
+    /**
+     * 纹理模式2：正向、反向交错排列纹理，与{@link Line3dNative}中的计算相同
+     */
+    private void appendMirrorRing(Vector3 previous, Vector3 point, Vector3 pointDirection, float pointRadius) {
+        currentDistance += Vector3.subtract(point, previous, segment).length();
+        float percent;
+        if (currentDistance < refLength) {
+            percent = Math.min(1.0f, Math.max(0.0f, currentDistance / refLength));
+            if (!forward) {
+                percent = 1 - percent;
+            }
+        } else {
+            currentDistance = 0f;
+            percent = forward ? 1 : 0;
+            forward = !forward;
+        }
+        appendRing(point, pointDirection, pointRadius, false, percent);
+        appendQuads(ringCount - 2, ringCount - 1);
+    }
+
+    private void appendRing(Vector3 center, Vector3 ringDirection, float ringRadius, boolean clampU, float v) {
+        int ring = ringCount++;
+        definition.setVertexCount(ringBase(ringCount));
+        writeRing(ring, center, ringDirection, ringRadius, clampU, v);
+    }
+
+    /**
+     * 写入截面圆，法线由圆心指向弧上顶点
+     * @param clampU 横向纹理坐标是否限制在[0.01, 0.99]，纹理模式0的中间截面圆使用
+     */
+    private void writeRing(int ring, Vector3 center, Vector3 ringDirection, float ringRadius,
+                           boolean clampU, float v) {
+        Quaternion.rotationBetweenVectors(FORWARD, ringDirection, ringRotation);
+        int base = ringBase(ring);
+        for (int j = 0; j < circularCount; j++) {
+            arcPoint(center, ringRadius, j);
+            float u = ringTable.uStep * j;
+            if (clampU) {
+                u = Math.min(0.99f, Math.max(0.01f, u));
+            }
+            definition.putVertex(base + j, arc.x, arc.y, arc.z,
+                    arc.x - center.x, arc.y - center.y, arc.z - center.z,
+                    u, v);
+        }
+        if (ring == ringCount - 1) {
+            lastRingV = v;
+        }
+    }
+
+    /**
+     * 连接两个截面圆
+     */
+    private void appendQuads(int bottomRing, int topRing) {
+        int start = definition.getIndexCount();
+        definition.setIndexCount(start + quadIndexCount);
+        int bottom = ringBase(bottomRing);
+        int top = ringBase(topRing);
+        int index = start;
+        for (int j = 0; j < circularCount - 1; j++) {
+            int leftBottom = bottom + j;
+            int rightBottom = bottom + j + 1;
+            int leftTop = top + j;
+            int rightTop = top + j + 1;
+            definition.putTriangle(index, leftTop, rightTop, rightBottom);
+            definition.putTriangle(index + 3, leftTop, rightBottom, leftBottom);
+            index += 6;
+        }
+    }
+
+    private void writeStartCap(Vector3 center, Vector3 capDirection, float capRadius) {
+        writeCap(0, 0, center, capDirection, capRadius, -1, false);
+    }
+
+    private void writeEndCap(Vector3 center, Vector3 capDirection, float capRadius) {
+        writeCap(capVertexCount, capIndexCount, center, capDirection, capRadius, 1, true);
+    }
+
+    /**
+     * 写入端点截面，法线与管线方向平行
+     */
+    private void writeCap(int vertexOffset, int indexOffset, Vector3 center, Vector3 capDirection,
+                          float capRadius, float sign, boolean isEnd) {
+        float nx = capDirection.x * sign;
+        float ny = capDirection.y * sign;
+        float nz = capDirection.z * sign;
+        definition.putVertex(vertexOffset, center.x, center.y, center.z, nx, ny, nz, 0, 0);
+        Quaternion.rotationBetweenVectors(FORWARD, capDirection, ringRotation);
+        for (int j = 0; j < circularCount; j++) {
+            arcPoint(center, capRadius, j);
+            definition.putVertex(vertexOffset + 1 + j, arc.x, arc.y, arc.z, nx, ny, nz, 1, 1);
+        }
+
+        int startIndex = vertexOffset + 1;
+        for (int i = 0; i < circularCount - 1; i++) {
+            if (isEnd) {
+                definition.putTriangle(indexOffset + i * 3, vertexOffset, startIndex + i + 1, startIndex + i);
+            } else {
+                definition.putTriangle(indexOffset + i * 3, vertexOffset, startIndex + i, startIndex + i + 1);
+            }
+        }
+    }
+
+    /**
+     * 计算弧上顶点，与{@link VectorMathUtils#transformPoint(Vector3, Vector3, Vector3)}相同，
+     * 旋转四元数需预先写入ringRotation
+     */
+    private void arcPoint(Vector3 center, float arcRadius, int j) {
+        src.set(arcRadius * ringTable.cos[j], arcRadius * ringTable.sin[j], 0);
+        Quaternion.rotateVector(ringRotation, src, arc);
+        Vector3.add(arc, center, arc);
+    }
+
+    private int ringBase(int ring) {
+        return 2 * capVertexCount + ring * circularCount;
+    }
+
+    /**
+     * 计算管线点，与{@link Line3dNative#genPipePoint_0}、{@link Line3dNative#genPipePoint_1}相同
+     */
+    private void genPipePoints(Vector3[] points, Line3DPipePointMode pipePointMode) {
+        int length = points.length;
+        if (pipeRadii.length < length) {
+            pipePositions = new float[length * 3];
+            pipeDirections = new float[length * 3];
+            pipeRadii = new float[length];
+        }
+        pipePointCount = 0;
+
+        //SIN_RESAMPLE：两端半径重采样
+        int keyPointCount;
+        if (length > 50) {
+            keyPointCount = 6;
+        } else {
+            keyPointCount = (length / 10) + 1;
+        }
+        float theta = (float) ((Math.PI / 2) / keyPointCount);
+
+        for (int i = 0; i < length; i++) {
+            float pointRadius = radius;
+            if (pipePointMode == Line3DPipePointMode.SIN_RESAMPLE) {
+                if (i < keyPointCount) {
+                    pointRadius = (float) (Math.sin(theta * i) * radius);
+                }
+                if (i > (length - keyPointCount)) {
+                    pointRadius = (float) (Math.sin(((length - 1) - i) * theta) * radius);
+                }
+            }
+
+            if (i == 0) {
+                Vector3.subtract(points[i + 1], points[i], direction);
+            } else if (i == length - 1) {
+                Vector3.subtract(points[i], points[i - 1], direction);
+            } else {
+                //拐点方向为前后单位向量之和
+                Vector3.subtract(points[i], points[i - 1], ab).normalized(ab);
+                Vector3.subtract(points[i + 1], points[i], bc).normalized(bc);
+                Vector3.add(ab, bc, direction);
+            }
+            //去掉方向向量为（0,0,0）的点
+            if (direction.length() < MIN_DIRECTION_LENGTH) {
+                continue;
+            }
+
+            int p = pipePointCount * 3;
+            pipePositions[p] = points[i].x;
+            pipePositions[p + 1] = points[i].y;
+            pipePositions[p + 2] = points[i].z;
+            pipeDirections[p] = direction.x;
+            pipeDirections[p + 1] = direction.y;
+            pipeDirections[p + 2] = direction.z;
+            pipeRadii[pipePointCount] = pointRadius;
+            pipePointCount++;
+        }
+    }
+
+    private void loadPipePoint(int index, Vector3 pointPosition, Vector3 pointDirection) {
+        int p = index * 3;
+        pointPosition.set(pipePositions[p], pipePositions[p + 1], pipePositions[p + 2]);
+        pointDirection.set(pipeDirections[p], pipeDirections[p + 1], pipeDirections[p + 2]);
+    }
+}
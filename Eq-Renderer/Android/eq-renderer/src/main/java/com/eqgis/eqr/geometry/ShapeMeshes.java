@@ -0,0 +1,341 @@
+package com.eqgis.eqr.geometry;
+
+import com.google.sceneform.math.MathKernel;
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.rendering.RenderableDefinitionPacked;
+
+import java.util.Arrays;
+
+/**
+ * 基本形状的网格数据
+ * <p>
+ *     顶点位置、法线、UV和索引直接写入连续数组，返回已设置好数据的{@link RenderableDefinitionPacked.Builder}，
+ *     添加子几何(材质)后构建即可。顶点与索引的顺序与原先基于{@link com.google.sceneform.rendering.Vertex}的实现相同。
+ * </p>
+ * <p>不依赖共享状态，可在任意线程调用</p>
+ */
+public final class ShapeMeshes {
+    private ShapeMeshes() {
+    }
+
+    /**
+     * 立方体，每个面4个顶点
+     * @param size 尺寸
+     * @param center 中心点
+     * @param doubleSided 是否追加反向的三角形，使内外两面都可见
+     */
+    public static RenderableDefinitionPacked.Builder cube(Vector3 size, Vector3 center, boolean doubleSided) {
+        float ex = size.x * 0.5f;
+        float ey = size.y * 0.5f;
+        float ez = size.z * 0.5f;
+        float[] corners = {
+                center.x - ex, center.y - ey, center.z + ez,
+                center.x + ex, center.y - ey, center.z + ez,
+                center.x + ex, center.y - ey, center.z - ez,
+                center.x - ex, center.y - ey, center.z - ez,
+                center.x - ex, center.y + ey, center.z + ez,
+                center.x + ex, center.y + ey, center.z + ez,
+                center.x + ex, center.y + ey, center.z - ez,
+                center.x - ex, center.y + ey, center.z - ez,
+        };
+        //每个面的4个角点与法线：下、左、前、后、右、上
+        int[] faceCorners = {
+                0, 1, 2, 3,
+                7, 4, 0, 3,
+                4, 5, 1, 0,
+                6, 7, 3, 2,
+                5, 6, 2, 1,
+                7, 6, 5, 4,
+        };
+        float[] faceNormals = {
+                0, -1, 0,
+                -1, 0, 0,
+                0, 0, -1,
+                0, 0, 1,
+                1, 0, 0,
+                0, 1, 0,
+        };
+        float[] faceUvs = {0, 1, 1, 1, 1, 0, 0, 0};
+
+        final int numSides = 6;
+        final int verticesPerSide = 4;
+        float[] positions = new float[numSides * verticesPerSide * 3];
+        float[] normals = new float[positions.length];
+        float[] uvs = new float[numSides * verticesPerSide * 2];
+        for (int i = 0; i < numSides * verticesPerSide; i++) {
+            int corner = faceCorners[i];
+            int side = i / verticesPerSide;
+            System.arraycopy(corners, corner * 3, positions, i * 3, 3);
+            System.arraycopy(faceNormals, side * 3, normals, i * 3, 3);
+            System.arraycopy(faceUvs, (i % verticesPerSide) * 2, uvs, i * 2, 2);
+        }
+
+        int frontCount = numSides * 6;
+        int[] indices = new int[doubleSided ? frontCount * 2 : frontCount];
+        int index = 0;
+        for (int i = 0; i < numSides; i++) {
+            // First triangle for this side.
+            indices[index++] = 3 + verticesPerSide * i;
+            indices[index++] = 1 + verticesPerSide * i;
+            indices[index++] = verticesPerSide * i;
+
+            // Second triangle for this side.
+            indices[index++] = 3 + verticesPerSide * i;
+            indices[index++] = 2 + verticesPerSide * i;
+            indices[index++] = 1 + verticesPerSide * i;
+        }
+        if (doubleSided) {
+            //backPolygon
+            for (int i = frontCount - 1; i > -1; i--) {
+                indices[index++] = indices[i];
+            }
+        }
+
+        return RenderableDefinitionPacked.builder()
+                .setPositions(positions)
+                .setNormals(normals)
+                .setUvs(uvs)
+                .setIndices(indices);
+    }
+
+    /**
+     * 圆柱，侧面与上下底面的顶点分开，底面中心各一个顶点
+     * @param radius 底面半径
+     * @param height 高度
+     * @param center 中心点
+     * @param numberOfSides 侧面分段数
+     */
+    public static RenderableDefinitionPacked.Builder cylinder(
+            float radius, float height, Vector3 center, int numberOfSides) {
+        final float halfHeight = height / 2;
+        final float thetaIncrement = (float) (2 * Math.PI) / numberOfSides;
+        final float uStep = (float) 1.0 / numberOfSides;
+        final int ring = numberOfSides + 1;
+
+        //顶点顺序：下边缘、上边缘、下底面中心、下底面、上底面中心、上底面
+        int vertexCount = ring * 4 + 2;
+        float[] positions = new float[vertexCount * 3];
+        float[] normals = new float[vertexCount * 3];
+        float[] uvs = new float[vertexCount * 2];
+        final int lowerEdge = 0;
+        final int upperEdge = ring;
+        final int lowerCenterIndex = ring * 2;
+        final int upperCenterIndex = lowerCenterIndex + ring + 1;
+
+        float theta = 0;
+        for (int side = 0; side <= numberOfSides; side++) {
+            float cosTheta = (float) Math.cos(theta);
+            float sinTheta = (float) Math.sin(theta);
+            float x = radius * cosTheta;
+            float z = radius * sinTheta;
+            float capU = (cosTheta + 1f) / 2;
+            float capV = (sinTheta + 1f) / 2;
+
+            int lower = lowerEdge + side;
+            put3(positions, lower, center.x + x, center.y - halfHeight, center.z + z);
+            put3(normals, lower, x, 0, z);
+            MathKernel.vec3Normalize(normals, lower * 3, normals, lower * 3);
+            put2(uvs, lower, uStep * side, 0);
+
+            int upper = upperEdge + side;
+            put3(positions, upper, center.x + x, center.y + halfHeight, center.z + z);
+            System.arraycopy(normals, lower * 3, normals, upper * 3, 3);
+            put2(uvs, upper, uStep * side, 1);
+
+            int lowerCap = lowerCenterIndex + 1 + side;
+            put3(positions, lowerCap, center.x + x, center.y - halfHeight, center.z + z);
+            put3(normals, lowerCap, 0, -1, 0);
+            put2(uvs, lowerCap, capU, capV);
+
+            int upperCap = upperCenterIndex + 1 + side;
+            put3(positions, upperCap, center.x + x, center.y + halfHeight, center.z + z);
+            put3(normals, upperCap, 0, 1, 0);
+            put2(uvs, upperCap, capU, capV);
+
+            theta += thetaIncrement;
+        }
+        put3(positions, lowerCenterIndex, center.x, center.y - halfHeight, center.z);
+        put3(normals, lowerCenterIndex, 0, -1, 0);
+        put2(uvs, lowerCenterIndex, .5f, .5f);
+        put3(positions, upperCenterIndex, center.x, center.y + halfHeight, center.z);
+        put3(normals, upperCenterIndex, 0, 1, 0);
+        put2(uvs, upperCenterIndex, .5f, .5f);
+
+        int[] indices = new int[numberOfSides * 12];
+        int index = 0;
+        for (int side = 0; side < numberOfSides; side++) {
+            int bottomLeft = side;
+            int bottomRight = side + 1;
+            int topLeft = side + numberOfSides + 1;
+            int topRight = side + numberOfSides + 2;
+
+            // First triangle of side.
+            indices[index++] = bottomLeft;
+            indices[index++] = topRight;
+            indices[index++] = bottomRight;
+
+            // Second triangle of side.
+            indices[index++] = bottomLeft;
+            indices[index++] = topLeft;
+            indices[index++] = topRight;
+
+            // Add bottom cap triangle.
+            indices[index++] = lowerCenterIndex;
+            indices[index++] = lowerCenterIndex + side + 1;
+            indices[index++] = lowerCenterIndex + side + 2;
+
+            // Add top cap triangle.
+            indices[index++] = upperCenterIndex;
+            indices[index++] = upperCenterIndex + side + 2;
+            indices[index++] = upperCenterIndex + side + 1;
+        }
+
+        return RenderableDefinitionPacked.builder()
+                .setPositions(positions)
+                .setNormals(normals)
+                .setUvs(uvs)
+                .setIndices(indices);
+    }
+
+    /**
+     * 经纬球，24x24分段
+     * @param radius 半径
+     * @param center 中心点
+     * @param inner 是否反转绕序，用于从球内部观看(如天空球)
+     */
+    public static RenderableDefinitionPacked.Builder sphere(float radius, Vector3 center, boolean inner) {
+        final int stacks = 24;
+        final int slices = 24;
+        float pi = (float) Math.PI;
+        float doublePi = pi * 2.0f;
+
+        int vertexCount = (slices + 1) * (stacks + 1);
+        float[] positions = new float[vertexCount * 3];
+        float[] normals = new float[vertexCount * 3];
+        float[] uvs = new float[vertexCount * 2];
+        int vertex = 0;
+        for (int stack = 0; stack <= stacks; stack++) {
+            float phi = pi * (float) stack / stacks;
+            float sinPhi = (float) Math.sin(phi);
+            float cosPhi = (float) Math.cos(phi);
+
+            for (int slice = 0; slice <= slices; slice++) {
+                float theta = doublePi * (float) (slice == slices ? 0 : slice) / slices;
+                float sinTheta = (float) Math.sin(theta);
+                float cosTheta = (float) Math.cos(theta);
+
+                put3(positions, vertex,
+                        sinPhi * cosTheta * radius, cosPhi * radius, sinPhi * sinTheta * radius);
+                MathKernel.vec3Normalize(positions, vertex * 3, normals, vertex * 3);
+                positions[vertex * 3] += center.x;
+                positions[vertex * 3 + 1] += center.y;
+                positions[vertex * 3 + 2] += center.z;
+                put2(uvs, vertex, 1.0f - ((float) slice / slices), 1.0f - ((float) stack / stacks));
+                vertex++;
+            }
+        }
+
+        int[] indices = new int[stacks * slices * 6];
+        int index = 0;
+        int v = 0;
+        for (int stack = 0; stack < stacks; stack++) {
+            for (int slice = 0; slice < slices; slice++) {
+                // Skip triangles at the caps that would have an area of zero.
+                boolean topCap = stack == 0;
+                boolean bottomCap = stack == stacks - 1;
+
+                int next = slice + 1;
+
+                if (!topCap) {
+                    indices[index++] = v + slice;
+                    indices[index++] = v + next;
+                    indices[index++] = v + slice + slices + 1;
+                }
+
+                if (!bottomCap) {
+                    indices[index++] = v + next;
+                    indices[index++] = v + next + slices + 1;
+                    indices[index++] = v + slice + slices + 1;
+                }
+            }
+            v += slices + 1;
+        }
+
+        if (inner) {
+            //desc- 与原实现相同，倒序时不包含第一个索引
+            int[] innerIndices = new int[Math.max(0, index - 1)];
+            for (int i = index - 1, j = 0; i > 0; i--, j++) {
+                innerIndices[j] = indices[i];
+            }
+            indices = innerIndices;
+        } else {
+            indices = Arrays.copyOf(indices, index);
+        }
+
+        return RenderableDefinitionPacked.builder()
+                .setPositions(positions)
+                .setNormals(normals)
+                .setUvs(uvs)
+                .setIndices(indices);
+    }
+
+    /**
+     * XY平面内的四边形，法线朝Z轴正方向，UV从左下角(0, 0)到右上角(1, 1)
+     * @param size x为宽度、y为高度
+     * @param center 中心点
+     */
+    public static RenderableDefinitionPacked.Builder quad(Vector3 size, Vector3 center) {
+        float ex = size.x * 0.5f;
+        float ey = size.y * 0.5f;
+        float[] positions = {
+                center.x - ex, center.y - ey, center.z,
+                center.x + ex, center.y - ey, center.z,
+                center.x + ex, center.y + ey, center.z,
+                center.x - ex, center.y + ey, center.z,
+        };
+        float[] normals = {0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1};
+        float[] uvs = {0, 0, 1, 0, 1, 1, 0, 1};
+        //desc- 逆时针绕序使几何正面与顶点法向一致，均朝向 Z 轴正方向。
+        int[] indices = {0, 1, 2, 2, 3, 0};
+        return RenderableDefinitionPacked.builder()
+                .setPositions(positions)
+                .setNormals(normals)
+                .setUvs(uvs)
+                .setIndices(indices);
+    }
+
+    /**
+     * XZ平面内的平面，法线向上
+     * @param size x、z为尺寸
+     * @param center 中心点
+     */
+    public static RenderableDefinitionPacked.Builder plane(Vector3 size, Vector3 center) {
+        float ex = size.x * 0.5f;
+        float ez = size.z * 0.5f;
+        float[] positions = {
+                center.x - ex, center.y, center.z - ez,
+                center.x - ex, center.y, center.z + ez,
+                center.x + ex, center.y, center.z + ez,
+                center.x + ex, center.y, center.z - ez,
+        };
+        float[] normals = {0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1, 0};
+        float[] uvs = {0, 1, 1, 1, 1, 0, 0, 0};
+        int[] indices = {0, 1, 2, 2, 3, 0};
+        return RenderableDefinitionPacked.builder()
+                .setPositions(positions)
+                .setNormals(normals)
+                .setUvs(uvs)
+                .setIndices(indices);
+    }
+
+    private static void put3(float[] array, int index, float x, float y, float z) {
+        array[index * 3] = x;
+        array[index * 3 + 1] = y;
+        array[index * 3 + 2] = z;
+    }
+
+    private static void put2(float[] array, int index, float u, float v) {
+        array[index * 2] = u;
+        array[index * 2 + 1] = v;
+    }
+}
@@ -6,6 +6,7 @@ import android.view.View;
 
 import com.google.sceneform.Camera;
 import com.google.sceneform.HitTestResult;
+import com.google.sceneform.collision.Ray;
 import com.google.sceneform.math.Quaternion;
 import com.google.sceneform.math.Vector3;
 import com.google.sceneform.rendering.ViewRenderable;
@@ -32,6 +33,9 @@ public class CameraGestureController implements View.OnTouchListener {
     private final Camera camera;
     private final Vector3 initialPosition;
     private final Quaternion initialRotation;
+    //desc- 按下时拾取复用的射线与结果，避免拖动过程中频繁分配对象
+    private final Ray hitTestRay = new Ray();
+    private final HitTestResult hitTestResult = new HitTestResult();
 
     private View touchView;
     private boolean enabled = true;
@@ -218,9 +222,10 @@ public class CameraGestureController implements View.OnTouchListener {
             blockSingleFingerRotation = false;
             return;
         }
-        HitTestResult hitTestResult = camera.getScene().hitTest(event);
+        camera.getScene().hitTest(event, hitTestRay, hitTestResult);
         blockSingleFingerRotation = hitTestResult.getNode() != null
                 && hitTestResult.getNode().getRenderable() instanceof ViewRenderable;
+        hitTestResult.reset();
     }
 
     private void beginTwoFingerGesture(MotionEvent event, int excludedPointerIndex) {
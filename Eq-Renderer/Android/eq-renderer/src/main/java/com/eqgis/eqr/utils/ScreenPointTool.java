@@ -43,11 +43,13 @@ public class ScreenPointTool {
         Vector3 currentPosition = camera.getWorldPosition();
         //desc-updated by tanyx 2022年1月26日15:41:35
         ArrayList<int[]> resList = new ArrayList<int[]>();
+        //循环内复用，避免每个点都创建对象
+        Vector3 vecTarget = new Vector3();
+        Vector3 result = new Vector3();
         for (Vector3 p : point3DList) {
-            Vector3 vecTarget = Vector3.subtract(p,currentPosition);
+            Vector3.subtract(p, currentPosition, vecTarget);
             if (p != null){
-                Vector3 result = camera
-                        .worldToScreenPoint(p);
+                camera.worldToScreenPoint(p, result);
 
                 double v = Math.toDegrees(Math.atan2(vecTarget.x, -vecTarget.z) - Math.atan2(forward.x, -forward.z));
                 if (Math.abs(v)<90){
@@ -89,15 +91,19 @@ public class ScreenPointTool {
 
 
         Vector3 firstV = new Vector3(0, 0, 0);
+        //循环内复用，避免每个点都创建对象
+        Vector3 vecTarget = new Vector3();
+        Vector3 result = new Vector3();
 
         for (int i = 0; i < point3DList.size(); i++) {
             Vector3 vector3 = point3DList.get(i);
-            Vector3 vecTarget = Vector3.subtract(vector3, currentPosition);
+            Vector3.subtract(vector3, currentPosition, vecTarget);
             if (vector3 != null) {
                 double v = Math.toDegrees(Math.atan2(vecTarget.x, -vecTarget.z) - Math.atan2(forward.x, -forward.z));
-                Vector3 result = camera.worldToScreenPoint(vector3);
+                camera.worldToScreenPoint(vector3, result);
                 if (i == 0){
-                    firstV = result;
+                    //result在循环中复用，需拷贝
+                    firstV.set(result);
                 }
                 if (Math.abs(v) <= 89.8){
                     resList.add(new int[]{(int) result.x, (int) result.y});
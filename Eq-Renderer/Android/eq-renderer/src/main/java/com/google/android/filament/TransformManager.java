@@ -265,6 +265,30 @@ import androidx.annotation.Size;
         nSetTransformFp64(mNativeObject, i, localTransform);
     }
 
+    /**
+     * Sets the local transforms of several transform components in a single call.
+     * <p>This is equivalent to calling {@link #setTransform(int, float[])} for each component,
+     * but crosses the JNI boundary only once. It is best used between
+     * {@link #openLocalTransformTransaction} / {@link #commitLocalTransformTransaction}.</p>
+     *
+     * @param instances       the {@link EntityInstance}s of the transform components to set the
+     *                        local transforms to.
+     * @param localTransforms the local transforms packed one after the other, 16 floats per
+     *                        component, in the same order as <code>instances</code>.
+     * @param count           the number of transforms to set.
+     * @see #setTransform(int, float[])
+     */
+    public void setTransforms(@NonNull int[] instances, @NonNull float[] localTransforms,
+            @IntRange(from = 0) int count) {
+        if (count < 0 || instances.length < count || localTransforms.length < count * 16) {
+            throw new ArrayIndexOutOfBoundsException("Array length must be at least " + count
+                    + " instances and " + (count * 16) + " floats");
+        }
+        if (count > 0) {
+            nSetTransforms(mNativeObject, instances, localTransforms, count);
+        }
+    }
+
     /**
      * Returns the local transform of a transform component.
      *
@@ -395,6 +419,7 @@ import androidx.annotation.Size;
     private static native void nGetChildren(long nativeEntityManager, int i, int[] outEntities, int count);
     private static native void nSetTransform(long nativeTransformManager, int i, float[] localTransform);
     private static native void nSetTransformFp64(long nativeTransformManager, int i, double[] localTransform);
+    private static native void nSetTransforms(long nativeTransformManager, int[] instances, float[] localTransforms, int count);
     private static native void nGetTransform(long nativeTransformManager, int i, float[] outLocalTransform);
     private static native void nGetTransformFp64(long nativeTransformManager, int i, double[] outLocalTransform);
     private static native void nGetWorldTransform(long nativeTransformManager, int i, float[] outWorldTransform);
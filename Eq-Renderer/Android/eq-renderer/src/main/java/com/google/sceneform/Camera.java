@@ -22,6 +22,12 @@ import com.eqgis.ar.ARPose;
 public class Camera extends Node implements CameraProvider {
   private final Matrix viewMatrix = new Matrix();
   private final Matrix projectionMatrix = new Matrix();
+  //屏幕坐标转射线时复用
+  private final Matrix unprojectMatrix = new Matrix();
+  private final Vector3 rayStartPoint = new Vector3();
+  private final Vector3 rayEndPoint = new Vector3();
+  //世界坐标转屏幕坐标时复用
+  private final Matrix viewProjectionMatrix = new Matrix();
 
   private static final float DEFAULT_NEAR_PLANE = 0.01f;
   private static final float DEFAULT_FAR_PLANE = 30.0f;
@@ -230,9 +236,13 @@ public class Camera extends Node implements CameraProvider {
   /**============新增代码段（added by Ikkyu(tanyx)）bottom====================*/
 
   Ray motionEventToRay(MotionEvent motionEvent) {
+    return motionEventToRay(motionEvent, new Ray());
+  }
+
+  Ray motionEventToRay(MotionEvent motionEvent, Ray result) {
     Preconditions.checkNotNull(motionEvent, "Parameter \"motionEvent\" was null.");
     int index = motionEvent.getActionIndex();
-    return screenPointToRay(motionEvent.getX(index), motionEvent.getY(index));
+    return screenPointToRay(motionEvent.getX(index), motionEvent.getY(index), result);
   }
 
   /**
@@ -241,15 +251,28 @@ public class Camera extends Node implements CameraProvider {
    * @param y 屏幕坐标的Y值
    */
   public Ray screenPointToRay(float x, float y) {
-    Vector3 startPoint = new Vector3();
-    Vector3 endPoint = new Vector3();
-
-    unproject(x, y, 0.0f, startPoint);
-    unproject(x, y, 1.0f, endPoint);
-
-    Vector3 direction = Vector3.subtract(endPoint, startPoint);
+    return screenPointToRay(x, y, new Ray());
+  }
 
-    return new Ray(startPoint, direction);
+  /**
+   * 屏幕坐标转射线（不分配对象）
+   * @param x 屏幕坐标的X值
+   * @param y 屏幕坐标的Y值
+   * @param result 输出
+   * @return result
+   */
+  public Ray screenPointToRay(float x, float y, Ray result) {
+    Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
+
+    unproject(x, y, 0.0f, rayStartPoint);
+    unproject(x, y, 1.0f, rayEndPoint);
+
+    result.set(
+        rayStartPoint.x, rayStartPoint.y, rayStartPoint.z,
+        rayEndPoint.x - rayStartPoint.x,
+        rayEndPoint.y - rayStartPoint.y,
+        rayEndPoint.z - rayStartPoint.z);
+    return result;
   }
 
   /**
@@ -258,7 +281,19 @@ public class Camera extends Node implements CameraProvider {
    * @return 屏幕坐标
    */
   public Vector3 worldToScreenPoint(Vector3 point) {
-    Matrix m = new Matrix();
+    return worldToScreenPoint(point, new Vector3());
+  }
+
+  /**
+   * 世界坐标转屏幕坐标（不分配对象）
+   * @param point 世界坐标系下的空间坐标位置
+   * @param dest 输出屏幕坐标，可与point相同
+   * @return dest
+   */
+  public Vector3 worldToScreenPoint(Vector3 point, Vector3 dest) {
+    Preconditions.checkNotNull(point, "Parameter \"point\" was null.");
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    Matrix m = viewProjectionMatrix;
     Matrix.multiply(projectionMatrix, viewMatrix, m);
 
     int viewWidth = getViewWidth();
@@ -269,9 +304,10 @@ public class Camera extends Node implements CameraProvider {
     float w = 1.0f;
 
     //乘以世界坐标
-    Vector3 screenPoint = new Vector3();
+    Vector3 screenPoint = dest;
     screenPoint.x = x * m.data[0] + y * m.data[4] + z * m.data[8] + w * m.data[12];
     screenPoint.y = x * m.data[1] + y * m.data[5] + z * m.data[9] + w * m.data[13];
+    screenPoint.z = 0.0f;
     w = x * m.data[3] + y * m.data[7] + z * m.data[11] + w * m.data[15];
 
     //转至裁剪平面
@@ -360,7 +396,7 @@ public class Camera extends Node implements CameraProvider {
   private boolean unproject(float x, float y, float z, final Vector3 dest) {
     Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
 
-    Matrix m = new Matrix();
+    Matrix m = unprojectMatrix;
     Matrix.multiply(projectionMatrix, viewMatrix, m);
     Matrix.invert(m, m);
 
@@ -387,7 +423,7 @@ public class Camera extends Node implements CameraProvider {
     }
 
     w = 1.0f / w;
-    dest.set(dest.scaled(w));
+    dest.set(dest.x * w, dest.y * w, dest.z * w);
     return true;
   }
 
@@ -1,5 +1,6 @@
 package com.google.sceneform;
 
+import android.os.CancellationSignal;
 import android.view.MotionEvent;
 import android.view.ViewConfiguration;
 
@@ -146,6 +147,12 @@ public class Node extends NodeParent implements TransformProvider {
 
     private static final int LOCAL_DIRTY_FLAGS = LOCAL_TRANSFORM_DIRTY | WORLD_DIRTY_FLAGS;
 
+    // 朝向相机时复用的临时变量，节点只在主线程更新
+    private static final Vector3 TMP_CAMERA_POSITION = new Vector3();
+    private static final Vector3 TMP_NODE_POSITION = new Vector3();
+    private static final Vector3 UP = Vector3.up();
+    private static final Quaternion TMP_LOOK_ROTATION = new Quaternion();
+
     // 场景对象
     @Nullable private Scene scene;
     // 将父节点存储为节点(如果父节点是节点)以避免强制转换。
@@ -215,6 +222,9 @@ public class Node extends NodeParent implements TransformProvider {
     // 存储用于检测何时在此节点上发生抽头的数据。
     @Nullable private TapTrackingData tapTrackingData = null;
 
+    // 此节点请求的资源加载的取消信号，节点移出场景时取消
+    @Nullable private CancellationSignal loadCancellationSignal = null;
+
     /**
      * 构造函数
      * <p>注意：此时未绑定父节点</p>
@@ -408,6 +418,22 @@ public class Node extends NodeParent implements TransformProvider {
         this.onTapListener = onTapListener;
     }
 
+    /**
+     * 获取此节点的资源加载取消信号
+     * <p>
+     *     传给{@code Renderable.Builder#setCancellationSignal}后，节点移出场景时
+     *     尚未完成的加载将被取消；仅停用(如{@link #setEnabled(boolean)}为false)不取消。
+     *     取消后再次调用返回新的信号。
+     * </p>
+     */
+    public CancellationSignal getLoadCancellationSignal() {
+        AndroidPreconditions.checkUiThread();
+        if (loadCancellationSignal == null) {
+            loadCancellationSignal = new CancellationSignal();
+        }
+        return loadCancellationSignal;
+    }
+
     /**
      * 添加生命周期的回调
      */
@@ -481,6 +507,11 @@ public class Node extends NodeParent implements TransformProvider {
                 collider.markWorldShapeDirty();
             }
 
+            if ((dirtyTransformFlags & WORLD_TRANSFORM_DIRTY) == WORLD_TRANSFORM_DIRTY
+                    && renderableInstance != null) {
+                renderableInstance.markTransformDirty();
+            }
+
             needsRecursion = true;
         }
 
@@ -559,6 +590,67 @@ public class Node extends NodeParent implements TransformProvider {
         return new Vector3(getWorldScaleInternal());
     }
 
+    /**
+     * 获取本地坐标系下的相对位置，写入调用方提供的对象（不分配对象）
+     * @param result 结果
+     * @return result
+     */
+    public final Vector3 getLocalPosition(Vector3 result) {
+        result.set(localPosition);
+        return result;
+    }
+
+    /**
+     * 获取本地坐标系下的相对旋转四元数，写入调用方提供的对象（不分配对象）
+     * @param result 结果
+     * @return result
+     */
+    public final Quaternion getLocalRotation(Quaternion result) {
+        result.set(localRotation);
+        return result;
+    }
+
+    /**
+     * 获取本地坐标系下的相对比例，写入调用方提供的对象（不分配对象）
+     * @param result 结果
+     * @return result
+     */
+    public final Vector3 getLocalScale(Vector3 result) {
+        result.set(localScale);
+        return result;
+    }
+
+    /**
+     * 获取世界坐标系下的绝对位置，写入调用方提供的对象（不分配对象）
+     * <p>适用于每帧或触摸拖动过程中频繁读取的场景</p>
+     * @param result 结果
+     * @return result
+     */
+    public final Vector3 getWorldPosition(Vector3 result) {
+        result.set(getWorldPositionInternal());
+        return result;
+    }
+
+    /**
+     * 获取世界坐标系下的旋转四元数，写入调用方提供的对象（不分配对象）
+     * @param result 结果
+     * @return result
+     */
+    public final Quaternion getWorldRotation(Quaternion result) {
+        result.set(getWorldRotationInternal());
+        return result;
+    }
+
+    /**
+     * 获取世界坐标系下的比例，写入调用方提供的对象（不分配对象）
+     * @param result 结果
+     * @return result
+     */
+    public final Vector3 getWorldScale(Vector3 result) {
+        result.set(getWorldScaleInternal());
+        return result;
+    }
+
     /**
      * 在本地坐标系下设置相抵位置
      * @see #getLocalPosition()
@@ -633,8 +725,10 @@ public class Node extends NodeParent implements TransformProvider {
         if (parentAsNode == null) {
             localRotation.set(rotation);
         } else {
-            localRotation.set(
-                    Quaternion.multiply(parentAsNode.getWorldRotationInternal().inverted(), rotation));
+            // localRotation作为中间结果，不创建临时对象
+            parentAsNode.getWorldRotationInternal().inverted(localRotation);
+            Quaternion.multiply(localRotation, rotation, localRotation);
+            localRotation.normalize();
         }
 
         markTransformChangedRecursively(LOCAL_DIRTY_FLAGS, this);
@@ -812,6 +906,7 @@ public class Node extends NodeParent implements TransformProvider {
 
         if (renderable != null) {
             RenderableInstance instance = renderable.createInstance(this);
+            instance.setTransformTracked(true);
             if (active && (scene != null && !scene.isUnderTesting())) {
                 instance.attachToRenderer(getRendererOrDie());
             }
@@ -975,9 +1070,8 @@ public class Node extends NodeParent implements TransformProvider {
                 getScene() != null &&
                 getScene().getCamera() != null
         ) {
-            Vector3 cameraPosition = getScene().getCamera().getWorldPosition();
-            Vector3 cardPosition = getWorldPosition();
-            ;
+            Vector3 cameraPosition = getScene().getCamera().getWorldPosition(TMP_CAMERA_POSITION);
+            Vector3 cardPosition = getWorldPosition(TMP_NODE_POSITION);
             switch (mRotateToCameraType){
                 case Horizontal_Vertical:
                     break;
@@ -989,8 +1083,8 @@ public class Node extends NodeParent implements TransformProvider {
                     break;
             }
 
-            Vector3 direction = Vector3.subtract(cameraPosition, cardPosition);
-            Quaternion lookRotation = Quaternion.lookRotation(direction, Vector3.up());
+            Vector3 direction = Vector3.subtract(cameraPosition, cardPosition, cameraPosition);
+            Quaternion lookRotation = Quaternion.lookRotation(direction, UP, TMP_LOOK_ROTATION);
             setWorldRotation(lookRotation);
         }
     }
@@ -1232,6 +1326,11 @@ public class Node extends NodeParent implements TransformProvider {
     }
 
     private void setSceneRecursivelyInternal(@Nullable Scene scene) {
+        //移出场景时取消尚未完成的加载，在场景内停用、换父节点时继续加载
+        if (this.scene != null && scene == null && loadCancellationSignal != null) {
+            loadCancellationSignal.cancel();
+            loadCancellationSignal = null;
+        }
         this.scene = scene;
         for (Node node : getChildren()) {
             node.setSceneRecursively(scene);
@@ -94,6 +94,9 @@ public class Scene extends NodeParent {
 
   private final ArrayList<OnUpdateListener> onUpdateListeners = new ArrayList<>();
 
+  //触摸事件的射线，在事件间复用；检测结果会交给监听器，每个事件新建
+  private final Ray touchRay = new Ray();
+
   @SuppressWarnings("VisibleForTestingUsed")
   @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
   Scene() {
@@ -243,15 +246,51 @@ public class Scene extends NodeParent {
    * @return 结果包括被点击事件击中的第一个节点(可能为null)，以及关于运动事件在世界空间中击中节点的位置的信息
    */
   public HitTestResult hitTest(Ray ray) {
+    HitTestResult result = new HitTestResult();
+    hitTest(ray, result);
+    return result;
+  }
+
+  /**
+   * 点击测试（不分配对象）
+   * <p>使用调用方提供的射线与结果对象，适用于拖动等连续手势</p>
+   *
+   * @param motionEvent 手势事件
+   * @param ray 用于存放转换后的射线
+   * @param result 检测结果
+   * @return 是否击中节点
+   */
+  public boolean hitTest(MotionEvent motionEvent, Ray ray, HitTestResult result) {
+    Preconditions.checkNotNull(motionEvent, "Parameter \"motionEvent\" was null.");
+    Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
+
+    if (camera == null) {
+      result.reset();
+      return false;
+    }
+
+    camera.motionEventToRay(motionEvent, ray);
+    return hitTest(ray, result);
+  }
+
+  /**
+   * 点击测试（不分配对象）
+   *
+   * @param ray 射线
+   * @param result 检测结果
+   * @return 是否击中节点
+   */
+  public boolean hitTest(Ray ray, HitTestResult result) {
     Preconditions.checkNotNull(ray, "Parameter \"ray\" was null.");
+    Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
 
-    HitTestResult result = new HitTestResult();
+    result.reset();
     Collider collider = collisionSystem.raycast(ray, result);
     if (collider != null) {
       result.setNode((Node) collider.getTransformProvider());
     }
 
-    return result;
+    return collider != null;
   }
 
   /**
@@ -280,17 +319,31 @@ public class Scene extends NodeParent {
    * @return 为每个按距离排序的节点填充一个HitTestResultList。如果没有命中节点，则为空。
    */
   public ArrayList<HitTestResult> hitTestAll(Ray ray) {
-    Preconditions.checkNotNull(ray, "Parameter \"ray\" was null.");
-
     ArrayList<HitTestResult> results = new ArrayList<>();
+    hitTestAll(ray, results);
+    return results;
+  }
+
+  /**
+   * 点击测试（复用结果）
+   * <p>
+   *     resultBuffer作为结果池：已有的元素会被复用，不足时才创建新元素，
+   *     多余的元素被重置（{@link HitTestResult#getNode()}为null）并排在末尾。
+   * </p>
+   *
+   * @param ray 射线
+   * @param resultBuffer 结果池，前N个为按距离排序的命中结果
+   * @return 命中数量N
+   */
+  public int hitTestAll(Ray ray, ArrayList<HitTestResult> resultBuffer) {
+    Preconditions.checkNotNull(ray, "Parameter \"ray\" was null.");
+    Preconditions.checkNotNull(resultBuffer, "Parameter \"resultBuffer\" was null.");
 
-    collisionSystem.raycastAll(
+    return collisionSystem.raycastAll(
         ray,
-        results,
+        resultBuffer,
         (result, collider) -> result.setNode((Node) collider.getTransformProvider()),
-        () -> new HitTestResult());
-
-    return results;
+        HitTestResult::new);
   }
 
   /**
@@ -414,7 +467,8 @@ public class Scene extends NodeParent {
 
     // TODO: Investigate API for controlling what node's can be hit by the hitTest.
     // i.e. layers, disabling collision shapes.
-    HitTestResult hitTestResult = hitTest(motionEvent);
+    HitTestResult hitTestResult = new HitTestResult();
+    hitTest(motionEvent, touchRay, hitTestResult);
     touchEventSystem.onTouchEvent(hitTestResult, motionEvent);
   }
 
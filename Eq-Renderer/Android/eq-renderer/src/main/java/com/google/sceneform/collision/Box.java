@@ -3,7 +3,6 @@ package com.google.sceneform.collision;
 import android.util.Log;
 
 import com.google.sceneform.common.TransformProvider;
-import com.google.sceneform.math.MathHelper;
 import com.google.sceneform.math.Matrix;
 import com.google.sceneform.math.Quaternion;
 import com.google.sceneform.math.Vector3;
@@ -131,107 +130,57 @@ public class Box extends CollisionShape {
     return rotationMatrix;
   }
 
+  /** 原始中心位置，请勿直接修改 */
+  Vector3 getRawCenter() {
+    return center;
+  }
+
+  /** 原始尺寸，请勿直接修改 */
+  Vector3 getRawSize() {
+    return size;
+  }
+
   /** @hide protected method */
   @Override
   protected boolean rayIntersection(Ray ray, RayHit result) {
     Preconditions.checkNotNull(ray, "Parameter \"ray\" was null.");
     Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
 
-    Vector3 rayDirection = ray.getDirection();
-    Vector3 rayOrigin = ray.getOrigin();
-    Vector3 max = getExtents();
-    Vector3 min = max.negated();
-
-    // tMin is the farthest "near" intersection (amongst the X,Y and Z planes pairs)
-    float tMin = Float.MIN_VALUE;
-
-    // tMax is the nearest "far" intersection (amongst the X,Y and Z planes pairs)
-    float tMax = Float.MAX_VALUE;
-
-    Vector3 delta = Vector3.subtract(center, rayOrigin);
-
-    // Test intersection with the 2 planes perpendicular to the OBB's x axis.
-    float[] axes = rotationMatrix.data;
-    Vector3 axis = new Vector3(axes[0], axes[1], axes[2]);
-    float e = Vector3.dot(axis, delta);
-    float f = Vector3.dot(rayDirection, axis);
-
-    if (!MathHelper.almostEqualRelativeAndAbs(f, 0.0f)) {
-      float t1 = (e + min.x) / f;
-      float t2 = (e + max.x) / f;
-
-      if (t1 > t2) {
-        float temp = t1;
-        t1 = t2;
-        t2 = temp;
-      }
-
-      tMax = Math.min(t2, tMax);
-      tMin = Math.max(t1, tMin);
-
-      if (tMax < tMin) {
-        return false;
-      }
-    } else if (-e + min.x > 0.0f || -e + max.x < 0.0f) {
-      // Ray is almost parallel to one of the planes.
+    Vector3 rayOrigin = ray.getRawOrigin();
+    Vector3 rayDirection = ray.getRawDirection();
+    float distance =
+        Intersections.rayBoxIntersection(
+            rayOrigin.x, rayOrigin.y, rayOrigin.z,
+            rayDirection.x, rayDirection.y, rayDirection.z,
+            center.x, center.y, center.z,
+            size.x * 0.5f, size.y * 0.5f, size.z * 0.5f,
+            rotationMatrix.data);
+    if (Float.isNaN(distance)) {
       return false;
     }
 
-    // Test intersection with the 2 planes perpendicular to the OBB's y axis.
-    axis = new Vector3(axes[4], axes[5], axes[6]);
-    e = Vector3.dot(axis, delta);
-    f = Vector3.dot(rayDirection, axis);
-
-    if (!MathHelper.almostEqualRelativeAndAbs(f, 0.0f)) {
-      float t1 = (e + min.y) / f;
-      float t2 = (e + max.y) / f;
-
-      if (t1 > t2) {
-        float temp = t1;
-        t1 = t2;
-        t2 = temp;
-      }
-
-      tMax = Math.min(t2, tMax);
-      tMin = Math.max(t1, tMin);
-
-      if (tMax < tMin) {
-        return false;
-      }
-    } else if (-e + min.y > 0.0f || -e + max.y < 0.0f) {
-      // Ray is almost parallel to one of the planes.
-      return false;
-    }
+    result.setDistance(distance);
+    result.setPoint(
+        rayOrigin.x + rayDirection.x * distance,
+        rayOrigin.y + rayDirection.y * distance,
+        rayOrigin.z + rayDirection.z * distance);
+    return true;
+  }
 
-    // Test intersection with the 2 planes perpendicular to the OBB's z axis.
-    axis = new Vector3(axes[8], axes[9], axes[10]);
-    e = Vector3.dot(axis, delta);
-    f = Vector3.dot(rayDirection, axis);
-
-    if (!MathHelper.almostEqualRelativeAndAbs(f, 0.0f)) {
-      float t1 = (e + min.z) / f;
-      float t2 = (e + max.z) / f;
-
-      if (t1 > t2) {
-        float temp = t1;
-        t1 = t2;
-        t2 = temp;
-      }
-
-      tMax = Math.min(t2, tMax);
-      tMin = Math.max(t1, tMin);
-
-      if (tMax < tMin) {
-        return false;
-      }
-    } else if (-e + min.z > 0.0f || -e + max.z < 0.0f) {
-      // Ray is almost parallel to one of the planes.
-      return false;
+  @Override
+  void getAabb(float[] result) {
+    //旋转后的半边长为各轴投影之和
+    float[] axes = rotationMatrix.data;
+    float ex = Math.abs(size.x) * 0.5f;
+    float ey = Math.abs(size.y) * 0.5f;
+    float ez = Math.abs(size.z) * 0.5f;
+    for (int i = 0; i < 3; i++) {
+      float extent =
+          Math.abs(axes[i]) * ex + Math.abs(axes[4 + i]) * ey + Math.abs(axes[8 + i]) * ez;
+      float c = i == 0 ? center.x : i == 1 ? center.y : center.z;
+      result[i] = c - extent;
+      result[3 + i] = c + extent;
     }
-
-    result.setDistance(tMin);
-    result.setPoint(ray.getPoint(result.getDistance()));
-    return true;
   }
 
   /** @hide protected method */
@@ -281,17 +230,17 @@ public class Box extends CollisionShape {
     Matrix modelMatrix = transformProvider.getWorldModelMatrix();
 
     // Transform the center of the box.
-    resultBox.center.set(modelMatrix.transformPoint(center));
+    modelMatrix.transformPoint(center, resultBox.center);
 
-    // Transform the size of the box.
-    Vector3 worldScale = new Vector3();
+    // Transform the rotation of the box, using the result size to hold the world scale.
+    Vector3 worldScale = resultBox.size;
     modelMatrix.decomposeScale(worldScale);
+    modelMatrix.decomposeRotation(worldScale, resultBox.rotationMatrix);
+    Matrix.multiply(rotationMatrix, resultBox.rotationMatrix, resultBox.rotationMatrix);
+
+    // Transform the size of the box.
     resultBox.size.x = size.x * worldScale.x;
     resultBox.size.y = size.y * worldScale.y;
     resultBox.size.z = size.z * worldScale.z;
-
-    // Transform the rotation of the box.
-    modelMatrix.decomposeRotation(worldScale, resultBox.rotationMatrix);
-    Matrix.multiply(rotationMatrix, resultBox.rotationMatrix, resultBox.rotationMatrix);
   }
 }
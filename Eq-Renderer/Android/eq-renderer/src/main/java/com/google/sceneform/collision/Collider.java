@@ -21,6 +21,10 @@ public class Collider {
   private boolean isWorldShapeDirty;
   private int shapeId = ChangeId.EMPTY_ID;
 
+  //碰撞系统中的叶节点与包围盒状态，由CollisionSystem维护
+  int proxyId = DynamicAabbTree.NULL_NODE;
+  boolean isBoundsDirty;
+
   /** @hide */
   @SuppressWarnings("initialization") // Suppress @UnderInitialization warning.
   public Collider(TransformProvider transformProvider, CollisionShape localCollisionShape) {
@@ -35,8 +39,15 @@ public class Collider {
   public void setShape(CollisionShape localCollisionShape) {
     Preconditions.checkNotNull(localCollisionShape, "Parameter \"localCollisionShape\" was null.");
 
+    if (attachedCollisionSystem != null && localShape != null) {
+      localShape.removeCollider(this);
+    }
     localShape = localCollisionShape;
     cachedWorldShape = null;
+    if (attachedCollisionSystem != null) {
+      localShape.addCollider(this);
+      attachedCollisionSystem.markColliderDirty(this);
+    }
   }
 
   /** @hide */
@@ -59,11 +70,14 @@ public class Collider {
   public void setAttachedCollisionSystem(@Nullable CollisionSystem collisionSystem) {
     if (attachedCollisionSystem != null) {
       attachedCollisionSystem.removeCollider(this);
+      localShape.removeCollider(this);
     }
 
     attachedCollisionSystem = collisionSystem;
 
     if (attachedCollisionSystem != null) {
+      //仅在碰撞系统中时监听形状修改，避免共享的形状持有已移除的碰撞体
+      localShape.addCollider(this);
       attachedCollisionSystem.addCollider(this);
     }
   }
@@ -71,6 +85,18 @@ public class Collider {
   /** @hide */
   public void markWorldShapeDirty() {
     isWorldShapeDirty = true;
+    if (attachedCollisionSystem != null) {
+      attachedCollisionSystem.markColliderDirty(this);
+    }
+  }
+
+  /**
+   * 局部形状被直接修改(如Box.setSize)时由形状调用
+   */
+  void onShapeChanged() {
+    if (attachedCollisionSystem != null) {
+      attachedCollisionSystem.markColliderDirty(this);
+    }
   }
 
   private boolean doesCachedWorldShapeNeedUpdate() {
@@ -95,5 +121,6 @@ public class Collider {
 
     ChangeId changeId = localShape.getId();
     shapeId = changeId.get();
+    isWorldShapeDirty = false;
   }
 }
@@ -1,14 +1,20 @@
 package com.google.sceneform.collision;
 
+import androidx.annotation.Nullable;
+
 import com.google.sceneform.utilities.ChangeId;
 import com.google.sceneform.common.TransformProvider;
 
+import java.util.ArrayList;
+
 /**
  * 碰撞体形状类
  * <p>可以对其执行碰撞检查的所有形状类型的基类。</p>
  * */
 public abstract class CollisionShape {
   private final ChangeId changeId = new ChangeId();
+  //以该形状为局部形状、且已加入碰撞系统的碰撞体，形状修改时通知其更新包围盒
+  @Nullable private ArrayList<Collider> colliders;
 
   public abstract CollisionShape makeCopy();
 
@@ -18,6 +24,11 @@ public abstract class CollisionShape {
    */
   protected void onChanged() {
     changeId.update();
+    if (colliders != null) {
+      for (int i = 0; i < colliders.size(); i++) {
+        colliders.get(i).onShapeChanged();
+      }
+    }
   }
 
   /** @hide */
@@ -41,6 +52,25 @@ public abstract class CollisionShape {
     return changeId;
   }
 
+  void addCollider(Collider collider) {
+    if (colliders == null) {
+      colliders = new ArrayList<>(1);
+    }
+    colliders.add(collider);
+  }
+
+  void removeCollider(Collider collider) {
+    if (colliders != null) {
+      colliders.remove(collider);
+    }
+  }
+
+  /**
+   * 计算轴对齐包围盒
+   * @param result minX,minY,minZ,maxX,maxY,maxZ
+   */
+  abstract void getAabb(float[] result);
+
   abstract CollisionShape transform(TransformProvider transformProvider);
 
   abstract void transform(TransformProvider transformProvider, CollisionShape result);
@@ -2,10 +2,12 @@ package com.google.sceneform.collision;
 
 import androidx.annotation.Nullable;
 
+import com.google.sceneform.math.Vector3;
 import com.google.sceneform.utilities.Preconditions;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -17,17 +19,62 @@ import java.util.function.Supplier;
  */
 public class CollisionSystem {
   private static final String TAG = CollisionSystem.class.getSimpleName();
+  private static final Comparator<RayHit> DISTANCE_COMPARATOR =
+      (a, b) -> Float.compare(a.getDistance(), b.getDistance());
 
   private final ArrayList<Collider> colliders = new ArrayList<>();
+  //包围盒层次结构，碰撞体变换后仅更新对应叶节点
+  private final DynamicAabbTree tree = new DynamicAabbTree();
+  //变换或形状已变化，查询前需要更新叶节点的碰撞体
+  private final ArrayList<Collider> dirtyColliders = new ArrayList<>();
+
+  //查询过程中复用的临时数据
+  private final float[] aabb = new float[6];
+  private final float[] rayOrigin = new float[3];
+  private final float[] rayDirection = new float[3];
+  private final RayHit tempResult = new RayHit();
+  private final ArrayList<Collider> queryColliders = new ArrayList<>();
+  @Nullable private Ray queryRay;
+  @Nullable private RayHit queryHit;
+  @Nullable private Collider queryCollider;
+  @Nullable private CollisionShape queryShape;
+  @Nullable private Collider queryResult;
+
+  private final DynamicAabbTree.RayCallback nearestRayCallback = this::onNearestRayHit;
+  private final DynamicAabbTree.RayCallback allRayCallback = this::onAllRayHit;
+  private final DynamicAabbTree.QueryCallback firstOverlapCallback = this::onFirstOverlap;
+  private final DynamicAabbTree.QueryCallback allOverlapCallback = this::onAllOverlap;
 
   public void addCollider(Collider collider) {
     Preconditions.checkNotNull(collider, "Parameter \"collider\" was null.");
     colliders.add(collider);
+    //叶节点在下一次查询时创建，此时节点的世界变换可能尚未确定
+    markColliderDirty(collider);
   }
 
   public void removeCollider(Collider collider) {
     Preconditions.checkNotNull(collider, "Parameter \"collider\" was null.");
-    colliders.remove(collider);
+    if (!colliders.remove(collider)) {
+      return;
+    }
+    if (collider.proxyId != DynamicAabbTree.NULL_NODE) {
+      tree.destroyProxy(collider.proxyId);
+      collider.proxyId = DynamicAabbTree.NULL_NODE;
+    }
+    if (collider.isBoundsDirty) {
+      dirtyColliders.remove(collider);
+      collider.isBoundsDirty = false;
+    }
+  }
+
+  /**
+   * 标记碰撞体需要在下一次查询前更新包围盒
+   */
+  void markColliderDirty(Collider collider) {
+    if (!collider.isBoundsDirty) {
+      collider.isBoundsDirty = true;
+      dirtyColliders.add(collider);
+    }
   }
 
   /**
@@ -42,27 +89,22 @@ public class CollisionSystem {
     Preconditions.checkNotNull(resultHit, "Parameter \"resultHit\" was null.");
 
     resultHit.reset();
-    Collider result = null;
-    RayHit tempResult = new RayHit();
-    for (Collider collider : colliders) {
-      CollisionShape collisionShape = collider.getTransformedShape();
-      if (collisionShape == null) {
-        continue;
-      }
-
-      if (collisionShape.rayIntersection(ray, tempResult)) {
-        if (tempResult.getDistance() < resultHit.getDistance()) {
-          resultHit.set(tempResult);
-          result = collider;
-        }
-      }
-    }
+    updateTree();
+    setQueryRay(ray);
+    queryHit = resultHit;
+    queryResult = null;
+    tree.raycast(rayOrigin, rayDirection, Float.MAX_VALUE, nearestRayCallback);
 
+    Collider result = queryResult;
+    queryRay = null;
+    queryHit = null;
+    queryResult = null;
     return result;
   }
 
   /**
    * 执行射线检测
+   * <p>processResult在遍历结束后依次调用</p>
    */
   @SuppressWarnings("AndroidApiChecker")
   public <T extends RayHit> int raycastAll(
@@ -74,34 +116,37 @@ public class CollisionSystem {
     Preconditions.checkNotNull(resultBuffer, "Parameter \"resultBuffer\" was null.");
     Preconditions.checkNotNull(allocateResult, "Parameter \"allocateResult\" was null.");
 
-    RayHit tempResult = new RayHit();
-    int hitCount = 0;
+    updateTree();
+    setQueryRay(ray);
+    queryColliders.clear();
+    tree.raycast(rayOrigin, rayDirection, Float.MAX_VALUE, allRayCallback);
+    queryRay = null;
 
-    // Check the ray against all the colliders.
-    for (Collider collider : colliders) {
+    int hitCount = 0;
+    for (int i = 0; i < queryColliders.size(); i++) {
+      Collider collider = queryColliders.get(i);
       CollisionShape collisionShape = collider.getTransformedShape();
-      if (collisionShape == null) {
+      if (collisionShape == null || !collisionShape.rayIntersection(ray, tempResult)) {
         continue;
       }
 
-      if (collisionShape.rayIntersection(ray, tempResult)) {
-        hitCount++;
-        T result = null;
-        if (resultBuffer.size() >= hitCount) {
-          result = resultBuffer.get(hitCount - 1);
-        } else {
-          result = allocateResult.get();
-          resultBuffer.add(result);
-        }
-
-        result.reset();
-        result.set(tempResult);
-
-        if (processResult != null) {
-          processResult.accept(result, collider);
-        }
+      hitCount++;
+      T result = null;
+      if (resultBuffer.size() >= hitCount) {
+        result = resultBuffer.get(hitCount - 1);
+      } else {
+        result = allocateResult.get();
+        resultBuffer.add(result);
+      }
+
+      result.reset();
+      result.set(tempResult);
+
+      if (processResult != null) {
+        processResult.accept(result, collider);
       }
     }
+    queryColliders.clear();
 
     // Reset extra hits in the buffer.
     for (int i = hitCount; i < resultBuffer.size(); i++) {
@@ -109,7 +154,7 @@ public class CollisionSystem {
     }
 
     // Sort the hits by distance.
-    Collections.sort(resultBuffer, (a, b) -> Float.compare(a.getDistance(), b.getDistance()));
+    Collections.sort(resultBuffer, DISTANCE_COMPARATOR);
 
     return hitCount;
   }
@@ -128,26 +173,23 @@ public class CollisionSystem {
       return null;
     }
 
-    for (Collider otherCollider : colliders) {
-      if (otherCollider == collider) {
-        continue;
-      }
+    updateTree();
+    collisionShape.getAabb(aabb);
+    queryCollider = collider;
+    queryShape = collisionShape;
+    queryResult = null;
+    tree.query(aabb, firstOverlapCallback);
 
-      CollisionShape otherCollisionShape = otherCollider.getTransformedShape();
-      if (otherCollisionShape == null) {
-        continue;
-      }
-
-      if (collisionShape.shapeIntersection(otherCollisionShape)) {
-        return otherCollider;
-      }
-    }
-
-    return null;
+    Collider result = queryResult;
+    queryCollider = null;
+    queryShape = null;
+    queryResult = null;
+    return result;
   }
 
   /**
    * 相交判断
+   * <p>processResult在遍历结束后依次调用</p>
    * @param collider 碰撞体
    * @param processResult  结果
    */
@@ -161,19 +203,96 @@ public class CollisionSystem {
       return;
     }
 
-    for (Collider otherCollider : colliders) {
-      if (otherCollider == collider) {
-        continue;
-      }
+    updateTree();
+    collisionShape.getAabb(aabb);
+    queryCollider = collider;
+    queryShape = collisionShape;
+    queryColliders.clear();
+    tree.query(aabb, allOverlapCallback);
+    queryCollider = null;
+    queryShape = null;
+
+    for (int i = 0; i < queryColliders.size(); i++) {
+      processResult.accept(queryColliders.get(i));
+    }
+    queryColliders.clear();
+  }
 
-      CollisionShape otherCollisionShape = otherCollider.getTransformedShape();
-      if (otherCollisionShape == null) {
+  /**
+   * 查询前更新变化的叶节点：包围盒仍在外扩包围盒内时不改动树，否则重新插入
+   */
+  private void updateTree() {
+    //变换变化由节点标记，局部形状被直接修改（如Box.setSize）时由形状通知，均只更新对应的碰撞体
+    for (int i = 0; i < dirtyColliders.size(); i++) {
+      Collider collider = dirtyColliders.get(i);
+      collider.isBoundsDirty = false;
+      CollisionShape collisionShape = collider.getTransformedShape();
+      if (collisionShape == null) {
         continue;
       }
-
-      if (collisionShape.shapeIntersection(otherCollisionShape)) {
-        processResult.accept(otherCollider);
+      collisionShape.getAabb(aabb);
+      if (collider.proxyId == DynamicAabbTree.NULL_NODE) {
+        collider.proxyId = tree.createProxy(aabb, collider);
+      } else {
+        tree.moveProxy(collider.proxyId, aabb);
       }
     }
+    dirtyColliders.clear();
+  }
+
+  private void setQueryRay(Ray ray) {
+    queryRay = ray;
+    Vector3 origin = ray.getRawOrigin();
+    Vector3 direction = ray.getRawDirection();
+    rayOrigin[0] = origin.x;
+    rayOrigin[1] = origin.y;
+    rayOrigin[2] = origin.z;
+    rayDirection[0] = direction.x;
+    rayDirection[1] = direction.y;
+    rayDirection[2] = direction.z;
+  }
+
+  private float onNearestRayHit(int proxyId, float maxDistance) {
+    Collider collider = (Collider) tree.getUserData(proxyId);
+    CollisionShape collisionShape = collider.getTransformedShape();
+    if (collisionShape != null
+        && collisionShape.rayIntersection(queryRay, tempResult)
+        && tempResult.getDistance() < queryHit.getDistance()) {
+      queryHit.set(tempResult);
+      queryResult = collider;
+      //更远的包围盒不再检测
+      return Math.max(0f, tempResult.getDistance());
+    }
+    return maxDistance;
+  }
+
+  private float onAllRayHit(int proxyId, float maxDistance) {
+    queryColliders.add((Collider) tree.getUserData(proxyId));
+    return maxDistance;
+  }
+
+  private boolean onFirstOverlap(int proxyId) {
+    Collider otherCollider = (Collider) tree.getUserData(proxyId);
+    if (otherCollider == queryCollider) {
+      return true;
+    }
+    CollisionShape otherCollisionShape = otherCollider.getTransformedShape();
+    if (otherCollisionShape != null && queryShape.shapeIntersection(otherCollisionShape)) {
+      queryResult = otherCollider;
+      return false;
+    }
+    return true;
+  }
+
+  private boolean onAllOverlap(int proxyId) {
+    Collider otherCollider = (Collider) tree.getUserData(proxyId);
+    if (otherCollider == queryCollider) {
+      return true;
+    }
+    CollisionShape otherCollisionShape = otherCollider.getTransformedShape();
+    if (otherCollisionShape != null && queryShape.shapeIntersection(otherCollisionShape)) {
+      queryColliders.add(otherCollider);
+    }
+    return true;
   }
 }
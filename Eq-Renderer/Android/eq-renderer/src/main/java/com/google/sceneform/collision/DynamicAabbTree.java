@@ -0,0 +1,442 @@
+package com.google.sceneform.collision;
+
+import java.util.Arrays;
+
+/**
+ * 动态AABB树
+ * <p>
+ *     叶节点保存碰撞体外扩后的包围盒，插入时按表面积启发式选择兄弟节点，并通过旋转保持平衡。
+ *     碰撞体移动后只要包围盒仍在外扩包围盒内就无需更新，否则删除并重新插入该叶节点，
+ *     不需要重建整棵树。
+ * </p>
+ * <p>节点以数组存储，查询过程不分配对象。</p>
+ * @hide
+ */
+final class DynamicAabbTree {
+  static final int NULL_NODE = -1;
+
+  //外扩比例（相对包围盒最大半边长）与最小外扩量
+  private static final float MARGIN_RATIO = 0.1f;
+  private static final float MIN_MARGIN = 0.01f;
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** 射线查询回调 */
+  interface RayCallback {
+    /**
+     * @param proxyId 叶节点
+     * @param maxDistance 当前最大距离
+     * @return 新的最大距离，用于剪枝；不剪枝时返回maxDistance，返回负数时结束查询
+     */
+    float onRayHitProxy(int proxyId, float maxDistance);
+  }
+
+  /** 包围盒查询回调 */
+  interface QueryCallback {
+    /**
+     * @param proxyId 叶节点
+     * @return 是否继续查询
+     */
+    boolean onOverlapProxy(int proxyId);
+  }
+
+  private int root = NULL_NODE;
+  private int capacity;
+  private int freeList;
+
+  //minX,minY,minZ,maxX,maxY,maxZ * capacity
+  private float[] bounds;
+  private int[] parent;
+  private int[] child1;
+  private int[] child2;
+  //叶节点为0，空闲节点为-1
+  private int[] height;
+  private Object[] userData;
+
+  private int[] stack = new int[64];
+
+  DynamicAabbTree() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * 插入叶节点
+   * @param aabb minX,minY,minZ,maxX,maxY,maxZ
+   * @return 叶节点编号
+   */
+  int createProxy(float[] aabb, Object data) {
+    int proxyId = allocateNode();
+    setFatBounds(proxyId, aabb);
+    userData[proxyId] = data;
+    height[proxyId] = 0;
+    insertLeaf(proxyId);
+    return proxyId;
+  }
+
+  void destroyProxy(int proxyId) {
+    removeLeaf(proxyId);
+    freeNode(proxyId);
+  }
+
+  /**
+   * 更新叶节点包围盒
+   * @return 是否重新插入；包围盒仍在外扩包围盒内时返回false
+   */
+  boolean moveProxy(int proxyId, float[] aabb) {
+    int o = proxyId * 6;
+    if (bounds[o] <= aabb[0] && bounds[o + 1] <= aabb[1] && bounds[o + 2] <= aabb[2]
+        && bounds[o + 3] >= aabb[3] && bounds[o + 4] >= aabb[4] && bounds[o + 5] >= aabb[5]) {
+      return false;
+    }
+    removeLeaf(proxyId);
+    setFatBounds(proxyId, aabb);
+    insertLeaf(proxyId);
+    return true;
+  }
+
+  Object getUserData(int proxyId) {
+    return userData[proxyId];
+  }
+
+  int getHeight() {
+    return root == NULL_NODE ? 0 : height[root];
+  }
+
+  /**
+   * 射线查询
+   * @param origin 起点
+   * @param direction 方向（单位向量）
+   * @param maxDistance 最大距离
+   */
+  void raycast(float[] origin, float[] direction, float maxDistance, RayCallback callback) {
+    if (root == NULL_NODE) {
+      return;
+    }
+    float ox = origin[0], oy = origin[1], oz = origin[2];
+    float dx = direction[0], dy = direction[1], dz = direction[2];
+    float ix = 1f / dx, iy = 1f / dy, iz = 1f / dz;
+
+    int top = 0;
+    stack[top++] = root;
+    while (top > 0) {
+      int node = stack[--top];
+      int o = node * 6;
+      if (!rayOverlaps(o, ox, oy, oz, dx, dy, dz, ix, iy, iz, maxDistance)) {
+        continue;
+      }
+      if (height[node] == 0) {
+        maxDistance = callback.onRayHitProxy(node, maxDistance);
+        if (maxDistance < 0f) {
+          return;
+        }
+      } else {
+        top = push(top, child1[node]);
+        top = push(top, child2[node]);
+      }
+    }
+  }
+
+  /**
+   * 包围盒查询
+   * @param aabb minX,minY,minZ,maxX,maxY,maxZ
+   */
+  void query(float[] aabb, QueryCallback callback) {
+    if (root == NULL_NODE) {
+      return;
+    }
+    int top = 0;
+    stack[top++] = root;
+    while (top > 0) {
+      int node = stack[--top];
+      int o = node * 6;
+      if (bounds[o] > aabb[3] || bounds[o + 1] > aabb[4] || bounds[o + 2] > aabb[5]
+          || bounds[o + 3] < aabb[0] || bounds[o + 4] < aabb[1] || bounds[o + 5] < aabb[2]) {
+        continue;
+      }
+      if (height[node] == 0) {
+        if (!callback.onOverlapProxy(node)) {
+          return;
+        }
+      } else {
+        top = push(top, child1[node]);
+        top = push(top, child2[node]);
+      }
+    }
+  }
+
+  private int push(int top, int node) {
+    if (top == stack.length) {
+      stack = Arrays.copyOf(stack, top * 2);
+    }
+    stack[top] = node;
+    return top + 1;
+  }
+
+  /**
+   * 射线与包围盒相交（slab法），方向分量为0时按起点是否在区间内判断
+   */
+  private boolean rayOverlaps(int o, float ox, float oy, float oz,
+                              float dx, float dy, float dz,
+                              float ix, float iy, float iz, float maxDistance) {
+    float tMin = 0f;
+    float tMax = maxDistance;
+    if (dx != 0f) {
+      float t1 = (bounds[o] - ox) * ix;
+      float t2 = (bounds[o + 3] - ox) * ix;
+      tMin = Math.max(tMin, Math.min(t1, t2));
+      tMax = Math.min(tMax, Math.max(t1, t2));
+    } else if (ox < bounds[o] || ox > bounds[o + 3]) {
+      return false;
+    }
+    if (dy != 0f) {
+      float t1 = (bounds[o + 1] - oy) * iy;
+      float t2 = (bounds[o + 4] - oy) * iy;
+      tMin = Math.max(tMin, Math.min(t1, t2));
+      tMax = Math.min(tMax, Math.max(t1, t2));
+    } else if (oy < bounds[o + 1] || oy > bounds[o + 4]) {
+      return false;
+    }
+    if (dz != 0f) {
+      float t1 = (bounds[o + 2] - oz) * iz;
+      float t2 = (bounds[o + 5] - oz) * iz;
+      tMin = Math.max(tMin, Math.min(t1, t2));
+      tMax = Math.min(tMax, Math.max(t1, t2));
+    } else if (oz < bounds[o + 2] || oz > bounds[o + 5]) {
+      return false;
+    }
+    return tMin <= tMax;
+  }
+
+  private void setFatBounds(int node, float[] aabb) {
+    float margin = Math.max(MIN_MARGIN, MARGIN_RATIO * 0.5f
+        * Math.max(aabb[3] - aabb[0], Math.max(aabb[4] - aabb[1], aabb[5] - aabb[2])));
+    int o = node * 6;
+    bounds[o] = aabb[0] - margin;
+    bounds[o + 1] = aabb[1] - margin;
+    bounds[o + 2] = aabb[2] - margin;
+    bounds[o + 3] = aabb[3] + margin;
+    bounds[o + 4] = aabb[4] + margin;
+    bounds[o + 5] = aabb[5] + margin;
+  }
+
+  private void insertLeaf(int leaf) {
+    if (root == NULL_NODE) {
+      root = leaf;
+      parent[leaf] = NULL_NODE;
+      return;
+    }
+
+    //表面积启发式：沿代价最小的方向下降，寻找兄弟节点
+    int lo = leaf * 6;
+    int index = root;
+    while (height[index] > 0) {
+      int c1 = child1[index];
+      int c2 = child2[index];
+      int io = index * 6;
+
+      float area = area(io);
+      float combinedArea = combinedArea(io, lo);
+      //新建父节点的代价
+      float cost = 2f * combinedArea;
+      //下推的继承代价
+      float inheritanceCost = 2f * (combinedArea - area);
+
+      float cost1 = descendCost(c1, lo) + inheritanceCost;
+      float cost2 = descendCost(c2, lo) + inheritanceCost;
+      if (cost < cost1 && cost < cost2) {
+        break;
+      }
+      index = cost1 < cost2 ? c1 : c2;
+    }
+
+    int sibling = index;
+    int oldParent = parent[sibling];
+    int newParent = allocateNode();
+    parent[newParent] = oldParent;
+    userData[newParent] = null;
+    union(sibling * 6, lo, newParent * 6);
+    height[newParent] = height[sibling] + 1;
+    child1[newParent] = sibling;
+    child2[newParent] = leaf;
+    parent[sibling] = newParent;
+    parent[leaf] = newParent;
+    if (oldParent != NULL_NODE) {
+      if (child1[oldParent] == sibling) {
+        child1[oldParent] = newParent;
+      } else {
+        child2[oldParent] = newParent;
+      }
+    } else {
+      root = newParent;
+    }
+
+    refit(parent[leaf]);
+  }
+
+  private float descendCost(int child, int lo) {
+    int co = child * 6;
+    if (height[child] == 0) {
+      return combinedArea(co, lo);
+    }
+    return combinedArea(co, lo) - area(co);
+  }
+
+  private void removeLeaf(int leaf) {
+    if (leaf == root) {
+      root = NULL_NODE;
+      return;
+    }
+    int p = parent[leaf];
+    int grandParent = parent[p];
+    int sibling = child1[p] == leaf ? child2[p] : child1[p];
+
+    if (grandParent != NULL_NODE) {
+      if (child1[grandParent] == p) {
+        child1[grandParent] = sibling;
+      } else {
+        child2[grandParent] = sibling;
+      }
+      parent[sibling] = grandParent;
+      freeNode(p);
+      refit(grandParent);
+    } else {
+      root = sibling;
+      parent[sibling] = NULL_NODE;
+      freeNode(p);
+    }
+  }
+
+  /**
+   * 自下而上重新计算包围盒与高度，并做平衡旋转
+   */
+  private void refit(int index) {
+    while (index != NULL_NODE) {
+      index = balance(index);
+      int c1 = child1[index];
+      int c2 = child2[index];
+      height[index] = 1 + Math.max(height[c1], height[c2]);
+      union(c1 * 6, c2 * 6, index * 6);
+      index = parent[index];
+    }
+  }
+
+  /**
+   * 若a的左右子树高度差大于1，则旋转
+   * @return 旋转后位于原位置的节点
+   */
+  private int balance(int a) {
+    if (height[a] < 2) {
+      return a;
+    }
+    int b = child1[a];
+    int c = child2[a];
+    int diff = height[c] - height[b];
+    if (diff > 1) {
+      return rotate(a, c, b);
+    }
+    if (diff < -1) {
+      return rotate(a, b, c);
+    }
+    return a;
+  }
+
+  /**
+   * 将较高的子节点high提升到a的位置
+   * @param low a的另一个子节点
+   */
+  private int rotate(int a, int high, int low) {
+    int f = child1[high];
+    int g = child2[high];
+
+    child1[high] = a;
+    parent[high] = parent[a];
+    parent[a] = high;
+    if (parent[high] != NULL_NODE) {
+      if (child1[parent[high]] == a) {
+        child1[parent[high]] = high;
+      } else {
+        child2[parent[high]] = high;
+      }
+    } else {
+      root = high;
+    }
+
+    //较高的孙节点留在high下，较低的接到a下
+    int keep = height[f] > height[g] ? f : g;
+    int move = keep == f ? g : f;
+    child2[high] = keep;
+    if (child1[a] == high) {
+      child1[a] = move;
+    } else {
+      child2[a] = move;
+    }
+    parent[move] = a;
+
+    union(low * 6, move * 6, a * 6);
+    height[a] = 1 + Math.max(height[low], height[move]);
+    union(a * 6, keep * 6, high * 6);
+    height[high] = 1 + Math.max(height[a], height[keep]);
+    return high;
+  }
+
+  private float area(int o) {
+    float x = bounds[o + 3] - bounds[o];
+    float y = bounds[o + 4] - bounds[o + 1];
+    float z = bounds[o + 5] - bounds[o + 2];
+    return x * y + y * z + z * x;
+  }
+
+  private float combinedArea(int a, int b) {
+    float x = Math.max(bounds[a + 3], bounds[b + 3]) - Math.min(bounds[a], bounds[b]);
+    float y = Math.max(bounds[a + 4], bounds[b + 4]) - Math.min(bounds[a + 1], bounds[b + 1]);
+    float z = Math.max(bounds[a + 5], bounds[b + 5]) - Math.min(bounds[a + 2], bounds[b + 2]);
+    return x * y + y * z + z * x;
+  }
+
+  private void union(int a, int b, int out) {
+    bounds[out] = Math.min(bounds[a], bounds[b]);
+    bounds[out + 1] = Math.min(bounds[a + 1], bounds[b + 1]);
+    bounds[out + 2] = Math.min(bounds[a + 2], bounds[b + 2]);
+    bounds[out + 3] = Math.max(bounds[a + 3], bounds[b + 3]);
+    bounds[out + 4] = Math.max(bounds[a + 4], bounds[b + 4]);
+    bounds[out + 5] = Math.max(bounds[a + 5], bounds[b + 5]);
+  }
+
+  private int allocateNode() {
+    if (freeList == NULL_NODE) {
+      allocate(capacity * 2);
+    }
+    int node = freeList;
+    freeList = parent[node];
+    parent[node] = NULL_NODE;
+    child1[node] = NULL_NODE;
+    child2[node] = NULL_NODE;
+    height[node] = 0;
+    return node;
+  }
+
+  private void freeNode(int node) {
+    parent[node] = freeList;
+    height[node] = -1;
+    userData[node] = null;
+    freeList = node;
+  }
+
+  /**
+   * 扩容，新增节点加入空闲链表（空闲链表复用parent）
+   */
+  private void allocate(int newCapacity) {
+    int oldCapacity = capacity;
+    bounds = bounds == null ? new float[newCapacity * 6] : Arrays.copyOf(bounds, newCapacity * 6);
+    parent = parent == null ? new int[newCapacity] : Arrays.copyOf(parent, newCapacity);
+    child1 = child1 == null ? new int[newCapacity] : Arrays.copyOf(child1, newCapacity);
+    child2 = child2 == null ? new int[newCapacity] : Arrays.copyOf(child2, newCapacity);
+    height = height == null ? new int[newCapacity] : Arrays.copyOf(height, newCapacity);
+    userData = userData == null ? new Object[newCapacity] : Arrays.copyOf(userData, newCapacity);
+    for (int i = oldCapacity; i < newCapacity; i++) {
+      parent[i] = i + 1 < newCapacity ? i + 1 : NULL_NODE;
+      height[i] = -1;
+    }
+    freeList = oldCapacity;
+    capacity = newCapacity;
+  }
+}
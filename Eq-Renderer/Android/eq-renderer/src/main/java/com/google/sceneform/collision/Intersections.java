@@ -13,26 +13,181 @@ import java.util.List;
 /**
  * 相交判断工具类
  * <p>实现碰撞检测的相交测试</p>
+ * <p>
+ *     float数组重载不分配对象，可在手势等高频场景中直接使用：
+ *     向量为 x,y,z，旋转为4x4 column-major矩阵，Box以半边长表示。
+ * </p>
+ * @hide
  * */
 @Keep
-class Intersections {
+public class Intersections {
+  /**
+   * 射线未命中时返回的距离
+   * <p>为NaN，需用{@link Float#isNaN(float)}判断；命中时返回的距离均不为负</p>
+   */
+  public static final float NO_HIT = Float.NaN;
+
   private static final int NUM_VERTICES_PER_BOX = 8;
   private static final int NUM_TEST_AXES = 15;
 
+  private Intersections() {}
+
   /** 判断两个球体是否相交。*/
   static boolean sphereSphereIntersection(Sphere sphere1, Sphere sphere2) {
     Preconditions.checkNotNull(sphere1, "Parameter \"sphere1\" was null.");
     Preconditions.checkNotNull(sphere2, "Parameter \"sphere2\" was null.");
 
-    float combinedRadius = sphere1.getRadius() + sphere2.getRadius();
+    Vector3 center1 = sphere1.getRawCenter();
+    Vector3 center2 = sphere2.getRawCenter();
+    return sphereSphereIntersection(
+        center1.x, center1.y, center1.z, sphere1.getRadius(),
+        center2.x, center2.y, center2.z, sphere2.getRadius());
+  }
+
+  /**
+   * 判断两个球体是否相交
+   * @param center1 球心
+   * @param center2 球心
+   */
+  public static boolean sphereSphereIntersection(
+      float[] center1, float radius1, float[] center2, float radius2) {
+    return sphereSphereIntersection(
+        center1[0], center1[1], center1[2], radius1, center2[0], center2[1], center2[2], radius2);
+  }
+
+  static boolean sphereSphereIntersection(
+      float x1, float y1, float z1, float radius1, float x2, float y2, float z2, float radius2) {
+    float combinedRadius = radius1 + radius2;
     float combinedRadiusSquared = combinedRadius * combinedRadius;
-    Vector3 difference = Vector3.subtract(sphere2.getCenter(), sphere1.getCenter());
-    float differenceLengthSquared = Vector3.dot(difference, difference);
+    float dx = x2 - x1;
+    float dy = y2 - y1;
+    float dz = z2 - z1;
+    float differenceLengthSquared = dx * dx + dy * dy + dz * dz;
 
     return differenceLengthSquared - combinedRadiusSquared <= 0.0f
         && differenceLengthSquared != 0.0f;
   }
 
+  /**
+   * 射线与球体相交
+   * @param rayOrigin 射线起点
+   * @param rayDirection 射线方向（单位向量）
+   * @param center 球心
+   * @return 沿射线的距离，起点在球内时为出射点的距离；未命中时返回{@link #NO_HIT}
+   */
+  public static float raySphereIntersection(
+      float[] rayOrigin, float[] rayDirection, float[] center, float radius) {
+    return raySphereIntersection(
+        rayOrigin[0], rayOrigin[1], rayOrigin[2],
+        rayDirection[0], rayDirection[1], rayDirection[2],
+        center[0], center[1], center[2], radius);
+  }
+
+  static float raySphereIntersection(
+      float ox, float oy, float oz, float dx, float dy, float dz,
+      float cx, float cy, float cz, float radius) {
+    float diffX = ox - cx;
+    float diffY = oy - cy;
+    float diffZ = oz - cz;
+    float b = 2.0f * (diffX * dx + diffY * dy + diffZ * dz);
+    float c = diffX * diffX + diffY * diffY + diffZ * diffZ - radius * radius;
+    float discriminant = b * b - 4.0f * c;
+
+    if (discriminant < 0.0f) {
+      return NO_HIT;
+    }
+
+    float discriminantSqrt = (float) Math.sqrt(discriminant);
+    float tMinus = (-b - discriminantSqrt) / 2.0f;
+    float tPlus = (-b + discriminantSqrt) / 2.0f;
+
+    if (tMinus < 0.0f && tPlus < 0.0f) {
+      return NO_HIT;
+    }
+
+    //起点在球内时取远端交点
+    return tMinus < 0.0f ? tPlus : tMinus;
+  }
+
+  /**
+   * 射线与有向Box相交
+   * @param rayOrigin 射线起点
+   * @param rayDirection 射线方向（单位向量）
+   * @param center Box中心
+   * @param extents Box半边长
+   * @param rotation Box旋转矩阵，与{@link Matrix#data}相同为列主序，第i列(rotation[4i]~rotation[4i+2])为Box的第i个坐标轴
+   * @return 沿射线的距离，起点在Box内时为0；未命中时返回{@link #NO_HIT}
+   */
+  public static float rayBoxIntersection(
+      float[] rayOrigin, float[] rayDirection, float[] center, float[] extents, float[] rotation) {
+    return rayBoxIntersection(
+        rayOrigin[0], rayOrigin[1], rayOrigin[2],
+        rayDirection[0], rayDirection[1], rayDirection[2],
+        center[0], center[1], center[2],
+        extents[0], extents[1], extents[2], rotation);
+  }
+
+  static float rayBoxIntersection(
+      float ox, float oy, float oz, float dx, float dy, float dz,
+      float cx, float cy, float cz, float ex, float ey, float ez, float[] axes) {
+    // tMin is the farthest "near" intersection (amongst the X,Y and Z planes pairs),
+    // clamped to the ray origin so that an origin inside the box hits at 0.
+    float tMin = 0.0f;
+
+    // tMax is the nearest "far" intersection (amongst the X,Y and Z planes pairs)
+    float tMax = Float.MAX_VALUE;
+
+    float deltaX = cx - ox;
+    float deltaY = cy - oy;
+    float deltaZ = cz - oz;
+
+    for (int i = 0; i < 3; i++) {
+      // Test intersection with the 2 planes perpendicular to the OBB's axis.
+      int a = i * 4;
+      float extent = i == 0 ? ex : i == 1 ? ey : ez;
+      float e = axes[a] * deltaX + axes[a + 1] * deltaY + axes[a + 2] * deltaZ;
+      float f = dx * axes[a] + dy * axes[a + 1] + dz * axes[a + 2];
+
+      if (!MathHelper.almostEqualRelativeAndAbs(f, 0.0f)) {
+        float t1 = (e - extent) / f;
+        float t2 = (e + extent) / f;
+
+        if (t1 > t2) {
+          float temp = t1;
+          t1 = t2;
+          t2 = temp;
+        }
+
+        tMax = Math.min(t2, tMax);
+        tMin = Math.max(t1, tMin);
+
+        if (tMax < tMin) {
+          return NO_HIT;
+        }
+      } else if (-e - extent > 0.0f || -e + extent < 0.0f) {
+        // Ray is almost parallel to one of the planes.
+        return NO_HIT;
+      }
+    }
+
+    return tMin;
+  }
+
+  /**
+   * 判断球体是否与有向Box相交
+   * @param sphereCenter 球心
+   * @param boxCenter Box中心
+   * @param extents Box半边长
+   * @param rotation Box旋转矩阵，与{@link Matrix#data}相同为列主序，第i列(rotation[4i]~rotation[4i+2])为Box的第i个坐标轴
+   */
+  public static boolean sphereBoxIntersection(
+      float[] sphereCenter, float radius, float[] boxCenter, float[] extents, float[] rotation) {
+    return sphereBoxIntersection(
+        sphereCenter[0], sphereCenter[1], sphereCenter[2], radius,
+        boxCenter[0], boxCenter[1], boxCenter[2],
+        extents[0], extents[1], extents[2], rotation);
+  }
+
   /** 判断两个Box对象是否相交 */
   static boolean boxBoxIntersection(Box box1, Box box2) {
     Preconditions.checkNotNull(box1, "Parameter \"box1\" was null.");
@@ -74,74 +229,65 @@ class Intersections {
     Preconditions.checkNotNull(sphere, "Parameter \"sphere\" was null.");
     Preconditions.checkNotNull(box, "Parameter \"box\" was null.");
 
-    Vector3 point = closestPointOnBox(sphere.getCenter(), box);
-    Vector3 sphereDiff = Vector3.subtract(point, sphere.getCenter());
-    float sphereDiffLengthSquared = Vector3.dot(sphereDiff, sphereDiff);
-
-    if (sphereDiffLengthSquared > sphere.getRadius() * sphere.getRadius()) {
-      return false;
-    }
-
-    if (MathHelper.almostEqualRelativeAndAbs(sphereDiffLengthSquared, 0.0f)) {
-      Vector3 boxDiff = Vector3.subtract(point, box.getCenter());
-      float boxDiffLengthSquared = Vector3.dot(boxDiff, boxDiff);
-      if (MathHelper.almostEqualRelativeAndAbs(boxDiffLengthSquared, 0.0f)) {
-        return false;
-      }
-    }
-
-    return true;
+    Vector3 sphereCenter = sphere.getRawCenter();
+    Vector3 boxCenter = box.getRawCenter();
+    Vector3 size = box.getRawSize();
+    return sphereBoxIntersection(
+        sphereCenter.x, sphereCenter.y, sphereCenter.z, sphere.getRadius(),
+        boxCenter.x, boxCenter.y, boxCenter.z,
+        size.x * 0.5f, size.y * 0.5f, size.z * 0.5f,
+        box.getRawRotationMatrix().data);
   }
 
-  private static Vector3 closestPointOnBox(Vector3 point, Box box) {
-    Vector3 result = new Vector3(box.getCenter());
-    Vector3 diff = Vector3.subtract(point, box.getCenter());
-    Matrix boxRotation = box.getRawRotationMatrix();
-    Vector3 boxExtents = box.getExtents();
-
-    // x-axis
-    {
-      Vector3 axis = extractXAxisFromRotationMatrix(boxRotation);
-      float distance = Vector3.dot(diff, axis);
-
-      if (distance > boxExtents.x) {
-        distance = boxExtents.x;
-      } else if (distance < -boxExtents.x) {
-        distance = -boxExtents.x;
+  static boolean sphereBoxIntersection(
+      float sx, float sy, float sz, float radius,
+      float cx, float cy, float cz, float ex, float ey, float ez, float[] rotation) {
+    // Closest point on the box, the axes are the columns of the rotation matrix.
+    float diffX = sx - cx;
+    float diffY = sy - cy;
+    float diffZ = sz - cz;
+    float px = cx;
+    float py = cy;
+    float pz = cz;
+    for (int i = 0; i < 3; i++) {
+      float axisX = rotation[i * 4];
+      float axisY = rotation[i * 4 + 1];
+      float axisZ = rotation[i * 4 + 2];
+      float extent = i == 0 ? ex : i == 1 ? ey : ez;
+      float distance = diffX * axisX + diffY * axisY + diffZ * axisZ;
+
+      if (distance > extent) {
+        distance = extent;
+      } else if (distance < -extent) {
+        distance = -extent;
       }
 
-      result = Vector3.add(result, axis.scaled(distance));
+      px += axisX * distance;
+      py += axisY * distance;
+      pz += axisZ * distance;
     }
 
-    // y-axis
-    {
-      Vector3 axis = extractYAxisFromRotationMatrix(boxRotation);
-      float distance = Vector3.dot(diff, axis);
+    float sphereDiffX = px - sx;
+    float sphereDiffY = py - sy;
+    float sphereDiffZ = pz - sz;
+    float sphereDiffLengthSquared =
+        sphereDiffX * sphereDiffX + sphereDiffY * sphereDiffY + sphereDiffZ * sphereDiffZ;
 
-      if (distance > boxExtents.y) {
-        distance = boxExtents.y;
-      } else if (distance < -boxExtents.y) {
-        distance = -boxExtents.y;
-      }
-
-      result = Vector3.add(result, axis.scaled(distance));
+    if (sphereDiffLengthSquared > radius * radius) {
+      return false;
     }
 
-    // z-axis
-    {
-      Vector3 axis = extractZAxisFromRotationMatrix(boxRotation);
-      float distance = Vector3.dot(diff, axis);
-
-      if (distance > boxExtents.z) {
-        distance = boxExtents.z;
-      } else if (distance < -boxExtents.z) {
-        distance = -boxExtents.z;
+    if (MathHelper.almostEqualRelativeAndAbs(sphereDiffLengthSquared, 0.0f)) {
+      float boxDiffX = px - cx;
+      float boxDiffY = py - cy;
+      float boxDiffZ = pz - cz;
+      float boxDiffLengthSquared = boxDiffX * boxDiffX + boxDiffY * boxDiffY + boxDiffZ * boxDiffZ;
+      if (MathHelper.almostEqualRelativeAndAbs(boxDiffLengthSquared, 0.0f)) {
+        return false;
       }
-
-      result = Vector3.add(result, axis.scaled(distance));
     }
 
-    return result;
+    return true;
   }
 
   private static boolean testSeparatingAxis(
@@ -1,5 +1,6 @@
 package com.google.sceneform.collision;
 
+import com.google.sceneform.math.MathHelper;
 import com.google.sceneform.math.Vector3;
 import com.google.sceneform.utilities.Preconditions;
 
@@ -45,6 +46,17 @@ public class Ray {
     return new Vector3(origin);
   }
 
+  /**
+   * 获取射线起点（不分配对象）
+   * @param result 输出
+   * @return result
+   */
+  public Vector3 getOrigin(Vector3 result) {
+    Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
+    result.set(origin);
+    return result;
+  }
+
   /**
    * 设置射线的方向
    * <p>参数会自动进行归一化处理</p>
@@ -64,6 +76,34 @@ public class Ray {
     return new Vector3(direction);
   }
 
+  /**
+   * 获取射线的方向向量（不分配对象）
+   * @param result 输出
+   * @return result
+   */
+  public Vector3 getDirection(Vector3 result) {
+    Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
+    result.set(direction);
+    return result;
+  }
+
+  /**
+   * 设置起点与方向（不分配对象）
+   * <p>方向会自动进行归一化处理</p>
+   */
+  public void set(float originX, float originY, float originZ,
+                  float directionX, float directionY, float directionZ) {
+    origin.set(originX, originY, originZ);
+    //与Vector3.normalized()一致
+    float normSquared = directionX * directionX + directionY * directionY + directionZ * directionZ;
+    if (MathHelper.almostEqualRelativeAndAbs(normSquared, 0.0f)) {
+      direction.set(0f, 0f, 0f);
+    } else {
+      float norm = normSquared == 1 ? 1f : (float) (1.0 / Math.sqrt(normSquared));
+      direction.set(directionX * norm, directionY * norm, directionZ * norm);
+    }
+  }
+
   /**
    * 获取指定距离的空间位置
    * @param distance 距离
@@ -73,6 +113,35 @@ public class Ray {
     return Vector3.add(origin, direction.scaled(distance));
   }
 
+  /**
+   * 获取指定距离的空间位置（不分配对象）
+   * @param distance 距离
+   * @param result 输出
+   * @return result
+   */
+  public Vector3 getPoint(float distance, Vector3 result) {
+    Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
+    result.set(
+        origin.x + direction.x * distance,
+        origin.y + direction.y * distance,
+        origin.z + direction.z * distance);
+    return result;
+  }
+
+  /**
+   * 原始起点，请勿修改
+   */
+  Vector3 getRawOrigin() {
+    return origin;
+  }
+
+  /**
+   * 原始方向（单位向量），请勿修改
+   */
+  Vector3 getRawDirection() {
+    return direction;
+  }
+
   @Override
   public String toString() {
     return "[Origin:" + origin + ", Direction:" + direction + "]";
@@ -39,6 +39,22 @@ public class RayHit {
     return new Vector3(point);
   }
 
+  /**
+   * 获得射线在世界空间中撞击到碰撞形状的位置（不分配对象）
+   * @param result 输出
+   * @return result
+   */
+  public Vector3 getPoint(Vector3 result) {
+    Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
+    result.set(point);
+    return result;
+  }
+
+  /** @hide */
+  public void setPoint(float x, float y, float z) {
+    point.set(x, y, z);
+  }
+
   /** @hide */
   public void set(RayHit other) {
     Preconditions.checkNotNull(other, "Parameter \"other\" was null.");
@@ -86,42 +86,47 @@ public class Sphere extends CollisionShape {
     return new Sphere(getRadius(), getCenter());
   }
 
+  /** 原始球心，请勿直接修改 */
+  Vector3 getRawCenter() {
+    return center;
+  }
+
   /** @hide */
   @Override
   protected boolean rayIntersection(Ray ray, RayHit result) {
     Preconditions.checkNotNull(ray, "Parameter \"ray\" was null.");
     Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
 
-    Vector3 rayDirection = ray.getDirection();
-    Vector3 rayOrigin = ray.getOrigin();
-
-    Vector3 difference = Vector3.subtract(rayOrigin, center);
-    float b = 2.0f * Vector3.dot(difference, rayDirection);
-    float c = Vector3.dot(difference, difference) - radius * radius;
-    float discriminant = b * b - 4.0f * c;
-
-    if (discriminant < 0.0f) {
+    Vector3 rayOrigin = ray.getRawOrigin();
+    Vector3 rayDirection = ray.getRawDirection();
+    float distance =
+        Intersections.raySphereIntersection(
+            rayOrigin.x, rayOrigin.y, rayOrigin.z,
+            rayDirection.x, rayDirection.y, rayDirection.z,
+            center.x, center.y, center.z, radius);
+    if (Float.isNaN(distance)) {
       return false;
     }
 
-    float discriminantSqrt = (float) Math.sqrt(discriminant);
-    float tMinus = (-b - discriminantSqrt) / 2.0f;
-    float tPlus = (-b + discriminantSqrt) / 2.0f;
-
-    if (tMinus < 0.0f && tPlus < 0.0f) {
-      return false;
-    }
-
-    if (tMinus < 0 && tPlus > 0) {
-      result.setDistance(tPlus);
-    } else {
-      result.setDistance(tMinus);
-    }
-
-    result.setPoint(ray.getPoint(result.getDistance()));
+    result.setDistance(distance);
+    result.setPoint(
+        rayOrigin.x + rayDirection.x * distance,
+        rayOrigin.y + rayDirection.y * distance,
+        rayOrigin.z + rayDirection.z * distance);
     return true;
   }
 
+  @Override
+  void getAabb(float[] result) {
+    float r = Math.abs(radius);
+    result[0] = center.x - r;
+    result[1] = center.y - r;
+    result[2] = center.z - r;
+    result[3] = center.x + r;
+    result[4] = center.y + r;
+    result[5] = center.z + r;
+  }
+
   /** @hide */
   @Override
   protected boolean shapeIntersection(CollisionShape shape) {
@@ -165,16 +170,18 @@ public class Sphere extends CollisionShape {
     Matrix modelMatrix = transformProvider.getWorldModelMatrix();
 
     // Transform the center of the sphere.
-    resultSphere.setCenter(modelMatrix.transformPoint(center));
+    modelMatrix.transformPoint(center, resultSphere.center);
+    resultSphere.onChanged();
 
     // Transform the radius of the sphere.
-    Vector3 worldScale = new Vector3();
-    modelMatrix.decomposeScale(worldScale);
-    // Find the max component scale, ignoring sign.
-    float maxScale =
+    // Find the max component scale, the column lengths are never negative.
+    float[] m = modelMatrix.data;
+    float maxScaleSquared =
         Math.max(
-            Math.abs(Math.min(Math.min(worldScale.x, worldScale.y), worldScale.z)),
-            Math.max(Math.max(worldScale.x, worldScale.y), worldScale.z));
-    resultSphere.radius = radius * maxScale;
+            m[0] * m[0] + m[1] * m[1] + m[2] * m[2],
+            Math.max(
+                m[4] * m[4] + m[5] * m[5] + m[6] * m[6],
+                m[8] * m[8] + m[9] * m[9] + m[10] * m[10]));
+    resultSphere.radius = radius * (float) Math.sqrt(maxScaleSquared);
   }
 }
@@ -0,0 +1,500 @@
+package com.google.sceneform.math;
+
+/**
+ * 基于float[]的数学运算
+ * <pre>
+ *     向量按xyz、四元数按xyzw、矩阵按列主序(与{@link Matrix#data}相同)连续存放，
+ *     所有方法都通过偏移量读写数组，不创建任何对象，适用于批量处理大量数据。
+ *     运算顺序与{@link Vector3}、{@link Quaternion}、{@link Matrix}中的对应方法一致。
+ *     输出区间与输入区间可以相同。
+ * </pre>
+ */
+public final class MathKernel {
+  /** 向量分量个数 */
+  public static final int VEC3_SIZE = 3;
+  /** 四元数分量个数 */
+  public static final int QUAT_SIZE = 4;
+  /** 矩阵元素个数 */
+  public static final int MAT4_SIZE = 16;
+
+  private MathKernel() {}
+
+  /** 向量相加 */
+  public static void vec3Add(float[] a, int ao, float[] b, int bo, float[] dest, int destOffset) {
+    dest[destOffset] = a[ao] + b[bo];
+    dest[destOffset + 1] = a[ao + 1] + b[bo + 1];
+    dest[destOffset + 2] = a[ao + 2] + b[bo + 2];
+  }
+
+  /** 向量相减 */
+  public static void vec3Subtract(
+      float[] a, int ao, float[] b, int bo, float[] dest, int destOffset) {
+    dest[destOffset] = a[ao] - b[bo];
+    dest[destOffset + 1] = a[ao + 1] - b[bo + 1];
+    dest[destOffset + 2] = a[ao + 2] - b[bo + 2];
+  }
+
+  /** 向量缩放 */
+  public static void vec3Scale(float[] a, int ao, float scale, float[] dest, int destOffset) {
+    dest[destOffset] = a[ao] * scale;
+    dest[destOffset + 1] = a[ao + 1] * scale;
+    dest[destOffset + 2] = a[ao + 2] * scale;
+  }
+
+  /** 向量点乘 */
+  public static float vec3Dot(float[] a, int ao, float[] b, int bo) {
+    return a[ao] * b[bo] + a[ao + 1] * b[bo + 1] + a[ao + 2] * b[bo + 2];
+  }
+
+  /** 向量叉乘 */
+  public static void vec3Cross(
+      float[] a, int ao, float[] b, int bo, float[] dest, int destOffset) {
+    float ax = a[ao];
+    float ay = a[ao + 1];
+    float az = a[ao + 2];
+    float bx = b[bo];
+    float by = b[bo + 1];
+    float bz = b[bo + 2];
+    dest[destOffset] = ay * bz - az * by;
+    dest[destOffset + 1] = az * bx - ax * bz;
+    dest[destOffset + 2] = ax * by - ay * bx;
+  }
+
+  /** 向量长度 */
+  public static float vec3Length(float[] a, int ao) {
+    return (float) Math.sqrt(vec3Dot(a, ao, a, ao));
+  }
+
+  /**
+   * 向量归一化
+   * <p>与{@link Vector3#normalized()}相同，长度为0时输出零向量</p>
+   */
+  public static void vec3Normalize(float[] a, int ao, float[] dest, int destOffset) {
+    float x = a[ao];
+    float y = a[ao + 1];
+    float z = a[ao + 2];
+    float normSquared = x * x + y * y + z * z;
+    if (MathHelper.almostEqualRelativeAndAbs(normSquared, 0.0f)) {
+      dest[destOffset] = 0;
+      dest[destOffset + 1] = 0;
+      dest[destOffset + 2] = 0;
+    } else if (normSquared != 1) {
+      float norm = (float) (1.0 / Math.sqrt(normSquared));
+      dest[destOffset] = x * norm;
+      dest[destOffset + 1] = y * norm;
+      dest[destOffset + 2] = z * norm;
+    } else {
+      dest[destOffset] = x;
+      dest[destOffset + 1] = y;
+      dest[destOffset + 2] = z;
+    }
+  }
+
+  /**
+   * 四元数相乘，结果已归一化
+   * @see Quaternion#multiply(Quaternion, Quaternion)
+   */
+  public static void quatMultiply(
+      float[] lhs, int lo, float[] rhs, int ro, float[] dest, int destOffset) {
+    float lx = lhs[lo];
+    float ly = lhs[lo + 1];
+    float lz = lhs[lo + 2];
+    float lw = lhs[lo + 3];
+    float rx = rhs[ro];
+    float ry = rhs[ro + 1];
+    float rz = rhs[ro + 2];
+    float rw = rhs[ro + 3];
+    dest[destOffset] = lw * rx + lx * rw + ly * rz - lz * ry;
+    dest[destOffset + 1] = lw * ry - lx * rz + ly * rw + lz * rx;
+    dest[destOffset + 2] = lw * rz + lx * ry - ly * rx + lz * rw;
+    dest[destOffset + 3] = lw * rw - lx * rx - ly * ry - lz * rz;
+    quatNormalize(dest, destOffset);
+  }
+
+  /**
+   * 四元数归一化，长度为0时设为单位四元数
+   * @see Quaternion#normalize()
+   */
+  public static void quatNormalize(float[] q, int qo) {
+    float x = q[qo];
+    float y = q[qo + 1];
+    float z = q[qo + 2];
+    float w = q[qo + 3];
+    float normSquared = x * x + y * y + z * z + w * w;
+    if (MathHelper.almostEqualRelativeAndAbs(normSquared, 0.0f)) {
+      q[qo] = 0;
+      q[qo + 1] = 0;
+      q[qo + 2] = 0;
+      q[qo + 3] = 1;
+    } else if (normSquared != 1) {
+      float norm = (float) (1.0 / Math.sqrt(normSquared));
+      q[qo] = x * norm;
+      q[qo + 1] = y * norm;
+      q[qo + 2] = z * norm;
+      q[qo + 3] = w * norm;
+    }
+  }
+
+  /**
+   * 由法线计算切线空间的旋转四元数(xyzw)
+   * <p>切线为up与法线的叉乘，法线与up平行时改用right，结果与{@link Matrix#extractQuaternion}相同</p>
+   */
+  public static void normalToTangent(float[] normal, int no, float[] dest, int destOffset) {
+    float nx = normal[no];
+    float ny = normal[no + 1];
+    float nz = normal[no + 2];
+
+    // 切线 = up x normal，up = (0, 1, 0)
+    float tx = 1f * nz - 0f * ny;
+    float ty = 0f * nx - 0f * nz;
+    float tz = 0f * ny - 1f * nx;
+    float bx;
+    float by;
+    float bz;
+    if (MathHelper.almostEqualRelativeAndAbs(tx * tx + ty * ty + tz * tz, 0.0f)) {
+      // 副切线 = normal x right，right = (1, 0, 0)
+      bx = ny * 0f - nz * 0f;
+      by = nz * 1f - nx * 0f;
+      bz = nx * 0f - ny * 1f;
+      float norm = normalizeScale(bx, by, bz);
+      bx = norm == 0f ? 0f : bx * norm;
+      by = norm == 0f ? 0f : by * norm;
+      bz = norm == 0f ? 0f : bz * norm;
+      // 切线 = bitangent x normal
+      tx = by * nz - bz * ny;
+      ty = bz * nx - bx * nz;
+      tz = bx * ny - by * nx;
+      norm = normalizeScale(tx, ty, tz);
+      tx = norm == 0f ? 0f : tx * norm;
+      ty = norm == 0f ? 0f : ty * norm;
+      tz = norm == 0f ? 0f : tz * norm;
+    } else {
+      float norm = normalizeScale(tx, ty, tz);
+      tx = norm == 0f ? 0f : tx * norm;
+      ty = norm == 0f ? 0f : ty * norm;
+      tz = norm == 0f ? 0f : tz * norm;
+      // 副切线 = normal x tangent
+      bx = ny * tz - nz * ty;
+      by = nz * tx - nx * tz;
+      bz = nx * ty - ny * tx;
+      norm = normalizeScale(bx, by, bz);
+      bx = norm == 0f ? 0f : bx * norm;
+      by = norm == 0f ? 0f : by * norm;
+      bz = norm == 0f ? 0f : bz * norm;
+    }
+
+    // 旋转矩阵的三行依次为切线、副切线、法线
+    float qx;
+    float qy;
+    float qz;
+    float qw;
+    float trace = tx + by + nz;
+    if (trace > 0) {
+      float s = (float) Math.sqrt(trace + 1.0) * 2.0f;
+      qw = 0.25f * s;
+      qx = (bz - ny) / s;
+      qy = (nx - tz) / s;
+      qz = (ty - bx) / s;
+    } else if ((tx > by) && (tx > nz)) {
+      float s = (float) Math.sqrt(1.0f + tx - by - nz) * 2.0f;
+      qw = (bz - ny) / s;
+      qx = 0.25f * s;
+      qy = (bx + ty) / s;
+      qz = (nx + tz) / s;
+    } else if (by > nz) {
+      float s = (float) Math.sqrt(1.0f + by - tx - nz) * 2.0f;
+      qw = (nx - tz) / s;
+      qx = (bx + ty) / s;
+      qy = 0.25f * s;
+      qz = (ny + bz) / s;
+    } else {
+      float s = (float) Math.sqrt(1.0f + nz - tx - by) * 2.0f;
+      qw = (ty - bx) / s;
+      qx = (nx + tz) / s;
+      qy = (ny + bz) / s;
+      qz = 0.25f * s;
+    }
+    dest[destOffset] = qx;
+    dest[destOffset + 1] = qy;
+    dest[destOffset + 2] = qz;
+    dest[destOffset + 3] = qw;
+    quatNormalize(dest, destOffset);
+  }
+
+  /**
+   * 批量由法线计算切线四元数
+   * @param normals 法线，xyz连续存放
+   * @param dest 输出四元数，xyzw连续存放
+   * @param count 法线的个数
+   * @see #normalToTangent(float[], int, float[], int)
+   */
+  public static void normalsToTangents(
+      float[] normals, int no, float[] dest, int destOffset, int count) {
+    for (int i = 0; i < count; i++) {
+      normalToTangent(normals, no + i * VEC3_SIZE, dest, destOffset + i * QUAT_SIZE);
+    }
+  }
+
+  /**
+   * 计算点集的包围盒，并与dest中已有的包围盒合并
+   * <p>dest依次存放minX、minY、minZ、maxX、maxY、maxZ，初始可设为正负无穷大；
+   * 分段计算的结果可再次合并，与整体计算相同</p>
+   * @param points 点，xyz连续存放
+   * @param count 点的个数
+   */
+  public static void vec3Bounds(float[] points, int po, int count, float[] dest, int destOffset) {
+    float minX = dest[destOffset];
+    float minY = dest[destOffset + 1];
+    float minZ = dest[destOffset + 2];
+    float maxX = dest[destOffset + 3];
+    float maxY = dest[destOffset + 4];
+    float maxZ = dest[destOffset + 5];
+    for (int i = 0; i < count; i++) {
+      int p = po + i * VEC3_SIZE;
+      float x = points[p];
+      float y = points[p + 1];
+      float z = points[p + 2];
+      minX = Math.min(minX, x);
+      minY = Math.min(minY, y);
+      minZ = Math.min(minZ, z);
+      maxX = Math.max(maxX, x);
+      maxY = Math.max(maxY, y);
+      maxZ = Math.max(maxZ, z);
+    }
+    dest[destOffset] = minX;
+    dest[destOffset + 1] = minY;
+    dest[destOffset + 2] = minZ;
+    dest[destOffset + 3] = maxX;
+    dest[destOffset + 4] = maxY;
+    dest[destOffset + 5] = maxZ;
+  }
+
+  /**
+   * 通过四元数旋转向量
+   * @see Quaternion#rotateVector(Quaternion, Vector3)
+   */
+  public static void quatRotateVector(
+      float[] q, int qo, float[] src, int so, float[] dest, int destOffset) {
+    float qx = q[qo];
+    float qy = q[qo + 1];
+    float qz = q[qo + 2];
+    float qw = q[qo + 3];
+    float w2 = qw * qw;
+    float x2 = qx * qx;
+    float y2 = qy * qy;
+    float z2 = qz * qz;
+    float zw = qz * qw;
+    float xy = qx * qy;
+    float xz = qx * qz;
+    float yw = qy * qw;
+    float yz = qy * qz;
+    float xw = qx * qw;
+    float m00 = w2 + x2 - z2 - y2;
+    float m01 = xy + zw + zw + xy;
+    float m02 = xz - yw + xz - yw;
+    float m10 = -zw + xy - zw + xy;
+    float m11 = y2 - z2 + w2 - x2;
+    float m12 = yz + yz + xw + xw;
+    float m20 = yw + xz + xz + yw;
+    float m21 = yz + yz - xw - xw;
+    float m22 = z2 - y2 - x2 + w2;
+
+    float sx = src[so];
+    float sy = src[so + 1];
+    float sz = src[so + 2];
+    dest[destOffset] = m00 * sx + m10 * sy + m20 * sz;
+    dest[destOffset + 1] = m01 * sx + m11 * sy + m21 * sz;
+    dest[destOffset + 2] = m02 * sx + m12 * sy + m22 * sz;
+  }
+
+  /** 与{@link #vec3Normalize}相同的归一化系数，长度为0时返回0，此时结果应为零向量 */
+  private static float normalizeScale(float x, float y, float z) {
+    float normSquared = x * x + y * y + z * z;
+    if (MathHelper.almostEqualRelativeAndAbs(normSquared, 0.0f)) {
+      return 0f;
+    } else if (normSquared != 1) {
+      return (float) (1.0 / Math.sqrt(normSquared));
+    }
+    return 1f;
+  }
+
+  /**
+   * 矩阵相乘 dest = lhs * rhs
+   * @see Matrix#multiply(Matrix, Matrix, Matrix)
+   */
+  public static void mat4Multiply(
+      float[] lhs, int lo, float[] rhs, int ro, float[] dest, int destOffset) {
+    float m00 = 0f;
+    float m01 = 0f;
+    float m02 = 0f;
+    float m03 = 0f;
+    float m10 = 0f;
+    float m11 = 0f;
+    float m12 = 0f;
+    float m13 = 0f;
+    float m20 = 0f;
+    float m21 = 0f;
+    float m22 = 0f;
+    float m23 = 0f;
+    float m30 = 0f;
+    float m31 = 0f;
+    float m32 = 0f;
+    float m33 = 0f;
+
+    for (int i = 0; i < 4; i++) {
+      float lhs0 = lhs[lo + (i * 4)];
+      float lhs1 = lhs[lo + 1 + (i * 4)];
+      float lhs2 = lhs[lo + 2 + (i * 4)];
+      float lhs3 = lhs[lo + 3 + (i * 4)];
+      float rhs0 = rhs[ro + i];
+      float rhs1 = rhs[ro + 4 + i];
+      float rhs2 = rhs[ro + 8 + i];
+      float rhs3 = rhs[ro + 12 + i];
+
+      m00 += lhs0 * rhs0;
+      m01 += lhs1 * rhs0;
+      m02 += lhs2 * rhs0;
+      m03 += lhs3 * rhs0;
+
+      m10 += lhs0 * rhs1;
+      m11 += lhs1 * rhs1;
+      m12 += lhs2 * rhs1;
+      m13 += lhs3 * rhs1;
+
+      m20 += lhs0 * rhs2;
+      m21 += lhs1 * rhs2;
+      m22 += lhs2 * rhs2;
+      m23 += lhs3 * rhs2;
+
+      m30 += lhs0 * rhs3;
+      m31 += lhs1 * rhs3;
+      m32 += lhs2 * rhs3;
+      m33 += lhs3 * rhs3;
+    }
+
+    dest[destOffset] = m00;
+    dest[destOffset + 1] = m01;
+    dest[destOffset + 2] = m02;
+    dest[destOffset + 3] = m03;
+    dest[destOffset + 4] = m10;
+    dest[destOffset + 5] = m11;
+    dest[destOffset + 6] = m12;
+    dest[destOffset + 7] = m13;
+    dest[destOffset + 8] = m20;
+    dest[destOffset + 9] = m21;
+    dest[destOffset + 10] = m22;
+    dest[destOffset + 11] = m23;
+    dest[destOffset + 12] = m30;
+    dest[destOffset + 13] = m31;
+    dest[destOffset + 14] = m32;
+    dest[destOffset + 15] = m33;
+  }
+
+  /**
+   * 批量点变换
+   * @param matrix 变换矩阵
+   * @param src 输入点，xyz连续存放
+   * @param dest 输出点，可与src相同
+   * @param count 点的个数
+   * @see Matrix#transformPoint(Vector3, Vector3)
+   */
+  public static void transformPoints(
+      float[] matrix, int mo, float[] src, int so, float[] dest, int destOffset, int count) {
+    float d0 = matrix[mo];
+    float d1 = matrix[mo + 1];
+    float d2 = matrix[mo + 2];
+    float d4 = matrix[mo + 4];
+    float d5 = matrix[mo + 5];
+    float d6 = matrix[mo + 6];
+    float d8 = matrix[mo + 8];
+    float d9 = matrix[mo + 9];
+    float d10 = matrix[mo + 10];
+    float d12 = matrix[mo + 12];
+    float d13 = matrix[mo + 13];
+    float d14 = matrix[mo + 14];
+    for (int i = 0; i < count; i++) {
+      int s = so + i * VEC3_SIZE;
+      int d = destOffset + i * VEC3_SIZE;
+      float vx = src[s];
+      float vy = src[s + 1];
+      float vz = src[s + 2];
+      dest[d] = d0 * vx + d4 * vy + d8 * vz + d12;
+      dest[d + 1] = d1 * vx + d5 * vy + d9 * vz + d13;
+      dest[d + 2] = d2 * vx + d6 * vy + d10 * vz + d14;
+    }
+  }
+
+  /**
+   * 批量方向变换(不包含平移)
+   * @see Matrix#transformDirection(Vector3, Vector3)
+   */
+  public static void transformDirections(
+      float[] matrix, int mo, float[] src, int so, float[] dest, int destOffset, int count) {
+    float d0 = matrix[mo];
+    float d1 = matrix[mo + 1];
+    float d2 = matrix[mo + 2];
+    float d4 = matrix[mo + 4];
+    float d5 = matrix[mo + 5];
+    float d6 = matrix[mo + 6];
+    float d8 = matrix[mo + 8];
+    float d9 = matrix[mo + 9];
+    float d10 = matrix[mo + 10];
+    for (int i = 0; i < count; i++) {
+      int s = so + i * VEC3_SIZE;
+      int d = destOffset + i * VEC3_SIZE;
+      float vx = src[s];
+      float vy = src[s + 1];
+      float vz = src[s + 2];
+      dest[d] = d0 * vx + d4 * vy + d8 * vz;
+      dest[d + 1] = d1 * vx + d5 * vy + d9 * vz;
+      dest[d + 2] = d2 * vx + d6 * vy + d10 * vz;
+    }
+  }
+
+  /**
+   * 批量投影到屏幕坐标
+   * <p>输出x、y为屏幕像素坐标(左上角为原点)，z为到相机的w值；w为0的点输出NaN</p>
+   * @param viewProjection 视图投影矩阵
+   * @param src 世界坐标，xyz连续存放
+   * @param dest 输出，可与src相同
+   * @param count 点的个数
+   * @param width 视口宽度
+   * @param height 视口高度
+   */
+  public static void projectToScreen(
+      float[] viewProjection,
+      int mo,
+      float[] src,
+      int so,
+      float[] dest,
+      int destOffset,
+      int count,
+      float width,
+      float height) {
+    for (int i = 0; i < count; i++) {
+      int s = so + i * VEC3_SIZE;
+      int d = destOffset + i * VEC3_SIZE;
+      float vx = src[s];
+      float vy = src[s + 1];
+      float vz = src[s + 2];
+      float x = viewProjection[mo] * vx + viewProjection[mo + 4] * vy
+          + viewProjection[mo + 8] * vz + viewProjection[mo + 12];
+      float y = viewProjection[mo + 1] * vx + viewProjection[mo + 5] * vy
+          + viewProjection[mo + 9] * vz + viewProjection[mo + 13];
+      float w = viewProjection[mo + 3] * vx + viewProjection[mo + 7] * vy
+          + viewProjection[mo + 11] * vz + viewProjection[mo + 15];
+      if (w == 0f) {
+        dest[d] = Float.NaN;
+        dest[d + 1] = Float.NaN;
+        dest[d + 2] = 0f;
+        continue;
+      }
+      // 与Camera#worldToScreenPoint相同
+      x = ((x / w) + 1.0f) * 0.5f * width;
+      y = height - (((y / w) + 1.0f) * 0.5f * height);
+      dest[d] = x;
+      dest[d + 1] = y;
+      dest[d + 2] = w;
+    }
+  }
+}
@@ -60,12 +60,9 @@ public class Matrix {
   }
 
   public void decomposeScale(Vector3 destScale) {
-    Vector3 temp = new Vector3(data[0], data[1], data[2]);
-    destScale.x = temp.length();
-    temp.set(data[4], data[5], data[6]);
-    destScale.y = temp.length();
-    temp.set(data[8], data[9], data[10]);
-    destScale.z = temp.length();
+    destScale.x = (float) Math.sqrt(data[0] * data[0] + data[1] * data[1] + data[2] * data[2]);
+    destScale.y = (float) Math.sqrt(data[4] * data[4] + data[5] * data[5] + data[6] * data[6]);
+    destScale.z = (float) Math.sqrt(data[8] * data[8] + data[9] * data[9] + data[10] * data[10]);
   }
 
   public void decomposeRotation(Vector3 decomposedScale, Quaternion destRotation) {
@@ -341,9 +338,19 @@ public class Matrix {
   }
 
   public Vector3 transformPoint(Vector3 vector) {
+    return transformPoint(vector, new Vector3());
+  }
+
+  /**
+   * 点变换（不分配对象）
+   * @param vector 点
+   * @param result 输出，可与vector相同
+   * @return result
+   */
+  public Vector3 transformPoint(Vector3 vector, Vector3 result) {
     Preconditions.checkNotNull(vector, "Parameter \"vector\" was null.");
+    Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
 
-    Vector3 result = new Vector3();
     float vx = vector.x;
     float vy = vector.y;
     float vz = vector.z;
@@ -374,9 +381,19 @@ public class Matrix {
    * 在这个的情况下，所使用的矩阵应该是输入矩阵的逆转置。
    */
   public Vector3 transformDirection(Vector3 vector) {
+    return transformDirection(vector, new Vector3());
+  }
+
+  /**
+   * 方向变换（不分配对象）
+   * @see #transformDirection(Vector3)
+   * @param result 输出，可与vector相同
+   * @return result
+   */
+  public Vector3 transformDirection(Vector3 vector, Vector3 result) {
     Preconditions.checkNotNull(vector, "Parameter \"vector\" was null.");
+    Preconditions.checkNotNull(result, "Parameter \"result\" was null.");
 
-    Vector3 result = new Vector3();
     float vx = vector.x;
     float vy = vector.y;
     float vz = vector.z;
@@ -136,9 +136,19 @@ public class Quaternion {
    * @return 四元数缩放到单位长度，如果不能，则为零。
    */
   public Quaternion normalized() {
-    Quaternion result = new Quaternion(this);
-    result.normalize();
-    return result;
+    return normalized(new Quaternion());
+  }
+
+  /**
+   * 获取归一化后的四元数（不分配对象）
+   * @param dest 输出，可与this相同
+   * @return dest
+   */
+  public Quaternion normalized(Quaternion dest) {
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    dest.set(this);
+    dest.normalize();
+    return dest;
   }
 
   /**
@@ -149,6 +159,17 @@ public class Quaternion {
     return new Quaternion(-this.x, -this.y, -this.z, this.w);
   }
 
+  /**
+   * 获取一个反向旋转的四元数（不分配对象）
+   * @param dest 输出，可与this相同
+   * @return dest
+   */
+  public Quaternion inverted(Quaternion dest) {
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    dest.set(-this.x, -this.y, -this.z, this.w);
+    return dest;
+  }
+
   /**
    * 翻转四元数的符号
    * <p>注意：符号翻转，但表示相同的旋转。</p>
@@ -168,19 +189,33 @@ public class Quaternion {
    * @return 旋转后的向量
    */
   public static Vector3 rotateVector(Quaternion q, Vector3 src) {
+    return rotateVector(q, src, new Vector3());
+  }
+
+  /**
+   * 通过四元数旋转指定向量（不分配对象）
+   * @param dest 输出，可与src相同
+   * @return dest
+   */
+  public static Vector3 rotateVector(Quaternion q, Vector3 src, Vector3 dest) {
     Preconditions.checkNotNull(q, "Parameter \"q\" was null.");
     Preconditions.checkNotNull(src, "Parameter \"src\" was null.");
-    Vector3 result = new Vector3();
-    float w2 = q.w * q.w;
-    float x2 = q.x * q.x;
-    float y2 = q.y * q.y;
-    float z2 = q.z * q.z;
-    float zw = q.z * q.w;
-    float xy = q.x * q.y;
-    float xz = q.x * q.z;
-    float yw = q.y * q.w;
-    float yz = q.y * q.z;
-    float xw = q.x * q.w;
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    return rotateVector(q.x, q.y, q.z, q.w, src.x, src.y, src.z, dest);
+  }
+
+  private static Vector3 rotateVector(
+      float qx, float qy, float qz, float qw, float sx, float sy, float sz, Vector3 dest) {
+    float w2 = qw * qw;
+    float x2 = qx * qx;
+    float y2 = qy * qy;
+    float z2 = qz * qz;
+    float zw = qz * qw;
+    float xy = qx * qy;
+    float xz = qx * qz;
+    float yw = qy * qw;
+    float yz = qy * qz;
+    float xw = qx * qw;
     float m00 = w2 + x2 - z2 - y2;
     float m01 = xy + zw + zw + xy;
     float m02 = xz - yw + xz - yw;
@@ -190,13 +225,10 @@ public class Quaternion {
     float m20 = yw + xz + xz + yw;
     float m21 = yz + yz - xw - xw;
     float m22 = z2 - y2 - x2 + w2;
-    float sx = src.x;
-    float sy = src.y;
-    float sz = src.z;
-    result.x = m00 * sx + m10 * sy + m20 * sz;
-    result.y = m01 * sx + m11 * sy + m21 * sz;
-    result.z = m02 * sx + m12 * sy + m22 * sz;
-    return result;
+    dest.x = m00 * sx + m10 * sy + m20 * sz;
+    dest.y = m01 * sx + m11 * sy + m21 * sz;
+    dest.z = m02 * sx + m12 * sy + m22 * sz;
+    return dest;
   }
 
   /**
@@ -204,9 +236,18 @@ public class Quaternion {
    * @return 旋转后的向量
    */
   public static Vector3 inverseRotateVector(Quaternion q, Vector3 src) {
+    return inverseRotateVector(q, src, new Vector3());
+  }
+
+  /**
+   * 通过四元数反向旋转指定向量（不分配对象）
+   * @param dest 输出，可与src相同
+   * @return dest
+   */
+  public static Vector3 inverseRotateVector(Quaternion q, Vector3 src, Vector3 dest) {
     Preconditions.checkNotNull(q, "Parameter \"q\" was null.");
     Preconditions.checkNotNull(src, "Parameter \"src\" was null.");
-    Vector3 result = new Vector3();
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
     float w2 = q.w * q.w;
     float x2 = -q.x * -q.x;
     float y2 = -q.y * -q.y;
@@ -230,10 +271,10 @@ public class Quaternion {
     float sx = src.x;
     float sy = src.y;
     float sz = src.z;
-    result.x = m00 * sx + m10 * sy + m20 * sz;
-    result.y = m01 * sx + m11 * sy + m21 * sz;
-    result.z = m02 * sx + m12 * sy + m22 * sz;
-    return result;
+    dest.x = m00 * sx + m10 * sy + m20 * sz;
+    dest.y = m01 * sx + m11 * sy + m21 * sz;
+    dest.z = m02 * sx + m12 * sy + m22 * sz;
+    return dest;
   }
 
   /**
@@ -245,24 +286,31 @@ public class Quaternion {
    * @return 四元数
    */
   public static Quaternion multiply(Quaternion lhs, Quaternion rhs) {
+    return multiply(lhs, rhs, new Quaternion());
+  }
+
+  /**
+   * 四元数相乘（不分配对象）
+   * @param dest 输出，可与lhs、rhs相同
+   * @return dest
+   */
+  public static Quaternion multiply(Quaternion lhs, Quaternion rhs, Quaternion dest) {
     Preconditions.checkNotNull(lhs, "Parameter \"lhs\" was null.");
     Preconditions.checkNotNull(rhs, "Parameter \"rhs\" was null.");
-    float lx = lhs.x;
-    float ly = lhs.y;
-    float lz = lhs.z;
-    float lw = lhs.w;
-    float rx = rhs.x;
-    float ry = rhs.y;
-    float rz = rhs.z;
-    float rw = rhs.w;
-
-    Quaternion result =
-        new Quaternion(
-            lw * rx + lx * rw + ly * rz - lz * ry,
-            lw * ry - lx * rz + ly * rw + lz * rx,
-            lw * rz + lx * ry - ly * rx + lz * rw,
-            lw * rw - lx * rx - ly * ry - lz * rz);
-    return result;
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    return multiply(lhs.x, lhs.y, lhs.z, lhs.w, rhs.x, rhs.y, rhs.z, rhs.w, dest);
+  }
+
+  private static Quaternion multiply(
+      float lx, float ly, float lz, float lw,
+      float rx, float ry, float rz, float rw,
+      Quaternion dest) {
+    dest.set(
+        lw * rx + lx * rw + ly * rz - lz * ry,
+        lw * ry - lx * rz + ly * rw + lz * rx,
+        lw * rz + lx * ry - ly * rx + lz * rw,
+        lw * rw - lx * rx - ly * ry - lz * rz);
+    return dest;
   }
 
   /**
@@ -330,23 +378,59 @@ public class Quaternion {
    * @return 两个浮点数之间的插值值
    */
   public static Quaternion slerp(final Quaternion start, final Quaternion end, float t) {
+    return slerp(start, end, t, new Quaternion());
+  }
+
+  /**
+   * 球面线性插值（不分配对象）
+   * @see #slerp(Quaternion, Quaternion, float)
+   * @param dest 输出，可与start、end相同
+   * @return dest
+   */
+  public static Quaternion slerp(
+      final Quaternion start, final Quaternion end, float t, Quaternion dest) {
     Preconditions.checkNotNull(start, "Parameter \"start\" was null.");
     Preconditions.checkNotNull(end, "Parameter \"end\" was null.");
-    Quaternion orientation0 = start.normalized();
-    Quaternion orientation1 = end.normalized();
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    float ex = end.x;
+    float ey = end.y;
+    float ez = end.z;
+    float ew = end.w;
+
+    // dest作为临时变量，依次得到两个归一化的四元数
+    start.normalized(dest);
+    float ax = dest.x;
+    float ay = dest.y;
+    float az = dest.z;
+    float aw = dest.w;
+    dest.set(ex, ey, ez, ew);
+    dest.normalize();
+    float bx = dest.x;
+    float by = dest.y;
+    float bz = dest.z;
+    float bw = dest.w;
 
     // cosTheta0 provides the angle between the rotations at t=0
-    double cosTheta0 = Quaternion.dot(orientation0, orientation1);
+    double cosTheta0 = ax * bx + ay * by + az * bz + aw * bw;
 
     // Flip end rotation to get shortest path if needed
     if (cosTheta0 < 0.0f) {
-      orientation1 = orientation1.negated();
+      dest.set(-bx, -by, -bz, -bw);
+      bx = dest.x;
+      by = dest.y;
+      bz = dest.z;
+      bw = dest.w;
       cosTheta0 = -cosTheta0;
     }
 
     // Small rotations should just use lerp
     if (cosTheta0 > SLERP_THRESHOLD) {
-      return lerp(orientation0, orientation1, t);
+      dest.set(
+          MathHelper.lerp(ax, bx, t),
+          MathHelper.lerp(ay, by, t),
+          MathHelper.lerp(az, bz, t),
+          MathHelper.lerp(aw, bw, t));
+      return dest;
     }
 
     // Cosine function range is -1,1. Clamp larger rotations.
@@ -356,12 +440,12 @@ public class Quaternion {
     double thetaT = theta0 * t; // theta0 scaled to current t
 
     // s0 = sin(theta0 - thetaT) / sin(theta0)
-    double s0 = (Math.cos(thetaT) - cosTheta0 * Math.sin(thetaT) / Math.sin(theta0));
-    double s1 = (Math.sin(thetaT) / Math.sin(theta0));
+    float s0 = (float) (Math.cos(thetaT) - cosTheta0 * Math.sin(thetaT) / Math.sin(theta0));
+    float s1 = (float) (Math.sin(thetaT) / Math.sin(theta0));
     // result = s0*start + s1*end
-    Quaternion result =
-        Quaternion.add(orientation0.scaled((float) s0), orientation1.scaled((float) s1));
-    return result.normalized();
+    dest.set(ax * s0 + bx * s1, ay * s0 + by * s1, az * s0 + bz * s1, aw * s0 + bw * s1);
+    dest.normalize();
+    return dest;
   }
 
   /**
@@ -370,14 +454,27 @@ public class Quaternion {
    * @param degrees 旋转角度，单位：度
    */
   public static Quaternion axisAngle(Vector3 axis, float degrees) {
+    return axisAngle(axis, degrees, new Quaternion());
+  }
+
+  /**
+   * 使用轴/角度来定义旋转（不分配对象）
+   * @param dest 输出
+   * @return dest
+   */
+  public static Quaternion axisAngle(Vector3 axis, float degrees, Quaternion dest) {
     Preconditions.checkNotNull(axis, "Parameter \"axis\" was null.");
-    Quaternion dest = new Quaternion();
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    return axisAngle(axis.x, axis.y, axis.z, degrees, dest);
+  }
+
+  private static Quaternion axisAngle(float ax, float ay, float az, float degrees, Quaternion dest) {
     double angle = Math.toRadians(degrees);
     double factor = Math.sin(angle / 2.0);
 
-    dest.x = (float) (axis.x * factor);
-    dest.y = (float) (axis.y * factor);
-    dest.z = (float) (axis.z * factor);
+    dest.x = (float) (ax * factor);
+    dest.y = (float) (ay * factor);
+    dest.z = (float) (az * factor);
     dest.w = (float) Math.cos(angle / 2.0);
     dest.normalize();
     return dest;
@@ -392,47 +489,118 @@ public class Quaternion {
    * @param eulerAngles - 欧拉角
    */
   public static Quaternion eulerAngles(Vector3 eulerAngles) {
+    return eulerAngles(eulerAngles, new Quaternion());
+  }
+
+  /**
+   * 使用欧拉角定义旋转（不分配对象）
+   * @see #eulerAngles(Vector3)
+   * @param dest 输出
+   * @return dest
+   */
+  public static Quaternion eulerAngles(Vector3 eulerAngles, Quaternion dest) {
     Preconditions.checkNotNull(eulerAngles, "Parameter \"eulerAngles\" was null.");
-    Quaternion qX = new Quaternion(Vector3.right(), eulerAngles.x);
-    Quaternion qY = new Quaternion(Vector3.up(), eulerAngles.y);
-    Quaternion qZ = new Quaternion(Vector3.back(), eulerAngles.z);
-    return Quaternion.multiply(Quaternion.multiply(qY, qX), qZ);
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    float ex = eulerAngles.x;
+    float ey = eulerAngles.y;
+    float ez = eulerAngles.z;
+
+    // 与new Quaternion(axis, angle)相同，axisAngle的结果再归一化一次
+    axisAngle(1, 0, 0, ex, dest).normalize();
+    float xx = dest.x;
+    float xy = dest.y;
+    float xz = dest.z;
+    float xw = dest.w;
+    axisAngle(0, 1, 0, ey, dest).normalize();
+    float yx = dest.x;
+    float yy = dest.y;
+    float yz = dest.z;
+    float yw = dest.w;
+    axisAngle(0, 0, 1, ez, dest).normalize();
+    float zx = dest.x;
+    float zy = dest.y;
+    float zz = dest.z;
+    float zw = dest.w;
+
+    multiply(yx, yy, yz, yw, xx, xy, xz, xw, dest);
+    return multiply(dest.x, dest.y, dest.z, dest.w, zx, zy, zz, zw, dest);
   }
 
   /** 获取一个新的四元数，表示从一个向量到另一个向量的旋转。 */
   public static Quaternion rotationBetweenVectors(Vector3 start, Vector3 end) {
+    return rotationBetweenVectors(start, end, new Quaternion());
+  }
+
+  /**
+   * 获取从一个向量到另一个向量的旋转（不分配对象）
+   * @param dest 输出
+   * @return dest
+   */
+  public static Quaternion rotationBetweenVectors(Vector3 start, Vector3 end, Quaternion dest) {
     Preconditions.checkNotNull(start, "Parameter \"start\" was null.");
     Preconditions.checkNotNull(end, "Parameter \"end\" was null.");
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    return rotationBetweenVectors(start.x, start.y, start.z, end.x, end.y, end.z, dest);
+  }
 
-    start = start.normalized();
-    end = end.normalized();
+  private static Quaternion rotationBetweenVectors(
+      float sx, float sy, float sz, float ex, float ey, float ez, Quaternion dest) {
+    // 与Vector3.normalized()相同
+    float startScale = normalizeScale(sx, sy, sz);
+    sx *= startScale;
+    sy *= startScale;
+    sz *= startScale;
+    float endScale = normalizeScale(ex, ey, ez);
+    ex *= endScale;
+    ey *= endScale;
+    ez *= endScale;
 
-    float cosTheta = Vector3.dot(start, end);
-    Vector3 rotationAxis;
+    float cosTheta = sx * ex + sy * ey + sz * ez;
 
     if (cosTheta < -1.0f + 0.001f) {
       // special case when vectors in opposite directions:
       // there is no "ideal" rotation axis
       // So guess one; any will do as long as it's perpendicular to start
-      rotationAxis = Vector3.cross(Vector3.back(), start);
-      if (rotationAxis.lengthSquared() < 0.01f) { // bad luck, they were parallel, try again!
-        rotationAxis = Vector3.cross(Vector3.right(), start);
+      // cross(back, start)
+      float ax = 0 * sz - 1 * sy;
+      float ay = 1 * sx - 0 * sz;
+      float az = 0 * sy - 0 * sx;
+      if (ax * ax + ay * ay + az * az < 0.01f) { // bad luck, they were parallel, try again!
+        // cross(right, start)
+        ax = 0 * sz - 0 * sy;
+        ay = 0 * sx - 1 * sz;
+        az = 1 * sy - 0 * sx;
       }
 
-      rotationAxis = rotationAxis.normalized();
-      return axisAngle(rotationAxis, 180.0f);
+      float axisScale = normalizeScale(ax, ay, az);
+      return axisAngle(ax * axisScale, ay * axisScale, az * axisScale, 180.0f, dest);
     }
 
-    rotationAxis = Vector3.cross(start, end);
+    // cross(start, end)
+    float ax = sy * ez - sz * ey;
+    float ay = sz * ex - sx * ez;
+    float az = sx * ey - sy * ex;
 
     float squareLength = (float) Math.sqrt((1.0 + cosTheta) * 2.0);
     float inverseSquareLength = 1.0f / squareLength;
 
-    return new Quaternion(
-        rotationAxis.x * inverseSquareLength,
-        rotationAxis.y * inverseSquareLength,
-        rotationAxis.z * inverseSquareLength,
+    dest.set(
+        ax * inverseSquareLength,
+        ay * inverseSquareLength,
+        az * inverseSquareLength,
         squareLength * 0.5f);
+    return dest;
+  }
+
+  /** 归一化时各分量的缩放系数，长度为0时返回0 */
+  private static float normalizeScale(float x, float y, float z) {
+    float normSquared = x * x + y * y + z * z;
+    if (MathHelper.almostEqualRelativeAndAbs(normSquared, 0.0f)) {
+      return 0.0f;
+    } else if (normSquared != 1) {
+      return (float) (1.0 / Math.sqrt(normSquared));
+    }
+    return 1.0f;
   }
 
   /**
@@ -440,22 +608,69 @@ public class Quaternion {
    * 如果upInWorld与forwardInWorld正交，然后Y轴与desiredUpInWorld对齐。
    */
   public static Quaternion lookRotation(Vector3 forwardInWorld, Vector3 desiredUpInWorld) {
+    return lookRotation(forwardInWorld, desiredUpInWorld, new Quaternion());
+  }
+
+  /**
+   * 获取向指定方向旋转的四元数（不分配对象）
+   * @see #lookRotation(Vector3, Vector3)
+   * @param dest 输出
+   * @return dest
+   */
+  public static Quaternion lookRotation(
+      Vector3 forwardInWorld, Vector3 desiredUpInWorld, Quaternion dest) {
     Preconditions.checkNotNull(forwardInWorld, "Parameter \"forwardInWorld\" was null.");
     Preconditions.checkNotNull(desiredUpInWorld, "Parameter \"desiredUpInWorld\" was null.");
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    float fx = forwardInWorld.x;
+    float fy = forwardInWorld.y;
+    float fz = forwardInWorld.z;
+    float ux = desiredUpInWorld.x;
+    float uy = desiredUpInWorld.y;
+    float uz = desiredUpInWorld.z;
 
     // Find the rotation between the world forward and the forward to look at.
-    Quaternion rotateForwardToDesiredForward =
-        rotationBetweenVectors(Vector3.forward(), forwardInWorld);
+    rotationBetweenVectors(0, 0, -1, fx, fy, fz, dest);
+    float qx = dest.x;
+    float qy = dest.y;
+    float qz = dest.z;
+    float qw = dest.w;
 
     // Recompute upwards so that it's perpendicular to the direction
-    Vector3 rightInWorld = Vector3.cross(forwardInWorld, desiredUpInWorld);
-    desiredUpInWorld = Vector3.cross(rightInWorld, forwardInWorld);
+    float rx = fy * uz - fz * uy;
+    float ry = fz * ux - fx * uz;
+    float rz = fx * uy - fy * ux;
+    float upX = ry * fz - rz * fy;
+    float upY = rz * fx - rx * fz;
+    float upZ = rx * fy - ry * fx;
 
     // Find the rotation between the "up" of the rotated object, and the desired up
-    Vector3 newUp = Quaternion.rotateVector(rotateForwardToDesiredForward, Vector3.up());
-    Quaternion rotateNewUpToUpwards = rotationBetweenVectors(newUp, desiredUpInWorld);
+    // rotateVector(q, up)，与rotateVector相同的运算顺序
+    float w2 = qw * qw;
+    float x2 = qx * qx;
+    float y2 = qy * qy;
+    float z2 = qz * qz;
+    float zw = qz * qw;
+    float xy = qx * qy;
+    float xz = qx * qz;
+    float yw = qy * qw;
+    float yz = qy * qz;
+    float xw = qx * qw;
+    float m00 = w2 + x2 - z2 - y2;
+    float m01 = xy + zw + zw + xy;
+    float m02 = xz - yw + xz - yw;
+    float m10 = -zw + xy - zw + xy;
+    float m11 = y2 - z2 + w2 - x2;
+    float m12 = yz + yz + xw + xw;
+    float m20 = yw + xz + xz + yw;
+    float m21 = yz + yz - xw - xw;
+    float m22 = z2 - y2 - x2 + w2;
+    float newUpX = m00 * 0 + m10 * 1 + m20 * 0;
+    float newUpY = m01 * 0 + m11 * 1 + m21 * 0;
+    float newUpZ = m02 * 0 + m12 * 1 + m22 * 0;
+    rotationBetweenVectors(newUpX, newUpY, newUpZ, upX, upY, upZ, dest);
 
-    return Quaternion.multiply(rotateNewUpToUpwards, rotateForwardToDesiredForward);
+    return multiply(dest.x, dest.y, dest.z, dest.w, qx, qy, qz, qw, dest);
   }
 
   /**
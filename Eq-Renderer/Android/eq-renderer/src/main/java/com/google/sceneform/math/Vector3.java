@@ -135,16 +135,27 @@ public class Vector3 {
    * 归一化
    * */
   public Vector3 normalized() {
-    Vector3 result = new Vector3(this);
-    float normSquared = Vector3.dot(this, this);
+    return normalized(new Vector3());
+  }
+
+  /**
+   * 归一化（不分配对象）
+   * @param dest 输出，可与this相同
+   * @return dest
+   */
+  public Vector3 normalized(Vector3 dest) {
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    float normSquared = x * x + y * y + z * z;
 
     if (MathHelper.almostEqualRelativeAndAbs(normSquared, 0.0f)) {
-      result.setZero();
+      dest.setZero();
     } else if (normSquared != 1) {
       float norm = (float) (1.0 / Math.sqrt(normSquared));
-      result.set(this.scaled(norm));
+      dest.set(x * norm, y * norm, z * norm);
+    } else {
+      dest.set(x, y, z);
     }
-    return result;
+    return dest;
   }
 
   /**
@@ -155,6 +166,17 @@ public class Vector3 {
     return new Vector3(x * a, y * a, z * a);
   }
 
+  /**
+   * 缩放（不分配对象）
+   * @param dest 输出，可与this相同
+   * @return dest
+   */
+  public Vector3 scaled(float a, Vector3 dest) {
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    dest.set(x * a, y * a, z * a);
+    return dest;
+  }
+
   /**
    * 取反
    * @return 相反的矢量
@@ -163,6 +185,17 @@ public class Vector3 {
     return new Vector3(-x, -y, -z);
   }
 
+  /**
+   * 取反（不分配对象）
+   * @param dest 输出，可与this相同
+   * @return dest
+   */
+  public Vector3 negated(Vector3 dest) {
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    dest.set(-x, -y, -z);
+    return dest;
+  }
+
   /**
    * 相加
    * @return 相加后的矢量
@@ -173,6 +206,19 @@ public class Vector3 {
     return new Vector3(lhs.x + rhs.x, lhs.y + rhs.y, lhs.z + rhs.z);
   }
 
+  /**
+   * 相加（不分配对象）
+   * @param dest 输出，可与lhs、rhs相同
+   * @return dest
+   */
+  public static Vector3 add(Vector3 lhs, Vector3 rhs, Vector3 dest) {
+    Preconditions.checkNotNull(lhs, "Parameter \"lhs\" was null.");
+    Preconditions.checkNotNull(rhs, "Parameter \"rhs\" was null.");
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    dest.set(lhs.x + rhs.x, lhs.y + rhs.y, lhs.z + rhs.z);
+    return dest;
+  }
+
   /**
    * 相减
    * <p>lhs - rhs</p>
@@ -184,6 +230,20 @@ public class Vector3 {
     return new Vector3(lhs.x - rhs.x, lhs.y - rhs.y, lhs.z - rhs.z);
   }
 
+  /**
+   * 相减（不分配对象）
+   * <p>lhs - rhs</p>
+   * @param dest 输出，可与lhs、rhs相同
+   * @return dest
+   */
+  public static Vector3 subtract(Vector3 lhs, Vector3 rhs, Vector3 dest) {
+    Preconditions.checkNotNull(lhs, "Parameter \"lhs\" was null.");
+    Preconditions.checkNotNull(rhs, "Parameter \"rhs\" was null.");
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    dest.set(lhs.x - rhs.x, lhs.y - rhs.y, lhs.z - rhs.z);
+    return dest;
+  }
+
   /**
    * 点乘
    * @return 点积
@@ -199,16 +259,26 @@ public class Vector3 {
    * @return 垂直于两个矢量的矢量
    */
   public static Vector3 cross(Vector3 lhs, Vector3 rhs) {
+    return cross(lhs, rhs, new Vector3());
+  }
+
+  /**
+   * 叉乘（不分配对象）
+   * @param dest 输出，可与lhs、rhs相同
+   * @return dest
+   */
+  public static Vector3 cross(Vector3 lhs, Vector3 rhs, Vector3 dest) {
     Preconditions.checkNotNull(lhs, "Parameter \"lhs\" was null.");
     Preconditions.checkNotNull(rhs, "Parameter \"rhs\" was null.");
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
     float lhsX = lhs.x;
     float lhsY = lhs.y;
     float lhsZ = lhs.z;
     float rhsX = rhs.x;
     float rhsY = rhs.y;
     float rhsZ = rhs.z;
-    return new Vector3(
-        lhsY * rhsZ - lhsZ * rhsY, lhsZ * rhsX - lhsX * rhsZ, lhsX * rhsY - lhsY * rhsX);
+    dest.set(lhsY * rhsZ - lhsZ * rhsY, lhsZ * rhsX - lhsX * rhsZ, lhsX * rhsY - lhsY * rhsX);
+    return dest;
   }
 
   /** 获取一个Vector3，每个值设置为两个Vector3值的元素最小值 */
@@ -218,6 +288,15 @@ public class Vector3 {
     return new Vector3(Math.min(lhs.x, rhs.x), Math.min(lhs.y, rhs.y), Math.min(lhs.z, rhs.z));
   }
 
+  /** 逐分量取最小值（不分配对象），dest可与lhs、rhs相同 */
+  public static Vector3 min(Vector3 lhs, Vector3 rhs, Vector3 dest) {
+    Preconditions.checkNotNull(lhs, "Parameter \"lhs\" was null.");
+    Preconditions.checkNotNull(rhs, "Parameter \"rhs\" was null.");
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    dest.set(Math.min(lhs.x, rhs.x), Math.min(lhs.y, rhs.y), Math.min(lhs.z, rhs.z));
+    return dest;
+  }
+
   /** 获取一个Vector3，每个值设置为两个Vector3值的元素最大值 */
   public static Vector3 max(Vector3 lhs, Vector3 rhs) {
     Preconditions.checkNotNull(lhs, "Parameter \"lhs\" was null.");
@@ -225,6 +304,15 @@ public class Vector3 {
     return new Vector3(Math.max(lhs.x, rhs.x), Math.max(lhs.y, rhs.y), Math.max(lhs.z, rhs.z));
   }
 
+  /** 逐分量取最大值（不分配对象），dest可与lhs、rhs相同 */
+  public static Vector3 max(Vector3 lhs, Vector3 rhs, Vector3 dest) {
+    Preconditions.checkNotNull(lhs, "Parameter \"lhs\" was null.");
+    Preconditions.checkNotNull(rhs, "Parameter \"rhs\" was null.");
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    dest.set(Math.max(lhs.x, rhs.x), Math.max(lhs.y, rhs.y), Math.max(lhs.z, rhs.z));
+    return dest;
+  }
+
   /** 获取XYZ分量中的最大值 */
   static float componentMax(Vector3 a) {
     Preconditions.checkNotNull(a, "Parameter \"a\" was null.");
@@ -251,6 +339,20 @@ public class Vector3 {
         MathHelper.lerp(a.x, b.x, t), MathHelper.lerp(a.y, b.y, t), MathHelper.lerp(a.z, b.z, t));
   }
 
+  /**
+   * 线性插值（不分配对象）
+   * @param dest 输出，可与a、b相同
+   * @return dest
+   */
+  public static Vector3 lerp(Vector3 a, Vector3 b, float t, Vector3 dest) {
+    Preconditions.checkNotNull(a, "Parameter \"a\" was null.");
+    Preconditions.checkNotNull(b, "Parameter \"b\" was null.");
+    Preconditions.checkNotNull(dest, "Parameter \"dest\" was null.");
+    dest.set(
+        MathHelper.lerp(a.x, b.x, t), MathHelper.lerp(a.y, b.y, t), MathHelper.lerp(a.z, b.z, t));
+    return dest;
+  }
+
   /**
    * 返回两个向量之间的最短角度(以度为单位)
    * <p>注意：结果永远不会大于180度</p>
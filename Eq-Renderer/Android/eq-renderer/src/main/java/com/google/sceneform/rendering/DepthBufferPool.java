@@ -0,0 +1,90 @@
+package com.google.sceneform.rendering;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.filament.Texture;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+
+/**
+ * 深度图上传使用的direct缓冲区池
+ * <p>
+ *     每帧从池中取出空闲缓冲区拷贝深度数据后交给{@link Texture.PixelBufferDescriptor}，
+ *     Filament用完后在释放回调中归还，上传过程不再产生堆内存垃圾。
+ * </p>
+ * <p>取出与归还均在创建{@link DepthTexture}的线程(主线程)上进行</p>
+ */
+final class DepthBufferPool {
+
+    /**
+     * 池中的一个缓冲区
+     */
+    final class Slot {
+        private ByteBuffer buffer;
+        //随缓冲区复用的像素描述符，由DepthTexture创建
+        @Nullable Texture.PixelBufferDescriptor descriptor;
+        //Filament释放缓冲区后归还，预先创建以避免每次上传分配
+        final Runnable release = new Runnable() {
+            @Override
+            public void run() {
+                free.offer(Slot.this);
+            }
+        };
+
+        /**
+         * 获取已写入的数据，position为0，limit为写入的字节数
+         */
+        ByteBuffer getBuffer() {
+            return buffer;
+        }
+
+        /**
+         * 从源缓冲区起始处拷贝全部数据，源缓冲区的position会被重置
+         */
+        void copyFrom(ByteBuffer source) {
+            source.rewind();
+            prepare(source.remaining());
+            buffer.put(source);
+            buffer.flip();
+            source.rewind();
+        }
+
+        void copyFrom(byte[] source) {
+            prepare(source.length);
+            buffer.put(source, 0, source.length);
+            buffer.flip();
+        }
+
+        private void prepare(int byteCount) {
+            //深度图尺寸变化时重新分配
+            if (buffer == null || buffer.capacity() < byteCount) {
+                buffer = ByteBuffer.allocateDirect(byteCount).order(ByteOrder.nativeOrder());
+            }
+            buffer.clear();
+        }
+    }
+
+    private final ArrayDeque<Slot> free;
+
+    /**
+     * 构造函数
+     * @param size 缓冲区数量，Filament通常延迟1~2帧释放，3个即可
+     */
+    DepthBufferPool(int size) {
+        free = new ArrayDeque<>(size);
+        for (int i = 0; i < size; i++) {
+            free.offer(new Slot());
+        }
+    }
+
+    /**
+     * 取出空闲缓冲区
+     * @return 空闲缓冲区，若全部在上传中则返回null，本帧应跳过更新
+     */
+    @Nullable
+    Slot acquire() {
+        return free.poll();
+    }
+}
@@ -6,14 +6,11 @@ import android.os.Looper;
 
 import androidx.annotation.Nullable;
 
-import com.google.sceneform.utilities.BufferHelper;
 import com.google.sceneform.CustomDepthImage;
 import com.google.android.filament.Texture;
 import com.google.sceneform.utilities.AndroidPreconditions;
 import com.google.sceneform.utilities.Preconditions;
 
-import java.nio.ByteBuffer;
-
 /**
  * 深度图纹理
  * <pre>
@@ -21,8 +18,12 @@ import java.nio.ByteBuffer;
  * </pre>
  */
 public class DepthTexture {
+    private static final int BUFFER_POOL_SIZE = 3;
+
     @Nullable private final Texture filamentTexture;
     private final Handler handler = new Handler(Looper.myLooper());
+    //上传用的direct缓冲区，在Filament释放回调中归还
+    private final DepthBufferPool bufferPool = new DepthBufferPool(BUFFER_POOL_SIZE);
 
     /**
      * 构造函数
@@ -86,32 +87,16 @@ public class DepthTexture {
             return;
         }
 
-        IEngine engine = EngineInstance.getEngine();
+        DepthBufferPool.Slot slot = bufferPool.acquire();
+        if (slot == null) {
+            //上一帧的数据仍在上传中，跳过本帧
+            return;
+        }
 
+        //Image关闭后数据失效，而Filament异步读取，因此需要拷贝
         Image.Plane plane = depthImage.getPlanes()[0];
-
-        ByteBuffer buffer = plane.getBuffer();
-        ByteBuffer clonedBuffer = BufferHelper.cloneByteBuffer(buffer);
-
-        Texture.PixelBufferDescriptor pixelBufferDescriptor = new Texture.PixelBufferDescriptor(
-                clonedBuffer,
-                Texture.Format.RG,
-                Texture.Type.UBYTE,
-                1,
-                0,
-                0,
-                0,
-                handler,
-                null
-        );
-
-        filamentTexture.setImage(
-                engine.getFilamentEngine(),
-                0,
-                pixelBufferDescriptor
-        );
-        buffer.clear();
-        clonedBuffer.clear();
+        slot.copyFrom(plane.getBuffer());
+        setImage(slot, Texture.Format.RG);
     }
 
     /**
@@ -126,34 +111,42 @@ public class DepthTexture {
             return;
         }
 
-        IEngine engine = EngineInstance.getEngine();
+        DepthBufferPool.Slot slot = bufferPool.acquire();
+        if (slot == null) {
+            return;
+        }
 
         //get bytes by CustomDepthImage
-        byte[] bytes = depthImage.getBytes();
-        ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
-        buffer.put(bytes);
-        buffer.flip();
-        ByteBuffer clonedBuffer = BufferHelper.cloneByteBuffer(buffer);
-
-        Texture.PixelBufferDescriptor pixelBufferDescriptor = new Texture.PixelBufferDescriptor(
-                clonedBuffer,
-                /*Texture.Format.RG*/format,
-                Texture.Type.UBYTE,
-                1,
-                0,
-                0,
-                0,
-                handler,
-                null
-        );
+        slot.copyFrom(depthImage.getBytes());
+        setImage(slot, format);
+    }
+
+    private void setImage(DepthBufferPool.Slot slot, Texture.Format format) {
+        IEngine engine = EngineInstance.getEngine();
+
+        //描述符的字段在setImage时即被读取，可随缓冲区复用
+        Texture.PixelBufferDescriptor pixelBufferDescriptor = slot.descriptor;
+        if (pixelBufferDescriptor == null || pixelBufferDescriptor.storage != slot.getBuffer()) {
+            pixelBufferDescriptor = new Texture.PixelBufferDescriptor(
+                    slot.getBuffer(),
+                    format,
+                    Texture.Type.UBYTE,
+                    1,
+                    0,
+                    0,
+                    0,
+                    handler,
+                    slot.release
+            );
+            slot.descriptor = pixelBufferDescriptor;
+        }
+        pixelBufferDescriptor.format = format;
 
-        filamentTexture.setImage(
+        Preconditions.checkNotNull(filamentTexture).setImage(
                 engine.getFilamentEngine(),
                 0,
                 pixelBufferDescriptor
         );
-        buffer.clear();
-        clonedBuffer.clear();
     }
 
     /**
@@ -12,6 +12,9 @@ public interface IVertexSort {
      * <p>
      *     CPU顶点排序，在使用Transparent混合的材质中，需对顶点进行排序。否则会渲染错乱
      * </p>
+     * @param cameraModelMat 相机模型矩阵
+     * @param modelModelMat 模型矩阵
+     * @param projectionMat 投影矩阵，用于排序前的视锥剔除
      */
-    void sortForViewChange(Matrix cameraModelMat, Matrix modelModelMat);
+    void sortForViewChange(Matrix cameraModelMat, Matrix modelModelMat, Matrix projectionMat);
 }
@@ -2,6 +2,8 @@ package com.google.sceneform.rendering;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -13,10 +15,10 @@ import com.google.sceneform.utilities.UrlResolverUtils;
 
 import java.io.InputStream;
 import java.net.URI;
-import java.nio.ByteBuffer;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 /** 用gltfio加载的glTF数据，并初始化可渲染对象的任务 */
@@ -48,25 +50,45 @@ public class LoadRenderableFromFilamentGltfTask<T extends Renderable> {
   @SuppressWarnings({"AndroidApiChecker"})
   public CompletableFuture<T> downloadAndProcessRenderable(
       Callable<InputStream> inputStreamCreator) {
+    return downloadAndProcessRenderable(inputStreamCreator, ThreadPools.getThreadPoolExecutor(), null);
+  }
+
+  /**
+   * 在指定的加载线程中读取数据
+   * @param cancellationSignal 取消后，尚未开始读取或尚未处理的任务以{@link OperationCanceledException}结束
+   */
+  @SuppressWarnings({"AndroidApiChecker"})
+  CompletableFuture<T> downloadAndProcessRenderable(
+      Callable<InputStream> inputStreamCreator,
+      Executor loaderExecutor,
+      @Nullable CancellationSignal cancellationSignal) {
 
     return CompletableFuture.supplyAsync(
             // Download byte buffer via thread pool
             () -> {
               try {
-                return SceneformBufferUtils.inputStreamCallableToByteArray(inputStreamCreator);
+                if (cancellationSignal != null) {
+                  cancellationSignal.throwIfCanceled();
+                }
+                //直接读入direct缓冲区(本地文件内存映射)，交给gltfio时无需再拷贝
+                return SceneformBufferUtils.inputStreamCallableToDirectByteBuffer(inputStreamCreator);
               } catch (Exception e) {
                 throw new CompletionException(e);
               }
             },
-            ThreadPools.getThreadPoolExecutor())
+            loaderExecutor)
         .thenApplyAsync(
             gltfByteBuffer -> {
+              if (cancellationSignal != null) {
+                cancellationSignal.throwIfCanceled();
+              }
               // 判断是否是glb格式
-              this.renderableData.isGltfBinary = gltfByteBuffer[0] == 0x67
-                      && gltfByteBuffer[1] == 0x6C
-                      && gltfByteBuffer[2] == 0x54
-                      && gltfByteBuffer[3] == 0x46;
-              this.renderableData.gltfByteBuffer = ByteBuffer.wrap(gltfByteBuffer);
+              this.renderableData.isGltfBinary = gltfByteBuffer.remaining() >= 4
+                      && gltfByteBuffer.get(0) == 0x67
+                      && gltfByteBuffer.get(1) == 0x6C
+                      && gltfByteBuffer.get(2) == 0x54
+                      && gltfByteBuffer.get(3) == 0x46;
+              this.renderableData.gltfByteBuffer = gltfByteBuffer;
               return renderable;
             },
             ThreadPools.getMainExecutor());
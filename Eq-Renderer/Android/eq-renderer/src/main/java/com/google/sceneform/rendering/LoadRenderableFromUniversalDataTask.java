@@ -2,16 +2,20 @@ package com.google.sceneform.rendering;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
 
 import androidx.annotation.Nullable;
 
 import com.google.sceneform.utilities.SceneformBufferUtils;
 import com.google.sceneform.utilities.UrlResolverUtils;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 /** 通用数据加载任务，并初始化可渲染对象的任务 */
@@ -20,10 +24,12 @@ public class LoadRenderableFromUniversalDataTask<T extends Renderable> {
     private static final String TAG = LoadRenderableFromUniversalDataTask.class.getSimpleName();
     private final T renderable;
     private final IUniversalData universalData;
+    private final Uri sourceUri;
 
     LoadRenderableFromUniversalDataTask(
             T renderable, Context context, Uri sourceUri, @Nullable Function<String, Uri> urlResolver) {
         this.renderable = renderable;
+        this.sourceUri = sourceUri;
         IRenderableInternalData data = renderable.getRenderableData();
         if (data instanceof IUniversalData) {
             this.universalData =
@@ -41,25 +47,63 @@ public class LoadRenderableFromUniversalDataTask<T extends Renderable> {
     @SuppressWarnings({"AndroidApiChecker"})
     public CompletableFuture<T> downloadAndProcessRenderable(
             Callable<InputStream> inputStreamCreator) {
+        return downloadAndProcessRenderable(inputStreamCreator, ThreadPools.getThreadPoolExecutor(), null);
+    }
+
+    /**
+     * 在指定的加载线程中读取数据
+     * @param cancellationSignal 取消后，尚未开始读取或尚未处理的任务以{@link OperationCanceledException}结束
+     */
+    @SuppressWarnings({"AndroidApiChecker"})
+    CompletableFuture<T> downloadAndProcessRenderable(
+            Callable<InputStream> inputStreamCreator,
+            Executor loaderExecutor,
+            @Nullable CancellationSignal cancellationSignal) {
 
         return CompletableFuture.supplyAsync(
                         // Download byte buffer via thread pool
                         () -> {
                             try {
+                                if (cancellationSignal != null) {
+                                    cancellationSignal.throwIfCanceled();
+                                }
+                                //支持流式解析时直接从输入流读取，不再读入完整的byte[]
+                                if (universalData instanceof IStreamingData
+                                        && loadFromStream(inputStreamCreator)) {
+                                    return null;
+                                }
                                 return SceneformBufferUtils.inputStreamCallableToByteArray(inputStreamCreator);
                             } catch (Exception e) {
                                 throw new CompletionException(e);
                             }
                         },
-                        ThreadPools.getThreadPoolExecutor())
+                        loaderExecutor)
                 .thenApplyAsync(
                         (byte[] bytes) -> {
-                            this.universalData.setData(bytes);
+                            if (cancellationSignal != null) {
+                                cancellationSignal.throwIfCanceled();
+                            }
+                            if (bytes != null) {
+                                this.universalData.setData(bytes);
+                            }
                             return renderable;
                         },
                         ThreadPools.getMainExecutor());
     }
 
+    private boolean loadFromStream(Callable<InputStream> inputStreamCreator) throws Exception {
+        InputStream inputStream = inputStreamCreator.call();
+        boolean taken = false;
+        try {
+            taken = ((IStreamingData) universalData).loadFromStream(inputStream, sourceUri);
+            return taken;
+        } finally {
+            if (!taken) {
+                inputStream.close();
+            }
+        }
+    }
+
     /**
      * 通用数据接口
      */
@@ -67,5 +111,25 @@ public class LoadRenderableFromUniversalDataTask<T extends Renderable> {
         void setContext(Context context);
         void setData(byte[] bytes);
         void setUrlResolver(Function<String, Uri> urlResolver);
+
+        /**
+         * 获取已加载数据占用的字节数(估算)，用于模型缓存的容量统计
+         * @return 未知时返回0，此时不缓存
+         */
+        long getSizeInBytes();
+    }
+
+    /**
+     * 流式数据接口
+     * <p>在加载线程中直接从输入流分批解析，无需先将完整文件读入byte[]</p>
+     */
+    public interface IStreamingData {
+        /**
+         * 从输入流加载（加载线程）
+         * @param inputStream 输入流，返回true时由实现类负责关闭
+         * @param sourceUri 数据来源，用于区分缓存
+         * @return 是否已加载；格式不支持流式解析时返回false，改用{@link IUniversalData#setData(byte[])}
+         */
+        boolean loadFromStream(InputStream inputStream, @Nullable Uri sourceUri) throws IOException;
     }
 }
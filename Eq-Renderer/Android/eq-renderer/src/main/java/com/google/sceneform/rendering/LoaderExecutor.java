@@ -0,0 +1,230 @@
+package com.google.sceneform.rendering;
+
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 资源加载线程池
+ * <p>
+ *     线程数固定，任务按优先级排队：{@link Priority#FOREGROUND}(当前可见)始终先于
+ *     {@link Priority#PREFETCH}(预加载)执行，同一优先级内先进先出，避免大量预加载任务阻塞前台加载。
+ * </p>
+ * <p>
+ *     持续较长时间的流式读取（如大点云预览之后的剩余数据）使用单独的{@link #getStreamingExecutor()}，
+ *     任务开始后不可抢占，放在加载线程中会长时间占用线程，使前台加载排队。
+ * </p>
+ * <p>统计各优先级的排队数量与排队等待时间</p>
+ * @hide
+ */
+public class LoaderExecutor {
+  /** 空闲线程的存活时间 */
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  /** 加载优先级 */
+  public enum Priority {
+    /** 当前场景中需要显示的资源 */
+    FOREGROUND,
+    /** 预加载，仅在没有前台任务时执行 */
+    PREFETCH
+  }
+
+  private final ThreadPoolExecutor pool;
+  private final ThreadPoolExecutor streamingPool;
+  private final AtomicLong sequence = new AtomicLong();
+  private final Lane[] lanes;
+  private final Lane streamingLane;
+
+  /** 单个优先级的提交入口与统计数据 */
+  private final class Lane implements Executor {
+    final ThreadPoolExecutor target;
+    final int priority;
+    final AtomicInteger queued = new AtomicInteger();
+    final AtomicLong started = new AtomicLong();
+    final AtomicLong completed = new AtomicLong();
+    final AtomicLong totalWaitNanos = new AtomicLong();
+    final AtomicLong maxWaitNanos = new AtomicLong();
+
+    Lane(ThreadPoolExecutor target, int priority) {
+      this.target = target;
+      this.priority = priority;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable runnable) {
+      queued.incrementAndGet();
+      target.execute(new Task(this, runnable));
+    }
+
+    void reset() {
+      started.set(0);
+      completed.set(0);
+      totalWaitNanos.set(0);
+      maxWaitNanos.set(0);
+    }
+
+    void onStart(long waitNanos) {
+      queued.decrementAndGet();
+      started.incrementAndGet();
+      totalWaitNanos.addAndGet(waitNanos);
+      long max = maxWaitNanos.get();
+      while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+        max = maxWaitNanos.get();
+      }
+    }
+  }
+
+  private final class Task implements Runnable, Comparable<Task> {
+    private final Lane lane;
+    private final Runnable runnable;
+    private final long order = sequence.getAndIncrement();
+    private final long enqueueNanos = System.nanoTime();
+
+    Task(Lane lane, Runnable runnable) {
+      this.lane = lane;
+      this.runnable = runnable;
+    }
+
+    @Override
+    public void run() {
+      lane.onStart(System.nanoTime() - enqueueNanos);
+      try {
+        runnable.run();
+      } finally {
+        lane.completed.incrementAndGet();
+      }
+    }
+
+    @Override
+    public int compareTo(Task other) {
+      if (lane.priority != other.lane.priority) {
+        return lane.priority < other.lane.priority ? -1 : 1;
+      }
+      return Long.compare(order, other.order);
+    }
+  }
+
+  /**
+   * 使用默认线程数创建，线程数为CPU核数-1，限制在2~4之间
+   */
+  public LoaderExecutor() {
+    this(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)));
+  }
+
+  /**
+   * 构造函数
+   * @param threadCount 加载线程数
+   */
+  public LoaderExecutor(int threadCount) {
+    if (threadCount < 1) {
+      throw new IllegalArgumentException("threadCount must be >= 1");
+    }
+    pool = createPool(threadCount, "SceneformLoader-");
+    //流式读取以磁盘带宽为主，单线程依次执行
+    streamingPool = createPool(1, "SceneformStreamer-");
+
+    Priority[] priorities = Priority.values();
+    lanes = new Lane[priorities.length];
+    for (int i = 0; i < priorities.length; i++) {
+      lanes[i] = new Lane(pool, priorities[i].ordinal());
+    }
+    streamingLane = new Lane(streamingPool, Priority.PREFETCH.ordinal());
+  }
+
+  private static ThreadPoolExecutor createPool(int threadCount, String namePrefix) {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threadCount,
+            threadCount,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new PriorityBlockingQueue<>(),
+            new ThreadFactory() {
+              private final AtomicInteger count = new AtomicInteger();
+
+              @Override
+              public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread =
+                    new Thread(
+                        () -> {
+                          //加载线程不与渲染线程、主线程争抢CPU
+                          Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                          runnable.run();
+                        },
+                        namePrefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              }
+            });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * 获取指定优先级的Executor，可直接用于{@link java.util.concurrent.CompletableFuture#supplyAsync}
+   */
+  public Executor getExecutor(Priority priority) {
+    return lanes[priority.ordinal()];
+  }
+
+  /**
+   * 获取流式读取的Executor
+   * <p>用于持续较长时间的预加载读取，不占用{@link #getExecutor}的加载线程，任务依次执行</p>
+   */
+  public Executor getStreamingExecutor() {
+    return streamingLane;
+  }
+
+  /** 获取流式读取排队中(未开始执行)的任务数量 */
+  public int getStreamingQueueDepth() {
+    return streamingLane.queued.get();
+  }
+
+  public int getThreadCount() {
+    return pool.getMaximumPoolSize();
+  }
+
+  /** 获取排队中(未开始执行)的任务数量 */
+  public int getQueueDepth(Priority priority) {
+    return lanes[priority.ordinal()].queued.get();
+  }
+
+  /** 获取已执行完成的任务数量 */
+  public long getCompletedCount(Priority priority) {
+    return lanes[priority.ordinal()].completed.get();
+  }
+
+  /** 获取任务从提交到开始执行的平均等待时间(ns) */
+  public long getAverageWaitNanos(Priority priority) {
+    Lane lane = lanes[priority.ordinal()];
+    long started = lane.started.get();
+    return started > 0 ? lane.totalWaitNanos.get() / started : 0;
+  }
+
+  /** 获取任务从提交到开始执行的最大等待时间(ns) */
+  public long getMaxWaitNanos(Priority priority) {
+    return lanes[priority.ordinal()].maxWaitNanos.get();
+  }
+
+  /** 重置完成数量与等待时间统计 */
+  public void resetStatistics() {
+    for (Lane lane : lanes) {
+      lane.reset();
+    }
+    streamingLane.reset();
+  }
+
+  /** 停止接收新任务，已提交的任务继续执行 */
+  public void shutdown() {
+    pool.shutdown();
+    streamingPool.shutdown();
+  }
+}
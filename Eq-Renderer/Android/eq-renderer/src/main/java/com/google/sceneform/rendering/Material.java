@@ -171,6 +171,18 @@ public class Material {
         }
     }
 
+    /**
+     * 传入高斯点云的数据纹理
+     * @param name         参数名称
+     * @param splatTexture 数据纹理
+     */
+    void setSplatTexture(String name, SplatTexture splatTexture) {
+        materialParameters.setSplatTexture(name, splatTexture);
+        if (internalMaterialInstance.isValidInstance()) {
+            materialParameters.applyParameterTo(internalMaterialInstance.getInstance(), name);
+        }
+    }
+
     /**
      * 传入扩展纹理
      * <p>
@@ -239,6 +239,10 @@ final class MaterialParameters {
     return null;
   }
 
+  void setSplatTexture(String name, SplatTexture splatTexture) {
+    namedParameters.put(name, new SplatTextureParameter(name, splatTexture));
+  }
+
   void setExternalTexture(String name, ExternalTexture externalTexture) {
     namedParameters.put(
         name, new ExternalTextureParameter(name, externalTexture));
@@ -569,6 +573,32 @@ final class MaterialParameters {
   }
 
 
+  static class SplatTextureParameter extends Parameter {
+    private final SplatTexture splatTexture;
+
+    SplatTextureParameter(String name, SplatTexture splatTexture) {
+      this.name = name;
+      this.splatTexture = splatTexture;
+    }
+
+    @Override
+    void applyTo(MaterialInstance materialInstance) {
+      //数据纹理按texel读取，不插值
+      TextureSampler sampler = new TextureSampler(
+              TextureSampler.MinFilter.NEAREST,
+              TextureSampler.MagFilter.NEAREST,
+              TextureSampler.WrapMode.CLAMP_TO_EDGE);
+
+      materialInstance.setParameter(name, splatTexture.getFilamentTexture(), sampler);
+    }
+
+    @Override
+    public Parameter clone() {
+      return new SplatTextureParameter(name, splatTexture);
+    }
+  }
+
+
   static class ExternalTextureParameter extends Parameter {
     private final ExternalTexture externalTexture;
 
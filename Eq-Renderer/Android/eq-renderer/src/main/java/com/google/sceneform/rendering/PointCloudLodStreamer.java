@@ -0,0 +1,445 @@
+package com.google.sceneform.rendering;
+
+import android.util.Log;
+
+import com.eqgis.eqr.core.PointCloudOctree;
+import com.google.android.filament.Engine;
+import com.google.android.filament.EntityInstance;
+import com.google.android.filament.IndexBuffer;
+import com.google.android.filament.RenderableManager;
+import com.google.android.filament.VertexBuffer;
+import com.google.sceneform.math.Matrix;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 八叉树点云的节点流式加载
+ * <p>
+ *     GPU顶点缓冲区按节点容量划分为固定数量的槽，每个槽存放一个节点的点。
+ *     视角变化时在加载线程中按屏幕空间误差选择节点，从节点文件读取未驻留的节点，
+ *     槽不足时淘汰最久未被选中的节点（LRU）；主线程上传新节点与可见节点的索引，并更新绘制范围。
+ * </p>
+ * <p>选中但尚未读取的节点不绘制，由已驻留的父节点代替，每次更新最多读取{@link #MAX_LOADS_PER_UPDATE}个节点</p>
+ */
+class PointCloudLodStreamer {
+    private static final String TAG = PointCloudLodStreamer.class.getSimpleName();
+
+    //每次更新最多读取的节点数量，限制单帧上传量
+    static final int MAX_LOADS_PER_UPDATE = 8;
+    private static final int INDEX_RING_SIZE = 3;
+
+    /**
+     * 读取节点用的direct缓冲区，Filament上传完成后在回调中归还
+     */
+    private final class NodeBuffer {
+        final ByteBuffer data;
+        int slot;
+        private final Runnable release = new Runnable() {
+            @Override
+            public void run() {
+                freeBuffers.offer(NodeBuffer.this);
+            }
+        };
+
+        NodeBuffer() {
+            data = ByteBuffer.allocateDirect(capacity * PointCloudOctree.POINT_STRIDE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private final PointCloudOctree tree;
+    private final int capacity;
+    private final int slotCount;
+    private final int maxPointBudget;
+    private volatile int pointBudget;
+    private volatile float screenError;
+
+    //驻留状态，构造后仅在加载线程中读写
+    private final int[] nodeSlot;
+    private final int[] slotNode;
+    private final long[] slotStamp;
+    private long frame;
+    private final int[] selected;
+    //上一次发布的索引对应的节点
+    private final int[] drawnNodes;
+    private int drawnCount;
+
+    private final ArrayBlockingQueue<NodeBuffer> freeBuffers;
+    //待主线程上传的节点，由idle保证加载线程在上传完成前不再写入
+    private final NodeBuffer[] pendingLoads = new NodeBuffer[MAX_LOADS_PER_UPDATE];
+    private int pendingCount;
+    private final SplatIndexRing indexRing;
+    //根节点，创建缓冲区时直接上传
+    private NodeBuffer rootBuffer;
+
+    private final float[] cameraModelMat = new float[16];
+    private final float[] modelMat = new float[16];
+    private final float[] projectionMat = new float[16];
+    //上一次更新后所有选中节点均已驻留，视角不变时无需再次更新
+    private volatile boolean complete;
+
+    private RenderableInternalData data;
+    private int renderedEntity;
+    //当前绘制的索引数量，-1表示需要重新设置绘制范围
+    private int drawIndexCount = -1;
+    //最近一次上传的索引数量
+    private int uploadedIndexCount;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private volatile boolean idle = true;
+    private volatile boolean disposed;
+
+    private final Runnable updateTask = new Runnable() {
+        @Override
+        public void run() {
+            boolean posted = false;
+            try {
+                posted = !disposed && prepare();
+            } catch (IOException e) {
+                if (!disposed) {
+                    Log.e(TAG, "Unable to read octree node.", e);
+                }
+            } finally {
+                if (!posted) {
+                    idle = true;
+                }
+            }
+        }
+    };
+
+    private final Runnable uploadRunnable = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                upload();
+            } finally {
+                idle = true;
+            }
+        }
+    };
+
+    /**
+     * 构造并读取根节点（加载线程）
+     * @param pointBudget 点数预算，也是索引缓冲区的容量
+     * @param slotCount 顶点缓冲区的槽数量，即最多驻留的节点数量
+     */
+    PointCloudLodStreamer(PointCloudOctree tree, int pointBudget, int slotCount, float screenError)
+            throws IOException {
+        this.tree = tree;
+        this.capacity = tree.getNodeCapacity();
+        this.slotCount = Math.max(1, slotCount);
+        this.maxPointBudget = Math.max(capacity, pointBudget);
+        this.pointBudget = maxPointBudget;
+        this.screenError = screenError;
+        this.nodeSlot = new int[tree.getNodeCount()];
+        this.slotNode = new int[this.slotCount];
+        this.slotStamp = new long[this.slotCount];
+        this.selected = new int[this.slotCount];
+        this.drawnNodes = new int[this.slotCount];
+        Arrays.fill(nodeSlot, -1);
+        Arrays.fill(slotNode, -1);
+        Arrays.fill(slotStamp, -1);
+        this.indexRing = new SplatIndexRing(maxPointBudget, INDEX_RING_SIZE);
+        this.freeBuffers = new ArrayBlockingQueue<>(MAX_LOADS_PER_UPDATE * 2);
+        for (int i = 0; i < MAX_LOADS_PER_UPDATE * 2; i++) {
+            freeBuffers.offer(new NodeBuffer());
+        }
+
+        rootBuffer = freeBuffers.poll();
+        tree.readPoints(0, rootBuffer.data);
+        rootBuffer.data.flip();
+        rootBuffer.slot = 0;
+        nodeSlot[0] = 0;
+        slotNode[0] = 0;
+        drawnNodes[0] = 0;
+        drawnCount = 1;
+    }
+
+    PointCloudOctree getTree() {
+        return tree;
+    }
+
+    /**
+     * 创建顶点缓冲池与索引缓冲区，并上传根节点（主线程）
+     * @return 根节点的点数量，即初始的绘制索引数量
+     */
+    int createBuffers(IRenderableInternalData target) {
+        if (target == data && target.getVertexBuffer() != null) {
+            //缓冲池已创建，驻留状态仍然有效
+            return uploadedIndexCount;
+        }
+        IEngine engine = EngineInstance.getEngine();
+        Engine filamentEngine = engine.getFilamentEngine();
+        if (target.getVertexBuffer() != null) {
+            engine.destroyVertexBuffer(target.getVertexBuffer());
+        }
+        if (target.getIndexBuffer() != null) {
+            engine.destroyIndexBuffer(target.getIndexBuffer());
+        }
+
+        VertexBuffer.Builder builder = new VertexBuffer.Builder()
+                .vertexCount(slotCount * capacity)
+                .bufferCount(1)
+                .attribute(VertexBuffer.VertexAttribute.POSITION, 0, VertexBuffer.AttributeType.FLOAT3,
+                        0, PointCloudOctree.POINT_STRIDE);
+        if (tree.hasColors()) {
+            builder.attribute(VertexBuffer.VertexAttribute.COLOR, 0, VertexBuffer.AttributeType.UBYTE4,
+                            12, PointCloudOctree.POINT_STRIDE)
+                    .normalized(VertexBuffer.VertexAttribute.COLOR);
+        }
+        VertexBuffer vertexBuffer = builder.build(filamentEngine);
+        IndexBuffer indexBuffer = new IndexBuffer.Builder()
+                .indexCount(maxPointBudget)
+                .bufferType(IndexBuffer.Builder.IndexType.UINT)
+                .build(filamentEngine);
+        target.setVertexBuffer(vertexBuffer);
+        target.setIndexBuffer(indexBuffer);
+        if (target instanceof RenderableInternalData) {
+            data = (RenderableInternalData) target;
+        }
+
+        //根节点位于第0个槽
+        int rootCount = tree.getNodePointCount(0);
+        NodeBuffer root = rootBuffer;
+        rootBuffer = null;
+        if (root != null) {
+            vertexBuffer.setBufferAt(filamentEngine, 0, root.data, 0, root.data.remaining(),
+                    ThreadPools.getMainExecutor(), root.release);
+        }
+        IntBuffer indices = ByteBuffer.allocateDirect(rootCount * 4)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        for (int i = 0; i < rootCount; i++) {
+            indices.put(i, i);
+        }
+        indexBuffer.setBuffer(filamentEngine, indices, 0, rootCount);
+        drawIndexCount = rootCount;
+        uploadedIndexCount = rootCount;
+        return rootCount;
+    }
+
+    /**
+     * 实例重建后记录实体，并按最近一次上传的索引数量设置绘制范围（主线程）
+     */
+    void setRenderedEntity(int renderedEntity) {
+        this.renderedEntity = renderedEntity;
+        drawIndexCount = -1;
+        RenderableInternalData target = data;
+        if (target != null && target.getVertexBuffer() != null && target.getIndexBuffer() != null) {
+            updateDrawRange(target, uploadedIndexCount);
+        }
+    }
+
+    /**
+     * 设置点数预算，不超过创建时的预算
+     */
+    void setPointBudget(int pointBudget) {
+        this.pointBudget = Math.max(1, Math.min(maxPointBudget, pointBudget));
+        complete = false;
+    }
+
+    int getPointBudget() {
+        return pointBudget;
+    }
+
+    /**
+     * 设置屏幕空间误差阈值，点间距投影后占屏幕高度的比例
+     */
+    void setScreenError(float screenError) {
+        this.screenError = screenError;
+        complete = false;
+    }
+
+    float getScreenError() {
+        return screenError;
+    }
+
+    /**
+     * 视角变化时调用（主线程），上一次更新未完成时跳过
+     */
+    void update(Matrix cameraModel, Matrix model, Matrix projection) {
+        if (data == null || !idle || disposed) {
+            return;
+        }
+        if (complete && Arrays.equals(cameraModelMat, cameraModel.data)
+                && Arrays.equals(modelMat, model.data) && Arrays.equals(projectionMat, projection.data)) {
+            return;
+        }
+        idle = false;
+        System.arraycopy(cameraModel.data, 0, cameraModelMat, 0, 16);
+        System.arraycopy(model.data, 0, modelMat, 0, 16);
+        System.arraycopy(projection.data, 0, projectionMat, 0, 16);
+        executor.execute(updateTask);
+    }
+
+    /**
+     * 停止流式加载，缓冲区不再写入，可交由其他定义使用（主线程）
+     */
+    void detach() {
+        disposed = true;
+        executor.shutdownNow();
+        data = null;
+    }
+
+    void dispose() {
+        detach();
+        try {
+            tree.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 选择节点、读取未驻留的节点并写入索引（加载线程）
+     * @return 是否已发布，需在主线程上传
+     */
+    private boolean prepare() throws IOException {
+        SplatIndexRing.Slot indexSlot = indexRing.acquire();
+        if (indexSlot == null) {
+            return false;
+        }
+        int count = tree.select(modelMat, cameraModelMat, projectionMat, screenError, pointBudget, selected);
+        frame++;
+        for (int i = 0; i < count; i++) {
+            int slot = nodeSlot[selected[i]];
+            if (slot >= 0) {
+                slotStamp[slot] = frame;
+            }
+        }
+
+        //按选择顺序读取，父节点先于子节点驻留
+        boolean allResident = true;
+        pendingCount = 0;
+        for (int i = 0; i < count; i++) {
+            int node = selected[i];
+            if (nodeSlot[node] >= 0) {
+                continue;
+            }
+            NodeBuffer buffer = pendingCount < MAX_LOADS_PER_UPDATE ? freeBuffers.poll() : null;
+            int slot = buffer != null ? evict() : -1;
+            if (slot < 0) {
+                if (buffer != null) {
+                    freeBuffers.offer(buffer);
+                }
+                allResident = false;
+                continue;
+            }
+            buffer.data.clear();
+            tree.readPoints(node, buffer.data);
+            buffer.data.flip();
+            buffer.slot = slot;
+            if (slotNode[slot] >= 0) {
+                nodeSlot[slotNode[slot]] = -1;
+            }
+            slotNode[slot] = node;
+            nodeSlot[node] = slot;
+            slotStamp[slot] = frame;
+            pendingLoads[pendingCount++] = buffer;
+        }
+
+        //驻留的选中节点写入索引
+        IntBuffer indices = indexSlot.buffer;
+        int indexCount = 0;
+        int drawn = 0;
+        boolean changed = false;
+        for (int i = 0; i < count; i++) {
+            int node = selected[i];
+            int slot = nodeSlot[node];
+            if (slot < 0) {
+                continue;
+            }
+            if (drawn >= drawnCount || drawnNodes[drawn] != node) {
+                changed = true;
+            }
+            drawnNodes[drawn++] = node;
+            int base = slot * capacity;
+            for (int k = 0, n = tree.getNodePointCount(node); k < n; k++) {
+                indices.put(indexCount++, base + k);
+            }
+        }
+        changed |= drawn != drawnCount;
+        drawnCount = drawn;
+        complete = allResident;
+
+        if (!changed && pendingCount == 0) {
+            indexRing.recycle(indexSlot);
+            return false;
+        }
+        indexSlot.count = indexCount;
+        indexRing.publish(indexSlot);
+        ThreadPools.getMainExecutor().execute(uploadRunnable);
+        return true;
+    }
+
+    /**
+     * 淘汰本次未选中且最久未被选中的槽，优先使用空槽
+     * @return 槽序号，全部被选中时返回-1
+     */
+    private int evict() {
+        int victim = -1;
+        long oldest = frame;
+        for (int s = 0; s < slotCount; s++) {
+            if (slotStamp[s] < oldest) {
+                oldest = slotStamp[s];
+                victim = s;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * 上传新节点与索引，并更新绘制范围（主线程）
+     */
+    private void upload() {
+        RenderableInternalData target = data;
+        int loads = pendingCount;
+        pendingCount = 0;
+        if (disposed || target == null || target.getVertexBuffer() == null || target.getIndexBuffer() == null) {
+            return;
+        }
+        Engine engine = EngineInstance.getEngine().getFilamentEngine();
+        VertexBuffer vertexBuffer = target.getVertexBuffer();
+        for (int i = 0; i < loads; i++) {
+            NodeBuffer buffer = pendingLoads[i];
+            pendingLoads[i] = null;
+            vertexBuffer.setBufferAt(engine, 0, buffer.data,
+                    buffer.slot * capacity * PointCloudOctree.POINT_STRIDE, buffer.data.remaining(),
+                    ThreadPools.getMainExecutor(), buffer.release);
+        }
+        //顶点与索引在同一帧内更新，被淘汰的槽不会以旧索引绘制
+        int count = indexRing.upload(engine, target.getIndexBuffer());
+        if (count >= 0) {
+            uploadedIndexCount = count;
+        }
+        if (count >= 0 && count != drawIndexCount) {
+            updateDrawRange(target, count);
+        }
+    }
+
+    /**
+     * 按可见节点的索引数量更新绘制范围
+     */
+    private void updateDrawRange(RenderableInternalData target, int indexCount) {
+        RenderableManager renderableManager = EngineInstance.getEngine().getRenderableManager();
+        @EntityInstance int renderableInstance = renderableManager.getInstance(renderedEntity);
+        if (renderableInstance == 0) {
+            return;
+        }
+        renderableManager.setGeometryAt(
+                renderableInstance,
+                0,
+                target.primitiveType,
+                target.getVertexBuffer(),
+                target.getIndexBuffer(),
+                0,
+                indexCount);
+        drawIndexCount = indexCount;
+    }
+}
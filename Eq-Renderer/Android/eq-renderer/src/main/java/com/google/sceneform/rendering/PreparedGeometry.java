@@ -0,0 +1,693 @@
+package com.google.sceneform.rendering;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.filament.Engine;
+import com.google.android.filament.IndexBuffer;
+import com.google.android.filament.IndexBuffer.Builder.IndexType;
+import com.google.android.filament.RenderableManager;
+import com.google.android.filament.VertexBuffer;
+import com.google.android.filament.VertexBuffer.VertexAttribute;
+import com.google.sceneform.math.MathKernel;
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.utilities.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 已准备好的几何数据
+ * <p>
+ *     两阶段构建中的第一阶段：在后台线程将位置、法线、UV、颜色、CUSTOM0和索引写入direct缓冲区，
+ *     由法线计算切线并计算包围盒；顶点数不小于{@link #PARALLEL_VERTEX_COUNT}时分段并行计算。
+ *     构建后数据不再修改，可在线程间传递。
+ * </p>
+ * <p>
+ *     第二阶段由{@link RenderableDefinitionPacked}在主线程创建Filament缓冲区并上传，
+ *     两阶段的耗时分别由{@link #getPrepareNanos()}和{@link RenderableDefinitionPacked#getUploadNanos()}获取。
+ * </p>
+ */
+public final class PreparedGeometry {
+    //顶点数不小于此值时，切线与包围盒在公共线程池中分段计算
+    public static int PARALLEL_VERTEX_COUNT = 32768;
+
+    static final int POSITION_SIZE = 3; // x, y, z
+    static final int NORMAL_SIZE = 3;
+    static final int TANGENTS_SIZE = 4; // quaternion
+    static final int UV_SIZE = 2;
+    static final int COLOR_SIZE = 4; // RGBA
+    static final int CUSTOM0_SIZE = 4; // Float4
+    private static final int BYTES_PER_FLOAT = Float.SIZE / 8;
+    private static final int BYTES_PER_INT = Integer.SIZE / 8;
+    //每次处理的顶点数，分段内的临时数组按此大小分配
+    private static final int BLOCK_SIZE = 1024;
+    //每个分段的最少顶点数
+    private static final int MIN_PARTITION_SIZE = 8192;
+
+    private final int vertexCount;
+    private final int indexCount;
+    private final FloatBuffer positions;
+    @Nullable private final FloatBuffer tangents;
+    @Nullable private final FloatBuffer uvs;
+    @Nullable private final FloatBuffer colors;
+    @Nullable private final FloatBuffer custom0;
+    private final IntBuffer indices;
+    //minX, minY, minZ, maxX, maxY, maxZ
+    private final float[] aabb;
+    private final RenderableManager.PrimitiveType primitiveType;
+    private final long prepareNanos;
+
+    private PreparedGeometry(Builder builder) {
+        long start = System.nanoTime();
+        FloatStream positionStream = Preconditions.checkNotNull(builder.positions, "Positions must be set.");
+        if (positionStream.length % POSITION_SIZE != 0) {
+            throw new IllegalArgumentException("Positions length must be a multiple of 3.");
+        }
+        vertexCount = positionStream.length / POSITION_SIZE;
+        if (vertexCount == 0) {
+            throw new IllegalArgumentException("RenderableDescription must have at least one vertex.");
+        }
+        checkLength(builder.normals, NORMAL_SIZE, "Normals");
+        checkLength(builder.uvs, UV_SIZE, "UVs");
+        checkLength(builder.colors, COLOR_SIZE, "Colors");
+        checkLength(builder.custom0, CUSTOM0_SIZE, "CUSTOM0");
+
+        positions = positionStream.toDirect();
+        uvs = builder.uvs != null ? builder.uvs.toDirect() : null;
+        colors = builder.colors != null ? builder.colors.toDirect() : null;
+        custom0 = builder.custom0 != null ? builder.custom0.toDirect() : null;
+        tangents = builder.normals != null ? allocateFloats(vertexCount * TANGENTS_SIZE) : null;
+
+        //未设置索引时按顶点顺序绘制
+        if (builder.indexArray != null) {
+            indexCount = builder.indexArray.length;
+            indices = allocateInts(indexCount);
+            indices.put(builder.indexArray);
+            indices.clear();
+        } else if (builder.indexBuffer != null) {
+            indexCount = builder.indexBuffer.remaining();
+            if (isNativeDirect(builder.indexBuffer)) {
+                indices = builder.indexBuffer;
+            } else {
+                indices = allocateInts(indexCount);
+                indices.put(builder.indexBuffer.duplicate());
+                indices.clear();
+            }
+        } else {
+            indexCount = vertexCount;
+            indices = allocateInts(indexCount);
+            for (int i = 0; i < indexCount; i++) {
+                indices.put(i, i);
+            }
+        }
+
+        aabb = computeTangentsAndBounds(positionStream, builder.normals);
+        primitiveType = builder.primitiveType;
+        prepareNanos = System.nanoTime() - start;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    public RenderableManager.PrimitiveType getPrimitiveType() {
+        return primitiveType;
+    }
+
+    /**
+     * 获取包围盒
+     * @return minX, minY, minZ, maxX, maxY, maxZ
+     */
+    public float[] getAabb() {
+        return aabb.clone();
+    }
+
+    /**
+     * 获取准备阶段（打包、切线、包围盒）的耗时
+     * @return 纳秒
+     */
+    public long getPrepareNanos() {
+        return prepareNanos;
+    }
+
+    /**
+     * 读取顶点
+     * @param index 顶点序号，需小于{@link #getVertexCount()}
+     * @param out 依次写入位置xyz、切线四元数xyzw、uv，无切线或UV时对应分量为0，长度至少为9
+     */
+    public void getVertex(int index, float[] out) {
+        for (int i = 0; i < POSITION_SIZE; i++) {
+            out[i] = positions.get(index * POSITION_SIZE + i);
+        }
+        for (int i = 0; i < TANGENTS_SIZE; i++) {
+            out[POSITION_SIZE + i] = tangents != null ? tangents.get(index * TANGENTS_SIZE + i) : 0f;
+        }
+        for (int i = 0; i < UV_SIZE; i++) {
+            out[POSITION_SIZE + TANGENTS_SIZE + i] = uvs != null ? uvs.get(index * UV_SIZE + i) : 0f;
+        }
+    }
+
+    /**
+     * 读取索引
+     * @param index 序号，需小于{@link #getIndexCount()}
+     */
+    public int getIndex(int index) {
+        return indices.get(index);
+    }
+
+    float[] aabb() {
+        return aabb;
+    }
+
+    /**
+     * 索引缓冲区中[start, start + count)区间的只读视图
+     */
+    List<Integer> indexRange(int start, int count) {
+        return new IndexRange(indices, start, count);
+    }
+
+    /**
+     * 索引缓冲区，用于以相同索引重新打包顶点，不能修改
+     */
+    IntBuffer indices() {
+        return indices.duplicate();
+    }
+
+    VertexBuffer createVertexBuffer(Engine engine) {
+        int bufferCount = 1;
+        bufferCount += tangents != null ? 1 : 0;
+        bufferCount += uvs != null ? 1 : 0;
+        bufferCount += colors != null ? 1 : 0;
+        bufferCount += custom0 != null ? 1 : 0;
+
+        VertexBuffer.Builder builder = new VertexBuffer.Builder();
+        builder.vertexCount(vertexCount).bufferCount(bufferCount);
+
+        int bufferIndex = 0;
+        builder.attribute(
+                VertexAttribute.POSITION,
+                bufferIndex,
+                VertexBuffer.AttributeType.FLOAT3,
+                0,
+                POSITION_SIZE * BYTES_PER_FLOAT);
+        if (tangents != null) {
+            bufferIndex++;
+            builder.attribute(
+                    VertexAttribute.TANGENTS,
+                    bufferIndex,
+                    VertexBuffer.AttributeType.FLOAT4,
+                    0,
+                    TANGENTS_SIZE * BYTES_PER_FLOAT);
+        }
+        if (uvs != null) {
+            bufferIndex++;
+            builder.attribute(
+                    VertexAttribute.UV0,
+                    bufferIndex,
+                    VertexBuffer.AttributeType.FLOAT2,
+                    0,
+                    UV_SIZE * BYTES_PER_FLOAT);
+        }
+        if (colors != null) {
+            bufferIndex++;
+            builder.attribute(
+                    VertexAttribute.COLOR,
+                    bufferIndex,
+                    VertexBuffer.AttributeType.FLOAT4,
+                    0,
+                    COLOR_SIZE * BYTES_PER_FLOAT);
+        }
+        if (custom0 != null) {
+            bufferIndex++;
+            builder.attribute(
+                    VertexAttribute.CUSTOM0,
+                    bufferIndex,
+                    VertexBuffer.AttributeType.FLOAT4,
+                    0,
+                    CUSTOM0_SIZE * BYTES_PER_FLOAT);
+        }
+        return builder.build(engine);
+    }
+
+    IndexBuffer createIndexBuffer(Engine engine) {
+        return new IndexBuffer.Builder()
+                .indexCount(Math.max(1, indexCount))
+                .bufferType(IndexType.UINT)
+                .build(engine);
+    }
+
+    /**
+     * 上传到缓冲区，使用副本上传，不修改缓冲区的位置
+     */
+    void upload(Engine engine, VertexBuffer vertexBuffer, IndexBuffer indexBuffer) {
+        int bufferIndex = 0;
+        vertexBuffer.setBufferAt(engine, bufferIndex, positions.duplicate(),
+                0, vertexCount * POSITION_SIZE);
+        if (tangents != null) {
+            bufferIndex++;
+            vertexBuffer.setBufferAt(engine, bufferIndex, tangents.duplicate(),
+                    0, vertexCount * TANGENTS_SIZE);
+        }
+        if (uvs != null) {
+            bufferIndex++;
+            vertexBuffer.setBufferAt(engine, bufferIndex, uvs.duplicate(),
+                    0, vertexCount * UV_SIZE);
+        }
+        if (colors != null) {
+            bufferIndex++;
+            vertexBuffer.setBufferAt(engine, bufferIndex, colors.duplicate(),
+                    0, vertexCount * COLOR_SIZE);
+        }
+        if (custom0 != null) {
+            bufferIndex++;
+            vertexBuffer.setBufferAt(engine, bufferIndex, custom0.duplicate(),
+                    0, vertexCount * CUSTOM0_SIZE);
+        }
+        if (indexCount > 0) {
+            indexBuffer.setBuffer(engine, indices.duplicate(), 0, indexCount);
+        }
+    }
+
+    /**
+     * 计算切线(有法线时)与包围盒，顶点较多时分段并行
+     */
+    private float[] computeTangentsAndBounds(FloatStream positionStream, @Nullable FloatStream normalStream) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int partitionCount = 1;
+        if (vertexCount >= PARALLEL_VERTEX_COUNT && pool.getParallelism() > 1) {
+            partitionCount = Math.max(1, Math.min(pool.getParallelism() * 2, vertexCount / MIN_PARTITION_SIZE));
+        }
+
+        List<Partition> partitions = new ArrayList<>(partitionCount);
+        int step = (vertexCount + partitionCount - 1) / partitionCount;
+        for (int start = 0; start < vertexCount; start += step) {
+            partitions.add(new Partition(positionStream, normalStream, tangents,
+                    start, Math.min(vertexCount, start + step)));
+        }
+
+        if (partitions.size() == 1) {
+            partitions.get(0).call();
+        } else {
+            List<Future<Void>> futures = pool.invokeAll(partitions);
+            try {
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Packing geometry interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Packing geometry failed", e.getCause());
+            }
+        }
+
+        //合并各分段的包围盒
+        float[] bounds = partitions.get(0).bounds;
+        for (int i = 1; i < partitions.size(); i++) {
+            float[] other = partitions.get(i).bounds;
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[axis] = Math.min(bounds[axis], other[axis]);
+                bounds[axis + 3] = Math.max(bounds[axis + 3], other[axis + 3]);
+            }
+        }
+        return bounds;
+    }
+
+    private void checkLength(@Nullable FloatStream stream, int size, String name) {
+        if (stream != null && stream.length != vertexCount * size) {
+            throw new IllegalArgumentException(name + " must have " + size
+                    + " components for each of the " + vertexCount + " vertices.");
+        }
+    }
+
+    private static boolean isNativeDirect(FloatBuffer buffer) {
+        return buffer.isDirect() && buffer.order() == ByteOrder.nativeOrder();
+    }
+
+    private static boolean isNativeDirect(IntBuffer buffer) {
+        return buffer.isDirect() && buffer.order() == ByteOrder.nativeOrder();
+    }
+
+    static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(count * BYTES_PER_FLOAT)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    static IntBuffer allocateInts(int count) {
+        return ByteBuffer.allocateDirect(count * BYTES_PER_INT)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+    }
+
+    /**
+     * 一个顶点属性的输入，float[]或FloatBuffer
+     */
+    private static final class FloatStream {
+        @Nullable final float[] array;
+        @Nullable final FloatBuffer buffer;
+        final int length;
+
+        FloatStream(float[] array) {
+            this.array = array;
+            this.buffer = null;
+            this.length = array.length;
+        }
+
+        FloatStream(FloatBuffer buffer) {
+            this.array = null;
+            this.buffer = buffer.slice();
+            this.length = this.buffer.remaining();
+        }
+
+        /**
+         * 转为direct缓冲区，已是本机字节序的direct缓冲区时直接使用
+         */
+        FloatBuffer toDirect() {
+            if (buffer != null && isNativeDirect(buffer)) {
+                return buffer;
+            }
+            FloatBuffer direct = allocateFloats(length);
+            if (array != null) {
+                direct.put(array);
+            } else {
+                direct.put(buffer.duplicate());
+            }
+            direct.clear();
+            return direct;
+        }
+
+        /**
+         * 读取[start, start + count)区间的分量
+         * @return 分量所在的数组，数组为输入本身时分量从start开始，否则从0开始
+         */
+        float[] read(int start, int count, float[] scratch) {
+            if (array != null) {
+                return array;
+            }
+            FloatBuffer source = buffer.duplicate();
+            source.position(start);
+            source.get(scratch, 0, count);
+            return scratch;
+        }
+    }
+
+    /**
+     * 分段计算[start, end)区间内顶点的切线与包围盒，各分段只写入自己的区间
+     */
+    private static final class Partition implements Callable<Void> {
+        private final FloatStream positions;
+        @Nullable private final FloatStream normals;
+        @Nullable private final FloatBuffer tangents;
+        private final int start;
+        private final int end;
+        final float[] bounds = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+
+        Partition(FloatStream positions, @Nullable FloatStream normals,
+                  @Nullable FloatBuffer tangents, int start, int end) {
+            this.positions = positions;
+            this.normals = normals;
+            this.tangents = tangents;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Void call() {
+            float[] scratchPositions = positions.array == null ? new float[BLOCK_SIZE * POSITION_SIZE] : null;
+            float[] scratchNormals = null;
+            float[] scratchTangents = null;
+            FloatBuffer tangentOutput = null;
+            if (normals != null) {
+                scratchNormals = normals.array == null ? new float[BLOCK_SIZE * NORMAL_SIZE] : null;
+                scratchTangents = new float[BLOCK_SIZE * TANGENTS_SIZE];
+                tangentOutput = tangents.duplicate();
+                tangentOutput.position(start * TANGENTS_SIZE);
+            }
+
+            for (int block = start; block < end; block += BLOCK_SIZE) {
+                int count = Math.min(BLOCK_SIZE, end - block);
+
+                float[] p = positions.read(block * POSITION_SIZE, count * POSITION_SIZE, scratchPositions);
+                MathKernel.vec3Bounds(p, p == scratchPositions ? 0 : block * POSITION_SIZE, count, bounds, 0);
+
+                if (normals != null) {
+                    float[] n = normals.read(block * NORMAL_SIZE, count * NORMAL_SIZE, scratchNormals);
+                    MathKernel.normalsToTangents(
+                            n, n == scratchNormals ? 0 : block * NORMAL_SIZE, scratchTangents, 0, count);
+                    tangentOutput.put(scratchTangents, 0, count * TANGENTS_SIZE);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 子几何在索引缓冲区中的区间，作为只读的索引列表
+     */
+    private static final class IndexRange extends AbstractList<Integer> {
+        private final IntBuffer indices;
+        private final int start;
+        private final int size;
+
+        IndexRange(IntBuffer indices, int start, int size) {
+            this.indices = indices;
+            this.start = start;
+            this.size = size;
+        }
+
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return indices.get(start + index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /** Factory class for {@link PreparedGeometry}. */
+    public static final class Builder {
+        @Nullable private FloatStream positions;
+        @Nullable private FloatStream normals;
+        @Nullable private FloatStream uvs;
+        @Nullable private FloatStream colors;
+        @Nullable private FloatStream custom0;
+        @Nullable private int[] indexArray;
+        @Nullable private IntBuffer indexBuffer;
+        private RenderableManager.PrimitiveType primitiveType =
+                RenderableManager.PrimitiveType.TRIANGLES;
+
+        /**
+         * 设置顶点位置
+         * @param positions xyz连续存放，长度决定顶点数
+         */
+        public Builder setPositions(float[] positions) {
+            this.positions = new FloatStream(Preconditions.checkNotNull(positions));
+            return this;
+        }
+
+        /**
+         * 设置顶点位置
+         * <p>使用position到limit之间的数据；本机字节序的direct缓冲区不复制，构建后不能再修改</p>
+         */
+        public Builder setPositions(FloatBuffer positions) {
+            this.positions = new FloatStream(Preconditions.checkNotNull(positions));
+            return this;
+        }
+
+        /**
+         * 设置法线，构建时转为切线
+         * @param normals xyz连续存放，null表示不使用
+         */
+        public Builder setNormals(@Nullable float[] normals) {
+            this.normals = normals != null ? new FloatStream(normals) : null;
+            return this;
+        }
+
+        /**
+         * 设置法线，构建时转为切线，缓冲区只读取不保留
+         */
+        public Builder setNormals(@Nullable FloatBuffer normals) {
+            this.normals = normals != null ? new FloatStream(normals) : null;
+            return this;
+        }
+
+        /**
+         * 设置纹理坐标
+         * @param uvs uv连续存放，null表示不使用
+         */
+        public Builder setUvs(@Nullable float[] uvs) {
+            this.uvs = uvs != null ? new FloatStream(uvs) : null;
+            return this;
+        }
+
+        public Builder setUvs(@Nullable FloatBuffer uvs) {
+            this.uvs = uvs != null ? new FloatStream(uvs) : null;
+            return this;
+        }
+
+        /**
+         * 设置顶点颜色
+         * @param colors rgba连续存放，null表示不使用
+         */
+        public Builder setColors(@Nullable float[] colors) {
+            this.colors = colors != null ? new FloatStream(colors) : null;
+            return this;
+        }
+
+        public Builder setColors(@Nullable FloatBuffer colors) {
+            this.colors = colors != null ? new FloatStream(colors) : null;
+            return this;
+        }
+
+        /**
+         * 设置CUSTOM0属性
+         * @param custom0 每个顶点4个分量，null表示不使用
+         */
+        public Builder setCustom0(@Nullable float[] custom0) {
+            this.custom0 = custom0 != null ? new FloatStream(custom0) : null;
+            return this;
+        }
+
+        public Builder setCustom0(@Nullable FloatBuffer custom0) {
+            this.custom0 = custom0 != null ? new FloatStream(custom0) : null;
+            return this;
+        }
+
+        /**
+         * 由顶点对象设置位置、法线、UV、颜色与CUSTOM0
+         * <p>与{@link RenderableDefinition}相同，由第一个顶点决定使用的属性，其余顶点需具有相同的属性</p>
+         */
+        public Builder setVertices(List<Vertex> vertices) {
+            if (vertices.isEmpty()) {
+                throw new IllegalArgumentException("RenderableDescription must have at least one vertex.");
+            }
+            int count = vertices.size();
+            Vertex first = vertices.get(0);
+            float[] positionArray = new float[count * POSITION_SIZE];
+            float[] normalArray = first.getNormal() != null ? new float[count * NORMAL_SIZE] : null;
+            float[] uvArray = first.getUvCoordinate() != null ? new float[count * UV_SIZE] : null;
+            float[] colorArray = first.getColor() != null ? new float[count * COLOR_SIZE] : null;
+            float[] custom0Array = first.getCustom0() != null ? new float[count * CUSTOM0_SIZE] : null;
+            for (int i = 0; i < count; i++) {
+                Vertex vertex = vertices.get(i);
+                Vector3 position = vertex.getPosition();
+                positionArray[i * POSITION_SIZE] = position.x;
+                positionArray[i * POSITION_SIZE + 1] = position.y;
+                positionArray[i * POSITION_SIZE + 2] = position.z;
+                if (normalArray != null) {
+                    Vector3 normal = requireAttribute(vertex.getNormal(), "normal");
+                    normalArray[i * NORMAL_SIZE] = normal.x;
+                    normalArray[i * NORMAL_SIZE + 1] = normal.y;
+                    normalArray[i * NORMAL_SIZE + 2] = normal.z;
+                }
+                if (uvArray != null) {
+                    Vertex.UvCoordinate uv = requireAttribute(vertex.getUvCoordinate(), "UV Coordinate");
+                    uvArray[i * UV_SIZE] = uv.x;
+                    uvArray[i * UV_SIZE + 1] = uv.y;
+                }
+                if (colorArray != null) {
+                    Color color = requireAttribute(vertex.getColor(), "Color");
+                    colorArray[i * COLOR_SIZE] = color.r;
+                    colorArray[i * COLOR_SIZE + 1] = color.g;
+                    colorArray[i * COLOR_SIZE + 2] = color.b;
+                    colorArray[i * COLOR_SIZE + 3] = color.a;
+                }
+                if (custom0Array != null) {
+                    Vertex.Float4 custom0 = requireAttribute(vertex.getCustom0(), "CUSTOM0");
+                    custom0Array[i * CUSTOM0_SIZE] = custom0.x;
+                    custom0Array[i * CUSTOM0_SIZE + 1] = custom0.y;
+                    custom0Array[i * CUSTOM0_SIZE + 2] = custom0.z;
+                    custom0Array[i * CUSTOM0_SIZE + 3] = custom0.w;
+                }
+            }
+            return setPositions(positionArray)
+                    .setNormals(normalArray)
+                    .setUvs(uvArray)
+                    .setColors(colorArray)
+                    .setCustom0(custom0Array);
+        }
+
+        private static <T> T requireAttribute(@Nullable T value, String name) {
+            if (value == null) {
+                throw new IllegalArgumentException(
+                        "Missing " + name + ": all vertices must have the same attributes as the first Vertex.");
+            }
+            return value;
+        }
+
+        /**
+         * 设置索引，未设置时按顶点顺序绘制
+         */
+        public Builder setIndices(@Nullable int[] indices) {
+            this.indexArray = indices;
+            this.indexBuffer = null;
+            return this;
+        }
+
+        /**
+         * 设置索引，使用position到limit之间的数据；本机字节序的direct缓冲区不复制，构建后不能再修改
+         */
+        public Builder setIndices(@Nullable IntBuffer indices) {
+            this.indexArray = null;
+            this.indexBuffer = indices != null ? indices.slice() : null;
+            return this;
+        }
+
+        /**
+         * 设置图元类型，默认值为 {@link RenderableManager.PrimitiveType#TRIANGLES}
+         */
+        public Builder setPrimitiveType(RenderableManager.PrimitiveType primitiveType) {
+            this.primitiveType = Preconditions.checkNotNull(primitiveType);
+            return this;
+        }
+
+        /**
+         * 在当前线程打包顶点数据并计算切线与包围盒
+         */
+        public PreparedGeometry build() {
+            return new PreparedGeometry(this);
+        }
+
+        /**
+         * 在资源加载线程池中构建
+         * @see ThreadPools#getThreadPoolExecutor()
+         */
+        public CompletableFuture<PreparedGeometry> buildAsync() {
+            return buildAsync(ThreadPools.getThreadPoolExecutor());
+        }
+
+        /**
+         * 在指定的Executor中构建，构建期间不能再修改输入的数组或缓冲区
+         */
+        public CompletableFuture<PreparedGeometry> buildAsync(Executor executor) {
+            return CompletableFuture.supplyAsync(this::build, executor);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.google.sceneform.rendering;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.CancellationSignal;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
@@ -11,6 +12,7 @@ import com.google.sceneform.collision.Box;
 import com.google.sceneform.collision.CollisionShape;
 import com.google.sceneform.common.TransformProvider;
 import com.google.sceneform.math.Matrix;
+import com.google.sceneform.resources.ResourceCache;
 import com.google.sceneform.resources.ResourceRegistry;
 import com.google.sceneform.utilities.AndroidPreconditions;
 import com.google.sceneform.utilities.ChangeId;
@@ -25,6 +27,7 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 /**
@@ -35,6 +38,7 @@ public abstract class Renderable {
     // Renderable之间共享的数据，这是由于scenefrom中常用的copy机制，虽可共享数据，但不恰当的调用，容易导致内存泄漏
     private final IRenderableInternalData renderableData;
     private final SharedRenderableData sharedRenderableData;
+    private DataReference dataReference;
 
     protected boolean asyncLoadEnabled;
 
@@ -52,6 +56,8 @@ public abstract class Renderable {
     protected CollisionShape collisionShape;
 
     private final ChangeId changeId = new ChangeId();
+    //getFinalModelMatrix除原始矩阵外所依赖的状态，变化时实例重新上传模型矩阵
+    private final ChangeId finalModelMatrixChangeId = new ChangeId();
 
     public static final int RENDER_PRIORITY_DEFAULT = 4;
     public static final int RENDER_PRIORITY_FIRST = 0;
@@ -76,10 +82,14 @@ public abstract class Renderable {
                 data = new RenderableInternalPlyData();
                 break;
             case PLY_3DGS:
-                data = new RenderableInternalGS3dData();
+                RenderableInternalGS3dData gs3dData = new RenderableInternalGS3dData();
+                gs3dData.setSortWorkerCount(builder.sortWorkerCount);
+                data = gs3dData;
                 break;
             case PLY_SPLAT:
-                data = new RenderableInternalSplatData();
+                RenderableInternalSplatData splatData = new RenderableInternalSplatData();
+                splatData.setSortWorkerCount(builder.sortWorkerCount);
+                data = splatData;
                 break;
             case DEFAULT_INTERNAL:
             default:
@@ -135,9 +145,36 @@ public abstract class Renderable {
     }
 
     private void registerRenderableCleanup() {
+        dataReference = new DataReference(sharedRenderableData);
         ResourceManager.getInstance()
                 .getRenderableCleanupRegistry()
-                .register(this, sharedRenderableData::release);
+                .register(this, dataReference::release);
+    }
+
+    /**
+     * 立即释放本对象对底层数据的引用，之后本对象不可再使用
+     * <p>用于模型缓存淘汰其持有的副本；被回收时不会重复释放</p>
+     */
+    void releaseData() {
+        dataReference.release();
+    }
+
+    /**
+     * 单个 Renderable 包装对象持有的引用，保证只释放一次
+     */
+    private static final class DataReference {
+        private final SharedRenderableData sharedRenderableData;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        DataReference(SharedRenderableData sharedRenderableData) {
+            this.sharedRenderableData = sharedRenderableData;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                sharedRenderableData.release();
+            }
+        }
     }
 
     /**
@@ -401,6 +438,19 @@ public abstract class Renderable {
         return originalMatrix;
     }
 
+    /**
+     * 标记{@link #getFinalModelMatrix}的结果在原始矩阵不变时发生了变化(如视图尺寸变化)
+     * <p>重写{@link #getFinalModelMatrix}的子类需在其依赖的状态变化时调用，所有实例下一帧重新上传模型矩阵</p>
+     * @hide
+     */
+    protected final void markFinalModelMatrixChanged() {
+        finalModelMatrixChangeId.update();
+    }
+
+    int getFinalModelMatrixVersion() {
+        return finalModelMatrixChangeId.get();
+    }
+
     private IllegalArgumentException makeSubGeometryOutOfRangeException(int subGeometryIndex) {
         return new IllegalArgumentException(
                 "subGeometryIndex ("
@@ -419,10 +469,37 @@ public abstract class Renderable {
         && ((RenderableInternalFilamentAssetData)renderableData).decrementAndGet() == 1){
             ResourceRegistry<ModelRenderable> registry = ResourceManager.getInstance().getModelRenderableRegistry();
             registry.remove(registryId);
+            ResourceManager.getInstance().getRenderableCache().remove(registryId);
             renderableData.dispose();
         }
     }
 
+    /**
+     * 获取模型数据占用的字节数(估算)，用于模型缓存的容量统计
+     * @return 未知时返回0
+     */
+    long getSizeInBytes() {
+        return getSizeInBytes(renderableData);
+    }
+
+    private static long getSizeInBytes(IRenderableInternalData renderableData) {
+        if (renderableData instanceof RenderableInternalFilamentAssetData) {
+            return ((RenderableInternalFilamentAssetData) renderableData).getSizeInBytes();
+        }
+        if (renderableData instanceof LoadRenderableFromUniversalDataTask.IUniversalData) {
+            return ((LoadRenderableFromUniversalDataTask.IUniversalData) renderableData).getSizeInBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * 是否可放入模型缓存
+     * <p>流式数据(PLY点云、高斯点云)在实例之间共享可变的排序、LOD状态，不缓存</p>
+     */
+    boolean isCacheable() {
+        return !(renderableData instanceof LoadRenderableFromUniversalDataTask.IStreamingData);
+    }
+
     /**
      * 用于以编程方式构造{@link Renderable}。生成器数据是存储的，而不是复制的。在构建调用之前或之间修改数据时要小心。
      */
@@ -444,7 +521,7 @@ public abstract class Renderable {
         @Nullable
         private Callable<InputStream> inputStreamCreator = null;
         @Nullable
-        private RenderableDefinition definition = null;
+        private IRenderableDefinition definition = null;
 //        private boolean isGltf = false;
 //        private boolean isFilamentAsset = false;
         private RenderableDataFormat dataFormat = RenderableDataFormat.DEFAULT_INTERNAL;
@@ -458,6 +535,12 @@ public abstract class Renderable {
 
         private int animationFrameRate = DEFAULT_ANIMATION_FRAME_RATE;
 
+        private int sortWorkerCount = 1;
+
+        private LoaderExecutor.Priority loadPriority = LoaderExecutor.Priority.FOREGROUND;
+        @Nullable
+        private CancellationSignal cancellationSignal = null;
+
         /**
          * 构造函数
          */
@@ -502,6 +585,16 @@ public abstract class Renderable {
             return getSelf();
         }
 
+        /**
+         * 设置自定义渲染对象，如{@link RenderableDefinitionDynamic}
+         */
+        public B setSource(IRenderableDefinition definition) {
+            this.definition = definition;
+            registryId = null;
+            sourceUri = null;
+            return getSelf();
+        }
+
         public B setRegistryId(@Nullable Object registryId) {
             this.registryId = registryId;
             return getSelf();
@@ -550,6 +643,41 @@ public abstract class Renderable {
             return getSelf();
         }
 
+        /**
+         * 设置高斯点云排序的线程数
+         * <p>仅对{@link RenderableDataFormat#PLY_3DGS}、{@link RenderableDataFormat#PLY_SPLAT}生效，默认为1</p>
+         * @param workerCount 线程数，建议不超过CPU核数
+         */
+        public B setSortWorkerCount(int workerCount) {
+            if (workerCount < 1) {
+                throw new IllegalArgumentException("workerCount must be >= 1");
+            }
+            this.sortWorkerCount = workerCount;
+            return getSelf();
+        }
+
+        /**
+         * 设置加载优先级
+         * <p>默认为{@link LoaderExecutor.Priority#FOREGROUND}，预加载的模型可设为{@link LoaderExecutor.Priority#PREFETCH}</p>
+         */
+        public B setLoadPriority(LoaderExecutor.Priority priority) {
+            this.loadPriority = Preconditions.checkNotNull(priority);
+            return getSelf();
+        }
+
+        /**
+         * 设置取消信号
+         * <p>
+         *     取消后，尚未开始的加载任务不再读取数据，返回的future以异常结束。
+         *     可传入{@link com.google.sceneform.Node#getLoadCancellationSignal()}，节点移出场景时自动取消。
+         * </p>
+         * <p>可取消的加载不与相同registryId的其他加载共享</p>
+         */
+        public B setCancellationSignal(@Nullable CancellationSignal cancellationSignal) {
+            this.cancellationSignal = cancellationSignal;
+            return getSelf();
+        }
+
         /**
          * 判断是否已传入资源
          * @hide
@@ -578,6 +706,12 @@ public abstract class Renderable {
             // 先检查
             Object registryId = this.registryId;
             if (registryId != null) {
+                // 内存缓存中的模型在没有实例时仍然保留，重复加载时无需重新读取与解析
+                Renderable cached = ResourceManager.getInstance().getRenderableCache().get(registryId);
+                if (getRenderableClass().isInstance(cached)) {
+                    return CompletableFuture.completedFuture(
+                            getRenderableClass().cast(cached.makeCopy()));
+                }
                 // See if a renderable has already been registered by this id, if so re-use it.
                 ResourceRegistry<T> registry = getRenderableRegistry();
                 CompletableFuture<T> renderableFuture = registry.get(registryId);
@@ -642,10 +776,15 @@ public abstract class Renderable {
 //                throw new IllegalArgumentException();
 //            }
 
-            if (registryId != null) {
+            // 可取消的加载若被取消，等待同一future的其他请求也会失败，故不注册
+            if (registryId != null && cancellationSignal == null) {
                 ResourceRegistry<T> registry = getRenderableRegistry();
                 registry.register(registryId, result);
             }
+            if (registryId != null) {
+                Object cacheId = registryId;
+                result.thenAccept(loaded -> putInCache(cacheId, loaded));
+            }
 
             FutureHelper.logOnException(
                     getRenderableClass().getSimpleName(),
@@ -655,6 +794,27 @@ public abstract class Renderable {
                     resultRenderable -> getRenderableClass().cast(resultRenderable.makeCopy()));
         }
 
+        /**
+         * 以一个副本放入模型缓存，淘汰时由缓存释放该副本
+         */
+        private void putInCache(Object cacheId, Renderable loaded) {
+            if (!loaded.isCacheable()) {
+                return;
+            }
+            ResourceCache<Renderable> cache = ResourceManager.getInstance().getRenderableCache();
+            Renderable cached = loaded.makeCopy();
+            if (!cache.put(cacheId, cached, cached.getSizeInBytes())) {
+                cached.releaseData();
+                return;
+            }
+            //外部buffer与纹理在实例创建时才读取，读取后更新缓存大小；只捕获数据，不持有Renderable
+            IRenderableInternalData data = cached.renderableData;
+            if (data instanceof RenderableInternalFilamentAssetData) {
+                ((RenderableInternalFilamentAssetData) data).setResourcesLoadedListener(
+                        () -> cache.resize(cacheId, getSizeInBytes(data)));
+            }
+        }
+
         protected void checkPreconditions() {
             AndroidPreconditions.checkUiThread();
 
@@ -697,18 +857,25 @@ public abstract class Renderable {
             LoadRenderableFromFilamentGltfTask<T> loader =
                     new LoadRenderableFromFilamentGltfTask<>(
                             renderable, context, Preconditions.checkNotNull(sourceUri), uriResolver);
-            return loader.downloadAndProcessRenderable(Preconditions.checkNotNull(inputStreamCreator));
+            return loader.downloadAndProcessRenderable(
+                    Preconditions.checkNotNull(inputStreamCreator),
+                    ThreadPools.getThreadPoolExecutor(loadPriority),
+                    cancellationSignal);
         }
         private CompletableFuture<T> loadRenderableFromUniversalData(
                 @NonNull Context context, T renderable) {
             LoadRenderableFromUniversalDataTask<T> loader =
                     new LoadRenderableFromUniversalDataTask<>(
                             renderable, context, Preconditions.checkNotNull(sourceUri), uriResolver);
-            return loader.downloadAndProcessRenderable(Preconditions.checkNotNull(inputStreamCreator));
+            return loader.downloadAndProcessRenderable(
+                    Preconditions.checkNotNull(inputStreamCreator),
+                    ThreadPools.getThreadPoolExecutor(loadPriority),
+                    cancellationSignal);
         }
 
         private void setCachingEnabled(Context context) {
-            return;
+            //远程模型的原始数据缓存在磁盘(HttpResponseCache)，解析后的模型缓存在内存(ResourceCache)
+            LoadHelper.enableCaching(context);
         }
 
         protected abstract T makeRenderable();
@@ -730,6 +897,9 @@ public abstract class Renderable {
          */
         PLY,
         PLY_3DGS,
+        /**
+         * 高斯点按四边形渲染，需在res/raw中打包sceneform_gaussian_splat_quad材质，否则创建时抛出异常
+         */
         PLY_SPLAT,
         /**
          * 使用RenderableDefinition渲染
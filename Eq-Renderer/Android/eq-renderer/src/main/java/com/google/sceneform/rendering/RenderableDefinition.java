@@ -2,9 +2,7 @@ package com.google.sceneform.rendering;
 
 import androidx.annotation.Nullable;
 
-import com.google.sceneform.math.MathHelper;
-import com.google.sceneform.math.Matrix;
-import com.google.sceneform.math.Quaternion;
+import com.google.sceneform.math.MathKernel;
 import com.google.sceneform.math.Vector3;
 import com.google.sceneform.utilities.AndroidPreconditions;
 import com.google.sceneform.utilities.Preconditions;
@@ -25,13 +23,12 @@ import java.util.List;
  * <p>
  *     可以用来动态地构造和修改可渲染对象。
  * </p>
+ * <p>顶点数据较多时，可使用不创建{@link Vertex}对象的{@link RenderableDefinitionPacked}</p>
  *
  * @see ModelRenderable.Builder
  * @see ViewRenderable.Builder
  */
 public class RenderableDefinition implements IRenderableDefinition{
-  private static final Matrix scratchMatrix = new Matrix();
-
   /**
    * 旧版子网格数据类型。
    *
@@ -430,6 +427,10 @@ public class RenderableDefinition implements IRenderableDefinition{
     minAabb.set(firstPosition);
     maxAabb.set(firstPosition);
 
+    // 计算切线时复用，不使用共享的静态变量
+    float[] scratchNormal = new float[MathKernel.VEC3_SIZE];
+    float[] scratchTangent = new float[MathKernel.QUAT_SIZE];
+
     // 更新原始缓冲区并在一次遍历顶点时计算Aabb。
     for (int i = 0; i < vertices.size(); i++) {
       Vertex vertex = vertices.get(i);
@@ -451,8 +452,11 @@ public class RenderableDefinition implements IRenderableDefinition{
                   + "RenderableDescription has a normal, all vertices must have one.");
         }
 
-        Quaternion tangent = normalToTangent(normal);
-        addQuaternionToBuffer(tangent, tangentsBuffer);
+        scratchNormal[0] = normal.x;
+        scratchNormal[1] = normal.y;
+        scratchNormal[2] = normal.z;
+        MathKernel.normalToTangent(scratchNormal, 0, scratchTangent, 0);
+        tangentsBuffer.put(scratchTangent);
       }
 
       // Uv
@@ -620,13 +624,6 @@ public class RenderableDefinition implements IRenderableDefinition{
     buffer.put(uvCoordinate.y);
   }
 
-  private static void addQuaternionToBuffer(Quaternion quaternion, FloatBuffer buffer) {
-    buffer.put(quaternion.x);
-    buffer.put(quaternion.y);
-    buffer.put(quaternion.z);
-    buffer.put(quaternion.w);
-  }
-
   private static void addColorToBuffer(Color color, FloatBuffer buffer) {
     buffer.put(color.r);
     buffer.put(color.g);
@@ -641,43 +638,6 @@ public class RenderableDefinition implements IRenderableDefinition{
     buffer.put(value.w);
   }
 
-  private static Quaternion normalToTangent(Vector3 normal) {
-    Vector3 tangent;
-    Vector3 bitangent;
-
-    // 计算 basis vectors (+x = tangent, +y = bitangent, +z = normal).
-    tangent = Vector3.cross(Vector3.up(), normal);
-
-    // 使用almostEqualRelativeAndAbs进行相等性检查，以解释浮点数的不准确性。
-    if (MathHelper.almostEqualRelativeAndAbs(Vector3.dot(tangent, tangent), 0.0f)) {
-      bitangent = Vector3.cross(normal, Vector3.right()).normalized();
-      tangent = Vector3.cross(bitangent, normal).normalized();
-    } else {
-      tangent.set(tangent.normalized());
-      bitangent = Vector3.cross(normal, tangent).normalized();
-    }
-
-    // 一个4x4变换矩阵的旋转由左上角的3x3元素表示。
-    final int rowOne = 0;
-    scratchMatrix.data[rowOne] = tangent.x;
-    scratchMatrix.data[rowOne + 1] = tangent.y;
-    scratchMatrix.data[rowOne + 2] = tangent.z;
-
-    final int rowTwo = 4;
-    scratchMatrix.data[rowTwo] = bitangent.x;
-    scratchMatrix.data[rowTwo + 1] = bitangent.y;
-    scratchMatrix.data[rowTwo + 2] = bitangent.z;
-
-    final int rowThree = 8;
-    scratchMatrix.data[rowThree] = normal.x;
-    scratchMatrix.data[rowThree + 1] = normal.y;
-    scratchMatrix.data[rowThree + 2] = normal.z;
-
-    Quaternion orientationQuaternion = new Quaternion();
-    scratchMatrix.extractQuaternion(orientationQuaternion);
-    return orientationQuaternion;
-  }
-
   /** Factory class for {@link RenderableDefinition}. */
   public static final class Builder {
     @Nullable private List<Vertex> vertices;
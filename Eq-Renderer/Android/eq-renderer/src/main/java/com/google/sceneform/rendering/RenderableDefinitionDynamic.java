@@ -0,0 +1,535 @@
+package com.google.sceneform.rendering;
+
+import com.google.android.filament.Engine;
+import com.google.android.filament.IndexBuffer;
+import com.google.android.filament.IndexBuffer.Builder.IndexType;
+import com.google.android.filament.VertexBuffer;
+import com.google.android.filament.VertexBuffer.VertexAttribute;
+import com.google.sceneform.math.MathKernel;
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.utilities.AndroidPreconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 可增量更新的自定义渲染对象
+ * <p>
+ *     顶点(位置、切线、UV)与索引直接写入预留容量的direct缓冲区，顶点布局与{@link RenderableDefinition}相同。
+ *     应用定义时只上传标记为已修改的区间，容量不足时按比例扩容并整体上传。
+ * </p>
+ * <p>写入方法不是线程安全的，写入与应用定义需在同一线程中进行；一个实例只用于一个渲染对象</p>
+ */
+public class RenderableDefinitionDynamic implements IRenderableDefinition {
+    static final int POSITION_SIZE = 3; // x, y, z
+    static final int TANGENTS_SIZE = 4; // quaternion
+    static final int UV_SIZE = 2;
+    private static final int BYTES_PER_FLOAT = Float.SIZE / 8;
+    private static final int BYTES_PER_INT = Integer.SIZE / 8;
+    //扩容比例
+    private static final float GROWTH_FACTOR = 1.5f;
+
+    private List<Vertex> vertices = Collections.emptyList();
+    private List<RenderableDefinition.SubGeometry> subGeometries = new ArrayList<>();
+
+    private FloatBuffer positions;
+    private FloatBuffer tangents;
+    private FloatBuffer uvs;
+    private IntBuffer indices;
+    private int vertexCount;
+    private int indexCount;
+
+    //已修改的区间[start, end)，合并后可能重叠，重叠部分重复上传不影响结果
+    private final DirtyRanges dirtyVertices = new DirtyRanges();
+    private final DirtyRanges dirtyIndices = new DirtyRanges();
+    //缓冲区重新分配后需整体上传
+    private boolean reallocated = true;
+
+    //当前定义创建的Filament缓冲区，用于判断渲染数据中的缓冲区是否仍可复用
+    private VertexBuffer vertexBuffer;
+    private IndexBuffer indexBuffer;
+
+    //AABB包围盒
+    private float minX;
+    private float minY;
+    private float minZ;
+    private float maxX;
+    private float maxY;
+    private float maxZ;
+    //包围盒已包含的顶点为[0, boundsVertexCount)
+    private int boundsVertexCount;
+    //覆盖或移除了位于包围盒边界上的顶点，应用定义时按[0, vertexCount)重新计算
+    private boolean boundsStale;
+
+    //计算切线时复用
+    private final float[] scratchNormal = new float[MathKernel.VEC3_SIZE];
+    private final float[] scratchTangent = new float[MathKernel.QUAT_SIZE];
+
+    /**
+     * 构造函数
+     * @param vertexCapacity 初始顶点容量
+     * @param indexCapacity 初始索引容量
+     */
+    public RenderableDefinitionDynamic(int vertexCapacity, int indexCapacity) {
+        positions = allocateFloats(Math.max(1, vertexCapacity) * POSITION_SIZE);
+        tangents = allocateFloats(Math.max(1, vertexCapacity) * TANGENTS_SIZE);
+        uvs = allocateFloats(Math.max(1, vertexCapacity) * UV_SIZE);
+        indices = allocateInts(Math.max(1, indexCapacity));
+        resetBounds();
+    }
+
+    /**
+     * 替换全部顶点，按{@link #putVertex}写入缓冲区，索引不变
+     * <p>未设置法线时使用(0, 0, 1)，未设置UV时使用(0, 0)，颜色与CUSTOM0不使用</p>
+     */
+    @Override
+    public void setVertices(List<Vertex> vertices) {
+        setVertexCount(vertices.size());
+        resetBounds();
+        for (int i = 0; i < vertices.size(); i++) {
+            Vertex vertex = vertices.get(i);
+            Vector3 position = vertex.getPosition();
+            Vector3 normal = vertex.getNormal();
+            Vertex.UvCoordinate uv = vertex.getUvCoordinate();
+            putVertex(i, position.x, position.y, position.z,
+                    normal != null ? normal.x : 0f,
+                    normal != null ? normal.y : 0f,
+                    normal != null ? normal.z : 1f,
+                    uv != null ? uv.x : 0f,
+                    uv != null ? uv.y : 0f);
+        }
+        this.vertices = vertices;
+    }
+
+    /** @return 最近一次{@link #setVertices}设置的顶点，之后通过{@link #putVertex}的写入不会反映在列表中 */
+    @Override
+    public List<Vertex> getVertices() {
+        return vertices;
+    }
+
+    @Override
+    public List<RenderableDefinition.SubGeometry> getSubGeometries() {
+        return subGeometries;
+    }
+
+    /**
+     * 设置子几何，只使用其材质与名称，索引由{@link #putTriangle}写入
+     */
+    @Override
+    public void setSubGeometries(List<RenderableDefinition.SubGeometry> subGeometries) {
+        this.subGeometries = subGeometries;
+    }
+
+    /** @return 顶点数量 */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /** @return 索引数量 */
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    /** @return 当前顶点容量 */
+    public int getVertexCapacity() {
+        return positions.capacity() / POSITION_SIZE;
+    }
+
+    /** @return 当前索引容量 */
+    public int getIndexCapacity() {
+        return indices.capacity();
+    }
+
+    /**
+     * 获取包围盒，覆盖或移除过边界上的顶点时先重新计算
+     * @return minX, minY, minZ, maxX, maxY, maxZ
+     */
+    public float[] getAabb() {
+        if (boundsStale) {
+            recomputeBounds();
+        }
+        return new float[]{minX, minY, minZ, maxX, maxY, maxZ};
+    }
+
+    /**
+     * 设置顶点数量，超出容量时扩容
+     * <p>新增的顶点需通过{@link #putVertex}写入</p>
+     */
+    public void setVertexCount(int vertexCount) {
+        ensureVertexCapacity(vertexCount);
+        if (vertexCount < boundsVertexCount) {
+            boundsVertexCount = vertexCount;
+            boundsStale = true;
+        }
+        this.vertexCount = vertexCount;
+    }
+
+    /**
+     * 设置索引数量，超出容量时扩容
+     * <p>新增的索引需通过{@link #putTriangle}写入</p>
+     */
+    public void setIndexCount(int indexCount) {
+        ensureIndexCapacity(indexCount);
+        this.indexCount = indexCount;
+    }
+
+    /**
+     * 清空顶点与索引，保留已分配的容量
+     */
+    public void clear() {
+        vertexCount = 0;
+        indexCount = 0;
+        dirtyVertices.clear();
+        dirtyIndices.clear();
+        resetBounds();
+    }
+
+    /**
+     * 写入顶点，切线由法线计算(与{@link RenderableDefinition}相同)，并扩展包围盒
+     * <p>覆盖位于包围盒边界上的已写入顶点时，包围盒在应用定义时重新计算</p>
+     * @param index 顶点序号，需小于{@link #getVertexCount()}
+     */
+    public void putVertex(int index, float px, float py, float pz,
+                          float nx, float ny, float nz, float u, float v) {
+        int p = index * POSITION_SIZE;
+        if (index < boundsVertexCount && !boundsStale) {
+            boundsStale = isOnBounds(positions.get(p), positions.get(p + 1), positions.get(p + 2));
+        }
+        positions.put(p, px);
+        positions.put(p + 1, py);
+        positions.put(p + 2, pz);
+
+        scratchNormal[0] = nx;
+        scratchNormal[1] = ny;
+        scratchNormal[2] = nz;
+        MathKernel.normalToTangent(scratchNormal, 0, scratchTangent, 0);
+        int t = index * TANGENTS_SIZE;
+        tangents.put(t, scratchTangent[0]);
+        tangents.put(t + 1, scratchTangent[1]);
+        tangents.put(t + 2, scratchTangent[2]);
+        tangents.put(t + 3, scratchTangent[3]);
+
+        int uv = index * UV_SIZE;
+        uvs.put(uv, u);
+        uvs.put(uv + 1, v);
+
+        minX = Math.min(minX, px);
+        minY = Math.min(minY, py);
+        minZ = Math.min(minZ, pz);
+        maxX = Math.max(maxX, px);
+        maxY = Math.max(maxY, py);
+        maxZ = Math.max(maxZ, pz);
+        boundsVertexCount = Math.max(boundsVertexCount, index + 1);
+        dirtyVertices.add(index, index + 1);
+    }
+
+    /**
+     * 读取已写入的顶点
+     * @param index 顶点序号，需小于{@link #getVertexCount()}
+     * @param out 依次写入位置xyz、切线四元数xyzw、uv，长度至少为9
+     */
+    public void getVertex(int index, float[] out) {
+        for (int i = 0; i < POSITION_SIZE; i++) {
+            out[i] = positions.get(index * POSITION_SIZE + i);
+        }
+        for (int i = 0; i < TANGENTS_SIZE; i++) {
+            out[POSITION_SIZE + i] = tangents.get(index * TANGENTS_SIZE + i);
+        }
+        for (int i = 0; i < UV_SIZE; i++) {
+            out[POSITION_SIZE + TANGENTS_SIZE + i] = uvs.get(index * UV_SIZE + i);
+        }
+    }
+
+    /**
+     * 写入一个三角形的索引
+     * @param index 第一个索引的序号，需小于{@link #getIndexCount()}
+     */
+    public void putTriangle(int index, int a, int b, int c) {
+        indices.put(index, a);
+        indices.put(index + 1, b);
+        indices.put(index + 2, c);
+        dirtyIndices.add(index, index + 3);
+    }
+
+    /**
+     * 重置包围盒，之后写入的顶点重新计算
+     * <p>覆盖或移除顶点后包围盒会自动重新计算，通常无需重置</p>
+     */
+    public void resetBounds() {
+        boundsVertexCount = 0;
+        boundsStale = false;
+        minX = Float.POSITIVE_INFINITY;
+        minY = Float.POSITIVE_INFINITY;
+        minZ = Float.POSITIVE_INFINITY;
+        maxX = Float.NEGATIVE_INFINITY;
+        maxY = Float.NEGATIVE_INFINITY;
+        maxZ = Float.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public void applyDefinitionToData(
+            IRenderableInternalData data,
+            ArrayList<Material> materialBindings,
+            ArrayList<String> materialNames) {
+        AndroidPreconditions.checkUiThread();
+        if (vertexCount == 0) {
+            throw new IllegalArgumentException("RenderableDescription must have at least one vertex.");
+        }
+
+        IEngine engine = EngineInstance.getEngine();
+        Engine filamentEngine = engine.getFilamentEngine();
+
+        //缓冲区不是当前定义创建的，或容量不足时重建并整体上传
+        boolean fullVertexUpload = reallocated;
+        VertexBuffer currentVertexBuffer = data.getVertexBuffer();
+        if (currentVertexBuffer == null
+                || currentVertexBuffer != vertexBuffer
+                || currentVertexBuffer.getVertexCount() < getVertexCapacity()) {
+            if (currentVertexBuffer != null) {
+                engine.destroyVertexBuffer(currentVertexBuffer);
+            }
+            vertexBuffer = createVertexBuffer(getVertexCapacity());
+            data.setVertexBuffer(vertexBuffer);
+            //原始缓冲区不属于渲染数据，其他定义应用时需重新创建
+            data.setRawPositionBuffer(null);
+            data.setRawTangentsBuffer(null);
+            data.setRawUvBuffer(null);
+            data.setRawColorBuffer(null);
+            data.setRawCustom0Buffer(null);
+            fullVertexUpload = true;
+        }
+
+        boolean fullIndexUpload = reallocated;
+        IndexBuffer currentIndexBuffer = data.getIndexBuffer();
+        if (currentIndexBuffer == null
+                || currentIndexBuffer != indexBuffer
+                || currentIndexBuffer.getIndexCount() < getIndexCapacity()) {
+            if (currentIndexBuffer != null) {
+                engine.destroyIndexBuffer(currentIndexBuffer);
+            }
+            indexBuffer =
+                    new IndexBuffer.Builder()
+                            .indexCount(getIndexCapacity())
+                            .bufferType(IndexType.UINT)
+                            .build(filamentEngine);
+            data.setIndexBuffer(indexBuffer);
+            data.setRawIndexBuffer(null);
+            fullIndexUpload = true;
+        }
+
+        if (fullVertexUpload) {
+            uploadVertices(filamentEngine, 0, vertexCount);
+        } else {
+            for (int i = 0; i < dirtyVertices.size; i++) {
+                int start = dirtyVertices.starts[i];
+                int end = Math.min(dirtyVertices.ends[i], vertexCount);
+                if (start < end) {
+                    uploadVertices(filamentEngine, start, end);
+                }
+            }
+        }
+        if (fullIndexUpload) {
+            uploadIndices(filamentEngine, 0, indexCount);
+        } else {
+            for (int i = 0; i < dirtyIndices.size; i++) {
+                int start = dirtyIndices.starts[i];
+                int end = Math.min(dirtyIndices.ends[i], indexCount);
+                if (start < end) {
+                    uploadIndices(filamentEngine, start, end);
+                }
+            }
+        }
+        dirtyVertices.clear();
+        dirtyIndices.clear();
+        reallocated = false;
+
+        // 在可渲染数据中设置Aabb
+        if (boundsStale) {
+            recomputeBounds();
+        }
+        Vector3 extentsAabb = new Vector3(
+                (maxX - minX) * 0.5f, (maxY - minY) * 0.5f, (maxZ - minZ) * 0.5f);
+        data.setExtentsAabb(extentsAabb);
+        data.setCenterAabb(new Vector3(minX + extentsAabb.x, minY + extentsAabb.y, minZ + extentsAabb.z));
+
+        // 添加网格数据，所有三角形共用一个子几何
+        materialBindings.clear();
+        materialNames.clear();
+        RenderableInternalData.MeshData meshData;
+        if (!data.getMeshes().isEmpty()) {
+            meshData = data.getMeshes().get(0);
+        } else {
+            meshData = new RenderableInternalData.MeshData();
+            data.getMeshes().add(meshData);
+        }
+        meshData.indexStart = 0;
+        meshData.indexEnd = indexCount;
+        RenderableDefinition.SubGeometry subGeometry = subGeometries.get(0);
+        materialBindings.add(subGeometry.getMaterial());
+        final String name = subGeometry.getName();
+        materialNames.add(name != null ? name : "");
+
+        // 移除旧数据
+        while (data.getMeshes().size() > 1) {
+            data.getMeshes().remove(data.getMeshes().size() - 1);
+        }
+    }
+
+    private boolean isOnBounds(float x, float y, float z) {
+        return x == minX || x == maxX || y == minY || y == maxY || z == minZ || z == maxZ;
+    }
+
+    /**
+     * 按[0, vertexCount)重新计算包围盒
+     */
+    private void recomputeBounds() {
+        resetBounds();
+        for (int i = 0; i < vertexCount; i++) {
+            int p = i * POSITION_SIZE;
+            float x = positions.get(p);
+            float y = positions.get(p + 1);
+            float z = positions.get(p + 2);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+        boundsVertexCount = vertexCount;
+    }
+
+    private void uploadVertices(Engine engine, int start, int end) {
+        int count = end - start;
+        positions.limit(end * POSITION_SIZE).position(start * POSITION_SIZE);
+        vertexBuffer.setBufferAt(engine, 0, positions,
+                start * POSITION_SIZE * BYTES_PER_FLOAT, count * POSITION_SIZE);
+        tangents.limit(end * TANGENTS_SIZE).position(start * TANGENTS_SIZE);
+        vertexBuffer.setBufferAt(engine, 1, tangents,
+                start * TANGENTS_SIZE * BYTES_PER_FLOAT, count * TANGENTS_SIZE);
+        uvs.limit(end * UV_SIZE).position(start * UV_SIZE);
+        vertexBuffer.setBufferAt(engine, 2, uvs,
+                start * UV_SIZE * BYTES_PER_FLOAT, count * UV_SIZE);
+        positions.clear();
+        tangents.clear();
+        uvs.clear();
+    }
+
+    private void uploadIndices(Engine engine, int start, int end) {
+        indices.limit(end).position(start);
+        indexBuffer.setBuffer(engine, indices, start * BYTES_PER_INT, end - start);
+        indices.clear();
+    }
+
+    private void ensureVertexCapacity(int required) {
+        int capacity = getVertexCapacity();
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(required, (int) (capacity * GROWTH_FACTOR));
+        positions = grow(positions, newCapacity * POSITION_SIZE, vertexCount * POSITION_SIZE);
+        tangents = grow(tangents, newCapacity * TANGENTS_SIZE, vertexCount * TANGENTS_SIZE);
+        uvs = grow(uvs, newCapacity * UV_SIZE, vertexCount * UV_SIZE);
+        reallocated = true;
+    }
+
+    private void ensureIndexCapacity(int required) {
+        int capacity = getIndexCapacity();
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(required, (int) (capacity * GROWTH_FACTOR));
+        IntBuffer grown = allocateInts(newCapacity);
+        indices.limit(indexCount).position(0);
+        grown.put(indices);
+        grown.clear();
+        indices = grown;
+        reallocated = true;
+    }
+
+    private static FloatBuffer grow(FloatBuffer buffer, int capacity, int used) {
+        FloatBuffer grown = allocateFloats(capacity);
+        buffer.limit(used).position(0);
+        grown.put(buffer);
+        grown.clear();
+        return grown;
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(count * BYTES_PER_FLOAT)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    private static IntBuffer allocateInts(int count) {
+        return ByteBuffer.allocateDirect(count * BYTES_PER_INT)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+    }
+
+    private static VertexBuffer createVertexBuffer(int vertexCount) {
+        VertexBuffer.Builder builder = new VertexBuffer.Builder();
+        builder.vertexCount(vertexCount).bufferCount(3);
+        builder.attribute(
+                VertexAttribute.POSITION,
+                0,
+                VertexBuffer.AttributeType.FLOAT3,
+                0,
+                POSITION_SIZE * BYTES_PER_FLOAT);
+        builder.attribute(
+                VertexAttribute.TANGENTS,
+                1,
+                VertexBuffer.AttributeType.FLOAT4,
+                0,
+                TANGENTS_SIZE * BYTES_PER_FLOAT);
+        builder.attribute(
+                VertexAttribute.UV0,
+                2,
+                VertexBuffer.AttributeType.FLOAT2,
+                0,
+                UV_SIZE * BYTES_PER_FLOAT);
+        return builder.build(EngineInstance.getEngine().getFilamentEngine());
+    }
+
+    /**
+     * 已修改区间的集合，相交或相邻的区间合并
+     */
+    private static final class DirtyRanges {
+        int[] starts = new int[4];
+        int[] ends = new int[4];
+        int size;
+
+        void add(int start, int end) {
+            //通常为连续写入，优先与最后一个区间合并
+            if (size > 0 && start <= ends[size - 1] && end >= starts[size - 1]) {
+                starts[size - 1] = Math.min(starts[size - 1], start);
+                ends[size - 1] = Math.max(ends[size - 1], end);
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                if (start <= ends[i] && end >= starts[i]) {
+                    starts[i] = Math.min(starts[i], start);
+                    ends[i] = Math.max(ends[i], end);
+                    return;
+                }
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
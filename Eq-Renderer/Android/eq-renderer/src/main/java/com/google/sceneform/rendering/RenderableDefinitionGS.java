@@ -1,5 +1,6 @@
 package com.google.sceneform.rendering;
 
+import com.eqgis.eqr.core.GaussianQuantizedData;
 import com.eqgis.eqr.data.JPlyGS3dAsset;
 import com.google.android.filament.IndexBuffer;
 import com.google.android.filament.IndexBuffer.Builder.IndexType;
@@ -8,8 +9,11 @@ import com.google.android.filament.VertexBuffer.VertexAttribute;
 import com.google.sceneform.math.Vector3;
 import com.google.sceneform.utilities.AndroidPreconditions;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
@@ -29,10 +33,13 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
     private List<RenderableDefinition.SubGeometry> subGeometries;
 
     private static final int BYTES_PER_FLOAT = Float.SIZE / 8;
+    private static final int BYTES_PER_HALF = 2;
     private static final int POSITION_SIZE = 3; // x, y, z
     private static final int UV_SIZE = 2;
     private static final int F4_SIZE = 4; // Float4
     private JPlyGS3dAsset asset;
+    //float4属性以半精度上传
+    private boolean halfAttributes;
     private int shDegree = 0;
 
     public void setVertices(List<Vertex> vertices) {
@@ -192,7 +199,7 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
         }
 
         if (createVertexBuffer) {
-            vertexBuffer = createVertexBuffer(numVertices, descriptionAttributes);
+            vertexBuffer = createVertexBuffer(numVertices, descriptionAttributes, halfAttributes);
             data.setVertexBuffer(vertexBuffer);
         }
 
@@ -320,12 +327,27 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
         if (custom0 != null) {
             custom0.rewind();
             bufferIndex++;
-            vertexBuffer.setBufferAt(
-                    engine.getFilamentEngine(), bufferIndex, custom0, 0, numVertices * F4_SIZE);
+            if (halfAttributes) {
+                vertexBuffer.setBufferAt(
+                        engine.getFilamentEngine(), bufferIndex, toHalfBuffer(custom0, numVertices * F4_SIZE), 0, numVertices * F4_SIZE);
+            } else {
+                vertexBuffer.setBufferAt(
+                        engine.getFilamentEngine(), bufferIndex, custom0, 0, numVertices * F4_SIZE);
+            }
         }
         return bufferIndex;
     }
 
+    private static ShortBuffer toHalfBuffer(FloatBuffer src, int count) {
+        ShortBuffer dst = ByteBuffer.allocateDirect(count * BYTES_PER_HALF)
+                .order(ByteOrder.nativeOrder())
+                .asShortBuffer();
+        for (int i = 0; i < count; i++) {
+            dst.put(i, GaussianQuantizedData.toHalf(src.get(i)));
+        }
+        return dst;
+    }
+
     private void addAttributes(EnumSet<VertexAttribute> descriptionAttributes) {
         shDegree = Math.min(asset.shDegree, 1); // 支持0~1阶
         descriptionAttributes.add(VertexAttribute.COLOR);
@@ -357,8 +379,11 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
 
 
     private static VertexBuffer createVertexBuffer(
-            int vertexCount, EnumSet<VertexAttribute> attributes) {
+            int vertexCount, EnumSet<VertexAttribute> attributes, boolean half) {
         VertexBuffer.Builder builder = new VertexBuffer.Builder();
+        VertexBuffer.AttributeType float4Type = half
+                ? VertexBuffer.AttributeType.HALF4 : VertexBuffer.AttributeType.FLOAT4;
+        int float4Stride = half ? F4_SIZE * BYTES_PER_HALF : F4_SIZE * BYTES_PER_FLOAT;
 
         builder.vertexCount(vertexCount).bufferCount(attributes.size());
 
@@ -388,9 +413,9 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
             builder.attribute(
                     VertexAttribute.COLOR,
                     bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    float4Type,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    float4Stride);
         }
 
         //desc-CUSTOM0
@@ -399,9 +424,9 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
             builder.attribute(
                     VertexAttribute.CUSTOM0,
                     bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    float4Type,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    float4Stride);
         }
         //custom7
         if (attributes.contains(VertexAttribute.CUSTOM7)){
@@ -409,9 +434,9 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
             builder.attribute(
                     VertexAttribute.CUSTOM7,
                     bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    float4Type,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    float4Stride);
         }
         //desc-custom1
         if (attributes.contains(VertexAttribute.CUSTOM1)){
@@ -419,9 +444,9 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
             builder.attribute(
                     VertexAttribute.CUSTOM1,
                     bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    float4Type,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    float4Stride);
         }
         //desc-CUSTOM2
         if (attributes.contains(VertexAttribute.CUSTOM2)){
@@ -429,9 +454,9 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
             builder.attribute(
                     VertexAttribute.CUSTOM2,
                     bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    float4Type,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    float4Stride);
         }
         //desc-CUSTOM3
         if (attributes.contains(VertexAttribute.CUSTOM3)){
@@ -439,9 +464,9 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
             builder.attribute(
                     VertexAttribute.CUSTOM3,
                     bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    float4Type,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    float4Stride);
         }
         //desc-CUSTOM4
         if (attributes.contains(VertexAttribute.CUSTOM4)){
@@ -449,9 +474,9 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
             builder.attribute(
                     VertexAttribute.CUSTOM4,
                     bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    float4Type,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    float4Stride);
         }
         //desc-CUSTOM5
         if (attributes.contains(VertexAttribute.CUSTOM5)){
@@ -459,9 +484,9 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
             builder.attribute(
                     VertexAttribute.CUSTOM5,
                     bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    float4Type,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    float4Stride);
         }
         //desc-CUSTOM6
         if (attributes.contains(VertexAttribute.CUSTOM6)){
@@ -469,9 +494,9 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
             builder.attribute(
                     VertexAttribute.CUSTOM6,
                     bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    float4Type,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    float4Stride);
         }
 
         return builder.build(EngineInstance.getEngine().getFilamentEngine());
@@ -501,6 +526,14 @@ public class RenderableDefinitionGS implements IRenderableDefinition{
     public void setGaussianSplat(JPlyGS3dAsset asset) {
         this.asset = asset;
     }
+
+    /**
+     * 设置是否以半精度上传float4属性（位置仍为float），显存与上传量减半，需在应用定义之前调用
+     * <p>用于量化数据，其精度本就不高于半精度</p>
+     */
+    public void setHalfAttributes(boolean halfAttributes) {
+        this.halfAttributes = halfAttributes;
+    }
     public float check01(float src){
         float v = src > 1 ? 1 : src;
         return v < 0 ? 0:v;
@@ -0,0 +1,405 @@
+package com.google.sceneform.rendering;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.filament.Engine;
+import com.google.android.filament.IndexBuffer;
+import com.google.android.filament.RenderableManager;
+import com.google.android.filament.VertexBuffer;
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.utilities.AndroidPreconditions;
+import com.google.sceneform.utilities.Preconditions;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于连续数组的自定义渲染对象
+ * <p>
+ *     位置、法线、UV、颜色、CUSTOM0按分量连续存放，索引为int数组，不创建{@link Vertex}对象。
+ *     顶点数据由{@link PreparedGeometry}打包，可在后台线程预先准备后通过{@link Builder#setGeometry}传入，
+ *     否则在构建时于当前线程准备。顶点布局与{@link RenderableDefinition}相同，可使用相同的材质。
+ * </p>
+ * <p>应用定义需在主线程，只创建Filament缓冲区并上传已准备好的数据</p>
+ */
+public class RenderableDefinitionPacked implements IRenderableDefinition {
+
+    private PreparedGeometry geometry;
+    private List<Vertex> vertices = Collections.emptyList();
+    private List<RenderableDefinition.SubGeometry> subGeometries;
+
+    //当前定义创建的Filament缓冲区，用于判断渲染数据中的缓冲区是否仍可复用
+    private VertexBuffer vertexBuffer;
+    private IndexBuffer indexBuffer;
+    private long uploadNanos;
+
+    private RenderableDefinitionPacked(Builder builder) {
+        geometry = builder.prepare();
+        subGeometries = createSubGeometries(builder);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 替换顶点，在当前线程重新打包，索引、图元类型与子几何不变
+     * <p>属性由第一个顶点决定，可与原几何不同，下次应用定义时重建顶点缓冲区</p>
+     */
+    @Override
+    public void setVertices(List<Vertex> vertices) {
+        geometry = PreparedGeometry.builder()
+                .setVertices(vertices)
+                .setIndices(geometry.indices())
+                .setPrimitiveType(geometry.getPrimitiveType())
+                .build();
+        this.vertices = vertices;
+        vertexBuffer = null;
+    }
+
+    /** @return 最近一次{@link #setVertices}设置的顶点，由数组构建时为空列表 */
+    @Override
+    public List<Vertex> getVertices() {
+        return vertices;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>子几何的索引列表为索引缓冲区对应区间的只读视图</p>
+     */
+    @Override
+    public List<RenderableDefinition.SubGeometry> getSubGeometries() {
+        return subGeometries;
+    }
+
+    /**
+     * 替换子几何，通常用于更换材质
+     * <p>各子几何的索引数量之和需等于{@link #getIndexCount()}，子几何依次使用索引缓冲区中的连续区间</p>
+     */
+    @Override
+    public void setSubGeometries(List<RenderableDefinition.SubGeometry> subGeometries) {
+        this.subGeometries = subGeometries;
+    }
+
+    public PreparedGeometry getGeometry() {
+        return geometry;
+    }
+
+    public int getVertexCount() {
+        return geometry.getVertexCount();
+    }
+
+    public int getIndexCount() {
+        return geometry.getIndexCount();
+    }
+
+    public RenderableManager.PrimitiveType getPrimitiveType() {
+        return geometry.getPrimitiveType();
+    }
+
+    /**
+     * 获取包围盒
+     * @return minX, minY, minZ, maxX, maxY, maxZ
+     */
+    public float[] getAabb() {
+        return geometry.getAabb();
+    }
+
+    /**
+     * 获取最近一次应用定义时创建缓冲区与上传的耗时
+     * @return 纳秒，未应用时为0
+     */
+    public long getUploadNanos() {
+        return uploadNanos;
+    }
+
+    @Override
+    public void applyDefinitionToData(
+            IRenderableInternalData data,
+            ArrayList<Material> materialBindings,
+            ArrayList<String> materialNames) {
+        AndroidPreconditions.checkUiThread();
+        long start = System.nanoTime();
+        int vertexCount = geometry.getVertexCount();
+        int indexCount = geometry.getIndexCount();
+        int subGeometryIndexCount = 0;
+        for (int i = 0; i < subGeometries.size(); i++) {
+            subGeometryIndexCount += subGeometries.get(i).getTriangleIndices().size();
+        }
+        if (subGeometryIndexCount != indexCount) {
+            throw new IllegalStateException("SubGeometries use " + subGeometryIndexCount
+                    + " indices but the definition has " + indexCount);
+        }
+
+        if (data instanceof RenderableInternalData) {
+            ((RenderableInternalData) data).setPrimitiveType(geometry.getPrimitiveType());
+        }
+
+        IEngine engine = EngineInstance.getEngine();
+        Engine filamentEngine = engine.getFilamentEngine();
+
+        //缓冲区不是当前定义创建的，或容量不足时重建
+        VertexBuffer currentVertexBuffer = data.getVertexBuffer();
+        if (currentVertexBuffer == null
+                || currentVertexBuffer != vertexBuffer
+                || currentVertexBuffer.getVertexCount() < vertexCount) {
+            if (currentVertexBuffer != null) {
+                engine.destroyVertexBuffer(currentVertexBuffer);
+            }
+            vertexBuffer = geometry.createVertexBuffer(filamentEngine);
+            data.setVertexBuffer(vertexBuffer);
+        }
+        //原始缓冲区属于当前定义，不交给渲染数据，避免其他定义应用时写入
+        data.setRawPositionBuffer(null);
+        data.setRawTangentsBuffer(null);
+        data.setRawUvBuffer(null);
+        data.setRawColorBuffer(null);
+        data.setRawCustom0Buffer(null);
+
+        IndexBuffer currentIndexBuffer = data.getIndexBuffer();
+        if (currentIndexBuffer == null
+                || currentIndexBuffer != indexBuffer
+                || currentIndexBuffer.getIndexCount() < indexCount) {
+            if (currentIndexBuffer != null) {
+                engine.destroyIndexBuffer(currentIndexBuffer);
+            }
+            indexBuffer = geometry.createIndexBuffer(filamentEngine);
+            data.setIndexBuffer(indexBuffer);
+        }
+        data.setRawIndexBuffer(null);
+
+        geometry.upload(filamentEngine, vertexBuffer, indexBuffer);
+        uploadNanos = System.nanoTime() - start;
+
+        // 在可渲染数据中设置Aabb
+        float[] aabb = geometry.aabb();
+        Vector3 extentsAabb = new Vector3(
+                (aabb[3] - aabb[0]) * 0.5f, (aabb[4] - aabb[1]) * 0.5f, (aabb[5] - aabb[2]) * 0.5f);
+        data.setExtentsAabb(extentsAabb);
+        data.setCenterAabb(new Vector3(
+                aabb[0] + extentsAabb.x, aabb[1] + extentsAabb.y, aabb[2] + extentsAabb.z));
+
+        // 添加网格数据
+        int indexStart = 0;
+        materialBindings.clear();
+        materialNames.clear();
+        for (int i = 0; i < subGeometries.size(); i++) {
+            RenderableDefinition.SubGeometry subGeometry = subGeometries.get(i);
+
+            RenderableInternalData.MeshData meshData;
+            if (i < data.getMeshes().size()) {
+                meshData = data.getMeshes().get(i);
+            } else {
+                meshData = new RenderableInternalData.MeshData();
+                data.getMeshes().add(meshData);
+            }
+
+            meshData.indexStart = indexStart;
+            meshData.indexEnd = indexStart + subGeometry.getTriangleIndices().size();
+            indexStart = meshData.indexEnd;
+            materialBindings.add(subGeometry.getMaterial());
+            final String name = subGeometry.getName();
+            materialNames.add(name != null ? name : "");
+        }
+
+        // 移除旧数据
+        while (data.getMeshes().size() > subGeometries.size()) {
+            data.getMeshes().remove(data.getMeshes().size() - 1);
+        }
+    }
+
+    private List<RenderableDefinition.SubGeometry> createSubGeometries(Builder builder) {
+        int indexCount = geometry.getIndexCount();
+        List<RenderableDefinition.SubGeometry> result = new ArrayList<>(builder.subGeometries.size());
+        int indexStart = 0;
+        for (int i = 0; i < builder.subGeometries.size(); i++) {
+            SubGeometryRange range = builder.subGeometries.get(i);
+            //未指定数量的子几何使用其余的全部索引
+            int count = range.indexCount < 0 ? indexCount - indexStart : range.indexCount;
+            if (count < 0 || indexStart + count > indexCount) {
+                throw new IllegalArgumentException("SubGeometry index range exceeds the index count.");
+            }
+            result.add(RenderableDefinition.SubGeometry.builder()
+                    .setTriangleIndices(geometry.indexRange(indexStart, count))
+                    .setMaterial(range.material)
+                    .setName(range.name)
+                    .build());
+            indexStart += count;
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("At least one SubGeometry must be added.");
+        }
+        if (indexStart != indexCount) {
+            throw new IllegalArgumentException("SubGeometries use " + indexStart
+                    + " indices but the definition has " + indexCount);
+        }
+        return result;
+    }
+
+    private static final class SubGeometryRange {
+        final Material material;
+        final int indexCount;
+        @Nullable final String name;
+
+        SubGeometryRange(Material material, int indexCount, @Nullable String name) {
+            this.material = material;
+            this.indexCount = indexCount;
+            this.name = name;
+        }
+    }
+
+    /** Factory class for {@link RenderableDefinitionPacked}. */
+    public static final class Builder {
+        private final PreparedGeometry.Builder geometryBuilder = PreparedGeometry.builder();
+        @Nullable private PreparedGeometry geometry;
+        private final List<SubGeometryRange> subGeometries = new ArrayList<>();
+
+        /**
+         * 使用已准备好的几何数据，设置后忽略其余的顶点、索引与图元类型设置
+         */
+        public Builder setGeometry(PreparedGeometry geometry) {
+            this.geometry = Preconditions.checkNotNull(geometry);
+            return this;
+        }
+
+        /**
+         * 设置顶点位置
+         * @param positions xyz连续存放，长度决定顶点数
+         */
+        public Builder setPositions(float[] positions) {
+            geometryBuilder.setPositions(positions);
+            return this;
+        }
+
+        /**
+         * 设置顶点位置
+         * <p>使用position到limit之间的数据；本机字节序的direct缓冲区不复制，构建后不能再修改</p>
+         */
+        public Builder setPositions(FloatBuffer positions) {
+            geometryBuilder.setPositions(positions);
+            return this;
+        }
+
+        /**
+         * 设置法线，构建时转为切线
+         * @param normals xyz连续存放，null表示不使用
+         */
+        public Builder setNormals(@Nullable float[] normals) {
+            geometryBuilder.setNormals(normals);
+            return this;
+        }
+
+        /**
+         * 设置法线，构建时转为切线，缓冲区只读取不保留
+         */
+        public Builder setNormals(@Nullable FloatBuffer normals) {
+            geometryBuilder.setNormals(normals);
+            return this;
+        }
+
+        /**
+         * 设置纹理坐标
+         * @param uvs uv连续存放，null表示不使用
+         */
+        public Builder setUvs(@Nullable float[] uvs) {
+            geometryBuilder.setUvs(uvs);
+            return this;
+        }
+
+        public Builder setUvs(@Nullable FloatBuffer uvs) {
+            geometryBuilder.setUvs(uvs);
+            return this;
+        }
+
+        /**
+         * 设置顶点颜色
+         * @param colors rgba连续存放，null表示不使用
+         */
+        public Builder setColors(@Nullable float[] colors) {
+            geometryBuilder.setColors(colors);
+            return this;
+        }
+
+        public Builder setColors(@Nullable FloatBuffer colors) {
+            geometryBuilder.setColors(colors);
+            return this;
+        }
+
+        /**
+         * 设置CUSTOM0属性
+         * @param custom0 每个顶点4个分量，null表示不使用
+         */
+        public Builder setCustom0(@Nullable float[] custom0) {
+            geometryBuilder.setCustom0(custom0);
+            return this;
+        }
+
+        public Builder setCustom0(@Nullable FloatBuffer custom0) {
+            geometryBuilder.setCustom0(custom0);
+            return this;
+        }
+
+        /**
+         * 设置索引，未设置时按顶点顺序绘制
+         */
+        public Builder setIndices(@Nullable int[] indices) {
+            geometryBuilder.setIndices(indices);
+            return this;
+        }
+
+        /**
+         * 设置索引，使用position到limit之间的数据；本机字节序的direct缓冲区不复制，构建后不能再修改
+         */
+        public Builder setIndices(@Nullable IntBuffer indices) {
+            geometryBuilder.setIndices(indices);
+            return this;
+        }
+
+        /**
+         * 添加使用其余全部索引的子几何
+         */
+        public Builder addSubGeometry(Material material) {
+            return addSubGeometry(material, -1, null);
+        }
+
+        /**
+         * 添加子几何，子几何按添加顺序依次使用索引中的连续区间
+         * @param material 材质
+         * @param indexCount 索引数量
+         */
+        public Builder addSubGeometry(Material material, int indexCount) {
+            return addSubGeometry(material, indexCount, null);
+        }
+
+        public Builder addSubGeometry(Material material, int indexCount, @Nullable String name) {
+            subGeometries.add(new SubGeometryRange(Preconditions.checkNotNull(material), indexCount, name));
+            return this;
+        }
+
+        /**
+         * 设置图元类型，默认值为 {@link RenderableManager.PrimitiveType#TRIANGLES}
+         */
+        public Builder setPrimitiveType(RenderableManager.PrimitiveType primitiveType) {
+            geometryBuilder.setPrimitiveType(primitiveType);
+            return this;
+        }
+
+        /**
+         * 在当前线程准备几何数据，不需要子几何，已调用{@link #setGeometry}时直接返回
+         * <p>可在后台线程调用，再通过{@link #setGeometry}在主线程构建定义</p>
+         */
+        public PreparedGeometry prepare() {
+            return geometry != null ? geometry : geometryBuilder.build();
+        }
+
+        /**
+         * 构建定义，未设置{@link #setGeometry}时在当前线程打包顶点数据并计算切线与包围盒
+         */
+        public RenderableDefinitionPacked build() {
+            return new RenderableDefinitionPacked(this);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.google.sceneform.rendering;
+
+import com.eqgis.eqr.core.PlyMappedPointCloud;
+import com.google.android.filament.IndexBuffer;
+import com.google.android.filament.IndexBuffer.Builder.IndexType;
+import com.google.android.filament.RenderableManager;
+import com.google.android.filament.VertexBuffer;
+import com.google.android.filament.VertexBuffer.VertexAttribute;
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.utilities.AndroidPreconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 内存映射点云的渲染定义
+ * <p>
+ *     顶点数据不经过{@link Vertex}列表，直接将{@link PlyMappedPointCloud}的direct缓冲区
+ *     以交错布局交给{@link VertexBuffer#setBufferAt}，JNI层不拷贝。
+ *     以POINTS图元绘制，子几何的索引列表不使用，仅用于绑定材质。
+ * </p>
+ */
+public class RenderableDefinitionPointCloud implements IRenderableDefinition {
+
+    private PlyMappedPointCloud pointCloud;
+    private List<RenderableDefinition.SubGeometry> subGeometries;
+
+    public void setPointCloud(PlyMappedPointCloud pointCloud) {
+        this.pointCloud = pointCloud;
+    }
+
+    public PlyMappedPointCloud getPointCloud() {
+        return pointCloud;
+    }
+
+    /**
+     * 顶点来自{@link #setPointCloud(PlyMappedPointCloud)}，不支持设置
+     */
+    @Override
+    public void setVertices(List<Vertex> vertices) {
+        throw new UnsupportedOperationException("Vertices are provided by the mapped point cloud");
+    }
+
+    @Override
+    public List<Vertex> getVertices() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void setSubGeometries(List<RenderableDefinition.SubGeometry> subGeometries) {
+        this.subGeometries = subGeometries;
+    }
+
+    @Override
+    public List<RenderableDefinition.SubGeometry> getSubGeometries() {
+        return subGeometries;
+    }
+
+    @Override
+    public void applyDefinitionToData(
+            IRenderableInternalData data,
+            ArrayList<Material> materialBindings,
+            ArrayList<String> materialNames) {
+        AndroidPreconditions.checkUiThread();
+        if (pointCloud == null) {
+            throw new IllegalStateException("Point cloud must be set before applying the definition.");
+        }
+
+        if (data instanceof RenderableInternalData) {
+            ((RenderableInternalData) data).setPrimitiveType(RenderableManager.PrimitiveType.POINTS);
+        }
+
+        int vertexCount = pointCloud.getVertexCount();
+        applyDefinitionToDataIndexBuffer(data, vertexCount);
+        applyDefinitionToDataVertexBuffer(data, vertexCount);
+
+        //包围盒
+        float[] aabb = pointCloud.getAabb();
+        Vector3 minAabb = new Vector3(aabb[0], aabb[1], aabb[2]);
+        Vector3 maxAabb = new Vector3(aabb[3], aabb[4], aabb[5]);
+        Vector3 extentsAabb = Vector3.subtract(maxAabb, minAabb).scaled(0.5f);
+        data.setExtentsAabb(extentsAabb);
+        data.setCenterAabb(Vector3.add(minAabb, extentsAabb));
+
+        //所有顶点作为一个网格，使用第一个子几何的材质
+        RenderableDefinition.SubGeometry subGeometry = subGeometries.get(0);
+        RenderableInternalData.MeshData meshData;
+        if (data.getMeshes().isEmpty()) {
+            meshData = new RenderableInternalData.MeshData();
+            data.getMeshes().add(meshData);
+        } else {
+            meshData = data.getMeshes().get(0);
+        }
+        meshData.indexStart = 0;
+        meshData.indexEnd = vertexCount;
+        while (data.getMeshes().size() > 1) {
+            data.getMeshes().remove(data.getMeshes().size() - 1);
+        }
+
+        materialBindings.clear();
+        materialNames.clear();
+        materialBindings.add(subGeometry.getMaterial());
+        final String name = subGeometry.getName();
+        materialNames.add(name != null ? name : "");
+    }
+
+    private void applyDefinitionToDataIndexBuffer(IRenderableInternalData data, int vertexCount) {
+        //在 Filament 中，即使渲染的是 POINTS 图元，也必须提供 IndexBuffer
+        IntBuffer indices = ByteBuffer.allocateDirect(vertexCount * 4)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        for (int i = 0; i < vertexCount; i++) {
+            indices.put(i, i);
+        }
+
+        IndexBuffer indexBuffer = data.getIndexBuffer();
+        IEngine engine = EngineInstance.getEngine();
+        if (indexBuffer == null || indexBuffer.getIndexCount() < vertexCount) {
+            if (indexBuffer != null) {
+                engine.destroyIndexBuffer(indexBuffer);
+            }
+            indexBuffer =
+                    new IndexBuffer.Builder()
+                            .indexCount(vertexCount)
+                            .bufferType(IndexType.UINT)
+                            .build(engine.getFilamentEngine());
+            data.setIndexBuffer(indexBuffer);
+        }
+        indexBuffer.setBuffer(engine.getFilamentEngine(), indices, 0, vertexCount);
+    }
+
+    private void applyDefinitionToDataVertexBuffer(IRenderableInternalData data, int vertexCount) {
+        IEngine engine = EngineInstance.getEngine();
+        //布局取决于映射文件，每次重新创建
+        VertexBuffer vertexBuffer = data.getVertexBuffer();
+        if (vertexBuffer != null) {
+            engine.destroyVertexBuffer(vertexBuffer);
+        }
+
+        int stride = pointCloud.getStride();
+        VertexBuffer.Builder builder = new VertexBuffer.Builder()
+                .vertexCount(vertexCount)
+                .bufferCount(1)
+                .attribute(VertexAttribute.POSITION, 0, VertexBuffer.AttributeType.FLOAT3,
+                        pointCloud.getPositionOffset(), stride);
+        if (pointCloud.hasColors()) {
+            builder.attribute(VertexAttribute.COLOR, 0,
+                            pointCloud.hasColorAlpha()
+                                    ? VertexBuffer.AttributeType.UBYTE4
+                                    : VertexBuffer.AttributeType.UBYTE3,
+                            pointCloud.getColorOffset(), stride)
+                    .normalized(VertexAttribute.COLOR);
+        }
+        vertexBuffer = builder.build(engine.getFilamentEngine());
+        data.setVertexBuffer(vertexBuffer);
+
+        //direct缓冲区直接交给Filament，上传完成前由JNI持有引用
+        ByteBuffer vertexData = pointCloud.getVertexData().duplicate();
+        vertexData.rewind();
+        vertexBuffer.setBufferAt(engine.getFilamentEngine(), 0, vertexData, 0, vertexCount * stride);
+    }
+}
@@ -0,0 +1,131 @@
+package com.google.sceneform.rendering;
+
+import com.eqgis.eqr.core.PointCloudOctree;
+import com.google.android.filament.RenderableManager;
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.utilities.AndroidPreconditions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 八叉树LOD点云的渲染定义
+ * <p>
+ *     顶点缓冲区为按节点划分的缓冲池，索引缓冲区容纳点数预算内的索引，
+ *     应用时只上传根节点，其余节点由{@link PointCloudLodStreamer}随视角流式加载。
+ *     以POINTS图元绘制，子几何的索引列表不使用，仅用于绑定材质。
+ * </p>
+ * <p>通过{@link #setVertices}设置顶点后停止流式加载，改为绘制打包后的顶点</p>
+ */
+public class RenderableDefinitionPointCloudLod implements IRenderableDefinition {
+
+    private PointCloudLodStreamer streamer;
+    private List<Vertex> vertices = Collections.emptyList();
+    private List<RenderableDefinition.SubGeometry> subGeometries;
+    //设置顶点后打包的几何与绘制它的定义
+    private PreparedGeometry geometry;
+    private RenderableDefinitionPacked packed;
+
+    void setStreamer(PointCloudLodStreamer streamer) {
+        this.streamer = streamer;
+    }
+
+    /**
+     * 替换为指定的顶点，在当前线程打包，按顶点顺序以POINTS图元绘制
+     * <p>下次应用定义时停止流式加载并重建缓冲区</p>
+     */
+    @Override
+    public void setVertices(List<Vertex> vertices) {
+        geometry = PreparedGeometry.builder()
+                .setVertices(vertices)
+                .setPrimitiveType(RenderableManager.PrimitiveType.POINTS)
+                .build();
+        packed = null;
+        this.vertices = vertices;
+    }
+
+    /** @return 最近一次{@link #setVertices}设置的顶点，流式加载时为空列表 */
+    @Override
+    public List<Vertex> getVertices() {
+        return vertices;
+    }
+
+    @Override
+    public void setSubGeometries(List<RenderableDefinition.SubGeometry> subGeometries) {
+        this.subGeometries = subGeometries;
+    }
+
+    @Override
+    public List<RenderableDefinition.SubGeometry> getSubGeometries() {
+        return subGeometries;
+    }
+
+    @Override
+    public void applyDefinitionToData(
+            IRenderableInternalData data,
+            ArrayList<Material> materialBindings,
+            ArrayList<String> materialNames) {
+        AndroidPreconditions.checkUiThread();
+        if (geometry != null) {
+            if (streamer != null) {
+                streamer.detach();
+            }
+            //每次使用当前子几何的材质
+            RenderableDefinition.SubGeometry subGeometry = subGeometries.get(0);
+            if (packed == null) {
+                packed = RenderableDefinitionPacked.builder()
+                        .setGeometry(geometry)
+                        .addSubGeometry(subGeometry.getMaterial(), -1, subGeometry.getName())
+                        .build();
+            } else {
+                packed.setSubGeometries(Collections.singletonList(
+                        RenderableDefinition.SubGeometry.builder()
+                                .setTriangleIndices(geometry.indexRange(0, geometry.getIndexCount()))
+                                .setMaterial(subGeometry.getMaterial())
+                                .setName(subGeometry.getName())
+                                .build()));
+            }
+            packed.applyDefinitionToData(data, materialBindings, materialNames);
+            return;
+        }
+        if (streamer == null) {
+            throw new IllegalStateException("Streamer must be set before applying the definition.");
+        }
+
+        if (data instanceof RenderableInternalData) {
+            ((RenderableInternalData) data).setPrimitiveType(RenderableManager.PrimitiveType.POINTS);
+        }
+        int indexCount = streamer.createBuffers(data);
+
+        //包围盒
+        PointCloudOctree tree = streamer.getTree();
+        float[] aabb = tree.getAabb();
+        Vector3 minAabb = new Vector3(aabb[0], aabb[1], aabb[2]);
+        Vector3 maxAabb = new Vector3(aabb[3], aabb[4], aabb[5]);
+        Vector3 extentsAabb = Vector3.subtract(maxAabb, minAabb).scaled(0.5f);
+        data.setExtentsAabb(extentsAabb);
+        data.setCenterAabb(Vector3.add(minAabb, extentsAabb));
+
+        //所有节点作为一个网格，使用第一个子几何的材质
+        RenderableDefinition.SubGeometry subGeometry = subGeometries.get(0);
+        RenderableInternalData.MeshData meshData;
+        if (data.getMeshes().isEmpty()) {
+            meshData = new RenderableInternalData.MeshData();
+            data.getMeshes().add(meshData);
+        } else {
+            meshData = data.getMeshes().get(0);
+        }
+        meshData.indexStart = 0;
+        meshData.indexEnd = indexCount;
+        while (data.getMeshes().size() > 1) {
+            data.getMeshes().remove(data.getMeshes().size() - 1);
+        }
+
+        materialBindings.clear();
+        materialNames.clear();
+        materialBindings.add(subGeometry.getMaterial());
+        final String name = subGeometry.getName();
+        materialNames.add(name != null ? name : "");
+    }
+}
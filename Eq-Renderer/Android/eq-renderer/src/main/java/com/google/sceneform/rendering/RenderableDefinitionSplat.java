@@ -5,13 +5,9 @@ import com.google.android.filament.IndexBuffer;
 import com.google.android.filament.IndexBuffer.Builder.IndexType;
 import com.google.android.filament.VertexBuffer;
 import com.google.android.filament.VertexBuffer.VertexAttribute;
-import com.google.sceneform.math.Vector3;
 import com.google.sceneform.utilities.AndroidPreconditions;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.EnumSet;
 import java.util.List;
 
 /**
@@ -28,11 +24,16 @@ public class RenderableDefinitionSplat implements IRenderableDefinition{
     private List<Vertex> vertices;
     private List<RenderableDefinition.SubGeometry> subGeometries;
 
-    private static final int BYTES_PER_FLOAT = Float.SIZE / 8;
-    private static final int POSITION_SIZE = 3; // x, y, z
-    private static final int UV_SIZE = 2;
-    private static final int F4_SIZE = 4; // Float4
+    //颜色单独存储时所在的缓冲区
+    static final int COLOR_BUFFER_INDEX = 2;
+
     private JPlyGS3dAsset asset;
+    //预先构建的几何数据，为空时在应用定义时由asset构建
+    private SplatGeometry geometry;
+    //float4属性以半精度上传
+    private boolean halfAttributes;
+    //紧凑布局，见{@link SplatGeometry}
+    private boolean compactAttributes;
 
     public void setVertices(List<Vertex> vertices) {
         this.vertices = vertices;
@@ -78,64 +79,40 @@ public class RenderableDefinitionSplat implements IRenderableDefinition{
             ArrayList<String> materialNames) {
         AndroidPreconditions.checkUiThread();
 
-        applyDefinitionToDataIndexBuffer(data);
-        applyDefinitionToDataVertexBuffer(data);
+        SplatGeometry geometry = this.geometry;
+        if (geometry == null) {
+            geometry = SplatGeometry.build(asset, halfAttributes, compactAttributes);
+        }
+        applyDefinitionToDataIndexBuffer(data, geometry);
+        applyDefinitionToDataVertexBuffer(data, geometry);
+        //缓冲区已交给Filament，不再持有
+        this.geometry = null;
 
-        // 添加网格数据
-        int indexStart = 0;
+        // 添加网格数据，所有高斯点共用一个子几何
         materialBindings.clear();
         materialNames.clear();
-        for (int i = 0; i < subGeometries.size(); i++) {
-            RenderableDefinition.SubGeometry subGeometry = subGeometries.get(i);
-
-            RenderableInternalData.MeshData meshData;
-            if (i < data.getMeshes().size()) {
-                meshData = data.getMeshes().get(i);
-            } else {
-                meshData = new RenderableInternalData.MeshData();
-                data.getMeshes().add(meshData);
-            }
-
-            meshData.indexStart = indexStart;
-            meshData.indexEnd = indexStart + subGeometry.getTriangleIndices().size();
-            indexStart = meshData.indexEnd;
-            materialBindings.add(subGeometry.getMaterial());
-            final String name = subGeometry.getName();
-            materialNames.add(name != null ? name : "");
+        RenderableInternalData.MeshData meshData;
+        if (!data.getMeshes().isEmpty()) {
+            meshData = data.getMeshes().get(0);
+        } else {
+            meshData = new RenderableInternalData.MeshData();
+            data.getMeshes().add(meshData);
         }
+        meshData.indexStart = 0;
+        meshData.indexEnd = geometry.indexCount;
+        RenderableDefinition.SubGeometry subGeometry = subGeometries.get(0);
+        materialBindings.add(subGeometry.getMaterial());
+        final String name = subGeometry.getName();
+        materialNames.add(name != null ? name : "");
 
         // 移除旧数据
-        while (data.getMeshes().size() > subGeometries.size()) {
+        while (data.getMeshes().size() > 1) {
             data.getMeshes().remove(data.getMeshes().size() - 1);
         }
     }
 
-    private void applyDefinitionToDataIndexBuffer(IRenderableInternalData data) {
-        // 计算顶点索引
-        int numIndices = 0;
-        for (int i = 0; i < subGeometries.size(); i++) {
-            RenderableDefinition.SubGeometry subGeometry = subGeometries.get(i);
-            numIndices += subGeometry.getTriangleIndices().size();
-        }
-
-        // 创建原始IndexBuffer
-        IntBuffer rawIndexBuffer = data.getRawIndexBuffer();
-        if (rawIndexBuffer == null || rawIndexBuffer.capacity() < numIndices) {
-            rawIndexBuffer = IntBuffer.allocate(numIndices);
-            data.setRawIndexBuffer(rawIndexBuffer);
-        } else {
-            rawIndexBuffer.rewind();
-        }
-
-        //填充索引数据
-        for (int i = 0; i < subGeometries.size(); i++) {
-            RenderableDefinition.SubGeometry subGeometry = subGeometries.get(i);
-            List<Integer> triangleIndices = subGeometry.getTriangleIndices();
-            for (int j = 0; j < triangleIndices.size(); j++) {
-                rawIndexBuffer.put(triangleIndices.get(j));
-            }
-        }
-        rawIndexBuffer.rewind();
+    private void applyDefinitionToDataIndexBuffer(IRenderableInternalData data, SplatGeometry geometry) {
+        int numIndices = geometry.indexCount;
 
         //创建filament的索引缓冲区
         IndexBuffer indexBuffer = data.getIndexBuffer();
@@ -153,285 +130,137 @@ public class RenderableDefinitionSplat implements IRenderableDefinition{
             data.setIndexBuffer(indexBuffer);
         }
 
-        indexBuffer.setBuffer(engine.getFilamentEngine(), rawIndexBuffer, 0, numIndices);
+        indexBuffer.setBuffer(engine.getFilamentEngine(), geometry.indices, 0, numIndices);
     }
 
-    private void applyDefinitionToDataVertexBuffer(IRenderableInternalData data) {
-        if (vertices.isEmpty()) {
+    private void applyDefinitionToDataVertexBuffer(IRenderableInternalData data, SplatGeometry geometry) {
+        if (geometry.vertexCount == 0) {
             throw new IllegalArgumentException("RenderableDescription must have at least one vertex.");
         }
 
-        int numVertices = vertices.size();
-        Vertex firstVertex = vertices.get(0);
-
-        //计算顶点数据
-        EnumSet<VertexAttribute> descriptionAttributes = EnumSet.of(VertexAttribute.POSITION);
-        if (firstVertex.getUvCoordinate() != null) {
-            descriptionAttributes.add(VertexAttribute.UV0);
-        }
-        addAttributes(descriptionAttributes);//custom012
-
-        //计算vertexBuffer
+        int numVertices = geometry.vertexCount;
         VertexBuffer vertexBuffer = data.getVertexBuffer();
-        boolean createVertexBuffer = true;
         if (vertexBuffer != null) {
-            EnumSet<VertexAttribute> oldAttributes = EnumSet.of(VertexAttribute.POSITION);
-            if (data.getRawUvBuffer() != null) {
-                oldAttributes.add(VertexAttribute.UV0);
-            }
-            addAttributes(oldAttributes);
-
-            createVertexBuffer =
-                    !oldAttributes.equals(descriptionAttributes)
-                            || vertexBuffer.getVertexCount() < numVertices;
-
-            if (createVertexBuffer) {
-                EngineInstance.getEngine().destroyVertexBuffer(vertexBuffer);
-            }
+            //属性组合与精度随数据变化，直接重建
+            EngineInstance.getEngine().destroyVertexBuffer(vertexBuffer);
         }
-
-        if (createVertexBuffer) {
-            vertexBuffer = createVertexBuffer(numVertices, descriptionAttributes);
-            data.setVertexBuffer(vertexBuffer);
-        }
-
-        //创建顶点缓冲区
-        FloatBuffer positionBuffer = data.getRawPositionBuffer();
-        if (positionBuffer == null || positionBuffer.capacity() < numVertices * POSITION_SIZE) {
-            positionBuffer = FloatBuffer.allocate(numVertices * POSITION_SIZE);
-            data.setRawPositionBuffer(positionBuffer);
-        } else {
-            positionBuffer.rewind();
-        }
-
-        //创建uvBuffer
-        FloatBuffer uvBuffer = data.getRawUvBuffer();
-        if (descriptionAttributes.contains(VertexAttribute.UV0)
-                && (uvBuffer == null || uvBuffer.capacity() < numVertices * UV_SIZE)) {
-            uvBuffer = FloatBuffer.allocate(numVertices * UV_SIZE);
-            data.setRawUvBuffer(uvBuffer);
-        } else if (uvBuffer != null) {
-            uvBuffer.rewind();
-        }
-
-        FloatBuffer custom0 = FloatBuffer.allocate(numVertices * F4_SIZE);
-        FloatBuffer custom1 = FloatBuffer.allocate(numVertices * F4_SIZE);
-        FloatBuffer custom2 = FloatBuffer.allocate(numVertices * F4_SIZE);
-//        FloatBuffer custom3 = FloatBuffer.allocate(numVertices * F4_SIZE);
-
-        // 更新原始缓冲区并在一次遍历顶点时计算Aabb。
-        for (int i = 0; i < vertices.size(); i++) {
-            Vertex vertex = vertices.get(i);
-
-
-            // Position
-            Vector3 position = vertex.getPosition();
-            addVector3ToBuffer(position, positionBuffer);
-
-            // Uv
-            if (uvBuffer != null) {
-                Vertex.UvCoordinate uvCoordinate = vertex.getUvCoordinate();
-                if (uvCoordinate == null) {
-                    throw new IllegalArgumentException(
-                            "Missing UV Coordinate: If any Vertex in a "
-                                    + "RenderableDescription has a UV Coordinate, all vertices must have one.");
-                }
-
-                addUvToBuffer(uvCoordinate, uvBuffer);
-            }
-
-            addVertexBufferFromGaussian(i, custom0, custom1, custom2);
-        }
-
+        vertexBuffer = createVertexBuffer(geometry);
+        data.setVertexBuffer(vertexBuffer);
 
         IEngine engine = EngineInstance.getEngine();
-        positionBuffer.rewind();
-        int bufferIndex = 0;
         vertexBuffer.setBufferAt(
-                engine.getFilamentEngine(), bufferIndex, positionBuffer, 0, numVertices * POSITION_SIZE);
-
-        if (uvBuffer != null) {
-            uvBuffer.rewind();
-            bufferIndex++;
-            vertexBuffer.setBufferAt(
-                    engine.getFilamentEngine(), bufferIndex, uvBuffer, 0, numVertices * UV_SIZE);
+                engine.getFilamentEngine(), 0, geometry.geometry, 0, numVertices * geometry.geometryStride);
+        if (geometry.textured) {
+            //其余属性在纹理中，由调用方上传
+            return;
         }
-
-        //custom012
-        bufferIndex = setBufferDataFloat4(custom0, bufferIndex, vertexBuffer, engine, numVertices);
-        bufferIndex = setBufferDataFloat4(custom1, bufferIndex, vertexBuffer, engine, numVertices);
-        bufferIndex = setBufferDataFloat4(custom2, bufferIndex, vertexBuffer, engine, numVertices);
-    }
-
-    private void addVertexBufferFromGaussian(int vertexIndex, FloatBuffer custom0, FloatBuffer custom1, FloatBuffer custom2) {
-        int i = vertexIndex / 4;//一个高斯点对应1个quad，一个quad有4个顶点。
-        float opacityValue = asset.opacity!=null ? asset.opacity[i] : 1.0f;
-        addFloat4ToBuffer(check01(asset.f_dc[3 * i]),check01(asset.f_dc[3 * i + 1])
-                ,check01( asset.f_dc[3 * i + 2]),check01(opacityValue), custom0);
-
-//        float index = (float) (vertexIndex % 4);
-//        Log.i("Ikkyu ", "addVertexBufferFromGaussian: scale + "+asset.scale[3*i]+","+asset.scale[3*i+1]+","+
-//                asset.scale[3*i+2]);
-//        Log.i("Ikkyu ", "addVertexBufferFromGaussian: rot + "+asset.rot[4*i]+","+asset.rot[4*i+1]+","+
-//                asset.rot[4*i+2]+", "+ asset.rot[4*i+3]);
-
-        addFloat4ToBuffer(asset.scale[3*i],asset.scale[3*i+1],
-                asset.scale[3*i+2],0.05f,custom1);
-
-//        addFloat4ToBuffer(asset.vertices[3*i],asset.vertices[3*i+1],
-//                asset.vertices[3*i+2],2.0f,custom2);
-        //w x y z - > x y z w
-        addFloat4ToBuffer(asset.rot[4*i+1],
-                asset.rot[4*i+2], asset.rot[4*i+3],asset.rot[4*i],custom2);
-
-    }
-
-    private int setBufferDataFloat4(FloatBuffer custom0, int bufferIndex, VertexBuffer vertexBuffer, IEngine engine, int numVertices) {
-        if (custom0 != null) {
-            custom0.rewind();
-            bufferIndex++;
+        vertexBuffer.setBufferAt(
+                engine.getFilamentEngine(), 1, geometry.attributes, 0, numVertices * geometry.attributeStride);
+        if (geometry.separateColor) {
             vertexBuffer.setBufferAt(
-                    engine.getFilamentEngine(), bufferIndex, custom0, 0, numVertices * F4_SIZE);
+                    engine.getFilamentEngine(), COLOR_BUFFER_INDEX, geometry.colors, 0, numVertices * 4);
         }
-        return bufferIndex;
     }
 
-    private void addAttributes(EnumSet<VertexAttribute> descriptionAttributes) {
+    private static VertexBuffer createVertexBuffer(SplatGeometry geometry) {
+        VertexBuffer.Builder builder = new VertexBuffer.Builder();
+        VertexBuffer.AttributeType float4Type = geometry.half
+                ? VertexBuffer.AttributeType.HALF4 : VertexBuffer.AttributeType.FLOAT4;
+        boolean compact = geometry.compact;
 
-        if (asset.f_dc != null){
-            descriptionAttributes.add(VertexAttribute.CUSTOM0);
+        if (geometry.textured) {
+            //纹理布局只有位置，材质按顶点序号读取纹理
+            builder.vertexCount(geometry.vertexCount).bufferCount(1);
+            builder.attribute(
+                    VertexAttribute.POSITION,
+                    0,
+                    VertexBuffer.AttributeType.FLOAT3,
+                    0,
+                    geometry.geometryStride);
+            return builder.build(EngineInstance.getEngine().getFilamentEngine());
         }
-        descriptionAttributes.add(VertexAttribute.CUSTOM1);
-        descriptionAttributes.add(VertexAttribute.CUSTOM2);
-    }
-
-
-    private static VertexBuffer createVertexBuffer(
-            int vertexCount, EnumSet<VertexAttribute> attributes) {
-        VertexBuffer.Builder builder = new VertexBuffer.Builder();
 
-        builder.vertexCount(vertexCount).bufferCount(attributes.size());
+        builder.vertexCount(geometry.vertexCount).bufferCount(geometry.separateColor ? 3 : 2);
 
-        // Position
-        int bufferIndex = 0;
+        // Position、Uv 交错存储于缓冲区0
         builder.attribute(
                 VertexAttribute.POSITION,
-                bufferIndex,
+                0,
                 VertexBuffer.AttributeType.FLOAT3,
                 0,
-                POSITION_SIZE * BYTES_PER_FLOAT);
-
-        // Uv
-        if (attributes.contains(VertexAttribute.UV0)) {
-            bufferIndex++;
-            builder.attribute(
-                    VertexAttribute.UV0,
-                    bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT2,
-                    0,
-                    UV_SIZE * BYTES_PER_FLOAT);
-        }
+                geometry.geometryStride);
+        builder.attribute(
+                VertexAttribute.UV0,
+                0,
+                compact ? VertexBuffer.AttributeType.HALF2 : VertexBuffer.AttributeType.FLOAT2,
+                SplatGeometry.UV_OFFSET,
+                geometry.geometryStride);
 
-        //desc-CUSTOM0
-        if (attributes.contains(VertexAttribute.CUSTOM0)){
-            bufferIndex++;
+        //desc-custom012 交错存储于缓冲区1，紧凑布局时颜色与旋转为归一化整数
+        if (geometry.separateColor) {
+            //颜色单独存储，可随视角更新
             builder.attribute(
                     VertexAttribute.CUSTOM0,
-                    bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
-                    0,
-                    F4_SIZE * BYTES_PER_FLOAT);
-        }
-        //desc-custom1
-        if (attributes.contains(VertexAttribute.CUSTOM1)){
-            bufferIndex++;
-            builder.attribute(
-                    VertexAttribute.CUSTOM1,
-                    bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
-                    0,
-                    F4_SIZE * BYTES_PER_FLOAT);
-        }
-        //desc-CUSTOM2
-        if (attributes.contains(VertexAttribute.CUSTOM2)){
-            bufferIndex++;
-            builder.attribute(
-                    VertexAttribute.CUSTOM2,
-                    bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
-                    0,
-                    F4_SIZE * BYTES_PER_FLOAT);
-        }
-        //desc-CUSTOM3
-        if (attributes.contains(VertexAttribute.CUSTOM3)){
-            bufferIndex++;
-            builder.attribute(
-                    VertexAttribute.CUSTOM3,
-                    bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
-                    0,
-                    F4_SIZE * BYTES_PER_FLOAT);
-        }
-        //desc-CUSTOM4
-        if (attributes.contains(VertexAttribute.CUSTOM4)){
-            bufferIndex++;
-            builder.attribute(
-                    VertexAttribute.CUSTOM4,
-                    bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
+                    COLOR_BUFFER_INDEX,
+                    VertexBuffer.AttributeType.UBYTE4,
                     0,
-                    F4_SIZE * BYTES_PER_FLOAT);
-        }
-        //desc-CUSTOM5
-        if (attributes.contains(VertexAttribute.CUSTOM5)){
-            bufferIndex++;
+                    4);
+            builder.normalized(VertexAttribute.CUSTOM0);
+        } else if (geometry.hasColor) {
             builder.attribute(
-                    VertexAttribute.CUSTOM5,
-                    bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
-                    0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+                    VertexAttribute.CUSTOM0,
+                    1,
+                    compact ? VertexBuffer.AttributeType.UBYTE4 : float4Type,
+                    geometry.colorOffset,
+                    geometry.attributeStride);
+            if (compact) {
+                builder.normalized(VertexAttribute.CUSTOM0);
+            }
         }
-        //desc-CUSTOM6
-        if (attributes.contains(VertexAttribute.CUSTOM6)){
-            bufferIndex++;
-            builder.attribute(
-                    VertexAttribute.CUSTOM6,
-                    bufferIndex,
-                    VertexBuffer.AttributeType.FLOAT4,
-                    0,
-                    F4_SIZE * BYTES_PER_FLOAT);
+        builder.attribute(
+                VertexAttribute.CUSTOM1,
+                1,
+                compact ? VertexBuffer.AttributeType.HALF4 : float4Type,
+                geometry.scaleOffset,
+                geometry.attributeStride);
+        builder.attribute(
+                VertexAttribute.CUSTOM2,
+                1,
+                compact ? VertexBuffer.AttributeType.SHORT4 : float4Type,
+                geometry.rotationOffset,
+                geometry.attributeStride);
+        if (compact) {
+            builder.normalized(VertexAttribute.CUSTOM2);
         }
 
         return builder.build(EngineInstance.getEngine().getFilamentEngine());
     }
 
-    private static void addVector3ToBuffer(Vector3 vector3, FloatBuffer buffer) {
-        buffer.put(vector3.x);
-        buffer.put(vector3.y);
-        buffer.put(vector3.z);
+    public void setGaussianSplat(JPlyGS3dAsset asset) {
+        this.asset = asset;
     }
 
-    private static void addFloat4ToBuffer(float a,float b,float c,float d, FloatBuffer buffer) {
-        buffer.put(a);
-        buffer.put(b);
-        buffer.put(c);
-        buffer.put(d);
-    }
-    private static void addFloat3ToBuffer(float a,float b,float c,FloatBuffer buffer) {
-        buffer.put(a);
-        buffer.put(b);
-        buffer.put(c);
-    }
-    private static void addUvToBuffer(Vertex.UvCoordinate uvCoordinate, FloatBuffer buffer) {
-        buffer.put(uvCoordinate.x);
-        buffer.put(uvCoordinate.y);
+    /**
+     * 设置是否以半精度上传float4属性（位置仍为float），显存与上传量减半，需在应用定义之前调用
+     * <p>用于量化数据，其精度本就不高于半精度</p>
+     */
+    public void setHalfAttributes(boolean halfAttributes) {
+        this.halfAttributes = halfAttributes;
     }
-    public void setGaussianSplat(JPlyGS3dAsset asset) {
-        this.asset = asset;
+
+    /**
+     * 设置是否使用紧凑顶点布局，颜色与旋转以归一化整数、缩放与UV以半精度上传，需在应用定义之前调用
+     * <p>着色器读到的仍为float，无需修改材质</p>
+     */
+    public void setCompactAttributes(boolean compactAttributes) {
+        this.compactAttributes = compactAttributes;
     }
-    public float check01(float src){
-        float v = src > 1 ? 1 : src;
-        return v < 0 ? 0:v;
+
+    /**
+     * 设置预先构建的几何数据，可在加载线程中调用{@link SplatGeometry#build}后传入
+     * <p>应用定义后即释放；纹理布局({@link SplatGeometry#buildTextured})的纹理由调用方创建并绑定到材质</p>
+     */
+    void setGeometry(SplatGeometry geometry) {
+        this.geometry = geometry;
     }
 }
@@ -46,6 +46,12 @@ public class RenderableInstance implements AnimatableModel {
     private final InstanceCleanupData cleanupData;
     private boolean destroyed;
     int renderableId = ChangeId.EMPTY_ID;
+    //变换是否需要重新上传，首次渲染时总是上传
+    private boolean transformDirty = true;
+    //变换提供者是否会通知变换变化，否则每帧上传
+    private boolean transformTracked;
+    //上次上传时Renderable最终模型矩阵的版本
+    private int uploadedFinalMatrixVersion = ChangeId.EMPTY_ID;
 
     @Nullable
     Animator filamentAnimator;
@@ -172,6 +178,46 @@ public class RenderableInstance implements AnimatableModel {
         return (childEntity == 0) ? entity : childEntity;
     }
 
+    /**
+     * 设置变换提供者是否会在变换变化时调用{@link #markTransformDirty()}
+     * <p>开启后，仅在变换变化时上传模型矩阵</p>
+     * @hide
+     */
+    public void setTransformTracked(boolean transformTracked) {
+        this.transformTracked = transformTracked;
+        transformDirty = true;
+    }
+
+    /**
+     * 标记变换已变化，下一帧重新上传模型矩阵
+     * @hide
+     */
+    public void markTransformDirty() {
+        transformDirty = true;
+    }
+
+    /**
+     * 本帧是否需要上传模型矩阵
+     */
+    boolean isTransformDirty() {
+        return transformDirty || !transformTracked
+                || uploadedFinalMatrixVersion != renderable.getFinalModelMatrixVersion();
+    }
+
+    void clearTransformDirty() {
+        transformDirty = false;
+        uploadedFinalMatrixVersion = renderable.getFinalModelMatrixVersion();
+    }
+
+    /**
+     * 获取用于设置模型矩阵的变换组件实例
+     */
+    @EntityInstance
+    int getTransformInstance(TransformManager transformManager) {
+        // 与setModelMatrix相同，使用entity而不是childEntity
+        return transformManager.getInstance(entity);
+    }
+
     void setModelMatrix(TransformManager transformManager, @Size(min = 16) float[] transform) {
         // Use entity, rather than childEntity; setting the latter would slam the local transform which
         // corrects for scaling and offset.
@@ -397,6 +443,7 @@ public class RenderableInstance implements AnimatableModel {
         if (changeId.checkChanged(renderableId)) {
             renderableInternalData.buildInstanceData(this, getRenderedEntity());
             renderableId = changeId.get();
+            transformDirty = true;
             // 第一次渲染，所以总是更新蒙皮skinning，即使我们没有动画和没有skinModifier
             updateSkinning();
         } else {
@@ -409,7 +456,8 @@ public class RenderableInstance implements AnimatableModel {
         if (renderableInternalData instanceof IVertexSort){
             //CPU顶点排序，在使用Transparent混合的材质中，需对顶点进行排序。否则会渲染错乱
             ((IVertexSort)renderableInternalData)
-                    .sortForViewChange(cameraProvider.getWorldModelMatrix(),getWorldModelMatrix());
+                    .sortForViewChange(cameraProvider.getWorldModelMatrix(),getWorldModelMatrix(),
+                            cameraProvider.getProjectionMatrix());
         }
     }
 
@@ -433,6 +481,7 @@ public class RenderableInstance implements AnimatableModel {
     public void attachToRenderer(Renderer renderer) {
         renderer.addInstance(this);
         attachedRenderer = renderer;
+        transformDirty = true;
         renderable.attachToRenderer(renderer);
         attachFilamentAssetToRenderer();
     }
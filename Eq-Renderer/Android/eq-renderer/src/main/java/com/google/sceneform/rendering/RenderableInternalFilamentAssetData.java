@@ -35,6 +35,7 @@ import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
@@ -57,6 +58,9 @@ public class RenderableInternalFilamentAssetData implements IRenderableInternalD
     boolean isGltfBinary;
     ResourceLoader resourceLoader;
     @Nullable Function<String, Uri> urlResolver;
+    //最近一次创建时读取的外部buffer与纹理的字节数
+    private volatile long resourceBytes;
+    @Nullable private volatile Runnable resourcesLoadedListener;
 
     public void create(RenderableInstance instance) {
         Renderable renderable = instance.getRenderable();
@@ -79,22 +83,22 @@ public class RenderableInternalFilamentAssetData implements IRenderableInternalD
                             new Vector3(center[0], center[1], center[2]));
         }
 
-        for (String uri : filamentAsset.getResourceUris()) {
-            if (urlResolver == null) {
-                Log.e(RenderableInternalFilamentAssetData.class.getSimpleName(),
-                        "Failed to download uri " + uri + " no url resolver.");
-                continue;
-            }
-            Uri dataUri = urlResolver.apply(uri);
-            try {
-                Callable<InputStream> callable = LoadHelper.fromUri(context, dataUri);
-                resourceLoader.addResourceData(
-                        uri, ByteBuffer.wrap(SceneformBufferUtils.inputStreamCallableToByteArray(callable)));
-            } catch (Exception e) {
-                Log.e(RenderableInternalFilamentAssetData.class.getSimpleName(),
-                        "Failed to download data uri " + dataUri, e);
+        String[] resourceUris = filamentAsset.getResourceUris();
+        //开启异步加载时，外部buffer与纹理在加载线程读取并异步上传，不阻塞主线程
+        if (renderable.asyncLoadEnabled && resourceUris.length > 0) {
+            loadResourcesAsync(filamentAsset, resourceUris);
+            return;
+        }
+
+        long bytes = 0;
+        for (String uri : resourceUris) {
+            ByteBuffer data = readResource(uri);
+            if (data != null) {
+                resourceLoader.addResourceData(uri, data);
+                bytes += data.limit();
             }
         }
+        onResourcesRead(bytes);
 
         if(renderable.asyncLoadEnabled) {
             resourceLoader.asyncBeginLoad(filamentAsset);
@@ -104,6 +108,80 @@ public class RenderableInternalFilamentAssetData implements IRenderableInternalD
 
     }
 
+    /**
+     * 在加载线程读取外部buffer与纹理，完成后在主线程通过{@link ResourceLoader#asyncBeginLoad}异步上传
+     * <p>期间实体已加入场景，资源就绪后逐步显示，不阻塞主线程</p>
+     */
+    private void loadResourcesAsync(FilamentAsset asset, String[] resourceUris) {
+        CompletableFuture.supplyAsync(
+                () -> {
+                    ByteBuffer[] data = new ByteBuffer[resourceUris.length];
+                    for (int i = 0; i < resourceUris.length; i++) {
+                        data[i] = readResource(resourceUris[i]);
+                    }
+                    return data;
+                },
+                ThreadPools.getThreadPoolExecutor())
+                .thenAcceptAsync(
+                        data -> {
+                            //读取期间已销毁或重新创建
+                            if (filamentAsset != asset || resourceLoader == null) {
+                                return;
+                            }
+                            long bytes = 0;
+                            for (int i = 0; i < resourceUris.length; i++) {
+                                if (data[i] != null) {
+                                    resourceLoader.addResourceData(resourceUris[i], data[i]);
+                                    bytes += data[i].limit();
+                                }
+                            }
+                            resourceLoader.asyncBeginLoad(asset);
+                            onResourcesRead(bytes);
+                        },
+                        ThreadPools.getMainExecutor());
+    }
+
+    private void onResourcesRead(long bytes) {
+        resourceBytes = bytes;
+        Runnable listener = resourcesLoadedListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * 设置外部资源读取完成的回调(主线程)，用于更新模型缓存的大小
+     */
+    void setResourcesLoadedListener(@Nullable Runnable listener) {
+        resourcesLoadedListener = listener;
+    }
+
+    /**
+     * 获取glTF数据与已读取的外部buffer、纹理的字节数(估算)
+     */
+    long getSizeInBytes() {
+        Buffer buffer = gltfByteBuffer;
+        return (buffer != null ? buffer.limit() : 0) + resourceBytes;
+    }
+
+    @Nullable
+    private ByteBuffer readResource(String uri) {
+        if (urlResolver == null) {
+            Log.e(RenderableInternalFilamentAssetData.class.getSimpleName(),
+                    "Failed to download uri " + uri + " no url resolver.");
+            return null;
+        }
+        Uri dataUri = urlResolver.apply(uri);
+        try {
+            Callable<InputStream> callable = LoadHelper.fromUri(context, dataUri);
+            return SceneformBufferUtils.inputStreamCallableToDirectByteBuffer(callable);
+        } catch (Exception e) {
+            Log.e(RenderableInternalFilamentAssetData.class.getSimpleName(),
+                    "Failed to download data uri " + dataUri, e);
+            return null;
+        }
+    }
+
     public FilamentAsset getFilamentAsset(){
         return this.filamentAsset;
     }
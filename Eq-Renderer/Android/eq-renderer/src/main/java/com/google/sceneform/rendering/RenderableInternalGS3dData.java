@@ -3,11 +3,18 @@ package com.google.sceneform.rendering;
 import android.content.Context;
 import android.net.Uri;
 
+import androidx.annotation.Nullable;
+
 import androidx.annotation.NonNull;
 
-import com.eqgis.eqr.core.GaussianSorter;
+import com.eqgis.eqr.core.GaussianChunks;
+import com.eqgis.eqr.core.GaussianRadixSorter;
+import com.eqgis.eqr.core.IGaussianSorter;
+import com.eqgis.eqr.core.PlyCacheFile;
 import com.eqgis.eqr.core.PlyGS3dLoader;
+import com.eqgis.eqr.core.PlyStreamReader;
 import com.eqgis.eqr.data.JPlyGS3dAsset;
+import com.google.android.filament.EntityInstance;
 import com.google.android.filament.IndexBuffer;
 import com.google.android.filament.RenderableManager;
 import com.google.android.filament.VertexBuffer;
@@ -16,11 +23,15 @@ import com.google.sceneform.math.Matrix;
 import com.google.sceneform.math.Vector3;
 import com.google.sceneform.utilities.LoadHelper;
 
-import java.nio.IntBuffer;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.function.Function;
 
@@ -32,7 +43,12 @@ import java.util.function.Function;
  * @author tanyx 2026/1/8
  * @version 1.0
  **/
-public class RenderableInternalGS3dData extends RenderableInternalData implements LoadRenderableFromUniversalDataTask.IUniversalData, IVertexSort {
+public class RenderableInternalGS3dData extends RenderableInternalData implements LoadRenderableFromUniversalDataTask.IUniversalData,
+        LoadRenderableFromUniversalDataTask.IStreamingData, IVertexSort {
+    //量化存储高斯点属性，常驻内存约为原来的1/3.5，GPU属性以半精度上传；默认关闭
+    public static boolean QUANTIZE_ATTRIBUTES = false;
+    //首次流式加载后将解析结果写入缓存目录，之后直接读取缓存；默认开启
+    public static boolean USE_CACHE = true;
     private PlyGS3dLoader gs3dLoader;
     private Context context;
     private byte[] byteBuffer;
@@ -46,8 +62,13 @@ public class RenderableInternalGS3dData extends RenderableInternalData implement
 
     @Override
     public void create(RenderableInstance instance) {
-        gs3dLoader = new PlyGS3dLoader();
-        asset = gs3dLoader.createAssets(byteBuffer);
+        if (asset == null) {
+            //未经流式加载，解析完整数据
+            gs3dLoader = new PlyGS3dLoader();
+            gs3dLoader.setQuantize(QUANTIZE_ATTRIBUTES);
+            asset = gs3dLoader.createAssets(byteBuffer);
+        }
+        chunks = gs3dLoader.getChunks();
         byteBuffer = null;// 主动置空，使其尽早符合回收条件
 
         Renderable renderable = instance.getRenderable();
@@ -86,12 +107,17 @@ public class RenderableInternalGS3dData extends RenderableInternalData implement
         }
 
         int vertexCount = asset.vertices.length / 3;//xyz三个分量
-        sorter = new GaussianSorter(vertexCount);
+        if (sortWorkerCount > 1) {
+            sortWorkers = new ForkJoinPool(sortWorkerCount);
+        }
+        sorter = sorterFactory.create(vertexCount, sortWorkers);
         cameraModelMatCache = new Matrix();
         modelModelMatCache = new Matrix();
-        indicesCache = new int[vertexCount];
+        projectionMatCache = new Matrix();
+        visibleCache = new int[vertexCount];
 
         ArrayList<Integer> triangleIndices = getIndices(vertexCount);
+        indexRing = new SplatIndexRing(vertexCount, INDEX_RING_SIZE);
         ArrayList<Vertex> vertices = getVertices(vertexCount);
 
         //虽不是Mesh，但是复用Mesh数据结构{顶点索引、材质实例}
@@ -102,14 +128,44 @@ public class RenderableInternalGS3dData extends RenderableInternalData implement
         renderableDefinition = new RenderableDefinitionGS();
         renderableDefinition.setSubGeometries(Collections.singletonList(subGeometry));
         renderableDefinition.setVertices(vertices);
-        renderableDefinition.setGaussianSplat(asset);
+        //量化时asset只含位置，上传前临时解码全部属性
+        JPlyGS3dAsset decoded = gs3dLoader.decode();
+        renderableDefinition.setGaussianSplat(decoded != null ? decoded : asset);
+        renderableDefinition.setHalfAttributes(decoded != null);
 
         instance.getRenderable().updateFromDefinition(renderableDefinition);
+        if (decoded != null) {
+            //上传后释放解码数据
+            renderableDefinition.setGaussianSplat(asset);
+        }
     }
 
     @Override
     public void buildInstanceData(RenderableInstance instance, int renderedEntity) {
         super.buildInstanceData(instance, renderedEntity);
+        //重建后绘制全部索引，待下一次上传时按剔除结果更新
+        this.renderedEntity = renderedEntity;
+        drawIndexCount = -1;
+    }
+
+    /**
+     * 按剔除后的索引数量更新绘制范围
+     */
+    private void updateDrawRange(int indexCount) {
+        RenderableManager renderableManager = EngineInstance.getEngine().getRenderableManager();
+        @EntityInstance int renderableInstance = renderableManager.getInstance(renderedEntity);
+        if (renderableInstance == 0 || getVertexBuffer() == null) {
+            return;
+        }
+        renderableManager.setGeometryAt(
+                renderableInstance,
+                0,
+                primitiveType,
+                getVertexBuffer(),
+                getIndexBuffer(),
+                0,
+                indexCount);
+        drawIndexCount = indexCount;
     }
 
     /**
@@ -147,6 +203,36 @@ public class RenderableInternalGS3dData extends RenderableInternalData implement
 
     }
 
+    /**
+     * 设置顶点排序引擎
+     * <p>需在数据加载完成前设置，默认采用{@link GaussianRadixSorter}</p>
+     * @param sorterFactory 排序引擎工厂，如 {@code GaussianSorter::new}
+     */
+    public void setSorterFactory(IGaussianSorter.Factory sorterFactory) {
+        this.sorterFactory = sorterFactory;
+    }
+
+    /**
+     * 获取空间分块
+     * <p>可用于关闭视锥剔除或设置LOD阈值，如 {@code getChunks().setLodScreenSize(0.05f)}</p>
+     * @return 分块，数据加载完成前为null
+     */
+    public GaussianChunks getChunks() {
+        return chunks;
+    }
+
+    /**
+     * 设置排序线程数
+     * <p>需在数据加载完成前设置，默认为1，即在单个排序线程中串行排序</p>
+     * @param sortWorkerCount 线程数，建议不超过CPU核数
+     */
+    public void setSortWorkerCount(int sortWorkerCount) {
+        if (sortWorkerCount < 1) {
+            throw new IllegalArgumentException("sortWorkerCount must be >= 1");
+        }
+        this.sortWorkerCount = sortWorkerCount;
+    }
+
     /**
      * 获取材质
      * <p>
@@ -161,10 +247,22 @@ public class RenderableInternalGS3dData extends RenderableInternalData implement
 
     @Override
     public void dispose() {
+        if (currentSortTask != null) {
+            currentSortTask.cancel(true);
+        }
+        sortExecutor.shutdown();
+        if (sortWorkers != null) {
+            sortWorkers.shutdown();
+            sortWorkers = null;
+        }
+
         super.dispose();
         if (gs3dLoader == null)return;
         gs3dLoader.destroyPlyAsset();
         gs3dLoader = null;
+        indexRing = null;
+        chunks = null;
+        visibleCache = null;
     }
 
     @Override
@@ -177,18 +275,69 @@ public class RenderableInternalGS3dData extends RenderableInternalData implement
         this.byteBuffer = bytes;
     }
 
+    @Override
+    public boolean loadFromStream(InputStream inputStream, @Nullable Uri sourceUri) throws IOException {
+        PlyGS3dLoader loader = new PlyGS3dLoader();
+        loader.setQuantize(QUANTIZE_ATTRIBUTES);
+        if (USE_CACHE && context != null) {
+            long sourceId = PlyCacheFile.sourceId(inputStream, sourceUri == null ? null : sourceUri.toString());
+            inputStream = new BufferedInputStream(inputStream, PlyCacheFile.FINGERPRINT_BYTES);
+            long fingerprint = PlyCacheFile.fingerprint(inputStream, sourceId);
+            loader.setCacheFile(PlyCacheFile.getCacheFile(context.getCacheDir(), fingerprint), fingerprint);
+            JPlyGS3dAsset cached = loader.loadCache();
+            if (cached != null) {
+                asset = cached;
+                gs3dLoader = loader;
+                inputStream.close();
+                return true;
+            }
+        }
+
+        PlyStreamReader reader = new PlyStreamReader(Channels.newChannel(inputStream));
+        if (!reader.isSupported()) {
+            return false;
+        }
+        //排序与分块需要完整数据，故在加载线程中一次读完
+        try {
+            asset = loader.createAssets(reader, null);
+            gs3dLoader = loader;
+        } finally {
+            reader.close();
+        }
+        return true;
+    }
+
     @Override
     public void setUrlResolver(Function<String, Uri> resolver) {
         this.urlResolver = resolver;
     }
 
+    @Override
+    public long getSizeInBytes() {
+        if (byteBuffer != null) {
+            return byteBuffer.length;
+        }
+        return asset != null ? asset.getSizeInBytes() : 0;
+    }
 
-    private GaussianSorter sorter;
-    private int[] indicesCache;
+
+    private IGaussianSorter sorter;
+    private IGaussianSorter.Factory sorterFactory = GaussianRadixSorter::new;
+    //排序线程数，大于1时深度计算与排序在sortWorkers中并行
+    private int sortWorkerCount = 1;
+    private ForkJoinPool sortWorkers;
+    private static final int INDEX_RING_SIZE = 3;
+    private SplatIndexRing indexRing;
+    //空间分块，每帧排序前做视锥剔除与LOD，只排序存活的高斯点
+    private GaussianChunks chunks;
+    private int[] visibleCache;
+    //当前绘制的索引数量，-1表示需要重新设置绘制范围
+    private int drawIndexCount = -1;
+    private int renderedEntity;
 
     private static final boolean DEBUG_TIME = true;
 
-    private Matrix cameraModelMatCache,  modelModelMatCache;
+    private Matrix cameraModelMatCache,  modelModelMatCache, projectionMatCache;
 
     private final ExecutorService sortExecutor = Executors.newSingleThreadExecutor();
     private Future<?> currentSortTask;
@@ -196,21 +345,23 @@ public class RenderableInternalGS3dData extends RenderableInternalData implement
     private final Runnable uploadRunnable = new Runnable() {
         @Override
         public void run() {
-            if (getIndexBuffer() != null) {
-                getIndexBuffer().setBuffer(
-                        EngineInstance.getEngine().getFilamentEngine(),
-                        IntBuffer.wrap(indicesCache)
-                );
+            SplatIndexRing ring = indexRing;
+            if (getIndexBuffer() != null && ring != null) {
+                int count = ring.upload(EngineInstance.getEngine().getFilamentEngine(), getIndexBuffer());
+                if (count >= 0 && count != drawIndexCount) {
+                    updateDrawRange(count);
+                }
             }
         }
     };
-    private boolean idle = true;
+    private volatile boolean idle = true;
 
     @Override
-    public void sortForViewChange(Matrix cameraModelMat, Matrix modelModelMat) {
+    public void sortForViewChange(Matrix cameraModelMat, Matrix modelModelMat, Matrix projectionMat) {
         if (getIndexBuffer() == null) return;
         cameraModelMatCache.set(cameraModelMat.data);
         modelModelMatCache.set(modelModelMat.data);
+        projectionMatCache.set(projectionMat.data);
 
         if (idle) {
             idle = false;
@@ -236,38 +387,68 @@ public class RenderableInternalGS3dData extends RenderableInternalData implement
     private void sort() {
 
         if (material != null && sorter != null &&
-                indicesCache != null && indicesCache.length > 0) {
+                indexRing != null && chunks != null) {
+            SplatIndexRing ring = indexRing;
+            // 所有缓冲区都在上传中，跳过本次排序
+            SplatIndexRing.Slot slot = ring.acquire();
+            if (slot == null) return;
 
             long tSort0 = 0;
             if (DEBUG_TIME) tSort0 = System.nanoTime();
 
-            sorter.sortSingle(
-                    asset.vertices,
+            int visibleCount = chunks.cull(
                     modelModelMatCache.data,
                     cameraModelMatCache.data,
-                    indicesCache
+                    projectionMatCache.data,
+                    visibleCache
             );
+            if (chunks.isVisibleChanged()) {
+                //可见集变化，上一次的顺序不可复用
+                sorter.reset();
+            }
+
+            boolean sorted = false;
+            try {
+                sorter.sortSingle(
+                        asset.vertices,
+                        visibleCache,
+                        visibleCount,
+                        modelModelMatCache.data,
+                        cameraModelMatCache.data,
+                        slot.buffer
+                );
+                slot.count = visibleCount;
+                sorted = true;
+            } finally {
+                //排序被取消或异常时归还缓冲区，避免写了一半的索引被上传
+                if (sorted) {
+                    ring.publish(slot);
+                } else {
+                    ring.recycle(slot);
+                }
+            }
 
             long tSort1 = 0;
             if (DEBUG_TIME) tSort1 = System.nanoTime();
 
             if (DEBUG_TIME) {
-                logTime(tSort0, tSort1);
+                logTime(tSort0, tSort1, visibleCount);
             }
         }
     }
 
     private void logTime(
             long tSortStart,
-            long tSortEnd
+            long tSortEnd,
+            int visibleCount
     ) {
         double sortMs  = (tSortEnd - tSortStart) / 1_000_000.0;
 
         android.util.Log.d(
                 "IKkyu  GaussianSort ",
                 String.format(
-                        "Sort %.2f ms ",
-                        sortMs
+                        "Sort %.2f ms, visible %d ",
+                        sortMs, visibleCount
                 )
         );
     }
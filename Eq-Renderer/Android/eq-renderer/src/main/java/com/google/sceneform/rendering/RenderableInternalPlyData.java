@@ -2,16 +2,31 @@ package com.google.sceneform.rendering;
 
 import android.content.Context;
 import android.net.Uri;
+import android.util.Log;
 
-import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.eqgis.eqr.core.FilamentPrimitiveUtilsNative;
+import com.eqgis.eqr.core.PlyCacheFile;
 import com.eqgis.eqr.core.PlyLoader;
+import com.eqgis.eqr.core.PlyMappedPointCloud;
+import com.eqgis.eqr.core.PlyStreamReader;
+import com.eqgis.eqr.core.PointCloudOctree;
 import com.eqgis.eqr.data.JPlyAsset;
 import com.google.android.filament.RenderableManager;
+import com.google.sceneform.math.Matrix;
 import com.google.sceneform.math.Vector3;
-import java.util.ArrayList;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Locale;
 import java.util.function.Function;
 
 /**
@@ -22,33 +37,60 @@ import java.util.function.Function;
  * @author tanyx 2026/1/5
  * @version 1.0
  **/
-public class RenderableInternalPlyData extends RenderableInternalData implements LoadRenderableFromUniversalDataTask.IUniversalData {
+public class RenderableInternalPlyData extends RenderableInternalData implements LoadRenderableFromUniversalDataTask.IUniversalData,
+        LoadRenderableFromUniversalDataTask.IStreamingData, IVertexSort {
+    private static final String TAG = RenderableInternalPlyData.class.getSimpleName();
     public static float DEFAULT_POINT_SIZE = 2;
+    //点云预览的顶点数量，超过此数量时先显示预览，其余在后台继续读取
+    public static int PREVIEW_VERTEX_COUNT = PlyStreamReader.DEFAULT_BATCH_SIZE;
+    //本地文件中的点云（无面、法线、纹理坐标）通过内存映射直接作为顶点缓冲区
+    public static boolean USE_MEMORY_MAPPING = true;
+    //首次流式加载后将解析结果写入缓存目录，之后直接读取缓存；默认开启
+    public static boolean USE_CACHE = true;
+    //本地文件中的点云超过此数量时，首次加载构建八叉树节点文件，之后按视角流式加载节点；0表示关闭
+    public static int OCTREE_LOD_VERTEX_COUNT = 4_000_000;
+    //八叉树LOD的点数预算
+    public static int LOD_POINT_BUDGET = 2_000_000;
+    //八叉树LOD的GPU顶点缓冲池槽数量，每个槽存放一个节点
+    public static int LOD_POOL_SIZE = 256;
+    //八叉树LOD的屏幕空间误差阈值，点间距投影后占屏幕高度的比例
+    public static float LOD_SCREEN_ERROR = 0.002f;
     private static final String POINT_SIZE_NAME = "pointSize";
     private static final String USE_VERTEX_COLORS = "useVertexColors";
     private PlyLoader plyLoader;
     private Context context;
     private byte[] byteBuffer;
     private Function<String, Uri> urlResolver;
-    private RenderableDefinition renderableDefinition;
+    private RenderableDefinitionPacked renderableDefinition;
+    //与assets对应的已准备几何数据，在加载线程准备
+    private PreparedGeometry preparedGeometry;
     private Material material;
     private JPlyAsset assets;
+    private PlyMappedPointCloud mappedCloud;
+    private PointCloudLodStreamer lodStreamer;
+    private RenderableInstance instance;
+    //当前为预览数据，完整数据仍在后台读取
+    private boolean streaming;
+    //碰撞体由预览数据生成，完整数据读取后更新
+    private boolean previewCollision;
+    private volatile boolean disposed;
 
     @Override
     public void create(RenderableInstance instance) {
-        plyLoader = new PlyLoader();
-        assets = plyLoader.createAssets(byteBuffer);
+        if (assets == null && mappedCloud == null && lodStreamer == null) {
+            //未经流式加载，解析完整数据
+            plyLoader = new PlyLoader();
+            assets = plyLoader.createAssets(byteBuffer);
+        }
         byteBuffer = null;// 主动置空，使其尽早符合回收条件
+        this.instance = instance;
 
         Renderable renderable = instance.getRenderable();
         if (renderable.collisionShape == null) {
-            com.google.android.filament.Box box = plyLoader.getBoundingBox();
-            float[] halfExtent = box.getHalfExtent();
-            float[] center = box.getCenter();
-            renderable.collisionShape =
-                    new com.google.sceneform.collision.Box(
-                            new Vector3(halfExtent[0], halfExtent[1], halfExtent[2]).scaled(2.0f),
-                            new Vector3(center[0], center[1], center[2]));
+            renderable.collisionShape = toCollisionBox(
+                    lodStreamer != null ? lodStreamer.getTree().getAabb()
+                            : mappedCloud != null ? mappedCloud.getAabb() : assets.aabb);
+            previewCollision = streaming;
         }
 
         Material.builder()
@@ -65,11 +107,46 @@ public class RenderableInternalPlyData extends RenderableInternalData implements
     @Override
     public void dispose() {
         super.dispose();
+        disposed = true;
+        instance = null;
+        mappedCloud = null;
+        if (lodStreamer != null) {
+            lodStreamer.dispose();
+            lodStreamer = null;
+        }
         if (plyLoader == null)return;
         plyLoader.destroyPlyAsset();
         plyLoader = null;
     }
 
+    /**
+     * 设置八叉树LOD的点数预算
+     * <p>仅对流式加载的八叉树点云有效，不超过加载时的{@link #LOD_POINT_BUDGET}</p>
+     */
+    public void setLodPointBudget(int pointBudget) {
+        if (lodStreamer != null) {
+            lodStreamer.setPointBudget(pointBudget);
+        }
+    }
+
+    /**
+     * 设置八叉树LOD的屏幕空间误差阈值
+     * <p>仅对流式加载的八叉树点云有效，值越小细节越多</p>
+     * @param screenError 点间距投影后占屏幕高度的比例
+     */
+    public void setLodScreenError(float screenError) {
+        if (lodStreamer != null) {
+            lodStreamer.setScreenError(screenError);
+        }
+    }
+
+    /**
+     * 是否以八叉树LOD流式加载
+     */
+    public boolean isOctreeLod() {
+        return lodStreamer != null;
+    }
+
     /**
      * 获取材质
      * <p>
@@ -82,140 +159,328 @@ public class RenderableInternalPlyData extends RenderableInternalData implements
         return material;
     }
 
+    private static com.google.sceneform.collision.Box toCollisionBox(float[] aabb) {
+        return new com.google.sceneform.collision.Box(
+                new Vector3(aabb[3] - aabb[0], aabb[4] - aabb[1], aabb[5] - aabb[2]),
+                new Vector3((aabb[0] + aabb[3]) / 2, (aabb[1] + aabb[4]) / 2, (aabb[2] + aabb[5]) / 2));
+    }
+
     private void createPrimitive(RenderableInstance instance, Material mat) {
         material = mat;
         MaterialFactory.applyDefaultPbrParams(material);
         material.setFloat4(MaterialFactory.MATERIAL_COLOR, new Color(1, 1, 1,1));
+        if (lodStreamer != null) {
+            createLodPrimitive(instance);
+            return;
+        }
+        if (mappedCloud != null) {
+            createMappedPrimitive(instance);
+            return;
+        }
         //若顶点数据存在，则使用顶点颜色
         material.setBoolean(USE_VERTEX_COLORS,assets.colors != null);
 
+        if (preparedGeometry == null) {
+            //未经加载线程准备（直接设置数据），在当前线程准备
+            preparedGeometry = prepareGeometry(assets);
+        }
+        primitiveType = preparedGeometry.getPrimitiveType();
+
+        renderableDefinition = RenderableDefinitionPacked.builder()
+                .setGeometry(preparedGeometry)
+                .addSubGeometry(material)
+                .build();
+        instance.getRenderable().updateFromDefinition(renderableDefinition);
+        Log.d(TAG, String.format(Locale.ROOT, "%d vertices, prepare %.1f ms, upload %.1f ms",
+                preparedGeometry.getVertexCount(),
+                preparedGeometry.getPrepareNanos() / 1e6,
+                renderableDefinition.getUploadNanos() / 1e6));
+    }
+
+    /**
+     * 内存映射的点云，顶点缓冲区直接使用映射区
+     */
+    private void createMappedPrimitive(RenderableInstance instance) {
+        material.setBoolean(USE_VERTEX_COLORS, mappedCloud.hasColors());
+        primitiveType = RenderableManager.PrimitiveType.POINTS;
+
+        RenderableDefinition.SubGeometry subGeometry =
+                RenderableDefinition.SubGeometry.builder()
+                        .setTriangleIndices(Collections.emptyList()).setMaterial(material).build();
+        RenderableDefinitionPointCloud definition = new RenderableDefinitionPointCloud();
+        definition.setPointCloud(mappedCloud);
+        definition.setSubGeometries(Collections.singletonList(subGeometry));
+        instance.getRenderable().updateFromDefinition(definition);
+    }
+
+    /**
+     * 八叉树点云，顶点缓冲区为节点缓冲池，随视角流式加载
+     */
+    private void createLodPrimitive(RenderableInstance instance) {
+        material.setBoolean(USE_VERTEX_COLORS, lodStreamer.getTree().hasColors());
+        primitiveType = RenderableManager.PrimitiveType.POINTS;
+
+        RenderableDefinition.SubGeometry subGeometry =
+                RenderableDefinition.SubGeometry.builder()
+                        .setTriangleIndices(Collections.emptyList()).setMaterial(material).build();
+        RenderableDefinitionPointCloudLod definition = new RenderableDefinitionPointCloudLod();
+        definition.setStreamer(lodStreamer);
+        definition.setSubGeometries(Collections.singletonList(subGeometry));
+        instance.getRenderable().updateFromDefinition(definition);
+    }
+
+    @Override
+    public void buildInstanceData(RenderableInstance instance, int renderedEntity) {
+        super.buildInstanceData(instance, renderedEntity);
+        if (lodStreamer != null) {
+            lodStreamer.setRenderedEntity(renderedEntity);
+        }
+    }
+
+    @Override
+    public void sortForViewChange(Matrix cameraModelMat, Matrix modelModelMat, Matrix projectionMat) {
+        //点云不透明无需排序，仅八叉树LOD按视角选择节点
+        if (lodStreamer != null) {
+            lodStreamer.update(cameraModelMat, modelModelMat, projectionMat);
+        }
+    }
+
+    /**
+     * 准备网格数据（加载线程），缺少法线时由面计算平滑法线
+     * <p>无面和三角带时按顶点顺序绘制点</p>
+     */
+    private static PreparedGeometry prepareGeometry(JPlyAsset assets) {
         if (assets.vertices == null) {
             throw new IllegalArgumentException("assets.vertices must not be null");
         }
 
-        int vertexCount = assets.vertices.length / 3;//xyz三个分量
-
         if (assets.normals == null && assets.faces != null){
             //补法线，采用平滑法线（Smooth Shading）计算方法
             assets.normals = FilamentPrimitiveUtilsNative.nComputeVertexNormals(assets.vertices, assets.faces);
         }
 
-        ArrayList<Integer> triangleIndices = getIndices(vertexCount);
-        ArrayList<Vertex> vertices = getVertices(vertexCount);
+        PreparedGeometry.Builder builder = PreparedGeometry.builder()
+                .setPositions(assets.vertices)
+                .setNormals(assets.normals);
+        //优先使用UV
+        if (assets.texcoords != null) {
+            builder.setUvs(assets.texcoords);
+        } else {
+            builder.setColors(assets.colors);
+        }
 
-        RenderableDefinition.SubGeometry subGeometry =
-                RenderableDefinition.SubGeometry.builder()
-                        .setTriangleIndices(triangleIndices).setMaterial(material).build();
+        if (assets.faces != null) {
+            builder.setIndices(assets.faces)
+                    .setPrimitiveType(RenderableManager.PrimitiveType.TRIANGLES);
+        } else if (assets.tripstrip != null) {
+            builder.setIndices(assets.tripstrip)
+                    .setPrimitiveType(RenderableManager.PrimitiveType.TRIANGLE_STRIP);
+        } else {
+            //在 Filament 中，即使渲染的是 POINTS 图元，也必须提供 IndexBuffer，未设置索引时按顶点顺序生成
+            builder.setPrimitiveType(RenderableManager.PrimitiveType.POINTS);
+        }
+        return builder.build();
+    }
 
-        renderableDefinition =
-                RenderableDefinition.builder()
-                        .setVertices(vertices)
-                        .setSubGeometries(Collections.singletonList(subGeometry))
-                        .build();
-        instance.getRenderable().updateFromDefinition(renderableDefinition);
+    @Override
+    public void setContext(Context context) {
+        this.context = context;
     }
 
-    /**
-     * 获取索引
-     */
-    @NonNull
-    private ArrayList<Integer> getIndices(int vertexCount) {
-        ArrayList<Integer> triangleIndices;
-        if (assets.faces == null){
-            if (assets.tripstrip != null){
-                triangleIndices = new ArrayList<>(assets.tripstrip.length);
-                for (int v : assets.tripstrip) {
-                    triangleIndices.add(v);
+    @Override
+    public void setData(byte[] bytes) {
+        this.byteBuffer = bytes;
+    }
+
+    @Override
+    public boolean loadFromStream(InputStream inputStream, @Nullable Uri sourceUri) throws IOException {
+        if (USE_MEMORY_MAPPING && inputStream instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) inputStream).getChannel();
+            long start = channel.position();
+            File octreeFile = null;
+            long fingerprint = 0;
+            if (OCTREE_LOD_VERTEX_COUNT > 0 && context != null) {
+                //节点文件已存在时无需映射源文件
+                fingerprint = PlyCacheFile.fingerprint(channel);
+                octreeFile = PointCloudOctree.getFile(context.getCacheDir(), fingerprint);
+                lodStreamer = openOctree(octreeFile, fingerprint);
+                if (lodStreamer != null) {
+                    inputStream.close();
+                    return true;
                 }
-                primitiveType = RenderableManager.PrimitiveType.TRIANGLE_STRIP;
-            }else {
-                //在 Filament 中，即使渲染的是 POINTS 图元，也必须提供 IndexBuffer，因此若无数据，也必须构造
-                triangleIndices = new ArrayList<>(vertexCount);
-                for (int i = 0; i < vertexCount; i++) {
-                    triangleIndices.add(i);
+            }
+            PlyMappedPointCloud cloud = PlyMappedPointCloud.map(channel);
+            if (cloud != null) {
+                if (octreeFile != null && cloud.getVertexCount() >= OCTREE_LOD_VERTEX_COUNT) {
+                    lodStreamer = buildOctree(cloud, octreeFile, fingerprint);
                 }
-                primitiveType = RenderableManager.PrimitiveType.POINTS;
+                //映射建立后不再依赖文件句柄
+                mappedCloud = lodStreamer == null ? cloud : null;
+                inputStream.close();
+                return true;
+            }
+            channel.position(start);
+        }
+        PlyLoader loader = new PlyLoader();
+        if (USE_CACHE && context != null) {
+            long sourceId = PlyCacheFile.sourceId(inputStream, sourceUri == null ? null : sourceUri.toString());
+            inputStream = new BufferedInputStream(inputStream, PlyCacheFile.FINGERPRINT_BYTES);
+            long fingerprint = PlyCacheFile.fingerprint(inputStream, sourceId);
+            loader.setCacheFile(PlyCacheFile.getCacheFile(context.getCacheDir(), fingerprint), fingerprint);
+            JPlyAsset cached = loader.loadCache();
+            if (cached != null) {
+                assets = cached;
+                preparedGeometry = prepareGeometry(assets);
+                inputStream.close();
+                return true;
             }
-        }else {
-            triangleIndices = new ArrayList<>(assets.faces.length);
-            for (int v : assets.faces) {
-                triangleIndices.add(v);
+        }
+
+        PlyStreamReader reader = new PlyStreamReader(Channels.newChannel(inputStream));
+        if (!reader.isSupported()) {
+            return false;
+        }
+        boolean background = false;
+        try {
+            if (reader.hasFaces() || reader.getVertexCount() <= PREVIEW_VERTEX_COUNT) {
+                //网格需要完整的面索引，一次读完
+                assets = loader.createAssets(reader, null);
+            } else {
+                //点云：先读取第一批作为预览，其余在后台继续读取
+                JPlyAsset full = reader.createPlyAsset();
+                reader.setBatchSize(PREVIEW_VERTEX_COUNT);
+                int count = reader.readBatch();
+                assets = createPreview(full, count, reader.getAabb());
+                streaming = true;
+                reader.setBatchSize(PlyStreamReader.DEFAULT_BATCH_SIZE);
+                //预览已可显示，其余数据在流式读取线程中读取，不占用加载线程
+                ThreadPools.getStreamingExecutor().execute(() -> readRemaining(reader, loader, full));
+                background = true;
+            }
+        } finally {
+            if (!background) {
+                reader.close();
             }
-            primitiveType = RenderableManager.PrimitiveType.TRIANGLES;
         }
-        return triangleIndices;
+        preparedGeometry = prepareGeometry(assets);
+        return true;
     }
 
     /**
-     * 处理顶点数据
+     * 打开已构建的八叉树节点文件（加载线程）
+     * @return 文件不存在、失效或读取失败时返回null
      */
-    private ArrayList<Vertex> getVertices(int vertexCount) {
-        ArrayList<Vertex> vertices = new ArrayList<>(vertexCount);
-
-        if (assets.normals != null){
-            if (assets.texcoords == null){
-                //优先使用UV
-                if (assets.colors == null){
-                    for (int i = 0; i < vertexCount; i++) {
-                        Vertex.Builder builder = Vertex.builder().setPosition(new Vector3(assets.vertices[3 * i], assets.vertices[3 * i + 1], assets.vertices[3 * i + 2]));
-                        builder.setNormal(new Vector3(assets.normals[3*i],assets.normals[3*i + 1], assets.normals[3*i+2]));
-                        vertices.add(builder.build());
-                    }
-                }else {
-                    for (int i = 0; i < vertexCount; i++) {
-                        Vertex.Builder builder = Vertex.builder().setPosition(new Vector3(assets.vertices[3 * i], assets.vertices[3 * i + 1], assets.vertices[3 * i + 2]));
-                        builder.setNormal(new Vector3(assets.normals[3*i],assets.normals[3*i + 1], assets.normals[3*i+2]));
-                        builder.setColor(new Color(assets.colors[4*i],assets.colors[4*i+1],
-                                assets.colors[4*i+2],assets.colors[4*i+3]));
-                        vertices.add(builder.build());
-                    }
-                }
-            }else {
-                for (int i = 0; i < vertexCount; i++) {
-                    Vertex.Builder builder = Vertex.builder().setPosition(new Vector3(assets.vertices[3 * i], assets.vertices[3 * i + 1], assets.vertices[3 * i + 2]));
-                    builder.setNormal(new Vector3(assets.normals[3*i],assets.normals[3*i + 1], assets.normals[3*i+2]));
-                    builder.setUvCoordinate(new Vertex.UvCoordinate(assets.texcoords[2*i],assets.texcoords[2*i+1]));
-                    vertices.add(builder.build());
-                }
+    private static PointCloudLodStreamer openOctree(File file, long fingerprint) {
+        PointCloudOctree tree = null;
+        try {
+            tree = PointCloudOctree.open(file, fingerprint);
+            if (tree == null) {
+                return null;
             }
-        }else {
-            if (assets.texcoords == null){
-                if (assets.colors == null){
-                    for (int i = 0; i < vertexCount; i++) {
-                        Vertex.Builder builder = Vertex.builder().setPosition(new Vector3(assets.vertices[3 * i], assets.vertices[3 * i + 1], assets.vertices[3 * i + 2]));
-                        vertices.add(builder.build());
-                    }
-                }else {
-                    for (int i = 0; i < vertexCount; i++) {
-                        Vertex.Builder builder = Vertex.builder().setPosition(new Vector3(assets.vertices[3 * i], assets.vertices[3 * i + 1], assets.vertices[3 * i + 2]));
-                        builder.setColor(new Color(assets.colors[4*i],assets.colors[4*i+1],
-                                assets.colors[4*i+2],assets.colors[4*i+3]));
-                        vertices.add(builder.build());
-                    }
-                }
-            }else {
-                for (int i = 0; i < vertexCount; i++) {
-                    Vertex.Builder builder = Vertex.builder().setPosition(new Vector3(assets.vertices[3 * i], assets.vertices[3 * i + 1], assets.vertices[3 * i + 2]));
-                    builder.setUvCoordinate(new Vertex.UvCoordinate(assets.texcoords[2*i],assets.texcoords[2*i+1]));
-                    vertices.add(builder.build());
+            return new PointCloudLodStreamer(tree, LOD_POINT_BUDGET, LOD_POOL_SIZE, LOD_SCREEN_ERROR);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to open point cloud octree.", e);
+            if (tree != null) {
+                try {
+                    tree.close();
+                } catch (IOException ignored) {
                 }
             }
+            return null;
         }
-        return vertices;
     }
 
-    @Override
-    public void setContext(Context context) {
-        this.context = context;
+    /**
+     * 构建八叉树节点文件（加载线程）
+     * @return 构建失败时返回null，退回为整体上传映射的点云
+     */
+    private static PointCloudLodStreamer buildOctree(PlyMappedPointCloud cloud, File file, long fingerprint) {
+        try {
+            PointCloudOctree.build(cloud, PointCloudOctree.DEFAULT_NODE_CAPACITY, file, fingerprint);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to build point cloud octree.", e);
+            return null;
+        }
+        return openOctree(file, fingerprint);
     }
 
-    @Override
-    public void setData(byte[] bytes) {
-        this.byteBuffer = bytes;
+    /**
+     * 截取已读取的前count个顶点作为预览
+     */
+    private static JPlyAsset createPreview(JPlyAsset full, int count, float[] aabb) {
+        JPlyAsset preview = new JPlyAsset();
+        preview.vertices = Arrays.copyOf(full.vertices, count * 3);
+        if (full.normals != null) {
+            preview.normals = Arrays.copyOf(full.normals, count * 3);
+        }
+        if (full.colors != null) {
+            preview.colors = Arrays.copyOf(full.colors, count * 4);
+        }
+        if (full.texcoords != null) {
+            preview.texcoords = Arrays.copyOf(full.texcoords, count * 2);
+        }
+        preview.aabb = aabb;
+        return preview;
+    }
+
+    /**
+     * 读取剩余顶点并准备几何数据（加载线程），完成后在主线程替换预览数据
+     */
+    private void readRemaining(PlyStreamReader reader, PlyLoader loader, JPlyAsset full) {
+        try {
+            while (!disposed && reader.readBatch() > 0) {
+                //继续读取
+            }
+            if (disposed) {
+                return;
+            }
+            reader.finish();
+            loader.saveCache(full);
+            PreparedGeometry geometry = prepareGeometry(full);
+            ThreadPools.getMainExecutor().execute(() -> onStreamFinished(full, geometry));
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to read remaining ply vertices.", e);
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void onStreamFinished(JPlyAsset full, PreparedGeometry geometry) {
+        if (disposed) {
+            return;
+        }
+        assets = full;
+        preparedGeometry = geometry;
+        streaming = false;
+        if (instance == null) {
+            //尚未创建，create时直接使用完整数据
+            return;
+        }
+        if (previewCollision) {
+            instance.getRenderable().collisionShape = toCollisionBox(full.aabb);
+            previewCollision = false;
+        }
+        if (material != null) {
+            createPrimitive(instance, material);
+        }
     }
 
     @Override
     public void setUrlResolver(Function<String, Uri> resolver) {
         this.urlResolver = resolver;
     }
+
+    @Override
+    public long getSizeInBytes() {
+        if (byteBuffer != null) {
+            return byteBuffer.length;
+        }
+        if (mappedCloud != null) {
+            return mappedCloud.getVertexData().capacity();
+        }
+        return assets != null ? assets.getSizeInBytes() : 0;
+    }
 }
@@ -1,33 +1,36 @@
 package com.google.sceneform.rendering;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 
-import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import com.eqgis.eqr.core.GaussianSorter;
+import com.eqgis.eqr.core.GaussianChunks;
+import com.eqgis.eqr.core.GaussianRadixSorter;
+import com.eqgis.eqr.core.GaussianShEvaluator;
+import com.eqgis.eqr.core.IGaussianSorter;
+import com.eqgis.eqr.core.PlyCacheFile;
 import com.eqgis.eqr.core.PlyGS3dLoader;
+import com.eqgis.eqr.core.PlyStreamReader;
 import com.eqgis.eqr.data.JPlyGS3dAsset;
+import com.google.android.filament.EntityInstance;
 import com.google.android.filament.IndexBuffer;
 import com.google.android.filament.RenderableManager;
+import com.google.android.filament.Texture;
 import com.google.android.filament.VertexBuffer;
 import com.google.sceneform.collision.Box;
 import com.google.sceneform.math.Matrix;
 import com.google.sceneform.math.Vector3;
-import com.google.sceneform.utilities.LoadHelper;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.IntBuffer;
-import java.util.ArrayList;
+import java.nio.channels.Channels;
 import java.util.Collections;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
-import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -35,7 +38,18 @@ import java.util.function.Function;
  * @author tanyx 2026/1/8
  * @version 1.0
  **/
-public class RenderableInternalSplatData extends RenderableInternalData implements LoadRenderableFromUniversalDataTask.IUniversalData, IVertexSort {
+public class RenderableInternalSplatData extends RenderableInternalData implements LoadRenderableFromUniversalDataTask.IUniversalData,
+        LoadRenderableFromUniversalDataTask.IStreamingData, IVertexSort {
+    //量化存储高斯点属性，常驻内存约为原来的1/3.5，GPU属性以半精度上传；默认关闭
+    public static boolean QUANTIZE_ATTRIBUTES = false;
+    //紧凑顶点布局，颜色与旋转以归一化整数、缩放与UV以半精度上传，顶点显存约为原来的1/1.9；默认关闭
+    public static boolean COMPACT_ATTRIBUTES = false;
+    //纹理布局，每个高斯点的属性只存一份(约为float布局的1/4)，数量超出纹理大小或未打包对应材质时回退到顶点属性布局；默认关闭
+    public static boolean TEXTURE_ATTRIBUTES = false;
+    //按视角计算球谐颜色(需f_rest，量化存储时不可用)，视线方向变化超过阈值的块才重新计算；默认关闭
+    public static boolean EVALUATE_SH = false;
+    //首次流式加载后将解析结果写入缓存目录，之后直接读取缓存；默认开启
+    public static boolean USE_CACHE = true;
     private PlyGS3dLoader gs3dLoader;
     private Context context;
     private byte[] byteBuffer;
@@ -46,20 +60,39 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
 
     public VertexBuffer vertexBuffer;
     public IndexBuffer indexBuffer;
-    // 对应 UV（注意方向）
-    private static final float[][] QUAD_UV = new float[][]{
-            {0f, 0f},
-            {1f, 0f},
-            {1f, 1f},
-            {0f, 1f},
-    };
 
-    private GaussianSorter sorter;
-    private int[] indicesCache;
+    private IGaussianSorter sorter;
+    private IGaussianSorter.Factory sorterFactory = GaussianRadixSorter::new;
+    //排序线程数，大于1时深度计算与排序在sortWorkers中并行
+    private int sortWorkerCount = 1;
+    private ForkJoinPool sortWorkers;
+    //每个高斯点6个索引，缓冲区较大，故只用两个缓冲区轮换
+    private static final int INDEX_RING_SIZE = 2;
+    private SplatIndexRing indexRing;
+    //球谐颜色，颜色流与索引一样以两个缓冲区轮换
+    private GaussianShEvaluator shEvaluator;
+    private SplatIndexRing colorRing;
+    //纹理布局的数据纹理与颜色纹理，顶点属性布局时为null
+    private boolean textured;
+    private SplatTexture dataTexture;
+    private SplatTexture colorTexture;
+    private float shAngleDegrees = GaussianShEvaluator.DEFAULT_ANGLE_DEGREES;
+    //颜色已更新但缓冲区均在上传中，下次排序时再写入
+    private boolean colorPending;
+    //空间分块，每帧排序前做视锥剔除与LOD，只排序存活的高斯点
+    private GaussianChunks chunks;
+    private int[] visibleCache;
+    //当前绘制的索引数量，-1表示需要重新设置绘制范围
+    private int drawIndexCount = -1;
+    private int renderedEntity;
+
+    //纹理布局的材质参数名
+    private static final String DATA_TEXTURE_NAME = "splatData";
+    private static final String COLOR_TEXTURE_NAME = "splatColor";
 
     private static final boolean DEBUG_TIME = true;
 
-    private Matrix cameraModelMatCache,  modelModelMatCache;
+    private Matrix cameraModelMatCache,  modelModelMatCache, projectionMatCache;
 
     private final ExecutorService sortExecutor = Executors.newSingleThreadExecutor();
     private Future<?> currentSortTask;
@@ -67,21 +100,31 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
     private final Runnable uploadRunnable = new Runnable() {
         @Override
         public void run() {
-            if (getIndexBuffer() != null) {
-                getIndexBuffer().setBuffer(
-                        EngineInstance.getEngine().getFilamentEngine(),
-                        IntBuffer.wrap(indicesCache)
-                );
+            SplatIndexRing ring = indexRing;
+            if (getIndexBuffer() != null && ring != null) {
+                int count = ring.upload(EngineInstance.getEngine().getFilamentEngine(), getIndexBuffer());
+                if (count >= 0 && count != drawIndexCount) {
+                    updateDrawRange(count);
+                }
+            }
+            SplatIndexRing colors = colorRing;
+            SplatTexture texture = colorTexture;
+            if (colors != null && texture != null) {
+                colors.upload(texture);
+            } else if (getVertexBuffer() != null && colors != null) {
+                colors.upload(EngineInstance.getEngine().getFilamentEngine(), getVertexBuffer(),
+                        RenderableDefinitionSplat.COLOR_BUFFER_INDEX);
             }
         }
     };
-    private boolean idle = true;
+    private volatile boolean idle = true;
 
     @Override
-    public void sortForViewChange(Matrix cameraModelMat, Matrix modelModelMat) {
+    public void sortForViewChange(Matrix cameraModelMat, Matrix modelModelMat, Matrix projectionMat) {
         if (getIndexBuffer() == null) return;
         cameraModelMatCache.set(cameraModelMat.data);
         modelModelMatCache.set(modelModelMat.data);
+        projectionMatCache.set(projectionMat.data);
 
         if (idle) {
             idle = false;
@@ -108,38 +151,94 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
     private void sort() {
 
         if (material != null && sorter != null &&
-                indicesCache != null && indicesCache.length > 0) {
+                indexRing != null && chunks != null) {
+            SplatIndexRing ring = indexRing;
+            // 所有缓冲区都在上传中，跳过本次排序
+            SplatIndexRing.Slot slot = ring.acquire();
+            if (slot == null) return;
 
             long tSort0 = 0;
             if (DEBUG_TIME) tSort0 = System.nanoTime();
 
-            sorter.sort(
-                    asset.vertices,
+            int visibleCount = chunks.cull(
                     modelModelMatCache.data,
                     cameraModelMatCache.data,
-                    indicesCache
+                    projectionMatCache.data,
+                    visibleCache
             );
+            if (chunks.isVisibleChanged()) {
+                //可见集变化，上一次的顺序不可复用
+                sorter.reset();
+            }
+
+            boolean sorted = false;
+            try {
+                sorter.sort(
+                        asset.vertices,
+                        visibleCache,
+                        visibleCount,
+                        modelModelMatCache.data,
+                        cameraModelMatCache.data,
+                        slot.buffer
+                );
+                slot.count = visibleCount * 6;
+                sorted = true;
+            } finally {
+                //排序被取消或异常时归还缓冲区，避免写了一半的索引被上传
+                if (sorted) {
+                    ring.publish(slot);
+                } else {
+                    ring.recycle(slot);
+                }
+            }
+
+            if (shEvaluator != null) {
+                updateColors();
+            }
 
             long tSort1 = 0;
             if (DEBUG_TIME) tSort1 = System.nanoTime();
 
             if (DEBUG_TIME) {
-                logTime(tSort0, tSort1);
+                logTime(tSort0, tSort1, visibleCount);
             }
         }
     }
 
+    /**
+     * 视角变化较大的块重新计算球谐颜色，并写入空闲的颜色缓冲区（排序线程）
+     */
+    private void updateColors() {
+        if (shEvaluator.update(modelModelMatCache.data, cameraModelMatCache.data) > 0) {
+            colorPending = true;
+        }
+        if (!colorPending) {
+            return;
+        }
+        SplatIndexRing.Slot slot = colorRing.acquire();
+        if (slot == null) return;
+        if (textured) {
+            shEvaluator.writeColors(slot.buffer);
+        } else {
+            shEvaluator.writeVertexColors(slot.buffer);
+        }
+        slot.count = slot.buffer.capacity();
+        colorRing.publish(slot);
+        colorPending = false;
+    }
+
     private void logTime(
             long tSortStart,
-            long tSortEnd
+            long tSortEnd,
+            int visibleCount
     ) {
         double sortMs  = (tSortEnd - tSortStart) / 1_000_000.0;
 
         android.util.Log.d(
                 "IKkyu  GaussianSort ",
                 String.format(
-                        "Sort %.2f ms ",
-                         sortMs
+                        "Sort %.2f ms, visible %d ",
+                         sortMs, visibleCount
                 )
         );
     }
@@ -147,8 +246,13 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
 
     @Override
     public void create(RenderableInstance instance) {
-        gs3dLoader = new PlyGS3dLoader();
-        asset = gs3dLoader.createAssets(byteBuffer);
+        if (asset == null) {
+            //未经流式加载，解析完整数据
+            gs3dLoader = new PlyGS3dLoader();
+            gs3dLoader.setQuantize(QUANTIZE_ATTRIBUTES);
+            asset = gs3dLoader.createAssets(byteBuffer);
+        }
+        chunks = gs3dLoader.getChunks();
         byteBuffer = null;// 主动置空，使其尽早符合回收条件
 
         Renderable renderable = instance.getRenderable();
@@ -165,30 +269,29 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
         }
 
 
-        Bitmap bitmap = loadBitmapFromAssets("texture/d_gaussian_context.png");
-
-        if (bitmap != null){
-            CompletableFuture<Texture> textureCompletableFuture = Texture.builder()
-                    .setSource(bitmap)
-                    .build();
-            textureCompletableFuture.thenAccept(new Consumer<Texture>() {
-                @Override
-                public void accept(Texture texture) {
-                    Material.builder()
-                            .setSource(context,
-                                    LoadHelper.rawResourceNameToIdentifier(context,"test123"))
-//                                    LoadHelper.rawResourceNameToIdentifier(context,"tmp2"))
-//                                    LoadHelper.rawResourceNameToIdentifier(context,"sceneform_gaussian_splat_alpha"))
-                            .build()
-                            .thenAccept(mat -> {
-                                material = mat;
-//                                material.setFloat("quadSize ",0.01f);
-//                                material.setTexture("texture", texture);
-                                createPrimitive(instance);
-                            });
-                }
-            });
+        //布局见SplatGeometry，材质源文件为Tool/assets/mat/sceneform_gaussian_splat_texture.mat、sceneform_gaussian_splat_quad.mat
+        //需先用Tool/genfilamat-mobile.bat编译为res/raw下的filamat，未打包时资源id为0
+        int materialId = 0;
+        if (TEXTURE_ATTRIBUTES && SplatGeometry.fitsTexture(asset.vertices.length / 3)) {
+            materialId = RenderingResources.GetSceneformResource(context,
+                    RenderingResources.Resource.GAUSSIAN_SPLAT_TEXTURE_MATERIAL);
+        }
+        textured = materialId != 0;
+        if (!textured) {
+            materialId = RenderingResources.GetSceneformResource(context,
+                    RenderingResources.Resource.GAUSSIAN_SPLAT_QUAD_MATERIAL);
         }
+        if (materialId == 0) {
+            throw new IllegalStateException(
+                    "Material sceneform_gaussian_splat_quad is not packaged in res/raw, use RenderableDataFormat.PLY_3DGS instead");
+        }
+        Material.builder()
+                .setSource(context, materialId)
+                .build()
+                .thenAccept(mat -> {
+                    material = mat;
+                    createPrimitive(instance);
+                });
     }
 
 
@@ -200,32 +303,97 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
 
         int vertexCount = asset.vertices.length / 3;//xyz三个分量
 
-        sorter = new GaussianSorter(vertexCount);
+        if (sortWorkerCount > 1) {
+            sortWorkers = new ForkJoinPool(sortWorkerCount);
+        }
+        sorter = sorterFactory.create(vertexCount, sortWorkers);
         cameraModelMatCache = new Matrix();
         modelModelMatCache = new Matrix();
+        projectionMatCache = new Matrix();
+        visibleCache = new int[vertexCount];
+
+        //量化时asset只含位置，构建几何时临时解码全部属性
+        JPlyGS3dAsset decoded = gs3dLoader.decode();
+        if (EVALUATE_SH && decoded == null && asset.f_rest != null && asset.f_dc != null && chunks != null) {
+            shEvaluator = new GaussianShEvaluator(asset, chunks, sortWorkers);
+            shEvaluator.setAngleThreshold(shAngleDegrees);
+        }
+        JPlyGS3dAsset source = decoded != null ? decoded : asset;
+        SplatGeometry geometry = textured
+                ? SplatGeometry.buildTextured(source)
+                : SplatGeometry.build(source, decoded != null, COMPACT_ATTRIBUTES, shEvaluator != null);
+        if (shEvaluator != null) {
+            //初始为DC颜色，首次排序后按视角更新
+            if (textured) {
+                shEvaluator.writeColors(geometry.colors.asIntBuffer());
+                colorRing = new SplatIndexRing(geometry.textureTexelCount(), INDEX_RING_SIZE);
+            } else {
+                shEvaluator.writeVertexColors(geometry.colors.asIntBuffer());
+                colorRing = new SplatIndexRing(geometry.vertexCount, INDEX_RING_SIZE);
+            }
+        }
+        if (textured) {
+            createTextures(geometry);
+        }
+        indexRing = new SplatIndexRing(geometry.indexCount, INDEX_RING_SIZE);
+        primitiveType = RenderableManager.PrimitiveType.TRIANGLES;
 
-        ArrayList<Integer> triangleIndices = getIndices(vertexCount);
-        indicesCache = new int[triangleIndices.size()];
-        ArrayList<Vertex> vertices = getVertices(vertexCount);
-
-        //虽不是Mesh，但是复用Mesh数据结构{顶点索引、材质实例}
+        //虽不是Mesh，但是复用Mesh数据结构{材质实例}，顶点与索引直接由geometry提供
         RenderableDefinition.SubGeometry subGeometry =
                 RenderableDefinition.SubGeometry.builder()
-                        .setTriangleIndices(triangleIndices).setMaterial(material).build();
+                        .setTriangleIndices(Collections.<Integer>emptyList()).setMaterial(material).build();
 
-        renderableDefinition = new RenderableDefinitionSplat();
-        renderableDefinition.setSubGeometries(Collections.singletonList(subGeometry));
-        renderableDefinition.setVertices(vertices);
-        if (renderableDefinition instanceof RenderableDefinitionSplat){
-            ((RenderableDefinitionSplat) renderableDefinition).setGaussianSplat(asset);
-        }
+        RenderableDefinitionSplat definition = new RenderableDefinitionSplat();
+        definition.setSubGeometries(Collections.singletonList(subGeometry));
+        definition.setGaussianSplat(asset);
+        definition.setGeometry(geometry);
+        renderableDefinition = definition;
 
         instance.getRenderable().updateFromDefinition(renderableDefinition);
     }
 
+    /**
+     * 创建并上传纹理布局的数据纹理与颜色纹理，绑定到材质（主线程）
+     */
+    private void createTextures(SplatGeometry geometry) {
+        dataTexture = new SplatTexture(
+                SplatGeometry.TEXTURE_SPLATS_PER_ROW * SplatGeometry.DATA_TEXELS_PER_SPLAT,
+                geometry.textureHeight,
+                Texture.InternalFormat.RGBA16F);
+        dataTexture.setImage(geometry.data, Texture.Format.RGBA, Texture.Type.HALF, null);
+        colorTexture = new SplatTexture(
+                SplatGeometry.TEXTURE_SPLATS_PER_ROW, geometry.textureHeight, Texture.InternalFormat.RGBA8);
+        colorTexture.setImage(geometry.colors, Texture.Format.RGBA, Texture.Type.UBYTE, null);
+        material.setSplatTexture(DATA_TEXTURE_NAME, dataTexture);
+        material.setSplatTexture(COLOR_TEXTURE_NAME, colorTexture);
+    }
+
     @Override
     public void buildInstanceData(RenderableInstance instance, int renderedEntity) {
         super.buildInstanceData(instance, renderedEntity);
+        //重建后绘制全部索引，待下一次上传时按剔除结果更新
+        this.renderedEntity = renderedEntity;
+        drawIndexCount = -1;
+    }
+
+    /**
+     * 按剔除后的索引数量更新绘制范围
+     */
+    private void updateDrawRange(int indexCount) {
+        RenderableManager renderableManager = EngineInstance.getEngine().getRenderableManager();
+        @EntityInstance int renderableInstance = renderableManager.getInstance(renderedEntity);
+        if (renderableInstance == 0 || getVertexBuffer() == null) {
+            return;
+        }
+        renderableManager.setGeometryAt(
+                renderableInstance,
+                0,
+                primitiveType,
+                getVertexBuffer(),
+                getIndexBuffer(),
+                0,
+                indexCount);
+        drawIndexCount = indexCount;
     }
 
 
@@ -235,6 +403,51 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
 
     }
 
+    /**
+     * 设置顶点排序引擎
+     * <p>需在数据加载完成前设置，默认采用{@link GaussianRadixSorter}</p>
+     * @param sorterFactory 排序引擎工厂，如 {@code GaussianSorter::new}
+     */
+    public void setSorterFactory(IGaussianSorter.Factory sorterFactory) {
+        this.sorterFactory = sorterFactory;
+    }
+
+    /**
+     * 获取空间分块
+     * <p>可用于关闭视锥剔除或设置LOD阈值，如 {@code getChunks().setLodScreenSize(0.05f)}</p>
+     * @return 分块，数据加载完成前为null
+     */
+    public GaussianChunks getChunks() {
+        return chunks;
+    }
+
+    /**
+     * 设置排序线程数
+     * <p>需在数据加载完成前设置，默认为1，即在单个排序线程中串行排序</p>
+     * @param sortWorkerCount 线程数，建议不超过CPU核数
+     */
+    public void setSortWorkerCount(int sortWorkerCount) {
+        if (sortWorkerCount < 1) {
+            throw new IllegalArgumentException("sortWorkerCount must be >= 1");
+        }
+        this.sortWorkerCount = sortWorkerCount;
+    }
+
+    /**
+     * 设置球谐颜色重新计算的阈值角度，仅在{@link #EVALUATE_SH}开启时有效
+     * @param degrees 相机到块中心的方向变化超过该角度时重新计算该块，默认2°
+     */
+    public void setShAngleThreshold(float degrees) {
+        if (degrees < 0f) {
+            throw new IllegalArgumentException("degrees must be >= 0");
+        }
+        this.shAngleDegrees = degrees;
+        GaussianShEvaluator evaluator = shEvaluator;
+        if (evaluator != null) {
+            evaluator.setAngleThreshold(degrees);
+        }
+    }
+
     /**
      * 获取材质
      * <p>
@@ -253,6 +466,10 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
             currentSortTask.cancel(true);
         }
         sortExecutor.shutdown();
+        if (sortWorkers != null) {
+            sortWorkers.shutdown();
+            sortWorkers = null;
+        }
 
         super.dispose();
         if (gs3dLoader == null)return;
@@ -260,7 +477,14 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
         gs3dLoader = null;
         cameraModelMatCache = null;
         modelModelMatCache = null;
-        indicesCache = null;
+        indexRing = null;
+        colorRing = null;
+        //纹理由材质参数持有，材质实例销毁后再由清理队列释放
+        colorTexture = null;
+        dataTexture = null;
+        shEvaluator = null;
+        chunks = null;
+        visibleCache = null;
     }
 
     @Override
@@ -274,93 +498,48 @@ public class RenderableInternalSplatData extends RenderableInternalData implemen
     }
 
     @Override
-    public void setUrlResolver(Function<String, Uri> resolver) {
-        this.urlResolver = resolver;
-    }
-
-private ArrayList<Vertex> getVertices(int gaussianCount) {
-    ArrayList<Vertex> vertices = new ArrayList<>(gaussianCount * 4);
-
-    for (int i = 0; i < gaussianCount; i++) {
-        // center
-        Vector3 center = new Vector3(
-                asset.vertices[3 * i],
-                asset.vertices[3 * i + 1],
-                asset.vertices[3 * i + 2]
-        );
-
-        //构造4个点，
-        for (int v = 0; v < 4; v++) {
-            vertices.add(
-                    Vertex.builder()
-                            .setPosition(/*world*/center)
-                            .setUvCoordinate(new Vertex.UvCoordinate(
-                                    QUAD_UV[v][0],
-                                    QUAD_UV[v][1]
-                            ))
-                            .build()
-            );
+    public boolean loadFromStream(InputStream inputStream, @Nullable Uri sourceUri) throws IOException {
+        PlyGS3dLoader loader = new PlyGS3dLoader();
+        loader.setQuantize(QUANTIZE_ATTRIBUTES);
+        if (USE_CACHE && context != null) {
+            long sourceId = PlyCacheFile.sourceId(inputStream, sourceUri == null ? null : sourceUri.toString());
+            inputStream = new BufferedInputStream(inputStream, PlyCacheFile.FINGERPRINT_BYTES);
+            long fingerprint = PlyCacheFile.fingerprint(inputStream, sourceId);
+            loader.setCacheFile(PlyCacheFile.getCacheFile(context.getCacheDir(), fingerprint), fingerprint);
+            JPlyGS3dAsset cached = loader.loadCache();
+            if (cached != null) {
+                asset = cached;
+                gs3dLoader = loader;
+                inputStream.close();
+                return true;
+            }
         }
-    }
 
-    return vertices;
-}
-
-
-    private static Vector3 rotateByQuaternion(
-            Vector3 v, float w, float x, float y, float z) {
-
-        // q * v * q^-1
-        float vx = v.x;
-        float vy = v.y;
-        float vz = v.z;
-
-        // t = 2 * cross(q.xyz, v)
-        float tx = 2f * (y * vz - z * vy);
-        float ty = 2f * (z * vx - x * vz);
-        float tz = 2f * (x * vy - y * vx);
-
-        // v' = v + w * t + cross(q.xyz, t)
-        return new Vector3(
-                vx + w * tx + (y * tz - z * ty),
-                vy + w * ty + (z * tx - x * tz),
-                vz + w * tz + (x * ty - y * tx)
-        );
-    }
-    @NonNull
-    private ArrayList<Integer> getIndices(int gaussianCount) {
-        ArrayList<Integer> triangleIndices = new ArrayList<>(gaussianCount * 6);
-
-        for (int i = 0; i < gaussianCount; i++) {
-            int base = i * 4;
-
-            triangleIndices.add(base);
-            triangleIndices.add(base + 1);
-            triangleIndices.add(base + 2);
-
-            triangleIndices.add(base);
-            triangleIndices.add(base + 2);
-            triangleIndices.add(base + 3);
+        PlyStreamReader reader = new PlyStreamReader(Channels.newChannel(inputStream));
+        if (!reader.isSupported()) {
+            return false;
         }
+        //排序与分块需要完整数据，故在加载线程中一次读完
+        try {
+            asset = loader.createAssets(reader, null);
+            gs3dLoader = loader;
+        } finally {
+            reader.close();
+        }
+        return true;
+    }
 
-        primitiveType = RenderableManager.PrimitiveType.TRIANGLES;
-        return triangleIndices;
+    @Override
+    public void setUrlResolver(Function<String, Uri> resolver) {
+        this.urlResolver = resolver;
     }
 
-    public Bitmap loadBitmapFromAssets(String path){
-        //加载纹理
-        Bitmap bitmap=null;
-        try {
-            InputStream is = context.getAssets().open(path);
-            try {
-                bitmap= BitmapFactory.decodeStream(is);
-            } finally {
-                is.close();
-                return bitmap;
-            }
-        } catch (IOException e) {
-            return null;
+    @Override
+    public long getSizeInBytes() {
+        if (byteBuffer != null) {
+            return byteBuffer.length;
         }
+        return asset != null ? asset.getSizeInBytes() : 0;
     }
 
 }
@@ -28,6 +28,7 @@ import com.google.android.filament.View.DynamicResolutionOptions;
 import com.google.android.filament.Viewport;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -58,6 +59,12 @@ public class Renderer implements EqUiHelper.RendererCallback {
 
     private final ArrayList<RenderableInstance> renderableInstances = new ArrayList<>();
     private final ArrayList<LightInstance> lightInstances = new ArrayList<>();
+    //批量上传的变换组件实例与模型矩阵(每个16个float)
+    private int[] transformInstances = new int[64];
+    private float[] packedTransforms = new float[64 * 16];
+    //上一帧上传变换的实例数量与updateInstances耗时
+    private int lastTransformUploadCount;
+    private long lastInstanceUpdateNanos;
 
     private Surface surface;
     @Nullable private SwapChain swapChain;
@@ -641,19 +648,51 @@ public class Renderer implements EqUiHelper.RendererCallback {
         return 1.0f / (1.2f * e);
     }
 
+    /**
+     * 获取上一帧上传模型矩阵的实例数量
+     * <p>仅变换发生变化的实例会重新上传</p>
+     */
+    public int getTransformUploadCount() {
+        return lastTransformUploadCount;
+    }
+
+    /**
+     * 获取上一帧更新渲染实例(含模型矩阵上传)的耗时，单位：纳秒
+     */
+    public long getInstanceUpdateTimeNanos() {
+        return lastInstanceUpdateNanos;
+    }
+
     private void updateInstances() {
+        final long startNanos = System.nanoTime();
         final IEngine engine = EngineInstance.getEngine();
         final TransformManager transformManager = engine.getTransformManager();
         transformManager.openLocalTransformTransaction();
 
-        for (RenderableInstance renderableInstance : renderableInstances) {
+        int count = 0;
+        for (int i = 0; i < renderableInstances.size(); i++) {
+            RenderableInstance renderableInstance = renderableInstances.get(i);
             renderableInstance.prepareForDraw(cameraProvider);
+            if (!renderableInstance.isTransformDirty()) {
+                continue;
+            }
 
+            if (count == transformInstances.length) {
+                transformInstances = Arrays.copyOf(transformInstances, count * 2);
+                packedTransforms = Arrays.copyOf(packedTransforms, count * 2 * 16);
+            }
+            transformInstances[count] = renderableInstance.getTransformInstance(transformManager);
             float[] transform = renderableInstance.getWorldModelMatrix().data;
-            renderableInstance.setModelMatrix(transformManager, transform);
+            System.arraycopy(transform, 0, packedTransforms, count * 16, 16);
+            renderableInstance.clearTransformDirty();
+            count++;
         }
 
+        transformManager.setTransforms(transformInstances, packedTransforms, count);
         transformManager.commitLocalTransformTransaction();
+
+        lastTransformUploadCount = count;
+        lastInstanceUpdateNanos = System.nanoTime() - startNanos;
     }
 
     private void updateLights() {
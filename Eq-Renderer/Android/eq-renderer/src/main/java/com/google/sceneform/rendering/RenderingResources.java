@@ -27,7 +27,9 @@ public final class RenderingResources {
         PRIMITIVE_POINTS_MATERIAL,
         PRIMITIVE_LINES_MATERIAL,
         PLY_BASE_MATERIAL,
-        PLY_GAUSSIAN_SPLAT_MATERIAL
+        PLY_GAUSSIAN_SPLAT_MATERIAL,
+        GAUSSIAN_SPLAT_QUAD_MATERIAL,
+        GAUSSIAN_SPLAT_TEXTURE_MATERIAL
     };
 
     //update绘制默认采用双面材质
@@ -61,6 +63,10 @@ public final class RenderingResources {
                 return LoadHelper.rawResourceNameToIdentifier(context,"sceneform_ply_base_material");
             case PLY_GAUSSIAN_SPLAT_MATERIAL:
                 return LoadHelper.rawResourceNameToIdentifier(context,"sceneform_gaussian_splat");
+            case GAUSSIAN_SPLAT_QUAD_MATERIAL:
+                return LoadHelper.rawResourceNameToIdentifier(context,"sceneform_gaussian_splat_quad");
+            case GAUSSIAN_SPLAT_TEXTURE_MATERIAL:
+                return LoadHelper.rawResourceNameToIdentifier(context,"sceneform_gaussian_splat_texture");
         }
         return 0;
     }
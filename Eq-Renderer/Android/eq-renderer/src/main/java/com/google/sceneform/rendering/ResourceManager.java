@@ -2,6 +2,7 @@ package com.google.sceneform.rendering;
 
 import androidx.annotation.Nullable;
 
+import com.google.sceneform.resources.ResourceCache;
 import com.google.sceneform.resources.ResourceHolder;
 import com.google.sceneform.resources.ResourceRegistry;
 
@@ -16,6 +17,9 @@ import java.util.ArrayList;
  */
 @SuppressWarnings("initialization") // Suppress @UnderInitialization warning.
 public class ResourceManager {
+    /** 模型内存缓存的默认上限(字节) */
+    public static final long DEFAULT_RENDERABLE_CACHE_SIZE_BYTES = 64L * 1024 * 1024;
+
     @Nullable private static ResourceManager instance = null;
 
     private final ArrayList<ResourceHolder> resourceHolders = new ArrayList<>();
@@ -23,6 +27,8 @@ public class ResourceManager {
     private final ResourceRegistry<Material> materialRegistry = new ResourceRegistry<>();
     private final ResourceRegistry<ModelRenderable> modelRenderableRegistry =
             new ResourceRegistry<>();
+    private final ResourceCache<Renderable> renderableCache =
+            new ResourceCache<>(DEFAULT_RENDERABLE_CACHE_SIZE_BYTES);
 
 
     private final ResourceRegistry<ViewRenderable> viewRenderableRegistry = new ResourceRegistry<>();
@@ -30,6 +36,7 @@ public class ResourceManager {
     private final CleanupRegistry<CameraStream> cameraStreamCleanupRegistry = new CleanupRegistry<>();
     private final CleanupRegistry<ExternalTexture> externalTextureCleanupRegistry = new CleanupRegistry<>();
     private final CleanupRegistry<DepthTexture> depthTextureCleanupRegistry = new CleanupRegistry<>();
+    private final CleanupRegistry<SplatTexture> splatTextureCleanupRegistry = new CleanupRegistry<>();
     private final CleanupRegistry<Material> materialCleanupRegistry = new CleanupRegistry<>();
     private final CleanupRegistry<Renderable> renderableCleanupRegistry = new CleanupRegistry<>();
     private final CleanupRegistry<RenderableInstance> renderableInstanceCleanupRegistry =
@@ -48,6 +55,13 @@ public class ResourceManager {
         return modelRenderableRegistry;
     }
 
+    /**
+     * 获取已解析模型的内存缓存，可用于调整上限及查询命中、淘汰统计
+     */
+    public ResourceCache<Renderable> getRenderableCache() {
+        return renderableCache;
+    }
+
 
     ResourceRegistry<ViewRenderable> getViewRenderableRegistry() {
         return viewRenderableRegistry;
@@ -65,6 +79,10 @@ public class ResourceManager {
         return depthTextureCleanupRegistry;
     }
 
+    CleanupRegistry<SplatTexture> getSplatTextureCleanupRegistry() {
+        return splatTextureCleanupRegistry;
+    }
+
     CleanupRegistry<Material> getMaterialCleanupRegistry() {
         return materialCleanupRegistry;
     }
@@ -109,8 +127,13 @@ public class ResourceManager {
     }
 
     private ResourceManager() {
+        //缓存持有的副本被淘汰时释放其数据引用；淘汰可能发生在加载线程，释放需在主线程
+        renderableCache.setEvictionListener(
+                (id, renderable) -> ThreadPools.getMainExecutor().execute(renderable::releaseData));
         //desc- 先销毁 Renderable/CameraStream，再销毁 MaterialInstance，最后才能销毁其绑定的纹理。
         // Filament 不允许 Texture 在仍被 MaterialInstance 引用时释放，否则下一次 commit 会触发 PreconditionPanic。
+        //desc- 缓存持有Renderable的强引用，需先于注册器清空
+        addResourceHolder(renderableCache);
         addResourceHolder(modelRenderableRegistry);
         addResourceHolder(viewRenderableRegistry);
         addResourceHolder(textureRegistry);
@@ -122,6 +145,7 @@ public class ResourceManager {
         addResourceHolder(materialCleanupRegistry);
         addResourceHolder(externalTextureCleanupRegistry);
         addResourceHolder(depthTextureCleanupRegistry);
+        addResourceHolder(splatTextureCleanupRegistry);
         addResourceHolder(textureCleanupRegistry);
     }
 
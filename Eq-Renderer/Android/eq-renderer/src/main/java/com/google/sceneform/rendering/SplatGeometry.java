@@ -0,0 +1,543 @@
+package com.google.sceneform.rendering;
+
+import com.eqgis.eqr.core.GaussianQuantizedData;
+import com.eqgis.eqr.core.GaussianShEvaluator;
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * 高斯点云的Quad几何数据
+ * <p>
+ *     直接由{@link JPlyGS3dAsset}的数组写入direct缓冲区，不创建{@link Vertex}与装箱索引。
+ *     每个高斯点对应1个quad(4个顶点、6个索引)，顶点数据分为两个交错缓冲区：
+ * </p>
+ * <pre>
+ *     geometry:   position(float3) uv(float2)
+ *     attributes: [CUSTOM0 颜色+不透明度] CUSTOM1 缩放 CUSTOM2 旋转(xyzw)，float4或half4
+ * </pre>
+ * <p>
+ *     CUSTOM0为最终显示颜色与alpha(见{@link GaussianShEvaluator#dcToColor}、{@link GaussianShEvaluator#opacityToAlpha})，
+ *     与球谐颜色流一致；CUSTOM1为对数缩放，由材质取exp。
+ * </p>
+ * <p>
+ *     紧凑布局参照.splat格式的精度：uv、缩放为半精度，颜色为归一化ubyte4，旋转为归一化short4，
+ *     着色器读到的仍是float，无需修改材质。每个顶点由68字节(float)/44字节(half)降至36字节。
+ * </p>
+ * <p>
+ *     颜色需要随视角更新时(球谐)，CUSTOM0可单独存于第三个缓冲区，以归一化ubyte4存储，
+ *     更新时只需重新上传该缓冲区，初始内容由调用方写入{@link #colors}。
+ * </p>
+ * <p>
+ *     以上布局中quad的4个顶点属性相同，每个高斯点存4份。纹理布局({@link #buildTextured})只存一份：
+ *     顶点只含position，缩放与旋转存于RGBA16F数据纹理{@link #data}(每个高斯点2个texel)，
+ *     颜色存于RGBA8颜色纹理{@link #colors}(每个高斯点1个texel)，材质按 顶点序号 / 4 读取。
+ *     每个高斯点68字节，float布局为272字节，紧凑布局为144字节。
+ * </p>
+ * <p>
+ *     纹理布局只去掉了重复的属性，顶点与索引仍为每个高斯点4个、6个，排序仍写入6个索引：
+ *     Filament只按索引绘制三角形列表，而实例化({@link com.google.android.filament.RenderableManager.Builder#instances})
+ *     上限为32767，无法用一个共享quad绘制全部高斯点。
+ * </p>
+ */
+final class SplatGeometry {
+    static final int BYTES_PER_FLOAT = 4;
+    static final int BYTES_PER_HALF = 2;
+    static final int POSITION_SIZE = 3;
+    static final int UV_SIZE = 2;
+    static final int F4_SIZE = 4;
+    static final int UV_OFFSET = POSITION_SIZE * BYTES_PER_FLOAT;
+    static final int VERTICES_PER_SPLAT = 4;
+    static final int INDICES_PER_SPLAT = 6;
+    //纹理布局中每行的高斯点数量，数据纹理宽度为其2倍，颜色纹理与数据纹理同一行
+    static final int TEXTURE_SPLATS_PER_ROW = 1024;
+    static final int DATA_TEXELS_PER_SPLAT = 2;
+    //纹理高度上限，OpenGL ES 3.0设备普遍支持4096
+    static final int MAX_TEXTURE_SIZE = 4096;
+    //RGBA16F，每texel 8字节
+    static final int DATA_TEXEL_BYTES = 8;
+    //每批处理的高斯点数量，先写入数组再批量拷贝到缓冲区
+    private static final int BATCH = 1024;
+
+    // 对应 UV（注意方向）
+    private static final float[] QUAD_UV = {
+            0f, 0f,
+            1f, 0f,
+            1f, 1f,
+            0f, 1f,
+    };
+
+    final int gaussianCount;
+    final int vertexCount;
+    final int indexCount;
+    //是否包含颜色属性(CUSTOM0)
+    final boolean hasColor;
+    //float4属性是否为半精度
+    final boolean half;
+    //是否为紧凑布局，此时忽略half
+    final boolean compact;
+    //颜色是否单独存储于colors
+    final boolean separateColor;
+    //是否为纹理布局，此时attributes为空
+    final boolean textured;
+    //纹理布局的纹理高度
+    final int textureHeight;
+    //position + uv
+    final int geometryStride;
+    //属性在交错缓冲区中的字节偏移，无颜色时colorOffset为-1
+    final int colorOffset;
+    final int scaleOffset;
+    final int rotationOffset;
+    final int attributeStride;
+
+    ByteBuffer geometry;
+    ByteBuffer attributes;
+    //单独存储的颜色，每个顶点一个RGBA8；纹理布局为每个高斯点一个RGBA8
+    ByteBuffer colors;
+    //纹理布局的数据纹理，每个高斯点为 对数缩放xyz,0 与 旋转xyzw，半精度
+    ByteBuffer data;
+    IntBuffer indices;
+
+    private SplatGeometry(int gaussianCount, boolean hasColor, boolean half, boolean compact, boolean separateColor) {
+        this.gaussianCount = gaussianCount;
+        this.vertexCount = checkedSize((long) gaussianCount * VERTICES_PER_SPLAT, "vertexCount");
+        this.indexCount = checkedSize((long) gaussianCount * INDICES_PER_SPLAT, "indexCount");
+        this.hasColor = hasColor;
+        this.half = half && !compact;
+        this.compact = compact;
+        this.separateColor = hasColor && separateColor;
+        this.textured = false;
+        this.textureHeight = 0;
+        this.geometryStride = UV_OFFSET + UV_SIZE * (compact ? BYTES_PER_HALF : BYTES_PER_FLOAT);
+
+        int float4Bytes = F4_SIZE * (this.half ? BYTES_PER_HALF : BYTES_PER_FLOAT);
+        int colorBytes = compact ? F4_SIZE : float4Bytes;
+        int scaleBytes = compact ? F4_SIZE * BYTES_PER_HALF : float4Bytes;
+        int rotationBytes = compact ? F4_SIZE * 2 : float4Bytes;
+        boolean interleavedColor = hasColor && !this.separateColor;
+        this.colorOffset = interleavedColor ? 0 : -1;
+        this.scaleOffset = interleavedColor ? colorBytes : 0;
+        this.rotationOffset = scaleOffset + scaleBytes;
+        this.attributeStride = rotationOffset + rotationBytes;
+    }
+
+    /**
+     * 纹理布局
+     */
+    private SplatGeometry(int gaussianCount) {
+        this.gaussianCount = gaussianCount;
+        this.vertexCount = checkedSize((long) gaussianCount * VERTICES_PER_SPLAT, "vertexCount");
+        this.indexCount = checkedSize((long) gaussianCount * INDICES_PER_SPLAT, "indexCount");
+        this.hasColor = true;
+        this.half = true;
+        this.compact = false;
+        this.separateColor = true;
+        this.textured = true;
+        this.textureHeight = Math.max(1, (gaussianCount + TEXTURE_SPLATS_PER_ROW - 1) / TEXTURE_SPLATS_PER_ROW);
+        this.geometryStride = POSITION_SIZE * BYTES_PER_FLOAT;
+        this.colorOffset = -1;
+        this.scaleOffset = -1;
+        this.rotationOffset = -1;
+        this.attributeStride = 0;
+    }
+
+    /**
+     * 构建几何数据
+     * @param asset 高斯点数据，需包含vertices、scale、rot
+     * @param half float4属性是否以半精度写入
+     * @return 几何数据
+     */
+    static SplatGeometry build(JPlyGS3dAsset asset, boolean half) {
+        return build(asset, half, false);
+    }
+
+    /**
+     * 构建几何数据
+     * @param asset 高斯点数据，需包含vertices、scale、rot
+     * @param half float4属性是否以半精度写入
+     * @param compact 是否使用紧凑布局，为true时忽略half
+     * @return 几何数据
+     */
+    static SplatGeometry build(JPlyGS3dAsset asset, boolean half, boolean compact) {
+        return build(asset, half, compact, false);
+    }
+
+    /**
+     * 构建几何数据
+     * @param asset 高斯点数据，需包含vertices、scale、rot
+     * @param half float4属性是否以半精度写入
+     * @param compact 是否使用紧凑布局，为true时忽略half
+     * @param separateColor 颜色是否单独存储，为true时{@link #colors}只分配不写入
+     * @return 几何数据
+     */
+    static SplatGeometry build(JPlyGS3dAsset asset, boolean half, boolean compact, boolean separateColor) {
+        if (asset.vertices == null || asset.scale == null || asset.rot == null) {
+            throw new IllegalArgumentException("asset.vertices, scale and rot must not be null");
+        }
+        SplatGeometry result = new SplatGeometry(
+                asset.vertices.length / 3, asset.f_dc != null, half, compact, separateColor);
+        //先校验全部缓冲区大小，避免分配到一半才失败
+        int geometryBytes = checkedSize((long) result.vertexCount * result.geometryStride, "geometry buffer");
+        int attributeBytes = checkedSize((long) result.vertexCount * result.attributeStride, "attribute buffer");
+        int colorBytes = result.separateColor ? checkedSize((long) result.vertexCount * F4_SIZE, "color buffer") : 0;
+        int indexBytes = checkedSize((long) result.indexCount * 4, "index buffer");
+        result.geometry = allocate(geometryBytes);
+        result.attributes = allocate(attributeBytes);
+        if (result.separateColor) {
+            result.colors = allocate(colorBytes);
+        }
+        result.indices = allocate(indexBytes).asIntBuffer();
+
+        if (compact) {
+            result.fillCompact(asset);
+        } else {
+            result.fillGeometry(asset);
+            if (half) {
+                result.fillAttributesHalf(asset);
+            } else {
+                result.fillAttributes(asset);
+            }
+        }
+        fillIndices(result.indices, result.gaussianCount);
+        return result;
+    }
+
+    /**
+     * 构建纹理布局的几何数据，每个高斯点的属性只存一份，仍为4个顶点、6个索引
+     * @param asset 高斯点数据，需包含vertices、scale、rot，无f_dc时颜色为白色
+     * @return 几何数据
+     * @throws IllegalArgumentException 数量超出纹理大小，见{@link #fitsTexture}
+     */
+    static SplatGeometry buildTextured(JPlyGS3dAsset asset) {
+        if (asset.vertices == null || asset.scale == null || asset.rot == null) {
+            throw new IllegalArgumentException("asset.vertices, scale and rot must not be null");
+        }
+        int count = asset.vertices.length / 3;
+        if (!fitsTexture(count)) {
+            throw new IllegalArgumentException("gaussianCount too large for the data texture: " + count);
+        }
+        SplatGeometry result = new SplatGeometry(count);
+        int texels = result.textureTexelCount();
+        int geometryBytes = checkedSize((long) result.vertexCount * result.geometryStride, "geometry buffer");
+        int indexBytes = checkedSize((long) result.indexCount * 4, "index buffer");
+        result.geometry = allocate(geometryBytes);
+        result.data = allocate(texels * DATA_TEXELS_PER_SPLAT * DATA_TEXEL_BYTES);
+        result.colors = allocate(texels * F4_SIZE);
+        result.indices = allocate(indexBytes).asIntBuffer();
+
+        result.fillTextured(asset);
+        fillIndices(result.indices, result.gaussianCount);
+        return result;
+    }
+
+    /**
+     * 是否可使用纹理布局
+     * @param gaussianCount 高斯点数量
+     * @return 纹理高度不超过{@link #MAX_TEXTURE_SIZE}
+     */
+    static boolean fitsTexture(int gaussianCount) {
+        return (long) gaussianCount <= (long) TEXTURE_SPLATS_PER_ROW * MAX_TEXTURE_SIZE;
+    }
+
+    /**
+     * 纹理布局中颜色纹理的texel数量(含末行补齐)，数据纹理为其{@link #DATA_TEXELS_PER_SPLAT}倍
+     */
+    int textureTexelCount() {
+        return TEXTURE_SPLATS_PER_ROW * textureHeight;
+    }
+
+    /**
+     * 每个顶点的字节数
+     */
+    int bytesPerVertex() {
+        return geometryStride + attributeStride + (separateColor && !textured ? F4_SIZE : 0);
+    }
+
+    /**
+     * 每个高斯点的字节数，含纹理
+     */
+    int bytesPerSplat() {
+        int bytes = bytesPerVertex() * VERTICES_PER_SPLAT;
+        if (textured) {
+            bytes += DATA_TEXELS_PER_SPLAT * DATA_TEXEL_BYTES + F4_SIZE;
+        }
+        return bytes;
+    }
+
+    /**
+     * 写入按高斯点顺序排列的索引
+     */
+    static void fillIndices(IntBuffer dst, int gaussianCount) {
+        int[] batch = new int[Math.min(gaussianCount, BATCH) * INDICES_PER_SPLAT];
+        dst.clear();
+        for (int start = 0; start < gaussianCount; start += BATCH) {
+            int count = Math.min(BATCH, gaussianCount - start);
+            int k = 0;
+            for (int i = 0; i < count; i++) {
+                int base = (start + i) * VERTICES_PER_SPLAT;
+                batch[k++] = base;
+                batch[k++] = base + 1;
+                batch[k++] = base + 2;
+                batch[k++] = base;
+                batch[k++] = base + 2;
+                batch[k++] = base + 3;
+            }
+            dst.put(batch, 0, k);
+        }
+        dst.flip();
+    }
+
+    private void fillGeometry(JPlyGS3dAsset asset) {
+        float[] src = asset.vertices;
+        FloatBuffer dst = geometry.asFloatBuffer();
+        int floatsPerSplat = VERTICES_PER_SPLAT * (POSITION_SIZE + UV_SIZE);
+        float[] batch = new float[Math.min(gaussianCount, BATCH) * floatsPerSplat];
+        for (int start = 0; start < gaussianCount; start += BATCH) {
+            int count = Math.min(BATCH, gaussianCount - start);
+            int k = 0;
+            for (int i = start; i < start + count; i++) {
+                float x = src[3 * i];
+                float y = src[3 * i + 1];
+                float z = src[3 * i + 2];
+                for (int v = 0; v < VERTICES_PER_SPLAT; v++) {
+                    batch[k++] = x;
+                    batch[k++] = y;
+                    batch[k++] = z;
+                    batch[k++] = QUAD_UV[2 * v];
+                    batch[k++] = QUAD_UV[2 * v + 1];
+                }
+            }
+            dst.put(batch, 0, k);
+        }
+    }
+
+    private void fillAttributes(JPlyGS3dAsset asset) {
+        FloatBuffer dst = attributes.asFloatBuffer();
+        int floatsPerVertex = attributeStride / BYTES_PER_FLOAT;
+        float[] record = new float[floatsPerVertex];
+        float[] batch = new float[Math.min(gaussianCount, BATCH) * VERTICES_PER_SPLAT * floatsPerVertex];
+        for (int start = 0; start < gaussianCount; start += BATCH) {
+            int count = Math.min(BATCH, gaussianCount - start);
+            int k = 0;
+            for (int i = start; i < start + count; i++) {
+                writeRecord(asset, i, record);
+                //quad的4个顶点属性相同
+                for (int v = 0; v < VERTICES_PER_SPLAT; v++) {
+                    System.arraycopy(record, 0, batch, k, floatsPerVertex);
+                    k += floatsPerVertex;
+                }
+            }
+            dst.put(batch, 0, k);
+        }
+    }
+
+    private void fillAttributesHalf(JPlyGS3dAsset asset) {
+        ShortBuffer dst = attributes.asShortBuffer();
+        int valuesPerVertex = attributeStride / BYTES_PER_HALF;
+        float[] record = new float[valuesPerVertex];
+        short[] halfRecord = new short[valuesPerVertex];
+        short[] batch = new short[Math.min(gaussianCount, BATCH) * VERTICES_PER_SPLAT * valuesPerVertex];
+        for (int start = 0; start < gaussianCount; start += BATCH) {
+            int count = Math.min(BATCH, gaussianCount - start);
+            int k = 0;
+            for (int i = start; i < start + count; i++) {
+                writeRecord(asset, i, record);
+                for (int j = 0; j < valuesPerVertex; j++) {
+                    halfRecord[j] = GaussianQuantizedData.toHalf(record[j]);
+                }
+                for (int v = 0; v < VERTICES_PER_SPLAT; v++) {
+                    System.arraycopy(halfRecord, 0, batch, k, valuesPerVertex);
+                    k += valuesPerVertex;
+                }
+            }
+            dst.put(batch, 0, k);
+        }
+    }
+
+    private void fillCompact(JPlyGS3dAsset asset) {
+        float[] src = asset.vertices;
+        float[] record = new float[3 * F4_SIZE];
+        int batchCount = Math.min(gaussianCount, BATCH) * VERTICES_PER_SPLAT;
+        ByteBuffer geometryBatch = ByteBuffer.allocate(batchCount * geometryStride).order(ByteOrder.nativeOrder());
+        ByteBuffer attributeBatch = ByteBuffer.allocate(batchCount * attributeStride).order(ByteOrder.nativeOrder());
+        short[] uv = new short[QUAD_UV.length];
+        for (int i = 0; i < uv.length; i++) {
+            uv[i] = GaussianQuantizedData.toHalf(QUAD_UV[i]);
+        }
+        for (int start = 0; start < gaussianCount; start += BATCH) {
+            int count = Math.min(BATCH, gaussianCount - start);
+            geometryBatch.clear();
+            attributeBatch.clear();
+            for (int i = start; i < start + count; i++) {
+                writeRecord(asset, i, record);
+                int attributeStart = attributeBatch.position();
+                if (colorOffset >= 0) {
+                    attributeBatch.put(toUnorm8(record[0]));
+                    attributeBatch.put(toUnorm8(record[1]));
+                    attributeBatch.put(toUnorm8(record[2]));
+                    attributeBatch.put(toUnorm8(record[3]));
+                }
+                int k = colorOffset >= 0 ? F4_SIZE : 0;
+                for (int c = 0; c < F4_SIZE; c++) {
+                    attributeBatch.putShort(GaussianQuantizedData.toHalf(record[k + c]));
+                }
+                k += F4_SIZE;
+                //归一化short只能表示[-1, 1]，先将四元数归一化
+                normalizeRotation(record, k);
+                for (int c = 0; c < F4_SIZE; c++) {
+                    attributeBatch.putShort(toSnorm16(record[k + c]));
+                }
+                //quad的4个顶点属性相同
+                byte[] array = attributeBatch.array();
+                for (int v = 1; v < VERTICES_PER_SPLAT; v++) {
+                    System.arraycopy(array, attributeStart, array, attributeStart + v * attributeStride, attributeStride);
+                }
+                attributeBatch.position(attributeStart + VERTICES_PER_SPLAT * attributeStride);
+
+                float x = src[3 * i];
+                float y = src[3 * i + 1];
+                float z = src[3 * i + 2];
+                for (int v = 0; v < VERTICES_PER_SPLAT; v++) {
+                    geometryBatch.putFloat(x).putFloat(y).putFloat(z);
+                    geometryBatch.putShort(uv[2 * v]).putShort(uv[2 * v + 1]);
+                }
+            }
+            geometryBatch.flip();
+            attributeBatch.flip();
+            geometry.put(geometryBatch);
+            attributes.put(attributeBatch);
+        }
+        geometry.flip();
+        attributes.flip();
+    }
+
+    private void fillTextured(JPlyGS3dAsset asset) {
+        float[] src = asset.vertices;
+        FloatBuffer positions = geometry.asFloatBuffer();
+        ShortBuffer texels = data.asShortBuffer();
+        IntBuffer colorTexels = colors.asIntBuffer();
+        int count = Math.min(gaussianCount, BATCH);
+        float[] positionBatch = new float[count * VERTICES_PER_SPLAT * POSITION_SIZE];
+        short[] dataBatch = new short[count * DATA_TEXELS_PER_SPLAT * F4_SIZE];
+        int[] colorBatch = new int[count];
+        float[] q = new float[F4_SIZE];
+        for (int start = 0; start < gaussianCount; start += BATCH) {
+            int n = Math.min(BATCH, gaussianCount - start);
+            int p = 0;
+            int d = 0;
+            for (int i = start; i < start + n; i++) {
+                float x = src[3 * i];
+                float y = src[3 * i + 1];
+                float z = src[3 * i + 2];
+                for (int v = 0; v < VERTICES_PER_SPLAT; v++) {
+                    positionBatch[p++] = x;
+                    positionBatch[p++] = y;
+                    positionBatch[p++] = z;
+                }
+                dataBatch[d++] = GaussianQuantizedData.toHalf(asset.scale[3 * i]);
+                dataBatch[d++] = GaussianQuantizedData.toHalf(asset.scale[3 * i + 1]);
+                dataBatch[d++] = GaussianQuantizedData.toHalf(asset.scale[3 * i + 2]);
+                dataBatch[d++] = 0;
+                //w x y z - > x y z w
+                q[0] = asset.rot[4 * i + 1];
+                q[1] = asset.rot[4 * i + 2];
+                q[2] = asset.rot[4 * i + 3];
+                q[3] = asset.rot[4 * i];
+                normalizeRotation(q, 0);
+                for (int c = 0; c < F4_SIZE; c++) {
+                    dataBatch[d++] = GaussianQuantizedData.toHalf(q[c]);
+                }
+                float alpha = asset.opacity != null ? GaussianShEvaluator.opacityToAlpha(asset.opacity[i]) : 1.0f;
+                colorBatch[i - start] = asset.f_dc == null
+                        ? GaussianShEvaluator.packColor(1f, 1f, 1f, alpha)
+                        : GaussianShEvaluator.packColor(
+                                GaussianShEvaluator.dcToColor(asset.f_dc[3 * i]),
+                                GaussianShEvaluator.dcToColor(asset.f_dc[3 * i + 1]),
+                                GaussianShEvaluator.dcToColor(asset.f_dc[3 * i + 2]),
+                                alpha);
+            }
+            positions.put(positionBatch, 0, p);
+            texels.put(dataBatch, 0, d);
+            colorTexels.put(colorBatch, 0, n);
+        }
+    }
+
+    /**
+     * 将record[k, k + 4)中的四元数归一化，长度为0时置为单位四元数
+     */
+    private static void normalizeRotation(float[] record, int k) {
+        float qx = record[k], qy = record[k + 1], qz = record[k + 2], qw = record[k + 3];
+        float length = (float) Math.sqrt(qx * qx + qy * qy + qz * qz + qw * qw);
+        if (length > 0f) {
+            float inv = 1f / length;
+            record[k] = qx * inv;
+            record[k + 1] = qy * inv;
+            record[k + 2] = qz * inv;
+            record[k + 3] = qw * inv;
+        } else {
+            record[k] = 0f;
+            record[k + 1] = 0f;
+            record[k + 2] = 0f;
+            record[k + 3] = 1f;
+        }
+    }
+
+    private static byte toUnorm8(float value) {
+        return (byte) Math.round(value * 255f);
+    }
+
+    private static short toSnorm16(float value) {
+        return (short) Math.round(Math.max(-1f, Math.min(1f, value)) * 32767f);
+    }
+
+    /**
+     * 写入单个高斯点的float4属性
+     */
+    private void writeRecord(JPlyGS3dAsset asset, int i, float[] record) {
+        int k = 0;
+        if (colorOffset >= 0) {
+            float alpha = asset.opacity != null ? GaussianShEvaluator.opacityToAlpha(asset.opacity[i]) : 1.0f;
+            record[k++] = clamp01(GaussianShEvaluator.dcToColor(asset.f_dc[3 * i]));
+            record[k++] = clamp01(GaussianShEvaluator.dcToColor(asset.f_dc[3 * i + 1]));
+            record[k++] = clamp01(GaussianShEvaluator.dcToColor(asset.f_dc[3 * i + 2]));
+            record[k++] = alpha;
+        }
+        record[k++] = asset.scale[3 * i];
+        record[k++] = asset.scale[3 * i + 1];
+        record[k++] = asset.scale[3 * i + 2];
+        //未使用
+        record[k++] = 0f;
+        //w x y z - > x y z w
+        record[k++] = asset.rot[4 * i + 1];
+        record[k++] = asset.rot[4 * i + 2];
+        record[k++] = asset.rot[4 * i + 3];
+        record[k] = asset.rot[4 * i];
+    }
+
+    private static float clamp01(float src) {
+        float v = src > 1 ? 1 : src;
+        return v < 0 ? 0 : v;
+    }
+
+    /**
+     * 校验数量或字节数不超过int范围(direct缓冲区上限)
+     * @param size 以long计算的数量或字节数
+     * @param name 用于异常信息
+     * @return int值
+     */
+    static int checkedSize(long size, String name) {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " too large: " + size
+                    + ", split the gaussian splats into several renderables");
+        }
+        return (int) size;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,141 @@
+package com.google.sceneform.rendering;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.filament.Engine;
+import com.google.android.filament.IndexBuffer;
+import com.google.android.filament.Texture;
+import com.google.android.filament.VertexBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 高斯点云排序索引的缓冲区环，也用于随视角更新的颜色流(顶点缓冲区或颜色纹理)
+ * <p>
+ *     排序线程从空闲队列取出后台缓冲区写入索引，通过原子交换发布；
+ *     主线程取出已发布的缓冲区上传，Filament用完后在回调中归还到空闲队列。
+ *     缓冲区均为direct内存，排序与上传之间无堆内存分配、无数据竞争，JNI层也无需拷贝。
+ * </p>
+ */
+class SplatIndexRing {
+
+    /**
+     * 环中的一个缓冲区
+     */
+    final class Slot {
+        final IntBuffer buffer;
+        //有效索引数量，剔除后可能小于缓冲区容量
+        int count;
+        //Filament释放缓冲区后归还，预先创建以避免每次上传分配
+        private final Runnable release = new Runnable() {
+            @Override
+            public void run() {
+                free.offer(Slot.this);
+            }
+        };
+
+        private Slot(int indexCount) {
+            buffer = ByteBuffer.allocateDirect(SplatGeometry.checkedSize((long) indexCount * 4, "index buffer"))
+                    .order(ByteOrder.nativeOrder())
+                    .asIntBuffer();
+        }
+    }
+
+    private final ArrayBlockingQueue<Slot> free;
+    private final AtomicReference<Slot> pending = new AtomicReference<>();
+
+    /**
+     * 构造函数
+     * @param indexCount 每个缓冲区的索引数量
+     * @param size 缓冲区数量，2或3
+     */
+    SplatIndexRing(int indexCount, int size) {
+        this.free = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            free.offer(new Slot(indexCount));
+        }
+    }
+
+    /**
+     * 获取后台缓冲区（排序线程）
+     * @return 空闲缓冲区，若全部在上传中则返回null，本次应跳过排序
+     */
+    @Nullable
+    Slot acquire() {
+        return free.poll();
+    }
+
+    /**
+     * 发布已写入的缓冲区（排序线程），写入数量由{@link Slot#count}指定
+     * <p>若上一次发布的缓冲区尚未上传，则直接回收</p>
+     */
+    void publish(Slot slot) {
+        Slot stale = pending.getAndSet(slot);
+        if (stale != null) {
+            free.offer(stale);
+        }
+    }
+
+    /**
+     * 归还未发布的缓冲区（排序线程）
+     */
+    void recycle(Slot slot) {
+        free.offer(slot);
+    }
+
+    /**
+     * 上传最新发布的缓冲区（主线程）
+     * @return 上传的索引数量，无新发布的缓冲区时返回-1
+     */
+    int upload(Engine engine, IndexBuffer indexBuffer) {
+        Slot slot = pending.getAndSet(null);
+        if (slot == null) {
+            return -1;
+        }
+        int count = slot.count;
+        if (count == 0) {
+            //全部被剔除，无需上传
+            free.offer(slot);
+            return 0;
+        }
+        slot.buffer.rewind();
+        indexBuffer.setBuffer(engine, slot.buffer, 0, count,
+                ThreadPools.getMainExecutor(), slot.release);
+        return count;
+    }
+
+    /**
+     * 将最新发布的缓冲区上传到顶点缓冲区（主线程）
+     * @param bufferIndex 顶点缓冲区中的缓冲区序号
+     * @return 上传的元素数量，无新发布的缓冲区时返回-1
+     */
+    int upload(Engine engine, VertexBuffer vertexBuffer, int bufferIndex) {
+        Slot slot = pending.getAndSet(null);
+        if (slot == null) {
+            return -1;
+        }
+        int count = slot.count;
+        slot.buffer.rewind();
+        vertexBuffer.setBufferAt(engine, bufferIndex, slot.buffer, 0, count,
+                ThreadPools.getMainExecutor(), slot.release);
+        return count;
+    }
+
+    /**
+     * 将最新发布的缓冲区上传到RGBA8纹理（主线程），缓冲区容量需等于纹理的texel数量
+     * @return 上传的元素数量，无新发布的缓冲区时返回-1
+     */
+    int upload(SplatTexture texture) {
+        Slot slot = pending.getAndSet(null);
+        if (slot == null) {
+            return -1;
+        }
+        slot.buffer.rewind();
+        texture.setImage(slot.buffer, Texture.Format.RGBA, Texture.Type.UBYTE, slot.release);
+        return slot.count;
+    }
+}
@@ -0,0 +1,103 @@
+package com.google.sceneform.rendering;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.filament.Texture;
+import com.google.sceneform.utilities.AndroidPreconditions;
+import com.google.sceneform.utilities.Preconditions;
+
+import java.nio.Buffer;
+
+/**
+ * 高斯点云的数据纹理
+ * <p>
+ *     每个高斯点的属性只存一份，由材质按顶点序号texelFetch读取，见{@link SplatGeometry}。
+ *     无mipmap，以NEAREST采样。
+ * </p>
+ */
+class SplatTexture {
+    @Nullable private final Texture filamentTexture;
+    private final int width;
+    private final int height;
+
+    /**
+     * 构造函数
+     * @param width 宽度(texel)
+     * @param height 高度(texel)
+     * @param internalFormat 纹理格式，如RGBA16F、RGBA8
+     */
+    SplatTexture(int width, int height, Texture.InternalFormat internalFormat) {
+        this.width = width;
+        this.height = height;
+        filamentTexture = new Texture.Builder()
+                .width(width)
+                .height(height)
+                .sampler(Texture.Sampler.SAMPLER_2D)
+                .format(internalFormat)
+                .levels(1)
+                .build(EngineInstance.getEngine().getFilamentEngine());
+
+        ResourceManager.getInstance()
+                .getSplatTextureCleanupRegistry()
+                .register(this, new CleanupCallback(filamentTexture));
+    }
+
+    /**
+     * 获取filament纹理对象
+     * @return 纹理对象
+     */
+    Texture getFilamentTexture() {
+        return Preconditions.checkNotNull(filamentTexture);
+    }
+
+    /**
+     * 上传整张纹理（主线程）
+     * <p>Filament异步读取，在release回调之前不可修改buffer</p>
+     * @param buffer direct缓冲区，大小为 width * height * 每个texel的字节数
+     * @param release Filament用完缓冲区后在主线程中回调，可为null
+     */
+    void setImage(Buffer buffer, Texture.Format format, Texture.Type type, @Nullable Runnable release) {
+        Texture.PixelBufferDescriptor descriptor = new Texture.PixelBufferDescriptor(
+                buffer,
+                format,
+                type,
+                1,
+                0,
+                0,
+                0,
+                release != null ? ThreadPools.getMainExecutor() : null,
+                release);
+        Preconditions.checkNotNull(filamentTexture).setImage(
+                EngineInstance.getEngine().getFilamentEngine(),
+                0,
+                0,
+                0,
+                width,
+                height,
+                descriptor);
+    }
+
+    /**
+     * Cleanup回调
+     */
+    private static final class CleanupCallback implements Runnable {
+        @Nullable private final Texture filamentTexture;
+
+        CleanupCallback(@Nullable Texture filamentTexture) {
+            this.filamentTexture = filamentTexture;
+        }
+
+        @Override
+        public void run() {
+            AndroidPreconditions.checkUiThread();
+
+            IEngine engine = EngineInstance.getEngine();
+            if (engine == null || !engine.isValid()) {
+                return;
+            }
+            if (filamentTexture != null) {
+                engine.destroyTexture(filamentTexture);
+            }
+        }
+    }
+}
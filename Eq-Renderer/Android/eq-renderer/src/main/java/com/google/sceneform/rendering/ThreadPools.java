@@ -1,9 +1,10 @@
 package com.google.sceneform.rendering;
 
-import android.os.AsyncTask;
 import android.os.Handler;
 import android.os.Looper;
 
+import androidx.annotation.Nullable;
+
 import java.util.concurrent.Executor;
 
 /**
@@ -13,6 +14,7 @@ import java.util.concurrent.Executor;
 public class ThreadPools {
   private static Executor mainExecutor;
   private static Executor threadPoolExecutor;
+  private static LoaderExecutor loaderExecutor;
 
   private ThreadPools() {}
 
@@ -42,19 +44,60 @@ public class ThreadPools {
 
   /**
    * 获取后台线程的Executor
-   * <p>用于异步执行特定任务</p>
+   * <p>用于异步执行特定任务，默认为资源加载线程池的{@link LoaderExecutor.Priority#FOREGROUND}优先级</p>
    * */
   public static Executor getThreadPoolExecutor() {
+    return getThreadPoolExecutor(LoaderExecutor.Priority.FOREGROUND);
+  }
+
+  /**
+   * 获取指定加载优先级的后台线程Executor
+   * <p>若通过{@link #setThreadPoolExecutor(Executor)}设置了Executor，则所有优先级均使用该Executor</p>
+   */
+  public static Executor getThreadPoolExecutor(LoaderExecutor.Priority priority) {
     if (threadPoolExecutor == null) {
-      return AsyncTask.THREAD_POOL_EXECUTOR;
+      return getLoaderExecutor().getExecutor(priority);
     }
     return threadPoolExecutor;
   }
 
-//  /**
-//   * 设置后台线程Executor
-//   */
-//  public static void setThreadPoolExecutor(Executor executor) {
-//    threadPoolExecutor = executor;
-//  }
+  /**
+   * 获取流式读取的Executor，见{@link LoaderExecutor#getStreamingExecutor()}
+   * <p>若通过{@link #setThreadPoolExecutor(Executor)}设置了Executor，则使用该Executor</p>
+   */
+  public static Executor getStreamingExecutor() {
+    if (threadPoolExecutor == null) {
+      return getLoaderExecutor().getStreamingExecutor();
+    }
+    return threadPoolExecutor;
+  }
+
+  /**
+   * 设置后台线程Executor
+   * @param executor 为null时恢复使用资源加载线程池
+   */
+  public static void setThreadPoolExecutor(@Nullable Executor executor) {
+    threadPoolExecutor = executor;
+  }
+
+  /**
+   * 获取资源加载线程池，可查询排队数量与等待时间
+   */
+  public static synchronized LoaderExecutor getLoaderExecutor() {
+    if (loaderExecutor == null) {
+      loaderExecutor = new LoaderExecutor();
+    }
+    return loaderExecutor;
+  }
+
+  /**
+   * 替换资源加载线程池，如调整线程数
+   * <p>原线程池不再接收新任务，已提交的任务继续执行</p>
+   */
+  public static synchronized void setLoaderExecutor(LoaderExecutor executor) {
+    if (loaderExecutor != null && loaderExecutor != executor) {
+      loaderExecutor.shutdown();
+    }
+    loaderExecutor = executor;
+  }
 }
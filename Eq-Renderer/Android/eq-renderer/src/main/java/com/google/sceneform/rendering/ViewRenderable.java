@@ -272,6 +272,9 @@ public class ViewRenderable extends Renderable {
   }
 
   private void updateSuggestedCollisionShape() {
+    //视图尺寸、尺寸计算器或对齐方式变化，最终模型矩阵随之变化
+    markFinalModelMatrixChanged();
+
     if (getId().isEmpty()) {
       return;
     }
@@ -0,0 +1,261 @@
+package com.google.sceneform.resources;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
+
+import com.google.sceneform.utilities.Preconditions;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按字节数限制容量的LRU资源缓存
+ * <p>
+ *     与{@link ResourceRegistry}只维护弱引用不同，缓存对最近使用的资源保持强引用，
+ *     总大小超过上限时按最近最少使用的顺序淘汰。
+ * </p>
+ * <p>线程安全，并统计命中、未命中与淘汰次数</p>
+ * <p>
+ *     资源因淘汰、替换或{@link #remove}离开缓存时回调{@link EvictionListener}，由其释放缓存持有的资源；
+ *     回调在触发淘汰的线程中、锁外执行。{@link #destroyAllResources()}只清空缓存，不回调。
+ * </p>
+ * @hide
+ */
+public class ResourceCache<T> implements ResourceHolder {
+  private final Object lock = new Object();
+
+  @GuardedBy("lock")
+  private final LinkedHashMap<Object, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  @GuardedBy("lock")
+  private long maxSizeBytes;
+
+  @GuardedBy("lock")
+  private long sizeBytes;
+
+  @GuardedBy("lock")
+  private long hitCount;
+
+  @GuardedBy("lock")
+  private long missCount;
+
+  @GuardedBy("lock")
+  private long evictionCount;
+
+  @Nullable private volatile EvictionListener<T> evictionListener;
+
+  /**
+   * 淘汰回调
+   */
+  public interface EvictionListener<T> {
+    /**
+     * @param id 资源id
+     * @param resource 离开缓存的资源
+     */
+    void onEvicted(Object id, T resource);
+  }
+
+  private static final class Entry<T> {
+    final T resource;
+    long sizeBytes;
+
+    Entry(T resource, long sizeBytes) {
+      this.resource = resource;
+      this.sizeBytes = sizeBytes;
+    }
+  }
+
+  /**
+   * 构造函数
+   * @param maxSizeBytes 缓存上限(字节)，为0时不缓存
+   */
+  public ResourceCache(long maxSizeBytes) {
+    this.maxSizeBytes = Math.max(0, maxSizeBytes);
+  }
+
+  /**
+   * 设置淘汰回调
+   */
+  public void setEvictionListener(@Nullable EvictionListener<T> evictionListener) {
+    this.evictionListener = evictionListener;
+  }
+
+  /**
+   * 获取缓存的资源，并标记为最近使用
+   * @return 未缓存时返回null
+   */
+  @Nullable
+  public T get(Object id) {
+    Preconditions.checkNotNull(id, "Parameter 'id' was null.");
+
+    synchronized (lock) {
+      Entry<T> entry = entries.get(id);
+      if (entry == null) {
+        missCount++;
+        return null;
+      }
+      hitCount++;
+      return entry.resource;
+    }
+  }
+
+  /**
+   * 缓存资源，超出上限时淘汰最近最少使用的资源
+   * <p>单个资源大于上限时不缓存，也不回调，资源仍由调用方释放</p>
+   * @param sizeBytes 资源占用的字节数
+   * @return 是否已缓存
+   */
+  public boolean put(Object id, T resource, long sizeBytes) {
+    Preconditions.checkNotNull(id, "Parameter 'id' was null.");
+    Preconditions.checkNotNull(resource, "Parameter 'resource' was null.");
+
+    List<Map.Entry<Object, T>> evicted = new ArrayList<>();
+    boolean cached = false;
+    synchronized (lock) {
+      Entry<T> previous = entries.remove(id);
+      if (previous != null) {
+        this.sizeBytes -= previous.sizeBytes;
+        evicted.add(new AbstractMap.SimpleEntry<>(id, previous.resource));
+      }
+      if (sizeBytes > 0 && sizeBytes <= maxSizeBytes) {
+        entries.put(id, new Entry<>(resource, sizeBytes));
+        this.sizeBytes += sizeBytes;
+        trimToSize(maxSizeBytes, evicted);
+        cached = true;
+      }
+    }
+    notifyEvicted(evicted);
+    return cached;
+  }
+
+  /**
+   * 更新资源的大小，如加载完成后外部数据计入统计，超出上限时淘汰
+   * @param sizeBytes 资源占用的字节数
+   */
+  public void resize(Object id, long sizeBytes) {
+    List<Map.Entry<Object, T>> evicted = new ArrayList<>();
+    synchronized (lock) {
+      Entry<T> entry = entries.get(id);
+      if (entry == null || entry.sizeBytes == sizeBytes) {
+        return;
+      }
+      this.sizeBytes += sizeBytes - entry.sizeBytes;
+      if (sizeBytes <= 0 || sizeBytes > maxSizeBytes) {
+        entries.remove(id);
+        this.sizeBytes -= sizeBytes;
+        evictionCount++;
+        evicted.add(new AbstractMap.SimpleEntry<>(id, entry.resource));
+      } else {
+        //替换为新大小，不改变访问顺序
+        entry.sizeBytes = sizeBytes;
+        trimToSize(maxSizeBytes, evicted);
+      }
+    }
+    notifyEvicted(evicted);
+  }
+
+  public void remove(Object id) {
+    T removed = null;
+    synchronized (lock) {
+      Entry<T> entry = entries.remove(id);
+      if (entry != null) {
+        sizeBytes -= entry.sizeBytes;
+        removed = entry.resource;
+      }
+    }
+    EvictionListener<T> listener = evictionListener;
+    if (removed != null && listener != null) {
+      listener.onEvicted(id, removed);
+    }
+  }
+
+  /**
+   * 设置缓存上限，缩小时立即淘汰
+   */
+  public void setMaxSizeBytes(long maxSizeBytes) {
+    List<Map.Entry<Object, T>> evicted = new ArrayList<>();
+    synchronized (lock) {
+      this.maxSizeBytes = Math.max(0, maxSizeBytes);
+      trimToSize(this.maxSizeBytes, evicted);
+    }
+    notifyEvicted(evicted);
+  }
+
+  public long getMaxSizeBytes() {
+    synchronized (lock) {
+      return maxSizeBytes;
+    }
+  }
+
+  /** 获取当前缓存的总字节数 */
+  public long getSizeBytes() {
+    synchronized (lock) {
+      return sizeBytes;
+    }
+  }
+
+  public int getEntryCount() {
+    synchronized (lock) {
+      return entries.size();
+    }
+  }
+
+  public long getHitCount() {
+    synchronized (lock) {
+      return hitCount;
+    }
+  }
+
+  public long getMissCount() {
+    synchronized (lock) {
+      return missCount;
+    }
+  }
+
+  public long getEvictionCount() {
+    synchronized (lock) {
+      return evictionCount;
+    }
+  }
+
+  @GuardedBy("lock")
+  private void trimToSize(long limit, List<Map.Entry<Object, T>> evicted) {
+    Iterator<Map.Entry<Object, Entry<T>>> iterator = entries.entrySet().iterator();
+    while (sizeBytes > limit && iterator.hasNext()) {
+      Map.Entry<Object, Entry<T>> eldest = iterator.next();
+      iterator.remove();
+      sizeBytes -= eldest.getValue().sizeBytes;
+      evictionCount++;
+      evicted.add(new AbstractMap.SimpleEntry<>(eldest.getKey(), eldest.getValue().resource));
+    }
+  }
+
+  private void notifyEvicted(List<Map.Entry<Object, T>> evicted) {
+    EvictionListener<T> listener = evictionListener;
+    if (listener == null) {
+      return;
+    }
+    for (Map.Entry<Object, T> entry : evicted) {
+      listener.onEvicted(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /** 清空缓存，统计数据保留；强制销毁时资源由各自的清理注册表释放，不回调 */
+  @Override
+  public void destroyAllResources() {
+    synchronized (lock) {
+      entries.clear();
+      sizeBytes = 0;
+    }
+  }
+
+  @Override
+  public long reclaimReleasedResources() {
+    //缓存的资源由其他Holder释放
+    return 0;
+  }
+}
@@ -6,10 +6,14 @@ import android.util.Log;
 import androidx.annotation.Nullable;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionException;
 
@@ -124,6 +128,74 @@ public final class SceneformBufferUtils {
     }
   }
 
+  public static ByteBuffer inputStreamCallableToDirectByteBuffer(Callable<InputStream> inputStreamCreator)
+      throws Exception {
+    try (InputStream input = inputStreamCreator.call()) {
+      return inputStreamToDirectByteBuffer(input);
+    }
+  }
+
+  /**
+   * 读取输入流到direct ByteBuffer，不产生完整的堆内存副本
+   * <p>
+   *     普通文件直接内存映射(关闭输入流后映射仍有效)；管道、socket等不可定位的文件描述符，
+   *     以及其他输入流按{@link InputStream#available()}
+   *     预估大小分配，assets等可预知长度的输入流只需一次分配。
+   * </p>
+   * @return position为0，limit为数据长度
+   */
+  public static ByteBuffer inputStreamToDirectByteBuffer(InputStream input) throws IOException {
+    if (input instanceof FileInputStream) {
+      ByteBuffer mapped = mapFile(((FileInputStream) input).getChannel());
+      if (mapped != null) {
+        return mapped;
+      }
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(input.available(), DEFAULT_BLOCK_SIZE));
+    ReadableByteChannel channel = Channels.newChannel(input);
+    while (true) {
+      if (!buffer.hasRemaining()) {
+        //预估大小恰好等于数据长度时无需扩容
+        int next = input.read();
+        if (next < 0) {
+          break;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+        buffer.flip();
+        grown.put(buffer);
+        grown.put((byte) next);
+        buffer = grown;
+      }
+      if (channel.read(buffer) < 0) {
+        break;
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * 映射文件通道从当前位置到末尾的数据
+   * @return 不可定位(如管道)、长度未知或超出int范围时返回null，此时未读取任何数据
+   */
+  @Nullable
+  private static ByteBuffer mapFile(FileChannel fileChannel) {
+    try {
+      long position = fileChannel.position();
+      long size = fileChannel.size() - position;
+      if (size <= 0 || size > Integer.MAX_VALUE) {
+        return null;
+      }
+      ByteBuffer mapped = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, size);
+      //与读取一致，消费到末尾
+      fileChannel.position(position + size);
+      return mapped;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
   public static byte[] inputStreamToByteArray(InputStream input) throws IOException {
     ByteArrayOutputStream output = new ByteArrayOutputStream();
     copy(input, output);
@@ -0,0 +1,180 @@
+package com.eqgis.eqr.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 高斯点云分块剔除测试
+ * <p>分块覆盖全部高斯点且包围盒包含块内中心，视锥内的高斯点不会被剔除，LOD按距离减少高斯点并保留块内前缀</p>
+ */
+public class GaussianChunksTest {
+
+    private static final int COUNT = 40_000;
+    private static final int CHUNK_SIZE = 512;
+
+    private static final float[] IDENTITY = {
+            1, 0, 0, 0,
+            0, 1, 0, 0,
+            0, 0, 1, 0,
+            0, 0, 0, 1};
+
+    @Test
+    public void chunksPartitionAllSplats() {
+        float[] centers = randomCenters(COUNT, 1);
+        GaussianChunks chunks = GaussianChunks.build(centers, null, CHUNK_SIZE);
+        assertEquals(COUNT, chunks.getSplatCount());
+        assertEquals(COUNT, chunks.getChunkStart(chunks.getChunkCount()));
+
+        boolean[] seen = new boolean[COUNT];
+        float[] boxes = chunks.rawBoxes();
+        for (int c = 0; c < chunks.getChunkCount(); c++) {
+            int start = chunks.getChunkStart(c);
+            int end = chunks.getChunkStart(c + 1);
+            assertTrue(end > start && end - start <= CHUNK_SIZE);
+            for (int k = start; k < end; k++) {
+                int id = chunks.getSplatId(k);
+                assertFalse("duplicate " + id, seen[id]);
+                seen[id] = true;
+                for (int axis = 0; axis < 3; axis++) {
+                    float distance = Math.abs(centers[id * 3 + axis] - boxes[c * 6 + axis]);
+                    assertTrue(distance <= boxes[c * 6 + 3 + axis] + 1e-4f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void keepsEverySplatInsideFrustum() {
+        float[] centers = randomCenters(COUNT, 2);
+        GaussianChunks chunks = GaussianChunks.build(centers, null, CHUNK_SIZE);
+        float[] camera = camera(0.6f, 2f, 0f, 8f);
+        float[] projection = perspective(60f, 0.1f, 1000f);
+
+        int[] visible = new int[COUNT];
+        int count = chunks.cull(IDENTITY, camera, projection, visible);
+        boolean[] kept = new boolean[COUNT];
+        for (int k = 0; k < count; k++) {
+            kept[visible[k]] = true;
+        }
+        int inside = 0;
+        for (int i = 0; i < COUNT; i++) {
+            if (insideFrustum(centers, i, camera, projection)) {
+                inside++;
+                assertTrue("splat " + i + " culled", kept[i]);
+            }
+        }
+        //相机位于点云内部，部分块位于视锥外
+        assertTrue(count < COUNT);
+        assertTrue(inside > 0 && count >= inside);
+
+        chunks.setFrustumCulling(false);
+        assertEquals(COUNT, chunks.cull(IDENTITY, camera, projection, visible));
+    }
+
+    @Test
+    public void visibleChangedOnlyWhenKeepCountsChange() {
+        float[] centers = randomCenters(COUNT, 3);
+        GaussianChunks chunks = GaussianChunks.build(centers, null, CHUNK_SIZE);
+        float[] projection = perspective(60f, 0.1f, 1000f);
+        int[] visible = new int[COUNT];
+
+        chunks.cull(IDENTITY, camera(0f, 0f, 0f, 30f), projection, visible);
+        assertTrue(chunks.isVisibleChanged());
+        chunks.cull(IDENTITY, camera(0f, 0f, 0f, 30f), projection, visible);
+        assertFalse(chunks.isVisibleChanged());
+        chunks.cull(IDENTITY, camera(2.5f, 0f, 0f, 5f), projection, visible);
+        assertTrue(chunks.isVisibleChanged());
+    }
+
+    @Test
+    public void lodKeepsPrefixOfFarChunks() {
+        float[] centers = randomCenters(COUNT, 4);
+        GaussianChunks chunks = GaussianChunks.build(centers, null, CHUNK_SIZE);
+        chunks.setLodScreenSize(0.5f);
+        float[] projection = perspective(60f, 0.1f, 10_000f);
+        int[] visible = new int[COUNT];
+
+        int near = chunks.cull(IDENTITY, camera(0f, 0f, 0f, 40f), projection, visible);
+        int far = chunks.cull(IDENTITY, camera(0f, 0f, 0f, 400f), projection, visible);
+        assertTrue(far < near);
+        assertTrue(near <= COUNT);
+
+        //每块保留分组顺序中的前缀，且至少保留1个
+        int k = 0;
+        for (int c = 0; c < chunks.getChunkCount(); c++) {
+            int keep = chunks.getKeepCount(c);
+            assertTrue(keep >= 1);
+            for (int j = 0; j < keep; j++) {
+                assertEquals(chunks.getSplatId(chunks.getChunkStart(c) + j), visible[k++]);
+            }
+        }
+        assertEquals(far, k);
+    }
+
+    @Test
+    public void reorderedUsesContiguousIndices() {
+        float[] centers = randomCenters(COUNT, 5);
+        GaussianChunks chunks = GaussianChunks.build(centers, null, CHUNK_SIZE);
+        GaussianChunks reordered = chunks.reordered();
+        assertEquals(chunks.getChunkCount(), reordered.getChunkCount());
+        for (int k = 0; k < COUNT; k++) {
+            assertEquals(k, reordered.getSplatId(k));
+        }
+    }
+
+    private static boolean insideFrustum(float[] centers, int i, float[] camera, float[] projection) {
+        //view = camera的逆
+        float dx = centers[i * 3] - camera[12];
+        float dy = centers[i * 3 + 1] - camera[13];
+        float dz = centers[i * 3 + 2] - camera[14];
+        float vx = camera[0] * dx + camera[1] * dy + camera[2] * dz;
+        float vy = camera[4] * dx + camera[5] * dy + camera[6] * dz;
+        float vz = camera[8] * dx + camera[9] * dy + camera[10] * dz;
+        float x = projection[0] * vx;
+        float y = projection[5] * vy;
+        float z = projection[10] * vz + projection[14];
+        float w = -vz;
+        //留出浮点误差
+        float margin = 0.999f;
+        return w > 0 && Math.abs(x) < w * margin && Math.abs(y) < w * margin && Math.abs(z) < w * margin;
+    }
+
+    private static float[] randomCenters(int count, long seed) {
+        Random random = new Random(seed);
+        float[] centers = new float[count * 3];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = (random.nextFloat() - 0.5f) * 20f;
+        }
+        return centers;
+    }
+
+    /**
+     * 绕Y轴旋转angle，位于(x, y, z)的相机模型矩阵(列主序)，相机朝向-Z
+     */
+    private static float[] camera(float angle, float x, float y, float z) {
+        float c = (float) Math.cos(angle);
+        float s = (float) Math.sin(angle);
+        return new float[]{
+                c, 0, -s, 0,
+                0, 1, 0, 0,
+                s, 0, c, 0,
+                x, y, z, 1};
+    }
+
+    /**
+     * 透视投影矩阵(列主序)，宽高比为1
+     */
+    private static float[] perspective(float fovDegrees, float near, float far) {
+        float f = (float) (1.0 / Math.tan(Math.toRadians(fovDegrees) / 2));
+        return new float[]{
+                f, 0, 0, 0,
+                0, f, 0, 0,
+                0, 0, (far + near) / (near - far), -1,
+                0, 0, 2 * far * near / (near - far), 0};
+    }
+}
@@ -0,0 +1,221 @@
+package com.eqgis.eqr.core;
+
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 高斯点云量化存储测试
+ * <p>各属性解码误差不超过量化步长的一半，存储顺序与分块一致，半精度转换在规格化、非规格化与特殊值上正确</p>
+ */
+public class GaussianQuantizedDataTest {
+
+    private static final int COUNT = 20_000;
+    private static final int REST = 45;
+
+    @Test
+    public void decodesWithinQuantizationError() {
+        JPlyGS3dAsset asset = randomAsset(COUNT, 1);
+        GaussianChunks chunks = GaussianChunks.build(asset.vertices, asset.scale, 1024);
+        GaussianQuantizedData data = GaussianQuantizedData.encode(asset, chunks);
+        assertEquals(COUNT, data.getCount());
+        assertEquals(3, data.getShDegree());
+        assertEquals(REST, data.getRestDimension());
+        assertTrue(data.getByteSize() < asset.getSizeInBytes() / 3);
+
+        float positionError = maxExtent(asset.aabb) / 65535f;
+        float scaleError = range(asset.scale) / 255f;
+        float restError = maxAbs(asset.f_rest) / 127f;
+        float[] out = new float[REST];
+        for (int i = 0; i < COUNT; i++) {
+            int id = data.getOriginalIndex(i);
+            assertEquals(chunks.getSplatId(i), id);
+
+            data.decodePosition(i, out, 0);
+            for (int a = 0; a < 3; a++) {
+                assertEquals(asset.vertices[id * 3 + a], out[a], positionError);
+            }
+
+            assertTrue(data.decodeRotation(i, out, 0));
+            float dot = 0;
+            float length = 0;
+            for (int k = 0; k < 4; k++) {
+                dot += out[k] * asset.rot[id * 4 + k];
+                length += asset.rot[id * 4 + k] * asset.rot[id * 4 + k];
+            }
+            //q与-q表示同一旋转
+            assertEquals(1f, Math.abs(dot) / (float) Math.sqrt(length), 2e-3f);
+
+            assertTrue(data.decodeScale(i, out, 0));
+            for (int a = 0; a < 3; a++) {
+                assertEquals(asset.scale[id * 3 + a], out[a], scaleError);
+            }
+
+            assertEquals(sigmoid(asset.opacity[id]), sigmoid(data.decodeOpacity(i)), 1f / 255f);
+
+            assertTrue(data.decodeColor(i, out, 0));
+            for (int a = 0; a < 3; a++) {
+                float expected = asset.f_dc[id * 3 + a];
+                assertEquals(expected, out[a], Math.abs(expected) / 1024f + 1e-7f);
+            }
+
+            assertTrue(data.decodeRest(i, out, 0));
+            for (int k = 0; k < REST; k++) {
+                assertEquals(asset.f_rest[id * REST + k], out[k], restError);
+            }
+        }
+    }
+
+    @Test
+    public void decodeMatchesPerSplatDecode() {
+        JPlyGS3dAsset asset = randomAsset(3000, 2);
+        GaussianQuantizedData data = GaussianQuantizedData.encode(asset,
+                GaussianChunks.build(asset.vertices, asset.scale, 256));
+        JPlyGS3dAsset decoded = data.decode();
+        assertEquals(3000, decoded.pointCount);
+        assertEquals(REST, decoded.dimension);
+        assertArrayEquals(asset.aabb, decoded.aabb, 0f);
+
+        float[] out = new float[REST];
+        for (int i = 0; i < 3000; i++) {
+            data.decodePosition(i, out, 0);
+            for (int a = 0; a < 3; a++) {
+                assertEquals(out[a], decoded.vertices[i * 3 + a], 0f);
+            }
+            data.decodeRotation(i, out, 0);
+            for (int k = 0; k < 4; k++) {
+                assertEquals(out[k], decoded.rot[i * 4 + k], 0f);
+            }
+            assertEquals(data.decodeOpacity(i), decoded.opacity[i], 0f);
+            data.decodeRest(i, out, 0);
+            for (int k = 0; k < REST; k++) {
+                assertEquals(out[k], decoded.f_rest[i * REST + k], 0f);
+            }
+        }
+        assertArrayEquals(decoded.vertices, data.decodePositionsOnly().vertices, 0f);
+    }
+
+    @Test
+    public void missingAttributesAreReported() {
+        JPlyGS3dAsset asset = randomAsset(100, 3);
+        asset.rot = null;
+        asset.scale = null;
+        asset.opacity = null;
+        asset.f_dc = null;
+        asset.f_rest = null;
+        asset.shDegree = 0;
+        GaussianQuantizedData data = GaussianQuantizedData.encode(asset,
+                GaussianChunks.build(asset.vertices, null, 32));
+        float[] out = new float[4];
+        assertEquals(0, data.getRestDimension());
+        assertFalse(data.decodeRotation(0, out, 0));
+        assertFalse(data.decodeScale(0, out, 0));
+        assertFalse(data.decodeColor(0, out, 0));
+        assertFalse(data.decodeRest(0, out, 0));
+        assertTrue(Float.isNaN(data.decodeOpacity(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchedChunks() {
+        JPlyGS3dAsset asset = randomAsset(100, 4);
+        GaussianQuantizedData.encode(asset, GaussianChunks.build(randomAsset(50, 5).vertices, null, 32));
+    }
+
+    @Test
+    public void halfConversion() {
+        float[] exact = {0f, 1f, -2f, 0.5f, 65504f, -65504f, 6.1035156e-5f, 5.9604645e-8f, 1023.5f};
+        for (float value : exact) {
+            assertEquals(value, GaussianQuantizedData.fromHalf(GaussianQuantizedData.toHalf(value)), 0f);
+        }
+        assertEquals(Float.POSITIVE_INFINITY, GaussianQuantizedData.fromHalf(GaussianQuantizedData.toHalf(1e6f)), 0f);
+        assertEquals(Float.NEGATIVE_INFINITY,
+                GaussianQuantizedData.fromHalf(GaussianQuantizedData.toHalf(Float.NEGATIVE_INFINITY)), 0f);
+        assertTrue(Float.isNaN(GaussianQuantizedData.fromHalf(GaussianQuantizedData.toHalf(Float.NaN))));
+        assertEquals(0f, GaussianQuantizedData.fromHalf(GaussianQuantizedData.toHalf(1e-9f)), 0f);
+
+        Random random = new Random(6);
+        for (int i = 0; i < 100_000; i++) {
+            float value = (float) ((random.nextDouble() - 0.5) * Math.pow(2, random.nextInt(30) - 14));
+            float half = GaussianQuantizedData.fromHalf(GaussianQuantizedData.toHalf(value));
+            //规格化数相对误差不超过2^-11，非规格化数绝对误差不超过2^-25
+            assertEquals(value, half, Math.max(Math.abs(value) / 2048f, 2.9802322e-8f));
+        }
+    }
+
+    private static JPlyGS3dAsset randomAsset(int count, long seed) {
+        Random random = new Random(seed);
+        JPlyGS3dAsset asset = new JPlyGS3dAsset();
+        asset.vertices = new float[count * 3];
+        asset.scale = new float[count * 3];
+        asset.f_dc = new float[count * 3];
+        asset.rot = new float[count * 4];
+        asset.opacity = new float[count];
+        asset.f_rest = new float[count * REST];
+        for (int i = 0; i < count * 3; i++) {
+            asset.vertices[i] = (random.nextFloat() - 0.5f) * 40f;
+            asset.scale[i] = -6f + random.nextFloat() * 5f;
+            asset.f_dc[i] = (float) random.nextGaussian();
+        }
+        for (int i = 0; i < asset.rot.length; i++) {
+            asset.rot[i] = (float) random.nextGaussian();
+        }
+        for (int i = 0; i < count; i++) {
+            asset.opacity[i] = (float) random.nextGaussian() * 4f;
+        }
+        for (int i = 0; i < asset.f_rest.length; i++) {
+            asset.f_rest[i] = (float) random.nextGaussian() * 0.1f;
+        }
+        asset.aabb = bounds(asset.vertices);
+        asset.is3DGS = true;
+        asset.pointCount = count;
+        asset.shDegree = 3;
+        asset.dimension = REST;
+        return asset;
+    }
+
+    private static float[] bounds(float[] positions) {
+        float[] box = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (int i = 0; i < positions.length; i += 3) {
+            for (int c = 0; c < 3; c++) {
+                box[c] = Math.min(box[c], positions[i + c]);
+                box[3 + c] = Math.max(box[3 + c], positions[i + c]);
+            }
+        }
+        return box;
+    }
+
+    private static float maxExtent(float[] aabb) {
+        return Math.max(aabb[3] - aabb[0], Math.max(aabb[4] - aabb[1], aabb[5] - aabb[2]));
+    }
+
+    private static float range(float[] values) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float v : values) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        return max - min;
+    }
+
+    private static float maxAbs(float[] values) {
+        float max = 0;
+        for (float v : values) {
+            max = Math.max(max, Math.abs(v));
+        }
+        return max;
+    }
+
+    private static float sigmoid(float x) {
+        return (float) (1.0 / (1.0 + Math.exp(-x)));
+    }
+}
@@ -0,0 +1,207 @@
+package com.eqgis.eqr.core;
+
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 高斯点云排序测试
+ * <p>校验输出顺序为深度降序(远 → 近)，以及增量修正、回退与子集模式</p>
+ */
+public class GaussianRadixSorterTest {
+
+    private static final float[] IDENTITY = {
+            1, 0, 0, 0,
+            0, 1, 0, 0,
+            0, 0, 1, 0,
+            0, 0, 0, 1};
+
+    @Test
+    public void radixSortOrdersFarToNear() {
+        float[] centers = randomCenters(50_000, 1);
+        float[] camera = camera(0.3f, 1f, 2f, 30f);
+        for (int keyBits : new int[]{GaussianRadixSorter.KEY_BITS_16, GaussianRadixSorter.KEY_BITS_32}) {
+            GaussianRadixSorter sorter = new GaussianRadixSorter(centers.length / 3);
+            sorter.setKeyBits(keyBits);
+            int[] order = new int[centers.length / 3];
+            sorter.sortSingle(centers, IDENTITY, camera, order);
+
+            assertEquals(GaussianRadixSorter.Pass.RADIX, sorter.getLastPass());
+            assertPermutation(order);
+            //量化误差以内保持降序
+            float[] depth = depth(centers, camera);
+            float tolerance = keyBits == GaussianRadixSorter.KEY_BITS_16 ? range(depth) / 65535f * 1.01f : 1e-4f;
+            assertDescending(order, depth, tolerance);
+        }
+    }
+
+    @Test
+    public void translationReusesOrder() {
+        float[] centers = randomCenters(10_000, 2);
+        GaussianRadixSorter sorter = new GaussianRadixSorter(centers.length / 3);
+        int[] first = new int[centers.length / 3];
+        sorter.sortSingle(centers, IDENTITY, camera(0.3f, 0f, 0f, 30f), first);
+
+        int[] second = new int[first.length];
+        sorter.sortSingle(centers, IDENTITY, camera(0.3f, 5f, -3f, 40f), second);
+        assertEquals(GaussianRadixSorter.Pass.REUSED, sorter.getLastPass());
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void smallRotationFixesUpExactly() {
+        float[] centers = randomCenters(100_000, 3);
+        GaussianRadixSorter sorter = new GaussianRadixSorter(centers.length / 3);
+        int[] order = new int[centers.length / 3];
+        sorter.sortSingle(centers, IDENTITY, camera(0.3f, 0f, 0f, 30f), order);
+
+        float[] camera = camera(0.3002f, 0f, 0f, 30f);
+        sorter.sortSingle(centers, IDENTITY, camera, order);
+        assertEquals(GaussianRadixSorter.Pass.FIXUP, sorter.getLastPass());
+        assertPermutation(order);
+        //插入排序按精确深度，无量化误差
+        assertDescending(order, depth(centers, camera), 0f);
+    }
+
+    @Test
+    public void largeChangeFallsBackToRadix() {
+        float[] centers = randomCenters(20_000, 4);
+        GaussianRadixSorter sorter = new GaussianRadixSorter(centers.length / 3);
+        //阈值放宽到任意旋转都尝试修正，反向视线时移动次数超限
+        sorter.setIncrementalThreshold(10f);
+        int[] order = new int[centers.length / 3];
+        sorter.sortSingle(centers, IDENTITY, camera(0f, 0f, 0f, 30f), order);
+
+        float[] camera = camera((float) Math.PI, 0f, 0f, 30f);
+        sorter.sortSingle(centers, IDENTITY, camera, order);
+        assertEquals(GaussianRadixSorter.Pass.RADIX, sorter.getLastPass());
+        assertPermutation(order);
+        assertDescending(order, depth(centers, camera), 1e-4f);
+    }
+
+    @Test
+    public void parallelMatchesSerial() {
+        float[] centers = randomCenters(300_000, 5);
+        float[] camera = camera(1.1f, 2f, 0f, 25f);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            GaussianRadixSorter parallel = new GaussianRadixSorter(centers.length / 3, pool);
+            GaussianRadixSorter serial = new GaussianRadixSorter(centers.length / 3);
+            assertTrue(parallel.getPartitionCount() > 1);
+
+            int[] expected = new int[centers.length / 3 * 6];
+            int[] actual = new int[expected.length];
+            serial.sort(centers, IDENTITY, camera, expected);
+            parallel.sort(centers, IDENTITY, camera, actual);
+            //计数排序是稳定的，分区合并后结果应完全一致
+            assertArrayEquals(expected, actual);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void visibleSubsetIsSortedAndMapped() {
+        float[] centers = randomCenters(10_000, 6);
+        int count = centers.length / 3;
+        int[] visible = new int[count / 2];
+        for (int i = 0; i < visible.length; i++) {
+            visible[i] = i * 2 + 1;
+        }
+        float[] camera = camera(0.7f, 0f, 1f, 30f);
+        GaussianRadixSorter sorter = new GaussianRadixSorter(count);
+        IntBuffer out = IntBuffer.allocate(visible.length);
+        sorter.sortSingle(centers, visible, visible.length, IDENTITY, camera, out);
+
+        float[] depth = depth(centers, camera);
+        boolean[] seen = new boolean[count];
+        for (int k = 0; k < visible.length; k++) {
+            int index = out.get(k);
+            assertEquals(1, index % 2);
+            assertTrue(!seen[index]);
+            seen[index] = true;
+            if (k > 0) {
+                assertTrue(depth[out.get(k - 1)] >= depth[index] - 1e-4f);
+            }
+        }
+    }
+
+    @Test
+    public void quickSortOrdersFarToNear() {
+        float[] centers = randomCenters(20_000, 7);
+        float[] camera = camera(0.9f, 1f, 0f, 30f);
+        GaussianSorter sorter = new GaussianSorter(centers.length / 3, new ForkJoinPool(2));
+        int[] order = new int[centers.length / 3];
+        sorter.sortSingle(centers, IDENTITY, camera, order);
+        assertPermutation(order);
+        //GaussianSorter的深度含平移分量，与参考实现有舍入差异
+        assertDescending(order, depth(centers, camera), 1e-4f);
+    }
+
+    private static float[] randomCenters(int count, long seed) {
+        Random random = new Random(seed);
+        float[] centers = new float[count * 3];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = (random.nextFloat() - 0.5f) * 20f;
+        }
+        return centers;
+    }
+
+    /**
+     * 绕Y轴旋转angle，位于(x, y, z)的相机模型矩阵(列主序)
+     */
+    private static float[] camera(float angle, float x, float y, float z) {
+        float c = (float) Math.cos(angle);
+        float s = (float) Math.sin(angle);
+        return new float[]{
+                c, 0, -s, 0,
+                0, 1, 0, 0,
+                s, 0, c, 0,
+                x, y, z, 1};
+    }
+
+    /**
+     * 参考实现：depth = -Z_camera，省略对所有点相同的平移分量
+     */
+    private static float[] depth(float[] centers, float[] camera) {
+        float[] depth = new float[centers.length / 3];
+        for (int i = 0; i < depth.length; i++) {
+            //相机Z轴为第三列，view矩阵取其转置
+            depth[i] = -(camera[8] * centers[i * 3] + camera[9] * centers[i * 3 + 1] + camera[10] * centers[i * 3 + 2]);
+        }
+        return depth;
+    }
+
+    private static float range(float[] depth) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float d : depth) {
+            min = Math.min(min, d);
+            max = Math.max(max, d);
+        }
+        return max - min;
+    }
+
+    private static void assertDescending(int[] order, float[] depth, float tolerance) {
+        for (int k = 1; k < order.length; k++) {
+            float previous = depth[order[k - 1]];
+            float current = depth[order[k]];
+            assertTrue("position " + k + ": " + previous + " < " + current,
+                    previous >= current - tolerance);
+        }
+    }
+
+    private static void assertPermutation(int[] order) {
+        boolean[] seen = new boolean[order.length];
+        for (int index : order) {
+            assertTrue(!seen[index]);
+            seen[index] = true;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.eqgis.eqr.core;
+
+import com.eqgis.eqr.data.JPlyAsset;
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Ply预处理缓存文件测试
+ * <p>属性数组与分块(跨越写缓冲区)原样读回，指纹或类型不匹配时视为失效，两种指纹计算方式一致，长度未知时以来源地址区分</p>
+ */
+public class PlyCacheFileTest {
+
+    private static final long FINGERPRINT = 0x1234_5678_9abcL;
+    //超过单次写入的数量
+    private static final int COUNT = 100_000;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("eqr_cache_test", ".cache");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    @Test
+    public void plyRoundTrip() throws IOException {
+        Random random = new Random(1);
+        JPlyAsset asset = new JPlyAsset();
+        asset.vertices = randomFloats(random, COUNT * 3);
+        asset.colors = randomFloats(random, COUNT * 4);
+        asset.texcoords = randomFloats(random, COUNT * 2);
+        asset.faces = new int[COUNT * 3];
+        for (int i = 0; i < asset.faces.length; i++) {
+            asset.faces[i] = random.nextInt(COUNT);
+        }
+        asset.aabb = new float[]{-1f, -2f, -3f, 1f, 2f, 3f};
+
+        PlyCacheFile.writePly(file, FINGERPRINT, asset);
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        JPlyAsset read = PlyCacheFile.readPly(file, FINGERPRINT);
+        assertNotNull(read);
+        assertArrayEquals(asset.vertices, read.vertices, 0f);
+        assertArrayEquals(asset.colors, read.colors, 0f);
+        assertArrayEquals(asset.texcoords, read.texcoords, 0f);
+        assertArrayEquals(asset.faces, read.faces);
+        assertArrayEquals(asset.aabb, read.aabb, 0f);
+        //未写入的段仍为null
+        assertNull(read.normals);
+        assertNull(read.tripstrip);
+    }
+
+    @Test
+    public void gs3dRoundTripWithChunks() throws IOException {
+        Random random = new Random(2);
+        JPlyGS3dAsset asset = new JPlyGS3dAsset();
+        asset.vertices = randomFloats(random, COUNT * 3);
+        asset.aabb = new float[]{-1f, -1f, -1f, 1f, 1f, 1f};
+        asset.f_dc = randomFloats(random, COUNT * 3);
+        asset.f_rest = randomFloats(random, COUNT * 9);
+        asset.opacity = randomFloats(random, COUNT);
+        asset.scale = randomFloats(random, COUNT * 3);
+        asset.rot = randomFloats(random, COUNT * 4);
+        asset.pointCount = COUNT;
+        asset.shDegree = 1;
+        asset.dimension = 9;
+        GaussianChunks chunks = GaussianChunks.build(asset.vertices, asset.scale, 1024);
+
+        PlyCacheFile.writeGS3d(file, FINGERPRINT, asset, chunks);
+        GaussianChunks[] outChunks = new GaussianChunks[1];
+        JPlyGS3dAsset read = PlyCacheFile.readGS3d(file, FINGERPRINT, outChunks);
+        assertNotNull(read);
+        assertTrue(read.is3DGS);
+        assertEquals(COUNT, read.pointCount);
+        assertEquals(1, read.shDegree);
+        assertEquals(9, read.dimension);
+        assertArrayEquals(asset.vertices, read.vertices, 0f);
+        assertArrayEquals(asset.f_dc, read.f_dc, 0f);
+        assertArrayEquals(asset.f_rest, read.f_rest, 0f);
+        assertArrayEquals(asset.opacity, read.opacity, 0f);
+        assertArrayEquals(asset.scale, read.scale, 0f);
+        assertArrayEquals(asset.rot, read.rot, 0f);
+        assertNull(read.normals);
+
+        GaussianChunks restored = outChunks[0];
+        assertNotNull(restored);
+        assertEquals(chunks.getChunkCount(), restored.getChunkCount());
+        assertArrayEquals(chunks.rawIds(), restored.rawIds());
+        assertArrayEquals(chunks.rawChunkStart(), restored.rawChunkStart());
+        assertArrayEquals(chunks.rawBoxes(), restored.rawBoxes(), 0f);
+
+        //无分块
+        PlyCacheFile.writeGS3d(file, FINGERPRINT, asset, null);
+        assertNotNull(PlyCacheFile.readGS3d(file, FINGERPRINT, outChunks));
+        assertNull(outChunks[0]);
+    }
+
+    @Test
+    public void staleCacheIsIgnored() throws IOException {
+        JPlyAsset asset = new JPlyAsset();
+        asset.vertices = new float[]{0f, 1f, 2f};
+        asset.aabb = new float[]{0f, 1f, 2f, 0f, 1f, 2f};
+        PlyCacheFile.writePly(file, FINGERPRINT, asset);
+
+        assertNull(PlyCacheFile.readPly(file, FINGERPRINT + 1));
+        //类型不匹配
+        assertNull(PlyCacheFile.readGS3d(file, FINGERPRINT, new GaussianChunks[1]));
+        assertNull(PlyCacheFile.readPly(new File(file.getPath() + ".missing"), FINGERPRINT));
+        assertNotNull(PlyCacheFile.readPly(file, FINGERPRINT));
+    }
+
+    @Test
+    public void truncatedCacheIsRejected() throws IOException {
+        JPlyAsset asset = new JPlyAsset();
+        asset.vertices = randomFloats(new Random(3), 3000);
+        asset.aabb = new float[6];
+        PlyCacheFile.writePly(file, FINGERPRINT, asset);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() / 2);
+        }
+        try {
+            PlyCacheFile.readPly(file, FINGERPRINT);
+            fail();
+        } catch (IOException expected) {
+            //段超出文件范围
+        }
+    }
+
+    @Test
+    public void fingerprintsAgree() throws IOException {
+        //大于指纹读取长度
+        byte[] bytes = new byte[PlyCacheFile.FINGERPRINT_BYTES + 1000];
+        new Random(4).nextBytes(bytes);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(bytes);
+        }
+
+        long fromChannel;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            fromChannel = PlyCacheFile.fingerprint(channel);
+            assertEquals(0, channel.position());
+        }
+        try (FileInputStream fileStream = new FileInputStream(file);
+             BufferedInputStream stream = new BufferedInputStream(fileStream)) {
+            //本地文件以长度为标识，与来源地址无关
+            long size = PlyCacheFile.sourceId(fileStream, "file:///a.ply");
+            assertEquals(bytes.length, size);
+            assertEquals(fromChannel, PlyCacheFile.fingerprint(stream, size));
+            //读取后恢复位置
+            assertEquals(bytes[0] & 0xFF, stream.read());
+        }
+
+        bytes[10]++;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(bytes);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            assertTrue(fromChannel != PlyCacheFile.fingerprint(channel));
+        }
+    }
+
+    @Test
+    public void unknownSizeSourcesAreKeyedByUri() throws IOException {
+        byte[] bytes = new byte[PlyCacheFile.FINGERPRINT_BYTES + 1000];
+        new Random(5).nextBytes(bytes);
+        //前缀相同、来源不同
+        long a = fingerprint(bytes, "file:///android_asset/a.ply");
+        long b = fingerprint(bytes, "content://media/external/file/12");
+        assertTrue(a != b);
+        assertEquals(a, fingerprint(bytes, "file:///android_asset/a.ply"));
+        assertEquals(-1, PlyCacheFile.sourceId(new ByteArrayInputStream(bytes), null));
+    }
+
+    private static long fingerprint(byte[] bytes, String source) throws IOException {
+        InputStream stream = new BufferedInputStream(new ByteArrayInputStream(bytes), PlyCacheFile.FINGERPRINT_BYTES);
+        return PlyCacheFile.fingerprint(stream, PlyCacheFile.sourceId(new ByteArrayInputStream(bytes), source));
+    }
+
+    private static float[] randomFloats(Random random, int length) {
+        float[] array = new float[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = random.nextFloat() * 2f - 1f;
+        }
+        return array;
+    }
+}
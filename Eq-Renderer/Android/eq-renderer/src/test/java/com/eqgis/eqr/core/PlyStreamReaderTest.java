@@ -0,0 +1,227 @@
+package com.eqgis.eqr.core;
+
+import com.eqgis.eqr.data.JPlyAsset;
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Ply流式读取测试
+ * <p>分批(批次跨越读缓冲区边界)解码的属性与写入值一致，颜色归一化并补alpha，多边形按扇形三角化，面索引按整数读取不丢失精度，大端3DGS属性按顶点排列</p>
+ */
+public class PlyStreamReaderTest {
+
+    private static final int COUNT = 1000;
+
+    @Test
+    public void readsMeshInBatches() throws IOException {
+        Random random = new Random(1);
+        float[] positions = new float[COUNT * 3];
+        float[] normals = new float[COUNT * 3];
+        byte[] rgb = new byte[COUNT * 3];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (random.nextFloat() - 0.5f) * 10f;
+            normals[i] = random.nextFloat();
+        }
+        random.nextBytes(rgb);
+
+        String header = "ply\nformat binary_little_endian 1.0\ncomment test\nelement vertex " + COUNT
+                + "\nproperty float x\nproperty float y\nproperty float z"
+                + "\nproperty float nx\nproperty float ny\nproperty float nz"
+                + "\nproperty uchar red\nproperty uchar green\nproperty uchar blue"
+                + "\nelement face 2\nproperty list uchar int vertex_indices\nend_header\n";
+        ByteBuffer body = ByteBuffer.allocate(COUNT * 27 + 64).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < COUNT; i++) {
+            for (int c = 0; c < 3; c++) {
+                body.putFloat(positions[i * 3 + c]);
+            }
+            for (int c = 0; c < 3; c++) {
+                body.putFloat(normals[i * 3 + c]);
+            }
+            body.put(rgb, i * 3, 3);
+        }
+        //三角形与四边形
+        body.put((byte) 3).putInt(0).putInt(1).putInt(2);
+        body.put((byte) 4).putInt(10).putInt(11).putInt(12).putInt(13);
+
+        try (PlyStreamReader reader = open(header, body)) {
+            assertTrue(reader.isSupported());
+            assertFalse(reader.is3DGS());
+            assertEquals(COUNT, reader.getVertexCount());
+            reader.setBatchSize(97);
+            JPlyAsset asset = reader.createPlyAsset();
+
+            final int[] next = {0};
+            reader.readAll((start, count) -> {
+                //批次连续且不超过批大小
+                assertEquals(next[0], start);
+                assertTrue(count > 0 && count <= 97);
+                next[0] = start + count;
+            });
+            assertEquals(COUNT, next[0]);
+            assertEquals(COUNT, reader.getVerticesRead());
+
+            assertArrayEquals(positions, asset.vertices, 0f);
+            assertArrayEquals(normals, asset.normals, 0f);
+            assertNull(asset.texcoords);
+            for (int i = 0; i < COUNT; i++) {
+                for (int c = 0; c < 3; c++) {
+                    assertEquals((rgb[i * 3 + c] & 0xFF) / 255f, asset.colors[i * 4 + c], 1e-6f);
+                }
+                assertEquals(1f, asset.colors[i * 4 + 3], 0f);
+            }
+            assertArrayEquals(new int[]{0, 1, 2, 10, 11, 12, 10, 12, 13}, asset.faces);
+            assertArrayEquals(bounds(positions), asset.aabb, 0f);
+        }
+    }
+
+    @Test
+    public void readsLargeFaceIndicesExactly() throws IOException {
+        String header = "ply\nformat binary_little_endian 1.0\nelement vertex 1"
+                + "\nproperty float x\nproperty float y\nproperty float z"
+                + "\nelement face 2\nproperty list uchar uint vertex_indices\nend_header\n";
+        ByteBuffer body = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        body.putFloat(0f).putFloat(0f).putFloat(0f);
+        //超过2^24的索引经float读取会被舍入
+        body.put((byte) 3).putInt(16_777_217).putInt(16_777_219).putInt(2_000_000_001);
+        //超出int范围
+        body.put((byte) 3).putInt(0).putInt(1).putInt(-1);
+
+        try (PlyStreamReader reader = open(header, body)) {
+            reader.createPlyAsset();
+            reader.readAll(null);
+            fail();
+        } catch (IOException expected) {
+            //PLY index out of range
+        }
+
+        body.position(body.position() - 13);
+        body.put((byte) 3).putInt(0).putInt(1).putInt(2);
+        try (PlyStreamReader reader = open(header, body)) {
+            JPlyAsset asset = reader.createPlyAsset();
+            reader.readAll(null);
+            assertArrayEquals(new int[]{16_777_217, 16_777_219, 2_000_000_001, 0, 1, 2}, asset.faces);
+        }
+    }
+
+    @Test
+    public void readsBigEndianGaussians() throws IOException {
+        Random random = new Random(2);
+        //位置3 + f_dc3 + f_rest9 + opacity1 + scale3 + rot4
+        int properties = 23;
+        float[] values = new float[COUNT * properties];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextFloat() * 2f - 1f;
+        }
+        StringBuilder header = new StringBuilder("ply\nformat binary_big_endian 1.0\nelement vertex " + COUNT);
+        header.append("\nproperty float x\nproperty float y\nproperty float z");
+        for (int c = 0; c < 3; c++) {
+            header.append("\nproperty float f_dc_").append(c);
+        }
+        for (int c = 0; c < 9; c++) {
+            header.append("\nproperty float f_rest_").append(c);
+        }
+        header.append("\nproperty float opacity");
+        for (int c = 0; c < 3; c++) {
+            header.append("\nproperty float scale_").append(c);
+        }
+        for (int c = 0; c < 4; c++) {
+            header.append("\nproperty float rot_").append(c);
+        }
+        header.append("\nend_header\n");
+        ByteBuffer body = ByteBuffer.allocate(values.length * 4).order(ByteOrder.BIG_ENDIAN);
+        for (float value : values) {
+            body.putFloat(value);
+        }
+
+        try (PlyStreamReader reader = open(header.toString(), body)) {
+            assertTrue(reader.isSupported());
+            assertTrue(reader.is3DGS());
+            reader.setBatchSize(33);
+            JPlyGS3dAsset asset = reader.createGS3dAsset();
+            reader.readAll(null);
+
+            assertEquals(COUNT, asset.pointCount);
+            assertEquals(1, asset.shDegree);
+            assertEquals(9, asset.dimension);
+            for (int i = 0; i < COUNT; i++) {
+                int base = i * properties;
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(values[base + c], asset.vertices[i * 3 + c], 0f);
+                    assertEquals(values[base + 3 + c], asset.f_dc[i * 3 + c], 0f);
+                    assertEquals(values[base + 16 + c], asset.scale[i * 3 + c], 0f);
+                }
+                for (int c = 0; c < 9; c++) {
+                    assertEquals(values[base + 6 + c], asset.f_rest[i * 9 + c], 0f);
+                }
+                assertEquals(values[base + 15], asset.opacity[i], 0f);
+                for (int c = 0; c < 4; c++) {
+                    assertEquals(values[base + 19 + c], asset.rot[i * 4 + c], 0f);
+                }
+            }
+            assertNotNull(asset.aabb);
+        }
+    }
+
+    @Test
+    public void asciiIsNotSupported() throws IOException {
+        String header = "ply\nformat ascii 1.0\nelement vertex 1\nproperty float x\nproperty float y"
+                + "\nproperty float z\nend_header\n";
+        ByteBuffer body = ByteBuffer.wrap("0 0 0\n".getBytes(StandardCharsets.US_ASCII));
+        body.position(body.limit());
+        try (PlyStreamReader reader = open(header, body)) {
+            assertFalse(reader.isSupported());
+        }
+    }
+
+    @Test
+    public void readBatchRequiresAsset() throws IOException {
+        String header = "ply\nformat binary_little_endian 1.0\nelement vertex 1\nproperty float x"
+                + "\nproperty float y\nproperty float z\nend_header\n";
+        ByteBuffer body = ByteBuffer.allocate(12);
+        body.position(12);
+        try (PlyStreamReader reader = open(header, body)) {
+            reader.readBatch();
+            fail();
+        } catch (IllegalStateException expected) {
+            //createPlyAsset must be called first
+        }
+    }
+
+    private static PlyStreamReader open(String header, ByteBuffer body) throws IOException {
+        byte[] headerBytes = header.getBytes(StandardCharsets.US_ASCII);
+        byte[] bytes = new byte[headerBytes.length + body.position()];
+        System.arraycopy(headerBytes, 0, bytes, 0, headerBytes.length);
+        System.arraycopy(body.array(), 0, bytes, headerBytes.length, body.position());
+        return new PlyStreamReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    private static float[] bounds(float[] positions) {
+        float[] box = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (int i = 0; i < positions.length; i += 3) {
+            for (int c = 0; c < 3; c++) {
+                box[c] = Math.min(box[c], positions[i + c]);
+                box[3 + c] = Math.max(box[3 + c], positions[i + c]);
+            }
+        }
+        return box;
+    }
+}
@@ -0,0 +1,184 @@
+package com.eqgis.eqr.core;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 点云八叉树构建测试
+ * <p>所有点(含超过层级上限的重合点)都写入节点文件且各只一份，节点不超过容量，伪随机排列覆盖全部索引，超过2GB的点云不映射</p>
+ */
+public class PointCloudOctreeTest {
+
+    private static final int CAPACITY = 64;
+
+    @Test
+    public void keepsEveryPoint() throws IOException {
+        assertKeepsEveryPoint(true);
+    }
+
+    @Test
+    public void keepsEveryPackedPoint() throws IOException {
+        //3分量颜色的步长不对齐，点云先被打包
+        assertKeepsEveryPoint(false);
+    }
+
+    @Test
+    public void oversizedCloudIsNotMapped() throws IOException {
+        //只检查文件头声明的大小，无需实际写入顶点数据
+        String xyz = "\nproperty float x\nproperty float y\nproperty float z";
+        //映射区 180M * 12字节
+        assertNotMapped("ply\nformat binary_little_endian 1.0\nelement vertex 180000000" + xyz + "\nend_header\n");
+        //映射区 140M * 15字节不足2GB，但步长不对齐需打包为 140M * 16字节
+        assertNotMapped("ply\nformat binary_little_endian 1.0\nelement vertex 140000000" + xyz
+                + "\nproperty uchar red\nproperty uchar green\nproperty uchar blue\nend_header\n");
+    }
+
+    @Test
+    public void permutationCoversAllIndices() {
+        for (int n : new int[]{1, 2, 3, 1000, 4097}) {
+            PointCloudOctree.Permutation permutation = new PointCloudOctree.Permutation(n, n);
+            boolean[] seen = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                int value = permutation.apply(i);
+                assertTrue(value >= 0 && value < n);
+                assertTrue("duplicate " + value, !seen[value]);
+                seen[value] = true;
+            }
+        }
+    }
+
+    private static void assertKeepsEveryPoint(boolean alpha) throws IOException {
+        //随机点，加上远多于层级上限可划分数量的重合点
+        int random = 20_000;
+        int duplicates = CAPACITY * (PointCloudOctree.MAX_LEVEL + 50);
+        float[] positions = new float[(random + duplicates) * 3];
+        Random rng = new Random(7);
+        for (int i = 0; i < random * 3; i++) {
+            positions[i] = rng.nextFloat() * 100f;
+        }
+        for (int i = random * 3; i < positions.length; i += 3) {
+            positions[i] = 12.5f;
+            positions[i + 1] = 40f;
+            positions[i + 2] = 77.25f;
+        }
+        int count = positions.length / 3;
+
+        File ply = File.createTempFile("eqr_octree_test", ".ply");
+        File octree = new File(ply.getPath() + ".octree");
+        try {
+            writePly(ply, positions, alpha);
+            long fingerprint;
+            try (FileChannel channel = FileChannel.open(ply.toPath(), StandardOpenOption.READ)) {
+                fingerprint = PlyCacheFile.fingerprint(channel);
+                channel.position(0);
+                PlyMappedPointCloud cloud = PlyMappedPointCloud.map(channel);
+                assertNotNull(cloud);
+                assertEquals(alpha, cloud.isZeroCopy());
+                PointCloudOctree.build(cloud, CAPACITY, octree, fingerprint);
+            }
+            //临时文件已删除
+            File[] leftovers = octree.getParentFile().listFiles(
+                    (dir, name) -> name.startsWith(octree.getName()) && name.endsWith(".tmp"));
+            assertEquals(0, leftovers == null ? 0 : leftovers.length);
+
+            try (PointCloudOctree tree = PointCloudOctree.open(octree, fingerprint)) {
+                assertNotNull(tree);
+                assertEquals(count, tree.getPointCount());
+                ByteBuffer buffer = ByteBuffer.allocateDirect(CAPACITY * PointCloudOctree.POINT_STRIDE)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                String[] actual = new String[count];
+                int read = 0;
+                for (int node = 0; node < tree.getNodeCount(); node++) {
+                    assertTrue(tree.getNodePointCount(node) <= CAPACITY);
+                    buffer.clear();
+                    int points = tree.readPoints(node, buffer);
+                    for (int k = 0; k < points; k++) {
+                        int base = k * PointCloudOctree.POINT_STRIDE;
+                        actual[read++] = key(buffer.getFloat(base), buffer.getFloat(base + 4), buffer.getFloat(base + 8));
+                        //颜色由坐标生成
+                        assertEquals(color(buffer.getFloat(base)), buffer.get(base + 12));
+                        assertEquals((byte) 0xff, buffer.get(base + 15));
+                    }
+                }
+                assertEquals(count, read);
+
+                String[] expected = new String[count];
+                for (int i = 0; i < count; i++) {
+                    expected[i] = key(positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2]);
+                }
+                Arrays.sort(expected);
+                Arrays.sort(actual);
+                assertArrayEquals(expected, actual);
+            }
+        } finally {
+            ply.delete();
+            octree.delete();
+        }
+    }
+
+    private static void assertNotMapped(String header) throws IOException {
+        File ply = File.createTempFile("eqr_mapped_test", ".ply");
+        try {
+            try (FileOutputStream out = new FileOutputStream(ply)) {
+                out.write(header.getBytes(StandardCharsets.US_ASCII));
+            }
+            try (FileChannel channel = FileChannel.open(ply.toPath(), StandardOpenOption.READ)) {
+                assertNull(PlyMappedPointCloud.map(channel));
+            }
+        } finally {
+            ply.delete();
+        }
+    }
+
+    private static String key(float x, float y, float z) {
+        return Float.floatToIntBits(x) + "," + Float.floatToIntBits(y) + "," + Float.floatToIntBits(z);
+    }
+
+    private static byte color(float x) {
+        return (byte) (int) x;
+    }
+
+    /**
+     * 布局为 float x,y,z + uchar r,g,b(,a)
+     */
+    private static void writePly(File file, float[] positions, boolean alpha) throws IOException {
+        int count = positions.length / 3;
+        String header = "ply\nformat binary_little_endian 1.0\nelement vertex " + count
+                + "\nproperty float x\nproperty float y\nproperty float z"
+                + "\nproperty uchar red\nproperty uchar green\nproperty uchar blue"
+                + (alpha ? "\nproperty uchar alpha" : "")
+                + "\nend_header\n";
+        ByteBuffer buffer = ByteBuffer.allocate(count * 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            buffer.putFloat(positions[i * 3]).putFloat(positions[i * 3 + 1]).putFloat(positions[i * 3 + 2])
+                    .put(color(positions[i * 3])).put((byte) 1).put((byte) 2);
+            if (alpha) {
+                buffer.put((byte) 0xff);
+            }
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(header.getBytes(StandardCharsets.US_ASCII)));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.eqgis.eqr.geometry;
+
+import com.google.sceneform.math.MathKernel;
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.rendering.RenderableDefinitionDynamic;
+import com.google.sceneform.rendering.Vertex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 管线网格构建测试
+ * <p>各纹理模式与管线点计算模式下，顶点(位置、切线、UV)与{@link Line3dNative}生成的结果一致，逐点追加与全量构建一致</p>
+ */
+public class PipeMeshBuilderTest {
+
+    private static final int EDGE_NUM = 12;
+    private static final float RADIUS = 0.05f;
+    private static final float TOLERANCE = 1e-4f;
+    //位置xyz、切线xyzw、uv
+    private static final int VERTEX_SIZE = 9;
+
+    @Test
+    public void matchesLine3dNative() {
+        PipeMeshBuilder.RingTable ringTable = new PipeMeshBuilder.RingTable(EDGE_NUM);
+        for (int seed = 0; seed < 5; seed++) {
+            Vector3[] points = randomPolyline(20 + seed * 30, seed, true);
+            for (Line3DPipePointMode pipePointMode : Line3DPipePointMode.values()) {
+                for (int textureMode = 0; textureMode < 3; textureMode++) {
+                    String name = "seed " + seed + " " + pipePointMode + " mode" + textureMode;
+                    List<Vertex> expected = reference(points, pipePointMode, textureMode);
+                    RenderableDefinitionDynamic definition = new RenderableDefinitionDynamic(0, 0);
+                    PipeMeshBuilder builder = new PipeMeshBuilder(definition, ringTable, RADIUS, textureMode);
+                    assertTrue(name, builder.build(points, pipePointMode));
+                    assertMatches(name, expected, definition);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void appendMatchesBuild() {
+        PipeMeshBuilder.RingTable ringTable = new PipeMeshBuilder.RingTable(EDGE_NUM);
+        //追加遇到重复点时需全量构建，这里不包含重复点
+        Vector3[] points = randomPolyline(60, 11, false);
+        for (int textureMode = 1; textureMode < 3; textureMode++) {
+            RenderableDefinitionDynamic built = new RenderableDefinitionDynamic(0, 0);
+            new PipeMeshBuilder(built, ringTable, RADIUS, textureMode)
+                    .build(points, Line3DPipePointMode.ORIGINAL);
+
+            RenderableDefinitionDynamic appended = new RenderableDefinitionDynamic(0, 0);
+            PipeMeshBuilder builder = new PipeMeshBuilder(appended, ringTable, RADIUS, textureMode);
+            assertTrue(builder.build(Arrays.copyOf(points, 10), Line3DPipePointMode.ORIGINAL));
+            assertTrue(builder.isAppendable());
+            for (int i = 10; i < points.length; i++) {
+                assertTrue(builder.append(points[i]));
+            }
+
+            assertEquals(built.getVertexCount(), appended.getVertexCount());
+            assertEquals(built.getIndexCount(), appended.getIndexCount());
+            float[] expected = new float[VERTEX_SIZE];
+            float[] actual = new float[VERTEX_SIZE];
+            for (int v = 0; v < built.getVertexCount(); v++) {
+                built.getVertex(v, expected);
+                appended.getVertex(v, actual);
+                for (int c = 0; c < VERTEX_SIZE; c++) {
+                    assertEquals("mode" + textureMode + " v" + v + " c" + c, expected[c], actual[c], TOLERANCE);
+                }
+            }
+            assertArrayEqualsAabb(built.getAabb(), appended.getAabb());
+        }
+    }
+
+    /**
+     * Line3dNative的顶点为[截面圆...][起点截面][终点截面]，PipeMeshBuilder为[起点截面][终点截面][截面圆...]
+     */
+    private static void assertMatches(String name, List<Vertex> expected, RenderableDefinitionDynamic definition) {
+        assertEquals(name, expected.size(), definition.getVertexCount());
+        int capVertexCount = EDGE_NUM + 2;
+        int ringVertexCount = expected.size() - 2 * capVertexCount;
+        float[] reference = new float[VERTEX_SIZE];
+        float[] actual = new float[VERTEX_SIZE];
+        for (int v = 0; v < definition.getVertexCount(); v++) {
+            int r = v < 2 * capVertexCount ? ringVertexCount + v : v - 2 * capVertexCount;
+            toArray(expected.get(r), reference);
+            definition.getVertex(v, actual);
+            for (int c = 0; c < VERTEX_SIZE; c++) {
+                assertEquals(name + " v" + v + " c" + c, reference[c], actual[c], TOLERANCE);
+            }
+        }
+    }
+
+    private static void assertArrayEqualsAabb(float[] expected, float[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], TOLERANCE);
+        }
+    }
+
+    private static List<Vertex> reference(Vector3[] points, Line3DPipePointMode pipePointMode, int textureMode) {
+        Line3dNative line3dNative = new Line3dNative();
+        ArrayList<PipePoint> pipePoints = pipePointMode == Line3DPipePointMode.SIN_RESAMPLE
+                ? line3dNative.genPipePoint_1(points, RADIUS)
+                : line3dNative.genPipePoint_0(points, RADIUS);
+        float refLength = (float) (Math.PI * 2 * RADIUS);
+        switch (textureMode) {
+            case 0:
+                line3dNative.refreshVertex(pipePoints, EDGE_NUM, true);
+                break;
+            case 1:
+                line3dNative.refreshVertex(pipePoints, EDGE_NUM, refLength, true);
+                break;
+            default:
+                line3dNative.refreshVertex2(pipePoints, EDGE_NUM, refLength, true);
+                break;
+        }
+        return line3dNative.getVertices();
+    }
+
+    private static void toArray(Vertex vertex, float[] out) {
+        Vector3 position = vertex.getPosition();
+        out[0] = position.x;
+        out[1] = position.y;
+        out[2] = position.z;
+        Vector3 normal = vertex.getNormal();
+        MathKernel.normalToTangent(new float[]{normal.x, normal.y, normal.z}, 0, out, 3);
+        out[7] = vertex.getUvCoordinate().x;
+        out[8] = vertex.getUvCoordinate().y;
+    }
+
+    /**
+     * 随机游走的折线
+     * @param duplicate 是否包含一个重复点(被过滤的管线点)
+     */
+    private static Vector3[] randomPolyline(int count, long seed, boolean duplicate) {
+        Random random = new Random(seed);
+        Vector3[] points = new Vector3[count];
+        Vector3 current = new Vector3();
+        for (int i = 0; i < count; i++) {
+            if (duplicate && i == count / 2) {
+                points[i] = points[i - 1];
+                continue;
+            }
+            current = Vector3.add(current, new Vector3(
+                    random.nextFloat() * 0.4f - 0.2f, random.nextFloat() * 0.4f - 0.2f, random.nextFloat() * 0.4f - 0.2f));
+            points[i] = current;
+        }
+        return points;
+    }
+}
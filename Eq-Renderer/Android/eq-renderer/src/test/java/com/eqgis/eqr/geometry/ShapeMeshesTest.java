@@ -0,0 +1,316 @@
+package com.eqgis.eqr.geometry;
+
+import com.google.sceneform.math.MathHelper;
+import com.google.sceneform.math.Matrix;
+import com.google.sceneform.math.Quaternion;
+import com.google.sceneform.math.Vector3;
+import com.google.sceneform.rendering.PreparedGeometry;
+import com.google.sceneform.rendering.Vertex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 基本形状网格测试
+ * <p>打包数组生成的立方体、圆柱与球的顶点(位置、切线、UV)、索引和包围盒，与原先基于{@link Vertex}列表与矩阵求切线的实现一致</p>
+ */
+public class ShapeMeshesTest {
+
+    private static final float TOLERANCE = 1e-6f;
+    //位置xyz、切线xyzw、uv
+    private static final int VERTEX_SIZE = 9;
+    private static final Vector3 SIZE = new Vector3(1.5f, 0.75f, 2f);
+    private static final Vector3 CENTER = new Vector3(0.25f, -3f, 10f);
+
+    @Test
+    public void cubeMatchesVertexList() {
+        List<Integer> indices = new ArrayList<>();
+        List<Vertex> vertices = legacyCube(SIZE, CENTER, indices);
+        assertMatches("cube", vertices, indices, ShapeMeshes.cube(SIZE, CENTER, false).prepare());
+
+        //双面时追加倒序的索引
+        PreparedGeometry doubleSided = ShapeMeshes.cube(SIZE, CENTER, true).prepare();
+        assertEquals(indices.size() * 2, doubleSided.getIndexCount());
+        for (int i = 0; i < indices.size(); i++) {
+            assertEquals((int) indices.get(indices.size() - 1 - i), doubleSided.getIndex(indices.size() + i));
+        }
+    }
+
+    @Test
+    public void sphereMatchesVertexList() {
+        List<Integer> indices = new ArrayList<>();
+        List<Vertex> vertices = legacySphere(1.25f, CENTER, indices);
+        assertMatches("sphere", vertices, indices, ShapeMeshes.sphere(1.25f, CENTER, false).prepare());
+    }
+
+    @Test
+    public void cylinderMatchesVertexList() {
+        List<Integer> indices = new ArrayList<>();
+        List<Vertex> vertices = legacyCylinder(0.5f, 2f, CENTER, indices);
+        assertMatches("cylinder", vertices, indices, ShapeMeshes.cylinder(0.5f, 2f, CENTER, 24).prepare());
+    }
+
+    private static void assertMatches(String name, List<Vertex> expected, List<Integer> expectedIndices,
+                                      PreparedGeometry geometry) {
+        assertEquals(name, expected.size(), geometry.getVertexCount());
+        float[] reference = new float[VERTEX_SIZE];
+        float[] actual = new float[VERTEX_SIZE];
+        float[] min = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+        float[] max = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (int v = 0; v < expected.size(); v++) {
+            toArray(expected.get(v), reference);
+            geometry.getVertex(v, actual);
+            for (int c = 0; c < VERTEX_SIZE; c++) {
+                assertEquals(name + " v" + v + " c" + c, reference[c], actual[c], TOLERANCE);
+            }
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], reference[axis]);
+                max[axis] = Math.max(max[axis], reference[axis]);
+            }
+        }
+        assertEquals(name, expectedIndices.size(), geometry.getIndexCount());
+        for (int i = 0; i < expectedIndices.size(); i++) {
+            assertEquals(name + " i" + i, (int) expectedIndices.get(i), geometry.getIndex(i));
+        }
+        float[] aabb = geometry.getAabb();
+        assertArrayEquals(min, Arrays.copyOfRange(aabb, 0, 3), 0f);
+        assertArrayEquals(max, Arrays.copyOfRange(aabb, 3, 6), 0f);
+    }
+
+    private static void toArray(Vertex vertex, float[] out) {
+        Vector3 position = vertex.getPosition();
+        out[0] = position.x;
+        out[1] = position.y;
+        out[2] = position.z;
+        Quaternion tangent = legacyNormalToTangent(vertex.getNormal());
+        out[3] = tangent.x;
+        out[4] = tangent.y;
+        out[5] = tangent.z;
+        out[6] = tangent.w;
+        out[7] = vertex.getUvCoordinate().x;
+        out[8] = vertex.getUvCoordinate().y;
+    }
+
+    /**
+     * 原RenderableDefinition中由法线求切线的实现
+     */
+    private static Quaternion legacyNormalToTangent(Vector3 normal) {
+        Vector3 tangent;
+        Vector3 bitangent;
+
+        tangent = Vector3.cross(Vector3.up(), normal);
+        if (MathHelper.almostEqualRelativeAndAbs(Vector3.dot(tangent, tangent), 0.0f)) {
+            bitangent = Vector3.cross(normal, Vector3.right()).normalized();
+            tangent = Vector3.cross(bitangent, normal).normalized();
+        } else {
+            tangent.set(tangent.normalized());
+            bitangent = Vector3.cross(normal, tangent).normalized();
+        }
+
+        Matrix matrix = new Matrix();
+        matrix.data[0] = tangent.x;
+        matrix.data[1] = tangent.y;
+        matrix.data[2] = tangent.z;
+        matrix.data[4] = bitangent.x;
+        matrix.data[5] = bitangent.y;
+        matrix.data[6] = bitangent.z;
+        matrix.data[8] = normal.x;
+        matrix.data[9] = normal.y;
+        matrix.data[10] = normal.z;
+
+        Quaternion orientationQuaternion = new Quaternion();
+        matrix.extractQuaternion(orientationQuaternion);
+        return orientationQuaternion;
+    }
+
+    /**
+     * 原ShapeFactory.makeCube的顶点与索引
+     */
+    private static List<Vertex> legacyCube(Vector3 size, Vector3 center, List<Integer> triangleIndices) {
+        Vector3 extents = size.scaled(0.5f);
+
+        Vector3 p0 = Vector3.add(center, new Vector3(-extents.x, -extents.y, extents.z));
+        Vector3 p1 = Vector3.add(center, new Vector3(extents.x, -extents.y, extents.z));
+        Vector3 p2 = Vector3.add(center, new Vector3(extents.x, -extents.y, -extents.z));
+        Vector3 p3 = Vector3.add(center, new Vector3(-extents.x, -extents.y, -extents.z));
+        Vector3 p4 = Vector3.add(center, new Vector3(-extents.x, extents.y, extents.z));
+        Vector3 p5 = Vector3.add(center, new Vector3(extents.x, extents.y, extents.z));
+        Vector3 p6 = Vector3.add(center, new Vector3(extents.x, extents.y, -extents.z));
+        Vector3 p7 = Vector3.add(center, new Vector3(-extents.x, extents.y, -extents.z));
+
+        Vector3[] positions = {
+                p0, p1, p2, p3,
+                p7, p4, p0, p3,
+                p4, p5, p1, p0,
+                p6, p7, p3, p2,
+                p5, p6, p2, p1,
+                p7, p6, p5, p4};
+        Vector3[] normals = {
+                Vector3.down(), Vector3.left(), Vector3.forward(), Vector3.back(), Vector3.right(), Vector3.up()};
+        Vertex.UvCoordinate[] uvs = {
+                new Vertex.UvCoordinate(0.0f, 1.0f),
+                new Vertex.UvCoordinate(1.0f, 1.0f),
+                new Vertex.UvCoordinate(1.0f, 0.0f),
+                new Vertex.UvCoordinate(0.0f, 0.0f)};
+
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < positions.length; i++) {
+            vertices.add(Vertex.builder()
+                    .setPosition(positions[i])
+                    .setNormal(normals[i / 4])
+                    .setUvCoordinate(uvs[i % 4])
+                    .build());
+        }
+        for (int i = 0; i < 6; i++) {
+            triangleIndices.add(3 + 4 * i);
+            triangleIndices.add(1 + 4 * i);
+            triangleIndices.add(4 * i);
+            triangleIndices.add(3 + 4 * i);
+            triangleIndices.add(2 + 4 * i);
+            triangleIndices.add(1 + 4 * i);
+        }
+        return vertices;
+    }
+
+    /**
+     * 原ShapeFactory.makeSphere的顶点与索引
+     */
+    private static List<Vertex> legacySphere(float radius, Vector3 center, List<Integer> triangleIndices) {
+        final int stacks = 24;
+        final int slices = 24;
+        List<Vertex> vertices = new ArrayList<>();
+        float pi = (float) Math.PI;
+        float doublePi = pi * 2.0f;
+
+        for (int stack = 0; stack <= stacks; stack++) {
+            float phi = pi * (float) stack / stacks;
+            float sinPhi = (float) Math.sin(phi);
+            float cosPhi = (float) Math.cos(phi);
+
+            for (int slice = 0; slice <= slices; slice++) {
+                float theta = doublePi * (float) (slice == slices ? 0 : slice) / slices;
+                float sinTheta = (float) Math.sin(theta);
+                float cosTheta = (float) Math.cos(theta);
+
+                Vector3 position = new Vector3(sinPhi * cosTheta, cosPhi, sinPhi * sinTheta).scaled(radius);
+                Vector3 normal = position.normalized();
+                position = Vector3.add(position, center);
+                vertices.add(Vertex.builder()
+                        .setPosition(position)
+                        .setNormal(normal)
+                        .setUvCoordinate(new Vertex.UvCoordinate(
+                                1.0f - ((float) slice / slices), 1.0f - ((float) stack / stacks)))
+                        .build());
+            }
+        }
+
+        int v = 0;
+        for (int stack = 0; stack < stacks; stack++) {
+            for (int slice = 0; slice < slices; slice++) {
+                int next = slice + 1;
+                if (stack != 0) {
+                    triangleIndices.add(v + slice);
+                    triangleIndices.add(v + next);
+                    triangleIndices.add(v + slice + slices + 1);
+                }
+                if (stack != stacks - 1) {
+                    triangleIndices.add(v + next);
+                    triangleIndices.add(v + next + slices + 1);
+                    triangleIndices.add(v + slice + slices + 1);
+                }
+            }
+            v += slices + 1;
+        }
+        return vertices;
+    }
+
+    /**
+     * 原ShapeFactory.makeCylinder的顶点与索引
+     */
+    private static List<Vertex> legacyCylinder(float radius, float height, Vector3 center,
+                                               List<Integer> triangleIndices) {
+        final int numberOfSides = 24;
+        final float halfHeight = height / 2;
+        final float thetaIncrement = (float) (2 * Math.PI) / numberOfSides;
+
+        float theta = 0;
+        float uStep = (float) 1.0 / numberOfSides;
+
+        List<Vertex> vertices = new ArrayList<>();
+        List<Vertex> lowerCapVertices = new ArrayList<>();
+        List<Vertex> upperCapVertices = new ArrayList<>();
+        List<Vertex> upperEdgeVertices = new ArrayList<>();
+
+        for (int side = 0; side <= numberOfSides; side++) {
+            float cosTheta = (float) Math.cos(theta);
+            float sinTheta = (float) Math.sin(theta);
+            Vertex.UvCoordinate capUv = new Vertex.UvCoordinate((cosTheta + 1f) / 2, (sinTheta + 1f) / 2);
+
+            Vector3 lowerPosition = new Vector3(radius * cosTheta, -halfHeight, radius * sinTheta);
+            Vector3 normal = new Vector3(lowerPosition.x, 0, lowerPosition.z).normalized();
+            lowerPosition = Vector3.add(lowerPosition, center);
+            vertices.add(Vertex.builder()
+                    .setPosition(lowerPosition)
+                    .setNormal(normal)
+                    .setUvCoordinate(new Vertex.UvCoordinate(uStep * side, 0))
+                    .build());
+            lowerCapVertices.add(Vertex.builder()
+                    .setPosition(lowerPosition)
+                    .setNormal(Vector3.down())
+                    .setUvCoordinate(capUv)
+                    .build());
+
+            Vector3 upperPosition = new Vector3(radius * cosTheta, halfHeight, radius * sinTheta);
+            normal = new Vector3(upperPosition.x, 0, upperPosition.z).normalized();
+            upperPosition = Vector3.add(upperPosition, center);
+            upperEdgeVertices.add(Vertex.builder()
+                    .setPosition(upperPosition)
+                    .setNormal(normal)
+                    .setUvCoordinate(new Vertex.UvCoordinate(uStep * side, 1))
+                    .build());
+            upperCapVertices.add(Vertex.builder()
+                    .setPosition(upperPosition)
+                    .setNormal(Vector3.up())
+                    .setUvCoordinate(capUv)
+                    .build());
+
+            theta += thetaIncrement;
+        }
+        vertices.addAll(upperEdgeVertices);
+
+        final int lowerCenterIndex = vertices.size();
+        vertices.add(Vertex.builder()
+                .setPosition(Vector3.add(center, new Vector3(0, -halfHeight, 0)))
+                .setNormal(Vector3.down())
+                .setUvCoordinate(new Vertex.UvCoordinate(.5f, .5f))
+                .build());
+        vertices.addAll(lowerCapVertices);
+
+        final int upperCenterIndex = vertices.size();
+        vertices.add(Vertex.builder()
+                .setPosition(Vector3.add(center, new Vector3(0, halfHeight, 0)))
+                .setNormal(Vector3.up())
+                .setUvCoordinate(new Vertex.UvCoordinate(.5f, .5f))
+                .build());
+        vertices.addAll(upperCapVertices);
+
+        for (int side = 0; side < numberOfSides; side++) {
+            int bottomLeft = side;
+            int bottomRight = side + 1;
+            int topLeft = side + numberOfSides + 1;
+            int topRight = side + numberOfSides + 2;
+
+            triangleIndices.addAll(Arrays.asList(bottomLeft, topRight, bottomRight));
+            triangleIndices.addAll(Arrays.asList(bottomLeft, topLeft, topRight));
+            triangleIndices.addAll(Arrays.asList(lowerCenterIndex, lowerCenterIndex + side + 1, lowerCenterIndex + side + 2));
+            triangleIndices.addAll(Arrays.asList(upperCenterIndex, upperCenterIndex + side + 2, upperCenterIndex + side + 1));
+        }
+        return vertices;
+    }
+}
@@ -0,0 +1,276 @@
+package com.google.sceneform.collision;
+
+import com.google.sceneform.common.TransformProvider;
+import com.google.sceneform.math.Matrix;
+import com.google.sceneform.math.Vector3;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 动态AABB树测试
+ * <p>射线检测与包围盒查询的结果与逐个遍历一致，碰撞体移动、移除后仍一致；局部形状被修改时只更新使用它的碰撞体</p>
+ */
+public class DynamicAabbTreeTest {
+
+    private static final int COLLIDERS = 2_000;
+    private static final int RAYS = 1_000;
+    //碰撞体分布范围(m)
+    private static final float WORLD_SIZE = 100f;
+
+    @Test
+    public void nearestHitMatchesBruteForce() {
+        Random random = new Random(42);
+        Scene scene = new Scene(random, COLLIDERS);
+        assertNearestHitsMatch(scene, random);
+    }
+
+    @Test
+    public void nearestHitMatchesAfterMovingAndRemoving() {
+        Random random = new Random(7);
+        Scene scene = new Scene(random, COLLIDERS);
+        assertNearestHitsMatch(scene, random);
+
+        //移动一部分碰撞体，包含超出外扩包围盒的大幅移动
+        for (int i = 0; i < COLLIDERS / 4; i++) {
+            int index = random.nextInt(scene.colliders.size());
+            float step = i % 2 == 0 ? 0.01f : 10f;
+            scene.transforms.get(index).moveBy(
+                    (random.nextFloat() - 0.5f) * step,
+                    (random.nextFloat() - 0.5f) * step,
+                    (random.nextFloat() - 0.5f) * step);
+            scene.colliders.get(index).markWorldShapeDirty();
+        }
+        assertNearestHitsMatch(scene, random);
+
+        for (int i = 0; i < COLLIDERS / 4; i++) {
+            int index = random.nextInt(scene.colliders.size());
+            scene.colliders.remove(index).setAttachedCollisionSystem(null);
+            scene.transforms.remove(index);
+        }
+        assertNearestHitsMatch(scene, random);
+    }
+
+    @Test
+    public void raycastAllMatchesBruteForce() {
+        Random random = new Random(3);
+        Scene scene = new Scene(random, COLLIDERS);
+        ArrayList<RayHit> buffer = new ArrayList<>();
+        RayHit hit = new RayHit();
+        for (int r = 0; r < RAYS / 10; r++) {
+            Ray ray = randomRay(random);
+            Set<Collider> actual = new HashSet<>();
+            int count = scene.system.raycastAll(ray, buffer, (h, collider) -> actual.add(collider), RayHit::new);
+
+            Set<Collider> expected = new HashSet<>();
+            for (Collider collider : scene.colliders) {
+                if (collider.getTransformedShape().rayIntersection(ray, hit)) {
+                    expected.add(collider);
+                }
+            }
+            assertEquals(expected.size(), count);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void shapeEditMarksOnlyItsColliders() {
+        Random random = new Random(5);
+        Scene scene = new Scene(random, 100);
+        //查询后所有叶节点已更新
+        scene.system.raycast(randomRay(random), new RayHit());
+
+        Box shared = new Box(new Vector3(1f, 1f, 1f));
+        SimpleTransform near = new SimpleTransform();
+        near.moveTo(new Vector3(0f, 0f, 200f));
+        SimpleTransform far = new SimpleTransform();
+        far.moveTo(new Vector3(0f, 0f, 300f));
+        Collider first = new Collider(near, shared);
+        Collider second = new Collider(far, shared);
+        Collider detached = new Collider(near, shared);
+        first.setAttachedCollisionSystem(scene.system);
+        second.setAttachedCollisionSystem(scene.system);
+        Ray ray = new Ray(new Vector3(5f, 50f, 200f), new Vector3(0f, -1f, 0f));
+        assertNull(scene.system.raycast(ray, new RayHit()));
+
+        shared.setSize(new Vector3(30f, 30f, 30f));
+        assertTrue(first.isBoundsDirty);
+        assertTrue(second.isBoundsDirty);
+        assertFalse(detached.isBoundsDirty);
+        for (Collider collider : scene.colliders) {
+            assertFalse(collider.isBoundsDirty);
+        }
+        RayHit hit = new RayHit();
+        assertSame(first, scene.system.raycast(ray, hit));
+        assertEquals(35f, hit.getDistance(), 1e-4f);
+
+        //移出碰撞系统后不再接收通知
+        second.setAttachedCollisionSystem(null);
+        shared.setSize(new Vector3(2f, 2f, 2f));
+        assertFalse(second.isBoundsDirty);
+    }
+
+    @Test
+    public void queryMatchesBruteForce() {
+        Random random = new Random(11);
+        DynamicAabbTree tree = new DynamicAabbTree();
+        int count = 5_000;
+        float[][] boxes = new float[count][];
+        int[] proxies = new int[count];
+        for (int i = 0; i < count; i++) {
+            boxes[i] = randomAabb(random, 2f);
+            proxies[i] = tree.createProxy(boxes[i], i);
+        }
+        //移动后重新插入
+        for (int i = 0; i < count; i += 3) {
+            boxes[i] = randomAabb(random, 2f);
+            tree.moveProxy(proxies[i], boxes[i]);
+        }
+        //平衡旋转使高度保持在对数量级
+        int log2 = 31 - Integer.numberOfLeadingZeros(count);
+        assertTrue("height " + tree.getHeight(), tree.getHeight() <= 3 * log2);
+
+        for (int q = 0; q < 200; q++) {
+            float[] query = randomAabb(random, 15f);
+            Set<Integer> actual = new HashSet<>();
+            tree.query(query, proxyId -> {
+                Integer data = (Integer) tree.getUserData(proxyId);
+                if (overlaps(boxes[data], query)) {
+                    actual.add(data);
+                }
+                return true;
+            });
+
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                if (overlaps(boxes[i], query)) {
+                    expected.add(i);
+                }
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static void assertNearestHitsMatch(Scene scene, Random random) {
+        RayHit hit = new RayHit();
+        RayHit expectedHit = new RayHit();
+        int hits = 0;
+        for (int r = 0; r < RAYS; r++) {
+            Ray ray = randomRay(random);
+            Collider expected = bruteForceRaycast(scene.colliders, ray, expectedHit);
+            Collider actual = scene.system.raycast(ray, hit);
+            if (expected != null) {
+                hits++;
+                assertEquals(expectedHit.getDistance(), hit.getDistance(), 1e-4f);
+            }
+            //距离相同的碰撞体可能以不同顺序命中
+            if (expected != actual) {
+                assertEquals(expectedHit.getDistance(), hit.getDistance(), 0f);
+            } else {
+                assertSame(expected, actual);
+            }
+        }
+        //射线穿过足够多的碰撞体，避免比较的全是未命中
+        assertTrue("hits " + hits, hits > RAYS / 10);
+    }
+
+    /**
+     * 参考实现：逐个碰撞体检测
+     */
+    private static Collider bruteForceRaycast(ArrayList<Collider> colliders, Ray ray, RayHit resultHit) {
+        resultHit.reset();
+        Collider result = null;
+        RayHit tempResult = new RayHit();
+        for (Collider collider : colliders) {
+            CollisionShape collisionShape = collider.getTransformedShape();
+            if (collisionShape == null) {
+                continue;
+            }
+            if (collisionShape.rayIntersection(ray, tempResult)
+                    && tempResult.getDistance() < resultHit.getDistance()) {
+                resultHit.set(tempResult);
+                result = collider;
+            }
+        }
+        return result;
+    }
+
+    private static boolean overlaps(float[] a, float[] b) {
+        return a[0] <= b[3] && a[1] <= b[4] && a[2] <= b[5]
+                && a[3] >= b[0] && a[4] >= b[1] && a[5] >= b[2];
+    }
+
+    private static float[] randomAabb(Random random, float maxSize) {
+        Vector3 center = randomPosition(random);
+        float sx = random.nextFloat() * maxSize;
+        float sy = random.nextFloat() * maxSize;
+        float sz = random.nextFloat() * maxSize;
+        return new float[]{center.x - sx, center.y - sy, center.z - sz,
+                center.x + sx, center.y + sy, center.z + sz};
+    }
+
+    private static Ray randomRay(Random random) {
+        Vector3 origin = randomPosition(random);
+        Vector3 target = randomPosition(random);
+        return new Ray(origin, Vector3.subtract(target, origin));
+    }
+
+    private static Vector3 randomPosition(Random random) {
+        return new Vector3(
+                (random.nextFloat() - 0.5f) * WORLD_SIZE,
+                (random.nextFloat() - 0.5f) * WORLD_SIZE,
+                (random.nextFloat() - 0.5f) * WORLD_SIZE);
+    }
+
+    /**
+     * 随机分布的Box与球体碰撞体
+     */
+    private static final class Scene {
+        final CollisionSystem system = new CollisionSystem();
+        final ArrayList<Collider> colliders = new ArrayList<>();
+        final ArrayList<SimpleTransform> transforms = new ArrayList<>();
+
+        Scene(Random random, int count) {
+            for (int i = 0; i < count; i++) {
+                SimpleTransform transform = new SimpleTransform();
+                transform.moveTo(randomPosition(random));
+                CollisionShape shape = i % 2 == 0
+                        ? new Box(new Vector3(1f + random.nextFloat(), 1f, 1f))
+                        : new Sphere(0.5f + random.nextFloat());
+                Collider collider = new Collider(transform, shape);
+                collider.setAttachedCollisionSystem(system);
+                colliders.add(collider);
+                transforms.add(transform);
+            }
+        }
+    }
+
+    private static final class SimpleTransform implements TransformProvider {
+        private final Matrix matrix = new Matrix();
+
+        void moveTo(Vector3 position) {
+            matrix.makeTranslation(position);
+        }
+
+        void moveBy(float x, float y, float z) {
+            matrix.data[12] += x;
+            matrix.data[13] += y;
+            matrix.data[14] += z;
+        }
+
+        @Override
+        public Matrix getWorldModelMatrix() {
+            return matrix;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.google.sceneform.collision;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 相交测试
+ * <p>未命中返回NaN，起点位于球体或Box内部时返回的距离不为负，射线与球体检测对Box旋转矩阵的读取方式一致(列主序)</p>
+ */
+public class IntersectionsTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    private static final float[] IDENTITY = {
+            1, 0, 0, 0,
+            0, 1, 0, 0,
+            0, 0, 1, 0,
+            0, 0, 0, 1};
+
+    @Test
+    public void raySphereHitsNearSurface() {
+        float distance = Intersections.raySphereIntersection(
+                new float[]{0, 0, 10}, new float[]{0, 0, -1}, new float[]{0, 0, 0}, 2f);
+        assertEquals(8f, distance, EPSILON);
+    }
+
+    @Test
+    public void raySphereFromInsideHitsExitPoint() {
+        float distance = Intersections.raySphereIntersection(
+                new float[]{0, 0, 1}, new float[]{0, 0, -1}, new float[]{0, 0, 0}, 2f);
+        assertEquals(3f, distance, EPSILON);
+    }
+
+    @Test
+    public void raySphereOnFarSurfaceIsNotNegative() {
+        //起点位于球面且指向外侧，远端交点距离为0
+        float distance = Intersections.raySphereIntersection(
+                new float[]{0, 0, -2}, new float[]{0, 0, -1}, new float[]{0, 0, 0}, 2f);
+        assertFalse(Float.isNaN(distance));
+        assertTrue(distance >= 0f);
+    }
+
+    @Test
+    public void raySphereMissAndBehindReturnNaN() {
+        assertTrue(Float.isNaN(Intersections.raySphereIntersection(
+                new float[]{5, 0, 10}, new float[]{0, 0, -1}, new float[]{0, 0, 0}, 2f)));
+        assertTrue(Float.isNaN(Intersections.raySphereIntersection(
+                new float[]{0, 0, 10}, new float[]{0, 0, 1}, new float[]{0, 0, 0}, 2f)));
+        assertTrue(Float.isNaN(Intersections.NO_HIT));
+    }
+
+    @Test
+    public void rayBoxHitsNearFace() {
+        float distance = Intersections.rayBoxIntersection(
+                new float[]{0, 0, 10}, new float[]{0, 0, -1},
+                new float[]{0, 0, 0}, new float[]{1, 1, 1}, IDENTITY);
+        assertEquals(9f, distance, EPSILON);
+    }
+
+    @Test
+    public void rayBoxFromInsideHitsAtOrigin() {
+        float distance = Intersections.rayBoxIntersection(
+                new float[]{0.5f, 0, 0}, new float[]{0, 0, -1},
+                new float[]{0, 0, 0}, new float[]{1, 1, 1}, IDENTITY);
+        assertEquals(0f, distance, 0f);
+    }
+
+    @Test
+    public void rayBoxRotatedHit() {
+        //绕Z轴旋转45°，沿X方向射入时命中顶角
+        float c = (float) Math.cos(Math.PI / 4);
+        float s = (float) Math.sin(Math.PI / 4);
+        float[] rotation = {
+                c, s, 0, 0,
+                -s, c, 0, 0,
+                0, 0, 1, 0,
+                0, 0, 0, 1};
+        float distance = Intersections.rayBoxIntersection(
+                new float[]{-10, 0, 0}, new float[]{1, 0, 0},
+                new float[]{0, 0, 0}, new float[]{1, 1, 1}, rotation);
+        assertEquals(10f - (float) Math.sqrt(2), distance, 1e-4f);
+    }
+
+    @Test
+    public void rayAndSphereReadRotationColumns() {
+        //绕Z轴旋转90°，Box的X轴(长边)指向世界Y轴；列主序，第一列为(0,1,0)
+        float[] rotation = {
+                0, 1, 0, 0,
+                -1, 0, 0, 0,
+                0, 0, 1, 0,
+                0, 0, 0, 1};
+        float[] center = {0, 0, 0};
+        float[] extents = {3, 0.5f, 0.5f};
+        assertEquals(7f, Intersections.rayBoxIntersection(
+                new float[]{0, 10, 0}, new float[]{0, -1, 0}, center, extents, rotation), EPSILON);
+        assertEquals(9.5f, Intersections.rayBoxIntersection(
+                new float[]{10, 0, 0}, new float[]{-1, 0, 0}, center, extents, rotation), EPSILON);
+
+        assertTrue(Intersections.sphereBoxIntersection(new float[]{0, 2.5f, 0}, 0.1f, center, extents, rotation));
+        assertFalse(Intersections.sphereBoxIntersection(new float[]{2.5f, 0, 0}, 0.1f, center, extents, rotation));
+
+        //绕Z轴旋转30°，按行读取时长边会指向-30°
+        float c = (float) Math.cos(Math.PI / 6);
+        float s = (float) Math.sin(Math.PI / 6);
+        float[] tilted = {
+                c, s, 0, 0,
+                -s, c, 0, 0,
+                0, 0, 1, 0,
+                0, 0, 0, 1};
+        assertTrue(Intersections.sphereBoxIntersection(
+                new float[]{2.5f * c, 2.5f * s, 0}, 0.1f, center, extents, tilted));
+        assertFalse(Intersections.sphereBoxIntersection(
+                new float[]{2.5f * c, -2.5f * s, 0}, 0.1f, center, extents, tilted));
+        assertEquals(10f - 3f, Intersections.rayBoxIntersection(
+                new float[]{10 * c, 10 * s, 0}, new float[]{-c, -s, 0}, center, extents, tilted), 1e-4f);
+    }
+
+    @Test
+    public void rayBoxMissAndBehindReturnNaN() {
+        assertTrue(Float.isNaN(Intersections.rayBoxIntersection(
+                new float[]{5, 0, 10}, new float[]{0, 0, -1},
+                new float[]{0, 0, 0}, new float[]{1, 1, 1}, IDENTITY)));
+        assertTrue(Float.isNaN(Intersections.rayBoxIntersection(
+                new float[]{0, 0, 10}, new float[]{0, 0, 1},
+                new float[]{0, 0, 0}, new float[]{1, 1, 1}, IDENTITY)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.google.sceneform.rendering;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 资源加载线程池测试
+ * <p>排队中的前台任务先于预加载任务执行，流式读取不占用加载线程</p>
+ */
+public class LoaderExecutorTest {
+
+    private final LoaderExecutor executor = new LoaderExecutor(1);
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void foregroundRunsBeforeQueuedPrefetch() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        //占住唯一的加载线程，使其余任务排队
+        executor.getExecutor(LoaderExecutor.Priority.FOREGROUND).execute(() -> await(release));
+        executor.getExecutor(LoaderExecutor.Priority.PREFETCH).execute(() -> record(order, "prefetch1", done));
+        executor.getExecutor(LoaderExecutor.Priority.PREFETCH).execute(() -> record(order, "prefetch2", done));
+        executor.getExecutor(LoaderExecutor.Priority.FOREGROUND).execute(() -> record(order, "foreground1", done));
+        executor.getExecutor(LoaderExecutor.Priority.FOREGROUND).execute(() -> record(order, "foreground2", done));
+        assertEquals(2, executor.getQueueDepth(LoaderExecutor.Priority.PREFETCH));
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("foreground1", "foreground2", "prefetch1", "prefetch2"), order);
+        assertEquals(0, executor.getQueueDepth(LoaderExecutor.Priority.PREFETCH));
+        assertEquals(2, executor.getCompletedCount(LoaderExecutor.Priority.PREFETCH));
+    }
+
+    @Test
+    public void streamingDoesNotOccupyLoaderThreads() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch streaming = new CountDownLatch(1);
+        CountDownLatch loaded = new CountDownLatch(1);
+        executor.getStreamingExecutor().execute(() -> {
+            streaming.countDown();
+            await(release);
+        });
+        assertTrue(streaming.await(5, TimeUnit.SECONDS));
+
+        //流式读取尚未结束，前台加载仍可立即执行
+        executor.getExecutor(LoaderExecutor.Priority.FOREGROUND).execute(loaded::countDown);
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+
+        //后续流式任务依次排队
+        executor.getStreamingExecutor().execute(() -> { });
+        assertEquals(1, executor.getStreamingQueueDepth());
+        release.countDown();
+    }
+
+    private static void record(List<String> order, String name, CountDownLatch done) {
+        order.add(name);
+        done.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.google.sceneform.rendering;
+
+import com.google.android.filament.RenderableManager;
+import com.google.sceneform.math.MathKernel;
+import com.google.sceneform.math.Vector3;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 已准备好的几何数据测试
+ * <p>分段并行与单线程的切线、包围盒一致，数组、缓冲区与顶点对象输入的结果一致，未设置索引时按顶点顺序绘制，输入不合法时抛出异常</p>
+ */
+public class PreparedGeometryTest {
+
+    static {
+        //单核环境下公共线程池并行度为1，不会分段；需在线程池初始化前设置
+        System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", "4");
+    }
+
+    private static final int COUNT = 100_000;
+    //位置xyz、切线xyzw、uv
+    private static final int VERTEX_SIZE = 9;
+
+    @Test
+    public void parallelMatchesSerial() {
+        float[] positions = randomFloats(COUNT * 3, 1, 50f);
+        float[] normals = randomNormals(COUNT, 2);
+        float[] uvs = randomFloats(COUNT * 2, 3, 1f);
+
+        int threshold = PreparedGeometry.PARALLEL_VERTEX_COUNT;
+        PreparedGeometry serial;
+        PreparedGeometry parallel;
+        try {
+            PreparedGeometry.PARALLEL_VERTEX_COUNT = Integer.MAX_VALUE;
+            serial = build(positions, normals, uvs);
+            PreparedGeometry.PARALLEL_VERTEX_COUNT = 1;
+            parallel = build(positions, normals, uvs);
+        } finally {
+            PreparedGeometry.PARALLEL_VERTEX_COUNT = threshold;
+        }
+        assertGeometryEquals(serial, parallel);
+        assertArrayEquals(bounds(positions), serial.getAabb(), 0f);
+
+        float[] out = new float[VERTEX_SIZE];
+        float[] tangent = new float[4];
+        for (int v = 0; v < COUNT; v++) {
+            serial.getVertex(v, out);
+            MathKernel.normalToTangent(normals, v * 3, tangent, 0);
+            for (int c = 0; c < 4; c++) {
+                assertEquals(tangent[c], out[3 + c], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void buffersMatchArrays() {
+        float[] positions = randomFloats(COUNT * 3, 4, 10f);
+        float[] normals = randomNormals(COUNT, 5);
+        float[] uvs = randomFloats(COUNT * 2, 6, 1f);
+        PreparedGeometry fromArrays = build(positions, normals, uvs);
+
+        //堆缓冲区按块读取，本机字节序的direct缓冲区直接使用
+        PreparedGeometry fromBuffers = PreparedGeometry.builder()
+                .setPositions(FloatBuffer.wrap(positions))
+                .setNormals(FloatBuffer.wrap(normals))
+                .setUvs(direct(uvs))
+                .setIndices(IntBuffer.wrap(indicesOf(fromArrays)))
+                .build();
+        assertGeometryEquals(fromArrays, fromBuffers);
+
+        //缓冲区从position开始读取
+        FloatBuffer offset = FloatBuffer.allocate(positions.length + 3);
+        offset.put(new float[]{9f, 9f, 9f}).put(positions).position(3);
+        PreparedGeometry fromOffset = PreparedGeometry.builder()
+                .setPositions(offset)
+                .setNormals(normals)
+                .setUvs(uvs)
+                .setIndices(indicesOf(fromArrays))
+                .build();
+        assertGeometryEquals(fromArrays, fromOffset);
+    }
+
+    @Test
+    public void verticesMatchArrays() {
+        int count = 500;
+        float[] positions = randomFloats(count * 3, 7, 5f);
+        float[] normals = randomNormals(count, 8);
+        float[] uvs = randomFloats(count * 2, 9, 1f);
+        List<Vertex> vertices = new ArrayList<>(count);
+        for (int v = 0; v < count; v++) {
+            vertices.add(Vertex.builder()
+                    .setPosition(new Vector3(positions[v * 3], positions[v * 3 + 1], positions[v * 3 + 2]))
+                    .setNormal(new Vector3(normals[v * 3], normals[v * 3 + 1], normals[v * 3 + 2]))
+                    .setUvCoordinate(new Vertex.UvCoordinate(uvs[v * 2], uvs[v * 2 + 1]))
+                    .build());
+        }
+        PreparedGeometry fromArrays = build(positions, normals, uvs);
+        PreparedGeometry fromVertices = PreparedGeometry.builder()
+                .setVertices(vertices)
+                .setIndices(indicesOf(fromArrays))
+                .build();
+        assertGeometryEquals(fromArrays, fromVertices);
+
+        //其余顶点缺少第一个顶点具有的属性
+        vertices.set(count - 1, Vertex.builder().setPosition(new Vector3()).build());
+        try {
+            PreparedGeometry.builder().setVertices(vertices);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            //Missing normal
+        }
+    }
+
+    @Test
+    public void defaultsToSequentialIndices() {
+        PreparedGeometry geometry = PreparedGeometry.builder()
+                .setPositions(randomFloats(30, 10, 1f))
+                .setPrimitiveType(RenderableManager.PrimitiveType.POINTS)
+                .build();
+        assertEquals(10, geometry.getIndexCount());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, geometry.getIndex(i));
+        }
+        assertEquals(RenderableManager.PrimitiveType.POINTS, geometry.getPrimitiveType());
+        //无法线时无切线
+        float[] out = new float[VERTEX_SIZE];
+        geometry.getVertex(0, out);
+        assertArrayEquals(new float[]{0f, 0f, 0f, 0f, 0f, 0f}, Arrays.copyOfRange(out, 3, 9), 0f);
+    }
+
+    @Test
+    public void buildAsyncUsesExecutor() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        CompletableFuture<PreparedGeometry> future = PreparedGeometry.builder()
+                .setPositions(new float[]{0f, 0f, 0f, 1f, 2f, 3f, -1f, 0f, 4f})
+                .buildAsync(tasks::add);
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        PreparedGeometry geometry = future.get();
+        assertArrayEquals(new float[]{-1f, 0f, 0f, 1f, 2f, 4f}, geometry.getAabb(), 0f);
+        assertTrue(geometry.getPrepareNanos() >= 0);
+    }
+
+    @Test
+    public void rejectsInvalidInput() {
+        assertInvalid(PreparedGeometry.builder());
+        assertInvalid(PreparedGeometry.builder().setPositions(new float[0]));
+        assertInvalid(PreparedGeometry.builder().setPositions(new float[4]));
+        assertInvalid(PreparedGeometry.builder().setPositions(new float[6]).setNormals(new float[3]));
+        assertInvalid(PreparedGeometry.builder().setPositions(new float[6]).setUvs(new float[6]));
+        assertInvalid(PreparedGeometry.builder().setPositions(new float[6]).setColors(new float[6]));
+        assertInvalid(PreparedGeometry.builder().setPositions(new float[6]).setCustom0(new float[4]));
+    }
+
+    private static void assertInvalid(PreparedGeometry.Builder builder) {
+        try {
+            builder.build();
+            fail();
+        } catch (IllegalArgumentException | NullPointerException expected) {
+            //Positions must be set / 长度不匹配
+        }
+    }
+
+    private static PreparedGeometry build(float[] positions, float[] normals, float[] uvs) {
+        int count = positions.length / 3;
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = count - 1 - i;
+        }
+        return PreparedGeometry.builder()
+                .setPositions(positions)
+                .setNormals(normals)
+                .setUvs(uvs)
+                .setIndices(indices)
+                .build();
+    }
+
+    private static int[] indicesOf(PreparedGeometry geometry) {
+        int[] indices = new int[geometry.getIndexCount()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = geometry.getIndex(i);
+        }
+        return indices;
+    }
+
+    private static void assertGeometryEquals(PreparedGeometry expected, PreparedGeometry actual) {
+        assertEquals(expected.getVertexCount(), actual.getVertexCount());
+        assertArrayEquals(expected.getAabb(), actual.getAabb(), 0f);
+        float[] a = new float[VERTEX_SIZE];
+        float[] b = new float[VERTEX_SIZE];
+        for (int v = 0; v < expected.getVertexCount(); v++) {
+            expected.getVertex(v, a);
+            actual.getVertex(v, b);
+            assertArrayEquals("v" + v, a, b, 0f);
+        }
+        assertEquals(expected.getIndexCount(), actual.getIndexCount());
+        for (int i = 0; i < expected.getIndexCount(); i++) {
+            assertEquals(expected.getIndex(i), actual.getIndex(i));
+        }
+    }
+
+    private static FloatBuffer direct(float[] values) {
+        FloatBuffer buffer = ByteBuffer.allocateDirect(values.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        buffer.put(values).clear();
+        return buffer;
+    }
+
+    private static float[] randomFloats(int length, long seed, float scale) {
+        Random random = new Random(seed);
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = (random.nextFloat() - 0.5f) * scale;
+        }
+        return values;
+    }
+
+    private static float[] randomNormals(int count, long seed) {
+        float[] normals = randomFloats(count * 3, seed, 2f);
+        //包含沿Y轴的法线
+        normals[0] = 0f;
+        normals[1] = 1f;
+        normals[2] = 0f;
+        for (int v = 0; v < count; v++) {
+            MathKernel.vec3Normalize(normals, v * 3, normals, v * 3);
+        }
+        return normals;
+    }
+
+    private static float[] bounds(float[] positions) {
+        float[] box = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        for (int i = 0; i < positions.length; i += 3) {
+            for (int c = 0; c < 3; c++) {
+                box[c] = Math.min(box[c], positions[i + c]);
+                box[3 + c] = Math.max(box[3 + c], positions[i + c]);
+            }
+        }
+        return box;
+    }
+}
@@ -0,0 +1,75 @@
+package com.google.sceneform.rendering;
+
+import com.google.sceneform.math.Vector3;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 可增量更新的渲染定义测试
+ * <p>覆盖或移除边界上的顶点后包围盒按有效范围重新计算，由顶点对象写入与逐个写入的结果一致</p>
+ */
+public class RenderableDefinitionDynamicTest {
+
+    @Test
+    public void appendOnlyExpandsBounds() {
+        RenderableDefinitionDynamic definition = new RenderableDefinitionDynamic(2, 3);
+        definition.setVertexCount(2);
+        put(definition, 0, -1f, 0f, 0f);
+        put(definition, 1, 1f, 2f, 3f);
+        definition.setVertexCount(3);
+        put(definition, 2, 0f, -5f, 1f);
+        assertArrayEquals(new float[]{-1f, -5f, 0f, 1f, 2f, 3f}, definition.getAabb(), 0f);
+    }
+
+    @Test
+    public void overwritingBoundaryVertexShrinksBounds() {
+        RenderableDefinitionDynamic definition = new RenderableDefinitionDynamic(4, 3);
+        definition.setVertexCount(3);
+        put(definition, 0, 0f, 0f, 0f);
+        put(definition, 1, 1f, 1f, 1f);
+        //末端顶点被替换，如PipeMeshBuilder重写端盖
+        put(definition, 2, 10f, 10f, 10f);
+        put(definition, 2, 2f, 2f, 2f);
+        assertArrayEquals(new float[]{0f, 0f, 0f, 2f, 2f, 2f}, definition.getAabb(), 0f);
+    }
+
+    @Test
+    public void removingVerticesShrinksBounds() {
+        RenderableDefinitionDynamic definition = new RenderableDefinitionDynamic(4, 3);
+        definition.setVertexCount(3);
+        put(definition, 0, 0f, 0f, 0f);
+        put(definition, 1, 1f, 1f, 1f);
+        put(definition, 2, -8f, 9f, 4f);
+        definition.setVertexCount(2);
+        assertArrayEquals(new float[]{0f, 0f, 0f, 1f, 1f, 1f}, definition.getAabb(), 0f);
+    }
+
+    @Test
+    public void setVerticesReplacesAllVertices() {
+        RenderableDefinitionDynamic definition = new RenderableDefinitionDynamic(1, 3);
+        definition.setVertexCount(1);
+        put(definition, 0, 100f, 100f, 100f);
+
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            vertices.add(Vertex.builder()
+                    .setPosition(new Vector3(i, -i, i * 0.5f))
+                    .setNormal(new Vector3(0f, 1f, 0f))
+                    .build());
+        }
+        definition.setVertices(vertices);
+        assertEquals(5, definition.getVertexCount());
+        assertEquals(vertices, definition.getVertices());
+        assertArrayEquals(new float[]{0f, -4f, 0f, 4f, 0f, 2f}, definition.getAabb(), 0f);
+    }
+
+    private static void put(RenderableDefinitionDynamic definition, int index, float x, float y, float z) {
+        definition.putVertex(index, x, y, z, 0f, 0f, 1f, 0f, 0f);
+    }
+}
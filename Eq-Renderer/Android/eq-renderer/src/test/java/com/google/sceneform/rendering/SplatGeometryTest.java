@@ -0,0 +1,242 @@
+package com.google.sceneform.rendering;
+
+import com.eqgis.eqr.core.GaussianChunks;
+import com.eqgis.eqr.core.GaussianQuantizedData;
+import com.eqgis.eqr.core.GaussianShEvaluator;
+import com.eqgis.eqr.data.JPlyGS3dAsset;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 高斯点云Quad几何数据测试
+ * <p>各布局(含纹理布局)写入的属性一致(在各自精度内)，颜色与球谐颜色流一致，索引与缓冲区大小正确，超出int范围时抛出异常而非溢出</p>
+ */
+public class SplatGeometryTest {
+
+    private static final int COUNT = 3_000;
+
+    @Test
+    public void indicesFormTwoTrianglesPerSplat() {
+        SplatGeometry geometry = SplatGeometry.build(randomAsset(COUNT, 1), false);
+        assertEquals(COUNT * 4, geometry.vertexCount);
+        assertEquals(COUNT * 6, geometry.indexCount);
+        IntBuffer indices = geometry.indices;
+        assertEquals(geometry.indexCount, indices.remaining());
+        int[] pattern = {0, 1, 2, 0, 2, 3};
+        for (int i = 0; i < COUNT; i++) {
+            for (int k = 0; k < 6; k++) {
+                assertEquals(i * 4 + pattern[k], indices.get(i * 6 + k));
+            }
+        }
+    }
+
+    @Test
+    public void bufferSizesMatchStrides() {
+        JPlyGS3dAsset asset = randomAsset(COUNT, 2);
+        for (boolean compact : new boolean[]{false, true}) {
+            for (boolean half : new boolean[]{false, true}) {
+                SplatGeometry geometry = SplatGeometry.build(asset, half, compact, true);
+                assertEquals(geometry.vertexCount * geometry.geometryStride, geometry.geometry.capacity());
+                assertEquals(geometry.vertexCount * geometry.attributeStride, geometry.attributes.capacity());
+                assertEquals(geometry.vertexCount * 4, geometry.colors.capacity());
+            }
+        }
+        assertEquals(68, SplatGeometry.build(asset, false).bytesPerVertex());
+        assertEquals(44, SplatGeometry.build(asset, true).bytesPerVertex());
+        assertEquals(36, SplatGeometry.build(asset, false, true).bytesPerVertex());
+    }
+
+    @Test
+    public void layoutsAgreeWithinPrecision() {
+        JPlyGS3dAsset asset = randomAsset(COUNT, 3);
+        SplatGeometry full = SplatGeometry.build(asset, false);
+        SplatGeometry half = SplatGeometry.build(asset, true);
+        SplatGeometry compact = SplatGeometry.build(asset, false, true);
+
+        for (int v = 0; v < full.vertexCount; v++) {
+            float[] expected = readFloat(full, v);
+            float[] halfValues = readHalf(half, v);
+            float[] compactValues = readCompact(compact, v);
+            for (int c = 0; c < expected.length; c++) {
+                float tolerance = Math.max(Math.abs(expected[c]) * 1e-3f, 1e-3f);
+                assertEquals("half v" + v + " c" + c, expected[c], halfValues[c], tolerance);
+                //颜色为8位，旋转为16位
+                float compactTolerance = c < 4 ? 1f / 255f : tolerance;
+                assertEquals("compact v" + v + " c" + c, expected[c], compactValues[c], compactTolerance);
+            }
+            //同一个高斯点的4个顶点位置相同
+            int splat = v / 4;
+            assertEquals(asset.vertices[splat * 3], full.geometry.getFloat(v * full.geometryStride), 0f);
+            assertEquals(asset.vertices[splat * 3 + 2], compact.geometry.getFloat(v * compact.geometryStride + 8), 0f);
+        }
+    }
+
+    @Test
+    public void texturedLayoutStoresEachSplatOnce() {
+        JPlyGS3dAsset asset = randomAsset(COUNT, 5);
+        SplatGeometry textured = SplatGeometry.buildTextured(asset);
+        SplatGeometry full = SplatGeometry.build(asset, false);
+        assertTrue(textured.textured);
+        assertEquals(COUNT * 6, textured.indexCount);
+        int rows = (COUNT + SplatGeometry.TEXTURE_SPLATS_PER_ROW - 1) / SplatGeometry.TEXTURE_SPLATS_PER_ROW;
+        assertEquals(rows, textured.textureHeight);
+        assertEquals(textured.vertexCount * 12, textured.geometry.capacity());
+        assertEquals(textured.textureTexelCount() * 16, textured.data.capacity());
+        assertEquals(textured.textureTexelCount() * 4, textured.colors.capacity());
+        //位置12字节 × 4，数据纹理16字节，颜色纹理4字节
+        assertEquals(68, textured.bytesPerSplat());
+        assertEquals(272, full.bytesPerSplat());
+        assertEquals(144, SplatGeometry.build(asset, false, true).bytesPerSplat());
+
+        for (int i = 0; i < COUNT; i++) {
+            float[] expected = readFloat(full, i * SplatGeometry.VERTICES_PER_SPLAT);
+            int color = textured.colors.getInt(i * 4);
+            for (int c = 0; c < 4; c++) {
+                assertEquals("color " + i, expected[c], (color >>> (c * 8) & 0xFF) / 255f, 0.5f / 255f + 1e-6f);
+            }
+            //对数缩放xyz,0 与 旋转xyzw
+            for (int c = 0; c < 8; c++) {
+                if (c == 3) {
+                    continue;
+                }
+                float value = GaussianQuantizedData.fromHalf(textured.data.getShort((i * 8 + c) * 2));
+                float tolerance = Math.max(Math.abs(expected[4 + c]) * 1e-3f, 1e-3f);
+                assertEquals("data " + i + " c" + c, expected[4 + c], value, tolerance);
+            }
+            for (int v = 0; v < SplatGeometry.VERTICES_PER_SPLAT; v++) {
+                int offset = (i * SplatGeometry.VERTICES_PER_SPLAT + v) * textured.geometryStride;
+                assertEquals(asset.vertices[i * 3 + 1], textured.geometry.getFloat(offset + 4), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void fitsTextureLimit() {
+        int limit = SplatGeometry.TEXTURE_SPLATS_PER_ROW * SplatGeometry.MAX_TEXTURE_SIZE;
+        assertTrue(SplatGeometry.fitsTexture(limit));
+        assertTrue(!SplatGeometry.fitsTexture(limit + 1));
+    }
+
+    @Test
+    public void colorMatchesShEvaluator() {
+        JPlyGS3dAsset asset = randomAsset(COUNT, 4);
+        SplatGeometry full = SplatGeometry.build(asset, false);
+        GaussianChunks chunks = GaussianChunks.build(asset.vertices, asset.scale, 256);
+        //无f_rest时只有DC分量，与顶点属性写入同一颜色
+        int[] colors = new GaussianShEvaluator(asset, chunks, null).getColors();
+        for (int i = 0; i < COUNT; i++) {
+            float[] record = readFloat(full, i * SplatGeometry.VERTICES_PER_SPLAT);
+            int color = colors[i];
+            for (int c = 0; c < 4; c++) {
+                assertEquals("splat " + i + " c" + c, (color >>> (c * 8) & 0xFF) / 255f, record[c], 0.5f / 255f + 1e-6f);
+            }
+            //颜色为 0.5 + SH_C0 * f_dc，alpha为sigmoid(opacity)
+            float expectedRed = Math.max(0f, Math.min(1f, 0.5f + 0.28209479f * asset.f_dc[i * 3]));
+            assertEquals(expectedRed, record[0], 1e-6f);
+            assertEquals(1f / (1f + (float) Math.exp(-asset.opacity[i])), record[3], 1e-6f);
+        }
+    }
+
+    @Test
+    public void checkedSizeRejectsOverflow() {
+        assertEquals(Integer.MAX_VALUE, SplatGeometry.checkedSize(Integer.MAX_VALUE, "size"));
+        //int乘法会溢出为负数或较小的正数
+        long splats = 200_000_000L;
+        try {
+            SplatGeometry.checkedSize(splats * SplatGeometry.VERTICES_PER_SPLAT * 68, "geometry buffer");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("geometry buffer"));
+        }
+        try {
+            SplatGeometry.checkedSize(-1, "size");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            //negative size
+        }
+    }
+
+    /**
+     * float布局：颜色、缩放、旋转
+     */
+    private static float[] readFloat(SplatGeometry geometry, int vertex) {
+        ByteBuffer buffer = geometry.attributes;
+        int base = vertex * geometry.attributeStride;
+        float[] values = new float[12];
+        for (int c = 0; c < values.length; c++) {
+            values[c] = buffer.getFloat(base + c * 4);
+        }
+        return values;
+    }
+
+    private static float[] readHalf(SplatGeometry geometry, int vertex) {
+        ByteBuffer buffer = geometry.attributes;
+        int base = vertex * geometry.attributeStride;
+        float[] values = new float[12];
+        for (int c = 0; c < values.length; c++) {
+            values[c] = GaussianQuantizedData.fromHalf(buffer.getShort(base + c * 2));
+        }
+        return values;
+    }
+
+    /**
+     * 紧凑布局：ubyte4颜色、half4缩放、snorm16旋转
+     */
+    private static float[] readCompact(SplatGeometry geometry, int vertex) {
+        ByteBuffer buffer = geometry.attributes;
+        int base = vertex * geometry.attributeStride;
+        float[] values = new float[12];
+        for (int c = 0; c < 4; c++) {
+            values[c] = (buffer.get(base + geometry.colorOffset + c) & 0xFF) / 255f;
+            values[4 + c] = GaussianQuantizedData.fromHalf(buffer.getShort(base + geometry.scaleOffset + c * 2));
+        }
+        //紧凑布局写入归一化的四元数
+        float[] q = new float[4];
+        float length = 0f;
+        for (int c = 0; c < 4; c++) {
+            q[c] = buffer.getShort(base + geometry.rotationOffset + c * 2) / 32767f;
+            length += q[c] * q[c];
+        }
+        System.arraycopy(q, 0, values, 8, 4);
+        assertEquals(1f, (float) Math.sqrt(length), 1e-3f);
+        return values;
+    }
+
+    static JPlyGS3dAsset randomAsset(int count, long seed) {
+        Random random = new Random(seed);
+        JPlyGS3dAsset asset = new JPlyGS3dAsset();
+        asset.vertices = new float[count * 3];
+        asset.f_dc = new float[count * 3];
+        asset.opacity = new float[count];
+        asset.scale = new float[count * 3];
+        asset.rot = new float[count * 4];
+        for (int i = 0; i < count; i++) {
+            for (int c = 0; c < 3; c++) {
+                asset.vertices[i * 3 + c] = (random.nextFloat() - 0.5f) * 20f;
+                asset.f_dc[i * 3 + c] = (random.nextFloat() - 0.5f) * 4f;
+                asset.scale[i * 3 + c] = -6f + random.nextFloat() * 4f;
+            }
+            asset.opacity[i] = (random.nextFloat() - 0.5f) * 10f;
+            //单位四元数
+            float length = 0f;
+            for (int c = 0; c < 4; c++) {
+                asset.rot[i * 4 + c] = random.nextFloat() - 0.5f;
+                length += asset.rot[i * 4 + c] * asset.rot[i * 4 + c];
+            }
+            length = (float) Math.sqrt(length);
+            for (int c = 0; c < 4; c++) {
+                asset.rot[i * 4 + c] /= length;
+            }
+        }
+        asset.pointCount = count;
+        return asset;
+    }
+}
@@ -0,0 +1,98 @@
+package com.google.sceneform.resources;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 模型内存缓存测试
+ * <p>按最近最少使用淘汰，离开缓存的资源回调给淘汰监听，大小更新后重新计入上限</p>
+ */
+public class ResourceCacheTest {
+
+    private final List<Object> evicted = new ArrayList<>();
+
+    private ResourceCache<String> newCache(long maxSizeBytes) {
+        ResourceCache<String> cache = new ResourceCache<>(maxSizeBytes);
+        cache.setEvictionListener((id, resource) -> evicted.add(id));
+        return cache;
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        ResourceCache<String> cache = newCache(30);
+        assertTrue(cache.put("a", "A", 10));
+        assertTrue(cache.put("b", "B", 10));
+        assertTrue(cache.put("c", "C", 10));
+        //访问a后，b成为最久未使用
+        assertSame("A", cache.get("a"));
+        assertTrue(cache.put("d", "D", 10));
+
+        assertEquals(Arrays.asList((Object) "b"), evicted);
+        assertNull(cache.get("b"));
+        assertSame("A", cache.get("a"));
+        assertEquals(30, cache.getSizeBytes());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void oversizedResourceIsRejectedWithoutCallback() {
+        ResourceCache<String> cache = newCache(30);
+        assertFalse(cache.put("a", "A", 31));
+        assertFalse(cache.put("b", "B", 0));
+        assertTrue(evicted.isEmpty());
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    public void replacedAndRemovedResourcesAreReported() {
+        ResourceCache<String> cache = newCache(30);
+        cache.put("a", "A", 10);
+        cache.put("a", "A2", 10);
+        assertEquals(Arrays.asList((Object) "a"), evicted);
+        assertSame("A2", cache.get("a"));
+
+        cache.remove("a");
+        assertEquals(Arrays.asList((Object) "a", "a"), evicted);
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    public void resizeRecountsAndTrims() {
+        ResourceCache<String> cache = newCache(30);
+        cache.put("a", "A", 10);
+        cache.put("b", "B", 10);
+        //b加载完外部资源后变大，挤出最久未使用的a
+        cache.resize("b", 25);
+        assertEquals(Arrays.asList((Object) "a"), evicted);
+        assertEquals(25, cache.getSizeBytes());
+        assertSame("B", cache.get("b"));
+
+        //超过上限时自身被淘汰
+        cache.resize("b", 31);
+        assertEquals(Arrays.asList((Object) "a", "b"), evicted);
+        assertEquals(0, cache.getSizeBytes());
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void shrinkingLimitEvicts() {
+        ResourceCache<String> cache = newCache(30);
+        cache.put("a", "A", 10);
+        cache.put("b", "B", 10);
+        cache.setMaxSizeBytes(15);
+        assertEquals(Arrays.asList((Object) "a"), evicted);
+
+        cache.destroyAllResources();
+        assertEquals(1, evicted.size());
+        assertEquals(0, cache.getSizeBytes());
+    }
+}
@@ -0,0 +1,85 @@
+package com.google.sceneform.utilities;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 读取输入流到direct缓冲区测试
+ * <p>普通文件从当前位置映射到末尾，无法映射时回退到拷贝，结果一致</p>
+ */
+public class SceneformBufferUtilsTest {
+
+    @Test
+    public void mapsRegularFileFromCurrentPosition() throws IOException {
+        byte[] data = randomBytes(100_000);
+        File file = writeTempFile(data);
+        try (FileInputStream input = new FileInputStream(file)) {
+            assertEquals(10, input.skip(10));
+            ByteBuffer buffer = SceneformBufferUtils.inputStreamToDirectByteBuffer(input);
+            assertTrue(buffer.isDirect());
+            assertContent(data, 10, buffer);
+            //与读取一致，已消费到末尾
+            assertEquals(-1, input.read());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void emptyFileFallsBackToCopy() throws IOException {
+        File file = writeTempFile(new byte[0]);
+        try (FileInputStream input = new FileInputStream(file)) {
+            ByteBuffer buffer = SceneformBufferUtils.inputStreamToDirectByteBuffer(input);
+            assertEquals(0, buffer.remaining());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void otherStreamsAreCopied() throws IOException {
+        byte[] data = randomBytes(50_000);
+        //available()为0时需多次扩容
+        ByteArrayInputStream input = new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+        };
+        ByteBuffer buffer = SceneformBufferUtils.inputStreamToDirectByteBuffer(input);
+        assertTrue(buffer.isDirect());
+        assertContent(data, 0, buffer);
+    }
+
+    private static void assertContent(byte[] expected, int offset, ByteBuffer actual) {
+        assertEquals(0, actual.position());
+        assertEquals(expected.length - offset, actual.remaining());
+        for (int i = offset; i < expected.length; i++) {
+            assertEquals(expected[i], actual.get(i - offset));
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    private static File writeTempFile(byte[] data) throws IOException {
+        File file = File.createTempFile("buffer", ".bin");
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(data);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,50 @@
+// 3DGS椭圆投影，参照 https://github.com/antimatter15/splat 与 EWA splatting
+// 输入为局部坐标下的对数缩放与旋转四元数(xyzw)，输出为quad角点在世界坐标(相对相机)下的偏移
+
+// corner: quad角点，[-2, 2]，即2倍标准差
+vec3 gaussian_splat_corner_offset(vec3 center, vec3 logScale, vec4 q, vec2 corner) {
+    vec4 viewCenter = getViewFromWorldMatrix() * vec4(center, 1.0);
+    float d = -viewCenter.z;
+    if (d <= 0.0) {
+        // 位于相机后方，退化为一个点
+        return vec3(0.0);
+    }
+
+    float x = q.x, y = q.y, z = q.z, w = q.w;
+    mat3 rotation = mat3(
+        1.0 - 2.0 * (y * y + z * z), 2.0 * (x * y + w * z), 2.0 * (x * z - w * y),
+        2.0 * (x * y - w * z), 1.0 - 2.0 * (x * x + z * z), 2.0 * (y * z + w * x),
+        2.0 * (x * z + w * y), 2.0 * (y * z - w * x), 1.0 - 2.0 * (x * x + y * y));
+    vec3 s = exp(logScale);
+    mat3 m = mat3(rotation[0] * s.x, rotation[1] * s.y, rotation[2] * s.z);
+    mat3 sigma = m * transpose(m);
+
+    // 局部 → 视图
+    mat3 w2v = mat3(getViewFromWorldMatrix()) * mat3(getWorldFromModelMatrix());
+    mat3 viewSigma = w2v * sigma * transpose(w2v);
+
+    // 以像素为单位的焦距
+    vec2 focal = vec2(getClipFromViewMatrix()[0][0], getClipFromViewMatrix()[1][1]) * 0.5 * getResolution().xy;
+    mat3 j = mat3(
+        focal.x / d, 0.0, 0.0,
+        0.0, focal.y / d, 0.0,
+        focal.x * viewCenter.x / (d * d), focal.y * viewCenter.y / (d * d), 0.0);
+    mat3 cov = j * viewSigma * transpose(j);
+
+    // 低通滤波，保证至少约1像素
+    float a = cov[0][0] + 0.3;
+    float b = cov[0][1];
+    float c = cov[1][1] + 0.3;
+    float mid = 0.5 * (a + c);
+    float radius = length(vec2(0.5 * (a - c), b));
+    float lambda1 = mid + radius;
+    float lambda2 = max(mid - radius, 0.1);
+    vec2 axis = abs(b) > 1e-6 ? normalize(vec2(b, lambda1 - a)) : (a >= c ? vec2(1.0, 0.0) : vec2(0.0, 1.0));
+    vec2 major = min(sqrt(2.0 * lambda1), 1024.0) * axis;
+    vec2 minor = min(sqrt(2.0 * lambda2), 1024.0) * vec2(axis.y, -axis.x);
+
+    // 像素偏移 → 视图偏移(位于中心点深度处) → 世界偏移
+    vec2 pixel = corner.x * major + corner.y * minor;
+    vec3 viewOffset = vec3(pixel / focal * d, 0.0);
+    return mat3(getWorldFromViewMatrix()) * viewOffset;
+}
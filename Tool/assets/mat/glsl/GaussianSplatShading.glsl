@@ -0,0 +1,22 @@
+// 3DGS片元着色，与GaussianSplatProjection.glsl配合使用
+
+float gaussian_splat_srgb_to_linear(float color) {
+    return color <= 0.04045 ? color / 12.92 : pow((color + 0.055) / 1.055, 2.4);
+}
+
+// splatColor: 显示颜色(sRGB)与alpha；输出为预乘alpha的线性颜色
+vec4 gaussian_splat_shade(vec2 corner, vec4 splatColor) {
+    float power = -dot(corner, corner);
+    if (power < -4.0) {
+        discard;
+    }
+    float alpha = exp(power) * splatColor.a;
+    if (alpha < 1.0 / 255.0) {
+        discard;
+    }
+    vec3 rgb = vec3(
+        gaussian_splat_srgb_to_linear(splatColor.r),
+        gaussian_splat_srgb_to_linear(splatColor.g),
+        gaussian_splat_srgb_to_linear(splatColor.b));
+    return vec4(rgb * alpha, alpha);
+}